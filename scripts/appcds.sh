@@ -0,0 +1,62 @@
+#!/bin/bash
+
+set -e
+
+# -----------------------------
+# Configuration
+# -----------------------------
+MAIN_CLASS=${1:-edu.cnu.mdi.app.DemoApp}
+ARCHIVE=target/mdi.jsa
+CLASSPATH_FILE=target/classpath.txt
+
+# -----------------------------
+# Usage
+# -----------------------------
+# Builds an AppCDS (class data sharing) archive from one training start of
+# the application, so later starts map the already-parsed classes instead
+# of loading them again. Needs JDK 13+ and a display, since the training
+# run opens the main frame; it exits by itself once the frame is showing.
+#
+#   ./scripts/appcds.sh [main-class]
+if [ "$1" = "-h" ] || [ "$1" = "--help" ]; then
+  echo "Usage: ./scripts/appcds.sh [main-class]   (default: edu.cnu.mdi.app.DemoApp)"
+  exit 0
+fi
+
+# -----------------------------
+# Build
+# -----------------------------
+echo "Building jar and classpath..."
+mvn -B -q -DskipTests package
+mvn -B -q dependency:build-classpath -Dmdep.outputFile="$CLASSPATH_FILE"
+
+JAR=$(ls target/mdi-*.jar | grep -v -e sources -e javadoc | head -n 1)
+if [ -z "$JAR" ]; then
+  echo "ERROR: No jar found in target/"
+  exit 1
+fi
+CP="$JAR:$(cat "$CLASSPATH_FILE")"
+
+# -----------------------------
+# Training run
+# -----------------------------
+echo "Training run of $MAIN_CLASS (the window closes by itself)..."
+rm -f "$ARCHIVE"
+java -XX:ArchiveClassesAtExit="$ARCHIVE" \
+  -Dmdi.startup.exit=true -Dmdi.startup.profile=true \
+  -cp "$CP" "$MAIN_CLASS"
+
+if [ ! -f "$ARCHIVE" ]; then
+  echo "ERROR: Archive was not written."
+  exit 1
+fi
+
+# -----------------------------
+# Done
+# -----------------------------
+echo "====================================="
+echo "Wrote $ARCHIVE ($(du -h "$ARCHIVE" | cut -f1))"
+echo "Start with the archive using:"
+echo "  java -XX:SharedArchiveFile=$ARCHIVE -cp \"$CP\" $MAIN_CLASS"
+echo "Add -Dmdi.startup.profile=true to compare startup profiles."
+echo "====================================="
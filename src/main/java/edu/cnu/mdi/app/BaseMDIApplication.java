@@ -30,6 +30,9 @@ import java.awt.Rectangle;
 import com.formdev.flatlaf.FlatIntelliJLaf;
 
 import edu.cnu.mdi.desktop.Desktop;
+import edu.cnu.mdi.graphics.ImageManager;
+import edu.cnu.mdi.graphics.toolbar.BaseToolBar;
+import edu.cnu.mdi.graphics.toolbar.ToolBits;
 import edu.cnu.mdi.log.ConsoleLogger;
 import edu.cnu.mdi.log.Log;
 import edu.cnu.mdi.swing.WindowPlacement;
@@ -38,6 +41,7 @@ import edu.cnu.mdi.ui.menu.FileMenu;
 import edu.cnu.mdi.ui.menu.MenuManager;
 import edu.cnu.mdi.util.Environment;
 import edu.cnu.mdi.util.PropertyUtils;
+import edu.cnu.mdi.util.StartupProfiler;
 import edu.cnu.mdi.view.BaseView;
 import edu.cnu.mdi.view.ViewManager;
 import edu.cnu.mdi.view.VirtualView;
@@ -144,13 +148,19 @@ public class BaseMDIApplication extends JFrame {
 
 		try {
 			// Initialize FlatLaf LookAndFeel
-			UIInit();
+			StartupProfiler.phase("look and feel", this::UIInit);
+
+			// Warm the icon cache while the frame is being built
+			ImageManager.getInstance().prefetchUiIcons(ToolBits.getResourcePaths(), BaseToolBar.DEFAULT_ICON_SIZE);
 
 			// set the application name
 			String applicationId = getApplicationId();
 			Environment.setApplicationName(applicationId);
 
 			_properties = PropertyUtils.fromKeyValues(keyVals);
+			if (PropertyUtils.getLazyViews(_properties)) {
+				ViewManager.getInstance().setLazyRealization(true);
+			}
 
 			// --------------------------------------------------------------------
 			// Menu bar and menu manager
@@ -183,6 +193,12 @@ public class BaseMDIApplication extends JFrame {
 						dispose();
 					}
 				}
+
+				@Override
+				public void windowOpened(WindowEvent we) {
+					// let the first paint go through before closing the profile
+					SwingUtilities.invokeLater(StartupProfiler::finish);
+				}
 			});
 			
 			//console logging of log events for debugging?
@@ -208,7 +224,8 @@ public class BaseMDIApplication extends JFrame {
 			// --------------------------------------------------------------------
 			// Desktop creation
 			// --------------------------------------------------------------------
-			Desktop desktop = Desktop.createDesktop(background, backgroundImage);
+			Desktop desktop = StartupProfiler.phase("desktop",
+					() -> Desktop.createDesktop(background, backgroundImage));
 			add(desktop, BorderLayout.CENTER);
 
 			// --------------------------------------------------------------------
@@ -230,8 +247,10 @@ public class BaseMDIApplication extends JFrame {
 			// --------------------------------------------------------------------
 			// Standard menus
 			// --------------------------------------------------------------------
-			menuManager.addMenu(new FileMenu());
-			menuManager.addMenu(ViewManager.getInstance().getViewMenu());
+			StartupProfiler.phase("menus", () -> {
+				menuManager.addMenu(new FileMenu());
+				menuManager.addMenu(ViewManager.getInstance().getViewMenu());
+			});
 
 
 		    // Create VirtualView early (before frame is showing) so addNotify()
@@ -242,7 +261,13 @@ public class BaseMDIApplication extends JFrame {
 		    }
 
 		    prepareForVirtualDesktop();
-		    addInitialViews();
+
+		    long stallThreshold = getEdtStallThresholdMillis();
+		    if (stallThreshold > 0) {
+		        EdtWatchdog.getInstance(stallThreshold).start();
+		    }
+
+		    StartupProfiler.phase("initial views", this::addInitialViews);
 		    Log.getInstance().config(applicationId + " initializing");
 		    Log.getInstance().info(Environment.getInstance().toString());
 		} catch (RuntimeException | Error e) {
@@ -292,9 +317,29 @@ public class BaseMDIApplication extends JFrame {
 	 * </p>
 	 */
 	protected void prepareForShutdown() {
+		EdtWatchdog watchdog = EdtWatchdog.getInstance();
+		if (watchdog != null) {
+			watchdog.stop();
+		}
 		Desktop.getInstance().prepareForExit();
 	}
 
+	/**
+	 * Returns the Event Dispatch Thread latency, in milliseconds, above which
+	 * the {@link EdtWatchdog} started by this class reports a stall, with
+	 * stack samples, to the log.
+	 *
+	 * <p>
+	 * The default is {@link EdtWatchdog#DEFAULT_THRESHOLD_MILLIS}. Return 0 to
+	 * disable the watchdog.
+	 * </p>
+	 *
+	 * @return the stall threshold in milliseconds, or 0 for no watchdog
+	 */
+	protected long getEdtStallThresholdMillis() {
+		return EdtWatchdog.DEFAULT_THRESHOLD_MILLIS;
+	}
+
 	/**
 	 * Override to opt in to a virtual desktop with the given column count. Return 0
 	 * to disable.
@@ -652,8 +697,8 @@ public class BaseMDIApplication extends JFrame {
 	 */
 	public static void launch(Supplier<? extends BaseMDIApplication> factory) {
 		EventQueue.invokeLater(() -> {
-			BaseMDIApplication app = factory.get();
-			app.setVisible(true);
+			BaseMDIApplication app = StartupProfiler.phase("construct application", factory);
+			StartupProfiler.phase("show frame", () -> app.setVisible(true));
 		});
 	}
 }
\ No newline at end of file
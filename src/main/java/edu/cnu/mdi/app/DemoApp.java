@@ -5,7 +5,6 @@ import java.awt.geom.Rectangle2D;
 
 import edu.cnu.mdi.graphics.toolbar.ToolBits;
 import edu.cnu.mdi.mapping.DemoMap;
-import edu.cnu.mdi.mapping.MapView2D;
 import edu.cnu.mdi.sim.demo.network.NetworkDeclutterDemoView;
 import edu.cnu.mdi.sim.ga.triimage.ImageEvolutionDemoView;
 import edu.cnu.mdi.sim.simanneal.tspdemo.TspDemoView;
@@ -59,7 +58,6 @@ public class DemoApp extends BaseMDIApplication {
 	// -------------------------------------------------------------------------
 
 	private DrawingView drawingView;
-	private MapView2D mapView;
 	private LogView logView;
 	private JsonView jsonView;
 	private PlotView plotView;
@@ -117,8 +115,9 @@ public class DemoApp extends BaseMDIApplication {
 		// Drawing view
 		drawingView = DrawingView.createDrawingView();
 
-		// Map view (also loads demo GeoJSON)
-		mapView = DemoMap.createDemoMapView();
+		// Map view — staged: the demo GeoJSON loads in the background and the
+		// view replaces its placeholder frame when ready
+		ViewManager.getInstance().addConfiguration(DemoMap.getConfiguration());
 
 		// Plot view
 		plotView = SplotDemoView.createDemoView();
@@ -145,7 +144,6 @@ public class DemoApp extends BaseMDIApplication {
 	 */
 	@Override
 	protected void defaultViewLayout() {
-		virtualViewMove(mapView,                  0, VirtualView.BOTTOMLEFT);
 		virtualViewMove(drawingView,              0, VirtualView.UPPERRIGHT);
 		virtualViewMove(plotView,                 1, VirtualView.CENTER);
 		virtualViewMove(networkDeclutterDemoView, 2, VirtualView.CENTER);
@@ -0,0 +1,408 @@
+package edu.cnu.mdi.app;
+
+import java.awt.EventQueue;
+import java.lang.reflect.InvocationTargetException;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import edu.cnu.mdi.log.Log;
+
+/**
+ * Detects stalls of the Event Dispatch Thread and reports what it was doing.
+ *
+ * <h2>Detection</h2>
+ * <p>
+ * A daemon thread wakes every sample interval. When no probe is outstanding
+ * it posts a no-op probe to the EDT; when one is, and it has waited longer
+ * than the stall threshold, the EDT is considered stalled. The measured
+ * latency therefore covers both a long-running event and a flooded queue.
+ * </p>
+ *
+ * <h2>Sampling</h2>
+ * <p>
+ * While a stall lasts, the EDT stack is sampled on every wake-up. Each sample
+ * counts its top frame (self time) and every distinct non-JDK frame on the
+ * stack (inclusive time), so the application code responsible shows up even
+ * when the EDT is inside a library call. When the probe finally runs the stall is closed and a
+ * {@link StallReport} listing the hottest frames is logged as a warning
+ * through {@link Log}. A stall that is still going after
+ * {@link #LONG_STALL_MILLIS} is also reported once while in progress, so a
+ * deadlocked EDT leaves a trace.
+ * </p>
+ *
+ * <h2>Lifecycle</h2>
+ * <p>
+ * {@link BaseMDIApplication} starts the shared instance
+ * ({@link #getInstance(long)}) with its
+ * {@link BaseMDIApplication#getEdtStallThresholdMillis() threshold} and stops
+ * it at shutdown. The {@code LogView} shows {@link #getSummary()}.
+ * </p>
+ */
+public final class EdtWatchdog {
+
+	/** Default stall threshold in milliseconds. */
+	public static final long DEFAULT_THRESHOLD_MILLIS = 500;
+
+	/** Default interval between probes and stack samples, in milliseconds. */
+	public static final long DEFAULT_SAMPLE_MILLIS = 50;
+
+	/** Age at which an unfinished stall is reported while still in progress. */
+	public static final long LONG_STALL_MILLIS = 5000;
+
+	/** Number of hot frames listed in a report. */
+	private static final int REPORT_FRAMES = 8;
+
+	/** Number of recent reports retained. */
+	private static final int HISTORY = 20;
+
+	private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+	/** Lazily created shared instance. */
+	private static volatile EdtWatchdog instance;
+
+	/**
+	 * One frame and the number of samples it appeared in.
+	 *
+	 * @param frame   stack frame, as {@link StackTraceElement#toString()}
+	 * @param samples sample count
+	 */
+	public record FrameCount(String frame, int samples) {
+	}
+
+	/**
+	 * A finished (or long-running) stall.
+	 *
+	 * @param start          wall-clock time the delayed probe was posted
+	 * @param durationMillis how long the EDT did not respond
+	 * @param samples        number of stack samples taken
+	 * @param selfFrames     hottest top-of-stack frames
+	 * @param inclusiveFrames hottest non-JDK frames anywhere on the stack
+	 * @param finished       {@code false} for an in-progress report
+	 */
+	public record StallReport(LocalTime start, long durationMillis, int samples, List<FrameCount> selfFrames,
+			List<FrameCount> inclusiveFrames, boolean finished) {
+
+		/**
+		 * Format the report for the log.
+		 *
+		 * @return multi-line description
+		 */
+		public String format() {
+			StringBuilder sb = new StringBuilder();
+			sb.append(finished ? "EDT stalled for " : "EDT blocked for at least ").append(durationMillis)
+					.append(" ms at ").append(TIME_FMT.format(start)).append(" (").append(samples)
+					.append(" stack samples)");
+			appendFrames(sb, "top of stack", selfFrames);
+			appendFrames(sb, "application frames on stack", inclusiveFrames);
+			return sb.toString();
+		}
+
+		private void appendFrames(StringBuilder sb, String title, List<FrameCount> frames) {
+			if (frames.isEmpty()) {
+				return;
+			}
+			sb.append("\n  ").append(title).append(':');
+			for (FrameCount f : frames) {
+				sb.append(String.format("%n    %3d%%  %s", 100 * f.samples() / Math.max(1, samples), f.frame()));
+			}
+		}
+	}
+
+	/** Stall being sampled; touched only by the watchdog thread. */
+	private static final class Stall {
+		final long postedNanos;
+		final LocalTime start;
+		final Map<String, Integer> self = new HashMap<>();
+		final Map<String, Integer> inclusive = new HashMap<>();
+		int samples;
+		boolean reportedLong;
+
+		Stall(long postedNanos, long ageNanos) {
+			this.postedNanos = postedNanos;
+			this.start = LocalTime.now().minusNanos(ageNanos);
+		}
+	}
+
+	private final long thresholdNanos;
+	private final long sampleMillis;
+
+	private ScheduledExecutorService scheduler;
+
+	/** {@link System#nanoTime()} when the outstanding probe was posted; 0 if none. */
+	private volatile long probePosted;
+
+	/** {@link System#nanoTime()} when the last probe ran. */
+	private volatile long probeRan;
+
+	/** The EDT, found by {@link #start()} and refreshed by each probe. */
+	private volatile Thread edt;
+
+	private Stall current;
+
+	private final ArrayDeque<StallReport> reports = new ArrayDeque<>();
+	private int stallCount;
+	private long totalStallMillis;
+	private long longestStallMillis;
+
+	/**
+	 * Create a stopped watchdog.
+	 *
+	 * @param thresholdMillis EDT latency that counts as a stall; must be
+	 *                        positive
+	 * @param sampleMillis    interval between probes and stack samples; must be
+	 *                        positive
+	 */
+	public EdtWatchdog(long thresholdMillis, long sampleMillis) {
+		if (thresholdMillis <= 0 || sampleMillis <= 0) {
+			throw new IllegalArgumentException("threshold and sample interval must be positive");
+		}
+		this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+		this.sampleMillis = sampleMillis;
+	}
+
+	/**
+	 * Get the shared watchdog, creating it with the given threshold on first
+	 * call.
+	 *
+	 * @param thresholdMillis stall threshold used if the instance is created
+	 * @return the shared watchdog
+	 */
+	public static EdtWatchdog getInstance(long thresholdMillis) {
+		if (instance == null) {
+			synchronized (EdtWatchdog.class) {
+				if (instance == null) {
+					instance = new EdtWatchdog(thresholdMillis, DEFAULT_SAMPLE_MILLIS);
+				}
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * Get the shared watchdog if it has been created.
+	 *
+	 * @return the shared watchdog, or {@code null}
+	 */
+	public static EdtWatchdog getInstance() {
+		return instance;
+	}
+
+	// -----------------------------------------------------------------------
+	// Lifecycle
+	// -----------------------------------------------------------------------
+
+	/**
+	 * Start watching; no-op if already running. Called off the EDT, this
+	 * first waits for the EDT once to learn which thread it is, so a stall
+	 * that begins before the first probe can still be sampled.
+	 */
+	public void start() {
+		findEdt();
+		synchronized (this) {
+			startScheduler();
+		}
+	}
+
+	/** Record the EDT thread. Not synchronized, so the EDT cannot block on us. */
+	private void findEdt() {
+		if (EventQueue.isDispatchThread()) {
+			edt = Thread.currentThread();
+			return;
+		}
+		if (edt != null && edt.isAlive()) {
+			return;
+		}
+		try {
+			EventQueue.invokeAndWait(() -> edt = Thread.currentThread());
+		} catch (InterruptedException e) {
+			// the first probe will find it instead
+			Thread.currentThread().interrupt();
+		} catch (InvocationTargetException e) {
+			Log.getInstance().exception(e);
+		}
+	}
+
+	private void startScheduler() {
+		if (scheduler != null) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "EDT-Watchdog");
+			t.setDaemon(true);
+			t.setPriority(Thread.MAX_PRIORITY);
+			return t;
+		});
+		probePosted = 0;
+		scheduler.scheduleWithFixedDelay(this::tick, sampleMillis, sampleMillis, TimeUnit.MILLISECONDS);
+		Log.getInstance().config(String.format("EDT watchdog started (threshold %d ms, sampling every %d ms)",
+				TimeUnit.NANOSECONDS.toMillis(thresholdNanos), sampleMillis));
+	}
+
+	/** Stop watching; no-op if not running. */
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	/** @return {@code true} if the watchdog is running */
+	public synchronized boolean isRunning() {
+		return scheduler != null;
+	}
+
+	// -----------------------------------------------------------------------
+	// Results
+	// -----------------------------------------------------------------------
+
+	/** @return number of finished stalls */
+	public synchronized int getStallCount() {
+		return stallCount;
+	}
+
+	/** @return longest finished stall, in milliseconds */
+	public synchronized long getLongestStallMillis() {
+		return longestStallMillis;
+	}
+
+	/** @return total duration of finished stalls, in milliseconds */
+	public synchronized long getTotalStallMillis() {
+		return totalStallMillis;
+	}
+
+	/** @return the most recent reports, oldest first */
+	public synchronized List<StallReport> getReports() {
+		return List.copyOf(reports);
+	}
+
+	/**
+	 * Return a one-line summary suitable for a status label.
+	 *
+	 * @return the summary
+	 */
+	public synchronized String getSummary() {
+		if (stallCount == 0) {
+			return isRunning() ? "EDT watchdog: no stalls" : "EDT watchdog: stopped";
+		}
+		StallReport last = reports.peekLast();
+		String where = (last != null && !last.selfFrames().isEmpty()) ? " in " + last.selfFrames().get(0).frame()
+				: "";
+		return String.format("EDT watchdog: %d stall%s, longest %d ms, total %d ms; last at %s%s", stallCount,
+				stallCount == 1 ? "" : "s", longestStallMillis, totalStallMillis,
+				(last != null) ? TIME_FMT.format(last.start()) : "?", where);
+	}
+
+	// -----------------------------------------------------------------------
+	// Watchdog thread
+	// -----------------------------------------------------------------------
+
+	/** Runs on the watchdog thread every sample interval. */
+	private void tick() {
+		try {
+			long now = System.nanoTime();
+			long posted = probePosted;
+
+			if (posted == 0) {
+				if (current != null) {
+					finish(current, probeRan);
+					current = null;
+				}
+				probePosted = now;
+				EventQueue.invokeLater(this::probe);
+				return;
+			}
+
+			long age = now - posted;
+			if (age < thresholdNanos) {
+				return;
+			}
+			if (current == null) {
+				current = new Stall(posted, age);
+			}
+			sample(current);
+
+			if (!current.reportedLong && age >= TimeUnit.MILLISECONDS.toNanos(LONG_STALL_MILLIS)) {
+				current.reportedLong = true;
+				Log.getInstance().warning(report(current, TimeUnit.NANOSECONDS.toMillis(age), false).format());
+			}
+		} catch (RuntimeException e) {
+			// never let the scheduler cancel the task
+			Log.getInstance().exception(e);
+		}
+	}
+
+	/** Runs on the EDT. */
+	private void probe() {
+		edt = Thread.currentThread();
+		probeRan = System.nanoTime();
+		probePosted = 0;
+	}
+
+	private void sample(Stall stall) {
+		Thread t = edt;
+		if (t == null) {
+			return;
+		}
+		StackTraceElement[] stack = t.getStackTrace();
+		if (stack.length == 0) {
+			return;
+		}
+		stall.samples++;
+		stall.self.merge(stack[0].toString(), 1, Integer::sum);
+		Set<String> seen = new HashSet<>();
+		for (StackTraceElement e : stack) {
+			if (isPlatformFrame(e)) {
+				continue;
+			}
+			String frame = e.toString();
+			if (seen.add(frame)) {
+				stall.inclusive.merge(frame, 1, Integer::sum);
+			}
+		}
+	}
+
+	/** JDK frames (event pumping, Swing internals) are on every EDT stack. */
+	private static boolean isPlatformFrame(StackTraceElement e) {
+		String c = e.getClassName();
+		return c.startsWith("java.") || c.startsWith("javax.") || c.startsWith("sun.") || c.startsWith("jdk.")
+				|| c.startsWith("com.sun.");
+	}
+
+	private void finish(Stall stall, long ranNanos) {
+		long millis = TimeUnit.NANOSECONDS.toMillis(Math.max(0, ranNanos - stall.postedNanos));
+		StallReport r = report(stall, millis, true);
+		synchronized (this) {
+			stallCount++;
+			totalStallMillis += millis;
+			longestStallMillis = Math.max(longestStallMillis, millis);
+			reports.addLast(r);
+			if (reports.size() > HISTORY) {
+				reports.removeFirst();
+			}
+		}
+		Log.getInstance().warning(r.format());
+	}
+
+	private static StallReport report(Stall stall, long millis, boolean finished) {
+		return new StallReport(stall.start, millis, stall.samples, hottest(stall.self), hottest(stall.inclusive),
+				finished);
+	}
+
+	private static List<FrameCount> hottest(Map<String, Integer> counts) {
+		List<FrameCount> list = new ArrayList<>(counts.size());
+		counts.forEach((f, n) -> list.add(new FrameCount(f, n)));
+		list.sort(Comparator.comparingInt(FrameCount::samples).reversed().thenComparing(FrameCount::frame));
+		return list.size() > REPORT_FRAMES ? List.copyOf(list.subList(0, REPORT_FRAMES)) : list;
+	}
+}
@@ -0,0 +1,191 @@
+package edu.cnu.mdi.container;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.cnu.mdi.log.Log;
+
+/**
+ * Background renderer behind {@link BaseContainer#setAsyncRendering(boolean)}.
+ * <p>
+ * The Event Dispatch Thread captures a {@link RenderScene} — the size, transforms,
+ * background and, for every layer, the list of items to draw — and
+ * {@link #submit submits} it. A single daemon thread renders the newest
+ * submitted scene into an offscreen image and publishes it as the
+ * {@link #getFrame() front frame}; scenes submitted while a render is in
+ * progress replace each other, so only the latest one is rendered and the rest
+ * are dropped. The EDT only ever composites the front frame.
+ *
+ * <h2>Buffers</h2>
+ * Two images are kept: the front frame, which the EDT may be drawing, and a
+ * spare that only the render thread touches. They are swapped under
+ * {@link #frameLock}, which the EDT also holds while compositing, so neither
+ * thread ever sees a half-rendered image.
+ *
+ * <h2>Threading</h2>
+ * While a scene is rendered, {@link BaseContainer}'s coordinate conversions
+ * and {@link BaseContainer#getWorldSystem()} answer from that scene when
+ * called on the render thread (see {@link #isRenderThread()}), so a zoom or
+ * pan on the EDT cannot tear a frame.
+ */
+final class AsyncRenderer {
+
+	/**
+	 * A completed rendering.
+	 *
+	 * @param image the rendering, in device pixels
+	 * @param scene the scene it was rendered from
+	 */
+	record Frame(BufferedImage image, RenderScene scene) {
+	}
+
+	private final BaseContainer container;
+
+	/** Single render thread, created on first submit. */
+	private ExecutorService executor;
+
+	/** Newest scene not yet picked up by the render thread. */
+	private final AtomicReference<RenderScene> pending = new AtomicReference<>();
+
+	/** Most recently submitted scene. */
+	private RenderScene lastSubmitted;
+
+	/** Scene being rendered; read by the container's conversions. */
+	private volatile RenderScene current;
+
+	private volatile Thread renderThread;
+
+	/** Guards {@link #front} and the swap with {@link #spare}. */
+	final Object frameLock = new Object();
+
+	private volatile Frame front;
+
+	/** Image to render the next frame into; render thread only. */
+	private BufferedImage spare;
+
+	private final AtomicLong rendered = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+
+	AsyncRenderer(BaseContainer container) {
+		this.container = container;
+	}
+
+	/**
+	 * Queue a scene for rendering. If an earlier scene is still waiting it is
+	 * replaced (dropped).
+	 *
+	 * @param scene the scene to render
+	 */
+	synchronized void submit(RenderScene scene) {
+		lastSubmitted = scene;
+		if (executor == null) {
+			executor = Executors.newSingleThreadExecutor(r -> {
+				Thread t = new Thread(r, "Async-Render");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		if (pending.getAndSet(scene) == null) {
+			executor.execute(this::drain);
+		} else {
+			dropped.incrementAndGet();
+		}
+	}
+
+	/** Render until no scene is waiting. */
+	private void drain() {
+		renderThread = Thread.currentThread();
+		RenderScene scene;
+		while ((scene = pending.getAndSet(null)) != null) {
+			try {
+				render(scene);
+			} catch (RuntimeException e) {
+				Log.getInstance().exception(e);
+			}
+		}
+	}
+
+	private void render(RenderScene scene) {
+		BufferedImage image = spare;
+		if (image == null || image.getWidth() != scene.deviceWidth() || image.getHeight() != scene.deviceHeight()) {
+			image = new BufferedImage(scene.deviceWidth(), scene.deviceHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+		}
+
+		current = scene;
+		try {
+			TiledRenderer.render(scene, image);
+		} finally {
+			current = null;
+		}
+
+		synchronized (frameLock) {
+			Frame old = front;
+			front = new Frame(image, scene);
+			spare = (old == null) ? null : old.image();
+		}
+		rendered.incrementAndGet();
+		container.repaint();
+	}
+
+	/**
+	 * Check whether the calling thread is rendering a scene.
+	 *
+	 * @return {@code true} on the render thread while a scene is drawn
+	 */
+	boolean isRenderThread() {
+		return current != null && Thread.currentThread() == renderThread;
+	}
+
+	/**
+	 * Scene being rendered, or {@code null} between renders.
+	 *
+	 * @return the current scene
+	 */
+	RenderScene getCurrentScene() {
+		return current;
+	}
+
+	/**
+	 * Most recently submitted scene, or {@code null} before the first submit.
+	 *
+	 * @return the last scene passed to {@link #submit}
+	 */
+	synchronized RenderScene getLastSubmitted() {
+		return lastSubmitted;
+	}
+
+	/**
+	 * Latest completed frame, or {@code null} before the first one. Hold
+	 * {@link #frameLock} while drawing its image.
+	 *
+	 * @return the front frame
+	 */
+	Frame getFrame() {
+		return front;
+	}
+
+	/** @return number of scenes rendered */
+	long getRenderedCount() {
+		return rendered.get();
+	}
+
+	/** @return number of scenes replaced before they were rendered */
+	long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/** Stop the render thread and release the frames. */
+	synchronized void dispose() {
+		pending.set(null);
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+		synchronized (frameLock) {
+			front = null;
+		}
+	}
+}
@@ -6,6 +6,7 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Polygon;
 import java.awt.Rectangle;
+import java.awt.RenderingHints;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.awt.event.MouseEvent;
@@ -18,14 +19,18 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JComponent;
 
 import edu.cnu.mdi.feedback.FeedbackControl;
 import edu.cnu.mdi.feedback.FeedbackPane;
 import edu.cnu.mdi.graphics.GraphicsUtils;
+import edu.cnu.mdi.graphics.PaintProfiler;
 import edu.cnu.mdi.graphics.drawable.IDrawable;
 import edu.cnu.mdi.graphics.toolbar.AToolBar;
 import edu.cnu.mdi.graphics.toolbar.BaseToolBar;
@@ -66,6 +71,81 @@ import edu.cnu.mdi.view.BaseView;
  *       positions</li>
  * </ul>
  *
+ * <h2>Layer caching</h2>
+ * Any layer can be given an offscreen backing store with
+ * {@link #setLayerCached(Layer, boolean)}. A cached layer is rendered into an
+ * image that is composited on every paint; only the rectangles touched by
+ * changed items (taken from their old and new screen bounds) are re-rendered,
+ * and a repaint caused by, for example, a rubber band or hover feedback on
+ * another layer does not redraw the cached layer's items at all. The whole
+ * store is discarded by {@link #setDirty(boolean) setDirty(true)}, which
+ * every zoom, pan and resize already calls. Caching is off by default because
+ * it assumes items change appearance only through item events, the item dirty
+ * flag, selection, or visibility; see {@link #invalidateLayerCache(Layer)}.
+ *
+ * <h2>Culling and partial repaints</h2>
+ * Each paint computes the visible world region once
+ * ({@link Layer#getVisibleWorld}) and hands it to every layer, which draws
+ * only the items its spatial index places in that region. The region follows
+ * the repaint clip, so a change to one item repaints only the union of its
+ * old and new footprints ({@link AItem#repaint()},
+ * {@link #refresh(Rectangle)}) and draws only the items there. The number of items
+ * drawn and culled in the last paint is reported by
+ * {@link #getFrameItemsDrawn()} and {@link #getFrameItemsCulled()}.
+ *
+ * <h2>Asynchronous rendering</h2>
+ * {@link #setAsyncRendering(boolean)} moves drawing of the background, the
+ * before-draw drawable, the connection layer and the user layers to a
+ * background render thread. Each paint that follows an invalidation —
+ * {@link #refresh()}, {@link #setDirty(boolean) setDirty(true)}, an item
+ * event, a resize or a new world system — captures an immutable scene (size,
+ * transforms, and a recording of what each item draws, made on the EDT)
+ * and hands it to the renderer, which replays it into an image; if scenes arrive faster than they
+ * render, all but the newest are dropped. Every paint composites the latest
+ * finished image, transformed from the world system it was rendered at to the
+ * current one so zooms and pans are previewed immediately, then draws the
+ * selection handles, the after-draw drawable and the annotation layer on the
+ * Event Dispatch Thread, so rubber bands and selection feedback stay
+ * responsive while a slow scene renders.
+ * <p>
+ * Items are created, moved, deleted and drawn on the EDT: capturing a scene
+ * runs each item's {@link AItem#drawContent} into a
+ * {@link RecordingGraphics}, which records the drawing calls with copies of
+ * their shapes, so the item's caches and dirty flag are only ever written on
+ * the EDT. The before-draw drawable, which may read EDT state such as a map
+ * projection, is recorded the same way. The render thread rasterizes those
+ * recordings and never calls an item or drawable. Layer caching is bypassed
+ * in this mode since the whole frame is already cached.
+ *
+ * <h2>Tiled rendering</h2>
+ * For very expensive content, {@link #setRenderTileCount(int)} splits the
+ * image into tiles that are rasterized in parallel on a shared
+ * {@link java.util.concurrent.ForkJoinPool}, each with its own clipped and
+ * translated {@code Graphics2D}, and then composited; items in a tile are
+ * those whose world bounds reach it. Painting and image export
+ * ({@link #getImage()}) block until all tiles are done; in asynchronous mode
+ * the render thread waits for them instead. Items are recorded once on the
+ * painting thread, as in asynchronous mode, and the before-draw drawable
+ * once on the thread that starts the tiles; the tile workers only replay
+ * those recordings, so an item crossing a seam is drawn, and its caches
+ * written, exactly once per frame.
+ *
+ * <h2>Printing and export</h2>
+ * Layer stores and the asynchronous and tiled renderers size their images for
+ * the screen. While the container is being printed
+ * ({@link #isPaintingForPrint()}, as under {@link #printAll} from
+ * {@link edu.cnu.mdi.util.PrintUtils} and
+ * {@link edu.cnu.mdi.util.ImageExport}) all of them are bypassed and every
+ * layer draws directly into the target graphics, at its resolution. Such a
+ * paint leaves the dirty state alone, so the caches still see every change
+ * on the next screen paint.
+ *
+ * <h2>Profiling</h2>
+ * Each container owns a {@link PaintProfiler}, disabled by default, that
+ * times whole paints, the background, each layer and each item draw, and can
+ * draw its statistics as an overlay. {@link BaseView} adds a menu for it to
+ * the view popup.
+ *
  * <h2>Visibility and locking</h2>
  * Container-wide operations that involve user interaction (hit testing,
  * selection, deletion, enclosed selection) respect:
@@ -156,6 +236,35 @@ public class BaseContainer extends JComponent implements IContainer, ItemChangeL
     /** Tool handler for this container. */
     protected BaseToolHandler toolHandler;
 
+    /** Backing stores of the layers that have caching enabled. */
+    private final Map<Layer, LayerBackingStore> _layerStores = new IdentityHashMap<>();
+
+    /** World region being painted; valid only during {@link #paintComponent}. */
+    private Rectangle2D.Double _visibleWorld;
+
+    /** Items drawn and culled in the paint in progress. */
+    private long _paintDrawn;
+    private long _paintCulled;
+
+    /** Items drawn and culled in the last completed paint. */
+    private volatile long _frameItemsDrawn;
+    private volatile long _frameItemsCulled;
+
+    /** Paint-time profiler; disabled until turned on from the view popup. */
+    private final PaintProfiler _paintProfiler = new PaintProfiler(this);
+
+    /** Background renderer; {@code null} unless asynchronous rendering is on. */
+    private volatile AsyncRenderer _asyncRenderer;
+
+    /** Set when the next asynchronous paint must capture a new scene. */
+    private final AtomicBoolean _renderRequested = new AtomicBoolean();
+
+    /** Tiles content is rendered in; 1 for ordinary painting. */
+    private volatile int _renderTileCount = 1;
+
+    /** Offscreen target of tiled painting; EDT only. */
+    private BufferedImage _tileImage;
+
     /**
      * Construct a container with the given initial world system.
      *
@@ -365,8 +474,10 @@ public class BaseContainer extends JComponent implements IContainer, ItemChangeL
 		}
 
 		super.paintComponent(g2);
+		_paintProfiler.beginFrame();
 
-		clipBounds(g2);
+		// keep the repaint clip so a partial repaint draws only what it covers
+		g2.clipRect(0, 0, getWidth(), getHeight());
 
 		Rectangle b = getBounds();
 
@@ -375,38 +486,435 @@ public class BaseContainer extends JComponent implements IContainer, ItemChangeL
 			return;
 		}
 
-		// background
-		g2.setColor(getBackground());
-		g2.fillRect(0, 0, b.width, b.height);
-
-		// before-draw is drawn before layers, for non-item
-		// drawing such as grids or maps
-		if (_beforeDraw != null) {
-			_beforeDraw.draw(g2, this);
-		}
+		// computed once; every layer culls against it
+		_visibleWorld = Layer.getVisibleWorld(g2, this);
+		_paintDrawn = 0;
+		_paintCulled = 0;
+
+		long t;
+		boolean printing = isPaintingForPrint();
+		AsyncRenderer renderer = _asyncRenderer;
+		if (renderer != null && !printing) {
+			paintAsync(g2, renderer);
+		} else if (_renderTileCount > 1 && !printing) {
+			paintTiled(g2);
+		} else {
+			// background
+			t = _paintProfiler.start();
+			g2.setColor(getBackground());
+			g2.fillRect(0, 0, b.width, b.height);
+			_paintProfiler.section("background", t);
+
+			// before-draw is drawn before layers, for non-item
+			// drawing such as grids or maps
+			if (_beforeDraw != null) {
+				t = _paintProfiler.start();
+				_beforeDraw.draw(g2, this);
+				_paintProfiler.section("before draw", t);
+			}
 
-		// connection layer first ) (typically lines between items)
-		if (_connectionLayer != null) {
-			_connectionLayer.draw(g2, this);
-		}
+			// connection layer first ) (typically lines between items)
+			if (_connectionLayer != null) {
+				drawLayer(g2, _connectionLayer);
+			}
 
-		// user layers including the default (content) layer
-		for (Layer layer : _layers) {
-			layer.draw(g2, this);
+			// user layers including the default (content) layer
+			for (Layer layer : _layers) {
+				drawLayer(g2, layer);
+			}
 		}
 
 		// after-draw is drawn after layers, for overlays
 		if (_afterDraw != null) {
+			t = _paintProfiler.start();
 			_afterDraw.draw(g2, this);
+			_paintProfiler.section("after draw", t);
 		}
 
 		// annotation layer last
 		if (_annotationLayer != null) {
-			_annotationLayer.draw(g2, this);
+			drawLayer(g2, _annotationLayer);
+		}
+
+		_frameItemsDrawn = _paintDrawn;
+		_frameItemsCulled = _paintCulled;
+		_visibleWorld = null;
+
+		// always clean after drawing to the screen
+		if (!printing) {
+			setDirty(false);
+		}
+
+		_paintProfiler.endFrame();
+		_paintProfiler.drawOverlay(g2);
+	}
+
+	/**
+	 * Asynchronous part of {@link #paintComponent}: submit a new scene if the
+	 * content was invalidated, composite the latest finished frame, and draw
+	 * selection handles for the layers it contains.
+	 *
+	 * @param g2       graphics context
+	 * @param renderer the background renderer
+	 */
+	private void paintAsync(Graphics2D g2, AsyncRenderer renderer) {
+		long t = _paintProfiler.start();
+		RenderScene last = renderer.getLastSubmitted();
+		boolean stale = (last == null) || (last.width() != getWidth()) || (last.height() != getHeight())
+				|| !last.localToWorld().equals(localToWorld);
+		if (_renderRequested.getAndSet(false) || stale) {
+			renderer.submit(captureScene(g2));
+		}
+
+		AsyncRenderer.Frame frame;
+
+		g2.setColor(getBackground());
+		g2.fillRect(0, 0, getWidth(), getHeight());
+		synchronized (renderer.frameLock) {
+			frame = renderer.getFrame();
+			if (frame != null) {
+				// frame pixels -> frame local -> world -> current local
+				double s = frame.scene().scale();
+				AffineTransform at = new AffineTransform(worldToLocal);
+				at.concatenate(frame.scene().localToWorld());
+				at.scale(1.0 / s, 1.0 / s);
+				g2.drawImage(frame.image(), at, null);
+			}
+		}
+		_paintProfiler.section("async frame", t);
+		drawSceneSelections(g2);
+	}
+
+	/**
+	 * Tiled part of {@link #paintComponent}: render the content into an
+	 * offscreen image in parallel tiles, composite it, and draw selection
+	 * handles.
+	 *
+	 * @param g2 graphics context
+	 */
+	private void paintTiled(Graphics2D g2) {
+		long t = _paintProfiler.start();
+		RenderScene scene = captureScene(g2);
+		BufferedImage image = _tileImage;
+		if (image == null || image.getWidth() != scene.deviceWidth() || image.getHeight() != scene.deviceHeight()) {
+			image = new BufferedImage(scene.deviceWidth(), scene.deviceHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+			_tileImage = image;
+		}
+		TiledRenderer.render(scene, image);
+		g2.drawImage(image, AffineTransform.getScaleInstance(1.0 / scene.scale(), 1.0 / scene.scale()), null);
+		_paintProfiler.section("tiles", t);
+		drawSceneSelections(g2);
+	}
+
+	/**
+	 * Draw the selection handles of the layers that scene rendering draws
+	 * without them (connection and user layers).
+	 */
+	private void drawSceneSelections(Graphics2D g2) {
+		if (_connectionLayer != null && _connectionLayer.isVisible()) {
+			drawSelections(g2, _connectionLayer);
 		}
+		for (Layer layer : _layers) {
+			if (layer.isVisible()) {
+				drawSelections(g2, layer);
+			}
+		}
+	}
 
-		// always clean after drawing
-		setDirty(false);
+	/** Draw the selection handles of a layer's selected items. */
+	private void drawSelections(Graphics2D g2, Layer layer) {
+		for (AItem item : layer.getSelectedItems()) {
+			item.drawSelections(g2, this);
+		}
+	}
+
+	/**
+	 * Render the background, before-draw, connection and user layers in about
+	 * {@code tiles} parallel tiles. See the class comment.
+	 *
+	 * @param tiles tile count; 1 or less renders directly on the calling
+	 *              thread as usual
+	 */
+	public void setRenderTileCount(int tiles) {
+		_renderTileCount = Math.max(1, tiles);
+		if (_renderTileCount == 1) {
+			_tileImage = null;
+		}
+		setDirty(true);
+		refresh();
+	}
+
+	/**
+	 * Get the number of tiles content is rendered in.
+	 *
+	 * @return the tile count; 1 when tiled rendering is off
+	 */
+	public int getRenderTileCount() {
+		return _renderTileCount;
+	}
+
+	/**
+	 * Capture what the render thread needs to draw the current content. The
+	 * before-draw drawable and each item's content are drawn here, on the
+	 * calling thread, into a {@link RecordingGraphics}, so the render thread
+	 * and tile workers only replay immutable recordings and never touch an
+	 * item or drawable.
+	 *
+	 * @param g2 the screen graphics, for the device scale and hints
+	 * @return the scene
+	 */
+	private RenderScene captureScene(Graphics2D g2) {
+		// scenes always cover the whole component, whatever the repaint clip
+		Rectangle full = new Rectangle(0, 0, getWidth(), getHeight());
+		Rectangle2D.Double world = Layer.getVisibleWorld(full, this);
+		RenderingHints hints = (RenderingHints) g2.getRenderingHints().clone();
+		RecordingGraphics recorder = new RecordingGraphics(hints, full);
+		List<RenderScene.LayerSnapshot> layers = new ArrayList<>();
+		Recording before = Recording.EMPTY;
+		try {
+			if (_beforeDraw != null) {
+				_beforeDraw.draw(recorder, this);
+				before = recorder.cut();
+			}
+			if (_connectionLayer != null) {
+				layers.add(snapshotLayer(_connectionLayer, world, recorder));
+			}
+			for (Layer layer : _layers) {
+				layers.add(snapshotLayer(layer, world, recorder));
+			}
+		} finally {
+			recorder.dispose();
+		}
+		double scale = g2.getDeviceConfiguration().getDefaultTransform().getScaleX();
+		return new RenderScene(getWidth(), getHeight(), scale, _renderTileCount, copy(_worldSystem),
+				new AffineTransform(localToWorld), new AffineTransform(worldToLocal), getBackground(), hints,
+				before, List.copyOf(layers));
+	}
+
+	/**
+	 * Record one layer's items, counting them as drawn and culled, with their
+	 * world bounds for tile culling when the layer's spatial index is enabled.
+	 */
+	private RenderScene.LayerSnapshot snapshotLayer(Layer layer, Rectangle2D.Double world,
+			RecordingGraphics recorder) {
+		long drawn = layer.getDrawnItemCount();
+		long culled = layer.getCulledItemCount();
+		List<AItem> items = layer.snapshotForDraw(world);
+		_paintDrawn += layer.getDrawnItemCount() - drawn;
+		_paintCulled += layer.getCulledItemCount() - culled;
+
+		// tiles cull by world bounds only where the layer trusts them
+		boolean cull = layer.isSpatialIndexEnabled();
+		List<Recording> drawings = new ArrayList<>(items.size());
+		List<Rectangle2D.Double> bounds = new ArrayList<>(items.size());
+		for (AItem item : items) {
+			item.drawContent(recorder, this);
+			drawings.add(recorder.cut());
+			Rectangle2D.Double wb = (cull && Layer.isIndexable(item)) ? item.getWorldBounds() : null;
+			bounds.add((wb == null) ? null : copy(wb));
+		}
+		return new RenderScene.LayerSnapshot(Collections.unmodifiableList(drawings),
+				Collections.unmodifiableList(bounds));
+	}
+
+	/**
+	 * Turn asynchronous rendering on or off. See the class comment.
+	 *
+	 * @param async {@code true} to render on a background thread
+	 */
+	public void setAsyncRendering(boolean async) {
+		if (async == isAsyncRendering()) {
+			return;
+		}
+		if (async) {
+			_asyncRenderer = new AsyncRenderer(this);
+			_renderRequested.set(true);
+		} else {
+			AsyncRenderer renderer = _asyncRenderer;
+			_asyncRenderer = null;
+			renderer.dispose();
+		}
+		repaint();
+	}
+
+	/**
+	 * Check whether asynchronous rendering is on.
+	 *
+	 * @return {@code true} if content is rendered on a background thread
+	 */
+	public boolean isAsyncRendering() {
+		return _asyncRenderer != null;
+	}
+
+	/**
+	 * Get the number of frames rendered by the background renderer since
+	 * asynchronous rendering was turned on.
+	 *
+	 * @return rendered frames; 0 when asynchronous rendering is off
+	 */
+	public long getAsyncFramesRendered() {
+		AsyncRenderer renderer = _asyncRenderer;
+		return (renderer == null) ? 0 : renderer.getRenderedCount();
+	}
+
+	/**
+	 * Get the number of scenes that were superseded by a newer one before
+	 * the background renderer got to them.
+	 *
+	 * @return dropped frames; 0 when asynchronous rendering is off
+	 */
+	public long getAsyncFramesDropped() {
+		AsyncRenderer renderer = _asyncRenderer;
+		return (renderer == null) ? 0 : renderer.getDroppedCount();
+	}
+
+	/**
+	 * Local-to-world transform for the calling thread: the scene's on the
+	 * asynchronous render thread, otherwise the live one.
+	 */
+	private AffineTransform currentLocalToWorld() {
+		AsyncRenderer renderer = _asyncRenderer;
+		return (renderer != null && renderer.isRenderThread()) ? renderer.getCurrentScene().localToWorld()
+				: localToWorld;
+	}
+
+	/** World-to-local counterpart of {@link #currentLocalToWorld()}. */
+	private AffineTransform currentWorldToLocal() {
+		AsyncRenderer renderer = _asyncRenderer;
+		return (renderer != null && renderer.isRenderThread()) ? renderer.getCurrentScene().worldToLocal()
+				: worldToLocal;
+	}
+
+	/**
+	 * Get the profiler that times this container's painting. It is disabled
+	 * until enabled programmatically or from the view's popup menu.
+	 *
+	 * @return the paint profiler, never {@code null}
+	 */
+	@Override
+	public PaintProfiler getPaintProfiler() {
+		return _paintProfiler;
+	}
+
+	/**
+	 * Get the number of items drawn in the last completed paint, summed over
+	 * all layers. Items of a cached layer that was composited from its
+	 * backing store are not counted.
+	 *
+	 * @return items passed to {@link edu.cnu.mdi.item.AItem#draw} in the last
+	 *         paint
+	 */
+	public long getFrameItemsDrawn() {
+		return _frameItemsDrawn;
+	}
+
+	/**
+	 * Get the number of items culled (skipped without being touched because
+	 * they lie outside the visible world region) in the last completed
+	 * paint, summed over all layers.
+	 *
+	 * @return items culled in the last paint
+	 */
+	public long getFrameItemsCulled() {
+		return _frameItemsCulled;
+	}
+
+	/**
+	 * Draw one layer, through its backing store if caching is enabled for it.
+	 * <p>
+	 * The store is bypassed (and discarded) while the layer is hidden or the
+	 * view installs a special clip, since items then draw outside the regions
+	 * the store tracks. It is bypassed (and kept) while printing, since its
+	 * image has screen resolution.
+	 *
+	 * @param g2    graphics context
+	 * @param layer the layer to draw
+	 */
+	protected void drawLayer(Graphics2D g2, Layer layer) {
+		long drawn = layer.getDrawnItemCount();
+		long culled = layer.getCulledItemCount();
+		long t = _paintProfiler.start();
+
+		LayerBackingStore store = _layerStores.get(layer);
+		boolean specialClip = (_view != null) && (_view.getSpecialClip() != null);
+		if (store == null || isPaintingForPrint()) {
+			layer.draw(g2, this, _visibleWorld);
+		} else if (!layer.isVisible() || specialClip) {
+			store.invalidateAll();
+			layer.draw(g2, this, _visibleWorld);
+		} else {
+			store.paint(g2);
+		}
+
+		_paintDrawn += layer.getDrawnItemCount() - drawn;
+		_paintCulled += layer.getCulledItemCount() - culled;
+		if (t != 0L) {
+			_paintProfiler.section("layer " + layer.getName(), t);
+		}
+	}
+
+	/**
+	 * Enable or disable an offscreen backing store for a layer. See the class
+	 * comment for when caching is appropriate.
+	 *
+	 * @param layer  a layer of this container (user or protected)
+	 * @param cached {@code true} to cache the layer's rendering
+	 */
+	public void setLayerCached(Layer layer, boolean cached) {
+		Objects.requireNonNull(layer, "layer");
+		LayerBackingStore store = _layerStores.get(layer);
+		if (cached && store == null) {
+			store = new LayerBackingStore(layer, this);
+			_layerStores.put(layer, store);
+			layer.addItemChangeListener(store);
+		} else if (!cached && store != null) {
+			_layerStores.remove(layer);
+			layer.removeItemChangeListener(store);
+			store.dispose();
+		}
+	}
+
+	/**
+	 * Check whether a layer has an offscreen backing store.
+	 *
+	 * @param layer the layer
+	 * @return {@code true} if the layer is cached
+	 */
+	public boolean isLayerCached(Layer layer) {
+		return _layerStores.containsKey(layer);
+	}
+
+	/**
+	 * Discard the cached rendering of a layer. Call this when items on a
+	 * cached layer change appearance without firing an item event or being
+	 * marked dirty. Does nothing for a layer that is not cached.
+	 *
+	 * @param layer the layer
+	 */
+	public void invalidateLayerCache(Layer layer) {
+		LayerBackingStore store = _layerStores.get(layer);
+		if (store != null) {
+			store.invalidateAll();
+		}
+	}
+
+	/** Backing store of a cached layer, or {@code null}; for tests. */
+	LayerBackingStore getLayerStore(Layer layer) {
+		return _layerStores.get(layer);
+	}
+
+	/**
+	 * Mark part of a layer's cached rendering as stale. Does nothing for a
+	 * layer that is not cached.
+	 *
+	 * @param layer  the layer
+	 * @param bounds the stale region in local (pixel) coordinates
+	 */
+	public void invalidateLayerCache(Layer layer, Rectangle bounds) {
+		LayerBackingStore store = _layerStores.get(layer);
+		if (store != null) {
+			store.invalidate(bounds);
+		}
 	}
 
 	/**
@@ -465,8 +973,9 @@ public class BaseContainer extends JComponent implements IContainer, ItemChangeL
 	 */
 	@Override
 	public void localToWorld(Point pp, Point2D.Double wp) {
-		if (localToWorld != null) {
-			localToWorld.transform(pp, wp);
+		AffineTransform t = currentLocalToWorld();
+		if (t != null) {
+			t.transform(pp, wp);
 		}
 	}
 
@@ -475,10 +984,11 @@ public class BaseContainer extends JComponent implements IContainer, ItemChangeL
 	 */
 	@Override
 	public void worldToLocal(Point pp, Point2D.Double wp) {
-		if (worldToLocal == null || wp == null || pp == null) {
+		AffineTransform t = currentWorldToLocal();
+		if (t == null || wp == null || pp == null) {
 			return;
 		}
-		worldToLocal.transform(wp, pp);
+		t.transform(wp, pp);
 	}
 
 	/**
@@ -600,12 +1110,31 @@ public class BaseContainer extends JComponent implements IContainer, ItemChangeL
 	 */
 	@Override
 	public void refresh() {
+		_renderRequested.set(true);
 		if ((_view != null) && !_view.isViewVisible()) {
 			return;
 		}
 		repaint();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Repaints only the region (asynchronous rendering re-renders the whole
+	 * frame, but still composites once).
+	 */
+	@Override
+	public void refresh(Rectangle region) {
+		if (_asyncRenderer != null) {
+			refresh();
+			return;
+		}
+		if ((_view != null) && !_view.isViewVisible()) {
+			return;
+		}
+		repaint(region);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -662,11 +1191,21 @@ public class BaseContainer extends JComponent implements IContainer, ItemChangeL
 	public void setDirty(boolean dirty) {
 
 		setAffineTransforms();
+		if (dirty) {
+			_renderRequested.set(true);
+		}
 
 		// mark dirty across ALL layers, including protected layers
 		for (Layer layer : getAllLayers()) {
 			layer.setDirty(dirty);
 		}
+
+		// a dirty container means the transform or size may have changed
+		if (dirty) {
+			for (LayerBackingStore store : _layerStores.values()) {
+				store.invalidateAll();
+			}
+		}
 	}
 
 	/**
@@ -969,6 +1508,26 @@ public class BaseContainer extends JComponent implements IContainer, ItemChangeL
 		if (item != null) {
 			item.setDirty(true);
 		}
+		_renderRequested.set(true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Handles a whole batch at once: the items are marked dirty and the
+	 * toolbar state is updated once.
+	 */
+	@Override
+	public void itemsChanged(Layer layer, List<AItem> items, ItemChangeType type) {
+		for (AItem item : items) {
+			if (item != null) {
+				item.setDirty(true);
+			}
+		}
+		if (type == ItemChangeType.SELECTED || type == ItemChangeType.DESELECTED) {
+			setToolBarState();
+		}
+		_renderRequested.set(true);
 	}
 
 	/**
@@ -1038,6 +1597,10 @@ public class BaseContainer extends JComponent implements IContainer, ItemChangeL
 	 */
 	@Override
 	public Rectangle2D.Double getWorldSystem() {
+		AsyncRenderer renderer = _asyncRenderer;
+		if (renderer != null && renderer.isRenderThread()) {
+			return renderer.getCurrentScene().worldSystem();
+		}
 		return _worldSystem;
 	}
 
@@ -1146,7 +1709,10 @@ public class BaseContainer extends JComponent implements IContainer, ItemChangeL
 
 	@Override
 	public void prepareForExit() {
-		// no op
+		setAsyncRendering(false);
+		for (Layer layer : new ArrayList<>(_layerStores.keySet())) {
+			setLayerCached(layer, false);
+		}
 	}
 
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ import java.util.List;
 
 import edu.cnu.mdi.feedback.FeedbackControl;
 import edu.cnu.mdi.feedback.FeedbackPane;
+import edu.cnu.mdi.graphics.PaintProfiler;
 import edu.cnu.mdi.graphics.drawable.IDrawable;
 import edu.cnu.mdi.graphics.toolbar.AToolBar;
 import edu.cnu.mdi.graphics.world.WorldPolygon;
@@ -314,13 +315,50 @@ public interface IContainer {
 	 */
 	public void refresh();
 
+	/**
+	 * Refresh part of the container, such as the region a single item
+	 * occupied before and after a change. The default refreshes everything.
+	 *
+	 * @param region the region to repaint, in local (pixel) coordinates
+	 */
+	public default void refresh(Rectangle region) {
+		refresh();
+	}
+
 	/**
 	 * Get the underlying JComponent
 	 *
-	 * @return the underlying component
+	 * @return the underlying component, or {@code null} for a container that
+	 *         is not a component, such as a {@link TransformContainer}
 	 */
 	public Component getComponent();
 
+	/**
+	 * Get the width of the drawing area. Drawing code should prefer this to
+	 * {@code getComponent().getWidth()} so that it also works with containers
+	 * that are not components.
+	 *
+	 * @return the width in pixels
+	 */
+	public int getWidth();
+
+	/**
+	 * Get the height of the drawing area.
+	 *
+	 * @return the height in pixels
+	 * @see #getWidth()
+	 */
+	public int getHeight();
+
+	/**
+	 * Get the paint profiler that times this container's painting, if any.
+	 *
+	 * @return the profiler, or {@code null} if painting is not profiled
+	 */
+	public default PaintProfiler getPaintProfiler() {
+		return null;
+	}
+
 	/**
 	 * Get the background image.
 	 *
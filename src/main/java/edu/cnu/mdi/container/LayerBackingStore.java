@@ -0,0 +1,262 @@
+package edu.cnu.mdi.container;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.cnu.mdi.item.AItem;
+import edu.cnu.mdi.item.ItemChangeListener;
+import edu.cnu.mdi.item.ItemChangeType;
+import edu.cnu.mdi.item.Layer;
+
+/**
+ * Offscreen image holding the last rendering of one {@link Layer}, used by
+ * {@link BaseContainer} for layers that have caching enabled via
+ * {@link BaseContainer#setLayerCached(Layer, boolean)}.
+ * <p>
+ * On each paint the store works out which parts of the layer changed since
+ * the previous paint, re-renders only those rectangles into its image, and
+ * composites the image onto the screen. A layer whose items did not change
+ * costs one image blit regardless of how many items it holds.
+ *
+ * <h2>Change detection</h2>
+ * The store never scans the layer: a paint costs time in proportion to the
+ * items that changed, not to the layer size. A region is invalidated when:
+ * <ul>
+ * <li>the layer fires an {@link ItemChangeListener} event (the store is
+ * registered on its layer) — the item's old and new footprints;</li>
+ * <li>an item is in the layer's {@link Layer#getDirtyItems() dirty set}
+ * because it was marked dirty ({@link AItem#setDirty(boolean)},
+ * {@link AItem#geometryChanged()}) or changed selection or visibility — its
+ * old and new footprints;</li>
+ * <li>the container or the whole layer is marked dirty, the container is
+ * resized, zoomed or panned, or more than {@value #BATCH_INVALIDATE_ALL}
+ * items changed at once — everything.</li>
+ * </ul>
+ * A footprint is {@link AItem#getFootprint}: the item's screen bounds plus
+ * its selection and rotation handles, grown by {@link #PAD} pixels. An item's
+ * old footprint is the one it recorded when it was last drawn
+ * ({@link AItem#getLastDrawnFootprint()}), taken when the store first hears
+ * of the change; only changed items are remembered between paints. An item
+ * whose bounds cannot be determined invalidates the whole layer.
+ * <p>
+ * Items whose appearance changes in other ways (animation, external data)
+ * should not be on a cached layer, or their owner should call
+ * {@link BaseContainer#invalidateLayerCache(Layer)}.
+ *
+ * <h2>Threading</h2>
+ * Painting happens on the Event Dispatch Thread. Invalidation may come from
+ * any thread that fires layer events, so the dirty state is guarded by this
+ * object's monitor.
+ */
+final class LayerBackingStore implements ItemChangeListener {
+
+	/** Pixels added around each item footprint for strokes and handles. */
+	static final int PAD = AItem.FOOTPRINT_PAD;
+
+	/** Batch size above which the whole store is invalidated. */
+	private static final int BATCH_INVALIDATE_ALL = 64;
+
+	private final Layer layer;
+	private final BaseContainer container;
+
+	/** Cached rendering in device pixels; {@code null} until first paint. */
+	private BufferedImage image;
+
+	/** Device pixels per user-space pixel used for {@link #image}. */
+	private double scale;
+
+	/** {@code false} when the whole image must be re-rendered. */
+	private boolean valid;
+
+	/** Accumulated region (user space) to re-render; {@code null} if none. */
+	private Rectangle dirty;
+
+	/**
+	 * Items reported by events since the last paint, with the footprint each
+	 * had in the image when first reported ({@code null} if never drawn).
+	 */
+	private Map<AItem, Rectangle> changed = new IdentityHashMap<>();
+
+	/** Number of full and partial re-renders, for diagnostics and tests. */
+	private int fullRenders;
+	private int partialRenders;
+
+	LayerBackingStore(Layer layer, BaseContainer container) {
+		this.layer = layer;
+		this.container = container;
+	}
+
+	/** Discards the whole image; the next paint re-renders the layer. */
+	synchronized void invalidateAll() {
+		valid = false;
+		dirty = null;
+		changed = new IdentityHashMap<>();
+	}
+
+	/**
+	 * Adds a region to be re-rendered on the next paint.
+	 *
+	 * @param r region in container pixels; {@code null} means everything
+	 */
+	synchronized void invalidate(Rectangle r) {
+		if (r == null) {
+			invalidateAll();
+		} else if (valid && !r.isEmpty()) {
+			dirty = (dirty == null) ? new Rectangle(r) : dirty.union(r);
+		}
+	}
+
+	/** Releases the image. */
+	synchronized void dispose() {
+		image = null;
+		changed = new IdentityHashMap<>();
+		valid = false;
+		dirty = null;
+	}
+
+	int getFullRenderCount() {
+		return fullRenders;
+	}
+
+	int getPartialRenderCount() {
+		return partialRenders;
+	}
+
+	@Override
+	public void itemChanged(Layer source, AItem item, ItemChangeType type) {
+		if (item == null) {
+			invalidateAll();
+			return;
+		}
+		synchronized (this) {
+			if (valid && !changed.containsKey(item)) {
+				changed.put(item, item.getLastDrawnFootprint());
+			}
+		}
+	}
+
+	/**
+	 * Brings the image up to date and draws it at the container origin.
+	 *
+	 * @param g2 the container's graphics context
+	 */
+	void paint(Graphics2D g2) {
+		int w = container.getWidth();
+		int h = container.getHeight();
+		double s = g2.getDeviceConfiguration().getDefaultTransform().getScaleX();
+		int pw = (int) Math.ceil(w * s);
+		int ph = (int) Math.ceil(h * s);
+
+		synchronized (this) {
+			if (image == null || image.getWidth() != pw || image.getHeight() != ph || s != scale) {
+				image = g2.getDeviceConfiguration().createCompatibleImage(pw, ph, Transparency.TRANSLUCENT);
+				scale = s;
+				valid = false;
+			}
+		}
+
+		collectChanges();
+
+		Rectangle region;
+		synchronized (this) {
+			region = valid ? dirty : new Rectangle(0, 0, w, h);
+			if (region != null) {
+				region = region.intersection(new Rectangle(0, 0, w, h));
+			}
+			valid = true;
+			dirty = null;
+		}
+
+		if (region != null && !region.isEmpty()) {
+			render(g2, region, region.width == w && region.height == h);
+		}
+
+		g2.drawImage(image, 0, 0, w, h, null);
+	}
+
+	/**
+	 * Invalidates the old and new footprints of the items reported by events
+	 * and of the layer's dirty items.
+	 */
+	private void collectChanges() {
+		Map<AItem, Rectangle> reported;
+		synchronized (this) {
+			if (!valid) {
+				return;
+			}
+			reported = changed;
+			changed = new IdentityHashMap<>();
+		}
+		if (layer.isDirty()) {
+			invalidateAll();
+			return;
+		}
+		List<AItem> dirtyItems = layer.getDirtyItems();
+		if (reported.size() + dirtyItems.size() > BATCH_INVALIDATE_ALL) {
+			invalidateAll();
+			return;
+		}
+		for (Map.Entry<AItem, Rectangle> e : reported.entrySet()) {
+			invalidateMove(e.getValue(), e.getKey());
+		}
+		for (AItem item : dirtyItems) {
+			invalidateMove(item.getLastDrawnFootprint(), item);
+		}
+	}
+
+	/** Invalidates where an item was drawn and where it is now. */
+	private void invalidateMove(Rectangle old, AItem item) {
+		if (old != null) {
+			invalidate(old);
+		}
+		invalidate(footprint(item));
+	}
+
+	/** Re-renders a region of the image. */
+	private void render(Graphics2D screen, Rectangle region, boolean full) {
+		Graphics2D g = image.createGraphics();
+		try {
+			g.setRenderingHints(screen.getRenderingHints());
+			g.scale(scale, scale);
+			g.clip(region);
+			g.setComposite(AlphaComposite.Clear);
+			g.fill(region);
+			g.setComposite(AlphaComposite.SrcOver);
+			layer.draw(g, container);
+		} finally {
+			g.dispose();
+		}
+		if (full) {
+			fullRenders++;
+		} else {
+			partialRenders++;
+		}
+	}
+
+	/**
+	 * A large batch (such as an import) discards the whole image rather than
+	 * accumulating thousands of footprints.
+	 */
+	@Override
+	public void itemsChanged(Layer source, List<AItem> items, ItemChangeType type) {
+		if (items.size() > BATCH_INVALIDATE_ALL) {
+			invalidateAll();
+			return;
+		}
+		ItemChangeListener.super.itemsChanged(source, items, type);
+	}
+
+	/**
+	 * Returns the screen region an item paints into, or {@code null} if it
+	 * cannot be determined.
+	 */
+	private Rectangle footprint(AItem item) {
+		return item.getFootprint(container);
+	}
+}
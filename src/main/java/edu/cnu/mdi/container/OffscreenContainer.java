@@ -0,0 +1,55 @@
+package edu.cnu.mdi.container;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * A container that is never displayed, used to render world-coordinate content
+ * into an offscreen image.
+ * <p>
+ * The container is given a fixed pixel size and world system at construction
+ * and its affine transforms are computed immediately, so
+ * {@link #worldToLocal} and {@link #localToWorld} are usable without a paint
+ * pass. Drawables such as map renderers can therefore be pointed at an
+ * instance of this class and a {@code Graphics2D} obtained from a
+ * {@link java.awt.image.BufferedImage} of the same size.
+ *
+ * <h2>Threading</h2>
+ * An instance that is confined to a single thread may be created and used off
+ * the Event Dispatch Thread. It has no view, is never added to a component
+ * hierarchy, and {@link #refresh()} is a no-op.
+ */
+@SuppressWarnings("serial")
+public class OffscreenContainer extends BaseContainer {
+
+	/**
+	 * Create an offscreen container.
+	 *
+	 * @param worldSystem the world rectangle mapped onto the full pixel area;
+	 *                    must not be {@code null}
+	 * @param width       pixel width, at least 1
+	 * @param height      pixel height, at least 1
+	 */
+	public OffscreenContainer(Rectangle2D.Double worldSystem, int width, int height) {
+		super(worldSystem);
+		if (width < 1 || height < 1) {
+			throw new IllegalArgumentException("Offscreen container size must be positive: " + width + "x" + height);
+		}
+		setSize(width, height);
+		setAffineTransforms();
+	}
+
+	/**
+	 * No-op: an offscreen container is rendered explicitly by its owner.
+	 */
+	@Override
+	public void refresh() {
+	}
+
+	/**
+	 * No-op: an offscreen container is rendered explicitly by its owner.
+	 */
+	@Override
+	public void refresh(Rectangle region) {
+	}
+}
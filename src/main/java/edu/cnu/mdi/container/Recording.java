@@ -0,0 +1,117 @@
+package edu.cnu.mdi.container;
+
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable list of drawing operations captured by a
+ * {@link RecordingGraphics}, for example everything one item drew in a frame.
+ * <p>
+ * A recording holds copies of the shapes, arrays and text it was given, so
+ * nothing it replays can change after it was made. {@link #replay(Graphics2D)}
+ * writes nothing but the target graphics, so one recording may be replayed by
+ * several threads at once.
+ * </p>
+ */
+final class Recording {
+
+	/** A recording with no operations. */
+	static final Recording EMPTY = new Recording(List.of());
+
+	/**
+	 * Graphics state an operation was drawn with. Instances are shared by
+	 * consecutive operations until the state changes.
+	 *
+	 * @param transform  transform relative to the recording's origin
+	 * @param clip       clip in the space of {@code transform}, or
+	 *                   {@code null} for none
+	 * @param paint      paint
+	 * @param stroke     stroke
+	 * @param composite  composite
+	 * @param font       font
+	 * @param background background color, for {@code clearRect}
+	 * @param hints      rendering hints
+	 */
+	record State(AffineTransform transform, Shape clip, Paint paint, Stroke stroke, Composite composite, Font font,
+			Color background, RenderingHints hints) {
+
+		/**
+		 * Derive a graphics context with this state from a target whose own
+		 * transform and clip place the recording.
+		 */
+		Graphics2D apply(Graphics2D target) {
+			Graphics2D g = (Graphics2D) target.create();
+			g.setRenderingHints(hints);
+			g.transform(transform);
+			if (clip != null) {
+				g.clip(clip);
+			}
+			g.setPaint(paint);
+			g.setStroke(stroke);
+			g.setComposite(composite);
+			g.setFont(font);
+			g.setBackground(background);
+			return g;
+		}
+	}
+
+	/**
+	 * One drawing call and the state it was made in.
+	 *
+	 * @param state  the graphics state
+	 * @param action the call, replayed on a graphics with that state
+	 */
+	record Op(State state, Consumer<Graphics2D> action) {
+	}
+
+	private final List<Op> ops;
+
+	Recording(List<Op> ops) {
+		this.ops = ops;
+	}
+
+	/**
+	 * Check whether anything was drawn.
+	 *
+	 * @return {@code true} if there are no operations
+	 */
+	boolean isEmpty() {
+		return ops.isEmpty();
+	}
+
+	/**
+	 * Draw the recorded operations.
+	 *
+	 * @param target graphics whose transform and clip map the recording's
+	 *               origin and limit what it may touch; it is not modified
+	 */
+	void replay(Graphics2D target) {
+		State current = null;
+		Graphics2D g = null;
+		try {
+			for (Op op : ops) {
+				if (op.state() != current) {
+					if (g != null) {
+						g.dispose();
+					}
+					current = op.state();
+					g = current.apply(target);
+				}
+				op.action().accept(g);
+			}
+		} finally {
+			if (g != null) {
+				g.dispose();
+			}
+		}
+	}
+}
@@ -0,0 +1,567 @@
+package edu.cnu.mdi.container;
+
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.text.AttributedCharacterIterator;
+import java.text.AttributedString;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A {@code Graphics2D} that draws nothing but records every drawing call, so
+ * that content can be laid out on the Event Dispatch Thread and rasterized
+ * elsewhere.
+ * <p>
+ * State calls (transform, clip, paint, stroke, font, hints and so on) and
+ * queries go to a graphics context of a one-pixel scratch image, so
+ * {@link #getClipBounds()}, {@link #getFontMetrics(Font)} and the transform
+ * behave as on a real target. Drawing calls are appended, with copies of
+ * their mutable arguments and the current state, to a list that
+ * {@link #cut()} turns into a {@link Recording}. Graphics created from this
+ * one with {@link #create()} record into the same list, in call order.
+ * </p>
+ * <p>
+ * Images, rendered images and glyph vectors are recorded by reference and
+ * must not be changed afterwards. Image observers are not notified;
+ * image-drawing calls report the image as complete. Not thread-safe.
+ * </p>
+ */
+final class RecordingGraphics extends Graphics2D {
+
+	private static final BufferedImage SCRATCH = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB_PRE);
+
+	/** Operations recorded since the last cut, shared with created graphics. */
+	private static final class Sink {
+		List<Recording.Op> ops = new ArrayList<>();
+	}
+
+	private final Sink sink;
+	private final Graphics2D g;
+
+	/** Current state, or {@code null} after a state change. */
+	private Recording.State state;
+
+	/** Cached parts of {@link #state}, refreshed only when they change. */
+	private AffineTransform transform;
+	private Shape clip;
+	private boolean clipStale = true;
+	private RenderingHints hints;
+
+	/**
+	 * Create a recorder.
+	 *
+	 * @param hints rendering hints to start with, or {@code null}
+	 * @param clip  clip to start with, in recording coordinates, or
+	 *              {@code null} for none
+	 */
+	RecordingGraphics(RenderingHints hints, Shape clip) {
+		this(new Sink(), SCRATCH.createGraphics());
+		if (hints != null) {
+			g.setRenderingHints(hints);
+		}
+		g.setClip(clip);
+	}
+
+	private RecordingGraphics(Sink sink, Graphics2D g) {
+		this.sink = sink;
+		this.g = g;
+	}
+
+	/**
+	 * Take the operations recorded since the last cut.
+	 *
+	 * @return the recording, possibly {@link Recording#EMPTY}
+	 */
+	Recording cut() {
+		if (sink.ops.isEmpty()) {
+			return Recording.EMPTY;
+		}
+		Recording r = new Recording(List.copyOf(sink.ops));
+		sink.ops = new ArrayList<>();
+		return r;
+	}
+
+	// -------------------------------------------------------------------------
+	// Recording
+	// -------------------------------------------------------------------------
+
+	private Recording.State state() {
+		if (state == null) {
+			if (transform == null) {
+				transform = g.getTransform();
+			}
+			if (clipStale) {
+				clip = g.getClip();
+				clipStale = false;
+			}
+			if (hints == null) {
+				hints = (RenderingHints) g.getRenderingHints().clone();
+			}
+			state = new Recording.State(transform, clip, g.getPaint(), g.getStroke(), g.getComposite(), g.getFont(),
+					g.getBackground(), hints);
+		}
+		return state;
+	}
+
+	private void record(Consumer<Graphics2D> action) {
+		sink.ops.add(new Recording.Op(state(), action));
+	}
+
+	private void paintChanged() {
+		state = null;
+	}
+
+	private void clipChanged() {
+		state = null;
+		clipStale = true;
+	}
+
+	private void transformChanged() {
+		state = null;
+		transform = null;
+		clipStale = true;
+	}
+
+	private void hintsChanged() {
+		state = null;
+		hints = null;
+	}
+
+	private static Shape copy(Shape s) {
+		return new Path2D.Double(s);
+	}
+
+	// -------------------------------------------------------------------------
+	// Drawing calls
+	// -------------------------------------------------------------------------
+
+	@Override
+	public void draw(Shape s) {
+		Shape c = copy(s);
+		record(t -> t.draw(c));
+	}
+
+	@Override
+	public void fill(Shape s) {
+		Shape c = copy(s);
+		record(t -> t.fill(c));
+	}
+
+	@Override
+	public boolean drawImage(Image img, AffineTransform xform, ImageObserver obs) {
+		AffineTransform x = (xform == null) ? null : new AffineTransform(xform);
+		record(t -> t.drawImage(img, x, null));
+		return true;
+	}
+
+	@Override
+	public void drawImage(BufferedImage img, BufferedImageOp op, int x, int y) {
+		BufferedImage filtered = (op == null) ? img : op.filter(img, null);
+		record(t -> t.drawImage(filtered, x, y, null));
+	}
+
+	@Override
+	public void drawRenderedImage(RenderedImage img, AffineTransform xform) {
+		AffineTransform x = new AffineTransform(xform);
+		record(t -> t.drawRenderedImage(img, x));
+	}
+
+	@Override
+	public void drawRenderableImage(RenderableImage img, AffineTransform xform) {
+		AffineTransform x = new AffineTransform(xform);
+		record(t -> t.drawRenderableImage(img, x));
+	}
+
+	@Override
+	public void drawString(String str, int x, int y) {
+		record(t -> t.drawString(str, x, y));
+	}
+
+	@Override
+	public void drawString(String str, float x, float y) {
+		record(t -> t.drawString(str, x, y));
+	}
+
+	@Override
+	public void drawString(AttributedCharacterIterator iterator, int x, int y) {
+		AttributedString text = new AttributedString(iterator);
+		record(t -> t.drawString(text.getIterator(), x, y));
+	}
+
+	@Override
+	public void drawString(AttributedCharacterIterator iterator, float x, float y) {
+		AttributedString text = new AttributedString(iterator);
+		record(t -> t.drawString(text.getIterator(), x, y));
+	}
+
+	@Override
+	public void drawGlyphVector(GlyphVector gv, float x, float y) {
+		record(t -> t.drawGlyphVector(gv, x, y));
+	}
+
+	@Override
+	public void copyArea(int x, int y, int width, int height, int dx, int dy) {
+		record(t -> t.copyArea(x, y, width, height, dx, dy));
+	}
+
+	@Override
+	public void drawLine(int x1, int y1, int x2, int y2) {
+		record(t -> t.drawLine(x1, y1, x2, y2));
+	}
+
+	@Override
+	public void fillRect(int x, int y, int width, int height) {
+		record(t -> t.fillRect(x, y, width, height));
+	}
+
+	@Override
+	public void clearRect(int x, int y, int width, int height) {
+		record(t -> t.clearRect(x, y, width, height));
+	}
+
+	@Override
+	public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+		record(t -> t.drawRoundRect(x, y, width, height, arcWidth, arcHeight));
+	}
+
+	@Override
+	public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+		record(t -> t.fillRoundRect(x, y, width, height, arcWidth, arcHeight));
+	}
+
+	@Override
+	public void drawOval(int x, int y, int width, int height) {
+		record(t -> t.drawOval(x, y, width, height));
+	}
+
+	@Override
+	public void fillOval(int x, int y, int width, int height) {
+		record(t -> t.fillOval(x, y, width, height));
+	}
+
+	@Override
+	public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+		record(t -> t.drawArc(x, y, width, height, startAngle, arcAngle));
+	}
+
+	@Override
+	public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+		record(t -> t.fillArc(x, y, width, height, startAngle, arcAngle));
+	}
+
+	@Override
+	public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints) {
+		int[] xs = Arrays.copyOf(xPoints, nPoints);
+		int[] ys = Arrays.copyOf(yPoints, nPoints);
+		record(t -> t.drawPolyline(xs, ys, nPoints));
+	}
+
+	@Override
+	public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+		int[] xs = Arrays.copyOf(xPoints, nPoints);
+		int[] ys = Arrays.copyOf(yPoints, nPoints);
+		record(t -> t.drawPolygon(xs, ys, nPoints));
+	}
+
+	@Override
+	public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+		int[] xs = Arrays.copyOf(xPoints, nPoints);
+		int[] ys = Arrays.copyOf(yPoints, nPoints);
+		record(t -> t.fillPolygon(xs, ys, nPoints));
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, ImageObserver observer) {
+		record(t -> t.drawImage(img, x, y, null));
+		return true;
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, int width, int height, ImageObserver observer) {
+		record(t -> t.drawImage(img, x, y, width, height, null));
+		return true;
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, Color bgcolor, ImageObserver observer) {
+		record(t -> t.drawImage(img, x, y, bgcolor, null));
+		return true;
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, int width, int height, Color bgcolor,
+			ImageObserver observer) {
+		record(t -> t.drawImage(img, x, y, width, height, bgcolor, null));
+		return true;
+	}
+
+	@Override
+	public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+			ImageObserver observer) {
+		record(t -> t.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, null));
+		return true;
+	}
+
+	@Override
+	public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+			Color bgcolor, ImageObserver observer) {
+		record(t -> t.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, bgcolor, null));
+		return true;
+	}
+
+	// -------------------------------------------------------------------------
+	// State
+	// -------------------------------------------------------------------------
+
+	@Override
+	public Graphics create() {
+		RecordingGraphics copy = new RecordingGraphics(sink, (Graphics2D) g.create());
+		copy.transform = transform;
+		copy.clip = clip;
+		copy.clipStale = clipStale;
+		copy.hints = hints;
+		copy.state = state;
+		return copy;
+	}
+
+	@Override
+	public void dispose() {
+		g.dispose();
+	}
+
+	@Override
+	public boolean hit(Rectangle rect, Shape s, boolean onStroke) {
+		return g.hit(rect, s, onStroke);
+	}
+
+	@Override
+	public GraphicsConfiguration getDeviceConfiguration() {
+		return g.getDeviceConfiguration();
+	}
+
+	@Override
+	public void setComposite(Composite comp) {
+		g.setComposite(comp);
+		paintChanged();
+	}
+
+	@Override
+	public void setPaint(Paint paint) {
+		g.setPaint(paint);
+		paintChanged();
+	}
+
+	@Override
+	public void setStroke(Stroke s) {
+		g.setStroke(s);
+		paintChanged();
+	}
+
+	@Override
+	public void setRenderingHint(RenderingHints.Key hintKey, Object hintValue) {
+		g.setRenderingHint(hintKey, hintValue);
+		hintsChanged();
+	}
+
+	@Override
+	public Object getRenderingHint(RenderingHints.Key hintKey) {
+		return g.getRenderingHint(hintKey);
+	}
+
+	@Override
+	public void setRenderingHints(Map<?, ?> hints) {
+		g.setRenderingHints(hints);
+		hintsChanged();
+	}
+
+	@Override
+	public void addRenderingHints(Map<?, ?> hints) {
+		g.addRenderingHints(hints);
+		hintsChanged();
+	}
+
+	@Override
+	public RenderingHints getRenderingHints() {
+		return g.getRenderingHints();
+	}
+
+	@Override
+	public void translate(int x, int y) {
+		g.translate(x, y);
+		transformChanged();
+	}
+
+	@Override
+	public void translate(double tx, double ty) {
+		g.translate(tx, ty);
+		transformChanged();
+	}
+
+	@Override
+	public void rotate(double theta) {
+		g.rotate(theta);
+		transformChanged();
+	}
+
+	@Override
+	public void rotate(double theta, double x, double y) {
+		g.rotate(theta, x, y);
+		transformChanged();
+	}
+
+	@Override
+	public void scale(double sx, double sy) {
+		g.scale(sx, sy);
+		transformChanged();
+	}
+
+	@Override
+	public void shear(double shx, double shy) {
+		g.shear(shx, shy);
+		transformChanged();
+	}
+
+	@Override
+	public void transform(AffineTransform tx) {
+		g.transform(tx);
+		transformChanged();
+	}
+
+	@Override
+	public void setTransform(AffineTransform tx) {
+		g.setTransform(tx);
+		transformChanged();
+	}
+
+	@Override
+	public AffineTransform getTransform() {
+		return g.getTransform();
+	}
+
+	@Override
+	public Paint getPaint() {
+		return g.getPaint();
+	}
+
+	@Override
+	public Composite getComposite() {
+		return g.getComposite();
+	}
+
+	@Override
+	public void setBackground(Color color) {
+		g.setBackground(color);
+		paintChanged();
+	}
+
+	@Override
+	public Color getBackground() {
+		return g.getBackground();
+	}
+
+	@Override
+	public Stroke getStroke() {
+		return g.getStroke();
+	}
+
+	@Override
+	public void clip(Shape s) {
+		g.clip(s);
+		clipChanged();
+	}
+
+	@Override
+	public FontRenderContext getFontRenderContext() {
+		return g.getFontRenderContext();
+	}
+
+	@Override
+	public Color getColor() {
+		return g.getColor();
+	}
+
+	@Override
+	public void setColor(Color c) {
+		g.setColor(c);
+		paintChanged();
+	}
+
+	@Override
+	public void setPaintMode() {
+		g.setPaintMode();
+		paintChanged();
+	}
+
+	@Override
+	public void setXORMode(Color c1) {
+		g.setXORMode(c1);
+		paintChanged();
+	}
+
+	@Override
+	public Font getFont() {
+		return g.getFont();
+	}
+
+	@Override
+	public void setFont(Font font) {
+		g.setFont(font);
+		paintChanged();
+	}
+
+	@Override
+	public FontMetrics getFontMetrics(Font f) {
+		return g.getFontMetrics(f);
+	}
+
+	@Override
+	public Rectangle getClipBounds() {
+		return g.getClipBounds();
+	}
+
+	@Override
+	public void clipRect(int x, int y, int width, int height) {
+		g.clipRect(x, y, width, height);
+		clipChanged();
+	}
+
+	@Override
+	public void setClip(int x, int y, int width, int height) {
+		g.setClip(x, y, width, height);
+		clipChanged();
+	}
+
+	@Override
+	public Shape getClip() {
+		return g.getClip();
+	}
+
+	@Override
+	public void setClip(Shape clip) {
+		g.setClip(clip);
+		clipChanged();
+	}
+}
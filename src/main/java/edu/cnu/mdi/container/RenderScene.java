@@ -0,0 +1,55 @@
+package edu.cnu.mdi.container;
+
+import java.awt.Color;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+/**
+ * Immutable description of one frame of a {@link BaseContainer}'s content,
+ * captured on the Event Dispatch Thread and drawn by {@link TiledRenderer},
+ * possibly on other threads. Items and the before-draw drawable are captured
+ * as {@link Recording}s of what they drew on the EDT, so the threads that
+ * rasterize a scene never call into an item or drawable.
+ *
+ * @param width        width in user-space pixels
+ * @param height       height in user-space pixels
+ * @param scale        device pixels per user-space pixel
+ * @param tiles        number of tiles to render in parallel; 1 or less for
+ *                     a single pass on the calling thread
+ * @param worldSystem  copy of the world system
+ * @param localToWorld copy of the local-to-world transform
+ * @param worldToLocal copy of the world-to-local transform
+ * @param background   background color
+ * @param hints        rendering hints of the screen graphics
+ * @param beforeDraw   what the before-draw drawable drew, possibly
+ *                     {@link Recording#EMPTY}
+ * @param layers       layers to draw, bottom to top
+ */
+record RenderScene(int width, int height, double scale, int tiles, Rectangle2D.Double worldSystem,
+		AffineTransform localToWorld, AffineTransform worldToLocal, Color background, RenderingHints hints,
+		Recording beforeDraw, List<LayerSnapshot> layers) {
+
+	/**
+	 * Items of one layer captured for rendering.
+	 *
+	 * @param drawings what each item drew when the scene was captured,
+	 *                 bottom to top
+	 * @param bounds   world bounds of each item, in the same order;
+	 *                 {@code null} entries for items that are not spatially
+	 *                 indexable
+	 */
+	record LayerSnapshot(List<Recording> drawings, List<Rectangle2D.Double> bounds) {
+	}
+
+	/** @return image width in device pixels */
+	int deviceWidth() {
+		return Math.max(1, (int) Math.ceil(width * scale));
+	}
+
+	/** @return image height in device pixels */
+	int deviceHeight() {
+		return Math.max(1, (int) Math.ceil(height * scale));
+	}
+}
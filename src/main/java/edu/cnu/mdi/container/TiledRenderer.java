@@ -0,0 +1,185 @@
+package edu.cnu.mdi.container;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import edu.cnu.mdi.item.AItem;
+import edu.cnu.mdi.item.Layer;
+import edu.cnu.mdi.log.Log;
+
+/**
+ * Draws a {@link RenderScene} into an image, optionally split into tiles that
+ * are rasterized in parallel on a shared {@link ForkJoinPool}.
+ * <p>
+ * The image is cut into a grid of roughly {@link RenderScene#tiles()}
+ * rectangles of similar shape. Each tile draws into a sub-image that shares
+ * the target's raster, through its own {@code Graphics2D} translated to the
+ * tile origin and clipped to the tile, so items keep using the container's
+ * full-size world-to-local transform and no compositing pass is needed.
+ * A tile replays the recorded drawings of only the items whose world bounds,
+ * taken when the scene was captured, reach it (items that are not
+ * {@linkplain Layer#isIndexable(AItem) indexable}, or whose layer has its
+ * {@linkplain Layer#setSpatialIndexEnabled(boolean) spatial index}
+ * disabled, are replayed by every tile).
+ *
+ * <h2>Threading</h2>
+ * Tile workers never call into items or drawables. Both were recorded on the
+ * EDT when the scene was captured, so an item or drawable crossing a tile
+ * seam is drawn once, and every tile replays the same immutable
+ * {@link Recording} in parallel. Any caches an item or drawable keeps are
+ * written only by the EDT.
+ */
+final class TiledRenderer {
+
+	/**
+	 * Pixels added around a tile when choosing the items that reach it; the
+	 * layers' query margin, which bounds how far an indexable item paints
+	 * outside its world bounds.
+	 */
+	private static final int PAD = Layer.QUERY_SLOP;
+
+	/** Shared pool, created on first parallel render. */
+	private static volatile ForkJoinPool pool;
+
+	private TiledRenderer() {
+	}
+
+	/**
+	 * Get the pool tiles run on.
+	 *
+	 * @return the shared tile pool
+	 */
+	static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), p -> {
+				ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+				t.setName("Tile-Render-" + t.getPoolIndex());
+				t.setDaemon(true);
+				return t;
+			}, null, false);
+		}
+		return pool;
+	}
+
+	/**
+	 * Draw a scene into an image of the scene's device size. Returns when
+	 * every tile is done.
+	 *
+	 * @param scene the scene
+	 * @param image target of {@link RenderScene#deviceWidth()} by
+	 *              {@link RenderScene#deviceHeight()} pixels
+	 */
+	static void render(RenderScene scene, BufferedImage image) {
+		List<Rectangle> tiles = split(image.getWidth(), image.getHeight(), scene.tiles());
+		if (tiles.size() == 1) {
+			renderTile(scene, image, tiles.get(0), false);
+			return;
+		}
+
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(tiles.size());
+		for (Rectangle tile : tiles) {
+			tasks.add(getPool().submit(() -> renderTile(scene, image, tile, true)));
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+	}
+
+	/**
+	 * Split a device-pixel area into about {@code n} tiles.
+	 *
+	 * @param w width in device pixels
+	 * @param h height in device pixels
+	 * @param n requested tile count
+	 * @return tiles covering the area without overlap
+	 */
+	static List<Rectangle> split(int w, int h, int n) {
+		int cols = 1;
+		int rows = 1;
+		if (n > 1) {
+			cols = (int) Math.max(1, Math.min(w, Math.round(Math.sqrt((double) n * w / h))));
+			rows = (int) Math.max(1, Math.min(h, Math.ceil((double) n / cols)));
+		}
+		List<Rectangle> tiles = new ArrayList<>(cols * rows);
+		for (int r = 0; r < rows; r++) {
+			int y0 = r * h / rows;
+			int y1 = (r + 1) * h / rows;
+			for (int c = 0; c < cols; c++) {
+				int x0 = c * w / cols;
+				int x1 = (c + 1) * w / cols;
+				tiles.add(new Rectangle(x0, y0, x1 - x0, y1 - y0));
+			}
+		}
+		return tiles;
+	}
+
+	/**
+	 * Draw the part of a scene inside one tile.
+	 *
+	 * @param cull {@code false} to draw every item (single tile)
+	 */
+	private static void renderTile(RenderScene scene, BufferedImage image, Rectangle tile, boolean cull) {
+		double s = scene.scale();
+		Rectangle2D.Double clip = new Rectangle2D.Double(tile.x / s, tile.y / s, tile.width / s, tile.height / s);
+		Rectangle2D.Double tileWorld = null;
+		if (cull) {
+			Rectangle padded = clip.getBounds();
+			padded.grow(PAD, PAD);
+			tileWorld = new Rectangle2D.Double();
+			tileWorld.setRect(scene.localToWorld().createTransformedShape(padded).getBounds2D());
+		}
+
+		Graphics2D g2 = image.getSubimage(tile.x, tile.y, tile.width, tile.height).createGraphics();
+		try {
+			g2.setRenderingHints(scene.hints());
+			g2.translate(-tile.x, -tile.y);
+			g2.scale(s, s);
+			g2.clip(clip);
+			g2.setColor(scene.background());
+			g2.fill(clip);
+			scene.beforeDraw().replay(g2);
+			for (RenderScene.LayerSnapshot snapshot : scene.layers()) {
+				List<Recording> drawings = snapshot.drawings();
+				if (tileWorld != null) {
+					drawings = drawingsInTile(drawings, snapshot.bounds(), tileWorld);
+				}
+				for (Recording drawing : drawings) {
+					drawing.replay(g2);
+				}
+			}
+		} catch (RuntimeException e) {
+			Log.getInstance().exception(e);
+		} finally {
+			g2.dispose();
+		}
+	}
+
+	/** Drawings of items whose world bounds are unknown or intersect a tile's. */
+	private static List<Recording> drawingsInTile(List<Recording> drawings, List<Rectangle2D.Double> bounds,
+			Rectangle2D.Double tile) {
+		List<Recording> result = new ArrayList<>();
+		for (int i = 0; i < drawings.size(); i++) {
+			Rectangle2D.Double b = bounds.get(i);
+			if (b == null || intersects(b, tile)) {
+				result.add(drawings.get(i));
+			}
+		}
+		return result;
+	}
+
+	/** Intersection test tolerant of negative extents and zero-size bounds. */
+	private static boolean intersects(Rectangle2D.Double b, Rectangle2D.Double tile) {
+		double x0 = Math.min(b.x, b.x + b.width);
+		double x1 = Math.max(b.x, b.x + b.width);
+		double y0 = Math.min(b.y, b.y + b.height);
+		double y1 = Math.max(b.y, b.y + b.height);
+		return x1 >= tile.x && x0 <= tile.x + tile.width && y1 >= tile.y && y0 <= tile.y + tile.height;
+	}
+}
@@ -0,0 +1,384 @@
+package edu.cnu.mdi.container;
+
+import java.awt.Component;
+import java.awt.Point;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import edu.cnu.mdi.feedback.FeedbackControl;
+import edu.cnu.mdi.feedback.FeedbackPane;
+import edu.cnu.mdi.graphics.drawable.IDrawable;
+import edu.cnu.mdi.graphics.toolbar.AToolBar;
+import edu.cnu.mdi.graphics.world.WorldPolygon;
+import edu.cnu.mdi.item.AItem;
+import edu.cnu.mdi.item.Layer;
+import edu.cnu.mdi.view.BaseView;
+
+/**
+ * A container that is nothing but a fixed world-to-pixel transform, used to
+ * rasterize world-coordinate content on a worker thread.
+ * <p>
+ * Unlike {@link OffscreenContainer} it is not a Swing component: it has no
+ * layers, no feedback control and no event listeners, so creating and using
+ * one never touches the Event Dispatch Thread. Its world system and size are
+ * fixed at construction and instances are immutable, so one may be shared by
+ * several threads.
+ * </p>
+ * <p>
+ * Only the coordinate conversions, {@link #getWorldSystem()},
+ * {@link #getWidth()} and {@link #getHeight()} are meaningful.
+ * {@link #getComponent()} returns {@code null}; content drawn through this
+ * container must take its size from {@link #getWidth()} and
+ * {@link #getHeight()}. Queries about items and selection report nothing,
+ * {@link #refresh()} and {@link #setDirty(boolean)} do nothing, and any
+ * attempt to change the world system, add layers or attach UI throws
+ * {@link UnsupportedOperationException}.
+ * </p>
+ */
+public final class TransformContainer implements IContainer {
+
+	private final Rectangle2D.Double worldSystem;
+	private final int width;
+	private final int height;
+
+	private final AffineTransform localToWorld;
+	private final AffineTransform worldToLocal;
+
+	/**
+	 * Create a transform container.
+	 *
+	 * @param worldSystem the world rectangle mapped onto the full pixel area;
+	 *                    must not be {@code null} and must have a non-zero
+	 *                    width and height
+	 * @param width       pixel width, at least 1
+	 * @param height      pixel height, at least 1
+	 */
+	public TransformContainer(Rectangle2D.Double worldSystem, int width, int height) {
+		Objects.requireNonNull(worldSystem, "worldSystem");
+		if (width < 1 || height < 1) {
+			throw new IllegalArgumentException("Container size must be positive: " + width + "x" + height);
+		}
+		if (Math.abs(worldSystem.width) < 1.0e-12 || Math.abs(worldSystem.height) < 1.0e-12) {
+			throw new IllegalArgumentException("World system must have a non-zero size: " + worldSystem);
+		}
+		this.worldSystem = new Rectangle2D.Double(worldSystem.x, worldSystem.y, worldSystem.width,
+				worldSystem.height);
+		this.width = width;
+		this.height = height;
+
+		// Same mapping as BaseContainer: pixel (0,0) is the world top-left and
+		// y is flipped.
+		localToWorld = AffineTransform.getTranslateInstance(worldSystem.getMinX(), worldSystem.getMaxY());
+		localToWorld.concatenate(AffineTransform.getScaleInstance(worldSystem.width / width,
+				-worldSystem.height / height));
+		try {
+			worldToLocal = localToWorld.createInverse();
+		} catch (NoninvertibleTransformException e) {
+			// unreachable given the size checks above
+			throw new IllegalArgumentException("Non-invertible world transform for " + worldSystem, e);
+		}
+	}
+
+	// -------------------------------------------------------------------------
+	// Geometry
+	// -------------------------------------------------------------------------
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return a copy of the world system
+	 */
+	@Override
+	public Rectangle2D.Double getWorldSystem() {
+		return new Rectangle2D.Double(worldSystem.x, worldSystem.y, worldSystem.width, worldSystem.height);
+	}
+
+	@Override
+	public void localToWorld(Point pp, Point2D.Double wp) {
+		localToWorld.transform(pp, wp);
+	}
+
+	@Override
+	public void worldToLocal(Point pp, Point2D.Double wp) {
+		if (wp == null || pp == null) {
+			return;
+		}
+		worldToLocal.transform(wp, pp);
+	}
+
+	@Override
+	public void worldToLocal(Point pp, double wx, double wy) {
+		worldToLocal(pp, new Point2D.Double(wx, wy));
+	}
+
+	@Override
+	public void worldToLocal(Rectangle r, Rectangle.Double wr) {
+		Point p0 = new Point();
+		Point p1 = new Point();
+		worldToLocal(p0, new Point2D.Double(wr.getMinX(), wr.getMinY()));
+		worldToLocal(p1, new Point2D.Double(wr.getMaxX(), wr.getMaxY()));
+		r.setBounds(Math.min(p0.x, p1.x), Math.min(p0.y, p1.y), Math.abs(p1.x - p0.x), Math.abs(p1.y - p0.y));
+	}
+
+	@Override
+	public void localToWorld(Rectangle r, Rectangle.Double wr) {
+		Point2D.Double wp0 = new Point2D.Double();
+		Point2D.Double wp1 = new Point2D.Double();
+		localToWorld(new Point(r.x, r.y), wp0);
+		localToWorld(new Point(r.x + r.width, r.y + r.height), wp1);
+		wr.setFrame(wp0.x, wp1.y, wp1.x - wp0.x, wp0.y - wp1.y);
+	}
+
+	@Override
+	public void worldToLocal(Polygon polygon, WorldPolygon worldPolygon) {
+		Point pp = new Point();
+		for (int i = 0; i < worldPolygon.npoints; ++i) {
+			worldToLocal(pp, worldPolygon.xpoints[i], worldPolygon.ypoints[i]);
+			polygon.addPoint(pp.x, pp.y);
+		}
+	}
+
+	@Override
+	public void localToWorld(Polygon polygon, WorldPolygon worldPolygon) {
+		Point2D.Double wp = new Point2D.Double();
+		Point pp = new Point();
+		for (int i = 0; i < polygon.npoints; ++i) {
+			pp.setLocation(polygon.xpoints[i], polygon.ypoints[i]);
+			localToWorld(pp, wp);
+			worldPolygon.addPoint(wp.x, wp.y);
+		}
+	}
+
+	@Override
+	public double approximateZoomFactor() {
+		return 1.0;
+	}
+
+	// -------------------------------------------------------------------------
+	// Not a component: no painting, no UI
+	// -------------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@code null}: this container is not a component
+	 */
+	@Override
+	public Component getComponent() {
+		return null;
+	}
+
+	/** No-op: the owner rasterizes explicitly. */
+	@Override
+	public void refresh() {
+	}
+
+	/** No-op: the owner rasterizes explicitly. */
+	@Override
+	public void refresh(Rectangle region) {
+	}
+
+	/** No-op: there is no backing image. */
+	@Override
+	public void setDirty(boolean dirty) {
+	}
+
+	/** @return {@code null}: there is no backing image */
+	@Override
+	public BufferedImage getImage() {
+		return null;
+	}
+
+	/** No-op. */
+	@Override
+	public void prepareForExit() {
+	}
+
+	@Override
+	public BaseView getView() {
+		return null;
+	}
+
+	@Override
+	public AToolBar getToolBar() {
+		return null;
+	}
+
+	@Override
+	public FeedbackPane getFeedbackPane() {
+		return null;
+	}
+
+	@Override
+	public FeedbackControl getFeedbackControl() {
+		return null;
+	}
+
+	@Override
+	public void feedbackTrigger(MouseEvent mouseEvent, boolean dragging) {
+	}
+
+	// -------------------------------------------------------------------------
+	// No items
+	// -------------------------------------------------------------------------
+
+	@Override
+	public Layer getAnnotationLayer() {
+		return null;
+	}
+
+	@Override
+	public Layer getConnectionLayer() {
+		return null;
+	}
+
+	@Override
+	public Layer getDefaultLayer() {
+		return null;
+	}
+
+	@Override
+	public Layer getLayerByName(String name) {
+		return null;
+	}
+
+	@Override
+	public AItem getItemAtPoint(Point lp) {
+		return null;
+	}
+
+	@Override
+	public ArrayList<AItem> getEnclosedItems(Rectangle rect) {
+		return new ArrayList<>();
+	}
+
+	@Override
+	public ArrayList<AItem> getItemsAtPoint(Point lp) {
+		return new ArrayList<>();
+	}
+
+	@Override
+	public boolean anySelectedItems() {
+		return false;
+	}
+
+	@Override
+	public List<AItem> getSelectedItems() {
+		return new ArrayList<>();
+	}
+
+	@Override
+	public void selectAllItems(boolean select) {
+	}
+
+	@Override
+	public void deleteSelectedItems() {
+	}
+
+	// -------------------------------------------------------------------------
+	// Immutable
+	// -------------------------------------------------------------------------
+
+	@Override
+	public void addLayer(Layer layer) {
+		throw unsupported();
+	}
+
+	@Override
+	public void pan(int dh, int dv) {
+		throw unsupported();
+	}
+
+	@Override
+	public void recenter(Point pp) {
+		throw unsupported();
+	}
+
+	@Override
+	public void prepareToZoom() {
+		throw unsupported();
+	}
+
+	@Override
+	public void restoreDefaultWorld() {
+		throw unsupported();
+	}
+
+	@Override
+	public void resetWorldSystem(Rectangle2D.Double worldSystem) {
+		throw unsupported();
+	}
+
+	@Override
+	public void scale(double scaleFactor) {
+		throw unsupported();
+	}
+
+	@Override
+	public void undoLastZoom() {
+		throw unsupported();
+	}
+
+	@Override
+	public void rubberBanded(Rectangle b) {
+		throw unsupported();
+	}
+
+	@Override
+	public void zoom(double xmin, double xmax, double ymin, double ymax) {
+		throw unsupported();
+	}
+
+	@Override
+	public void setWorldSystem(Rectangle2D.Double wr) {
+		throw unsupported();
+	}
+
+	@Override
+	public void setToolBar(AToolBar toolBar) {
+		throw unsupported();
+	}
+
+	@Override
+	public void setView(BaseView view) {
+		throw unsupported();
+	}
+
+	@Override
+	public void setFeedbackPane(FeedbackPane feedbackPane) {
+		throw unsupported();
+	}
+
+	@Override
+	public void setAfterDraw(IDrawable afterDraw) {
+		throw unsupported();
+	}
+
+	@Override
+	public void setBeforeDraw(IDrawable beforeDraw) {
+		throw unsupported();
+	}
+
+	private static UnsupportedOperationException unsupported() {
+		return new UnsupportedOperationException("A TransformContainer has a fixed world system and no UI");
+	}
+}
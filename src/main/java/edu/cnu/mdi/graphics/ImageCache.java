@@ -0,0 +1,331 @@
+package edu.cnu.mdi.graphics;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import javax.swing.Icon;
+
+/**
+ * A size-bounded, least-recently-used cache for images and icons.
+ * <p>
+ * Each entry has a weight in bytes, given by a weigher function (see
+ * {@link #bytesOf(BufferedImage)} and {@link #bytesOf(Icon)}). When the total
+ * weight exceeds the budget, the least recently used entries are evicted
+ * until it fits again. An entry heavier than the whole budget is returned to
+ * the caller but not cached.
+ * </p>
+ *
+ * <h2>Soft references</h2>
+ * <p>
+ * Optionally ({@link #setSoftReferences(boolean)}), evicted entries are kept
+ * through {@link SoftReference}s instead of being dropped. The garbage
+ * collector may then reclaim them under memory pressure, but until it does a
+ * lookup finds them again and moves them back into the bounded part. Softly
+ * held entries do not count against the budget.
+ * </p>
+ *
+ * <h2>Threading</h2>
+ * <p>
+ * All methods are thread-safe. The loader passed to
+ * {@link #get(String, Function)} runs outside the cache lock, so a slow load
+ * does not block other lookups; two threads missing on the same key at the
+ * same time may both load it, and the first result stored wins.
+ * </p>
+ *
+ * @param <V> the cached value type
+ */
+public final class ImageCache<V> {
+
+	/** Weight of values whose size cannot be determined. */
+	static final long DEFAULT_WEIGHT = 1024;
+
+	/**
+	 * A snapshot of cache statistics.
+	 *
+	 * @param hits      lookups answered from the cache
+	 * @param softHits  the subset of {@code hits} recovered from soft references
+	 * @param misses    lookups that had to load
+	 * @param evictions entries pushed out of the bounded part by the budget
+	 * @param entries   entries currently in the bounded part
+	 * @param bytes     total weight of those entries
+	 * @param maxBytes  the budget
+	 */
+	public record Stats(long hits, long softHits, long misses, long evictions, int entries, long bytes,
+			long maxBytes) {
+
+		/**
+		 * The fraction of lookups answered from the cache.
+		 *
+		 * @return the hit ratio, or 0 before any lookup
+		 */
+		public double hitRatio() {
+			long total = hits + misses;
+			return (total == 0) ? 0 : (double) hits / total;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d entries, %.1f of %.1f MB, hits %d (soft %d), misses %d, evictions %d",
+					entries, bytes / 1048576.0, maxBytes / 1048576.0, hits, softHits, misses, evictions);
+		}
+	}
+
+	/** A cached value with its weight. */
+	private record Entry<V>(V value, long weight) {
+	}
+
+	/** A softly held evicted value that remembers its key. */
+	private static final class SoftEntry<V> extends SoftReference<V> {
+		final String key;
+
+		SoftEntry(String key, V value, ReferenceQueue<? super V> queue) {
+			super(value, queue);
+			this.key = key;
+		}
+	}
+
+	private final String name;
+	private final ToLongFunction<? super V> weigher;
+
+	/** The bounded part, in access order. */
+	private final LinkedHashMap<String, Entry<V>> lru = new LinkedHashMap<>(64, 0.75f, true);
+
+	/** Evicted entries, when soft references are enabled. */
+	private final Map<String, SoftEntry<V>> soft = new HashMap<>();
+	private final ReferenceQueue<V> cleared = new ReferenceQueue<>();
+
+	private long maxBytes;
+	private long bytes;
+	private boolean softReferences;
+
+	private long hits;
+	private long softHits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Create a cache.
+	 *
+	 * @param name     a name for log and debug output
+	 * @param maxBytes the budget in bytes
+	 * @param weigher  the weight of a value in bytes
+	 */
+	public ImageCache(String name, long maxBytes, ToLongFunction<? super V> weigher) {
+		this.name = Objects.requireNonNull(name, "name");
+		this.weigher = Objects.requireNonNull(weigher, "weigher");
+		setMaxBytes(maxBytes);
+	}
+
+	/**
+	 * Look up a value, loading and caching it on a miss. A {@code null} from
+	 * the loader is returned but not cached, so a missing resource is retried
+	 * on the next lookup.
+	 *
+	 * @param key    the key
+	 * @param loader creates the value for a key; called outside the lock
+	 * @return the value, or {@code null} if the loader returned {@code null}
+	 */
+	public V get(String key, Function<String, ? extends V> loader) {
+		Objects.requireNonNull(key, "key");
+		synchronized (this) {
+			V v = lookup(key);
+			if (v != null) {
+				return v;
+			}
+			misses++;
+		}
+
+		V loaded = loader.apply(key);
+		if (loaded == null) {
+			return null;
+		}
+
+		synchronized (this) {
+			Entry<V> existing = lru.get(key);
+			if (existing != null) {
+				return existing.value; // another thread got there first
+			}
+			store(key, loaded);
+			return loaded;
+		}
+	}
+
+	/**
+	 * Look up a value without loading it.
+	 *
+	 * @param key the key
+	 * @return the cached value, or {@code null}; a {@code null} counts as a miss
+	 */
+	public synchronized V getIfPresent(String key) {
+		V v = lookup(key);
+		if (v == null) {
+			misses++;
+		}
+		return v;
+	}
+
+	/** Find a value in either part and count the hit. Caller holds the lock. */
+	private V lookup(String key) {
+		Entry<V> e = lru.get(key);
+		if (e != null) {
+			hits++;
+			return e.value;
+		}
+		if (softReferences) {
+			expungeCleared();
+			SoftEntry<V> ref = soft.remove(key);
+			V v = (ref == null) ? null : ref.get();
+			if (v != null) {
+				hits++;
+				softHits++;
+				store(key, v);
+				return v;
+			}
+		}
+		return null;
+	}
+
+	/** Add a value to the bounded part and trim to the budget. Caller holds the lock. */
+	private void store(String key, V value) {
+		long weight = Math.max(1, weigher.applyAsLong(value));
+		if (weight > maxBytes) {
+			return;
+		}
+		Entry<V> old = lru.put(key, new Entry<>(value, weight));
+		if (old != null) {
+			bytes -= old.weight;
+		}
+		soft.remove(key);
+		bytes += weight;
+		trim();
+	}
+
+	/** Evict least recently used entries until within budget. Caller holds the lock. */
+	private void trim() {
+		Iterator<Map.Entry<String, Entry<V>>> it = lru.entrySet().iterator();
+		while (bytes > maxBytes && it.hasNext()) {
+			Map.Entry<String, Entry<V>> eldest = it.next();
+			it.remove();
+			bytes -= eldest.getValue().weight;
+			evictions++;
+			if (softReferences) {
+				soft.put(eldest.getKey(), new SoftEntry<>(eldest.getKey(), eldest.getValue().value, cleared));
+			}
+		}
+	}
+
+	/** Drop map entries whose soft references the collector has cleared. */
+	private void expungeCleared() {
+		for (Object ref; (ref = cleared.poll()) != null;) {
+			SoftEntry<?> s = (SoftEntry<?>) ref;
+			if (soft.get(s.key) == s) {
+				soft.remove(s.key);
+			}
+		}
+	}
+
+	/**
+	 * Set the budget, evicting at once if the cache is over it.
+	 *
+	 * @param maxBytes the budget in bytes; must be positive
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		if (maxBytes <= 0) {
+			throw new IllegalArgumentException("maxBytes must be positive.");
+		}
+		this.maxBytes = maxBytes;
+		trim();
+	}
+
+	/**
+	 * Get the budget.
+	 *
+	 * @return the budget in bytes
+	 */
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Set whether evicted entries are kept through soft references. Turning
+	 * it off drops any entries held that way.
+	 *
+	 * @param on {@code true} to keep evicted entries softly
+	 */
+	public synchronized void setSoftReferences(boolean on) {
+		softReferences = on;
+		if (!on) {
+			soft.clear();
+			expungeCleared();
+		}
+	}
+
+	/**
+	 * Check whether evicted entries are kept through soft references.
+	 *
+	 * @return {@code true} if they are
+	 */
+	public synchronized boolean isSoftReferences() {
+		return softReferences;
+	}
+
+	/**
+	 * Get the current statistics.
+	 *
+	 * @return a snapshot of the counters
+	 */
+	public synchronized Stats stats() {
+		return new Stats(hits, softHits, misses, evictions, lru.size(), bytes, maxBytes);
+	}
+
+	/** Remove every entry; the counters are kept. */
+	public synchronized void clear() {
+		lru.clear();
+		soft.clear();
+		expungeCleared();
+		bytes = 0;
+	}
+
+	@Override
+	public String toString() {
+		return name + ": " + stats();
+	}
+
+	// -------------------------------------------------------------------------
+	// Weighers
+	// -------------------------------------------------------------------------
+
+	/**
+	 * The memory held by an image's pixels.
+	 *
+	 * @param image the image
+	 * @return its data buffer size in bytes
+	 */
+	public static long bytesOf(BufferedImage image) {
+		DataBuffer db = image.getRaster().getDataBuffer();
+		return (long) db.getSize() * db.getNumBanks() * (DataBuffer.getDataTypeSize(db.getDataType()) / 8);
+	}
+
+	/**
+	 * The memory an icon's bitmap would hold at its size, as four bytes per
+	 * pixel. This is exact for scaled raster icons and a fair stand-in for SVG
+	 * icons, whose rendering caches grow with their size.
+	 *
+	 * @param icon the icon
+	 * @return its estimated weight in bytes
+	 */
+	public static long bytesOf(Icon icon) {
+		long w = icon.getIconWidth();
+		long h = icon.getIconHeight();
+		return (w > 0 && h > 0) ? 4 * w * h : DEFAULT_WEIGHT;
+	}
+}
@@ -4,8 +4,13 @@ import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 import javax.imageio.ImageIO;
 import javax.swing.Icon;
@@ -15,6 +20,7 @@ import com.formdev.flatlaf.extras.FlatSVGIcon;
 import com.formdev.flatlaf.util.UIScale;
 
 import edu.cnu.mdi.log.Log;
+import edu.cnu.mdi.util.StartupProfiler;
 
 /**
  * Centralized image/icon loading for MDI using classpath resources.
@@ -58,10 +64,26 @@ import edu.cnu.mdi.log.Log;
  *       scaling; this class caches lazily.</li>
  * </ul>
  *
+ * <h2>Caching</h2>
+ * <p>
+ * Raster images and icons are held in two {@link ImageCache}s with byte
+ * budgets ({@value #DEFAULT_RASTER_CACHE_BYTES} and
+ * {@value #DEFAULT_ICON_CACHE_BYTES} bytes by default), weighted by pixel
+ * memory and evicted least recently used first. Long sessions that load
+ * many images, or the same icons at many sizes, therefore stay bounded.
+ * Evicted entries can optionally be kept through soft references
+ * ({@link #setSoftReferences(boolean)}), and each cache reports hit/miss
+ * statistics ({@link #getRasterCacheStats()}, {@link #getIconCacheStats()}).
+ * Callers keep whatever they were handed: eviction only means the next
+ * lookup loads again.
+ * </p>
+ *
  * <h2>Threading</h2>
  * <p>
  * All caches are thread-safe. Icon creation may occur off the EDT, but icons are
- * typically requested during UI construction on the EDT.
+ * typically requested during UI construction on the EDT. {@link #prefetchUiIcons}
+ * and {@link #prefetchRasters} load sets of resources on a background thread so
+ * that the later requests are cache hits.
  * </p>
  */
 public final class ImageManager {
@@ -78,11 +100,22 @@ public final class ImageManager {
 	/** Singleton instance. */
 	private static volatile ImageManager instance;
 
+	/** Default byte budget of the raster image cache. */
+	public static final long DEFAULT_RASTER_CACHE_BYTES = 64L << 20;
+
+	/** Default byte budget of the icon cache. */
+	public static final long DEFAULT_ICON_CACHE_BYTES = 16L << 20;
+
 	/** Cache of original raster images (unscaled) keyed by resource path. */
-	private final ConcurrentHashMap<String, BufferedImage> rasterCache = new ConcurrentHashMap<>();
+	private final ImageCache<BufferedImage> rasterCache = new ImageCache<>("raster images",
+			DEFAULT_RASTER_CACHE_BYTES, ImageCache::bytesOf);
 
 	/** Cache of icons (SVG or raster) keyed by "path@WxH". */
-	private final ConcurrentHashMap<String, Icon> iconCache = new ConcurrentHashMap<>();
+	private final ImageCache<Icon> iconCache = new ImageCache<>("icons", DEFAULT_ICON_CACHE_BYTES,
+			ImageCache::bytesOf);
+
+	/** Runs prefetches, one at a time; created on first use. */
+	private ExecutorService prefetcher;
 
 	private ImageManager() {
 		// singleton
@@ -140,7 +173,7 @@ public final class ImageManager {
 		final String normalized = normalizeResourcePath(resourcePath);
 		final String key = normalized + "@" + logicalW + "x" + logicalH;
 
-		return iconCache.computeIfAbsent(key, k -> createUiIcon(normalized, logicalW, logicalH));
+		return iconCache.get(key, k -> timed("icon loading", () -> createUiIcon(normalized, logicalW, logicalH)));
 	}
 
 	/**
@@ -156,6 +189,22 @@ public final class ImageManager {
 		return loadUiIcon(resourcePath, logicalSize, logicalSize);
 	}
 
+	/**
+	 * Run a cache loader, charging its time to a startup profile category
+	 * while the application is starting.
+	 */
+	private static <T> T timed(String category, Supplier<T> loader) {
+		if (!StartupProfiler.isActive()) {
+			return loader.get();
+		}
+		long t0 = System.nanoTime();
+		try {
+			return loader.get();
+		} finally {
+			StartupProfiler.accumulate(category, System.nanoTime() - t0);
+		}
+	}
+
 	/**
 	 * Create (uncached) UI icon, choosing SVG vs raster handling.
 	 *
@@ -213,7 +262,7 @@ public final class ImageManager {
 	public BufferedImage loadRaster(String resourcePath) {
 		Objects.requireNonNull(resourcePath, "resourcePath");
 		final String normalized = normalizeResourcePath(resourcePath);
-		return rasterCache.computeIfAbsent(normalized, this::readRasterUnchecked);
+		return rasterCache.get(normalized, k -> timed("raster loading", () -> readRasterUnchecked(k)));
 	}
 
 	/**
@@ -320,6 +369,57 @@ public final class ImageManager {
 		return ImageManager.class.getResourceAsStream(normalizedResourcePath);
 	}
 
+	// -------------------------------------------------------------------------
+	// Prefetch
+	// -------------------------------------------------------------------------
+
+	/**
+	 * Load a set of UI icons on a background thread, so that later
+	 * {@link #loadUiIcon(String, int)} calls for them are cache hits. Call
+	 * after the look and feel is installed, since raster icon sizes depend on
+	 * its scale factor. Missing resources are logged as usual.
+	 *
+	 * @param resourcePaths classpath resource paths
+	 * @param logicalSize   logical size in both dimensions
+	 * @return completes when every icon has been loaded
+	 */
+	public CompletableFuture<Void> prefetchUiIcons(Collection<String> resourcePaths, int logicalSize) {
+		List<String> paths = List.copyOf(resourcePaths);
+		return CompletableFuture.runAsync(() -> {
+			for (String path : paths) {
+				loadUiIcon(path, logicalSize);
+			}
+		}, prefetcher());
+	}
+
+	/**
+	 * Load a set of raster images on a background thread, so that later
+	 * {@link #loadRaster(String)} calls for them are cache hits.
+	 *
+	 * @param resourcePaths classpath resource paths
+	 * @return completes when every image has been loaded
+	 */
+	public CompletableFuture<Void> prefetchRasters(Collection<String> resourcePaths) {
+		List<String> paths = List.copyOf(resourcePaths);
+		return CompletableFuture.runAsync(() -> {
+			for (String path : paths) {
+				loadRaster(path);
+			}
+		}, prefetcher());
+	}
+
+	private synchronized ExecutorService prefetcher() {
+		if (prefetcher == null) {
+			prefetcher = Executors.newSingleThreadExecutor(r -> {
+				Thread t = new Thread(r, "ImageManager-Prefetch");
+				t.setDaemon(true);
+				t.setPriority(Thread.MIN_PRIORITY);
+				return t;
+			});
+		}
+		return prefetcher;
+	}
+
 	// -------------------------------------------------------------------------
 	// Cache management
 	// -------------------------------------------------------------------------
@@ -335,4 +435,44 @@ public final class ImageManager {
 		rasterCache.clear();
 		iconCache.clear();
 	}
+
+	/**
+	 * Set the byte budgets of the caches, evicting at once if either is over.
+	 *
+	 * @param rasterBytes budget for raster images; must be positive
+	 * @param iconBytes   budget for icons; must be positive
+	 */
+	public void setCacheLimits(long rasterBytes, long iconBytes) {
+		rasterCache.setMaxBytes(rasterBytes);
+		iconCache.setMaxBytes(iconBytes);
+	}
+
+	/**
+	 * Set whether entries evicted from the caches are kept through soft
+	 * references, to be reclaimed only under memory pressure. Off by default.
+	 *
+	 * @param on {@code true} to keep evicted entries softly
+	 */
+	public void setSoftReferences(boolean on) {
+		rasterCache.setSoftReferences(on);
+		iconCache.setSoftReferences(on);
+	}
+
+	/**
+	 * Get statistics of the raster image cache.
+	 *
+	 * @return a snapshot of its counters
+	 */
+	public ImageCache.Stats getRasterCacheStats() {
+		return rasterCache.stats();
+	}
+
+	/**
+	 * Get statistics of the icon cache.
+	 *
+	 * @return a snapshot of its counters
+	 */
+	public ImageCache.Stats getIconCacheStats() {
+		return iconCache.stats();
+	}
 }
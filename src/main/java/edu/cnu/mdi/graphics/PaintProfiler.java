@@ -0,0 +1,628 @@
+package edu.cnu.mdi.graphics;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Window;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JFileChooser;
+import javax.swing.JMenu;
+import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import javax.swing.event.MenuEvent;
+import javax.swing.event.MenuListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+import com.google.gson.stream.JsonWriter;
+
+import edu.cnu.mdi.log.Log;
+import edu.cnu.mdi.util.Environment;
+
+/**
+ * Paint-time profiler for one component, such as a
+ * {@link edu.cnu.mdi.container.BaseContainer} or a
+ * {@link edu.cnu.mdi.splot.plot.PlotCanvas}.
+ *
+ * <h2>What is measured</h2>
+ * <ul>
+ *   <li><b>Frames</b> — the wall time of each {@code paintComponent} call,
+ *       bracketed by {@link #beginFrame()} and {@link #endFrame()}. From these
+ *       come frames per second (frames finished in the last second), mean and
+ *       maximum frame time, and the EDT time spent painting, both as a total
+ *       and as the busy fraction of the last second.</li>
+ *   <li><b>Sections</b> — named parts of a frame (a layer, a curve, the
+ *       ticks), reported through {@link #section(String, long)} and aggregated
+ *       by name: count, total, mean, maximum and last time.</li>
+ *   <li><b>Slowest items</b> — the {@value #SLOWEST_COUNT} slowest single
+ *       draws reported through {@link #item(Supplier, long)}.</li>
+ * </ul>
+ *
+ * <h2>Cost</h2>
+ * <p>
+ * The profiler is disabled by default. While disabled, {@link #start()}
+ * returns {@code 0} and every recording method returns at once on that value,
+ * so instrumented paint code pays one volatile read per call site and callers
+ * can skip building section labels. Enabling the
+ * {@linkplain #setOverlayVisible(boolean) overlay} enables the profiler.
+ * </p>
+ *
+ * <h2>Output</h2>
+ * <p>
+ * {@link #drawOverlay(Graphics2D)} paints a summary box in the corner of the
+ * owning component; {@link #writeCsv(Writer)} and {@link #writeJson(Writer)}
+ * export the full statistics. {@link #createMenu(Component, Supplier)} builds
+ * the menu used by view popups to toggle the overlay and export.
+ * </p>
+ *
+ * <p>
+ * Recording is expected on the Event Dispatch Thread; all methods are
+ * synchronized so exports and resets are safe from other threads.
+ * </p>
+ */
+public final class PaintProfiler {
+
+	/** Number of slowest item draws retained. */
+	public static final int SLOWEST_COUNT = 10;
+
+	/** Number of recent frames retained for rate and busy-time statistics. */
+	private static final int FRAME_HISTORY = 256;
+
+	/** Window, in nanoseconds, for frames per second and busy fraction. */
+	private static final long WINDOW_NANOS = 1_000_000_000L;
+
+	/** Maximum number of sections listed in the overlay. */
+	private static final int OVERLAY_SECTIONS = 6;
+
+	/**
+	 * Aggregated timing of one named section.
+	 *
+	 * @param name        section name
+	 * @param count       number of times recorded
+	 * @param totalMillis total time
+	 * @param maxMillis   longest single time
+	 * @param lastMillis  most recent time
+	 */
+	public record SectionStats(String name, long count, double totalMillis, double maxMillis, double lastMillis) {
+
+		/** @return mean time per recording, in milliseconds */
+		public double meanMillis() {
+			return count == 0 ? 0 : totalMillis / count;
+		}
+	}
+
+	/**
+	 * One slow item draw.
+	 *
+	 * @param label  item description
+	 * @param millis draw time
+	 * @param frame  frame number in which it happened
+	 */
+	public record ItemTiming(String label, double millis, long frame) {
+	}
+
+	/** Mutable accumulator behind {@link SectionStats}. */
+	private static final class Section {
+		long count;
+		long total;
+		long max;
+		long last;
+	}
+
+	private final Component owner;
+
+	private volatile boolean enabled;
+	private volatile boolean overlayVisible;
+
+	private final Map<String, Section> sections = new LinkedHashMap<>();
+	private final ArrayList<ItemTiming> slowest = new ArrayList<>(SLOWEST_COUNT + 1);
+
+	/** Ring buffers of recent frame end times and durations. */
+	private final long[] frameEnds = new long[FRAME_HISTORY];
+	private final long[] frameDurations = new long[FRAME_HISTORY];
+
+	private long frameCount;
+	private long frameStart;
+	private long totalFrameNanos;
+	private long maxFrameNanos;
+
+	/**
+	 * Create a disabled profiler.
+	 *
+	 * @param owner the profiled component, repainted when the overlay is
+	 *              toggled; may be {@code null}
+	 */
+	public PaintProfiler(Component owner) {
+		this.owner = owner;
+	}
+
+	// -----------------------------------------------------------------------
+	// State
+	// -----------------------------------------------------------------------
+
+	/** @return {@code true} if timings are being recorded */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Start or stop recording. Disabling also hides the overlay; collected
+	 * statistics are kept until {@link #reset()}.
+	 *
+	 * @param enabled {@code true} to record timings
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled) {
+			overlayVisible = false;
+		}
+		repaintOwner();
+	}
+
+	/** @return {@code true} if the overlay is drawn on the owning component */
+	public boolean isOverlayVisible() {
+		return overlayVisible;
+	}
+
+	/**
+	 * Show or hide the overlay. Showing it enables recording.
+	 *
+	 * @param visible {@code true} to draw the overlay
+	 */
+	public void setOverlayVisible(boolean visible) {
+		overlayVisible = visible;
+		if (visible) {
+			enabled = true;
+		}
+		repaintOwner();
+	}
+
+	/** Discard all collected statistics. */
+	public synchronized void reset() {
+		sections.clear();
+		slowest.clear();
+		frameCount = 0;
+		totalFrameNanos = 0;
+		maxFrameNanos = 0;
+		frameStart = 0;
+	}
+
+	private void repaintOwner() {
+		if (owner != null) {
+			owner.repaint();
+		}
+	}
+
+	// -----------------------------------------------------------------------
+	// Recording
+	// -----------------------------------------------------------------------
+
+	/**
+	 * Return a start timestamp for {@link #section} or {@link #item}.
+	 *
+	 * @return {@link System#nanoTime()}, or {@code 0} when disabled
+	 */
+	public long start() {
+		return enabled ? System.nanoTime() : 0L;
+	}
+
+	/** Mark the start of a frame (a {@code paintComponent} call). */
+	public void beginFrame() {
+		if (enabled) {
+			long now = System.nanoTime();
+			synchronized (this) {
+				frameStart = now;
+			}
+		}
+	}
+
+	/** Mark the end of the frame begun by {@link #beginFrame()}. */
+	public void endFrame() {
+		if (!enabled) {
+			return;
+		}
+		long now = System.nanoTime();
+		synchronized (this) {
+			if (frameStart == 0) {
+				return;
+			}
+			long d = now - frameStart;
+			int slot = (int) (frameCount % FRAME_HISTORY);
+			frameEnds[slot] = now;
+			frameDurations[slot] = d;
+			frameCount++;
+			totalFrameNanos += d;
+			maxFrameNanos = Math.max(maxFrameNanos, d);
+			frameStart = 0;
+		}
+	}
+
+	/**
+	 * Record the time since {@code start} under a section name.
+	 *
+	 * @param name  section name
+	 * @param start value returned by {@link #start()}; {@code 0} is ignored
+	 */
+	public void section(String name, long start) {
+		if (start == 0L) {
+			return;
+		}
+		long d = System.nanoTime() - start;
+		synchronized (this) {
+			Section s = sections.computeIfAbsent(name, k -> new Section());
+			s.count++;
+			s.total += d;
+			s.max = Math.max(s.max, d);
+			s.last = d;
+		}
+	}
+
+	/**
+	 * Record the time since {@code start} as one item draw, kept if it is
+	 * among the {@value #SLOWEST_COUNT} slowest seen.
+	 *
+	 * @param label item description; a supplier avoids building it for fast
+	 *              items
+	 * @param start value returned by {@link #start()}; {@code 0} is ignored
+	 */
+	public void item(Supplier<String> label, long start) {
+		if (start == 0L) {
+			return;
+		}
+		double ms = millis(System.nanoTime() - start);
+		synchronized (this) {
+			if (slowest.size() == SLOWEST_COUNT && ms <= slowest.get(SLOWEST_COUNT - 1).millis()) {
+				return;
+			}
+			slowest.add(new ItemTiming(label.get(), ms, frameCount));
+			slowest.sort(Comparator.comparingDouble(ItemTiming::millis).reversed());
+			if (slowest.size() > SLOWEST_COUNT) {
+				slowest.remove(SLOWEST_COUNT);
+			}
+		}
+	}
+
+	// -----------------------------------------------------------------------
+	// Statistics
+	// -----------------------------------------------------------------------
+
+	/** @return frames recorded since the last reset */
+	public synchronized long getFrameCount() {
+		return frameCount;
+	}
+
+	/** @return frames that finished within the last second */
+	public synchronized double getFramesPerSecond() {
+		return recentFrames(System.nanoTime(), false);
+	}
+
+	/** @return fraction of the last second the EDT spent painting, 0..1 */
+	public synchronized double getBusyFraction() {
+		return Math.min(1.0, recentFrames(System.nanoTime(), true) / (double) WINDOW_NANOS);
+	}
+
+	/** @return total EDT time spent painting since the last reset, in ms */
+	public synchronized double getBlockedMillis() {
+		return millis(totalFrameNanos);
+	}
+
+	/** @return mean frame time, in milliseconds */
+	public synchronized double getMeanFrameMillis() {
+		return frameCount == 0 ? 0 : millis(totalFrameNanos) / frameCount;
+	}
+
+	/** @return longest frame time, in milliseconds */
+	public synchronized double getMaxFrameMillis() {
+		return millis(maxFrameNanos);
+	}
+
+	/** @return most recent frame time, in milliseconds */
+	public synchronized double getLastFrameMillis() {
+		return frameCount == 0 ? 0 : millis(frameDurations[(int) ((frameCount - 1) % FRAME_HISTORY)]);
+	}
+
+	/** @return section statistics, slowest total first */
+	public synchronized List<SectionStats> getSections() {
+		List<SectionStats> list = new ArrayList<>(sections.size());
+		for (Map.Entry<String, Section> e : sections.entrySet()) {
+			Section s = e.getValue();
+			list.add(new SectionStats(e.getKey(), s.count, millis(s.total), millis(s.max), millis(s.last)));
+		}
+		list.sort(Comparator.comparingDouble(SectionStats::totalMillis).reversed());
+		return list;
+	}
+
+	/** @return the slowest item draws, slowest first */
+	public synchronized List<ItemTiming> getSlowestItems() {
+		return List.copyOf(slowest);
+	}
+
+	/**
+	 * Count the frames that ended within the last {@link #WINDOW_NANOS}, or
+	 * sum their durations.
+	 */
+	private long recentFrames(long now, boolean sumDurations) {
+		long result = 0;
+		int n = (int) Math.min(frameCount, FRAME_HISTORY);
+		for (int i = 1; i <= n; i++) {
+			int slot = (int) ((frameCount - i) % FRAME_HISTORY);
+			if (now - frameEnds[slot] > WINDOW_NANOS) {
+				break;
+			}
+			result += sumDurations ? frameDurations[slot] : 1;
+		}
+		return result;
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1.0e6;
+	}
+
+	// -----------------------------------------------------------------------
+	// Export
+	// -----------------------------------------------------------------------
+
+	/**
+	 * Write the statistics as CSV with columns
+	 * {@code kind,name,count,total_ms,mean_ms,max_ms,last_ms}. One
+	 * {@code frame} row is followed by one {@code section} row per section and
+	 * one {@code item} row per slow item.
+	 *
+	 * @param out destination; not closed
+	 * @throws IOException if writing fails
+	 */
+	public synchronized void writeCsv(Writer out) throws IOException {
+		out.write("kind,name,count,total_ms,mean_ms,max_ms,last_ms\n");
+		out.write(String.format(Locale.US, "frame,%s,%d,%.4f,%.4f,%.4f,%.4f%n", csv(ownerName()), frameCount,
+				getBlockedMillis(), getMeanFrameMillis(), getMaxFrameMillis(), getLastFrameMillis()));
+		for (SectionStats s : getSections()) {
+			out.write(String.format(Locale.US, "section,%s,%d,%.4f,%.4f,%.4f,%.4f%n", csv(s.name()), s.count(),
+					s.totalMillis(), s.meanMillis(), s.maxMillis(), s.lastMillis()));
+		}
+		for (ItemTiming t : slowest) {
+			out.write(String.format(Locale.US, "item,%s,1,%.4f,%.4f,%.4f,%.4f%n", csv(t.label()), t.millis(),
+					t.millis(), t.millis(), t.millis()));
+		}
+		out.flush();
+	}
+
+	/**
+	 * Write the statistics as a JSON object with {@code frames},
+	 * {@code sections} and {@code slowestItems} members.
+	 *
+	 * @param out destination; not closed
+	 * @throws IOException if writing fails
+	 */
+	public synchronized void writeJson(Writer out) throws IOException {
+		JsonWriter w = new JsonWriter(out);
+		w.setIndent("  ");
+		w.beginObject();
+		w.name("component").value(ownerName());
+		w.name("frames").beginObject();
+		w.name("count").value(frameCount);
+		w.name("framesPerSecond").value(getFramesPerSecond());
+		w.name("busyFraction").value(getBusyFraction());
+		w.name("blockedMillis").value(getBlockedMillis());
+		w.name("meanMillis").value(getMeanFrameMillis());
+		w.name("maxMillis").value(getMaxFrameMillis());
+		w.name("lastMillis").value(getLastFrameMillis());
+		w.endObject();
+		w.name("sections").beginArray();
+		for (SectionStats s : getSections()) {
+			w.beginObject();
+			w.name("name").value(s.name());
+			w.name("count").value(s.count());
+			w.name("totalMillis").value(s.totalMillis());
+			w.name("meanMillis").value(s.meanMillis());
+			w.name("maxMillis").value(s.maxMillis());
+			w.name("lastMillis").value(s.lastMillis());
+			w.endObject();
+		}
+		w.endArray();
+		w.name("slowestItems").beginArray();
+		for (ItemTiming t : slowest) {
+			w.beginObject();
+			w.name("label").value(t.label());
+			w.name("millis").value(t.millis());
+			w.name("frame").value(t.frame());
+			w.endObject();
+		}
+		w.endArray();
+		w.endObject();
+		w.flush();
+	}
+
+	/**
+	 * Export to a file, as JSON if its name ends in {@code .json} and as CSV
+	 * otherwise.
+	 *
+	 * @param file destination file
+	 * @throws IOException if writing fails
+	 */
+	public void export(File file) throws IOException {
+		try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			if (file.getName().toLowerCase(Locale.ROOT).endsWith(".json")) {
+				writeJson(out);
+			} else {
+				writeCsv(out);
+			}
+		}
+	}
+
+	private String ownerName() {
+		if (owner == null) {
+			return "";
+		}
+		String name = owner.getName();
+		return (name != null) ? name : owner.getClass().getSimpleName();
+	}
+
+	private static String csv(String s) {
+		if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) {
+			return s;
+		}
+		return '"' + s.replace("\"", "\"\"") + '"';
+	}
+
+	// -----------------------------------------------------------------------
+	// Overlay
+	// -----------------------------------------------------------------------
+
+	/**
+	 * Draw the summary overlay in the top-left corner if it is visible.
+	 * Called by the owning component at the end of its paint.
+	 *
+	 * @param g2 the component's graphics context
+	 */
+	public void drawOverlay(Graphics2D g2) {
+		if (!overlayVisible) {
+			return;
+		}
+
+		List<String> lines = new ArrayList<>();
+		synchronized (this) {
+			lines.add(String.format(Locale.US, "%.1f fps   frame %.2f ms (mean %.2f, max %.2f)", getFramesPerSecond(),
+					getLastFrameMillis(), getMeanFrameMillis(), getMaxFrameMillis()));
+			lines.add(String.format(Locale.US, "EDT painting %.0f%% of last second, %.0f ms total",
+					100 * getBusyFraction(), getBlockedMillis()));
+			List<SectionStats> secs = getSections();
+			for (int i = 0; i < Math.min(OVERLAY_SECTIONS, secs.size()); i++) {
+				SectionStats s = secs.get(i);
+				lines.add(String.format(Locale.US, "  %-24.24s %7.2f ms  (max %.2f)", s.name(), s.lastMillis(),
+						s.maxMillis()));
+			}
+			if (!slowest.isEmpty()) {
+				ItemTiming t = slowest.get(0);
+				lines.add(String.format(Locale.US, "slowest item: %s %.2f ms", t.label(), t.millis()));
+			}
+		}
+
+		Font oldFont = g2.getFont();
+		Composite oldComposite = g2.getComposite();
+		g2.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+		FontMetrics fm = g2.getFontMetrics();
+		int w = 0;
+		for (String s : lines) {
+			w = Math.max(w, fm.stringWidth(s));
+		}
+		int lh = fm.getHeight();
+		int x = 4;
+		int y = 4;
+
+		g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.75f));
+		g2.setColor(Color.black);
+		g2.fillRect(x, y, w + 8, lines.size() * lh + 6);
+		g2.setComposite(oldComposite);
+		g2.setColor(Color.green);
+		for (int i = 0; i < lines.size(); i++) {
+			g2.drawString(lines.get(i), x + 4, y + 3 + fm.getAscent() + i * lh);
+		}
+		g2.setFont(oldFont);
+	}
+
+	// -----------------------------------------------------------------------
+	// Menu
+	// -----------------------------------------------------------------------
+
+	/**
+	 * Create a "Paint Profiler" menu with an overlay toggle, a reset item and
+	 * an export item.
+	 *
+	 * @param parent   component used to position dialogs
+	 * @param profiler supplies the profiler to act on when an item is chosen,
+	 *                 so the menu follows components that are replaced
+	 * @return the menu
+	 */
+	public static JMenu createMenu(Component parent, Supplier<PaintProfiler> profiler) {
+		JMenu menu = new JMenu("Paint Profiler");
+
+		JCheckBoxMenuItem overlay = new JCheckBoxMenuItem("Show Overlay");
+		overlay.addActionListener(e -> {
+			PaintProfiler p = profiler.get();
+			if (p != null) {
+				p.setOverlayVisible(overlay.isSelected());
+			}
+		});
+		menu.addMenuListener(new MenuListener() {
+			@Override
+			public void menuSelected(MenuEvent e) {
+				PaintProfiler p = profiler.get();
+				overlay.setSelected(p != null && p.isOverlayVisible());
+			}
+
+			@Override
+			public void menuDeselected(MenuEvent e) {
+			}
+
+			@Override
+			public void menuCanceled(MenuEvent e) {
+			}
+		});
+		menu.add(overlay);
+
+		JMenuItem reset = new JMenuItem("Reset");
+		reset.addActionListener(e -> {
+			PaintProfiler p = profiler.get();
+			if (p != null) {
+				p.reset();
+				p.repaintOwner();
+			}
+		});
+		menu.add(reset);
+
+		JMenuItem export = new JMenuItem("Export…");
+		export.addActionListener(e -> {
+			PaintProfiler p = profiler.get();
+			if (p != null) {
+				exportWithDialog(parent, p);
+			}
+		});
+		menu.add(export);
+		return menu;
+	}
+
+	private static void exportWithDialog(Component parent, PaintProfiler p) {
+		JFileChooser chooser = new JFileChooser(Environment.getInstance().getHomeDirectory());
+		FileNameExtensionFilter csvFilter = new FileNameExtensionFilter("CSV File", "csv");
+		chooser.addChoosableFileFilter(csvFilter);
+		chooser.addChoosableFileFilter(new FileNameExtensionFilter("JSON File", "json"));
+		chooser.setFileFilter(csvFilter);
+
+		Window owner = (parent == null) ? null : SwingUtilities.getWindowAncestor(parent);
+		if (chooser.showSaveDialog(owner) != JFileChooser.APPROVE_OPTION || chooser.getSelectedFile() == null) {
+			return;
+		}
+
+		File file = chooser.getSelectedFile();
+		String lower = file.getName().toLowerCase(Locale.ROOT);
+		if (!lower.endsWith(".csv") && !lower.endsWith(".json")) {
+			String ext = (chooser.getFileFilter() instanceof FileNameExtensionFilter f) ? f.getExtensions()[0] : "csv";
+			file = new File(file.getParentFile(), file.getName() + "." + ext);
+		}
+
+		try {
+			p.export(file);
+			Log.getInstance().info("Paint profile written to " + file.getAbsolutePath());
+		} catch (IOException ex) {
+			Log.getInstance().error("Could not write paint profile: " + ex.getMessage());
+			JOptionPane.showMessageDialog(owner, ex.getMessage(), "Export Failed", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+}
@@ -1,8 +1,12 @@
 package edu.cnu.mdi.graphics.connection;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -26,6 +30,22 @@ import edu.cnu.mdi.item.Layer;
  * Duplicate connections are prevented: at most one connector may exist between
  * two endpoint items (in either direction).
  * </p>
+ *
+ * <h2>Indexes</h2>
+ * <p>
+ * Besides the set of connectors, the manager keeps an identity map from each
+ * endpoint item to its connectors and a map from each unordered endpoint pair
+ * to its connector. {@link #hasConnection}, {@link #getConnectedItems},
+ * {@link #getConnectors(AItem)} and the clean-up after an endpoint is deleted
+ * therefore cost O(connectors of the item) rather than O(all connectors).
+ * When an endpoint is moved, resized, rotated or modified, only its own
+ * connectors are marked dirty.
+ * </p>
+ *
+ * <p>
+ * All methods are thread-safe. Connectors are removed from their layers
+ * outside the manager's monitor, so layer events cannot deadlock with it.
+ * </p>
  */
 public class ConnectionManager implements ItemChangeListener {
 
@@ -35,6 +55,12 @@ public class ConnectionManager implements ItemChangeListener {
 	/** All known connectors currently present in any observed list(s). */
 	private final Set<ConnectorItem> connectors = new HashSet<>();
 
+	/** Connectors by endpoint item. */
+	private final Map<AItem, Set<ConnectorItem>> byEndpoint = new IdentityHashMap<>();
+
+	/** Connector by unordered endpoint pair. */
+	private final Map<EndpointPair, ConnectorItem> byPair = new HashMap<>();
+
 	// singleton constructor
 	private ConnectionManager() {
 		// private singleton constructor
@@ -109,7 +135,7 @@ public class ConnectionManager implements ItemChangeListener {
 		layer.addItemChangeListener(instance);
 		item1.getLayer().addItemChangeListener(instance);
 		item2.getLayer().addItemChangeListener(instance);
-		connectors.add(ci);
+		register(ci);
 		return ci;
 	}
 
@@ -117,26 +143,31 @@ public class ConnectionManager implements ItemChangeListener {
 	 * Check whether a connection already exists between the two items. (Direction
 	 * does not matter.)
 	 */
-	public boolean hasConnection(AItem item1, AItem item2) {
+	public synchronized boolean hasConnection(AItem item1, AItem item2) {
 		if (item1 == null || item2 == null) {
 			return false;
 		}
-
-		for (ConnectorItem c : connectors) {
-			if (connects(c, item1, item2)) {
-				return true;
-			}
-		}
-		return false;
+		return byPair.containsKey(new EndpointPair(item1, item2));
 	}
 
 	/**
 	 * @return an unmodifiable snapshot of known connectors.
 	 */
-	public Set<ConnectorItem> getConnectors() {
+	public synchronized Set<ConnectorItem> getConnectors() {
 		return Collections.unmodifiableSet(new HashSet<>(connectors));
 	}
 
+	/**
+	 * Get the connectors that have the given item as an endpoint.
+	 *
+	 * @param item the endpoint item
+	 * @return a snapshot of the attached connectors (empty if none)
+	 */
+	public synchronized List<ConnectorItem> getConnectors(AItem item) {
+		Set<ConnectorItem> attached = (item == null) ? null : byEndpoint.get(item);
+		return (attached == null) ? Collections.emptyList() : new ArrayList<>(attached);
+	}
+
 	/**
 	 * Drawable list change callback.
 	 */
@@ -150,14 +181,14 @@ public class ConnectionManager implements ItemChangeListener {
 		switch (type) {
 		case ADDED:
 			if (item instanceof ConnectorItem) {
-				connectors.add((ConnectorItem) item);
+				register((ConnectorItem) item);
 			}
 			break;
 
 		case DELETED:
 			// If a connector was removed, drop it from our cache.
 			if (item instanceof ConnectorItem) {
-				connectors.remove(item);
+				unregister((ConnectorItem) item);
 				break;
 			}
 
@@ -167,6 +198,16 @@ public class ConnectionManager implements ItemChangeListener {
 			}
 			break;
 
+		case MOVED:
+		case RESIZED:
+		case ROTATED:
+		case MODIFIED:
+			// only this endpoint's connectors need redrawing
+			for (ConnectorItem c : getConnectors(item)) {
+				c.setDirty(true);
+			}
+			break;
+
 		default:
 			// ignore other changes
 			break;
@@ -177,25 +218,59 @@ public class ConnectionManager implements ItemChangeListener {
 	// Internals
 	// ------------------------------------------------------------------------
 
-	private void removeConnectionsForEndpoint(AItem endpoint) {
-		if (endpoint == null) {
+	/**
+	 * Add a connector to the set and both indexes. Idempotent: the ADDED event
+	 * may arrive from inside the connector's constructor, before its endpoints
+	 * are set, so {@link #connect} registers it again afterwards.
+	 */
+	private synchronized void register(ConnectorItem c) {
+		connectors.add(c);
+		AItem a = safeStart(c);
+		AItem b = safeEnd(c);
+		if (a == null || b == null) {
 			return;
 		}
+		byEndpoint.computeIfAbsent(a, k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(c);
+		byEndpoint.computeIfAbsent(b, k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(c);
+		byPair.put(new EndpointPair(a, b), c);
+	}
 
-		for (Iterator<ConnectorItem> it = connectors.iterator(); it.hasNext();) {
-			ConnectorItem c = it.next();
+	/** Remove a connector from the set and both indexes. */
+	private synchronized void unregister(ConnectorItem c) {
+		if (!connectors.remove(c)) {
+			return;
+		}
+		AItem a = safeStart(c);
+		AItem b = safeEnd(c);
+		unlink(a, c);
+		unlink(b, c);
+		if (a != null && b != null) {
+			byPair.remove(new EndpointPair(a, b), c);
+		}
+	}
 
-			AItem a = safeStart(c);
-			AItem b = safeEnd(c);
+	private void unlink(AItem endpoint, ConnectorItem c) {
+		Set<ConnectorItem> attached = (endpoint == null) ? null : byEndpoint.get(endpoint);
+		if (attached != null && attached.remove(c) && attached.isEmpty()) {
+			byEndpoint.remove(endpoint);
+		}
+	}
 
-			if (a == endpoint || b == endpoint) {
-				it.remove();
+	private void removeConnectionsForEndpoint(AItem endpoint) {
+		if (endpoint == null) {
+			return;
+		}
 
-				// Remove the connector item from its layer, if it still has one.
-				Layer layer = c.getLayer();
-				if (layer != null) {
-					layer.remove(c);
-				}
+		List<ConnectorItem> attached = getConnectors(endpoint);
+		for (ConnectorItem c : attached) {
+			unregister(c);
+		}
+
+		// Remove the connector items from their layers, outside our monitor.
+		for (ConnectorItem c : attached) {
+			Layer layer = c.getLayer();
+			if (layer != null) {
+				layer.remove(c);
 			}
 		}
 	}
@@ -215,14 +290,15 @@ public class ConnectionManager implements ItemChangeListener {
 	 * @param item the endpoint item
 	 * @return an unmodifiable set of connected items (empty if none)
 	 */
-	public Set<AItem> getConnectedItems(AItem item) {
-		if (item == null) {
+	public synchronized Set<AItem> getConnectedItems(AItem item) {
+		Set<ConnectorItem> attached = (item == null) ? null : byEndpoint.get(item);
+		if (attached == null) {
 			return Collections.emptySet();
 		}
 
 		Set<AItem> results = new HashSet<>();
 
-		for (ConnectorItem c : connectors) {
+		for (ConnectorItem c : attached) {
 			AItem a = safeStart(c);
 			AItem b = safeEnd(c);
 
@@ -236,15 +312,20 @@ public class ConnectionManager implements ItemChangeListener {
 		return Collections.unmodifiableSet(results);
 	}
 
-	// Check whether connector c connects the two given items (either direction).
-	private static boolean connects(ConnectorItem c, AItem i1, AItem i2) {
-		AItem a = safeStart(c);
-		AItem b = safeEnd(c);
-		if (a == null || b == null) {
-			return false;
+	/** Unordered pair of endpoint items, compared by identity. */
+	private record EndpointPair(AItem first, AItem second) {
+
+		@Override
+		public boolean equals(Object o) {
+			return (o instanceof EndpointPair p)
+					&& ((first == p.first && second == p.second) || (first == p.second && second == p.first));
 		}
 
-		return (a == i1 && b == i2) || (a == i2 && b == i1);
+		@Override
+		public int hashCode() {
+			// symmetric in the two endpoints
+			return System.identityHashCode(first) ^ System.identityHashCode(second);
+		}
 	}
 
 	/**
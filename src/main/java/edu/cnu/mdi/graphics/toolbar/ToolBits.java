@@ -1,7 +1,9 @@
 package edu.cnu.mdi.graphics.toolbar;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import edu.cnu.mdi.util.Environment;
@@ -276,6 +278,23 @@ public final class ToolBits {
 		return (rel == null) ? null : (Environment.MDI_RESOURCE_PATH + rel);
 	}
 
+	/**
+	 * Get the full resource paths of all predefined button icons, for example
+	 * to prefetch them with {@link edu.cnu.mdi.graphics.ImageManager#prefetchUiIcons}.
+	 *
+	 * @return the icon resource paths
+	 */
+	public static List<String> getResourcePaths() {
+		List<String> paths = new ArrayList<>();
+		for (long bit : BUTTON_ICON_MAP.keySet()) {
+			String path = getResourcePath(bit);
+			if (path != null) {
+				paths.add(path);
+			}
+		}
+		return paths;
+	}
+
 	/**
 	 * Get the tooltip string for a predefined button bit.
 	 *
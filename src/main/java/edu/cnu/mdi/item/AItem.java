@@ -22,6 +22,7 @@ import javax.swing.JPopupMenu;
 import edu.cnu.mdi.container.IContainer;
 import edu.cnu.mdi.feedback.IFeedbackProvider;
 import edu.cnu.mdi.graphics.ImageManager;
+import edu.cnu.mdi.graphics.connection.ConnectionManager;
 import edu.cnu.mdi.graphics.drawable.IDrawable;
 import edu.cnu.mdi.graphics.style.IStyled;
 import edu.cnu.mdi.graphics.style.Styled;
@@ -231,9 +232,17 @@ public abstract class AItem implements IDrawable, IFeedbackProvider {
     /**
      * Whether the item's cached rendering data is stale.
      * Setting this to {@code true} also clears {@link #_lastDrawnPolygon}.
+     * A layer-wide {@link Layer#setDirty(boolean)} does not set it; see
+     * {@link #isDirty()}.
      */
     protected boolean _dirty        = true;
 
+    /**
+     * The layer's dirty epoch when this item was last cleaned; see
+     * {@link #isDirty()}.
+     */
+    private long _cleanEpoch;
+
     // -----------------------------------------------------------------------
     // State
     // -----------------------------------------------------------------------
@@ -245,6 +254,16 @@ public abstract class AItem implements IDrawable, IFeedbackProvider {
      */
     protected Polygon _lastDrawnPolygon;
 
+    /**
+     * The screen region this item covered when it was last drawn (see
+     * {@link #getFootprint}); {@code null} if not yet drawn. Used by
+     * {@link #repaint()} to clear the old position.
+     */
+    protected Rectangle _lastDrawnFootprint;
+
+    /** Pixels added around an item's bounds by {@link #getFootprint}. */
+    public static final int FOOTPRINT_PAD = 16;
+
     /** Active modification during a drag/resize/rotate gesture. */
     protected ItemModification _modification;
 
@@ -400,22 +419,35 @@ public abstract class AItem implements IDrawable, IFeedbackProvider {
     public void draw(Graphics2D g2, IContainer container) {
         if (!_visible) return;
 
-        if (shouldDraw(g2, container)) {
-            Shape oldClip = g2.getClip();
-            BaseView bview = container.getView();
-            if (bview != null) {
-                Shape clip = bview.getSpecialClip();
-                if (clip != null) g2.setClip(clip);
-            }
+        drawContent(g2, container);
+        drawSelections(g2, container);
+    }
 
-            Stroke oldStroke = g2.getStroke();
-            drawItem(g2, container);
-            setDirty(false);
-            g2.setStroke(oldStroke);
-            g2.setClip(oldClip);
+    /**
+     * Draw this item without its selection handles: steps 1–4 of
+     * {@link #draw}. Asynchronous and tiled container rendering call this on
+     * the EDT with a recording graphics, rasterize the recording elsewhere,
+     * and draw the handles on the EDT.
+     *
+     * @param g2        the graphics context
+     * @param container the container being rendered
+     */
+    public void drawContent(Graphics2D g2, IContainer container) {
+        if (!_visible || !shouldDraw(g2, container)) return;
+
+        Shape oldClip = g2.getClip();
+        BaseView bview = container.getView();
+        if (bview != null) {
+            Shape clip = bview.getSpecialClip();
+            if (clip != null) g2.setClip(clip);
         }
 
-        drawSelections(g2, container);
+        Stroke oldStroke = g2.getStroke();
+        drawItem(g2, container);
+        setDirty(false);
+        _lastDrawnFootprint = getFootprint(container);
+        g2.setStroke(oldStroke);
+        g2.setClip(oldClip);
     }
 
     // -----------------------------------------------------------------------
@@ -532,8 +564,9 @@ public abstract class AItem implements IDrawable, IFeedbackProvider {
      * @return {@code true} if the item contains {@code screenPoint}
      */
     public boolean contains(IContainer container, Point screenPoint) {
-        if (_lastDrawnPolygon != null) {
-            if (_lastDrawnPolygon.contains(screenPoint)) return true;
+        Polygon drawn = getLastDrawnPolygon();
+        if (drawn != null) {
+            if (drawn.contains(screenPoint)) return true;
         } else {
             Rectangle r = getBounds(container);
             if (r != null && r.contains(screenPoint)) return true;
@@ -613,8 +646,9 @@ public abstract class AItem implements IDrawable, IFeedbackProvider {
      * @return {@code true} if {@code r} completely contains this item
      */
     public boolean enclosed(IContainer container, Rectangle r) {
-        if (_lastDrawnPolygon != null) {
-            return r.contains(_lastDrawnPolygon.getBounds());
+        Polygon drawn = getLastDrawnPolygon();
+        if (drawn != null) {
+            return r.contains(drawn.getBounds());
         }
         Rectangle myBounds = getBounds(container);
         return myBounds != null && r.contains(myBounds);
@@ -653,11 +687,11 @@ public abstract class AItem implements IDrawable, IFeedbackProvider {
      * @return array of handle points, or {@code null} if bounds are unavailable
      */
     public Point[] getSelectionPoints(IContainer container) {
-        if (_lastDrawnPolygon != null && _lastDrawnPolygon.npoints > 1) {
-            Point[] pp = new Point[_lastDrawnPolygon.npoints];
-            for (int i = 0; i < _lastDrawnPolygon.npoints; i++) {
-                pp[i] = new Point(_lastDrawnPolygon.xpoints[i],
-                                  _lastDrawnPolygon.ypoints[i]);
+        Polygon drawn = getLastDrawnPolygon();
+        if (drawn != null && drawn.npoints > 1) {
+            Point[] pp = new Point[drawn.npoints];
+            for (int i = 0; i < drawn.npoints; i++) {
+                pp[i] = new Point(drawn.xpoints[i], drawn.ypoints[i]);
             }
             return pp;
         }
@@ -682,8 +716,113 @@ public abstract class AItem implements IDrawable, IFeedbackProvider {
      */
     public Point getRotatePoint(IContainer container) { return null; }
 
-    /** @return the last drawn polygon, or {@code null} */
-    public Polygon getLastDrawnPolygon() { return _lastDrawnPolygon; }
+    /**
+     * Return how many pixels this item may paint outside its world bounds,
+     * not counting selection and rotation handles: by default half its line
+     * width plus one for antialiasing. Items that draw fixed-size decorations
+     * around their geometry, such as labels, markers or icons, override this.
+     * A layer culls and picks an item by its world bounds only while this is
+     * at most {@link Layer#QUERY_SLOP}; a larger margin keeps the item out of
+     * the spatial index so it is tested on every query. A change to the
+     * margin must be reported through {@link #geometryChanged()}.
+     *
+     * @return the margin in pixels
+     */
+    public int getScreenMargin() {
+        return (int) Math.ceil(getStyleSafe().getLineWidth() / 2f) + 1;
+    }
+
+    /**
+     * Return the screen region this item paints into: its screen bounds (or
+     * projected world bounds), plus its selection and rotation handles when
+     * selected, grown by {@link #FOOTPRINT_PAD} pixels or the item's
+     * {@link #getScreenMargin() screen margin}, whichever is larger.
+     *
+     * @param container the container rendering this item
+     * @return the region in pixels, or {@code null} if it cannot be determined
+     */
+    public Rectangle getFootprint(IContainer container) {
+        Rectangle r = getBounds(container);
+        if (r == null) {
+            Rectangle2D.Double wr = getWorldBounds();
+            if (wr == null) return null;
+            r = new Rectangle();
+            container.worldToLocal(r, wr);
+        } else {
+            r = new Rectangle(r);
+        }
+
+        if (_selected) {
+            Point[] handles = getSelectionPoints(container);
+            if (handles != null) {
+                for (Point p : handles) r.add(p);
+            }
+            Point rp = getRotatePoint(container);
+            if (rp != null) r.add(rp);
+        }
+
+        int pad = Math.max(FOOTPRINT_PAD, getScreenMargin());
+        r.grow(pad, pad);
+        return r;
+    }
+
+    /**
+     * Repaint only the part of the container this item affects: the union of
+     * its footprint when last drawn and its footprint now, plus those of the
+     * connectors attached to it. Falls back to a full
+     * {@link IContainer#refresh()} when a footprint cannot be determined.
+     * Call this instead of {@code refresh()} after changing one item.
+     */
+    public void repaint() {
+        IContainer container = getContainer();
+        if (container == null) return;
+
+        Rectangle region = repaintRegion(container);
+        if (region == null) {
+            container.refresh();
+            return;
+        }
+        if (isConnectable()) {
+            for (ConnectorItem connector : ConnectionManager.getInstance().getConnectors(this)) {
+                Rectangle r = connector.repaintRegion(container);
+                if (r == null) {
+                    container.refresh();
+                    return;
+                }
+                region.add(r);
+            }
+        }
+        container.refresh(region);
+    }
+
+    /**
+     * Union of the last drawn and current footprints, or {@code null} if
+     * unknown. An item that is hidden now only needs its old region cleared.
+     */
+    Rectangle repaintRegion(IContainer container) {
+        Rectangle old = _lastDrawnFootprint;
+        Rectangle now = _visible ? getFootprint(container) : null;
+        if (now == null) {
+            return _visible ? null : (old == null ? new Rectangle() : new Rectangle(old));
+        }
+        if (old != null) now.add(old);
+        return now;
+    }
+
+    /**
+     * @return the last drawn polygon, or {@code null} if the item was not
+     *         drawn since it was marked dirty
+     */
+    public Polygon getLastDrawnPolygon() { return wholeLayerDirtied() ? null : _lastDrawnPolygon; }
+
+    /**
+     * @return a copy of the region this item covered when it was last drawn,
+     *         or {@code null} if it has not been drawn
+     */
+    public Rectangle getLastDrawnFootprint() {
+        Rectangle r = _lastDrawnFootprint;
+        return (r == null) ? null : new Rectangle(r);
+    }
 
     /** @return the world-coordinate path, or {@code null} */
     public Path2D.Double getPath() { return _path; }
@@ -735,11 +874,29 @@ public abstract class AItem implements IDrawable, IFeedbackProvider {
 
     /**
      * Notify the item that its geometry has changed.
-     * Recomputes the focus and marks the item dirty.
+     * Recomputes the focus, marks the item dirty, and tells the layer's
+     * spatial index to re-read {@link #getWorldBounds()}.
      */
     public void geometryChanged() {
         updateFocus();
         setDirty(true);
+        if (_layer != null) {
+            _layer.itemGeometryChanged(this);
+        }
+    }
+
+    /**
+     * Return {@code true} if the layer may index this item by
+     * {@link #getWorldBounds()} for hit-testing and enclosure. That requires
+     * the bounds to be in container world coordinates and every change to
+     * them to be reported through {@link #geometryChanged()}. Items that
+     * cannot promise this override this method to return {@code false}; they
+     * are then tested on every query.
+     *
+     * @return {@code true} by default
+     */
+    public boolean isSpatiallyIndexable() {
+        return true;
     }
 
     // -----------------------------------------------------------------------
@@ -853,7 +1010,10 @@ public abstract class AItem implements IDrawable, IFeedbackProvider {
     @Override public boolean isVisible() { return _visible; }
 
     /** @param visible {@code true} to make the item visible */
-    @Override public void setVisible(boolean visible) { _visible = visible; }
+    @Override public void setVisible(boolean visible) {
+        if (visible != _visible && _layer != null) _layer.itemDirtied(this);
+        _visible = visible;
+    }
 
     /**
      * Return {@code true} if this item can be dragged.
@@ -941,8 +1101,9 @@ public abstract class AItem implements IDrawable, IFeedbackProvider {
      * @param selected {@code true} to select the item
      */
     public void setSelected(boolean selected) {
+        if (selected != _selected && _layer != null) _layer.itemDirtied(this);
         _selected = selected;
-        _layer.getContainer().refresh();
+        repaint();
     }
 
     /** @return {@code true} if this item is enabled */
@@ -951,21 +1112,40 @@ public abstract class AItem implements IDrawable, IFeedbackProvider {
     public void setEnabled(boolean enabled) { _enabled = enabled; }
 
     /**
-     * Return {@code true} if this item's cached rendering data is stale.
+     * Return {@code true} if this item's cached rendering data is stale: it
+     * was marked dirty, or its whole layer was marked dirty, and it has not
+     * been cleaned since.
      *
      * @return the dirty flag
      */
-    public boolean isDirty()              { return _dirty; }
+    public boolean isDirty() {
+        return _dirty || (_layer != null && _layer.isDirty() && wholeLayerDirtied());
+    }
+
+    /**
+     * Return {@code true} if a layer-wide {@link Layer#setDirty(boolean)
+     * setDirty(true)} came after this item was last cleaned, even if the
+     * layer has been cleaned since without drawing the item.
+     */
+    private boolean wholeLayerDirtied() {
+        return _layer != null && _layer.getDirtyEpoch() != _cleanEpoch;
+    }
 
     /**
      * Set the dirty flag.  Setting to {@code true} also clears
-     * {@link #_lastDrawnPolygon}.
+     * {@link #_lastDrawnPolygon}; setting to {@code false} also cleans the
+     * item of a layer-wide {@link Layer#setDirty(boolean)}.
      *
      * @param dirty new dirty state
      */
     public void setDirty(boolean dirty) {
         _dirty = dirty;
-        if (dirty) _lastDrawnPolygon = null;
+        if (dirty) {
+            _lastDrawnPolygon = null;
+            if (_layer != null) _layer.itemDirtied(this);
+        } else {
+            _cleanEpoch = (_layer != null) ? _layer.getDirtyEpoch() : 0L;
+        }
     }
 
     // -----------------------------------------------------------------------
@@ -162,6 +162,17 @@ public class ConnectorItem extends PolylineItem {
     // Bounds
     // -----------------------------------------------------------------------
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>A connector's geometry follows its anchored items without a
+     * {@link #geometryChanged()} call, so it is never spatially indexed.</p>
+     */
+    @Override
+    public boolean isSpatiallyIndexable() {
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -1,6 +1,7 @@
 package edu.cnu.mdi.item;
 
 import java.util.EventListener;
+import java.util.List;
 
 public interface ItemChangeListener extends EventListener {
 	/**
@@ -11,4 +12,19 @@ public interface ItemChangeListener extends EventListener {
 	 * @param type  the type of change.
 	 */
 	public void itemChanged(Layer layer, AItem item, ItemChangeType type);
+
+	/**
+	 * Several items changed the same way during a {@link Layer#beginBatch()
+	 * batch}. The default calls {@link #itemChanged} for each item; listeners
+	 * that can handle a whole batch more cheaply should override it.
+	 *
+	 * @param layer the z layer containing the changed items.
+	 * @param items the items, in the order the changes happened.
+	 * @param type  the type of change.
+	 */
+	public default void itemsChanged(Layer layer, List<AItem> items, ItemChangeType type) {
+		for (AItem item : items) {
+			itemChanged(layer, item, type);
+		}
+	}
 }
@@ -0,0 +1,311 @@
+package edu.cnu.mdi.item;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spatial index over the world bounds of the items on one {@link Layer}, used
+ * to find hit-test and enclosure candidates without visiting every item.
+ *
+ * <h2>Structure</h2>
+ * <p>
+ * A loose quadtree: each node is a square that owns the items whose center
+ * lies inside it and whose half-extent is at most the node's half-size, so an
+ * item lies within the node grown by half its size on every side (the node's
+ * <em>loose</em> bounds). Items never straddle nodes and every item lives in
+ * exactly one node, which keeps insertion and removal O(depth). The root
+ * grows by doubling when an item falls outside it.
+ * </p>
+ *
+ * <h2>Lazy updates</h2>
+ * <p>
+ * Items are added before their subclass constructors have built any geometry,
+ * and may change shape many times between queries during a drag. Added and
+ * changed items are therefore only marked pending; their bounds are read and
+ * the tree updated at the start of the next query.
+ * </p>
+ *
+ * <h2>Unindexed items</h2>
+ * <p>
+ * Items that are not {@linkplain Layer#isIndexable(AItem) indexable} (because
+ * they say so or paint too far outside their world bounds), or whose world
+ * bounds are {@code null} or not finite (for example icon-based point items,
+ * whose extent is in pixels), are kept in a separate set and returned by
+ * every query.
+ * </p>
+ *
+ * <h2>Z-order</h2>
+ * <p>
+ * Each item carries a draw-order key that the layer keeps consistent with its
+ * list order. Query results are sorted by that key, bottom to top, so callers
+ * preserve the layer's top-most-first hit semantics without scanning the list.
+ * </p>
+ *
+ * <p>
+ * Not thread-safe; {@link Layer} calls it while holding its own monitor.
+ * </p>
+ */
+final class ItemIndex {
+
+	/** Deepest node level; bounds the tree height for tiny or coincident items. */
+	private static final int MAX_DEPTH = 24;
+
+	/** Everything the index knows about one item. */
+	private static final class Entry {
+		final AItem item;
+		long z;
+		double minX, minY, maxX, maxY;
+		Node node; // null when pending or unindexed
+		int slot;  // position in node.entries
+
+		Entry(AItem item, long z) {
+			this.item = item;
+			this.z = z;
+		}
+	}
+
+	private static final class Node {
+		final double cx, cy, half;
+		Node[] children;
+		final ArrayList<Entry> entries = new ArrayList<>(4);
+
+		Node(double cx, double cy, double half) {
+			this.cx = cx;
+			this.cy = cy;
+			this.half = half;
+		}
+
+		boolean containsCenter(double x, double y) {
+			return x >= cx - half && x < cx + half && y >= cy - half && y < cy + half;
+		}
+
+		boolean looseIntersects(double x0, double y0, double x1, double y1) {
+			double h = 2 * half;
+			return x0 <= cx + h && x1 >= cx - h && y0 <= cy + h && y1 >= cy - h;
+		}
+	}
+
+	private final Map<AItem, Entry> entries = new IdentityHashMap<>();
+	private final Set<Entry> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Set<Entry> unindexed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	private Node root;
+
+	/** Next key for an item placed on top, and last key used at the bottom. */
+	private long topZ;
+	private long bottomZ;
+
+	// -------------------------------------------------------------------------
+	// Membership and order
+	// -------------------------------------------------------------------------
+
+	/** Add an item on top of the draw order. */
+	void add(AItem item) {
+		if (entries.containsKey(item)) {
+			return;
+		}
+		Entry e = new Entry(item, topZ++);
+		entries.put(item, e);
+		pending.add(e);
+	}
+
+	/** Check whether an item is in the index (and so on the layer). */
+	boolean contains(AItem item) {
+		return entries.containsKey(item);
+	}
+
+	/** Remove an item; no-op if absent. */
+	void remove(AItem item) {
+		Entry e = entries.remove(item);
+		if (e != null) {
+			detach(e);
+			pending.remove(e);
+			unindexed.remove(e);
+		}
+	}
+
+	/** Mark an item's geometry as changed; no-op if absent. */
+	void invalidate(AItem item) {
+		Entry e = entries.get(item);
+		if (e != null && !pending.contains(e)) {
+			detach(e);
+			unindexed.remove(e);
+			pending.add(e);
+		}
+	}
+
+	/** Move an item to the top of the draw order. */
+	void toFront(AItem item) {
+		Entry e = entries.get(item);
+		if (e != null) {
+			e.z = topZ++;
+		}
+	}
+
+	/** Move an item to the bottom of the draw order. */
+	void toBack(AItem item) {
+		Entry e = entries.get(item);
+		if (e != null) {
+			e.z = --bottomZ;
+		}
+	}
+
+	/** Exchange the draw-order positions of two adjacent items. */
+	void swapOrder(AItem a, AItem b) {
+		Entry ea = entries.get(a);
+		Entry eb = entries.get(b);
+		if (ea != null && eb != null) {
+			long z = ea.z;
+			ea.z = eb.z;
+			eb.z = z;
+		}
+	}
+
+	int size() {
+		return entries.size();
+	}
+
+	// -------------------------------------------------------------------------
+	// Queries
+	// -------------------------------------------------------------------------
+
+	/**
+	 * Return the items whose world bounds intersect a rectangle, plus every
+	 * unindexed item, in draw order (bottom to top).
+	 *
+	 * @param r query rectangle in world coordinates; a negative width or
+	 *          height (world axes increasing left or down) is allowed
+	 * @return candidates; the caller applies the exact test
+	 */
+	List<AItem> query(Rectangle2D.Double r) {
+		flush();
+
+		ArrayList<Entry> hits = new ArrayList<>(unindexed);
+		if (root != null) {
+			double x0 = Math.min(r.x, r.x + r.width);
+			double y0 = Math.min(r.y, r.y + r.height);
+			collect(root, x0, y0, x0 + Math.abs(r.width), y0 + Math.abs(r.height), hits);
+		}
+		hits.sort((e1, e2) -> Long.compare(e1.z, e2.z));
+
+		ArrayList<AItem> result = new ArrayList<>(hits.size());
+		for (Entry e : hits) {
+			result.add(e.item);
+		}
+		return result;
+	}
+
+	private static void collect(Node node, double x0, double y0, double x1, double y1, List<Entry> out) {
+		if (!node.looseIntersects(x0, y0, x1, y1)) {
+			return;
+		}
+		for (Entry e : node.entries) {
+			if (e.minX <= x1 && e.maxX >= x0 && e.minY <= y1 && e.maxY >= y0) {
+				out.add(e);
+			}
+		}
+		if (node.children != null) {
+			for (Node c : node.children) {
+				if (c != null) {
+					collect(c, x0, y0, x1, y1, out);
+				}
+			}
+		}
+	}
+
+	// -------------------------------------------------------------------------
+	// Tree maintenance
+	// -------------------------------------------------------------------------
+
+	/** Insert all pending items using their current bounds. */
+	private void flush() {
+		if (pending.isEmpty()) {
+			return;
+		}
+		for (Entry e : pending) {
+			Rectangle2D.Double b = Layer.isIndexable(e.item) ? e.item.getWorldBounds() : null;
+			if (b == null || !Double.isFinite(b.x) || !Double.isFinite(b.y) || !Double.isFinite(b.width)
+					|| !Double.isFinite(b.height)) {
+				unindexed.add(e);
+				continue;
+			}
+			e.minX = Math.min(b.x, b.x + b.width);
+			e.maxX = Math.max(b.x, b.x + b.width);
+			e.minY = Math.min(b.y, b.y + b.height);
+			e.maxY = Math.max(b.y, b.y + b.height);
+			insert(e);
+		}
+		pending.clear();
+	}
+
+	private void insert(Entry e) {
+		double x = 0.5 * (e.minX + e.maxX);
+		double y = 0.5 * (e.minY + e.maxY);
+		double extent = 0.5 * Math.max(e.maxX - e.minX, e.maxY - e.minY);
+
+		if (root == null) {
+			double half = (extent > 0) ? extent : Math.max(1.0e-9, 1.0e-6 * Math.max(Math.abs(x), Math.abs(y)));
+			root = new Node(x, y, half);
+		}
+		while (!root.containsCenter(x, y) || root.half < extent) {
+			grow(x, y);
+		}
+
+		Node node = root;
+		int depth = 0;
+		while (depth < MAX_DEPTH && 0.5 * node.half >= extent) {
+			int q = quadrant(node, x, y);
+			if (node.children == null) {
+				node.children = new Node[4];
+			}
+			Node child = node.children[q];
+			if (child == null) {
+				double h = 0.5 * node.half;
+				child = new Node(node.cx + ((q & 1) == 0 ? -h : h), node.cy + ((q & 2) == 0 ? -h : h), h);
+				node.children[q] = child;
+			}
+			node = child;
+			depth++;
+		}
+
+		e.node = node;
+		e.slot = node.entries.size();
+		node.entries.add(e);
+	}
+
+	/** Double the root toward a point outside it. */
+	private void grow(double x, double y) {
+		Node old = root;
+		double h = old.half;
+		double cx = old.cx + (x >= old.cx ? h : -h);
+		double cy = old.cy + (y >= old.cy ? h : -h);
+		Node parent = new Node(cx, cy, 2 * h);
+		parent.children = new Node[4];
+		parent.children[quadrant(parent, old.cx, old.cy)] = old;
+		root = parent;
+	}
+
+	private static int quadrant(Node n, double x, double y) {
+		return (x < n.cx ? 0 : 1) | (y < n.cy ? 0 : 2);
+	}
+
+	/** Remove an entry from its node, if it is in the tree. */
+	private static void detach(Entry e) {
+		Node node = e.node;
+		if (node == null) {
+			return;
+		}
+		ArrayList<Entry> list = node.entries;
+		Entry last = list.remove(list.size() - 1);
+		if (last != e) {
+			list.set(e.slot, last);
+			last.slot = e.slot;
+		}
+		e.node = null;
+	}
+}
@@ -183,6 +183,6 @@ public class ItemOrderingMenu extends JMenu implements ActionListener {
         else if (src == menuItems[BRINGFORWARD]) layer.sendForward(targetItem);
         else if (src == menuItems[SENDBACKWARD]) layer.sendBackward(targetItem);
 
-        layer.getContainer().refresh();
+        targetItem.repaint();
     }
 }
\ No newline at end of file
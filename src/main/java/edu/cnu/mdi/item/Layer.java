@@ -1,15 +1,23 @@
 package edu.cnu.mdi.item;
 
+import java.awt.Component;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.swing.event.EventListenerList;
 
 import edu.cnu.mdi.container.IContainer;
+import edu.cnu.mdi.graphics.PaintProfiler;
+import edu.cnu.mdi.view.BaseView;
 
 /**
  * A z-layer (drawing layer) that owns an ordered list of {@link AItem} objects.
@@ -42,6 +50,25 @@ import edu.cnu.mdi.container.IContainer;
  * layer actually supports, each of which fires the correct event.
  * </p>
  *
+ * <h2>Spatial index</h2>
+ * <p>
+ * Each layer keeps an {@link ItemIndex} over its items' world bounds. A layer
+ * whose items all report geometry changes through
+ * {@link AItem#geometryChanged()} can opt in with
+ * {@link #setSpatialIndexEnabled(boolean)}; once such a layer holds at least
+ * {@link #INDEX_THRESHOLD} items, the hit-testing and enclosure queries ask
+ * the index for the items near the query region and
+ * apply the exact {@link AItem#contains} or {@link AItem#enclosed} test only
+ * to those, visiting them in the same top-most-first (or bottom-to-top) order
+ * as a full scan. Many item mutators (a point item's new focus, for
+ * example) do not call {@link AItem#geometryChanged()}, so layers scan by
+ * default. Items that cannot honour that contract on an indexed layer
+ * report {@code false} from {@link AItem#isSpatiallyIndexable()} and are
+ * always tested, as are items that paint more than {@link #QUERY_SLOP}
+ * pixels outside their world bounds ({@link AItem#getScreenMargin()}). The same index culls items outside the painted region in
+ * {@link #draw(Graphics2D, IContainer, Rectangle2D.Double)}.
+ * </p>
+ *
  * <h2>Thread safety</h2>
  * <p>
  * Mutating operations synchronize on {@code this} to provide basic safety when
@@ -54,6 +81,24 @@ import edu.cnu.mdi.container.IContainer;
  */
 public class Layer {
 
+    /**
+     * Item count at which hit-testing and enclosure on a layer with the
+     * {@linkplain #setSpatialIndexEnabled(boolean) spatial index enabled}
+     * switch from a full scan to the index. Below it a scan is as fast and
+     * allocation-free.
+     */
+    public static final int INDEX_THRESHOLD = 256;
+
+    /**
+     * Screen-space margin, in pixels, added around a query point or rectangle
+     * before it is converted to world coordinates. It covers what an item's
+     * world bounds do not: stroke widths, line pick tolerance, and selection
+     * and rotation handles (the rotation handle sits 15 px outside the item).
+     * Items whose {@link AItem#getScreenMargin() screen margin} exceeds it
+     * are not indexed; see {@link #isIndexable(AItem)}.
+     */
+    public static final int QUERY_SLOP = 24;
+
     // -------------------------------------------------------------------------
     // Fields
     // -------------------------------------------------------------------------
@@ -76,6 +121,44 @@ public class Layer {
     /** Registered listeners for item change events. */
     private final EventListenerList listenerList = new EventListenerList();
 
+    /**
+     * Spatial index over {@link #items}, kept in sync under the same monitor.
+     */
+    private final ItemIndex index = new ItemIndex();
+
+    /**
+     * Items marked dirty since the layer was last cleaned; see
+     * {@link #itemDirtied(AItem)}. Guarded by {@code this}.
+     */
+    private final Set<AItem> dirtyItems = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Source of {@link #dirtyEpoch} values, unique across layers. */
+    private static final AtomicLong DIRTY_EPOCHS = new AtomicLong();
+
+    /**
+     * Identifies the latest {@link #setDirty(boolean) setDirty(true)}, which
+     * marks every item dirty without visiting it; {@code 0} if there was
+     * none. An item cleaned since then remembers it; see
+     * {@link AItem#isDirty()}.
+     */
+    private volatile long dirtyEpoch;
+
+    /** Whether items not cleaned since {@link #dirtyEpoch} are dirty. */
+    private volatile boolean allDirty;
+
+    /** Open {@link #beginBatch()} calls; guarded by {@code this}. */
+    private int batchDepth;
+
+    /** Events queued while {@link #batchDepth} is positive. */
+    private final List<PendingEvents> pendingEvents = new ArrayList<>();
+
+    /** Whether queries and culling may use {@link #index}; off by default. */
+    private boolean spatialIndexEnabled;
+
+    /** Running totals of items drawn and culled by {@link #draw}. */
+    private long drawnCount;
+    private long culledCount;
+
     /** Whether this layer is drawn and hit-tested. */
     private boolean visible = true;
 
@@ -126,10 +209,53 @@ public class Layer {
     public void add(AItem item) {
         synchronized (this) {
             items.add(item);
+            index.add(item);
+            if (item.isDirty()) dirtyItems.add(item);
         }
         notifyItemChangeListeners(item, ItemChangeType.ADDED);
     }
 
+    /**
+     * Add several items to the top of this layer, in iteration order, under
+     * one acquisition of the layer monitor and with a single batched
+     * {@link ItemChangeType#ADDED} notification (see {@link #beginBatch()}).
+     * Items already on the layer and {@code null}s are skipped.
+     *
+     * <p><b>Note:</b> items add themselves to their layer when constructed,
+     * so bulk creation only needs to be wrapped in a batch. This method is
+     * for items that belong to this layer but are not in its list.</p>
+     *
+     * @param toAdd the items to add; each must belong to this layer
+     * @throws IllegalArgumentException if an item belongs to another layer
+     */
+    public void addAll(Collection<? extends AItem> toAdd) {
+        for (AItem item : toAdd) {
+            if (item != null && item.getLayer() != this) {
+                throw new IllegalArgumentException("item " + item.getDisplayName()
+                        + " does not belong to layer '" + name + "'");
+            }
+        }
+        beginBatch();
+        try {
+            List<AItem> added = new ArrayList<>(toAdd.size());
+            synchronized (this) {
+                items.ensureCapacity(items.size() + toAdd.size());
+                for (AItem item : toAdd) {
+                    if (item == null || index.contains(item)) continue;
+                    items.add(item);
+                    index.add(item);
+                    if (item.isDirty()) dirtyItems.add(item);
+                    added.add(item);
+                }
+            }
+            for (AItem item : added) {
+                notifyItemChangeListeners(item, ItemChangeType.ADDED);
+            }
+        } finally {
+            endBatch();
+        }
+    }
+
     /**
      * Remove an item from this layer.
      * <p>
@@ -148,6 +274,8 @@ public class Layer {
         synchronized (this) {
             item.prepareForRemoval();
             removed = items.remove(item);
+            index.remove(item);
+            dirtyItems.remove(item);
         }
         if (removed) {
             notifyItemChangeListeners(item, ItemChangeType.DELETED);
@@ -167,13 +295,18 @@ public class Layer {
      */
     public void clearAllItems(IContainer container) {
         if (locked) return;
-        synchronized (this) {
-            List<AItem> snapshot = new ArrayList<>(items);
-            for (AItem item : snapshot) {
-                if (item.isDeletable()) {
-                    deleteInternal(item, container);
+        beginBatch();
+        try {
+            synchronized (this) {
+                List<AItem> snapshot = new ArrayList<>(items);
+                for (AItem item : snapshot) {
+                    if (item.isDeletable()) {
+                        deleteInternal(item, container);
+                    }
                 }
             }
+        } finally {
+            endBatch();
         }
     }
 
@@ -187,13 +320,18 @@ public class Layer {
      */
     public void deleteSelectedItems(IContainer container) {
         if (!visible || locked) return;
-        synchronized (this) {
-            List<AItem> snapshot = new ArrayList<>(items);
-            for (AItem item : snapshot) {
-                if (item.isSelected() && item.isDeletable()) {
-                    deleteInternal(item, container);
+        beginBatch();
+        try {
+            synchronized (this) {
+                List<AItem> snapshot = new ArrayList<>(items);
+                for (AItem item : snapshot) {
+                    if (item.isSelected() && item.isDeletable()) {
+                        deleteInternal(item, container);
+                    }
                 }
             }
+        } finally {
+            endBatch();
         }
     }
 
@@ -292,23 +430,173 @@ public class Layer {
     // -------------------------------------------------------------------------
 
     /**
-     * Draw all items on this layer in bottom-to-top order.
+     * Draw the items on this layer that can reach the clip of {@code g2}, in
+     * bottom-to-top order.
      * <p>
      * If this layer is not visible the method returns immediately.
      * </p>
      *
      * @param g2        the graphics context
      * @param container the container being rendered
+     * @see #draw(Graphics2D, IContainer, Rectangle2D.Double)
      */
     public void draw(Graphics2D g2, IContainer container) {
+        draw(g2, container, getVisibleWorld(g2, container));
+    }
+
+    /**
+     * Draw the items on this layer that can reach a world region, in
+     * bottom-to-top order.
+     * <p>
+     * Once the layer holds {@link #INDEX_THRESHOLD} items and the
+     * {@linkplain #setSpatialIndexEnabled(boolean) spatial index is enabled},
+     * items whose world bounds miss {@code visibleWorld} are culled:
+     * {@link AItem#draw} is not called for them at all, so they cost nothing
+     * however expensive their {@link AItem#shouldDraw} is. Culling shares the
+     * index's opt-in because it trusts the same bounds. Other layers, and a
+     * {@code null} region, draw every item. The running
+     * totals are available from {@link #getDrawnItemCount()} and
+     * {@link #getCulledItemCount()}. When the container's
+     * {@link PaintProfiler} is enabled each item draw is timed.
+     * </p>
+     *
+     * @param g2           the graphics context
+     * @param container    the container being rendered
+     * @param visibleWorld the world region being painted, as returned by
+     *                     {@link #getVisibleWorld}; {@code null} disables
+     *                     culling
+     */
+    public void draw(Graphics2D g2, IContainer container, Rectangle2D.Double visibleWorld) {
         if (!visible) return;
         synchronized (this) {
-            for (AItem item : items) {
-                item.draw(g2, container);
+            drawItems(g2, container, itemsToDraw(visibleWorld));
+        }
+    }
+
+    /**
+     * Return a copy of the items {@link #draw(Graphics2D, IContainer,
+     * Rectangle2D.Double)} would draw for a region, counted as drawn and
+     * culled as if they had been. Used by asynchronous and tiled rendering,
+     * which record the items' {@link AItem#drawContent} on the EDT without
+     * holding this layer's monitor and rasterize the recordings elsewhere.
+     *
+     * @param visibleWorld the world region being painted, or {@code null}
+     * @return the items to draw, bottom to top; empty if the layer is hidden
+     */
+    public List<AItem> snapshotForDraw(Rectangle2D.Double visibleWorld) {
+        if (!visible) return Collections.emptyList();
+        synchronized (this) {
+            List<AItem> toDraw = itemsToDraw(visibleWorld);
+            drawnCount += toDraw.size();
+            culledCount += items.size() - toDraw.size();
+            return new ArrayList<>(toDraw);
+        }
+    }
+
+    /**
+     * Check whether an item may be culled and picked by its world bounds: it
+     * is {@linkplain AItem#isSpatiallyIndexable() indexable} and paints no
+     * more than {@link #QUERY_SLOP} pixels outside them.
+     *
+     * @param item the item
+     * @return {@code true} if queries grown by {@link #QUERY_SLOP} find it
+     */
+    public static boolean isIndexable(AItem item) {
+        return item.isSpatiallyIndexable() && item.getScreenMargin() <= QUERY_SLOP;
+    }
+
+    /** Items to draw for a region; the live list or an index query. */
+    private List<AItem> itemsToDraw(Rectangle2D.Double visibleWorld) {
+        if (visibleWorld != null && spatialIndexEnabled && items.size() >= INDEX_THRESHOLD) {
+            return index.query(visibleWorld);
+        }
+        return items;
+    }
+
+    /** Draw items, timing each one if the container's profiler is enabled. */
+    private void drawItems(Graphics2D g2, IContainer container, List<AItem> toDraw) {
+        PaintProfiler profiler = container.getPaintProfiler();
+        boolean timed = profiler != null && profiler.isEnabled();
+        for (AItem item : toDraw) {
+            long t = timed ? profiler.start() : 0L;
+            item.draw(g2, container);
+            if (timed) {
+                profiler.item(() -> describe(item), t);
             }
         }
+        drawnCount += toDraw.size();
+        culledCount += items.size() - toDraw.size();
+    }
+
+    /** Label for an item in profiler output: layer, type and display name. */
+    private String describe(AItem item) {
+        String label = name + "/" + item.getClass().getSimpleName();
+        String dn = item.getDisplayName();
+        return (dn == null || dn.isEmpty()) ? label : label + " \"" + dn + "\"";
     }
 
+    /**
+     * Compute the world region that can affect a paint: the clip of
+     * {@code g2} (or the whole component when there is no clip or the view
+     * installs a special clip), grown by a margin for strokes and selection
+     * handles. Containers compute this once per paint and pass it to
+     * {@link #draw(Graphics2D, IContainer, Rectangle2D.Double)} for every
+     * layer.
+     *
+     * @param g2        the graphics context
+     * @param container the container being rendered
+     * @return the region in world coordinates, or {@code null} if it cannot
+     *         be determined
+     */
+    public static Rectangle2D.Double getVisibleWorld(Graphics2D g2, IContainer container) {
+        return getVisibleWorld(g2.getClipBounds(), container);
+    }
+
+    /**
+     * Compute the world region that can affect a paint of a local (pixel)
+     * region; see {@link #getVisibleWorld(Graphics2D, IContainer)}.
+     *
+     * @param clip      the region being painted, or {@code null} for the
+     *                  whole component
+     * @param container the container being rendered
+     * @return the region in world coordinates, or {@code null} if it cannot
+     *         be determined
+     */
+    public static Rectangle2D.Double getVisibleWorld(Rectangle clip, IContainer container) {
+        clip = (clip == null) ? null : new Rectangle(clip);
+        BaseView view = container.getView();
+        if (clip == null || (view != null && view.getSpecialClip() != null)) {
+            Component c = container.getComponent();
+            if (c == null) return null;
+            clip = new Rectangle(0, 0, c.getWidth(), c.getHeight());
+        }
+        if (clip.isEmpty()) return null;
+        clip.grow(QUERY_SLOP, QUERY_SLOP);
+        Rectangle2D.Double wr = new Rectangle2D.Double();
+        container.localToWorld(clip, wr);
+        if (!Double.isFinite(wr.x) || !Double.isFinite(wr.y) || !Double.isFinite(wr.width)
+                || !Double.isFinite(wr.height)) {
+            return null;
+        }
+        return wr;
+    }
+
+    /**
+     * Return the number of item draws this layer has issued since it was
+     * created. Sample it before and after a paint to get a per-frame count.
+     *
+     * @return the running total of items passed to {@link AItem#draw}
+     */
+    public synchronized long getDrawnItemCount() { return drawnCount; }
+
+    /**
+     * Return the number of items this layer has culled, without calling
+     * {@link AItem#draw}, since it was created.
+     *
+     * @return the running total of culled items
+     */
+    public synchronized long getCulledItemCount() { return culledCount; }
+
     // -------------------------------------------------------------------------
     // Hit testing
     // -------------------------------------------------------------------------
@@ -326,8 +614,9 @@ public class Layer {
     public AItem getItemAtPoint(IContainer container, Point screenPoint) {
         if (!visible || locked) return null;
         synchronized (this) {
-            for (int i = items.size() - 1; i >= 0; i--) {
-                AItem item = items.get(i);
+            List<AItem> candidates = candidatesNear(container, screenPoint);
+            for (int i = candidates.size() - 1; i >= 0; i--) {
+                AItem item = candidates.get(i);
                 if (item.isVisible() && item.contains(container, screenPoint)) {
                     return item;
                 }
@@ -352,8 +641,9 @@ public class Layer {
         if (!visible || locked) return null;
         ArrayList<AItem> result = null;
         synchronized (this) {
-            for (int i = items.size() - 1; i >= 0; i--) {
-                AItem item = items.get(i);
+            List<AItem> candidates = candidatesNear(container, screenPoint);
+            for (int i = candidates.size() - 1; i >= 0; i--) {
+                AItem item = candidates.get(i);
                 if (item.isVisible() && item.contains(container, screenPoint)) {
                     if (result == null) result = new ArrayList<>();
                     result.add(item);
@@ -377,7 +667,7 @@ public class Layer {
     public void addEnclosedItems(IContainer container, ArrayList<AItem> dest, Rectangle rect) {
         if (!visible || locked) return;
         synchronized (this) {
-            for (AItem item : items) {
+            for (AItem item : candidatesIn(container, rect)) {
                 if (item.isVisible() && item.enclosed(container, rect)) {
                     dest.add(item);
                 }
@@ -397,6 +687,30 @@ public class Layer {
         if (atPoint != null) dest.addAll(atPoint);
     }
 
+    /**
+     * Return the items that may contain a screen point, in draw order. Called
+     * with the monitor held.
+     */
+    private List<AItem> candidatesNear(IContainer container, Point screenPoint) {
+        return candidatesIn(container, new Rectangle(screenPoint.x, screenPoint.y, 0, 0));
+    }
+
+    /**
+     * Return the items whose world bounds come near a screen rectangle, in
+     * draw order: the whole list if the index is disabled or the layer holds
+     * fewer than {@link #INDEX_THRESHOLD} items, otherwise an index query. Called with the monitor held.
+     */
+    private List<AItem> candidatesIn(IContainer container, Rectangle screenRect) {
+        if (!spatialIndexEnabled || items.size() < INDEX_THRESHOLD) {
+            return items;
+        }
+        Rectangle r = new Rectangle(screenRect);
+        r.grow(QUERY_SLOP, QUERY_SLOP);
+        Rectangle2D.Double wr = new Rectangle2D.Double();
+        container.localToWorld(r, wr);
+        return index.query(wr);
+    }
+
     // -------------------------------------------------------------------------
     // Selection
     // -------------------------------------------------------------------------
@@ -522,7 +836,10 @@ public class Layer {
      */
     public void sendToFront(AItem item) {
         synchronized (this) {
-            if (items.remove(item)) items.add(item);
+            if (items.remove(item)) {
+                items.add(item);
+                index.toFront(item);
+            }
         }
     }
 
@@ -533,7 +850,10 @@ public class Layer {
      */
     public void sendToBack(AItem item) {
         synchronized (this) {
-            if (items.remove(item)) items.add(0, item);
+            if (items.remove(item)) {
+                items.add(0, item);
+                index.toBack(item);
+            }
         }
     }
 
@@ -546,6 +866,7 @@ public class Layer {
         synchronized (this) {
             int src = items.indexOf(item);
             if (src < 0 || src == items.size() - 1) return;
+            index.swapOrder(item, items.get(src + 1));
             items.remove(src);
             items.add(src + 1, item);
         }
@@ -560,6 +881,7 @@ public class Layer {
         synchronized (this) {
             int src = items.indexOf(item);
             if (src <= 0) return;
+            index.swapOrder(item, items.get(src - 1));
             items.remove(src);
             items.add(src - 1, item);
         }
@@ -570,16 +892,82 @@ public class Layer {
     // -------------------------------------------------------------------------
 
     /**
-     * Mark all items on this layer dirty or clean.
+     * Mark all items on this layer dirty or clean. Neither visits every item:
+     * marking dirty raises a layer-wide flag that {@link AItem#isDirty()}
+     * consults until the item is drawn or the layer cleaned, and cleaning
+     * visits only the items marked dirty one by one.
      *
      * @param dirty new dirty state for each item
      */
     public void setDirty(boolean dirty) {
         synchronized (this) {
-            for (AItem item : items) item.setDirty(dirty);
+            if (dirty) {
+                dirtyEpoch = DIRTY_EPOCHS.incrementAndGet();
+                allDirty = true;
+            } else {
+                allDirty = false;
+                for (AItem item : dirtyItems) item.setDirty(false);
+                dirtyItems.clear();
+            }
         }
     }
 
+    /**
+     * Return {@code true} if every item on this layer was marked dirty by
+     * {@link #setDirty(boolean) setDirty(true)} since the layer was last
+     * cleaned. {@link #getDirtyItems()} does not list those items.
+     *
+     * @return {@code true} if the whole layer is dirty
+     */
+    public boolean isDirty() { return allDirty; }
+
+    /**
+     * Return the {@link #dirtyEpoch} of the latest layer-wide
+     * {@link #setDirty(boolean) setDirty(true)}, or {@code 0} if there was
+     * none.
+     */
+    long getDirtyEpoch() { return dirtyEpoch; }
+
+    /**
+     * Return the items marked dirty one by one, or whose selection or
+     * visibility changed, since this layer was last cleaned with
+     * {@link #setDirty(boolean) setDirty(false)}. Costs time proportional to
+     * the number of such items, not to the layer size. Items dirtied only by
+     * a layer-wide {@link #setDirty(boolean) setDirty(true)} are not listed;
+     * check {@link #isDirty()} for that.
+     *
+     * @return a copy of the dirty items, in no particular order
+     */
+    public List<AItem> getDirtyItems() {
+        synchronized (this) {
+            return new ArrayList<>(dirtyItems);
+        }
+    }
+
+    /**
+     * Record that an item was marked dirty, so the next
+     * {@link #setDirty(boolean) setDirty(false)} clears it without scanning
+     * the whole layer. Called by {@link AItem#setDirty(boolean)}, and when an
+     * item's selection or visibility changes.
+     *
+     * @param item the dirty item; ignored if not on this layer
+     */
+    void itemDirtied(AItem item) {
+        synchronized (this) {
+            if (index.contains(item)) dirtyItems.add(item);
+        }
+    }
+
+    /**
+     * Tell the spatial index that an item's world geometry changed. Called by
+     * {@link AItem#geometryChanged()}.
+     *
+     * @param item the changed item; ignored if not on this layer
+     */
+    void itemGeometryChanged(AItem item) {
+        synchronized (this) { index.invalidate(item); }
+    }
+
     // -------------------------------------------------------------------------
     // Change listener management
     // -------------------------------------------------------------------------
@@ -610,12 +998,24 @@ public class Layer {
     }
 
     /**
-     * Notify all registered listeners that an item changed.
+     * Notify all registered listeners that an item changed. During a
+     * {@linkplain #beginBatch() batch} the event is queued instead.
      *
      * @param item the affected item; may be {@code null} for layer-level events
      * @param type the type of change
      */
     public void notifyItemChangeListeners(AItem item, ItemChangeType type) {
+        synchronized (this) {
+            if (batchDepth > 0) {
+                PendingEvents last = pendingEvents.isEmpty() ? null : pendingEvents.get(pendingEvents.size() - 1);
+                if (last == null || last.type() != type) {
+                    last = new PendingEvents(type, new ArrayList<>());
+                    pendingEvents.add(last);
+                }
+                last.items().add(item);
+                return;
+            }
+        }
         Object[] listeners = listenerList.getListenerList();
         for (int i = 0; i < listeners.length; i += 2) {
             if (listeners[i] == ItemChangeListener.class) {
@@ -624,6 +1024,72 @@ public class Layer {
         }
     }
 
+    // -------------------------------------------------------------------------
+    // Batching
+    // -------------------------------------------------------------------------
+
+    /**
+     * Start a batch of changes, such as creating thousands of items during an
+     * import. Until the matching {@link #endBatch()}, change notifications are
+     * queued rather than delivered. Batches nest; only the outermost
+     * {@code endBatch()} flushes.
+     * <p>
+     * Always pair the calls in a {@code try}/{@code finally}:
+     * </p>
+     * <pre>
+     * layer.beginBatch();
+     * try {
+     *     for (Feature f : features) new PolygonItem(layer, f.points());
+     * } finally {
+     *     layer.endBatch();
+     * }
+     * </pre>
+     */
+    public void beginBatch() {
+        synchronized (this) {
+            batchDepth++;
+        }
+    }
+
+    /**
+     * End a batch started by {@link #beginBatch()}. When the outermost batch
+     * ends, the queued events are delivered to each listener's
+     * {@link ItemChangeListener#itemsChanged} as one call per run of
+     * consecutive events of the same type, in the order they happened, and
+     * the container is refreshed once. The spatial index already defers its
+     * updates to the next query, so it is rebuilt once as well.
+     */
+    public void endBatch() {
+        List<PendingEvents> flush;
+        synchronized (this) {
+            if (batchDepth == 0 || --batchDepth > 0) return;
+            flush = new ArrayList<>(pendingEvents);
+            pendingEvents.clear();
+        }
+        if (flush.isEmpty()) return;
+
+        Object[] listeners = listenerList.getListenerList();
+        for (PendingEvents events : flush) {
+            List<AItem> batch = Collections.unmodifiableList(events.items());
+            for (int i = 0; i < listeners.length; i += 2) {
+                if (listeners[i] == ItemChangeListener.class) {
+                    ((ItemChangeListener) listeners[i + 1]).itemsChanged(this, batch, events.type());
+                }
+            }
+        }
+        container.refresh();
+    }
+
+    /**
+     * Return {@code true} while a {@linkplain #beginBatch() batch} is open.
+     *
+     * @return whether change notifications are being queued
+     */
+    public synchronized boolean isBatching() { return batchDepth > 0; }
+
+    /** A run of queued events of one type. */
+    private record PendingEvents(ItemChangeType type, List<AItem> items) { }
+
     // -------------------------------------------------------------------------
     // Properties
     // -------------------------------------------------------------------------
@@ -685,6 +1151,27 @@ public class Layer {
      */
     public void setLocked(boolean locked) { this.locked = locked; }
 
+    /**
+     * Return {@code true} if hit-testing, enclosure queries and draw culling
+     * on this layer may use the spatial index.
+     *
+     * @return the index flag (default {@code false})
+     */
+    public boolean isSpatialIndexEnabled() { return spatialIndexEnabled; }
+
+    /**
+     * Allow or forbid the spatial index for queries and culling on this
+     * layer. Enable it only for layers whose items report every change to
+     * their world bounds through {@link AItem#geometryChanged()}; an item
+     * moved without that call is otherwise neither picked nor drawn where it
+     * now is. The index is maintained either way.
+     *
+     * @param enabled {@code true} to allow indexed queries
+     */
+    public void setSpatialIndexEnabled(boolean enabled) {
+        synchronized (this) { this.spatialIndexEnabled = enabled; }
+    }
+
     // -------------------------------------------------------------------------
     // Object overrides
     // -------------------------------------------------------------------------
@@ -729,7 +1216,11 @@ public class Layer {
      * @param item the item to add silently
      */
     void addRaw(AItem item) {
-        synchronized (this) { items.add(item); }
+        synchronized (this) {
+            items.add(item);
+            index.add(item);
+            if (item.isDirty()) dirtyItems.add(item);
+        }
     }
 
     /**
@@ -744,6 +1235,10 @@ public class Layer {
      * @return {@code true} if the item was present and removed
      */
     boolean removeRaw(AItem item) {
-        synchronized (this) { return items.remove(item); }
+        synchronized (this) {
+            index.remove(item);
+            dirtyItems.remove(item);
+            return items.remove(item);
+        }
     }
 }
\ No newline at end of file
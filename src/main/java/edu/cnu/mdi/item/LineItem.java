@@ -164,8 +164,8 @@ public class LineItem extends AItem {
 			updateFocus();
 			break;
 		}
-		setDirty(true);
-		_modification.getContainer().refresh();
+		geometryChanged();
+		repaint();
 	}
 
 	// called by the modify method to tell the item to update its focus.
@@ -198,7 +198,6 @@ public class LineItem extends AItem {
 		_line.y1 += dy;
 		_line.x2 += dx;
 		_line.y2 += dy;
-		updateFocus(); // midpoint of the segment
-		setDirty(true); // invalidate cached bounds / redraw state
+		geometryChanged(); // midpoint of the segment, cached bounds, index
 	}
 }
@@ -74,6 +74,8 @@ public class PathBasedItem extends AItem {
 		Rectangle b = container.getComponent().getBounds();
 		b.x = 0;
 		b.y = 0;
+		int margin = getScreenMargin();
+		b.grow(margin, margin);
 
 		boolean shouldDraw = b.intersects(r);
 		if (!shouldDraw) {
@@ -255,7 +257,7 @@ public class PathBasedItem extends AItem {
 			break;
 		}
 		geometryChanged();
-		_modification.getContainer().refresh();
+		repaint();
 	}
 
 	/**
@@ -225,7 +225,7 @@ public class PointItem extends AItem {
 			Point2D.Double wp = new Point2D.Double();
 			_modification.getContainer().localToWorld(newFocusPoint, wp);
 			setFocus(wp);
-			_modification.getContainer().refresh();
+			repaint();
 		}
 	}
 
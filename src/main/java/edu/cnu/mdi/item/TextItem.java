@@ -124,7 +124,7 @@ public class TextItem extends RectangleItem implements ITextEditable {
 			setPath(getRotatedPoints(newAzimuth));
 
 			geometryChanged();
-			_modification.getContainer().refresh();
+			repaint();
 		} else {
 			super.modify();   // DRAG and RESIZE handled by PathBasedItem
 		}
@@ -0,0 +1,193 @@
+package edu.cnu.mdi.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel scans over the raw bytes of a JSON document, shared by
+ * {@link JsonIndex} and {@link JsonTextView}.
+ *
+ * <p>
+ * The buffer is cut into chunks of {@value #CHUNK} bytes that are scanned on
+ * the common fork-join pool; results are merged in document order. Text
+ * comparison ignores ASCII case only, which is exact for the keys and values
+ * of typical JSON and never decodes the bytes.
+ * </p>
+ */
+final class ByteScan {
+
+    /** Bytes handled by one task. */
+    static final int CHUNK = 4 << 20;
+
+    private ByteScan() {
+    }
+
+    // -------------------------------------------------------------------------
+    // Search
+    // -------------------------------------------------------------------------
+
+    /**
+     * Encode a query for {@link #scan}: UTF-8 with ASCII letters lower-cased.
+     *
+     * @param query the query; must not be empty
+     * @return the pattern bytes
+     */
+    static byte[] pattern(String query) {
+        byte[] bytes = query.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = lower(bytes[i]);
+        }
+        return bytes;
+    }
+
+    /**
+     * Report every match of a pattern that starts in {@code [from, to)}.
+     * Matches may extend past {@code to}.
+     *
+     * @param buf     the bytes; read with absolute gets only
+     * @param pattern from {@link #pattern(String)}
+     * @param from    first start offset
+     * @param to      end of the start-offset range
+     * @param hit     receives each match offset; returning {@code false}
+     *                stops the scan
+     * @return {@code false} if {@code hit} stopped the scan
+     */
+    static boolean scan(ByteBuffer buf, byte[] pattern, int from, int to, IntPredicate hit) {
+        int stop = Math.min(to, buf.limit() - pattern.length + 1);
+        byte first = pattern[0];
+        for (int i = from; i < stop; i++) {
+            if (lower(buf.get(i)) != first) {
+                continue;
+            }
+            int k = 1;
+            while (k < pattern.length && lower(buf.get(i + k)) == pattern[k]) {
+                k++;
+            }
+            if (k == pattern.length && !hit.test(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the offsets of a query, scanning chunks in parallel.
+     *
+     * @param buf   the bytes
+     * @param query the text to find, ignoring ASCII case
+     * @param limit most offsets returned
+     * @return the first {@code limit} match offsets, ascending
+     */
+    static int[] find(ByteBuffer buf, String query, int limit) {
+        if (query == null || query.isEmpty() || buf.limit() == 0) {
+            return new int[0];
+        }
+        byte[] pattern = pattern(query);
+        int size = buf.limit();
+        int chunks = (size + CHUNK - 1) / CHUNK;
+
+        int[][] parts = IntStream.range(0, chunks).parallel().mapToObj(c -> {
+            int[][] hits = { new int[16] };
+            int[] n = { 0 };
+            int from = c * CHUNK;
+            scan(buf, pattern, from, (int) Math.min(size, (long) from + CHUNK), i -> {
+                if (n[0] == hits[0].length) {
+                    hits[0] = Arrays.copyOf(hits[0], 2 * n[0]);
+                }
+                hits[0][n[0]++] = i;
+                return n[0] < limit;
+            });
+            return Arrays.copyOf(hits[0], n[0]);
+        }).toArray(int[][]::new);
+
+        return concat(parts, limit);
+    }
+
+    // -------------------------------------------------------------------------
+    // Rows
+    // -------------------------------------------------------------------------
+
+    /**
+     * Find the start offset of every display row: one row per line, with
+     * lines longer than {@code wrap} bytes broken into several rows at UTF-8
+     * character boundaries. Newlines are found in parallel.
+     *
+     * @param buf  the bytes
+     * @param wrap longest row in bytes
+     * @return row start offsets, ascending, beginning with 0
+     */
+    static int[] rowStarts(ByteBuffer buf, int wrap) {
+        int size = buf.limit();
+        int chunks = Math.max(1, (size + CHUNK - 1) / CHUNK);
+
+        int[][] parts = IntStream.range(0, chunks).parallel().mapToObj(c -> {
+            int from = c * CHUNK;
+            int to = (int) Math.min(size, (long) from + CHUNK);
+            int[] nl = new int[64];
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                if (buf.get(i) == '\n') {
+                    if (n == nl.length) {
+                        nl = Arrays.copyOf(nl, 2 * n);
+                    }
+                    nl[n++] = i;
+                }
+            }
+            return Arrays.copyOf(nl, n);
+        }).toArray(int[][]::new);
+        int[] newlines = concat(parts, Integer.MAX_VALUE);
+
+        int[] rows = new int[newlines.length + 1 + size / Math.max(1, wrap)];
+        int n = 0;
+        rows[n++] = 0;
+        int rowStart = 0;
+        for (int k = 0; k <= newlines.length; k++) {
+            int lineEnd = (k < newlines.length) ? newlines[k] : size;
+            while (lineEnd - rowStart > wrap) {
+                int b = rowStart + wrap;
+                while (b > rowStart + 1 && (buf.get(b) & 0xC0) == 0x80) {
+                    b--; // do not split a multi-byte character
+                }
+                rows = ensure(rows, n);
+                rows[n++] = b;
+                rowStart = b;
+            }
+            if (k < newlines.length && lineEnd + 1 < size) {
+                rows = ensure(rows, n);
+                rows[n++] = lineEnd + 1;
+                rowStart = lineEnd + 1;
+            }
+        }
+        return Arrays.copyOf(rows, n);
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    static byte lower(byte b) {
+        return (b >= 'A' && b <= 'Z') ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private static int[] ensure(int[] a, int n) {
+        return (n < a.length) ? a : Arrays.copyOf(a, 2 * a.length + 1);
+    }
+
+    private static int[] concat(int[][] parts, int limit) {
+        long total = 0;
+        for (int[] p : parts) {
+            total += p.length;
+        }
+        int[] all = new int[(int) Math.min(total, limit)];
+        int n = 0;
+        for (int[] p : parts) {
+            int k = Math.min(p.length, all.length - n);
+            System.arraycopy(p, 0, all, n, k);
+            n += k;
+        }
+        return all;
+    }
+}
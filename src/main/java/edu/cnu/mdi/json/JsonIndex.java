@@ -0,0 +1,593 @@
+package edu.cnu.mdi.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.DoubleConsumer;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+/**
+ * Byte-offset index of the objects and arrays in a JSON file, built by one
+ * streaming pass over a memory-mapped copy of the file.
+ *
+ * <h2>What is indexed</h2>
+ * <p>
+ * Only containers are indexed. They are numbered in document (pre-order)
+ * order, so a container's number is larger than its parent's and start
+ * offsets increase with the number. For each container the index keeps its
+ * start and end byte offsets, its parent, its number of members and whether
+ * it is an object. Scalars are not indexed: their offsets are collected only
+ * when their container is {@link #children(int) expanded}, by a byte scan of
+ * that container's members that jumps over nested containers to their
+ * recorded end offsets, so expanding costs the container's own bytes and
+ * never re-tokenizes what it contains. Memory is
+ * therefore proportional to the number of containers, not to the file size
+ * or the number of values.
+ * </p>
+ *
+ * <h2>Search</h2>
+ * <p>
+ * {@link #findContainers(String)} scans the mapped bytes in parallel chunks
+ * and maps every hit to the innermost container holding it, so a search
+ * never parses the document or builds a tree.
+ * </p>
+ *
+ * <h2>Limits</h2>
+ * <p>
+ * A single mapping covers at most {@link Integer#MAX_VALUE} bytes, so files of
+ * 2 GB or more are rejected. Scalar labels are cut to
+ * {@value #MAX_LABEL_CHARS} characters.
+ * </p>
+ *
+ * <p>Instances are immutable once built and may be read from any thread.</p>
+ */
+public final class JsonIndex {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Longest scalar label returned by {@link #valueData(String, long)}. */
+    public static final int MAX_LABEL_CHARS = 500;
+
+    /** Progress is reported after at most this many containers. */
+    private static final int PROGRESS_INTERVAL = 4096;
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    // -------------------------------------------------------------------------
+    // Expanded container
+    // -------------------------------------------------------------------------
+
+    /**
+     * Members of one container, collected on demand.
+     *
+     * @param offsets byte offset of each member's value
+     * @param keys    member names for an object, or {@code null} for an array
+     */
+    public record Children(long[] offsets, String[] keys) {
+
+        /** @return the number of members */
+        public int size() {
+            return offsets.length;
+        }
+
+        /**
+         * @param i member position
+         * @return the member name, or {@code [i]} for an array element
+         */
+        public String key(int i) {
+            return (keys == null) ? "[" + i + "]" : keys[i];
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Instance state
+    // -------------------------------------------------------------------------
+
+    private final MappedByteBuffer data;
+
+    private int count;
+    private long[] start = new long[256];
+    private long[] end = new long[256];
+    private int[] parent = new int[256];
+    private int[] childCount = new int[256];
+    private final BitSet objects = new BitSet();
+
+    /** Offset of the root value. */
+    private long rootOffset;
+
+    // -------------------------------------------------------------------------
+    // Construction
+    // -------------------------------------------------------------------------
+
+    private JsonIndex(MappedByteBuffer data) {
+        this.data = data;
+    }
+
+    /**
+     * Index a JSON file.
+     *
+     * @param path the file
+     * @return the index
+     * @throws IOException if the file cannot be read, is too large, or is not
+     *                     well-formed JSON
+     */
+    public static JsonIndex build(Path path) throws IOException {
+        return build(path, null);
+    }
+
+    /**
+     * Index a JSON file, reporting progress as the fraction of bytes read.
+     *
+     * @param path     the file
+     * @param progress receives values in [0, 1]; may be {@code null}
+     * @return the index
+     * @throws IOException if the file cannot be read, is too large, or is not
+     *                     well-formed JSON
+     */
+    public static JsonIndex build(Path path, DoubleConsumer progress) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("JSON file too large to index: " + size + " bytes");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        JsonIndex index = new JsonIndex(mapped);
+        index.scan(progress);
+        return index;
+    }
+
+    /** The single streaming pass that fills the container arrays. */
+    private void scan(DoubleConsumer progress) throws IOException {
+        double size = Math.max(1, data.capacity());
+        int[] stack = new int[64];
+        int depth = 0;
+        boolean seenRoot = false;
+
+        try (JsonParser p = FACTORY.createParser(stream(0))) {
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                switch (t) {
+                case FIELD_NAME:
+                    break;
+
+                case START_OBJECT:
+                case START_ARRAY: {
+                    long offset = p.currentTokenLocation().getByteOffset();
+                    int up = (depth > 0) ? stack[depth - 1] : -1;
+                    if (up >= 0) {
+                        childCount[up]++;
+                    } else {
+                        seenRoot = checkSingleRoot(seenRoot, offset);
+                    }
+                    int id = add(offset, up, t == JsonToken.START_OBJECT);
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, 2 * depth);
+                    }
+                    stack[depth++] = id;
+                    if (progress != null && id % PROGRESS_INTERVAL == 0) {
+                        progress.accept(offset / size);
+                    }
+                    break;
+                }
+
+                case END_OBJECT:
+                case END_ARRAY:
+                    end[stack[--depth]] = p.currentTokenLocation().getByteOffset() + 1;
+                    break;
+
+                default:
+                    if (depth > 0) {
+                        childCount[stack[depth - 1]]++;
+                    } else {
+                        seenRoot = checkSingleRoot(seenRoot, p.currentTokenLocation().getByteOffset());
+                    }
+                    break;
+                }
+            }
+        }
+        if (!seenRoot) {
+            throw new IOException("No JSON content.");
+        }
+        if (progress != null) {
+            progress.accept(1);
+        }
+    }
+
+    private boolean checkSingleRoot(boolean seenRoot, long offset) throws IOException {
+        if (seenRoot) {
+            throw new IOException("More than one root value (second at byte " + offset + ").");
+        }
+        rootOffset = offset;
+        return true;
+    }
+
+    private int add(long offset, int up, boolean object) {
+        if (count == start.length) {
+            int n = 2 * count;
+            start = Arrays.copyOf(start, n);
+            end = Arrays.copyOf(end, n);
+            parent = Arrays.copyOf(parent, n);
+            childCount = Arrays.copyOf(childCount, n);
+        }
+        start[count] = offset;
+        parent[count] = up;
+        if (object) {
+            objects.set(count);
+        }
+        return count++;
+    }
+
+    // -------------------------------------------------------------------------
+    // Container queries
+    // -------------------------------------------------------------------------
+
+    /** @return the file size in bytes */
+    public long size() {
+        return data.capacity();
+    }
+
+    /** @return the number of indexed objects and arrays */
+    public int containerCount() {
+        return count;
+    }
+
+    /**
+     * @return the number of the root container, or -1 if the root value is
+     *         a scalar
+     */
+    public int rootContainer() {
+        return (count > 0 && start[0] == rootOffset) ? 0 : -1;
+    }
+
+    /** @return byte offset of the root value */
+    public long rootOffset() {
+        return rootOffset;
+    }
+
+    /**
+     * @param id container number
+     * @return the number of members
+     */
+    public int childCount(int id) {
+        return childCount[id];
+    }
+
+    /**
+     * @param id container number
+     * @return the enclosing container, or -1 for the root
+     */
+    public int parent(int id) {
+        return parent[id];
+    }
+
+    /**
+     * @param id container number
+     * @return {@code true} for an object, {@code false} for an array
+     */
+    public boolean isObject(int id) {
+        return objects.get(id);
+    }
+
+    /**
+     * @param id container number
+     * @return byte offset of the opening bracket
+     */
+    public long start(int id) {
+        return start[id];
+    }
+
+    /**
+     * @param id container number
+     * @return byte offset just past the closing bracket
+     */
+    public long end(int id) {
+        return end[id];
+    }
+
+    /**
+     * Find the container that starts at a byte offset.
+     *
+     * @param offset byte offset of a value
+     * @return the container number, or -1 if no container starts there
+     */
+    public int containerAt(long offset) {
+        int i = Arrays.binarySearch(start, 0, count, offset);
+        return (i >= 0) ? i : -1;
+    }
+
+    /**
+     * Find the innermost container whose brackets enclose a byte offset.
+     *
+     * @param offset a byte offset
+     * @return the container number, or -1 if the offset is outside them all
+     */
+    public int containerEnclosing(long offset) {
+        int i = Arrays.binarySearch(start, 0, count, offset);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        while (i >= 0 && end[i] <= offset) {
+            i = parent[i];
+        }
+        return i;
+    }
+
+    // -------------------------------------------------------------------------
+    // Expansion
+    // -------------------------------------------------------------------------
+
+    /**
+     * Collect the members of a container with a byte scan of its own
+     * members. Nested containers are not tokenized: the scan jumps straight
+     * to their recorded end offsets.
+     *
+     * @param id container number
+     * @return the members
+     * @throws IOException if the bytes are not the JSON that was indexed
+     */
+    public Children children(int id) throws IOException {
+        int n = childCount[id];
+        long[] offsets = new long[n];
+        String[] keys = isObject(id) ? new String[n] : null;
+        StringBuilder key = new StringBuilder();
+
+        try {
+            int pos = (int) start[id] + 1;
+            for (int i = 0; i < n; i++) {
+                pos = skipSpace(pos);
+                if (keys != null) {
+                    key.setLength(0);
+                    pos = skipSpace(readString(pos, key, Integer.MAX_VALUE)) + 1; // past ':'
+                    keys[i] = key.toString();
+                    pos = skipSpace(pos);
+                }
+                offsets[i] = pos;
+                pos = skipSpace(skipValue(pos)) + 1; // past ',' or the closing bracket
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Malformed JSON in container " + id + " at byte " + start[id], e);
+        }
+        return new Children(offsets, keys);
+    }
+
+    /**
+     * Describe the value at a byte offset for display. Only the value's own
+     * bytes are read; no parser is created.
+     *
+     * @param key    the key or index label of the value
+     * @param offset byte offset of the value
+     * @return a {@link JsonNodeData.Kind#KEY KEY} summary for a container,
+     *         otherwise the scalar's kind and text
+     * @throws IOException if the bytes cannot be parsed
+     */
+    public JsonNodeData valueData(String key, long offset) throws IOException {
+        int id = containerAt(offset);
+        if (id >= 0) {
+            int n = childCount[id];
+            String summary = isObject(id)
+                    ? "{" + n + (n == 1 ? " key}" : " keys}")
+                    : "[" + n + (n == 1 ? " item]" : " items]");
+            return new JsonNodeData(key, summary, JsonNodeData.Kind.KEY);
+        }
+        if (offset >= data.capacity()) {
+            return new JsonNodeData(key, "", JsonNodeData.Kind.NULL);
+        }
+
+        int pos = (int) offset;
+        try {
+            byte b = data.get(pos);
+            if (b == '"') {
+                StringBuilder text = new StringBuilder();
+                readString(pos, text, MAX_LABEL_CHARS + 1);
+                return new JsonNodeData(key, "\"" + clip(text.toString()) + "\"", JsonNodeData.Kind.STRING);
+            }
+            String text = ascii(pos, skipValue(pos));
+            return switch (b) {
+                case 't', 'f' -> new JsonNodeData(key, text, JsonNodeData.Kind.BOOLEAN);
+                case 'n' -> new JsonNodeData(key, "null", JsonNodeData.Kind.NULL);
+                default -> new JsonNodeData(key, text, JsonNodeData.Kind.NUMBER);
+            };
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Malformed JSON value at byte " + offset, e);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Byte scanning (the bytes were validated by the indexing pass)
+    // -------------------------------------------------------------------------
+
+    private int skipSpace(int pos) {
+        int size = data.capacity();
+        while (pos < size) {
+            byte b = data.get(pos);
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    /** Offset just past the value starting at {@code pos}. */
+    private int skipValue(int pos) {
+        byte b = data.get(pos);
+        if (b == '{' || b == '[') {
+            return (int) end[containerAt(pos)];
+        }
+        if (b == '"') {
+            return readString(pos, null, 0);
+        }
+        int size = data.capacity();
+        while (pos < size) {
+            b = data.get(pos);
+            if (b == ',' || b == ']' || b == '}' || b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Read the string starting with the quote at {@code pos}.
+     *
+     * @param out receives the decoded text, or {@code null} to only skip
+     * @param max stop decoding once {@code out} holds this many characters;
+     *            the string is still skipped to its end
+     * @return offset just past the closing quote
+     */
+    private int readString(int pos, StringBuilder out, int max) {
+        int i = pos + 1;
+        int from = i;
+        while (true) {
+            byte b = data.get(i);
+            if (b == '"') {
+                decode(from, i, out, max);
+                return i + 1;
+            }
+            if (b != '\\') {
+                i++;
+                continue;
+            }
+            decode(from, i, out, max);
+            byte e = data.get(i + 1);
+            char c;
+            int len = 2;
+            switch (e) {
+            case 'b' -> c = '\b';
+            case 'f' -> c = '\f';
+            case 'n' -> c = '\n';
+            case 'r' -> c = '\r';
+            case 't' -> c = '\t';
+            case 'u' -> {
+                c = (char) Integer.parseInt(ascii(i + 2, i + 6), 16);
+                len = 6;
+            }
+            default -> c = (char) e; // quote, backslash or slash
+            }
+            if (out != null && out.length() < max) {
+                out.append(c);
+            }
+            i += len;
+            from = i;
+        }
+    }
+
+    /** Append the UTF-8 bytes {@code [from, to)}, at most about what fits. */
+    private void decode(int from, int to, StringBuilder out, int max) {
+        if (out == null || out.length() >= max || from == to) {
+            return;
+        }
+        // a character takes at most 4 bytes; one extra keeps a cut
+        // multi-byte sequence past the last character needed
+        int len = (int) Math.min(to - from, 4L * (max - out.length()) + 4);
+        byte[] bytes = new byte[len];
+        data.get(from, bytes);
+        out.append(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private String ascii(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        data.get(from, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static String clip(String s) {
+        return (s.length() <= MAX_LABEL_CHARS) ? s : s.substring(0, MAX_LABEL_CHARS) + "…";
+    }
+
+    // -------------------------------------------------------------------------
+    // Search
+    // -------------------------------------------------------------------------
+
+    /**
+     * Find the containers that hold {@code query} anywhere in their bytes.
+     * The comparison ignores ASCII case. Each hit marks the innermost
+     * enclosing container and all of its ancestors. A hit outside every
+     * container (a scalar root) marks nothing.
+     *
+     * @param query the text to find
+     * @return container numbers with a hit in their subtree
+     */
+    public BitSet findContainers(String query) {
+        BitSet found = new BitSet(count);
+        if (query == null || query.isEmpty() || count == 0) {
+            return found;
+        }
+        byte[] pattern = ByteScan.pattern(query);
+        int size = data.capacity();
+        int chunks = (int) ((size + (long) ByteScan.CHUNK - 1) / ByteScan.CHUNK);
+
+        BitSet hits = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> scanChunk(pattern, c * ByteScan.CHUNK,
+                        (int) Math.min(size, (long) (c + 1) * ByteScan.CHUNK)))
+                .reduce(new BitSet(), (a, b) -> {
+                    BitSet r = (BitSet) a.clone();
+                    r.or(b);
+                    return r;
+                });
+
+        // parents have smaller numbers, so one descending sweep marks them all
+        found.or(hits);
+        for (int i = found.previousSetBit(count - 1); i >= 0; i = found.previousSetBit(i - 1)) {
+            if (parent[i] >= 0) {
+                found.set(parent[i]);
+            }
+        }
+        return found;
+    }
+
+    /** Hits starting in {@code [from, to)}, as innermost containers. */
+    private BitSet scanChunk(byte[] pattern, int from, int to) {
+        BitSet hits = new BitSet();
+        ByteScan.scan(data, pattern, from, to, i -> {
+            int id = containerEnclosing(i);
+            if (id >= 0) {
+                hits.set(id);
+            }
+            return true;
+        });
+        return hits;
+    }
+
+    // -------------------------------------------------------------------------
+    // Raw bytes
+    // -------------------------------------------------------------------------
+
+    /**
+     * Open a stream over the mapped bytes from an offset to the end.
+     *
+     * @param offset first byte
+     * @return an independent stream
+     */
+    public InputStream stream(long offset) {
+        ByteBuffer view = data.duplicate();
+        view.position((int) offset);
+        return new ByteBufferBackedInputStream(view);
+    }
+
+    /**
+     * A read-only view of the whole mapped file, for display and search.
+     *
+     * @return an independent buffer positioned at 0
+     */
+    public ByteBuffer bytes() {
+        return data.asReadOnlyBuffer();
+    }
+}
@@ -0,0 +1,441 @@
+package edu.cnu.mdi.json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.swing.SwingWorker;
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+
+import edu.cnu.mdi.log.Log;
+
+/**
+ * A read-only {@link TreeModel} over a {@link JsonIndex} that materializes a
+ * node's children only when the tree asks for them.
+ *
+ * <h2>Nodes</h2>
+ * <p>
+ * A node is identified by its parent container and its position among that
+ * container's members, and compares equal to any other node with the same
+ * identity. Nodes can therefore be created on demand and discarded freely:
+ * the members of a container are collected by {@link JsonIndex#children(int)}
+ * when the tree first asks for them, and both member lists and nodes are kept
+ * in small LRU caches rather than for the lifetime of the model. The member
+ * lists of expanded containers are held outside the LRU until the container
+ * collapses (see {@link #expanded(Object)}), since the tree has already laid
+ * out their rows.
+ * </p>
+ *
+ * <h2>Large containers</h2>
+ * <p>
+ * A container with at least {@value #BACKGROUND_MEMBERS} members is collected
+ * on a background thread. Until it arrives the node shows a single
+ * "Loading…" child; then the model fires a structure change for the node and
+ * the tree shows the members.
+ * </p>
+ *
+ * <h2>Filtering</h2>
+ * <p>
+ * A model built with a query shows only the members that lead to a match:
+ * containers marked by {@link JsonIndex#findContainers(String)} and members
+ * whose own label contains the query (case-insensitive). Labels are read by
+ * {@link JsonIndex#valueData(String, long)}, which decodes only the member's
+ * own bytes. Unlike the eager tree's filter, no copy of the tree is made.
+ * </p>
+ *
+ * <p>Use from the EDT.</p>
+ */
+final class JsonIndexTreeModel implements TreeModel {
+
+    /** Member lists kept in memory. */
+    private static final int CHILD_CACHE = 256;
+
+    /** Nodes kept in memory. */
+    private static final int NODE_CACHE = 4096;
+
+    /** Member count from which a container is collected off the EDT. */
+    static final int BACKGROUND_MEMBERS = 20_000;
+
+    /** Label of the placeholder child shown while members load. */
+    static final String LOADING = "Loading…";
+
+    /**
+     * One tree node.
+     * <p>
+     * {@code owner} is the container whose member this node is ({@code -2}
+     * for the root, {@code -1} for the single child of a scalar root), and
+     * {@code position} its index among all of that container's members, or
+     * -1 for the placeholder shown while the members load.
+     * </p>
+     */
+    static final class Node {
+
+        final int owner;
+        final int position;
+
+        /** Container this node shows, or -1 for a scalar. */
+        final int container;
+
+        final JsonNodeData data;
+
+        /** Parent node, {@code null} for the root; not part of the identity. */
+        final Node parent;
+
+        Node(int owner, int position, int container, JsonNodeData data, Node parent) {
+            this.owner = owner;
+            this.position = position;
+            this.container = container;
+            this.data = data;
+            this.parent = parent;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o instanceof Node n) && n.owner == owner && n.position == position;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * owner + position;
+        }
+
+        @Override
+        public String toString() {
+            return data.toString();
+        }
+    }
+
+    /**
+     * Members of one container, and which of them pass the filter. The
+     * {@link #PENDING} list stands for members still loading.
+     */
+    private record ChildList(JsonIndex.Children children, int[] shown) {
+
+        static final ChildList PENDING = new ChildList(new JsonIndex.Children(new long[0], null), new int[] { -1 });
+
+        int size() {
+            return (shown == null) ? children.size() : shown.length;
+        }
+
+        int position(int row) {
+            return (shown == null) ? row : shown[row];
+        }
+
+        int row(int position) {
+            if (shown == null) {
+                return (position < children.size()) ? position : -1;
+            }
+            int r = Arrays.binarySearch(shown, position);
+            return (r >= 0) ? r : -1;
+        }
+    }
+
+    private final JsonIndex index;
+    private final Node root;
+    private final String lowerQuery;
+    private final BitSet matches;
+    private final EventListenerList listeners = new EventListenerList();
+
+    private final Map<Integer, ChildList> childCache = lru(CHILD_CACHE);
+
+    /** Member lists of expanded containers, exempt from LRU eviction. */
+    private final Map<Integer, ChildList> pinned = new HashMap<>();
+
+    /** Containers the tree shows expanded. */
+    private final Set<Integer> expanded = new HashSet<>();
+    private final Map<Long, Node> nodeCache = lru(NODE_CACHE);
+
+    /** Containers whose members are being collected in the background. */
+    private final Set<Integer> loading = new HashSet<>();
+
+    /**
+     * Create an unfiltered model.
+     *
+     * @param index     the indexed file
+     * @param rootLabel label of the root node, usually the file name
+     */
+    JsonIndexTreeModel(JsonIndex index, String rootLabel) {
+        this(index, rootLabel, null, null);
+    }
+
+    /**
+     * Create a model showing only the paths to matches of {@code query}.
+     *
+     * @param index     the indexed file
+     * @param rootLabel label of the root node
+     * @param query     the query; {@code null} for no filtering
+     * @param matches   result of {@link JsonIndex#findContainers(String)}
+     *                  for {@code query}; ignored if {@code query} is
+     *                  {@code null}
+     */
+    JsonIndexTreeModel(JsonIndex index, String rootLabel, String query, BitSet matches) {
+        this.index = Objects.requireNonNull(index, "index");
+        this.root = new Node(-2, 0, index.rootContainer(),
+                new JsonNodeData(rootLabel, "", JsonNodeData.Kind.ROOT), null);
+        this.lowerQuery = (query == null) ? null : query.toLowerCase();
+        this.matches = (query == null) ? null : matches;
+    }
+
+    private static <K, V> Map<K, V> lru(int max) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > max;
+            }
+        };
+    }
+
+    /** @return whether this model shows a filtered view */
+    boolean isFiltered() {
+        return lowerQuery != null;
+    }
+
+    /**
+     * Number of members of a node's container without collecting them.
+     *
+     * @param node a node of this model
+     * @return the member count, 0 for scalars
+     */
+    int memberCount(Object node) {
+        Node n = (Node) node;
+        if (n == root && n.container < 0) {
+            return 1;
+        }
+        return (n.container < 0) ? 0 : index.childCount(n.container);
+    }
+
+    /**
+     * Note that the tree is about to expand a node. Its member list is kept
+     * until {@link #collapsed(Object)}, so the row count the tree lays out
+     * never reverts to the loading placeholder.
+     *
+     * @param node a node of this model
+     */
+    void expanded(Object node) {
+        Node n = (Node) node;
+        int owner = ownerId(n);
+        if ((owner >= 0 || n.owner == -2) && expanded.add(owner)) {
+            ChildList list = childCache.remove(owner);
+            if (list != null) {
+                pinned.put(owner, list);
+            }
+        }
+    }
+
+    /**
+     * Note that the tree collapsed a node; its member list becomes subject
+     * to LRU eviction again.
+     *
+     * @param node a node of this model
+     */
+    void collapsed(Object node) {
+        int owner = ownerId((Node) node);
+        if (expanded.remove(owner)) {
+            ChildList list = pinned.remove(owner);
+            if (list != null) {
+                childCache.put(owner, list);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // TreeModel
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Object getRoot() {
+        return root;
+    }
+
+    @Override
+    public Object getChild(Object parent, int row) {
+        Node p = (Node) parent;
+        ChildList list = childList(p);
+        if (list == null || row < 0 || row >= list.size()) {
+            return null;
+        }
+        if (list == ChildList.PENDING) {
+            return new Node(ownerId(p), -1, -1, new JsonNodeData("", LOADING, JsonNodeData.Kind.NULL), p);
+        }
+        return node(p, list, list.position(row));
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        ChildList list = childList((Node) parent);
+        return (list == null) ? 0 : list.size();
+    }
+
+    @Override
+    public boolean isLeaf(Object node) {
+        Node n = (Node) node;
+        return n != root && n.container < 0;
+    }
+
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (!(parent instanceof Node p) || !(child instanceof Node c) || c.owner != ownerId(p)) {
+            return -1;
+        }
+        ChildList list = childList(p);
+        return (list == null) ? -1 : list.row(c.position);
+    }
+
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+        // read-only
+    }
+
+    @Override
+    public void addTreeModelListener(TreeModelListener l) {
+        listeners.add(TreeModelListener.class, l);
+    }
+
+    @Override
+    public void removeTreeModelListener(TreeModelListener l) {
+        listeners.remove(TreeModelListener.class, l);
+    }
+
+    // -------------------------------------------------------------------------
+    // Materialization
+    // -------------------------------------------------------------------------
+
+    /** Owner id used by the children of {@code p}. */
+    private static int ownerId(Node p) {
+        return (p.owner == -2 && p.container < 0) ? -1 : p.container;
+    }
+
+    private ChildList childList(Node p) {
+        int owner = ownerId(p);
+        if (owner < 0 && p.owner != -2) {
+            return null; // scalar
+        }
+        ChildList list = pinned.get(owner);
+        if (list == null) {
+            list = childCache.get(owner);
+        }
+        if (list == null) {
+            if (owner >= 0 && index.childCount(owner) >= BACKGROUND_MEMBERS) {
+                loadInBackground(p, owner);
+                return ChildList.PENDING;
+            }
+            try {
+                list = load(owner);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            cache(owner, list);
+        }
+        return list;
+    }
+
+    private void cache(int owner, ChildList list) {
+        if (expanded.contains(owner)) {
+            pinned.put(owner, list);
+        } else {
+            childCache.put(owner, list);
+        }
+    }
+
+    /**
+     * Collect a large container's members on a worker thread, then cache
+     * them and tell the tree that {@code p}'s children changed.
+     */
+    private void loadInBackground(Node p, int owner) {
+        if (!loading.add(owner)) {
+            return;
+        }
+        new SwingWorker<ChildList, Void>() {
+
+            @Override
+            protected ChildList doInBackground() throws IOException {
+                return load(owner);
+            }
+
+            @Override
+            protected void done() {
+                loading.remove(owner);
+                ChildList list;
+                try {
+                    list = get();
+                } catch (Exception e) {
+                    Log.getInstance().exception(e);
+                    list = new ChildList(new JsonIndex.Children(new long[0], null), null);
+                }
+                cache(owner, list);
+                fireStructureChanged(p);
+            }
+        }.execute();
+    }
+
+    private void fireStructureChanged(Node p) {
+        List<Node> path = new ArrayList<>();
+        for (Node n = p; n != null; n = n.parent) {
+            path.add(n);
+        }
+        Collections.reverse(path);
+        TreeModelEvent event = new TreeModelEvent(this, path.toArray());
+        for (TreeModelListener l : listeners.getListeners(TreeModelListener.class)) {
+            l.treeStructureChanged(event);
+        }
+    }
+
+    /**
+     * Collect a container's members and apply the filter. Touches neither
+     * cache, so it may run on any thread.
+     */
+    private ChildList load(int owner) throws IOException {
+        JsonIndex.Children children = (owner < 0)
+                ? new JsonIndex.Children(new long[] { index.rootOffset() }, new String[] { "" })
+                : index.children(owner);
+        if (lowerQuery == null) {
+            return new ChildList(children, null);
+        }
+
+        int[] shown = new int[children.size()];
+        int n = 0;
+        for (int i = 0; i < children.size(); i++) {
+            long offset = children.offsets()[i];
+            int container = index.containerAt(offset);
+            boolean keep = (container >= 0 && matches.get(container))
+                    || index.valueData(children.key(i), offset).toString().toLowerCase().contains(lowerQuery);
+            if (keep) {
+                shown[n++] = i;
+            }
+        }
+        return new ChildList(children, Arrays.copyOf(shown, n));
+    }
+
+    private Node node(Node p, ChildList list, int position) {
+        int owner = ownerId(p);
+        long key = ((long) owner << 32) | (position & 0xffffffffL);
+        Node n = nodeCache.get(key);
+        if (n == null) {
+            long offset = list.children().offsets()[position];
+            try {
+                n = new Node(owner, position, index.containerAt(offset),
+                        index.valueData(list.children().key(position), offset), p);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            nodeCache.put(key, n);
+        }
+        return n;
+    }
+}
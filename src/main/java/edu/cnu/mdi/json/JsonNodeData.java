@@ -2,7 +2,8 @@ package edu.cnu.mdi.json;
 
 /**
  * Immutable value object carried as the user-object of every
- * {@link javax.swing.tree.DefaultMutableTreeNode} in the JSON tree.
+ * {@link javax.swing.tree.DefaultMutableTreeNode} in the JSON tree, and by
+ * every node of the lazy {@link JsonIndexTreeModel}.
  *
  * <h2>Purpose</h2>
  * <p>
@@ -97,6 +98,28 @@ public final class JsonNodeData {
         this.kind  = kind;
     }
 
+    // -------------------------------------------------------------------------
+    // Lookup
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the data carried by a tree node of either JSON tree model: the
+     * user object of a {@link javax.swing.tree.DefaultMutableTreeNode} or the
+     * data of a {@link JsonIndexTreeModel} node.
+     *
+     * @param node a tree node
+     * @return its data, or {@code null} if it carries none
+     */
+    static JsonNodeData of(Object node) {
+        if (node instanceof javax.swing.tree.DefaultMutableTreeNode dmtn) {
+            return (dmtn.getUserObject() instanceof JsonNodeData d) ? d : null;
+        }
+        if (node instanceof JsonIndexTreeModel.Node n) {
+            return n.data;
+        }
+        return null;
+    }
+
     // -------------------------------------------------------------------------
     // Object
     // -------------------------------------------------------------------------
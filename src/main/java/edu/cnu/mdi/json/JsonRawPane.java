@@ -1,18 +1,13 @@
 package edu.cnu.mdi.json;
 
 import java.awt.Color;
-import java.awt.Font;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.function.BiConsumer;
 
-import javax.swing.text.BadLocationException;
-import javax.swing.text.DefaultHighlighter;
-import javax.swing.text.Highlighter;
-import javax.swing.text.SimpleAttributeSet;
-import javax.swing.text.StyledDocument;
-
-import edu.cnu.mdi.component.TextPaneScrollPane;
+import javax.swing.BorderFactory;
+import javax.swing.JScrollPane;
+import javax.swing.SwingWorker;
 
 /**
  * The left half of the {@link JsonSplitPane}: a read-only, syntax-colored
@@ -20,31 +15,25 @@ import edu.cnu.mdi.component.TextPaneScrollPane;
  *
  * <h2>Design</h2>
  * <p>
- * Extends {@link TextPaneScrollPane} so all the Nimbus-safe background wiring,
- * {@link javax.swing.text.StyledDocument} setup, and
- * {@link #createStyle(Color, String, int, boolean, boolean)} factory method are
- * inherited without duplication.
- * </p>
- *
- * <h2>Colorization strategy</h2>
- * <p>
- * Text is inserted in one shot with the {@link #STYLE_PLAIN} base style, then
- * {@link JsonTokenPainter} makes a second pass to apply token-level color runs
- * using {@link StyledDocument#setCharacterAttributes}. Doing the insert first
- * and the coloring second keeps insertion fast regardless of file size —
- * {@code setCharacterAttributes} on an already-inserted document is much
- * cheaper than inserting with per-character attributes.
+ * A scroll pane around a {@link JsonTextView}, which reads the UTF-8 bytes of
+ * the document directly — for a file, the memory mapping made by
+ * {@link JsonIndex} — and decodes, tokenizes and colors only the rows in view.
+ * Showing a file therefore costs one background pass to find the line starts,
+ * whatever its size, and no copy of the text is ever held as a
+ * {@code String} or a styled document.
  * </p>
  *
  * <h2>Search highlighting</h2>
  * <p>
- * {@link #highlight(String, BiConsumer)} uses the {@link Highlighter} API
- * (layered on top of the {@link StyledDocument} coloring) so that syntax
- * colors are never disturbed by a search. Two highlight painter instances are
- * maintained: one for all matches (dim yellow) and one for the currently
- * selected match (bright orange). {@link #nextHighlight()} and
- * {@link #prevHighlight()} cycle through the match list and scroll the pane to
- * keep the current match visible.
+ * {@link #highlight(String, BiConsumer)} scans the bytes for the query
+ * ({@link ByteScan#find}), in parallel and — for content over
+ * {@value JsonTextView#SYNC_INDEX_LIMIT} bytes — on a background thread. The
+ * result is a sorted array of match offsets, at most {@value #MAX_MATCHES};
+ * the view paints the ones in the rows it draws, the current one in bright
+ * orange and the others in dim yellow. A newer query or new content makes an
+ * older search's result stale, and it is dropped. {@link #nextHighlight()} and
+ * {@link #prevHighlight()} cycle through the matches and scroll the current
+ * one into view. Matching ignores ASCII case.
  * </p>
  *
  * <h2>Color scheme</h2>
@@ -60,7 +49,7 @@ import edu.cnu.mdi.component.TextPaneScrollPane;
  * </ul>
  */
 @SuppressWarnings("serial")
-public class JsonRawPane extends TextPaneScrollPane {
+public class JsonRawPane extends JScrollPane {
 
     // -------------------------------------------------------------------------
     // Color palette
@@ -93,83 +82,22 @@ public class JsonRawPane extends TextPaneScrollPane {
     /** Red used for inline error messages. */
     private static final Color COLOR_ERROR = new Color(220, 80, 80);
 
-    /** Dim yellow used for non-current search match highlights. */
-    private static final Color COLOR_MATCH         = new Color(180, 160, 50, 120);
-
-    /** Bright orange used for the currently selected search match. */
-    private static final Color COLOR_MATCH_CURRENT = new Color(230, 120, 20, 200);
-
-    // -------------------------------------------------------------------------
-    // Shared styles  (package-visible so JsonTokenPainter can use them)
-    // -------------------------------------------------------------------------
-
-    /** Base style: near-white, monospaced 12 pt, not bold, not italic. */
-    static final SimpleAttributeSet STYLE_PLAIN =
-            createStyle(COLOR_PLAIN,      PANE_BG, "monospaced", 12, false, false);
-
-    /** Key style: cornflower blue, bold. */
-    static final SimpleAttributeSet STYLE_KEY =
-            createStyle(COLOR_KEY,        PANE_BG, "monospaced", 12, false, true);
-
-    /** String-value style: pale green. */
-    static final SimpleAttributeSet STYLE_STRING =
-            createStyle(COLOR_STRING,     PANE_BG, "monospaced", 12, false, false);
-
-    /** Number style: gold. */
-    static final SimpleAttributeSet STYLE_NUMBER =
-            createStyle(COLOR_NUMBER,     PANE_BG, "monospaced", 12, false, false);
-
-    /** Boolean style: orange. */
-    static final SimpleAttributeSet STYLE_BOOLEAN =
-            createStyle(COLOR_BOOLEAN,    PANE_BG, "monospaced", 12, false, false);
-
-    /** Null style: gray, italic. */
-    static final SimpleAttributeSet STYLE_NULL =
-            createStyle(COLOR_NULL,       PANE_BG, "monospaced", 12, true,  false);
-
-    /** Structural style: light gray. */
-    static final SimpleAttributeSet STYLE_STRUCTURAL =
-            createStyle(COLOR_STRUCTURAL, PANE_BG, "monospaced", 12, false, false);
-
-    /** Error style: red, italic. */
-    private static final SimpleAttributeSet STYLE_ERROR =
-            createStyle(COLOR_ERROR,      PANE_BG, "monospaced", 12, true,  false);
-
     // -------------------------------------------------------------------------
-    // Highlight painters (stateless — reused for every match)
+    // Search limits
     // -------------------------------------------------------------------------
 
-    /** Painter for all non-current matches. */
-    private static final Highlighter.HighlightPainter PAINTER_MATCH =
-            new DefaultHighlighter.DefaultHighlightPainter(COLOR_MATCH);
-
-    /** Painter for the currently selected match. */
-    private static final Highlighter.HighlightPainter PAINTER_CURRENT =
-            new DefaultHighlighter.DefaultHighlightPainter(COLOR_MATCH_CURRENT);
+    /** Most matches kept by one search. */
+    public static final int MAX_MATCHES = 1_000_000;
 
     // -------------------------------------------------------------------------
-    // Search state
+    // Instance state
     // -------------------------------------------------------------------------
 
-    /**
-     * Offsets of all current match spans (start offset of each match).
-     * Parallel to the highlight tags stored in the {@link Highlighter}.
-     * Empty when no search is active or the query is blank.
-     */
-    private final List<Integer> matchOffsets = new ArrayList<>();
-
-    /**
-     * Highlight tag objects returned by {@link Highlighter#addHighlight}, in
-     * the same order as {@link #matchOffsets}. Kept so we can swap the
-     * "current" painter without re-running the full search.
-     */
-    private final List<Object> matchTags = new ArrayList<>();
+    /** The component that paints the text. */
+    private final JsonTextView view;
 
-    /**
-     * Length of the current search query — needed when navigating to know
-     * how wide each match is.
-     */
-    private int queryLength = 0;
+    /** Start offsets of the current matches, ascending. */
+    private int[] matchOffsets = new int[0];
 
     /**
      * Index into {@link #matchOffsets} of the currently selected match, or
@@ -183,27 +111,23 @@ public class JsonRawPane extends TextPaneScrollPane {
      */
     private BiConsumer<Integer, Integer> countCallback = null;
 
+    /** Incremented by every search and content change to retire stale searches. */
+    private int searchGeneration;
+
     // -------------------------------------------------------------------------
     // Construction
     // -------------------------------------------------------------------------
 
     /**
      * Create a {@code JsonRawPane} with a dark background and no content.
-     *
-     * <p>The Nimbus-safe background wiring (opaque scroll pane + viewport,
-     * transparent text pane) is handled by {@link TextPaneScrollPane}'s
-     * constructor.</p>
      */
     public JsonRawPane() {
-        super(PANE_BG);
-        setDefaultStyle(STYLE_PLAIN);
-
-        // Override the text-pane font so it starts monospaced even before
-        // any text is inserted (affects line-height calculation on first show).
-        if (textPane != null) {
-            textPane.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-            textPane.setCaretColor(COLOR_PLAIN);
-        }
+        view = new JsonTextView();
+        setViewportView(view);
+        setBorder(BorderFactory.createEmptyBorder());
+        setBackground(PANE_BG);
+        getViewport().setOpaque(true);
+        getViewport().setBackground(PANE_BG);
     }
 
     // -------------------------------------------------------------------------
@@ -213,27 +137,29 @@ public class JsonRawPane extends TextPaneScrollPane {
     /**
      * Display a raw JSON string with syntax highlighting.
      *
-     * <p>The existing content is cleared, the raw text is inserted in one
-     * operation using {@link #STYLE_PLAIN}, and then
-     * {@link JsonTokenPainter#paint(StyledDocument, String)} applies
-     * token-level color runs. The caret is reset to position 0 so the top of
-     * the file is visible immediately.</p>
-     *
      * <p>Must be called on the EDT.</p>
      *
      * @param json the raw JSON text to display; must not be {@code null}
      */
     public void showJson(String json) {
+        showBytes(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Display the whole of an indexed file with syntax highlighting, reading
+     * it straight from the index's memory mapping.
+     *
+     * <p>Must be called on the EDT.</p>
+     *
+     * @param index the indexed file; must not be {@code null}
+     */
+    public void showFile(JsonIndex index) {
+        showBytes(index.bytes());
+    }
+
+    private void showBytes(ByteBuffer bytes) {
         clearHighlights();
-        clear();
-        StyledDocument doc = textPane.getStyledDocument();
-        try {
-            doc.insertString(0, json, STYLE_PLAIN);
-        } catch (BadLocationException ex) {
-            // Offset 0 on an empty document is always valid — cannot happen.
-        }
-        JsonTokenPainter.paint(doc, json);
-        textPane.setCaretPosition(0);
+        view.setContent(bytes);
     }
 
     /**
@@ -250,12 +176,20 @@ public class JsonRawPane extends TextPaneScrollPane {
      */
     public void showError(Exception cause) {
         clearHighlights();
-        clear();
         String msg = (cause.getMessage() != null)
                 ? cause.getMessage()
                 : cause.getClass().getSimpleName();
-        append("JSON error:\n\n" + msg, STYLE_ERROR);
-        textPane.setCaretPosition(0);
+        view.setMessage("JSON error:\n\n" + msg, COLOR_ERROR);
+    }
+
+    /**
+     * Remove all content and search highlights.
+     *
+     * <p>Must be called on the EDT.</p>
+     */
+    public void clear() {
+        clearHighlights();
+        view.setContent(ByteBuffer.allocate(0));
     }
 
     // -------------------------------------------------------------------------
@@ -268,7 +202,9 @@ public class JsonRawPane extends TextPaneScrollPane {
      *
      * <p>All previous highlights are removed before the new search. If
      * {@code query} is {@code null} or blank, highlights are cleared and
-     * {@code countCallback} is called with {@code (0, 0)}.</p>
+     * {@code countCallback} is called with {@code (0, 0)}. For large content
+     * the search runs in the background and the callback is called on the
+     * EDT when it completes.</p>
      *
      * <p>Must be called on the EDT.</p>
      *
@@ -286,40 +222,32 @@ public class JsonRawPane extends TextPaneScrollPane {
             return;
         }
 
-        String docText;
-        try {
-            StyledDocument doc = textPane.getStyledDocument();
-            docText = doc.getText(0, doc.getLength());
-        } catch (BadLocationException ex) {
-            countCallback.accept(0, 0);
+        int gen = searchGeneration;
+        int length = query.getBytes(StandardCharsets.UTF_8).length;
+        ByteBuffer bytes = view.bytes();
+        if (bytes.limit() <= JsonTextView.SYNC_INDEX_LIMIT) {
+            applyMatches(ByteScan.find(bytes, query, MAX_MATCHES), length);
             return;
         }
 
-        String lowerDoc   = docText.toLowerCase();
-        String lowerQuery = query.toLowerCase();
-        queryLength = query.length();
-
-        Highlighter highlighter = textPane.getHighlighter();
-        int from = 0;
-        int idx;
-        while ((idx = lowerDoc.indexOf(lowerQuery, from)) >= 0) {
-            try {
-                Object tag = highlighter.addHighlight(
-                        idx, idx + queryLength, PAINTER_MATCH);
-                matchOffsets.add(idx);
-                matchTags.add(tag);
-            } catch (BadLocationException ex) {
-                // skip
+        new SwingWorker<int[], Void>() {
+            @Override
+            protected int[] doInBackground() {
+                return ByteScan.find(bytes, query, MAX_MATCHES);
             }
-            from = idx + 1;
-        }
 
-        if (!matchOffsets.isEmpty()) {
-            selectMatch(0);
-        }
-        countCallback.accept(
-                matchOffsets.isEmpty() ? 0 : currentMatchIndex + 1,
-                matchOffsets.size());
+            @Override
+            protected void done() {
+                if (gen != searchGeneration) {
+                    return;
+                }
+                try {
+                    applyMatches(get(), length);
+                } catch (Exception ex) {
+                    countCallback.accept(0, 0);
+                }
+            }
+        }.execute();
     }
 
     /**
@@ -328,13 +256,12 @@ public class JsonRawPane extends TextPaneScrollPane {
      * <p>No-op if there are no matches. Must be called on the EDT.</p>
      */
     public void nextHighlight() {
-        if (matchOffsets.isEmpty()) {
+        if (matchOffsets.length == 0) {
             return;
         }
-        int next = (currentMatchIndex + 1) % matchOffsets.size();
-        selectMatch(next);
+        selectMatch((currentMatchIndex + 1) % matchOffsets.length);
         if (countCallback != null) {
-            countCallback.accept(currentMatchIndex + 1, matchOffsets.size());
+            countCallback.accept(currentMatchIndex + 1, matchOffsets.length);
         }
     }
 
@@ -344,73 +271,52 @@ public class JsonRawPane extends TextPaneScrollPane {
      * <p>No-op if there are no matches. Must be called on the EDT.</p>
      */
     public void prevHighlight() {
-        if (matchOffsets.isEmpty()) {
+        if (matchOffsets.length == 0) {
             return;
         }
-        int prev = (currentMatchIndex - 1 + matchOffsets.size())
-                % matchOffsets.size();
-        selectMatch(prev);
+        selectMatch((currentMatchIndex - 1 + matchOffsets.length) % matchOffsets.length);
         if (countCallback != null) {
-            countCallback.accept(currentMatchIndex + 1, matchOffsets.size());
+            countCallback.accept(currentMatchIndex + 1, matchOffsets.length);
         }
     }
 
+    /** @return the start offsets of the current matches; do not modify */
+    int[] matchOffsets() {
+        return matchOffsets;
+    }
+
     // -------------------------------------------------------------------------
     // Private helpers
     // -------------------------------------------------------------------------
 
+    private void applyMatches(int[] offsets, int length) {
+        matchOffsets = offsets;
+        view.setMatches(offsets, length);
+        if (offsets.length > 0) {
+            selectMatch(0);
+        }
+        countCallback.accept(offsets.length == 0 ? 0 : currentMatchIndex + 1, offsets.length);
+    }
+
     /**
-     * Make match at {@code index} the current selection: swap its painter to
-     * the "current" style, restore the previous current match to the plain
-     * match style, and scroll the pane to make it visible.
+     * Make match at {@code index} the current selection and scroll the pane
+     * to make it visible.
      *
      * @param index the index into {@link #matchOffsets} to select
      */
     private void selectMatch(int index) {
-        Highlighter highlighter = textPane.getHighlighter();
-
-        // Restore the old current match to the plain match painter.
-        if (currentMatchIndex >= 0 && currentMatchIndex < matchTags.size()) {
-            highlighter.removeHighlight(matchTags.get(currentMatchIndex));
-            try {
-                int off = matchOffsets.get(currentMatchIndex);
-                Object tag = highlighter.addHighlight(
-                        off, off + queryLength, PAINTER_MATCH);
-                matchTags.set(currentMatchIndex, tag);
-            } catch (BadLocationException ex) {
-                // ignore
-            }
-        }
-
         currentMatchIndex = index;
-
-        // Promote the new current match to the current painter.
-        highlighter.removeHighlight(matchTags.get(index));
-        try {
-            int off = matchOffsets.get(index);
-            Object tag = highlighter.addHighlight(
-                    off, off + queryLength, PAINTER_CURRENT);
-            matchTags.set(index, tag);
-
-            // Scroll to make the match visible.
-            textPane.setCaretPosition(off);
-            textPane.scrollRectToVisible(
-                    textPane.modelToView2D(off).getBounds());
-        } catch (BadLocationException ex) {
-            // ignore
-        }
+        view.setCurrentMatch(index);
     }
 
     /**
-     * Remove all search highlights and reset search state.
+     * Remove all search highlights, reset search state and retire any
+     * search still running.
      */
     private void clearHighlights() {
-        if (textPane != null) {
-            textPane.getHighlighter().removeAllHighlights();
-        }
-        matchOffsets.clear();
-        matchTags.clear();
+        searchGeneration++;
+        matchOffsets = new int[0];
         currentMatchIndex = -1;
-        queryLength = 0;
+        view.setMatches(matchOffsets, 0);
     }
-}
\ No newline at end of file
+}
@@ -5,8 +5,7 @@ import java.awt.Color;
 import java.awt.Font;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.JLabel;
@@ -15,10 +14,6 @@ import javax.swing.JSplitPane;
 import javax.swing.SwingConstants;
 import javax.swing.SwingWorker;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
-import com.google.gson.JsonSyntaxException;
-
 /**
  * Split-pane panel that displays a JSON file in two synchronized views:
  * colorized raw text on the left and a collapsible tree on the right, with a
@@ -44,10 +39,20 @@ import com.google.gson.JsonSyntaxException;
  *
  * <h2>Threading</h2>
  * <p>
- * {@link #loadFile(File)} returns immediately. File I/O and Gson parsing are
- * done on a {@link SwingWorker} background thread; both panes are updated on
- * the EDT when parsing completes. Parse errors are displayed inline — the raw
- * pane shows the error message in red and the tree pane is cleared.
+ * {@link #loadFile(File)} returns immediately. The file is indexed on a
+ * {@link SwingWorker} background thread by a streaming pass over a
+ * memory-mapped copy ({@link JsonIndex}), with the progress shown in the
+ * header; both panes are updated on the EDT when indexing completes. Parse
+ * errors are displayed inline — the raw pane shows the error message in red
+ * and the tree pane is cleared.
+ * </p>
+ *
+ * <h2>Large files</h2>
+ * <p>
+ * The tree never holds the whole document: it is a lazy view of the index
+ * (see {@link JsonTreePane#setIndex(JsonIndex, String)}). The raw pane shows
+ * the whole file straight from the index's memory mapping and paints only the
+ * lines in view (see {@link JsonRawPane#showFile(JsonIndex)}).
  * </p>
  *
  * <h2>Delegation</h2>
@@ -167,19 +172,25 @@ public class JsonSplitPane extends JPanel {
         rawPane.clear();
         treePane.clear();
 
-        new SwingWorker<ParseResult, Void>() {
+        new SwingWorker<ParseResult, Integer>() {
 
             @Override
             protected ParseResult doInBackground() {
                 try {
-                    String raw = Files.readString(file.toPath(), StandardCharsets.UTF_8);
-                    JsonElement root = JsonParser.parseString(raw);
-                    return new ParseResult(raw, root, null);
-                } catch (IOException | JsonSyntaxException ex) {
-                    return new ParseResult(null, null, ex);
+                    JsonIndex index = JsonIndex.build(file.toPath(),
+                            f -> publish((int) Math.round(100 * f)));
+                    return new ParseResult(index, null);
+                } catch (IOException | RuntimeException ex) {
+                    return new ParseResult(null, ex);
                 }
             }
 
+            @Override
+            protected void process(List<Integer> percents) {
+                headerLabel.setText("Indexing: " + file.getName() + " \u2026 "
+                        + percents.get(percents.size() - 1) + "%");
+            }
+
             @Override
             protected void done() {
                 try {
@@ -187,7 +198,7 @@ public class JsonSplitPane extends JPanel {
                     if (result.error != null) {
                         showError(file.getName(), result.error);
                     } else {
-                        showResult(file.getName(), result.raw, result.root);
+                        showResult(file.getName(), result.index);
                     }
                 } catch (Exception ex) {
                     showError(file.getName(), ex);
@@ -204,13 +215,12 @@ public class JsonSplitPane extends JPanel {
      * Populate both panes from a successful parse.
      *
      * @param filename short name shown in the header
-     * @param raw      raw JSON text for the left pane
-     * @param root     parsed Gson element tree for the right pane
+     * @param index    index of the file
      */
-    private void showResult(String filename, String raw, JsonElement root) {
+    private void showResult(String filename, JsonIndex index) {
         headerLabel.setText(filename);
-        rawPane.showJson(raw);
-        treePane.setRoot(root, filename);
+        rawPane.showFile(index);
+        treePane.setIndex(index, filename);
     }
 
     /**
@@ -232,24 +242,19 @@ public class JsonSplitPane extends JPanel {
     /**
      * Immutable result of a background parse attempt.
      *
-     * <p>Invariant: exactly one of {@code root} and {@code error} is
-     * non-{@code null}. {@code raw} is non-{@code null} iff {@code root}
-     * is non-{@code null}.</p>
+     * <p>Invariant: exactly one of {@code index} and {@code error} is
+     * non-{@code null}.</p>
      */
     private static final class ParseResult {
 
-        /** Raw JSON text, or {@code null} on error. */
-        final String raw;
-
-        /** Parsed element tree, or {@code null} on error. */
-        final JsonElement root;
+        /** Index of the file, or {@code null} on error. */
+        final JsonIndex index;
 
         /** Parse / IO failure, or {@code null} on success. */
         final Exception error;
 
-        ParseResult(String raw, JsonElement root, Exception error) {
-            this.raw   = raw;
-            this.root  = root;
+        ParseResult(JsonIndex index, Exception error) {
+            this.index = index;
             this.error = error;
         }
     }
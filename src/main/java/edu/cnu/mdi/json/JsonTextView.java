@@ -0,0 +1,576 @@
+package edu.cnu.mdi.json;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.KeyStroke;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
+
+/**
+ * Read-only text component behind {@link JsonRawPane} that paints only the
+ * rows in view.
+ *
+ * <h2>Content</h2>
+ * <p>
+ * The text is a {@link ByteBuffer} of UTF-8: the memory-mapped file from
+ * {@link JsonIndex#bytes()}, or the encoded bytes of a string. Nothing is
+ * decoded up front. A display row is one line of the text, or a
+ * {@value #WRAP}-byte piece of a longer line, so a minified file does not
+ * become one row of unbounded width.
+ * </p>
+ *
+ * <h2>Row index</h2>
+ * <p>
+ * The start offset of every row is found by {@link ByteScan#rowStarts} and
+ * kept in an {@code int[]}, together with the widest row and the lexer state
+ * at the start of each wrapped row ({@link JsonTokenPainter#rowStates}).
+ * Content over {@value #SYNC_INDEX_LIMIT} bytes is indexed on a
+ * {@link SwingWorker}; until it finishes the view shows the rows of the first
+ * {@value #SYNC_INDEX_LIMIT} bytes.
+ * </p>
+ *
+ * <h2>Painting</h2>
+ * <p>
+ * The font is monospaced and every character takes one column (a tab takes
+ * {@value #TAB_WIDTH}), so row {@code r} is at a fixed {@code y} and a byte
+ * offset maps to a column by decoding only its own row.
+ * {@link #paintComponent(Graphics)} decodes and tokenizes the rows inside the
+ * clip and nothing else. Search matches are a sorted array of byte offsets;
+ * each row binary-searches it for the matches it contains.
+ * </p>
+ *
+ * <h2>Selection</h2>
+ * <p>
+ * Dragging selects a byte range; the platform copy shortcut copies it when it
+ * is at most {@value #MAX_COPY} bytes.
+ * </p>
+ */
+@SuppressWarnings("serial")
+final class JsonTextView extends JComponent implements Scrollable {
+
+    // -------------------------------------------------------------------------
+    // Constants
+    // -------------------------------------------------------------------------
+
+    /** Longest row in bytes; longer lines are wrapped. */
+    static final int WRAP = 1000;
+
+    /** Content up to this size is indexed on the calling thread. */
+    static final int SYNC_INDEX_LIMIT = 1 << 20;
+
+    /** Columns taken by a tab. */
+    static final int TAB_WIDTH = 4;
+
+    /** Largest selection that can be copied. */
+    static final int MAX_COPY = 16 << 20;
+
+    /** Gap around the text, in pixels. */
+    private static final int MARGIN = 4;
+
+    /** Bytes after a row passed to the tokenizer to complete its last token. */
+    private static final int LOOKAHEAD = 256;
+
+    private static final Color SELECTION = new Color(70, 90, 130);
+
+    private static final Color MATCH = new Color(180, 160, 50, 120);
+
+    private static final Color MATCH_CURRENT = new Color(230, 120, 20, 200);
+
+    private static final String TAB = " ".repeat(TAB_WIDTH);
+
+    // -------------------------------------------------------------------------
+    // Instance state
+    // -------------------------------------------------------------------------
+
+    private ByteBuffer bytes = ByteBuffer.allocate(0);
+
+    /** Row start offsets; may cover only a prefix while indexing. */
+    private int[] rows = { 0 };
+
+    /** Lexer state at the start of each row, or {@code null} if none is wrapped. */
+    private byte[] rowStates;
+
+    /** Longest row, in bytes. */
+    private int widestRow;
+
+    /** End of the last indexed row; the content size once indexing is done. */
+    private int indexedLimit;
+
+    /** Incremented by every content change to retire stale workers. */
+    private int generation;
+
+    /** Color of a plain message, or {@code null} for colorized JSON. */
+    private Color messageColor;
+
+    private int[] matches = new int[0];
+    private int matchLength;
+    private int currentMatch = -1;
+
+    private int anchor = -1;
+    private int caret = -1;
+
+    private JsonTokenPainter.Fonts fonts;
+    private int charWidth;
+    private int rowHeight;
+    private int ascent;
+
+    /**
+     * Everything the view knows about its rows, built off the EDT for large
+     * content.
+     *
+     * @param starts row start offsets
+     * @param states lexer state at the start of each row, or {@code null}
+     * @param widest longest row, in bytes
+     * @param limit  end of the indexed bytes, where the last row ends; less
+     *               than the content size for the provisional index of a
+     *               prefix
+     */
+    private record RowIndex(int[] starts, byte[] states, int widest, int limit) {
+
+        static RowIndex of(ByteBuffer buf) {
+            int[] starts = ByteScan.rowStarts(buf, WRAP);
+            int widest = 0;
+            for (int r = 0; r < starts.length; r++) {
+                widest = Math.max(widest, rowEnd(buf, starts, buf.limit(), r) - starts[r]);
+            }
+            return new RowIndex(starts, JsonTokenPainter.rowStates(buf, starts), widest, buf.limit());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Construction
+    // -------------------------------------------------------------------------
+
+    JsonTextView() {
+        setOpaque(true);
+        setBackground(JsonRawPane.PANE_BG);
+        setFocusable(true);
+        setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                int off = offsetAt(e.getPoint());
+                if (!e.isShiftDown() || anchor < 0) {
+                    anchor = off;
+                }
+                caret = off;
+                repaint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                caret = offsetAt(e.getPoint());
+                scrollRectToVisible(new Rectangle(e.getX(), e.getY(), 1, 1));
+                repaint();
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+
+        int mask = GraphicsEnvironment.isHeadless() ? InputEvent.CTRL_DOWN_MASK
+                : Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_C, mask), "copy");
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_A, mask), "selectAll");
+        getActionMap().put("copy", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                copy();
+            }
+        });
+        getActionMap().put("selectAll", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                anchor = 0;
+                caret = length();
+                repaint();
+            }
+        });
+    }
+
+    @Override
+    public void setFont(Font font) {
+        super.setFont(font);
+        fonts = JsonTokenPainter.Fonts.of(font);
+        FontMetrics fm = getFontMetrics(font);
+        charWidth = Math.max(1, fm.charWidth('m'));
+        rowHeight = Math.max(1, fm.getHeight());
+        ascent = fm.getAscent();
+        revalidate();
+        repaint();
+    }
+
+    // -------------------------------------------------------------------------
+    // Content
+    // -------------------------------------------------------------------------
+
+    /**
+     * Show colorized JSON.
+     *
+     * @param content UTF-8 bytes, read with absolute gets only; the view
+     *                keeps a reference
+     */
+    void setContent(ByteBuffer content) {
+        display(content, null);
+    }
+
+    /**
+     * Show plain text in one color, without colorizing.
+     *
+     * @param text  the text
+     * @param color its color
+     */
+    void setMessage(String text, Color color) {
+        display(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), color);
+    }
+
+    private void display(ByteBuffer content, Color color) {
+        int gen = ++generation;
+        bytes = content;
+        messageColor = color;
+        matches = new int[0];
+        currentMatch = -1;
+        anchor = caret = -1;
+
+        if (content.limit() <= SYNC_INDEX_LIMIT) {
+            setRows(RowIndex.of(content));
+        } else {
+            ByteBuffer head = content.duplicate();
+            head.limit(SYNC_INDEX_LIMIT);
+            setRows(RowIndex.of(head));
+            new SwingWorker<RowIndex, Void>() {
+                @Override
+                protected RowIndex doInBackground() {
+                    return RowIndex.of(content);
+                }
+
+                @Override
+                protected void done() {
+                    if (gen != generation) {
+                        return;
+                    }
+                    try {
+                        setRows(get());
+                        scrollToCurrentMatch();
+                    } catch (Exception e) {
+                        // keep the partial index
+                    }
+                }
+            }.execute();
+        }
+        scrollRectToVisible(new Rectangle(0, 0, 1, 1));
+    }
+
+    private void setRows(RowIndex index) {
+        rows = index.starts();
+        rowStates = index.states();
+        widestRow = index.widest();
+        indexedLimit = index.limit();
+        revalidate();
+        repaint();
+    }
+
+    /** @return the content; read with absolute gets only */
+    ByteBuffer bytes() {
+        return bytes;
+    }
+
+    /** @return the content size in bytes */
+    int length() {
+        return bytes.limit();
+    }
+
+    /** @return the number of rows indexed so far */
+    int rowCount() {
+        return rows.length;
+    }
+
+    /**
+     * @param row a row
+     * @return its text, line terminator removed and tabs expanded
+     */
+    String rowText(int row) {
+        return decode(rows[row], rowEnd(row)).replace("\t", TAB);
+    }
+
+    /**
+     * @param offset a byte offset
+     * @return the row containing it
+     */
+    int rowOf(int offset) {
+        int r = Arrays.binarySearch(rows, offset);
+        return (r >= 0) ? r : Math.max(0, -r - 2);
+    }
+
+    // -------------------------------------------------------------------------
+    // Search matches
+    // -------------------------------------------------------------------------
+
+    /**
+     * Replace the search matches.
+     *
+     * @param offsets byte offsets, ascending; the view keeps the array
+     * @param length  match length in bytes
+     */
+    void setMatches(int[] offsets, int length) {
+        matches = offsets;
+        matchLength = length;
+        currentMatch = -1;
+        repaint();
+    }
+
+    /**
+     * Make a match current and scroll it into view.
+     *
+     * @param index position in the match array
+     */
+    void setCurrentMatch(int index) {
+        currentMatch = index;
+        scrollToCurrentMatch();
+        repaint();
+    }
+
+    private void scrollToCurrentMatch() {
+        if (currentMatch < 0 || currentMatch >= matches.length) {
+            return;
+        }
+        int off = matches[currentMatch];
+        int row = rowOf(off);
+        if (row >= rows.length || off > rowEnd(row)) {
+            return; // not indexed yet
+        }
+        int x = MARGIN + column(row, off) * charWidth;
+        scrollRectToVisible(new Rectangle(x - 4 * charWidth, rowY(row),
+                (matchLength + 8) * charWidth, rowHeight));
+    }
+
+    // -------------------------------------------------------------------------
+    // Painting
+    // -------------------------------------------------------------------------
+
+    @Override
+    protected void paintComponent(Graphics g0) {
+        Graphics2D g = (Graphics2D) g0.create();
+        try {
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            g.setColor(getBackground());
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+            Object hints = Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+            if (hints instanceof Map<?, ?> map) {
+                g.addRenderingHints(map);
+            } else {
+                g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                        RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            }
+
+            int first = Math.max(0, (clip.y - MARGIN) / rowHeight);
+            int last = Math.min(rows.length - 1, (clip.y + clip.height - MARGIN) / rowHeight);
+            int selFrom = Math.min(anchor, caret);
+            int selTo = Math.max(anchor, caret);
+
+            for (int r = first; r <= last; r++) {
+                int start = rows[r];
+                int end = rowEnd(r);
+                int y = rowY(r);
+
+                if (selFrom >= 0 && selFrom < selTo && selFrom <= end && selTo > start) {
+                    fillSpan(g, r, Math.max(selFrom, start), Math.min(selTo, end), y, SELECTION);
+                }
+                paintMatches(g, r, start, end, y);
+
+                String text = rowText(r);
+                if (messageColor != null) {
+                    g.setColor(messageColor);
+                    g.setFont(fonts.italic());
+                    g.drawString(text, MARGIN, y + ascent);
+                } else {
+                    JsonTokenPainter.paintRow(g, text + following(end), text.length(),
+                            (rowStates == null) ? JsonTokenPainter.BETWEEN : rowStates[r],
+                            MARGIN, y + ascent, charWidth, fonts);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private void paintMatches(Graphics2D g, int row, int start, int end, int y) {
+        if (matches.length == 0) {
+            return;
+        }
+        int i = Arrays.binarySearch(matches, start - matchLength + 1);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        for (; i < matches.length && matches[i] < end; i++) {
+            int from = Math.max(matches[i], start);
+            int to = Math.min(matches[i] + matchLength, end);
+            fillSpan(g, row, from, to, y, (i == currentMatch) ? MATCH_CURRENT : MATCH);
+        }
+    }
+
+    private void fillSpan(Graphics2D g, int row, int from, int to, int y, Color color) {
+        int x0 = column(row, from);
+        int x1 = Math.max(column(row, to), x0 + 1);
+        g.setColor(color);
+        g.fillRect(MARGIN + x0 * charWidth, y, (x1 - x0) * charWidth, rowHeight);
+    }
+
+    /** Text after a row end, tabs expanded, to complete its last token. */
+    private String following(int end) {
+        return decode(end, Math.min(length(), end + LOOKAHEAD)).replace("\t", TAB);
+    }
+
+    // -------------------------------------------------------------------------
+    // Geometry
+    // -------------------------------------------------------------------------
+
+    /** End of a row, excluding its line terminator. */
+    private int rowEnd(int row) {
+        return rowEnd(bytes, rows, indexedLimit, row);
+    }
+
+    private static int rowEnd(ByteBuffer buf, int[] starts, int limit, int row) {
+        int end = (row + 1 < starts.length) ? starts[row + 1] : limit;
+        int start = starts[row];
+        if (end > start && buf.get(end - 1) == '\n') {
+            end--;
+        }
+        if (end > start && buf.get(end - 1) == '\r') {
+            end--;
+        }
+        return end;
+    }
+
+    private int rowY(int row) {
+        return (int) Math.min(Integer.MAX_VALUE - rowHeight, MARGIN + (long) row * rowHeight);
+    }
+
+    /** Column of a byte offset within its row. */
+    int column(int row, int offset) {
+        int start = rows[row];
+        int to = Math.min(Math.max(offset, start), rowEnd(row));
+        String s = decode(start, to);
+        int col = 0;
+        for (int i = 0; i < s.length(); i++) {
+            col += (s.charAt(i) == '\t') ? TAB_WIDTH : 1;
+        }
+        return col;
+    }
+
+    /** Byte offset of the character boundary nearest a point. */
+    int offsetAt(Point p) {
+        if (length() == 0) {
+            return 0;
+        }
+        int row = Math.max(0, Math.min(rows.length - 1, (p.y - MARGIN) / rowHeight));
+        int target = Math.max(0, Math.round((p.x - MARGIN) / (float) charWidth));
+        int start = rows[row];
+        String s = decode(start, rowEnd(row));
+        int col = 0;
+        int off = start;
+        for (int i = 0; i < s.length() && col < target; i++) {
+            char c = s.charAt(i);
+            col += (c == '\t') ? TAB_WIDTH : 1;
+            off += (c < 0x80) ? 1 : (c < 0x800) ? 2 : Character.isSurrogate(c) ? 2 : 3;
+        }
+        return Math.min(off, rowEnd(row));
+    }
+
+    private String decode(int from, int to) {
+        byte[] b = new byte[Math.max(0, to - from)];
+        bytes.get(from, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // -------------------------------------------------------------------------
+    // Selection
+    // -------------------------------------------------------------------------
+
+    /** @return the selected text, or {@code null} if none or too large */
+    String selectedText() {
+        int from = Math.min(anchor, caret);
+        int to = Math.max(anchor, caret);
+        if (from < 0 || from == to || to - from > MAX_COPY) {
+            return null;
+        }
+        return decode(from, to);
+    }
+
+    private void copy() {
+        String text = selectedText();
+        if (text == null) {
+            Toolkit.getDefaultToolkit().beep();
+            return;
+        }
+        StringSelection sel = new StringSelection(text);
+        Toolkit.getDefaultToolkit().getSystemClipboard().setContents(sel, sel);
+    }
+
+    // -------------------------------------------------------------------------
+    // Scrollable
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Dimension getPreferredSize() {
+        long w = 2L * MARGIN + (long) (widestRow + 1) * charWidth;
+        long h = 2L * MARGIN + (long) rows.length * rowHeight;
+        return new Dimension((int) Math.min(w, Integer.MAX_VALUE / 2),
+                (int) Math.min(h, Integer.MAX_VALUE / 2));
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(400, 300);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visible, int orientation, int direction) {
+        return (orientation == SwingConstants.VERTICAL) ? rowHeight : charWidth;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visible, int orientation, int direction) {
+        return (orientation == SwingConstants.VERTICAL)
+                ? Math.max(rowHeight, visible.height - rowHeight)
+                : Math.max(charWidth, visible.width - charWidth);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return getParent() != null && getParent().getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return getParent() != null && getParent().getHeight() > getPreferredSize().height;
+    }
+}
@@ -1,35 +1,40 @@
 package edu.cnu.mdi.json;
 
-import javax.swing.text.StyledDocument;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.nio.ByteBuffer;
 
 /**
- * Applies syntax-highlight color runs to a {@link StyledDocument} that already
- * contains raw JSON text.
+ * Tokenizes and paints one display row of raw JSON text for
+ * {@link JsonTextView}.
  *
  * <h2>Approach</h2>
  * <p>
- * A single left-to-right scan of the raw JSON string identifies token
- * boundaries and calls {@link StyledDocument#setCharacterAttributes} for each
- * token span. The document text is <em>not</em> modified — only attributes are
- * changed — so this method is safe to call after a bulk
- * {@link StyledDocument#insertString} has already placed the text.
+ * The view asks for a row only when it is about to paint it, so the cost of
+ * colorizing is proportional to what is on screen, not to the size of the
+ * file. A single left-to-right scan of the row identifies token boundaries;
+ * each token is drawn at its column in its own color and font. Whitespace is
+ * skipped, not drawn.
  * </p>
  *
  * <h2>Token categories</h2>
  * <ul>
  *   <li><b>Object keys</b> — any quoted string immediately followed (after
- *       optional whitespace) by a colon. Styled with
- *       {@link JsonRawPane#STYLE_KEY}.</li>
+ *       optional whitespace) by a colon. Drawn bold in
+ *       {@link JsonRawPane#COLOR_KEY}. When the string ends the row, the
+ *       colon is looked for in the text the caller supplies after the
+ *       row.</li>
  *   <li><b>String values</b> — quoted strings that are <em>not</em> keys.
- *       Styled with {@link JsonRawPane#STYLE_STRING}.</li>
+ *       Drawn in {@link JsonRawPane#COLOR_STRING}.</li>
  *   <li><b>Numbers</b> — JSON number literals (integer, decimal, exponent).
- *       Styled with {@link JsonRawPane#STYLE_NUMBER}.</li>
+ *       Drawn in {@link JsonRawPane#COLOR_NUMBER}.</li>
  *   <li><b>Booleans</b> — the literals {@code true} and {@code false}.
- *       Styled with {@link JsonRawPane#STYLE_BOOLEAN}.</li>
- *   <li><b>Null</b> — the literal {@code null}. Styled with
- *       {@link JsonRawPane#STYLE_NULL}.</li>
- *   <li><b>Structural</b> — {@code { } [ ] , :}. Styled with
- *       {@link JsonRawPane#STYLE_STRUCTURAL}.</li>
+ *       Drawn in {@link JsonRawPane#COLOR_BOOLEAN}.</li>
+ *   <li><b>Null</b> — the literal {@code null}. Drawn italic in
+ *       {@link JsonRawPane#COLOR_NULL}.</li>
+ *   <li><b>Structural</b> — {@code { } [ ] , :}. Drawn in
+ *       {@link JsonRawPane#COLOR_STRUCTURAL}.</li>
  * </ul>
  *
  * <h2>Escape handling</h2>
@@ -38,56 +43,161 @@ import javax.swing.text.StyledDocument;
  * {@code \"} does not terminate the string prematurely.
  * </p>
  *
- * <h2>Limitations</h2>
+ * <h2>Wrapped lines</h2>
  * <p>
- * This is a display-only colorizer, not a validating parser. It assumes the
- * input is well-formed JSON (which Gson has already verified before this
- * method is called). Behaviour on malformed input is undefined but will not
- * throw — the worst case is a token receiving the wrong style.
+ * When the view wraps a long line, a token may cross from one row into the
+ * next. The caller passes text past the end of the row, so a token ending
+ * the row is classified whole, and the lexer state at the start of each
+ * continuation row, found once per file by {@link #rowStates}, so the row
+ * starts inside the right token. Pretty-printed JSON never breaks a token
+ * across lines and needs no states.
  * </p>
  *
- * <h2>Performance</h2>
+ * <h2>Limitations</h2>
  * <p>
- * Each call to {@link StyledDocument#setCharacterAttributes} triggers a
- * document change event. For very large files (tens of thousands of tokens)
- * this can cause a brief repaint delay. The method runs on the EDT (called
- * from {@link JsonRawPane#showJson}), so the UI is unresponsive during
- * painting. For the file sizes typical of splot and map configuration files
- * this is imperceptible; if larger files become a concern, the painting can
- * be moved to a background thread using
- * {@link javax.swing.text.AbstractDocument#setCharacterAttributes} with
- * {@code replace = false} batched via a write lock.
+ * This is a display-only colorizer, not a validating parser. Behaviour on
+ * malformed input is undefined but will not throw.
  * </p>
  */
 final class JsonTokenPainter {
 
+    /** Row starts between tokens. */
+    static final byte BETWEEN = 0;
+
+    /** Row starts inside a string. */
+    static final byte IN_STRING = 1;
+
+    /** Row starts inside a string, just after a backslash. */
+    static final byte IN_ESCAPE = 2;
+
+    /** Row starts inside a number. */
+    static final byte IN_NUMBER = 3;
+
+    /** Row starts inside {@code true} or {@code false}. */
+    static final byte IN_BOOLEAN = 4;
+
+    /** Row starts inside {@code null}. */
+    static final byte IN_NULL = 5;
+
+    /** Row starts inside a run of unrecognised characters. */
+    static final byte IN_PLAIN = 6;
+
     /** Static utility class — no instances. */
     private JsonTokenPainter() {}
 
+    /** Token categories, each with its color and font style. */
+    enum Kind {
+        KEY(JsonRawPane.COLOR_KEY, Font.BOLD),
+        STRING(JsonRawPane.COLOR_STRING, Font.PLAIN),
+        NUMBER(JsonRawPane.COLOR_NUMBER, Font.PLAIN),
+        BOOLEAN(JsonRawPane.COLOR_BOOLEAN, Font.PLAIN),
+        NULL(JsonRawPane.COLOR_NULL, Font.ITALIC),
+        STRUCTURAL(JsonRawPane.COLOR_STRUCTURAL, Font.PLAIN),
+        PLAIN(JsonRawPane.COLOR_PLAIN, Font.PLAIN);
+
+        final Color color;
+        final int style;
+
+        Kind(Color color, int style) {
+            this.color = color;
+            this.style = style;
+        }
+    }
+
+    /** Receives the tokens of a row in order. */
+    @FunctionalInterface
+    interface TokenSink {
+
+        /**
+         * @param start index of the first character
+         * @param end   index just past the last character
+         * @param kind  the category
+         */
+        void token(int start, int end, Kind kind);
+    }
+
+    /**
+     * The three faces of the view font.
+     *
+     * @param plain  the base font
+     * @param bold   bold face, for keys
+     * @param italic italic face, for {@code null}
+     */
+    record Fonts(Font plain, Font bold, Font italic) {
+
+        static Fonts of(Font base) {
+            return new Fonts(base, base.deriveFont(Font.BOLD), base.deriveFont(Font.ITALIC));
+        }
+
+        Font face(int style) {
+            return (style == Font.BOLD) ? bold : (style == Font.ITALIC) ? italic : plain;
+        }
+    }
+
     // -------------------------------------------------------------------------
-    // Public entry point
+    // Entry points
     // -------------------------------------------------------------------------
 
     /**
-     * Walk {@code json} left-to-right, identify token spans, and apply the
-     * corresponding {@link JsonRawPane} style to each span in {@code doc}.
+     * Paint one row. Every character occupies one column of
+     * {@code charWidth} pixels.
      *
-     * <p>The document must already contain {@code json} starting at offset 0.
-     * This method only sets attributes; it does not insert or remove
-     * characters.</p>
+     * @param g         the graphics context
+     * @param text      the row text followed by some of the text after it,
+     *                  tabs already expanded
+     * @param length    length of the row within {@code text}
+     * @param state     lexer state at the start of the row
+     * @param x         left edge of column 0
+     * @param baseline  text baseline
+     * @param charWidth column width in pixels
+     * @param fonts     the faces to draw with
+     */
+    static void paintRow(Graphics2D g, String text, int length, byte state, int x, int baseline,
+            int charWidth, Fonts fonts) {
+        tokenize(text, length, state, (start, end, kind) -> {
+            g.setColor(kind.color);
+            g.setFont(fonts.face(kind.style));
+            g.drawString(text.substring(start, end), x + start * charWidth, baseline);
+        });
+    }
+
+    /**
+     * Walk a row left-to-right and report its tokens. The text after the row
+     * completes a token that ends the row and decides whether a string
+     * ending the row is a key; tokens are reported only up to
+     * {@code length}.
      *
-     * @param doc  the styled document to annotate; must not be {@code null}
-     * @param json the raw JSON string whose characters populate {@code doc}
-     *             starting at offset 0; must not be {@code null}
+     * @param text   the row text followed by some of the text after it
+     * @param length length of the row within {@code text}
+     * @param state  lexer state at the start of the row, {@link #BETWEEN}
+     *               unless the row continues a wrapped line
+     * @param sink   receives each token
      */
-    static void paint(StyledDocument doc, String json) {
+    static void tokenize(String text, int length, byte state, TokenSink sink) {
         int i   = 0;
-        int len = json.length();
+        int len = Math.min(length, text.length());
+        TokenSink row = (start, end, kind) -> sink.token(start, Math.min(end, len), kind);
+
+        // Finish the token the row starts inside.
+        if (state == IN_STRING || state == IN_ESCAPE) {
+            int end = scanString(text, (state == IN_ESCAPE) ? 0 : -1);
+            if (end > 0) {
+                row.token(0, end, isKey(text, end) ? Kind.KEY : Kind.STRING);
+            }
+            i = end;
+        } else if (state != BETWEEN) {
+            int end = scanPlain(text, 0);
+            if (end > 0) {
+                row.token(0, end, (state == IN_NUMBER) ? Kind.NUMBER
+                        : (state == IN_BOOLEAN) ? Kind.BOOLEAN
+                        : (state == IN_NULL) ? Kind.NULL : Kind.PLAIN);
+            }
+            i = end;
+        }
 
         while (i < len) {
-            char c = json.charAt(i);
+            char c = text.charAt(i);
 
-            // Skip whitespace — leave it with the base STYLE_PLAIN.
             if (Character.isWhitespace(c)) {
                 i++;
                 continue;
@@ -96,75 +206,154 @@ final class JsonTokenPainter {
             // Structural characters.
             if (c == '{' || c == '}' || c == '[' || c == ']'
                     || c == ',' || c == ':') {
-                doc.setCharacterAttributes(i, 1, JsonRawPane.STYLE_STRUCTURAL, false);
+                row.token(i, i + 1, Kind.STRUCTURAL);
                 i++;
                 continue;
             }
 
             // Quoted string — determine whether it is a key or a value.
             if (c == '"') {
-                int end = scanString(json, i);        // index of closing quote + 1
-                int afterWhitespace = skipWhitespace(json, end);
-                boolean isKey = afterWhitespace < len
-                        && json.charAt(afterWhitespace) == ':';
-                doc.setCharacterAttributes(i, end - i,
-                        isKey ? JsonRawPane.STYLE_KEY : JsonRawPane.STYLE_STRING,
-                        false);
+                int end = scanString(text, i);
+                row.token(i, end, isKey(text, end) ? Kind.KEY : Kind.STRING);
                 i = end;
                 continue;
             }
 
             // Number literal.
             if (c == '-' || Character.isDigit(c)) {
-                int end = scanNumber(json, i);
-                doc.setCharacterAttributes(i, end - i, JsonRawPane.STYLE_NUMBER, false);
+                int end = scanNumber(text, i);
+                row.token(i, end, Kind.NUMBER);
                 i = end;
                 continue;
             }
 
             // Boolean / null literals — match by prefix.
-            if (json.startsWith("true",  i)) {
-                doc.setCharacterAttributes(i, 4, JsonRawPane.STYLE_BOOLEAN, false);
+            if (text.startsWith("true", i)) {
+                row.token(i, i + 4, Kind.BOOLEAN);
                 i += 4;
                 continue;
             }
-            if (json.startsWith("false", i)) {
-                doc.setCharacterAttributes(i, 5, JsonRawPane.STYLE_BOOLEAN, false);
+            if (text.startsWith("false", i)) {
+                row.token(i, i + 5, Kind.BOOLEAN);
                 i += 5;
                 continue;
             }
-            if (json.startsWith("null",  i)) {
-                doc.setCharacterAttributes(i, 4, JsonRawPane.STYLE_NULL, false);
+            if (text.startsWith("null", i)) {
+                row.token(i, i + 4, Kind.NULL);
                 i += 4;
                 continue;
             }
 
-            // Anything else: advance one character and leave it plain.
-            i++;
+            // Anything else: a run of unrecognised characters, drawn plain.
+            int end = scanPlain(text, i + 1);
+            row.token(i, end, Kind.PLAIN);
+            i = end;
         }
     }
 
+    /**
+     * Find the lexer state at the start of every row that continues a
+     * wrapped line. Only wrapped lines are scanned.
+     *
+     * @param buf  the UTF-8 bytes
+     * @param rows row start offsets, as from {@link ByteScan#rowStarts}
+     * @return the state of each row, or {@code null} if no line is wrapped
+     *         and every row starts {@link #BETWEEN} tokens
+     */
+    static byte[] rowStates(ByteBuffer buf, int[] rows) {
+        byte[] states = null;
+        byte state = BETWEEN;
+        for (int r = 0; r + 1 < rows.length; r++) {
+            int next = rows[r + 1];
+            if (buf.get(next - 1) == '\n') {
+                state = BETWEEN;
+                continue;
+            }
+            state = lex(buf, rows[r], next, state);
+            if (states == null) {
+                states = new byte[rows.length];
+            }
+            states[r + 1] = state;
+        }
+        return states;
+    }
+
     // -------------------------------------------------------------------------
     // Private scanner helpers
     // -------------------------------------------------------------------------
 
+    /** Lexer state after {@code [from, to)}, starting in {@code state}. */
+    private static byte lex(ByteBuffer buf, int from, int to, byte state) {
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (state == IN_STRING) {
+                state = (b == '\\') ? IN_ESCAPE : (b == '"') ? BETWEEN : IN_STRING;
+            } else if (state == IN_ESCAPE) {
+                state = IN_STRING;
+            } else if (b == '"') {
+                state = IN_STRING;
+            } else if (b == ' ' || b == '\t' || b == '\r' || b == '\n' || "{}[],:".indexOf(b) >= 0) {
+                state = BETWEEN;
+            } else if (state == BETWEEN) {
+                state = (b == '-' || (b >= '0' && b <= '9')) ? IN_NUMBER
+                        : (startsWith(buf, i, "true") || startsWith(buf, i, "false")) ? IN_BOOLEAN
+                        : startsWith(buf, i, "null") ? IN_NULL : IN_PLAIN;
+            }
+        }
+        return state;
+    }
+
+    private static boolean startsWith(ByteBuffer buf, int at, String literal) {
+        if (at + literal.length() > buf.limit()) {
+            return false;
+        }
+        for (int k = 0; k < literal.length(); k++) {
+            if (buf.get(at + k) != literal.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Whether the string ending just before {@code end} is followed by a colon. */
+    private static boolean isKey(String s, int end) {
+        int next = skipWhitespace(s, end);
+        return next < s.length() && s.charAt(next) == ':';
+    }
+
+    /**
+     * Return the index of the first whitespace, structural character or
+     * quote at or after {@code from}, or {@code s.length()}.
+     *
+     * @param s    the source text
+     * @param from the starting index
+     * @return index just past the run
+     */
+    private static int scanPlain(String s, int from) {
+        int i   = from;
+        int len = s.length();
+        while (i < len && !Character.isWhitespace(s.charAt(i))
+                && "{}[],:\"".indexOf(s.charAt(i)) < 0) {
+            i++;
+        }
+        return i;
+    }
+
     /**
      * Return the index just past the closing {@code "} of the string that
      * starts at {@code start} (which must be the opening {@code "}).
      *
-     * <p>Backslash escapes are consumed so that {@code \"} does not
-     * prematurely terminate the scan.</p>
-     *
-     * @param json  the source string
-     * @param start index of the opening {@code "}
+     * @param s     the source text
+     * @param start index of the opening {@code "}; -1 when the string
+     *              began before {@code s}
      * @return index of the first character after the closing {@code "},
-     *         or {@code json.length()} if the string is unterminated
+     *         or {@code s.length()} if the string is unterminated
      */
-    private static int scanString(String json, int start) {
+    private static int scanString(String s, int start) {
         int i = start + 1;   // skip opening quote
-        int len = json.length();
+        int len = s.length();
         while (i < len) {
-            char c = json.charAt(i);
+            char c = s.charAt(i);
             if (c == '\\') {
                 i += 2;      // skip escape sequence (e.g. \" \\ \n)
             } else if (c == '"') {
@@ -184,57 +373,57 @@ final class JsonTokenPainter {
      * digits, optional decimal part, optional exponent ({@code e}/{@code E}
      * with optional sign).</p>
      *
-     * @param json  the source string
+     * @param s     the source text
      * @param start index of the first character of the number ({@code -} or a
      *              digit)
      * @return index of the first character after the number
      */
-    private static int scanNumber(String json, int start) {
+    private static int scanNumber(String s, int start) {
         int i   = start;
-        int len = json.length();
+        int len = s.length();
 
         // Optional leading minus.
-        if (i < len && json.charAt(i) == '-') {
+        if (i < len && s.charAt(i) == '-') {
             i++;
         }
         // Integer part.
-        while (i < len && Character.isDigit(json.charAt(i))) {
+        while (i < len && Character.isDigit(s.charAt(i))) {
             i++;
         }
         // Optional decimal part.
-        if (i < len && json.charAt(i) == '.') {
+        if (i < len && s.charAt(i) == '.') {
             i++;
-            while (i < len && Character.isDigit(json.charAt(i))) {
+            while (i < len && Character.isDigit(s.charAt(i))) {
                 i++;
             }
         }
         // Optional exponent.
-        if (i < len && (json.charAt(i) == 'e' || json.charAt(i) == 'E')) {
+        if (i < len && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
             i++;
-            if (i < len && (json.charAt(i) == '+' || json.charAt(i) == '-')) {
+            if (i < len && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
                 i++;
             }
-            while (i < len && Character.isDigit(json.charAt(i))) {
+            while (i < len && Character.isDigit(s.charAt(i))) {
                 i++;
             }
         }
-        return i;
+        return Math.max(i, start + 1);
     }
 
     /**
      * Return the index of the first non-whitespace character at or after
-     * {@code from}, or {@code json.length()} if only whitespace remains.
+     * {@code from}, or {@code s.length()} if only whitespace remains.
      *
-     * @param json the source string
+     * @param s    the source text
      * @param from the starting index
      * @return index of the next non-whitespace character
      */
-    private static int skipWhitespace(String json, int from) {
+    private static int skipWhitespace(String s, int from) {
         int i   = from;
-        int len = json.length();
-        while (i < len && Character.isWhitespace(json.charAt(i))) {
+        int len = s.length();
+        while (i < len && Character.isWhitespace(s.charAt(i))) {
             i++;
         }
         return i;
     }
-}
\ No newline at end of file
+}
@@ -6,7 +6,6 @@ import java.awt.Font;
 
 import javax.swing.JLabel;
 import javax.swing.JTree;
-import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeCellRenderer;
 
 /**
@@ -109,11 +108,8 @@ public class JsonTreeCellRenderer extends DefaultTreeCellRenderer {
 
         setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
 
-        if (!(value instanceof DefaultMutableTreeNode node)) {
-            return this;
-        }
-        Object userObject = node.getUserObject();
-        if (!(userObject instanceof JsonNodeData data)) {
+        JsonNodeData data = JsonNodeData.of(value);
+        if (data == null) {
             return this;
         }
 
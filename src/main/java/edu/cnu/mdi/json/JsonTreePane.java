@@ -5,7 +5,10 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.Toolkit;
 import java.awt.datatransfer.StringSelection;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
 import java.util.Enumeration;
 import java.util.List;
 
@@ -17,7 +20,10 @@ import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.JTree;
 import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
 import javax.swing.ToolTipManager;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreeNode;
@@ -28,6 +34,8 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 
+import edu.cnu.mdi.log.Log;
+
 /**
  * The right half of the {@link JsonSplitPane}: a collapsible tree view of a
  * parsed JSON structure.
@@ -79,6 +87,17 @@ import com.google.gson.JsonPrimitive;
  * chain so the matching node is reachable. Clearing the query restores the
  * full tree.
  * </p>
+ *
+ * <h2>Indexed files</h2>
+ * <p>
+ * {@link #setIndex(JsonIndex, String)} shows a file through a
+ * {@link JsonIndexTreeModel} instead: no node exists until its parent is
+ * expanded, so files far larger than the heap can be browsed. Only the root
+ * and those of its children with at most {@value #EXPAND_LIMIT} members start
+ * expanded. Searching scans the index in parallel on a background thread and
+ * swaps in a filtered model when the scan finishes; a newer query supersedes
+ * a scan still running.
+ * </p>
  */
 @SuppressWarnings("serial")
 public class JsonTreePane extends JPanel {
@@ -99,6 +118,16 @@ public class JsonTreePane extends JPanel {
     /** Breadcrumb label foreground. */
     private static final Color CRUMB_FG = new Color(150, 150, 150);
 
+    // -------------------------------------------------------------------------
+    // Indexed-file limits
+    // -------------------------------------------------------------------------
+
+    /** Largest child of the root expanded automatically in an indexed file. */
+    static final int EXPAND_LIMIT = 1000;
+
+    /** Most nodes expanded automatically to reveal search matches. */
+    private static final int MAX_FILTER_EXPAND = 500;
+
     // -------------------------------------------------------------------------
     // Instance state
     // -------------------------------------------------------------------------
@@ -115,6 +144,15 @@ public class JsonTreePane extends JPanel {
      */
     private DefaultMutableTreeNode fullRoot = null;
 
+    /** The indexed file shown lazily, or {@code null}. */
+    private JsonIndex index = null;
+
+    /** Root label of the indexed file. */
+    private String indexLabel = "";
+
+    /** Incremented by every search so stale background results are dropped. */
+    private int searchGeneration = 0;
+
     // -------------------------------------------------------------------------
     // Construction
     // -------------------------------------------------------------------------
@@ -135,10 +173,15 @@ public class JsonTreePane extends JPanel {
         tree.setShowsRootHandles(true);
         tree.setCellRenderer(new JsonTreeCellRenderer());
 
+        // Fixed row height lets the tree lay out only the rows it shows.
+        tree.setRowHeight(tree.getFontMetrics(tree.getFont()).getHeight() + 2);
+        tree.setLargeModel(true);
+
         // Enable tooltips so long paths are readable on hover.
         ToolTipManager.sharedInstance().registerComponent(tree);
 
         installSelectionListener();
+        installExpansionListener();
         installContextMenu();
 
         JScrollPane scroll = new JScrollPane(tree);
@@ -177,6 +220,8 @@ public class JsonTreePane extends JPanel {
      * @param filename display label for the root node
      */
     public void setRoot(JsonElement root, String filename) {
+        index = null;
+        searchGeneration++;
         fullRoot = new DefaultMutableTreeNode(
                 new JsonNodeData(filename, "", JsonNodeData.Kind.ROOT));
         buildTree(fullRoot, root);
@@ -185,6 +230,24 @@ public class JsonTreePane extends JPanel {
         pathLabel.setText(" ");
     }
 
+    /**
+     * Display an indexed file through a lazy model whose nodes are created
+     * only when their parent is expanded.
+     *
+     * <p>Must be called on the EDT.</p>
+     *
+     * @param index    the indexed file; must not be {@code null}
+     * @param filename display label for the root node
+     */
+    public void setIndex(JsonIndex index, String filename) {
+        fullRoot = null;
+        searchGeneration++;
+        this.index = index;
+        this.indexLabel = filename;
+        showIndexModel(new JsonIndexTreeModel(index, filename));
+        pathLabel.setText(" ");
+    }
+
     /**
      * Clear the tree back to an empty state and reset the path label.
      *
@@ -192,6 +255,8 @@ public class JsonTreePane extends JPanel {
      */
     public void clear() {
         fullRoot = null;
+        index = null;
+        searchGeneration++;
         tree.setModel(emptyModel());
         pathLabel.setText(" ");
     }
@@ -209,6 +274,10 @@ public class JsonTreePane extends JPanel {
      *              tree
      */
     public void search(String query) {
+        if (index != null) {
+            searchIndex(query);
+            return;
+        }
         if (fullRoot == null) {
             return;
         }
@@ -235,10 +304,120 @@ public class JsonTreePane extends JPanel {
         expandAll(filteredRoot);
     }
 
+    // -------------------------------------------------------------------------
+    // Private — indexed files
+    // -------------------------------------------------------------------------
+
+    /**
+     * Filter an indexed file. The scan runs on a background thread; its
+     * result is shown only if no newer search or file has arrived meanwhile.
+     *
+     * @param query the filter string; {@code null} or blank restores the
+     *              unfiltered model
+     */
+    private void searchIndex(String query) {
+        int generation = ++searchGeneration;
+        JsonIndex searched = index;
+        if (query == null || query.isBlank()) {
+            showIndexModel(new JsonIndexTreeModel(searched, indexLabel));
+            return;
+        }
+
+        new SwingWorker<BitSet, Void>() {
+
+            @Override
+            protected BitSet doInBackground() {
+                return searched.findContainers(query);
+            }
+
+            @Override
+            protected void done() {
+                if (generation != searchGeneration) {
+                    return;
+                }
+                try {
+                    JsonIndexTreeModel model =
+                            new JsonIndexTreeModel(searched, indexLabel, query, get());
+                    tree.setModel(model);
+                    expandMatches(model);
+                } catch (Exception ex) {
+                    Log.getInstance().exception(ex);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Install an unfiltered index model and expand the root and its small
+     * children.
+     *
+     * @param model the model
+     */
+    private void showIndexModel(JsonIndexTreeModel model) {
+        tree.setModel(model);
+        Object root = model.getRoot();
+        TreePath rootPath = new TreePath(root);
+        tree.expandPath(rootPath);
+        int n = model.getChildCount(root);
+        for (int i = 0; i < n && i < EXPAND_LIMIT; i++) {
+            Object child = model.getChild(root, i);
+            if (!model.isLeaf(child) && model.memberCount(child) <= EXPAND_LIMIT) {
+                tree.expandPath(rootPath.pathByAddingChild(child));
+            }
+        }
+    }
+
+    /**
+     * Expand the nodes of a filtered model breadth-first, up to
+     * {@value #MAX_FILTER_EXPAND} of them, so the first matches are visible.
+     *
+     * @param model the filtered model
+     */
+    private void expandMatches(JsonIndexTreeModel model) {
+        Deque<TreePath> queue = new ArrayDeque<>();
+        queue.add(new TreePath(model.getRoot()));
+        int expanded = 0;
+        while (!queue.isEmpty() && expanded < MAX_FILTER_EXPAND) {
+            TreePath path = queue.poll();
+            tree.expandPath(path);
+            expanded++;
+            Object node = path.getLastPathComponent();
+            int n = model.getChildCount(node);
+            for (int i = 0; i < n; i++) {
+                Object child = model.getChild(node, i);
+                if (!model.isLeaf(child)) {
+                    queue.add(path.pathByAddingChild(child));
+                }
+            }
+        }
+    }
+
     // -------------------------------------------------------------------------
     // Private — selection listener and path building
     // -------------------------------------------------------------------------
 
+    /**
+     * Tell an index model which nodes are expanded, so it keeps their member
+     * lists while the tree shows their rows.
+     */
+    private void installExpansionListener() {
+        tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(TreeExpansionEvent e) {
+                if (tree.getModel() instanceof JsonIndexTreeModel model) {
+                    model.expanded(e.getPath().getLastPathComponent());
+                }
+            }
+
+            @Override
+            public void treeWillCollapse(TreeExpansionEvent e) {
+                if (tree.getModel() instanceof JsonIndexTreeModel model) {
+                    model.collapsed(e.getPath().getLastPathComponent());
+                }
+            }
+        });
+    }
+
     /**
      * Install a tree selection listener that updates the path breadcrumb label
      * whenever the selection changes.
@@ -280,10 +459,8 @@ public class JsonTreePane extends JPanel {
 
         // Skip index 0 (the root / file name node).
         for (int i = 1; i < nodes.length; i++) {
-            if (!(nodes[i] instanceof DefaultMutableTreeNode dmtn)) {
-                continue;
-            }
-            if (!(dmtn.getUserObject() instanceof JsonNodeData data)) {
+            JsonNodeData data = JsonNodeData.of(nodes[i]);
+            if (data == null) {
                 continue;
             }
             String key = data.key;
@@ -322,11 +499,8 @@ public class JsonTreePane extends JPanel {
         menu.add(copyPath);
 
         copyValue.addActionListener(e -> {
-            DefaultMutableTreeNode node = selectedNode();
-            if (node == null) {
-                return;
-            }
-            if (!(node.getUserObject() instanceof JsonNodeData data)) {
+            JsonNodeData data = JsonNodeData.of(selectedNode());
+            if (data == null) {
                 return;
             }
             // For leaf nodes copy the raw value; for branch nodes copy the
@@ -362,9 +536,9 @@ public class JsonTreePane extends JPanel {
                 if (row >= 0) {
                     tree.setSelectionRow(row);
                 }
-                DefaultMutableTreeNode node = selectedNode();
+                Object node = selectedNode();
                 // "Copy value" only makes sense for leaf nodes.
-                copyValue.setEnabled(node != null && node.isLeaf());
+                copyValue.setEnabled(node != null && tree.getModel().isLeaf(node));
                 copyPath.setEnabled(node != null);
                 menu.show(tree, e.getX(), e.getY());
             }
@@ -386,18 +560,14 @@ public class JsonTreePane extends JPanel {
     }
 
     /**
-     * Return the currently selected {@link DefaultMutableTreeNode}, or
-     * {@code null} if nothing is selected.
+     * Return the currently selected node of either model, or {@code null} if
+     * nothing is selected.
      *
      * @return the selected node, or {@code null}
      */
-    private DefaultMutableTreeNode selectedNode() {
+    private Object selectedNode() {
         TreePath sel = tree.getSelectionPath();
-        if (sel == null) {
-            return null;
-        }
-        Object last = sel.getLastPathComponent();
-        return (last instanceof DefaultMutableTreeNode dmtn) ? dmtn : null;
+        return (sel == null) ? null : sel.getLastPathComponent();
     }
 
     /**
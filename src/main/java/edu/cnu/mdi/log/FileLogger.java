@@ -9,6 +9,9 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * An {@link ILogListener} that appends log messages to a file with automatic
@@ -48,9 +51,38 @@ import java.time.format.DateTimeFormatter;
  *
  * <h2>Flushing</h2>
  * <p>
- * The writer is flushed after every message. This is slightly less efficient
- * than batched flushing but ensures that no messages are lost if the JVM
- * terminates abnormally.
+ * In the default synchronous mode the writer is flushed after every message.
+ * This is slightly less efficient than batched flushing but ensures that no
+ * messages are lost if the JVM terminates abnormally.
+ * </p>
+ *
+ * <h2>Asynchronous mode</h2>
+ * <p>
+ * The {@link #FileLogger(Path, long, int, OverflowPolicy)} constructor with a
+ * positive buffer capacity enables asynchronous mode. The logging thread only
+ * formats the entry and appends it to a bounded lock-free ring buffer; a
+ * single daemon writer thread drains the buffer, checks rotation and writes
+ * entries in batches. The writer flushes when
+ * {@value #FLUSH_BYTES} characters are pending or
+ * {@value #FLUSH_INTERVAL_MS} ms after the oldest unflushed entry, whichever
+ * comes first, so a burst of messages costs one flush rather than one per
+ * message.
+ * </p>
+ * <p>
+ * When the buffer is full the {@link OverflowPolicy} decides:
+ * {@link OverflowPolicy#BLOCK} makes the logging thread wait for space,
+ * {@link OverflowPolicy#DROP} discards the entry and counts it (see
+ * {@link #getDroppedCount()}); the writer then records how many entries were
+ * lost in a warning line.
+ * </p>
+ * <pre>
+ * Log.getInstance().addLogListener(new FileLogger(Path.of("app.log"),
+ *         FileLogger.DEFAULT_MAX_BYTES, FileLogger.DEFAULT_BUFFER_CAPACITY,
+ *         FileLogger.OverflowPolicy.DROP));
+ * </pre>
+ * <p>
+ * {@link #close()} and the shutdown hook drain every buffered entry to disk
+ * before closing the file.
  * </p>
  *
  * <h2>Registration</h2>
@@ -79,9 +111,10 @@ import java.time.format.DateTimeFormatter;
  *
  * <h2>Thread safety</h2>
  * <p>
- * All write operations are {@code synchronized} on the {@code FileLogger}
+ * All file operations are {@code synchronized} on the {@code FileLogger}
  * instance, so it is safe to receive messages from multiple threads
- * simultaneously.
+ * simultaneously. In asynchronous mode only the writer thread takes that
+ * lock; logging threads never do.
  * </p>
  */
 public class FileLogger implements ILogListener, Closeable {
@@ -93,6 +126,18 @@ public class FileLogger implements ILogListener, Closeable {
     /** Default maximum log-file size before rotation: 5 MB. */
     public static final long DEFAULT_MAX_BYTES = 5L * 1024L * 1024L;
 
+    /** Suggested ring-buffer capacity for asynchronous mode. */
+    public static final int DEFAULT_BUFFER_CAPACITY = 8192;
+
+    /** Asynchronous mode: pending characters that force a flush. */
+    public static final int FLUSH_BYTES = 64 * 1024;
+
+    /** Asynchronous mode: maximum age of an unflushed entry, in ms. */
+    public static final long FLUSH_INTERVAL_MS = 200;
+
+    /** How long {@link #close()} waits for the writer thread to drain. */
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+
     /** Date-time formatter for log entry timestamps. */
     private static final DateTimeFormatter TIMESTAMP_FMT =
             DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
@@ -105,6 +150,22 @@ public class FileLogger implements ILogListener, Closeable {
             "                    " + "           ";
     //       timestamp (19 chars) + " [XXXXXXX] "
 
+    // -----------------------------------------------------------------------
+    // Overflow policy
+    // -----------------------------------------------------------------------
+
+    /**
+     * What a logging thread does when the asynchronous buffer is full.
+     */
+    public enum OverflowPolicy {
+
+        /** Wait until the writer thread frees a slot. No entry is lost. */
+        BLOCK,
+
+        /** Discard the entry and count it; the logging thread never waits. */
+        DROP
+    }
+
     // -----------------------------------------------------------------------
     // Instance state
     // -----------------------------------------------------------------------
@@ -125,7 +186,28 @@ public class FileLogger implements ILogListener, Closeable {
     private BufferedWriter writer;
 
     /** {@code true} once {@link #close()} has been called. */
-    private boolean closed = false;
+    private volatile boolean closed = false;
+
+    /** Pre-formatted entries; {@code null} in synchronous mode. */
+    private final LogRingBuffer<String> buffer;
+
+    /** Behavior when {@link #buffer} is full. */
+    private final OverflowPolicy overflowPolicy;
+
+    /** Drains {@link #buffer}; {@code null} in synchronous mode. */
+    private volatile Thread writerThread;
+
+    /** {@code true} while the writer thread is parked waiting for entries. */
+    private volatile boolean writerParked;
+
+    /** Entries discarded under {@link OverflowPolicy#DROP}. */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** Dropped entries already reported in the file; writer thread only. */
+    private long reportedDrops;
+
+    /** Estimated size of the active file; writer thread only. */
+    private long fileBytes;
 
     // -----------------------------------------------------------------------
     // Construction
@@ -154,6 +236,30 @@ public class FileLogger implements ILogListener, Closeable {
      *                                  {@code maxFileSizeBytes} is not positive
      */
     public FileLogger(Path logPath, long maxFileSizeBytes) {
+        this(logPath, maxFileSizeBytes, 0, null);
+    }
+
+    /**
+     * Construct a {@code FileLogger} that writes to {@code logPath}, rotates
+     * when the file exceeds {@code maxFileSizeBytes} and, if
+     * {@code bufferCapacity} is positive, writes asynchronously through a
+     * ring buffer of that many entries.
+     *
+     * @param logPath          path of the log file to write
+     * @param maxFileSizeBytes maximum file size in bytes before rotation;
+     *                         must be positive
+     * @param bufferCapacity   ring-buffer capacity (rounded up to a power of
+     *                         two), or 0 for synchronous mode
+     * @param overflowPolicy   what to do when the buffer is full; required
+     *                         in asynchronous mode, ignored otherwise
+     * @throws IllegalArgumentException if {@code logPath} is {@code null},
+     *                                  {@code maxFileSizeBytes} is not
+     *                                  positive, {@code bufferCapacity} is
+     *                                  negative, or asynchronous mode is
+     *                                  requested without a policy
+     */
+    public FileLogger(Path logPath, long maxFileSizeBytes, int bufferCapacity,
+            OverflowPolicy overflowPolicy) {
         if (logPath == null) {
             throw new IllegalArgumentException("logPath must not be null.");
         }
@@ -161,14 +267,32 @@ public class FileLogger implements ILogListener, Closeable {
             throw new IllegalArgumentException(
                     "maxFileSizeBytes must be positive.");
         }
+        if (bufferCapacity < 0) {
+            throw new IllegalArgumentException(
+                    "bufferCapacity must not be negative.");
+        }
+        if (bufferCapacity > 0 && overflowPolicy == null) {
+            throw new IllegalArgumentException(
+                    "overflowPolicy is required in asynchronous mode.");
+        }
 
         this.logPath         = logPath;
         this.backupPath      = buildBackupPath(logPath);
         this.maxFileSizeBytes = maxFileSizeBytes;
+        this.buffer          = (bufferCapacity > 0)
+                ? new LogRingBuffer<>(bufferCapacity) : null;
+        this.overflowPolicy  = (bufferCapacity > 0) ? overflowPolicy : null;
 
         openWriter();
         writeSessionHeader();
         registerShutdownHook();
+
+        if (buffer != null) {
+            fileBytes = sizeOf(logPath);
+            writerThread = new Thread(this::runWriter, "FileLogger-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
     }
 
     // -----------------------------------------------------------------------
@@ -231,7 +355,8 @@ public class FileLogger implements ILogListener, Closeable {
     // -----------------------------------------------------------------------
 
     /**
-     * Flush and close the underlying file writer.
+     * Flush and close the underlying file writer. In asynchronous mode every
+     * entry already buffered is written first.
      * <p>
      * After this call the logger silently discards any further messages.
      * The logger should also be unregistered from {@link Log} so it stops
@@ -243,12 +368,28 @@ public class FileLogger implements ILogListener, Closeable {
      * </pre>
      */
     @Override
-    public synchronized void close() {
-        if (closed) {
-            return;
+    public void close() {
+        Thread writerToJoin;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            writerToJoin = writerThread;
+        }
+
+        if (writerToJoin != null && writerToJoin != Thread.currentThread()) {
+            LockSupport.unpark(writerToJoin);
+            try {
+                writerToJoin.join(CLOSE_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized (this) {
+            closeWriter();
         }
-        closed = true;
-        closeWriter();
     }
 
     // -----------------------------------------------------------------------
@@ -273,18 +414,64 @@ public class FileLogger implements ILogListener, Closeable {
         return maxFileSizeBytes;
     }
 
+    /**
+     * Returns whether entries are written by a background writer thread.
+     *
+     * @return {@code true} in asynchronous mode
+     */
+    public boolean isAsync() {
+        return buffer != null;
+    }
+
+    /**
+     * Returns the overflow policy of asynchronous mode.
+     *
+     * @return the policy, or {@code null} in synchronous mode
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Returns the number of entries discarded because the asynchronous
+     * buffer was full under {@link OverflowPolicy#DROP}.
+     *
+     * @return the dropped-entry count
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
     // -----------------------------------------------------------------------
     // Private — writing
     // -----------------------------------------------------------------------
 
     /**
-     * Format and append a single log entry to the file, rotating first if the
-     * file has grown beyond the threshold.
+     * Format a single log entry and either append it to the file or, in
+     * asynchronous mode, hand it to the writer thread.
+     *
+     * @param level   the log level
+     * @param message the message text
+     */
+    private void write(Log.Level level, String message) {
+        if (closed) {
+            return;
+        }
+        if (buffer != null) {
+            enqueue(format(level, message));
+        } else {
+            writeNow(level, message);
+        }
+    }
+
+    /**
+     * Append a single log entry to the file, rotating first if the file has
+     * grown beyond the threshold.
      *
      * @param level   the log level
      * @param message the message text
      */
-    private synchronized void write(Log.Level level, String message) {
+    private synchronized void writeNow(Log.Level level, String message) {
         if (closed || writer == null) {
             return;
         }
@@ -343,6 +530,153 @@ public class FileLogger implements ILogListener, Closeable {
         };
     }
 
+    // -----------------------------------------------------------------------
+    // Private — asynchronous mode
+    // -----------------------------------------------------------------------
+
+    /**
+     * Add a formatted entry to the ring buffer, applying the overflow policy
+     * if it is full.
+     *
+     * @param entry the formatted entry
+     */
+    private void enqueue(String entry) {
+        while (!buffer.offer(entry)) {
+            if (overflowPolicy == OverflowPolicy.DROP
+                    || closed || Thread.currentThread() == writerThread) {
+                dropped.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+        if (writerParked) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Body of the writer thread: drain the buffer in batches until the logger
+     * is closed and the buffer is empty.
+     */
+    private void runWriter() {
+        final long interval = TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS);
+        long pending = 0;         // characters written since the last flush
+        long oldestPending = 0;   // nanoTime of the first of them
+
+        while (true) {
+            String entry = buffer.poll();
+            if (entry != null) {
+                if (pending == 0) {
+                    oldestPending = System.nanoTime();
+                }
+                pending += append(entry);
+            } else if (!buffer.isEmpty()) {
+                // a producer has claimed a slot but not yet published it
+                Thread.onSpinWait();
+                continue;
+            }
+
+            long now = System.nanoTime();
+            boolean idle = (entry == null);
+            if ((pending > 0 && (pending >= FLUSH_BYTES || now - oldestPending >= interval))
+                    || (idle && closed)) {
+                flushWriter();
+                pending = 0;
+            }
+
+            if (idle) {
+                if (closed) {
+                    return;
+                }
+                long wait = (pending > 0) ? interval - (now - oldestPending) : interval;
+                writerParked = true;
+                if (buffer.isEmpty() && !closed) {
+                    LockSupport.parkNanos(this, Math.max(wait, 1));
+                }
+                writerParked = false;
+            }
+        }
+    }
+
+    /**
+     * Write one formatted entry from the writer thread, rotating first if the
+     * file has grown beyond the threshold and reporting any dropped entries.
+     *
+     * @param entry the formatted entry
+     * @return the number of characters written
+     */
+    private synchronized long append(String entry) {
+        if (writer == null) {
+            return 0;
+        }
+        long written = 0;
+        try {
+            if (fileBytes >= maxFileSizeBytes) {
+                rotate();
+                fileBytes = sizeOf(logPath);
+                if (writer == null) {
+                    return 0;
+                }
+            }
+            written += writeDropNote();
+            writer.write(entry);
+            writer.newLine();
+            written += entry.length() + 1;
+        } catch (IOException e) {
+            System.err.println("FileLogger: write failed: " + e.getMessage());
+        }
+        fileBytes += written;
+        return written;
+    }
+
+    /**
+     * Write a warning with the number of entries dropped since the last such
+     * warning, if any.
+     *
+     * @return the number of characters written
+     * @throws IOException if the write fails
+     */
+    private long writeDropNote() throws IOException {
+        long lost = dropped.get();
+        if (lost <= reportedDrops) {
+            return 0;
+        }
+        String note = format(Log.Level.WARNING, (lost - reportedDrops)
+                + " log message(s) dropped: asynchronous buffer full.");
+        reportedDrops = lost;
+        writer.write(note);
+        writer.newLine();
+        return note.length() + 1;
+    }
+
+    /** Flush the writer from the writer thread. */
+    private synchronized void flushWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            fileBytes += writeDropNote();
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("FileLogger: flush failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the size of a file, or 0 if it cannot be determined.
+     *
+     * @param path the file
+     * @return its size in bytes
+     */
+    private static long sizeOf(Path path) {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
     // -----------------------------------------------------------------------
     // Private — rotation
     // -----------------------------------------------------------------------
@@ -476,21 +810,16 @@ public class FileLogger implements ILogListener, Closeable {
     }
 
     /**
-     * Register a JVM shutdown hook that closes the writer if
-     * {@link #close()} was not called explicitly.
+     * Register a JVM shutdown hook that {@link #close() closes} the logger if
+     * that was not done explicitly.
      * <p>
-     * This guarantees that buffered messages are flushed even if the
-     * application exits without an orderly shutdown sequence.
+     * This guarantees that buffered messages, including entries still in the
+     * asynchronous ring buffer, are flushed even if the application exits
+     * without an orderly shutdown sequence.
      * </p>
      */
     private void registerShutdownHook() {
-        Thread hook = new Thread(() -> {
-            synchronized (FileLogger.this) {
-                if (!closed) {
-                    closeWriter();
-                }
-            }
-        }, "FileLogger-shutdown-hook");
+        Thread hook = new Thread(this::close, "FileLogger-shutdown-hook");
         hook.setDaemon(true);
         Runtime.getRuntime().addShutdownHook(hook);
     }
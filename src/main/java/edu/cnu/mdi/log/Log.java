@@ -16,8 +16,8 @@ import javax.swing.event.EventListenerList;
  * framework ships with three ready-made listeners:
  * </p>
  * <ul>
- *   <li>{@link LogPane} — displays messages in a color-coded Swing text
- *       pane inside the application's {@code LogView}.</li>
+ *   <li>{@link LogPane} — displays messages in a color-coded, virtualized
+ *       list inside the application's {@code LogView}.</li>
  *   <li>{@code ConsoleLogger} — writes to {@code System.out} /
  *       {@code System.err} with timestamps.</li>
  *   <li>{@code FileLogger} — appends to a rotating log file.</li>
@@ -0,0 +1,265 @@
+package edu.cnu.mdi.log;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Bounded store of log lines behind {@link LogPane}, with an index of the
+ * lines that pass the current level filter.
+ *
+ * <h2>Storage</h2>
+ * <p>
+ * Multi-line messages are split into lines on arrival. Lines live in a ring
+ * of fixed capacity and are numbered by a sequence that never decreases; once
+ * the ring is full each new line overwrites the oldest one.
+ * </p>
+ *
+ * <h2>Filter index</h2>
+ * <p>
+ * The sequence numbers of the lines whose level is visible are kept, in
+ * order, in a growable array. Rows of the view are positions in this index,
+ * so {@link #size()} and {@link #get(int)} are O(1) and searching scans only
+ * visible lines. Appending and evicting update the index incrementally; only
+ * a filter change rebuilds it.
+ * </p>
+ *
+ * <h2>Threading</h2>
+ * <p>
+ * Not thread-safe; {@link LogPane} confines it to the Event Dispatch Thread.
+ * </p>
+ */
+final class LogLineBuffer {
+
+    // -----------------------------------------------------------------------
+    // Line record
+    // -----------------------------------------------------------------------
+
+    /**
+     * One displayed line.
+     *
+     * @param seq   sequence number
+     * @param level level of the message the line belongs to
+     * @param time  timestamp of the message, or {@code null} on its
+     *              continuation lines
+     * @param text  line text, without a line terminator
+     */
+    record Line(long seq, Log.Level level, String time, String text) {
+
+        /** @return the line as it would appear in a text log */
+        @Override
+        public String toString() {
+            return (time == null) ? "         " + text : time + " " + text;
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    // Instance state
+    // -----------------------------------------------------------------------
+
+    private final Line[] ring;
+
+    /** Sequence number of the next line. */
+    private long nextSeq;
+
+    private final Set<Log.Level> visible = EnumSet.allOf(Log.Level.class);
+
+    /** Sequence numbers of visible lines, live between start and end. */
+    private long[] index = new long[1024];
+    private int indexStart;
+    private int indexEnd;
+
+    /** Index entries evicted from the front since {@link #takeEvictedCount()}. */
+    private int evicted;
+
+    // -----------------------------------------------------------------------
+    // Construction
+    // -----------------------------------------------------------------------
+
+    /**
+     * Create an empty buffer.
+     *
+     * @param capacity maximum number of lines held
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    LogLineBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive.");
+        }
+        ring = new Line[capacity];
+    }
+
+    // -----------------------------------------------------------------------
+    // Mutation
+    // -----------------------------------------------------------------------
+
+    /**
+     * Append a message, one line per line of text. A trailing line
+     * terminator does not produce an empty line.
+     *
+     * @param level   the level
+     * @param time    the timestamp shown on the first line
+     * @param message the message; {@code null} appends an empty line
+     * @return the lines appended
+     */
+    int add(Log.Level level, String time, String message) {
+        String text = (message == null) ? "" : message;
+        int end = text.length();
+        if (end > 0 && text.charAt(end - 1) == '\n') {
+            end--;
+        }
+        int count = 0;
+        int from = 0;
+        while (true) {
+            int nl = text.indexOf('\n', from);
+            int to = (nl < 0 || nl > end) ? end : nl;
+            int stop = (to > from && text.charAt(to - 1) == '\r') ? to - 1 : to;
+            addLine(new Line(nextSeq, level, (count == 0) ? time : null, text.substring(from, stop)));
+            count++;
+            if (to >= end) {
+                return count;
+            }
+            from = to + 1;
+        }
+    }
+
+    private void addLine(Line line) {
+        int slot = (int) (line.seq() % ring.length);
+        Line old = ring[slot];
+        if (old != null && indexStart < indexEnd && index[indexStart] == old.seq()) {
+            indexStart++;
+            evicted++;
+        }
+        ring[slot] = line;
+        nextSeq++;
+        if (visible.contains(line.level())) {
+            appendIndex(line.seq());
+        }
+    }
+
+    private void appendIndex(long seq) {
+        if (indexEnd == index.length) {
+            int live = indexEnd - indexStart;
+            if (live * 2 > index.length) {
+                index = Arrays.copyOfRange(index, indexStart, indexStart + Math.max(2 * index.length, 1024));
+            } else {
+                System.arraycopy(index, indexStart, index, 0, live);
+            }
+            indexStart = 0;
+            indexEnd = live;
+        }
+        index[indexEnd++] = seq;
+    }
+
+    /**
+     * Number of visible lines evicted from the front of the index since the
+     * last call; resets the count.
+     *
+     * @return evicted row count
+     */
+    int takeEvictedCount() {
+        int n = evicted;
+        evicted = 0;
+        return n;
+    }
+
+    /** Remove every line. */
+    void clear() {
+        Arrays.fill(ring, null);
+        indexStart = 0;
+        indexEnd = 0;
+        evicted = 0;
+    }
+
+    // -----------------------------------------------------------------------
+    // Filtering
+    // -----------------------------------------------------------------------
+
+    /**
+     * Show or hide a level and rebuild the index if that changes anything.
+     *
+     * @param level the level
+     * @param show  whether its lines are visible
+     * @return {@code true} if the index was rebuilt
+     */
+    boolean setLevelVisible(Log.Level level, boolean show) {
+        if (show ? !visible.add(level) : !visible.remove(level)) {
+            return false;
+        }
+        indexStart = 0;
+        indexEnd = 0;
+        evicted = 0;
+        for (long seq = Math.max(0, nextSeq - ring.length); seq < nextSeq; seq++) {
+            Line line = ring[(int) (seq % ring.length)];
+            if (line != null && visible.contains(line.level())) {
+                appendIndex(seq);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param level the level
+     * @return whether lines of that level are visible
+     */
+    boolean isLevelVisible(Log.Level level) {
+        return visible.contains(level);
+    }
+
+    // -----------------------------------------------------------------------
+    // Access
+    // -----------------------------------------------------------------------
+
+    /** @return the number of visible lines */
+    int size() {
+        return indexEnd - indexStart;
+    }
+
+    /**
+     * @param row row in {@code [0, size())}
+     * @return the visible line at that row
+     */
+    Line get(int row) {
+        return ring[(int) (index[indexStart + row] % ring.length)];
+    }
+
+    /** @return maximum number of lines held */
+    int capacity() {
+        return ring.length;
+    }
+
+    /**
+     * Find the next visible line containing {@code query}, ignoring case,
+     * wrapping around the ends.
+     *
+     * @param query   the text to find
+     * @param from    row to start after (forward) or before (backward); -1
+     *                starts from the first or last row
+     * @param forward search direction
+     * @return the matching row, or -1
+     */
+    int find(String query, int from, boolean forward) {
+        int n = size();
+        if (query == null || query.isEmpty() || n == 0) {
+            return -1;
+        }
+        int row = (from < 0 || from >= n) ? (forward ? -1 : n) : from;
+        for (int i = 0; i < n; i++) {
+            row = forward ? (row + 1) % n : (row - 1 + n) % n;
+            if (containsIgnoreCase(get(row).text(), query)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean containsIgnoreCase(String text, String query) {
+        int last = text.length() - query.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,15 +1,36 @@
 package edu.cnu.mdi.log;
 
+import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.EnumMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.swing.AbstractListModel;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollBar;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.JToolBar;
+import javax.swing.ListCellRenderer;
+import javax.swing.ListSelectionModel;
 import javax.swing.SwingUtilities;
-import javax.swing.text.SimpleAttributeSet;
 
-import edu.cnu.mdi.component.TextPaneScrollPane;
 import edu.cnu.mdi.ui.colors.X11Colors;
 
 /**
@@ -17,10 +38,9 @@ import edu.cnu.mdi.ui.colors.X11Colors;
  *
  * <h2>Overview</h2>
  * <p>
- * {@code LogPane} extends {@link TextPaneScrollPane} and registers itself as
- * an {@link ILogListener} with the {@link Log} singleton at construction
- * time. Each log level is rendered in a distinct color and font so messages
- * can be scanned at a glance:
+ * {@code LogPane} registers itself as an {@link ILogListener} with the
+ * {@link Log} singleton at construction time. Each log level is rendered in
+ * a distinct color and font so messages can be scanned at a glance:
  * </p>
  * <ul>
  *   <li><b>INFO</b> — black, sans-serif</li>
@@ -30,12 +50,28 @@ import edu.cnu.mdi.ui.colors.X11Colors;
  *   <li><b>EXCEPTION</b> — red, monospaced, italic (smaller; stack traces
  *       are verbose)</li>
  * </ul>
+ * <p>
+ * A tool bar above the log toggles each level and searches the log.
+ * </p>
+ *
+ * <h2>Virtualization</h2>
+ * <p>
+ * Messages are split into lines and kept in a bounded ring
+ * ({@link #DEFAULT_MAX_LINES} lines unless another limit is given to
+ * {@link #LogPane(int)}); the oldest lines are discarded once it is full.
+ * The lines are shown by a {@link JList} with a fixed cell size, so only the
+ * rows inside the viewport are ever painted or measured, no matter how many
+ * lines are held. Level filtering and search work on an index of the visible
+ * lines rather than on a text document.
+ * </p>
  *
  * <h2>Threading</h2>
  * <p>
- * Log messages may arrive from any thread. All Swing text-pane mutations are
- * dispatched to the EDT via {@link SwingUtilities#invokeLater} so this class
- * is safe to use from background threads.
+ * Log messages may arrive from any thread. They are queued and a single
+ * pending {@link SwingUtilities#invokeLater} task moves everything queued so
+ * far into the view, so a burst of messages costs one EDT update rather than
+ * one per message. If the EDT falls more than the line limit behind, the
+ * oldest queued messages are dropped and counted in the status label.
  * </p>
  *
  * <h2>Lifecycle</h2>
@@ -47,18 +83,19 @@ import edu.cnu.mdi.ui.colors.X11Colors;
  * </p>
  */
 @SuppressWarnings("serial")
-public class LogPane extends TextPaneScrollPane {
+public class LogPane extends JPanel {
 
     // -----------------------------------------------------------------------
     // Style constants
     // -----------------------------------------------------------------------
-	
+
+    /** Default maximum number of lines held. */
+    public static final int DEFAULT_MAX_LINES = 200_000;
 
     /** Formatter for the HH:mm:ss timestamp prefix. */
     private static final DateTimeFormatter TIME_FMT =
             DateTimeFormatter.ofPattern("HH:mm:ss");
 
-
     private static final int FONT_SIZE      = 11;
 
     /**
@@ -70,6 +107,13 @@ public class LogPane extends TextPaneScrollPane {
      */
     private static final int EXCEPTION_FONT_SIZE = 10;
 
+    /** Horizontal padding of a row, in pixels. */
+    private static final int PAD = 3;
+
+    /** Visual style of one level. */
+    private record LineStyle(Color color, Font font) {
+    }
+
     /**
      * Per-level text styles, initialized once at class load.
      * <p>
@@ -78,32 +122,31 @@ public class LogPane extends TextPaneScrollPane {
      * provides O(1) lookup.
      * </p>
      */
-    private static final EnumMap<Log.Level, SimpleAttributeSet> STYLES;
-    
-    /// Style for timestamps 
-    private static final SimpleAttributeSet TIME_STYLE;
+    private static final EnumMap<Log.Level, LineStyle> STYLES;
+
+    /// Style for timestamps
+    private static final LineStyle TIME_STYLE;
 
     static {
-    	TIME_STYLE = createStyle(X11Colors.getX11Color("dark green"),
-				"monospaced", FONT_SIZE, false, false);
-    	
+        TIME_STYLE = new LineStyle(X11Colors.getX11Color("dark green"),
+                new Font(Font.MONOSPACED, Font.PLAIN, FONT_SIZE));
+
         STYLES = new EnumMap<>(Log.Level.class);
         STYLES.put(Log.Level.INFO,
-                createStyle(Color.black,
-                        "sansserif", FONT_SIZE, false, false));
+                new LineStyle(Color.black,
+                        new Font(Font.SANS_SERIF, Font.PLAIN, FONT_SIZE)));
         STYLES.put(Log.Level.CONFIG,
-                createStyle(Color.blue,
-                        "sansserif", FONT_SIZE, false, false));
+                new LineStyle(Color.blue,
+                        new Font(Font.SANS_SERIF, Font.PLAIN, FONT_SIZE)));
         STYLES.put(Log.Level.WARNING,
-                createStyle(X11Colors.getX11Color("orange red"),
-                        "monospaced", FONT_SIZE, false, true));
+                new LineStyle(X11Colors.getX11Color("orange red"),
+                        new Font(Font.MONOSPACED, Font.ITALIC, FONT_SIZE)));
         STYLES.put(Log.Level.ERROR,
-                createStyle(Color.red,
-                        "sansserif", FONT_SIZE, false, true));
-        // Fixed: was accidentally overwriting the ERROR entry with ERROR key.
+                new LineStyle(Color.red,
+                        new Font(Font.SANS_SERIF, Font.ITALIC, FONT_SIZE)));
         STYLES.put(Log.Level.EXCEPTION,
-                createStyle(Color.red,
-                        "monospaced", EXCEPTION_FONT_SIZE, false, true));
+                new LineStyle(Color.red,
+                        new Font(Font.MONOSPACED, Font.ITALIC, EXCEPTION_FONT_SIZE)));
     }
 
     // -----------------------------------------------------------------------
@@ -118,13 +161,36 @@ public class LogPane extends TextPaneScrollPane {
      */
     private final ILogListener logListener;
 
+    /** A message waiting for the next EDT update. */
+    private record Pending(Log.Level level, String time, String message) {
+    }
+
+    /** Messages logged since the last EDT update. */
+    private final ConcurrentLinkedQueue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** Lines held; EDT only. */
+    private final LogLineBuffer lines;
+
+    private final LineModel model = new LineModel();
+    private final JList<LogLineBuffer.Line> list = new JList<>(model);
+    private final JScrollPane scrollPane = new JScrollPane(list);
+    private final LineRenderer renderer = new LineRenderer();
+    private final JTextField searchField = new JTextField(16);
+    private final JLabel status = new JLabel();
+
+    /** Widest row painted so far; the list's fixed cell width. */
+    private int maxRowWidth;
+
     // -----------------------------------------------------------------------
     // Construction
     // -----------------------------------------------------------------------
 
     /**
-     * Construct a {@code LogPane} and register it with the {@link Log}
-     * singleton.
+     * Construct a {@code LogPane} holding up to {@link #DEFAULT_MAX_LINES}
+     * lines and register it with the {@link Log} singleton.
      * <p>
      * The pane begins receiving messages immediately after construction.
      * Call {@link #detach()} if you need to stop receiving messages without
@@ -132,21 +198,74 @@ public class LogPane extends TextPaneScrollPane {
      * </p>
      */
     public LogPane() {
+        this(DEFAULT_MAX_LINES);
+    }
+
+    /**
+     * Construct a {@code LogPane} holding up to {@code maxLines} lines and
+     * register it with the {@link Log} singleton.
+     *
+     * @param maxLines maximum number of lines kept; older lines are
+     *                 discarded
+     * @throws IllegalArgumentException if {@code maxLines} is not positive
+     */
+    public LogPane(int maxLines) {
+        super(new BorderLayout());
+        lines = new LogLineBuffer(maxLines);
         setPreferredSize(new Dimension(800, 400));
 
+        list.setCellRenderer(renderer);
+        list.setFixedCellHeight(renderer.rowHeight());
+        list.setFixedCellWidth(1);
+        list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        add(createToolBar(), BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        updateStatus();
+
         // Build a listener using default methods — only override levels that
         // need non-default (i.e. all of them here, but concisely via lambdas).
         logListener = new ILogListener() {
-            @Override public void info     (String m) { appendOnEdt(Log.Level.INFO,      m); }
-            @Override public void config   (String m) { appendOnEdt(Log.Level.CONFIG,    m); }
-            @Override public void warning  (String m) { appendOnEdt(Log.Level.WARNING,   m); }
-            @Override public void error    (String m) { appendOnEdt(Log.Level.ERROR,     m); }
-            @Override public void exception(String m) { appendOnEdt(Log.Level.EXCEPTION, m); }
+            @Override public void info     (String m) { enqueue(Log.Level.INFO,      m); }
+            @Override public void config   (String m) { enqueue(Log.Level.CONFIG,    m); }
+            @Override public void warning  (String m) { enqueue(Log.Level.WARNING,   m); }
+            @Override public void error    (String m) { enqueue(Log.Level.ERROR,     m); }
+            @Override public void exception(String m) { enqueue(Log.Level.EXCEPTION, m); }
         };
 
         Log.getInstance().addLogListener(logListener);
     }
 
+    private JToolBar createToolBar() {
+        JToolBar bar = new JToolBar();
+        bar.setFloatable(false);
+        for (Log.Level level : Log.Level.values()) {
+            JCheckBox box = new JCheckBox(level.name(), true);
+            box.setForeground(STYLES.get(level).color());
+            box.addActionListener(e -> setLevelVisible(level, box.isSelected()));
+            bar.add(box);
+        }
+        bar.addSeparator();
+        bar.add(new JLabel("Find: "));
+        searchField.setMaximumSize(searchField.getPreferredSize());
+        searchField.addActionListener(e -> find(searchField.getText(), true));
+        bar.add(searchField);
+        JButton prev = new JButton("▲");
+        prev.setToolTipText("Find previous");
+        prev.addActionListener(e -> find(searchField.getText(), false));
+        bar.add(prev);
+        JButton next = new JButton("▼");
+        next.setToolTipText("Find next");
+        next.addActionListener(e -> find(searchField.getText(), true));
+        bar.add(next);
+        bar.addSeparator();
+        JButton clear = new JButton("Clear");
+        clear.addActionListener(e -> clear());
+        bar.add(clear);
+        bar.addSeparator();
+        bar.add(status);
+        return bar;
+    }
+
     // -----------------------------------------------------------------------
     // Public API
     // -----------------------------------------------------------------------
@@ -163,56 +282,286 @@ public class LogPane extends TextPaneScrollPane {
         Log.getInstance().removeLogListener(logListener);
     }
 
+    /**
+     * Remove every line. Must be called on the EDT.
+     */
+    public void clear() {
+        flushPending();
+        int size = lines.size();
+        lines.clear();
+        if (size > 0) {
+            model.fireRemoved(0, size - 1);
+        }
+        maxRowWidth = 0;
+        list.setFixedCellWidth(1);
+        updateStatus();
+    }
+
+    /**
+     * Show or hide the lines of one level. Must be called on the EDT.
+     *
+     * @param level the level
+     * @param show  whether to show its lines
+     */
+    public void setLevelVisible(Log.Level level, boolean show) {
+        flushPending();
+        int before = lines.size();
+        if (lines.setLevelVisible(level, show)) {
+            model.fireReplaced(before, lines.size());
+            updateStatus();
+        }
+    }
+
+    /**
+     * @param level the level
+     * @return whether lines of that level are shown
+     */
+    public boolean isLevelVisible(Log.Level level) {
+        return lines.isLevelVisible(level);
+    }
+
+    /**
+     * Select and scroll to the next (or previous) shown line containing
+     * {@code query}, ignoring case. Must be called on the EDT.
+     *
+     * @param query   the text to find
+     * @param forward search direction
+     * @return the row found, or -1
+     */
+    public int find(String query, boolean forward) {
+        flushPending();
+        int from = forward ? list.getMaxSelectionIndex() : list.getMinSelectionIndex();
+        int row = lines.find(query, from, forward);
+        if (row >= 0) {
+            list.setSelectedIndex(row);
+            list.ensureIndexIsVisible(row);
+        }
+        return row;
+    }
+
+    /**
+     * Number of lines currently shown (after level filtering). Must be called
+     * on the EDT; messages still queued are not counted.
+     *
+     * @return the shown line count
+     */
+    public int getLineCount() {
+        return lines.size();
+    }
+
+    /**
+     * Text of a shown line, as it would appear in a text log. Must be called
+     * on the EDT.
+     *
+     * @param row row in {@code [0, getLineCount())}
+     * @return the line text with its timestamp prefix
+     */
+    public String getLineText(int row) {
+        return lines.get(row).toString();
+    }
+
+    /**
+     * @return the maximum number of lines held
+     */
+    public int getMaxLines() {
+        return lines.capacity();
+    }
+
+    /**
+     * @return the number of messages dropped because the EDT fell too far
+     *         behind
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
     // -----------------------------------------------------------------------
     // Private helpers
     // -----------------------------------------------------------------------
 
     /**
-	 * Append {@code message} at {@code level} on the Swing EDT.
-	 * <p>
-	 * If the calling thread is already the EDT the append happens synchronously via
-	 * a direct {@code invokeLater} queue entry; either way Swing's single-threaded
-	 * rule is respected.
-	 * </p>
-	 *
-	 * @param level   the log level whose style should be applied
-	 * @param message the raw message text
-	 */
-	private void appendOnEdt(Log.Level level, String message) {
-
-		SwingUtilities.invokeLater(() -> {
-			appendTimeStamp();
-			appendStyled(level, message);
-		});
-	}
-
-    private void appendTimeStamp() {
-		String timeStamp = LocalTime.now().format(TIME_FMT);
-		append(timeStamp + " ", TIME_STYLE, false);
-	}
-
-    /**
-     * Append {@code message} to the text pane using the style registered for
-     * {@code level}.
-     * <p>
-     * A trailing newline is appended if the message does not already end with
-     * one, so each message occupies its own line regardless of how the caller
-     * formatted the string.
-     * </p>
-     * <p>
-     * For {@link Log.Level#ERROR} and {@link Log.Level#EXCEPTION} messages a
-     * timestamp prefix is also prepended by the underlying
-     * {@link TextPaneScrollPane#append(String, SimpleAttributeSet, boolean)}
-     * call.
-     * </p>
+     * Queue {@code message} at {@code level} for the next EDT update,
+     * scheduling that update if none is pending.
      *
-     * @param level   the log level
-     * @param message the message text
+     * @param level   the log level whose style should be applied
+     * @param message the raw message text
+     */
+    private void enqueue(Log.Level level, String message) {
+        String timeStamp = LocalTime.now().format(TIME_FMT);
+        pending.add(new Pending(level, timeStamp, message));
+        if (pendingCount.incrementAndGet() > lines.capacity() && pending.poll() != null) {
+            pendingCount.decrementAndGet();
+            dropped.incrementAndGet();
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::flushPending);
+        }
+    }
+
+    /**
+     * Move every queued message into the view with one pair of list-model
+     * events, keeping the view scrolled to the end if it was there.
+     */
+    void flushPending() {
+        flushScheduled.set(false);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        JScrollBar bar = scrollPane.getVerticalScrollBar();
+        boolean atEnd = bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - list.getFixedCellHeight();
+
+        int before = lines.size();
+        Pending p;
+        while ((p = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            lines.add(p.level(), p.time(), p.message());
+        }
+        int evicted = lines.takeEvictedCount();
+        int after = lines.size();
+
+        if (evicted >= before) {
+            // everything shown before is gone
+            model.fireReplaced(before, after);
+        } else {
+            if (evicted > 0) {
+                model.fireRemoved(0, evicted - 1);
+            }
+            int kept = before - evicted;
+            if (after > kept) {
+                model.fireAdded(kept, after - 1);
+            }
+        }
+
+        widenFor((evicted >= before) ? 0 : before - evicted, after);
+        updateStatus();
+        if (atEnd && after > 0) {
+            list.ensureIndexIsVisible(after - 1);
+        }
+    }
+
+    /**
+     * Grow the fixed cell width to fit rows {@code from} to {@code to}
+     * (exclusive). Only new rows are measured.
      */
-    private void appendStyled(Log.Level level, String message) {
-        String text = (message == null) ? "\n"
-                    : message.endsWith("\n") ? message
-                    : message + "\n";
-        append(text, STYLES.get(level), false);
+    private void widenFor(int from, int to) {
+        int width = maxRowWidth;
+        for (int row = from; row < to; row++) {
+            width = Math.max(width, renderer.rowWidth(lines.get(row)));
+        }
+        if (width > maxRowWidth) {
+            maxRowWidth = width;
+            list.setFixedCellWidth(width);
+        }
+    }
+
+    private void updateStatus() {
+        long lost = dropped.get();
+        status.setText(" " + lines.size() + " lines" + ((lost > 0) ? ", " + lost + " dropped" : ""));
+    }
+
+    // -----------------------------------------------------------------------
+    // List model and renderer
+    // -----------------------------------------------------------------------
+
+    /** Exposes the filtered lines to the list. */
+    private final class LineModel extends AbstractListModel<LogLineBuffer.Line> {
+
+        @Override
+        public int getSize() {
+            return lines.size();
+        }
+
+        @Override
+        public LogLineBuffer.Line getElementAt(int row) {
+            return lines.get(row);
+        }
+
+        void fireAdded(int first, int last) {
+            fireIntervalAdded(this, first, last);
+        }
+
+        void fireRemoved(int first, int last) {
+            fireIntervalRemoved(this, first, last);
+        }
+
+        /** All rows changed: the old {@code before} rows became {@code after}. */
+        void fireReplaced(int before, int after) {
+            if (before > 0) {
+                fireIntervalRemoved(this, 0, before - 1);
+            }
+            if (after > 0) {
+                fireIntervalAdded(this, 0, after - 1);
+            }
+        }
+    }
+
+    /**
+     * Paints one line: the timestamp column, then the text in its level's
+     * style. Measuring is cheap, so the list never needs a layout pass over
+     * all rows.
+     */
+    private static final class LineRenderer extends JComponent
+            implements ListCellRenderer<LogLineBuffer.Line> {
+
+        private final int timeWidth;
+        private final int ascent;
+        private final int height;
+
+        private LogLineBuffer.Line line;
+        private boolean selected;
+        private Color selectionBackground;
+
+        LineRenderer() {
+            FontMetrics tfm = getFontMetrics(TIME_STYLE.font());
+            timeWidth = tfm.stringWidth("00:00:00 ");
+            int a = tfm.getAscent();
+            int h = tfm.getHeight();
+            for (LineStyle style : STYLES.values()) {
+                FontMetrics fm = getFontMetrics(style.font());
+                a = Math.max(a, fm.getAscent());
+                h = Math.max(h, fm.getHeight());
+            }
+            ascent = a;
+            height = h;
+        }
+
+        int rowHeight() {
+            return height;
+        }
+
+        int rowWidth(LogLineBuffer.Line l) {
+            return 2 * PAD + timeWidth + getFontMetrics(STYLES.get(l.level()).font()).stringWidth(l.text());
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends LogLineBuffer.Line> list,
+                LogLineBuffer.Line value, int index, boolean isSelected, boolean cellHasFocus) {
+            line = value;
+            selected = isSelected;
+            selectionBackground = list.getSelectionBackground();
+            return this;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            if (line == null) {
+                return;
+            }
+            Rectangle r = g.getClipBounds();
+            if (selected) {
+                g.setColor(selectionBackground);
+                g.fillRect(r.x, r.y, r.width, r.height);
+            }
+            if (line.time() != null) {
+                g.setColor(TIME_STYLE.color());
+                g.setFont(TIME_STYLE.font());
+                g.drawString(line.time(), PAD, ascent);
+            }
+            LineStyle style = STYLES.get(line.level());
+            g.setColor(style.color());
+            g.setFont(style.font());
+            g.drawString(line.text(), PAD + timeWidth, ascent);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package edu.cnu.mdi.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer / single-consumer queue of log records.
+ *
+ * <h2>Algorithm</h2>
+ * <p>
+ * Each slot carries a sequence number. A producer claims the slot at the
+ * current tail with a compare-and-set on the tail counter, stores its record
+ * and then publishes it by advancing the slot's sequence. The consumer reads
+ * a slot only once its sequence shows it has been published, and hands the
+ * slot back to producers by advancing the sequence one lap ahead. Producers
+ * therefore never block each other beyond a failed CAS, and a full buffer is
+ * reported to the caller instead of waiting.
+ * </p>
+ *
+ * <h2>Threading</h2>
+ * <p>
+ * {@link #offer(Object)} may be called from any thread; {@link #poll()} must
+ * only be called from one thread at a time.
+ * </p>
+ *
+ * @param <E> record type
+ */
+final class LogRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+
+    /** Next position to claim for writing. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Next position to read; written by the consumer only. */
+    private volatile long head;
+
+    /**
+     * Create a buffer holding at least {@code capacity} records.
+     *
+     * @param capacity minimum capacity; rounded up to a power of two
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    LogRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be in 1.." + (1 << 30));
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        slots = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Append a record if there is room.
+     *
+     * @param e the record; never {@code null}
+     * @return {@code false} if the buffer is full
+     */
+    boolean offer(E e) {
+        while (true) {
+            long pos = tail.get();
+            int index = (int) (pos & mask);
+            long dif = sequences.get(index) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(index, e);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+            } else if (dif < 0) {
+                return false;
+            }
+            // else another producer claimed this slot; reload the tail
+        }
+    }
+
+    /**
+     * Remove the oldest published record.
+     *
+     * @return the record, or {@code null} if none is available
+     */
+    E poll() {
+        long pos = head;
+        int index = (int) (pos & mask);
+        if (sequences.get(index) != pos + 1) {
+            return null;
+        }
+        E e = slots.get(index);
+        slots.set(index, null);
+        sequences.set(index, pos + mask + 1);
+        head = pos + 1;
+        return e;
+    }
+
+    /**
+     * Check whether every claimed slot has been consumed. A record being
+     * stored by a producer counts as present.
+     *
+     * @return {@code true} if the buffer is empty
+     */
+    boolean isEmpty() {
+        return tail.get() == head;
+    }
+
+    /** @return the number of slots */
+    int capacity() {
+        return mask + 1;
+    }
+}
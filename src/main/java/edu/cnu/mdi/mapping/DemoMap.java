@@ -4,64 +4,120 @@ import java.io.IOException;
 import java.util.List;
 
 import edu.cnu.mdi.graphics.toolbar.ToolBits;
+import edu.cnu.mdi.log.Log;
 import edu.cnu.mdi.mapping.container.MapContainer;
-import edu.cnu.mdi.mapping.loader.GeoJsonCityLoader;
-import edu.cnu.mdi.mapping.loader.GeoJsonCountryLoader;
+import edu.cnu.mdi.mapping.loader.GeoJsonCityLoader.CityFeature;
 import edu.cnu.mdi.mapping.loader.GeoJsonCountryLoader.CountryFeature;
+import edu.cnu.mdi.mapping.loader.MapDataCache;
 import edu.cnu.mdi.mapping.milsym.NatoIconPicker;
 import edu.cnu.mdi.util.Environment;
 import edu.cnu.mdi.util.PropertyUtils;
 import edu.cnu.mdi.view.ContainerFactory;
+import edu.cnu.mdi.view.StagedViewFactory;
+import edu.cnu.mdi.view.ViewConfiguration;
+import edu.cnu.mdi.view.VirtualView;
 
 public class DemoMap {
 
-	// Extracted from MapView2D — move this method into DemoApp.java
-	// (or a new MapViewFactory class)
-
-		public static MapView2D createDemoMapView() {
-			// used to load the GeoJson data from the resources folder, which is necessary
-			// for the demo to work when run from a JAR file. We do NOT include
-			// shapefiles because shapefile data cannot be reliably loaded from a
-			// classpath resource.
-			String resPrefix = Environment.MDI_RESOURCE_PATH;
-
-			//subset of drawing tools for maps because some do not make sense
-			long toolBits = ToolBits.MAPTOOLS | ToolBits.ZOOMTOOLS;
-
-
-			ContainerFactory mapContainerFactory = MapContainer::new;
-
-			MapView2D mapView = new MapView2D(PropertyUtils.TITLE, "Sample 2D Map View",
-					PropertyUtils.FRACTION, 0.6,
-					PropertyUtils.ASPECT, 1.5, PropertyUtils.CONTAINERFACTORY, mapContainerFactory,
-					PropertyUtils.TOOLBARBITS, toolBits, PropertyUtils.WHEELZOOM, true);
-
-			// now for the data loading. We load the GeoJson data (countries and cities)
-			// which should work both in the IDE and from a JAR file.
-			try {
-
-
-				// Countries from GeoJSON resource — small enough to load from a single file,
-				// and the
-				// population slider works when cities are loaded from GeoJSON, so use GeoJSON
-				// for both
-				List<CountryFeature> countries = GeoJsonCountryLoader
-						.loadFromResourceStatic(resPrefix + MapResources.COUNTRIES_GEOJSON);
-				mapView.setCountries(countries);
-
-				// Cities — use GeoJSON so the population slider works
-				mapView.setCities(GeoJsonCityLoader.loadFromResourceStatic(resPrefix + MapResources.CITIES_GEOJSON));
+	/** Title of the demo map view. */
+	public static final String TITLE = "Sample 2D Map View";
+
+	/**
+	 * The demo map's data, loaded off the EDT.
+	 *
+	 * @param countries the countries, or {@code null} if they could not be loaded
+	 * @param cities    the cities, or {@code null} if they could not be loaded
+	 */
+	public record Data(List<CountryFeature> countries, List<CityFeature> cities) {
+	}
+
+	/**
+	 * Get the staged configuration of the demo map: countries and cities load
+	 * on a background thread while the rest of the desktop comes up.
+	 *
+	 * @return the view configuration
+	 */
+	public static ViewConfiguration<MapView2D> getConfiguration() {
+		return ViewConfiguration.staged(TITLE, new StagedViewFactory<Data, MapView2D>() {
+			@Override
+			public Data loadModel() {
+				return loadDemoMapData();
+			}
 
-				NatoIconPicker picker = new NatoIconPicker();
+			@Override
+			public MapView2D createView(Data data) {
+				return createDemoMapView(data);
+			}
+		}, 0, 0, 0, VirtualView.BOTTOMLEFT);
+	}
+
+	/**
+	 * Create the demo map view, loading its data on the calling thread.
+	 *
+	 * @return the map view
+	 */
+	public static MapView2D createDemoMapView() {
+		return createDemoMapView(loadDemoMapData());
+	}
+
+	/**
+	 * Load the demo countries and cities. Safe to call off the EDT.
+	 *
+	 * @return the data; a part that fails to load is {@code null}
+	 */
+	public static Data loadDemoMapData() {
+		// used to load the GeoJson data from the resources folder, which is necessary
+		// for the demo to work when run from a JAR file. We do NOT include
+		// shapefiles because shapefile data cannot be reliably loaded from a
+		// classpath resource.
+		String resPrefix = Environment.MDI_RESOURCE_PATH;
+
+		// Countries from GeoJSON resource — small enough to load from a single file,
+		// and the population slider works when cities are loaded from GeoJSON, so use
+		// GeoJSON for both. The binary cache skips the GeoJSON parse on later starts.
+		MapDataCache cache = MapDataCache.getDefault();
+		List<CountryFeature> countries = null;
+		List<CityFeature> cities = null;
+		try {
+			countries = cache.loadCountriesFromResource(resPrefix + MapResources.COUNTRIES_GEOJSON);
+			cities = cache.loadCitiesFromResource(resPrefix + MapResources.CITIES_GEOJSON);
+		} catch (IOException e) {
+			Log.getInstance().exception(e);
+		}
+		return new Data(countries, cities);
+	}
+
+	/**
+	 * Create the demo map view from loaded data. Call on the EDT.
+	 *
+	 * @param data the data from {@link #loadDemoMapData()}
+	 * @return the map view
+	 */
+	public static MapView2D createDemoMapView(Data data) {
+		//subset of drawing tools for maps because some do not make sense
+		long toolBits = ToolBits.MAPTOOLS | ToolBits.ZOOMTOOLS;
+
+		ContainerFactory mapContainerFactory = MapContainer::new;
+
+		MapView2D mapView = new MapView2D(PropertyUtils.TITLE, TITLE,
+				PropertyUtils.FRACTION, 0.6,
+				PropertyUtils.ASPECT, 1.5, PropertyUtils.CONTAINERFACTORY, mapContainerFactory,
+				PropertyUtils.TOOLBARBITS, toolBits, PropertyUtils.WHEELZOOM, true);
+
+		if (data.countries() != null) {
+			mapView.setCountries(data.countries());
+		}
+		// Cities — use GeoJSON so the population slider works
+		if (data.cities() != null) {
+			mapView.setCities(data.cities());
+		}
 
-				// addWestPanel uses a double-invokeLater to run after all
-				// construction placement has settled.
-				mapView.addWestPanel(picker);
+		NatoIconPicker picker = new NatoIconPicker();
 
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+		// addWestPanel uses a double-invokeLater to run after all
+		// construction placement has settled.
+		mapView.addWestPanel(picker);
 
-			return mapView;
-		}
-}
\ No newline at end of file
+		return mapView;
+	}
+}
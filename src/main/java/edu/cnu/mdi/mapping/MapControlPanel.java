@@ -32,6 +32,9 @@ import edu.cnu.mdi.ui.fonts.Fonts;
  *       {@link EProjection}.</li>
  *   <li><b>City label visibility</b> — a checkbox that toggles city name
  *       labels via {@link CityPointRenderer#setDrawLabels(boolean)}.</li>
+ *   <li><b>Tiled rendering</b> — a checkbox that paints the static map
+ *       content from background-rendered tiles via
+ *       {@link MapView2D#setTiledRendering(boolean)}.</li>
  *   <li><b>Minimum population</b> — a {@link RangeSlider} that filters cities
  *       below a given population threshold via
  *       {@link CityPointRenderer#setMinPopulation(long)}.</li>
@@ -144,13 +147,15 @@ public class MapControlPanel extends JPanel {
     }
 
     /**
-     * Adds the "Show city names" checkbox to {@code panel}.
+     * Adds the "Show city names" and "Tiled rendering" checkboxes to
+     * {@code panel}.
      *
-     * <p>Toggling the checkbox calls
+     * <p>Toggling the first calls
      * {@link CityPointRenderer#setDrawLabels(boolean)} and triggers a
-     * repaint.</p>
+     * repaint; toggling the second calls
+     * {@link MapView2D#setTiledRendering(boolean)}.</p>
      *
-     * @param panel the panel to add the checkbox to
+     * @param panel the panel to add the checkboxes to
      */
     private void createCheckboxes(JPanel panel) {
         JCheckBox showCityNamesCheckBox = new JCheckBox("Show city names", true);
@@ -163,6 +168,15 @@ public class MapControlPanel extends JPanel {
         leftAlign(showCityNamesCheckBox);
         panel.add(showCityNamesCheckBox);
         panel.add(Box.createVerticalStrut(6));
+
+        JCheckBox tiledCheckBox = new JCheckBox("Tiled rendering", mapView.isTiledRendering());
+        tiledCheckBox.setFont(font);
+        tiledCheckBox.setHorizontalAlignment(SwingConstants.LEFT);
+        tiledCheckBox.setToolTipText("Draw the map in the background and reuse it while panning");
+        tiledCheckBox.addActionListener(e -> mapView.setTiledRendering(tiledCheckBox.isSelected()));
+        leftAlign(tiledCheckBox);
+        panel.add(tiledCheckBox);
+        panel.add(Box.createVerticalStrut(6));
     }
 
     /**
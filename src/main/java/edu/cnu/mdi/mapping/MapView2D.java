@@ -2,7 +2,9 @@ package edu.cnu.mdi.mapping;
 
 import java.io.IOException;
 import java.awt.BorderLayout;
+import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.geom.Point2D;
@@ -14,9 +16,14 @@ import java.util.Arrays;
 import java.util.Objects;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 
 import javax.swing.JMenuBar;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 import edu.cnu.mdi.container.IContainer;
 import edu.cnu.mdi.feedback.FeedbackPane;
@@ -27,6 +34,7 @@ import edu.cnu.mdi.mapping.container.MapContainer;
 import edu.cnu.mdi.mapping.loader.GeoJsonCityLoader;
 import edu.cnu.mdi.mapping.loader.GeoJsonCountryLoader;
 import edu.cnu.mdi.mapping.loader.GeoJsonCountryLoader.CountryFeature;
+import edu.cnu.mdi.mapping.loader.MapDataCache;
 import edu.cnu.mdi.mapping.projection.EProjection;
 import edu.cnu.mdi.mapping.projection.IMapProjection;
 import edu.cnu.mdi.mapping.projection.ProjectionFactory;
@@ -34,10 +42,10 @@ import edu.cnu.mdi.mapping.render.CityPointRenderer;
 import edu.cnu.mdi.mapping.render.CountryRenderer;
 import edu.cnu.mdi.mapping.render.GraticuleRenderer;
 import edu.cnu.mdi.mapping.render.IPickable;
+import edu.cnu.mdi.mapping.render.MapTileRenderer;
 import edu.cnu.mdi.mapping.shapefile.ShapeFeature;
 import edu.cnu.mdi.mapping.shapefile.ShapeFeatureRenderer;
 import edu.cnu.mdi.mapping.shapefile.ShapeFeatureStyle;
-import edu.cnu.mdi.mapping.shapefile.ShapefileFeatureLoader;
 import edu.cnu.mdi.mapping.theme.MapTheme;
 import edu.cnu.mdi.mapping.util.GeoUtils;
 import edu.cnu.mdi.mapping.util.UTMCoordinate;
@@ -77,6 +85,15 @@ import edu.cnu.mdi.view.BaseView;
  * in the constructor. Callers that only ever create one view are unaffected.
  * </p>
  *
+ * <h2>Tiled rendering</h2>
+ * <p>
+ * By default the whole map is redrawn on every repaint. With
+ * {@link #setTiledRendering(boolean)} enabled, the static map content is
+ * instead rasterized into cached tiles on background threads by a
+ * {@link MapTileRenderer}, so panning only renders newly exposed tiles. Map
+ * items on the container's layers are drawn live on top either way.
+ * </p>
+ *
  * <h2>Side panel layout</h2>
  * <p>
  * The control panel ({@link MapControlPanel}) and feedback pane
@@ -96,6 +113,12 @@ public class MapView2D extends BaseView {
 	 * the control panel and the feedback pane.
 	 */
 	private static final int DEFAULT_SIDE_PANEL_WIDTH = 220;
+
+	/**
+	 * Minimum interval in milliseconds between EDT publications of features
+	 * arriving from a streaming load.
+	 */
+	private static final long STREAM_PUBLISH_MS = 150;
 	
 	// -------------------------------------------------------------------------
 	// Feedback label prefixes (static because they never change)
@@ -147,6 +170,18 @@ public class MapView2D extends BaseView {
 
 	/** Renderer for city marker dots and labels. */
 	private CityPointRenderer cityRenderer;
+
+	/** The content tile workers draw, replaced on the EDT by {@link #invalidateMapTiles()}. */
+	private volatile MapContent tileContent;
+
+	/** Tile cache for the static map content, or {@code null} when tiling is off. */
+	private MapTileRenderer tileRenderer;
+
+	/**
+	 * State the renderers' pick caches were last rebuilt for in tiled mode, where
+	 * no on-screen render pass keeps them current.
+	 */
+	private PickCacheKey pickCacheKey;
 	
 	// Menu bar
 	private JMenuBar menuBar;
@@ -193,6 +228,9 @@ public class MapView2D extends BaseView {
 	// Workspace — reused per feedback call to avoid allocation
 	// -------------------------------------------------------------------------
 
+	/** Progress of each streaming load in progress, keyed by what is loading. */
+	private final Map<String, String> loadingStatus = new ConcurrentSkipListMap<>();
+
 	/** Reusable lat/lon workspace for the feedback method. */
 	protected final Point2D.Double latLon = new Point2D.Double();
 
@@ -322,6 +360,7 @@ public class MapView2D extends BaseView {
 		this.countries = countries;
 		if (projection != null) {
 			countryRenderer = new CountryRenderer(this.countries, projection);
+			invalidateMapTiles();
 		}
 	}
 
@@ -339,7 +378,210 @@ public class MapView2D extends BaseView {
 		this.cities = cities;
 		if (projection != null) {
 			rebuildCityRenderer();
+			invalidateMapTiles();
+		}
+	}
+
+	/**
+	 * Streams country features from a GeoJSON file on a background thread.
+	 *
+	 * <p>
+	 * The view's country list is replaced immediately by an empty list that is
+	 * filled in batches on the EDT as features are parsed, so the map starts
+	 * drawing before a large file has finished loading. Progress is drawn over
+	 * the map and shown in the feedback pane. Errors are logged; already-delivered features are kept.
+	 * </p>
+	 *
+	 * @param path GeoJSON {@code FeatureCollection} file; must not be {@code null}
+	 */
+	public void loadCountriesAsync(Path path) {
+		Objects.requireNonNull(path, "path");
+		List<CountryFeature> target = new ArrayList<>();
+		setCountries(target);
+		streamAsync("countries", path, GeoJsonCountryLoader::stream, chunk -> {
+			if (countries == target) {
+				target.addAll(chunk);
+				if (countryRenderer != null) {
+					countryRenderer.appendCountries(chunk);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Streams city features from a GeoJSON file on a background thread. See
+	 * {@link #loadCountriesAsync(Path)} for the delivery model.
+	 *
+	 * @param path GeoJSON {@code FeatureCollection} file; must not be {@code null}
+	 */
+	public void loadCitiesAsync(Path path) {
+		Objects.requireNonNull(path, "path");
+		List<GeoJsonCityLoader.CityFeature> target = new ArrayList<>();
+		setCities(target);
+		streamAsync("cities", path, GeoJsonCityLoader::stream, chunk -> {
+			if (cities == target) {
+				target.addAll(chunk);
+				if (cityRenderer != null) {
+					cityRenderer.appendCities(chunk);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Returns a short status string while a streaming load is in progress.
+	 * The status is also drawn over the map and shown in the feedback pane.
+	 *
+	 * @return status such as {@code "Loading countries: 42%"}, or {@code null}
+	 *         when nothing is loading
+	 */
+	public String getLoadingStatus() {
+		return loadingStatus.isEmpty() ? null : String.join("; ", loadingStatus.values());
+	}
+
+	/**
+	 * Records the status of one streaming load and, if it changed, repaints the
+	 * map so the status overlay follows it. Called on the loader thread.
+	 *
+	 * @param what   what is loading, e.g. {@code "cities"}
+	 * @param status the new status, or {@code null} when the load has finished
+	 */
+	private void setLoadingStatus(String what, String status) {
+		String old = (status == null) ? loadingStatus.remove(what) : loadingStatus.put(what, status);
+		if (!Objects.equals(old, status)) {
+			SwingUtilities.invokeLater(() -> getIContainer().getComponent().repaint());
+		}
+	}
+
+	/**
+	 * Signature shared by {@link GeoJsonCountryLoader#stream} and
+	 * {@link GeoJsonCityLoader#stream}.
+	 */
+	@FunctionalInterface
+	private interface StreamLoader<T> {
+		int stream(Path path, Consumer<T> sink, DoubleConsumer progress) throws IOException;
+	}
+
+	/**
+	 * Runs a streaming loader on a daemon thread, handing parsed features to
+	 * {@code deliver} on the EDT at most every {@link #STREAM_PUBLISH_MS}
+	 * milliseconds. A deliverer ignores batches once the view's data has been
+	 * replaced by another load.
+	 *
+	 * <p>
+	 * Each delivery only repaints the container. Cached map tiles are kept until
+	 * the load finishes and are then discarded once by {@link #refresh()}, so a
+	 * long load does not re-render the whole map at every publication; meanwhile
+	 * only tiles rendered after a delivery show its features.
+	 * </p>
+	 */
+	private <T> void streamAsync(String what, Path path, StreamLoader<T> loader, Consumer<List<T>> deliver) {
+		Thread t = new Thread(() -> {
+			List<T> batch = new ArrayList<>();
+			long[] lastPublish = { System.nanoTime() };
+			try {
+				int n = loader.stream(path, feature -> {
+					batch.add(feature);
+					long now = System.nanoTime();
+					if (now - lastPublish[0] > STREAM_PUBLISH_MS * 1_000_000L) {
+						publish(deliver, batch);
+						lastPublish[0] = now;
+					}
+				}, fraction -> setLoadingStatus(what, String.format("Loading %s: %.0f%%", what, 100 * fraction)));
+				Log.getInstance().info("Loaded " + n + " " + what + " from " + path.toAbsolutePath());
+			} catch (IOException e) {
+				Log.getInstance().error("Error loading " + what + ": " + e.getMessage());
+			} finally {
+				publish(deliver, batch);
+				setLoadingStatus(what, null);
+				SwingUtilities.invokeLater(this::refresh);
+			}
+		}, "MapLoader-" + what);
+		t.setDaemon(true);
+		t.start();
+	}
+
+	/** Hands the accumulated batch to the EDT and starts a new one. */
+	private <T> void publish(Consumer<List<T>> deliver, List<T> batch) {
+		if (batch.isEmpty()) {
+			return;
 		}
+		List<T> chunk = new ArrayList<>(batch);
+		batch.clear();
+		SwingUtilities.invokeLater(() -> {
+			deliver.accept(chunk);
+			getIContainer().refresh();
+		});
+	}
+
+	// -------------------------------------------------------------------------
+	// Tiled rendering
+	// -------------------------------------------------------------------------
+
+	/**
+	 * Enables or disables background tiled rendering of the static map content
+	 * (ocean, graticule, countries, shapefile layers, cities).
+	 *
+	 * <p>
+	 * When enabled, the content is drawn by worker threads, including any
+	 * {@link #drawCustomMapContent} override, which must therefore only read state
+	 * that is replaced on the EDT followed by {@link #refresh()}. Tiling is off by
+	 * default.
+	 * </p>
+	 *
+	 * @param tiled {@code true} to paint from cached tiles
+	 */
+	public void setTiledRendering(boolean tiled) {
+		if (tiled == (tileRenderer != null)) {
+			return;
+		}
+		if (tiled) {
+			tileContent = captureContent();
+			tileRenderer = new MapTileRenderer((g, container) -> drawMapContent(g, container, tileContent, false));
+		} else {
+			tileRenderer.shutdown();
+			tileRenderer = null;
+		}
+		pickCacheKey = null;
+		refresh();
+	}
+
+	/**
+	 * Returns whether the static map content is painted from cached tiles.
+	 *
+	 * @return {@code true} if tiled rendering is enabled
+	 */
+	public boolean isTiledRendering() {
+		return tileRenderer != null;
+	}
+
+	/**
+	 * Discards cached map tiles so they are rendered again from the current
+	 * projection, theme, and data. {@link #refresh()} does this automatically; call
+	 * it directly only when repainting the container without going through the
+	 * view, as {@link MapContainer#recenter} does. Has no effect when tiling is
+	 * off.
+	 */
+	public void invalidateMapTiles() {
+		if (tileRenderer != null) {
+			tileContent = captureContent();
+			tileRenderer.invalidate();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * A view-level refresh signals that the map content changed (projection,
+	 * theme, filters, data, or layer visibility), so cached tiles are discarded
+	 * first. Pans and zooms repaint the container directly and keep the tiles.
+	 * </p>
+	 */
+	@Override
+	public void refresh() {
+		invalidateMapTiles();
+		super.refresh();
 	}
 
 	// -------------------------------------------------------------------------
@@ -500,7 +742,9 @@ public class MapView2D extends BaseView {
 	/**
 	 * Convenience method that loads a shapefile from the given path, creates a
 	 * {@link ShapeFeatureRenderer} with the specified style, and adds it as a new
-	 * layer with the given name.
+	 * layer with the given name. Features are read through
+	 * {@link MapDataCache#getDefault()}, so repeat loads of an unchanged shapefile
+	 * skip parsing.
 	 *
 	 * <p>
 	 * Exceptions are caught and logged to the console; the method does not throw.
@@ -521,7 +765,7 @@ public class MapView2D extends BaseView {
 				return null;
 			}
 
-			List<ShapeFeature> features = new ShapefileFeatureLoader().load(path);
+			List<ShapeFeature> features = MapDataCache.getDefault().loadShapefile(path);
 			ShapeFeatureRenderer renderer = new ShapeFeatureRenderer(features, mapView.getProjection(), style);
 			mapView.addShapefileLayer(renderer, name);
 			Log.getInstance().info("Shapefile loaded: " + path.toAbsolutePath());
@@ -600,6 +844,7 @@ public class MapView2D extends BaseView {
 	public String getCountryAtPoint(Point pp, IContainer container) {
 		if (countryRenderer == null)
 			return null;
+		ensurePickCaches(container);
 		GeoJsonCountryLoader.CountryFeature hit = countryRenderer.pickCountry(pp, container);
 		return (hit != null) ? String.format("%s (%s)", hit.getAdminName(), hit.getIsoA3()) : null;
 	}
@@ -632,6 +877,10 @@ public class MapView2D extends BaseView {
 	@Override
 	public void getFeedbackStrings(IContainer container, Point pp, Double wp, List<String> feedbackStrings) {
 
+		String status = getLoadingStatus();
+		if (status != null) {
+			feedbackStrings.add(status);
+		}
 		feedbackStrings.add(String.format("Countries loaded: %d", getCountryCount()));
 		feedbackStrings.add(String.format("Cities loaded: %d", getCityCount()));
 		feedbackStrings.add(String.format("Projection: %s", projection.name()));
@@ -647,6 +896,8 @@ public class MapView2D extends BaseView {
 		    UTMCoordinate utm = GeoUtils.fromDecimalDegrees(dLat, dLon);
 		    feedbackStrings.add("UTM " + utm.toString());
 		 
+			ensurePickCaches(container);
+
 			if (countryRenderer != null) {
 				GeoJsonCountryLoader.CountryFeature countryHit = countryRenderer.pickCountry(pp, container);
 				if (countryHit != null) {
@@ -690,6 +941,11 @@ public class MapView2D extends BaseView {
 	 * view is closing.
 	 */
 	public void prepareForExit() {
+	    if (tileRenderer != null) {
+	        tileRenderer.shutdown();
+	        tileRenderer = null;
+	    }
+
 	    IContainer container = getIContainer();
 
 	    if (container instanceof MapContainer mapContainer) {
@@ -746,8 +1002,53 @@ public class MapView2D extends BaseView {
 	}
 	
 	/**
-	 * Registers the after-draw {@link IDrawable} that executes the complete
-	 * rendering pipeline each frame:
+	 * Registers the after-draw {@link IDrawable} that paints the map, either
+	 * directly through {@link #drawMapContent} or, in tiled mode, by filling the
+	 * background and compositing cached tiles from the {@link MapTileRenderer}.
+	 */
+	private void setAfterDraw() {
+		IDrawable afterDraw = new DrawableAdapter() {
+			@Override
+			public void draw(Graphics2D g, IContainer container) {
+				MapTileRenderer tiles = tileRenderer;
+				if (tiles == null) {
+					drawMapContent(g, container, captureContent(), true);
+				} else {
+					g.setColor(projection.getTheme().getBackgroundColor());
+					g.fillRect(0, 0, getWidth(), getHeight());
+					tiles.paint(g, container);
+				}
+				drawLoadingStatus(g, container);
+			}
+		};
+
+		getIContainer().setAfterDraw(afterDraw);
+	}
+
+	/**
+	 * Draws the status of any streaming load in the lower left corner of the
+	 * on-screen container, so progress is visible without moving the mouse.
+	 */
+	private void drawLoadingStatus(Graphics2D g, IContainer container) {
+		String status = getLoadingStatus();
+		if (status == null) {
+			return;
+		}
+		MapTheme theme = projection.getTheme();
+		FontMetrics fm = g.getFontMetrics();
+		int pad = 4;
+		int w = fm.stringWidth(status) + 2 * pad;
+		int h = fm.getHeight() + 2 * pad;
+		int y = container.getHeight() - h - pad;
+		g.setColor(theme.getBackgroundColor());
+		g.fillRect(pad, y, w, h);
+		g.setColor((theme.getLabelColor() != null) ? theme.getLabelColor() : Color.black);
+		g.drawRect(pad, y, w, h);
+		g.drawString(status, 2 * pad, y + pad + fm.getAscent());
+	}
+
+	/**
+	 * Executes the complete map rendering pipeline:
 	 * <ol>
 	 * <li>Fill the panel background with the theme's background color.</li>
 	 * <li>Fill the ocean region inside the projection's clip shape.</li>
@@ -761,47 +1062,99 @@ public class MapView2D extends BaseView {
 	 * Null-guards on {@link #countryRenderer} and {@link #cityRenderer} prevent
 	 * NullPointerExceptions if data has not been set before the first paint.
 	 * </p>
+	 *
+	 * @param g         the graphics context
+	 * @param container the on-screen container, or a tile's transform container
+	 * @param content   the renderers to draw with
+	 * @param onScreen  {@code true} when drawing the on-screen container, in which
+	 *                  case the renderers' pick caches are rebuilt as a side effect;
+	 *                  {@code false} for tiles drawn on a worker thread
 	 */
-	private void setAfterDraw() {
-		IDrawable afterDraw = new DrawableAdapter() {
-			@Override
-			public void draw(Graphics2D g, IContainer container) {
-				// 1. Background
-				g.setColor(projection.getTheme().getBackgroundColor());
-				g.fillRect(0, 0, getWidth(), getHeight());
-
-				// 2. Ocean fill inside projection boundary
-				projection.fillOcean(g, container);
-				
-				// 3. Custom map content drawn by subclasses between ocean and graticule layers.
-				drawCustomMapContent(g, container); // Extension point for subclasses to draw custom content between ocean and graticule
-
-				// 4. Graticule and outline
-				if ((gratRenderer != null) && useStandardGraticules()) {
-					gratRenderer.render(g, container);
-				}
+	private void drawMapContent(Graphics2D g, IContainer container, MapContent content, boolean onScreen) {
+		IMapProjection proj = content.projection();
 
-				// 5. Country polygons (null-safe: data may not be loaded yet)
-				if (countryRenderer != null) {
-					countryRenderer.render(g, container);
-				}
+		// 1. Background
+		g.setColor(proj.getTheme().getBackgroundColor());
+		g.fillRect(0, 0, container.getWidth(), container.getHeight());
 
-				// 6. Extra layers: rivers, lakes, and any other shapefile
-				// overlays added via addLayer(), in insertion order.
-				for (ShapeFeatureRenderer layer : extraLayers) {
-					layer.render(g, container);
-				}
+		// 2. Ocean fill inside projection boundary
+		proj.fillOcean(g, container);
 
-				// 7. City dots and labels (null-safe)
-				if (cityRenderer != null) {
-					cityRenderer.render(g, container);
-				}
-			}
-		};
+		// 3. Custom map content drawn by subclasses between ocean and graticule layers.
+		drawCustomMapContent(g, container);
 
-		getIContainer().setAfterDraw(afterDraw);
+		// 4. Graticule and outline
+		if (content.graticule() != null) {
+			content.graticule().render(g, container);
+		}
+
+		// 5. Country polygons (null-safe: data may not be loaded yet)
+		if (content.countries() != null) {
+			content.countries().render(g, container, onScreen);
+		}
+
+		// 6. Extra layers: rivers, lakes, and any other shapefile
+		// overlays added via addLayer(), in insertion order.
+		for (ShapeFeatureRenderer layer : content.layers()) {
+			layer.render(g, container, onScreen);
+		}
+
+		// 7. City dots and labels (null-safe)
+		if (content.cities() != null) {
+			content.cities().render(g, container);
+		}
 	}
-	
+
+	/**
+	 * The renderers that draw the map, captured on the EDT. Tile workers draw
+	 * from the snapshot taken when the tiles were last invalidated, so they
+	 * never read view fields or lists that the EDT is changing; the renderers
+	 * themselves keep their data in immutable snapshots.
+	 */
+	private record MapContent(IMapProjection projection, GraticuleRenderer graticule,
+			CountryRenderer countries, List<ShapeFeatureRenderer> layers, CityPointRenderer cities) {
+	}
+
+	/** Captures the current renderers. Call on the EDT. */
+	private MapContent captureContent() {
+		return new MapContent(projection, useStandardGraticules() ? gratRenderer : null, countryRenderer,
+				List.copyOf(extraLayers), cityRenderer);
+	}
+
+	/**
+	 * In tiled mode, rebuilds the country and shapefile pick caches if the
+	 * content or the on-screen transform changed since they were last built. The
+	 * country cache is in world coordinates and only depends on the content; the
+	 * shapefile caches are in screen coordinates and also follow pans and zooms.
+	 */
+	private void ensurePickCaches(IContainer container) {
+		MapTileRenderer tiles = tileRenderer;
+		if (tiles == null) {
+			return;
+		}
+
+		Rectangle2D.Double ws = container.getWorldSystem();
+		PickCacheKey key = new PickCacheKey(tiles.getGeneration(),
+				(ws == null) ? null : (Rectangle2D.Double) ws.clone(), container.getWidth(), container.getHeight());
+		if (key.equals(pickCacheKey)) {
+			return;
+		}
+
+		boolean contentChanged = (pickCacheKey == null) || (pickCacheKey.generation() != key.generation());
+		pickCacheKey = key;
+
+		if (contentChanged && (countryRenderer != null)) {
+			countryRenderer.updatePickCache(container);
+		}
+		for (ShapeFeatureRenderer layer : extraLayers) {
+			layer.updatePickCache(container);
+		}
+	}
+
+	/** Content generation and on-screen transform the pick caches were built for. */
+	private record PickCacheKey(long generation, Rectangle2D.Double worldSystem, int width, int height) {
+	}
+
 	/**
 	 * Returns whether the Shapefile menu should be included in this view's menu
 	 * bar. Subclasses that don't support shapefile layers can override this to
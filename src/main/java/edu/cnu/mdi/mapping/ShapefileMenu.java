@@ -4,6 +4,7 @@ import java.awt.Color;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JFileChooser;
@@ -13,10 +14,10 @@ import javax.swing.JSeparator;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import edu.cnu.mdi.log.Log;
+import edu.cnu.mdi.mapping.loader.MapDataCache;
 import edu.cnu.mdi.mapping.shapefile.ShapeFeature;
 import edu.cnu.mdi.mapping.shapefile.ShapeFeatureRenderer;
 import edu.cnu.mdi.mapping.shapefile.ShapeFeatureStyle;
-import edu.cnu.mdi.mapping.shapefile.ShapefileFeatureLoader;
 import edu.cnu.mdi.mapping.shapefile.ShapefileGeometryReader;
 
 /**
@@ -27,6 +28,8 @@ import edu.cnu.mdi.mapping.shapefile.ShapefileGeometryReader;
  * <pre>
  * Shapefiles
  *   Open Shapefile...
+ *   Open Countries GeoJSON...
+ *   Open Cities GeoJSON...
  *   ─────────────────
  *   ☑ Rivers          ← added when first layer is loaded
  *   ☑ Lakes
@@ -49,6 +52,14 @@ import edu.cnu.mdi.mapping.shapefile.ShapefileGeometryReader;
  * The style can be refined programmatically via
  * {@link ShapeFeatureRenderer#setStyle} after the layer is added.
  *
+ * <h2>Opening GeoJSON</h2>
+ * <p>"Open Countries GeoJSON..." and "Open Cities GeoJSON..." replace the
+ * view's country or city data with a GeoJSON {@code FeatureCollection} file.
+ * The file is streamed on a background thread through
+ * {@link MapView2D#loadCountriesAsync(Path)} and
+ * {@link MapView2D#loadCitiesAsync(Path)}, so large files start drawing
+ * before they have finished loading.</p>
+ *
  * <h2>Programmatic layers</h2>
  * <p>Layers added at startup via
  * {@link MapView2D#addShapefileLayer(ShapeFeatureRenderer, String)} are automatically
@@ -83,7 +94,10 @@ public class ShapefileMenu extends JMenu {
     /** The "Open Shapefile..." menu item. */
     private final JMenuItem openItem;
 
-    /** Separator between the Open item and the layer checkboxes. */
+    /** Persistent file chooser for GeoJSON country and city files. */
+    private final JFileChooser geoJsonChooser;
+
+    /** Separator between the Open items and the layer checkboxes. */
     private final JSeparator separator;
 
     /** Whether the separator has been added yet (deferred until first layer). */
@@ -108,11 +122,23 @@ public class ShapefileMenu extends JMenu {
                 new FileNameExtensionFilter("ESRI Shapefiles (*.shp)", "shp"));
         fileChooser.setAcceptAllFileFilterUsed(false);
 
+        geoJsonChooser = new JFileChooser();
+        geoJsonChooser.setFileFilter(
+                new FileNameExtensionFilter("GeoJSON (*.geojson, *.json)", "geojson", "json"));
+
         separator = new JSeparator();
 
         openItem = new JMenuItem("Open Shapefile\u2026");
         openItem.addActionListener(e -> openShapefile());
         add(openItem);
+
+        JMenuItem countriesItem = new JMenuItem("Open Countries GeoJSON\u2026");
+        countriesItem.addActionListener(e -> openGeoJson("Open Countries GeoJSON", mapView::loadCountriesAsync));
+        add(countriesItem);
+
+        JMenuItem citiesItem = new JMenuItem("Open Cities GeoJSON\u2026");
+        citiesItem.addActionListener(e -> openGeoJson("Open Cities GeoJSON", mapView::loadCitiesAsync));
+        add(citiesItem);
     }
 
     // -------------------------------------------------------------------------
@@ -163,8 +189,7 @@ public class ShapefileMenu extends JMenu {
         String name  = baseName(shpPath);
 
         try {
-            ShapefileFeatureLoader loader = new ShapefileFeatureLoader();
-            List<ShapeFeature> features   = loader.load(shpPath);
+            List<ShapeFeature> features = MapDataCache.getDefault().loadShapefile(shpPath);
 
             if (features.isEmpty()) {
                 Log.getInstance().warning("Shapefile is empty: " + shpPath);
@@ -184,6 +209,21 @@ public class ShapefileMenu extends JMenu {
         }
     }
 
+    /**
+     * Shows the GeoJSON file chooser and, on confirmation, hands the selected
+     * file to a streaming loader of the map view.
+     *
+     * @param title  dialog title
+     * @param loader {@link MapView2D#loadCountriesAsync(Path)} or
+     *               {@link MapView2D#loadCitiesAsync(Path)}
+     */
+    private void openGeoJson(String title, Consumer<Path> loader) {
+        geoJsonChooser.setDialogTitle(title);
+        if (geoJsonChooser.showOpenDialog(mapView) == JFileChooser.APPROVE_OPTION) {
+            loader.accept(geoJsonChooser.getSelectedFile().toPath());
+        }
+    }
+
     // -------------------------------------------------------------------------
     // Private helpers
     // -------------------------------------------------------------------------
@@ -172,6 +172,9 @@ public class MapContainer extends BaseContainer implements HoverListener {
 	        return;
 	    }
 
+	    // The projection itself changed, so cached map tiles are stale.
+	    mapView.invalidateMapTiles();
+
 	    // Re-project the same geographic point through the updated projection.
 	    // This is the world-space point that must become the new viewport center.
 	    Point2D.Double xy = new Point2D.Double();
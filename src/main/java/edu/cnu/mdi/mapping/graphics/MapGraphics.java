@@ -10,6 +10,7 @@ import java.awt.geom.Path2D;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -19,6 +20,7 @@ import edu.cnu.mdi.graphics.style.LineStyle;
 import edu.cnu.mdi.mapping.MapView2D;
 import edu.cnu.mdi.mapping.container.MapContainer;
 import edu.cnu.mdi.mapping.projection.IMapProjection;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
 
 /**
  * Static utility methods for drawing and geometry operations on geographic
@@ -244,6 +246,28 @@ public final class MapGraphics {
                 style.getLineWidth(), style.getLineStyle());
     }
 
+    /**
+     * Draws a great-circle map polyline through the vertices of a packed
+     * geometry, in vertex order, using style parameters from an
+     * {@link IStyled} source. Ring boundaries are ignored.
+     *
+     * @param g2        the graphics context
+     * @param container the owning map container
+     * @param latLons   geographic vertices in radians
+     * @param style     the style source; must not be {@code null}
+     */
+    public static void drawMapPolyline(Graphics2D g2, MapContainer container,
+            PackedGeometry latLons, IStyled style) {
+
+        if (style == null || style.getLineColor() == null) {
+            return;
+        }
+
+        ProjectedMapShape shape = buildProjectedPolyline(container, latLons);
+        drawProjectedShape(g2, shape, null, style.getLineColor(),
+                style.getLineWidth(), style.getLineStyle());
+    }
+
     // -------------------------------------------------------------------------
     // Public path-building API
     // -------------------------------------------------------------------------
@@ -290,7 +314,7 @@ public final class MapGraphics {
     public static ProjectedMapShape buildProjectedPolyline(
             MapContainer container, Point2D.Double[] latLonPoints,
             double maxStepDeg) {
-        return buildProjectedShape(container, latLonPoints, false, maxStepDeg);
+        return buildProjectedShape(container, pack(latLonPoints), false, maxStepDeg);
     }
 
     /**
@@ -307,7 +331,37 @@ public final class MapGraphics {
     public static ProjectedMapShape buildProjectedPolygon(
             MapContainer container, Point2D.Double[] latLonPoints,
             double maxStepDeg) {
-        return buildProjectedShape(container, latLonPoints, true, maxStepDeg);
+        return buildProjectedShape(container, pack(latLonPoints), true, maxStepDeg);
+    }
+
+    /**
+     * Builds a seam-aware projected polyline through the vertices of a packed
+     * geometry, in vertex order, using the default great-circle sampling step.
+     * Ring boundaries are ignored.
+     *
+     * @param container the owning map container
+     * @param latLons   geographic vertices in radians
+     * @return a seam-split projected shape; never {@code null}
+     */
+    public static ProjectedMapShape buildProjectedPolyline(
+            MapContainer container, PackedGeometry latLons) {
+        return buildProjectedShape(container, latLons, false,
+                DEFAULT_MAX_GREAT_CIRCLE_STEP_DEG);
+    }
+
+    /**
+     * Builds a seam-aware projected polygon through the vertices of a packed
+     * geometry, in vertex order, using the default great-circle sampling step.
+     * Ring boundaries are ignored.
+     *
+     * @param container the owning map container
+     * @param latLons   geographic polygon vertices in radians
+     * @return a seam-split projected shape; never {@code null}
+     */
+    public static ProjectedMapShape buildProjectedPolygon(
+            MapContainer container, PackedGeometry latLons) {
+        return buildProjectedShape(container, latLons, true,
+                DEFAULT_MAX_GREAT_CIRCLE_STEP_DEG);
     }
 
     // -------------------------------------------------------------------------
@@ -465,21 +519,22 @@ public final class MapGraphics {
     /**
      * Core implementation shared by polyline and polygon builders.
      *
-     * @param container    the owning map container
-     * @param latLonPoints geographic input vertices in radians
-     * @param closed       whether the last vertex should connect back to the
-     *                     first
-     * @param maxStepDeg   maximum great-circle sampling step in degrees
+     * @param container  the owning map container
+     * @param latLons    geographic input vertices in radians, in vertex order;
+     *                   may be {@code null}
+     * @param closed     whether the last vertex should connect back to the
+     *                   first
+     * @param maxStepDeg maximum great-circle sampling step in degrees
      * @return a seam-aware projected shape; never {@code null}
      */
     private static ProjectedMapShape buildProjectedShape(MapContainer container,
-            Point2D.Double[] latLonPoints, boolean closed, double maxStepDeg) {
+            PackedGeometry latLons, boolean closed, double maxStepDeg) {
 
         if (container == null) {
             throw new IllegalArgumentException("container must not be null");
         }
 
-        if (latLonPoints == null || latLonPoints.length < (closed ? 3 : 2)) {
+        if (latLons == null || latLons.vertexCount() < (closed ? 3 : 2)) {
             return new ProjectedMapShape(Collections.emptyList(), closed);
         }
 
@@ -487,7 +542,7 @@ public final class MapGraphics {
         double stepDeg = (maxStepDeg > 0.0)
                 ? maxStepDeg : DEFAULT_MAX_GREAT_CIRCLE_STEP_DEG;
 
-        int n = latLonPoints.length;
+        int n = latLons.vertexCount();
         int segmentCount = closed ? n : (n - 1);
 
         ArrayList<Path2D.Double> paths = new ArrayList<>();
@@ -497,11 +552,13 @@ public final class MapGraphics {
         boolean prevVisible = false;
         Point prevPixel = null;
 
+        Point2D.Double vertex = new Point2D.Double();
+
         for (int i = 0; i < segmentCount; i++) {
 
-            Point2D.Double ll0 = normalizeLatLon(projection, latLonPoints[i]);
+            Point2D.Double ll0 = normalizeLatLon(projection, latLons.get(i, vertex));
             Point2D.Double ll1 = normalizeLatLon(projection,
-                    latLonPoints[(i + 1) % n]);
+                    latLons.get((i + 1) % n, vertex));
 
             List<Point2D.Double> samples = sampleGreatCircle(ll0, ll1, stepDeg);
 
@@ -565,6 +622,18 @@ public final class MapGraphics {
         return new ProjectedMapShape(paths, closed);
     }
 
+    /**
+     * Packs a geographic vertex array for {@link #buildProjectedShape}.
+     *
+     * @param latLonPoints vertices in radians; may be {@code null}
+     * @return a single-ring geometry, or {@code null} if the input is
+     *         {@code null}
+     */
+    private static PackedGeometry pack(Point2D.Double[] latLonPoints) {
+        return (latLonPoints == null) ? null
+                : PackedGeometry.fromPoints(Arrays.asList(latLonPoints));
+    }
+
     /**
      * Obtains the active map projection from the container's owning
      * {@link MapView2D}.
@@ -113,4 +113,15 @@ public abstract class AMapItem extends AItem {
     protected void updateFocus() {
         // default: nothing to do
     }
-}
\ No newline at end of file
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Map items report geographic rather than container world bounds, so
+     * they are never spatially indexed.</p>
+     */
+    @Override
+    public boolean isSpatiallyIndexable() {
+        return false;
+    }
+}
@@ -14,6 +14,7 @@ import edu.cnu.mdi.mapping.MapConstants;
 import edu.cnu.mdi.mapping.container.MapContainer;
 import edu.cnu.mdi.mapping.graphics.MapGraphics;
 import edu.cnu.mdi.mapping.graphics.MapGraphics.ProjectedMapShape;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
 
 /**
  * Abstract base for map-native items whose geometry is an ordered array of
@@ -29,8 +30,11 @@ import edu.cnu.mdi.mapping.graphics.MapGraphics.ProjectedMapShape;
  *
  * <h2>Vertex indexing</h2>
  * <p>
- * Vertices are in {@link #_latLons} in construction order. For a closed polygon
- * the path is implicitly closed — no duplicate of vertex 0 is stored.
+ * Vertices are packed into the single ring of {@link #_latLons} in
+ * construction order. For a closed polygon the path is implicitly closed — no
+ * duplicate of vertex 0 is stored. The geometry is immutable, so every edit
+ * replaces it with a new one and a snapshot taken at drag-start is never
+ * disturbed by the drag itself.
  * </p>
  *
  * <h2>Drag</h2>
@@ -62,10 +66,11 @@ public abstract class AMapMultiPointItem extends AMapItem {
     // -------------------------------------------------------------------------
 
     /**
-     * Geographic vertices in radians ({@code x = longitude, y = latitude}).
-     * Never {@code null} after construction; length ≥ 2.
+     * Geographic vertices in radians ({@code x = longitude, y = latitude}),
+     * packed as a single ring. Never {@code null} after construction;
+     * at least 2 vertices.
      */
-    protected Point2D.Double[] _latLons;
+    protected PackedGeometry _latLons;
 
     /**
      * Cached projected shape. Cleared by {@link #setDirty} and rebuilt lazily
@@ -87,9 +92,7 @@ public abstract class AMapMultiPointItem extends AMapItem {
     protected AMapMultiPointItem(Layer layer, Point2D.Double[] latLons,
                                  Object... keyVals) {
         super(layer, keyVals);
-        if (latLons == null || latLons.length < 2)
-            throw new IllegalArgumentException("latLons must contain at least 2 points");
-        _latLons = copyVertices(latLons);
+        _latLons = pack(latLons);
         updateFocus();
     }
 
@@ -97,8 +100,13 @@ public abstract class AMapMultiPointItem extends AMapItem {
     // Vertex accessors
     // -------------------------------------------------------------------------
 
-    /** @return a defensive copy of the vertex array; never {@code null} */
-    public Point2D.Double[] getLatLons() { return copyVertices(_latLons); }
+    /** @return a new array holding the vertices; never {@code null} */
+    public Point2D.Double[] getLatLons() {
+        Point2D.Double[] latLons = new Point2D.Double[_latLons.vertexCount()];
+        for (int i = 0; i < latLons.length; i++)
+            latLons[i] = _latLons.get(i, new Point2D.Double());
+        return latLons;
+    }
 
     /**
      * Replace all vertices and mark dirty.
@@ -106,14 +114,12 @@ public abstract class AMapMultiPointItem extends AMapItem {
      * @param latLons new vertices; must not be {@code null}, length ≥ 2
      */
     public void setLatLons(Point2D.Double[] latLons) {
-        if (latLons == null || latLons.length < 2)
-            throw new IllegalArgumentException("latLons must contain at least 2 points");
-        _latLons = copyVertices(latLons);
+        _latLons = pack(latLons);
         geometryChanged();
     }
 
     /** @return number of vertices (≥ 2) */
-    public int getVertexCount() { return _latLons.length; }
+    public int getVertexCount() { return _latLons.vertexCount(); }
 
     // -------------------------------------------------------------------------
     // Abstract — subclass supplies drawing and shape building
@@ -184,10 +190,12 @@ public abstract class AMapMultiPointItem extends AMapItem {
     @Override
     public Point[] getSelectionPoints(IContainer container) {
         if (!(container instanceof MapContainer mc)) return null;
-        Point[] pts = new Point[_latLons.length];
+        int n = _latLons.vertexCount();
+        Point[] pts = new Point[n];
+        Point2D.Double ll = new Point2D.Double();
         int count = 0;
-        for (Point2D.Double ll : _latLons) {
-            Point p = projectLatLon(mc, ll);
+        for (int i = 0; i < n; i++) {
+            Point p = projectLatLon(mc, _latLons.get(i, ll));
             if (p != null) pts[count++] = p;
         }
         return (count == 0) ? null : Arrays.copyOf(pts, count);
@@ -233,20 +241,24 @@ public abstract class AMapMultiPointItem extends AMapItem {
                 if (startLL == null || currentLL == null) return;
                 MultiPointStartState state =
                         (MultiPointStartState) _modification.getUserObject();
-                double dLon = currentLL.x - startLL.x;
-                double dLat = currentLL.y - startLL.y;
-                for (int i = 0; i < _latLons.length; i++) {
-                    _latLons[i].x = state.vertices[i].x + dLon;
-                    _latLons[i].y = state.vertices[i].y + dLat;
-                }
+                _latLons = translated(state.vertices,
+                        currentLL.x - startLL.x, currentLL.y - startLL.y);
             }
 
             case RESIZE -> {
                 Point2D.Double currentLL = localToLatLon(mc, currentMouse);
                 if (currentLL == null) return;
                 int idx = _modification.getSelectIndex();
-                if (idx >= 0 && idx < _latLons.length)
-                    _latLons[idx] = new Point2D.Double(currentLL.x, currentLL.y);
+                int n = _latLons.vertexCount();
+                if (idx >= 0 && idx < n) {
+                    PackedGeometry.Builder b = new PackedGeometry.Builder(n);
+                    b.beginRing();
+                    for (int i = 0; i < n; i++) {
+                        if (i == idx) b.add(currentLL.x, currentLL.y);
+                        else b.add(_latLons.x(i), _latLons.y(i));
+                    }
+                    _latLons = b.build();
+                }
             }
 
             case ROTATE -> { return; }  // silently ignored — see class Javadoc
@@ -269,14 +281,10 @@ public abstract class AMapMultiPointItem extends AMapItem {
      */
     @Override
     public Rectangle2D.Double getWorldBounds() {
-        if (_latLons == null || _latLons.length == 0) return null;
-        double xmin = _latLons[0].x, xmax = xmin;
-        double ymin = _latLons[0].y, ymax = ymin;
-        for (Point2D.Double ll : _latLons) {
-            xmin = Math.min(xmin, ll.x); xmax = Math.max(xmax, ll.x);
-            ymin = Math.min(ymin, ll.y); ymax = Math.max(ymax, ll.y);
-        }
-        return new Rectangle2D.Double(xmin, ymin, xmax - xmin, ymax - ymin);
+        if (_latLons == null || _latLons.isEmpty()) return null;
+        return new Rectangle2D.Double(_latLons.getMinX(), _latLons.getMinY(),
+                _latLons.getMaxX() - _latLons.getMinX(),
+                _latLons.getMaxY() - _latLons.getMinY());
     }
 
     /**
@@ -288,7 +296,7 @@ public abstract class AMapMultiPointItem extends AMapItem {
     @Override
     public void translateWorld(double dx, double dy) {
         if (Math.abs(dx) < 1.0e-12 && Math.abs(dy) < 1.0e-12) return;
-        for (Point2D.Double ll : _latLons) { ll.x += dx; ll.y += dy; }
+        _latLons = translated(_latLons, dx, dy);
         geometryChanged();
     }
 
@@ -306,11 +314,14 @@ public abstract class AMapMultiPointItem extends AMapItem {
     public void getFeedbackStrings(IContainer container, Point pp,
             Point2D.Double wp, List<String> feedbackStrings) {
         if (feedbackStrings == null || !contains(container, pp)) return;
+        int n = _latLons.vertexCount();
         feedbackStrings.add("$yellow$" + getDisplayName()
-                + " (" + _latLons.length + " vertices)");
+                + " (" + n + " vertices)");
+        Point2D.Double a = new Point2D.Double(), b = new Point2D.Double();
         double totalRad = 0.0;
-        for (int i = 0; i < _latLons.length - 1; i++)
-            totalRad += MapGraphics.greatCircleLength(_latLons[i], _latLons[i + 1]);
+        for (int i = 0; i < n - 1; i++)
+            totalRad += MapGraphics.greatCircleLength(_latLons.get(i, a),
+                                                      _latLons.get(i + 1, b));
         feedbackStrings.add(String.format("perimeter: %.1f km",
                 MapConstants.RADIUS_EARTH_KM * totalRad));
     }
@@ -322,11 +333,11 @@ public abstract class AMapMultiPointItem extends AMapItem {
     /** Recomputes the focus as the geographic mean of all vertices. */
     @Override
     protected void updateFocus() {
-        if (_latLons == null || _latLons.length == 0) return;
+        if (_latLons == null || _latLons.isEmpty()) return;
+        int n = _latLons.vertexCount();
         double sumLon = 0.0, sumLat = 0.0;
-        for (Point2D.Double ll : _latLons) { sumLon += ll.x; sumLat += ll.y; }
-        _focus = new Point2D.Double(sumLon / _latLons.length,
-                                    sumLat / _latLons.length);
+        for (int i = 0; i < n; i++) { sumLon += _latLons.x(i); sumLat += _latLons.y(i); }
+        _focus = new Point2D.Double(sumLon / n, sumLat / n);
     }
 
     @Override
@@ -382,12 +393,32 @@ public abstract class AMapMultiPointItem extends AMapItem {
         return ll;
     }
 
-    /** Deep defensive copy of a vertex array. */
-    protected static Point2D.Double[] copyVertices(Point2D.Double[] src) {
-        Point2D.Double[] dst = new Point2D.Double[src.length];
-        for (int i = 0; i < src.length; i++)
-            dst[i] = (src[i] == null) ? null : new Point2D.Double(src[i].x, src[i].y);
-        return dst;
+    /**
+     * Packs a vertex array into a single-ring geometry.
+     *
+     * @throws IllegalArgumentException if {@code latLons} is {@code null},
+     *         has fewer than 2 points, or contains a {@code null} point
+     */
+    protected static PackedGeometry pack(Point2D.Double[] latLons) {
+        if (latLons == null || latLons.length < 2)
+            throw new IllegalArgumentException("latLons must contain at least 2 points");
+        PackedGeometry.Builder b = new PackedGeometry.Builder(latLons.length);
+        b.beginRing();
+        for (Point2D.Double ll : latLons) {
+            if (ll == null)
+                throw new IllegalArgumentException("latLons must not contain null points");
+            b.add(ll.x, ll.y);
+        }
+        return b.build();
+    }
+
+    /** @return a copy of {@code src} with every vertex offset by (dx, dy) */
+    protected static PackedGeometry translated(PackedGeometry src, double dx, double dy) {
+        int n = src.vertexCount();
+        PackedGeometry.Builder b = new PackedGeometry.Builder(n);
+        b.beginRing();
+        for (int i = 0; i < n; i++) b.add(src.x(i) + dx, src.y(i) + dy);
+        return b.build();
     }
 
     // -------------------------------------------------------------------------
@@ -395,11 +426,12 @@ public abstract class AMapMultiPointItem extends AMapItem {
     // -------------------------------------------------------------------------
 
     /**
-     * Immutable snapshot of all vertex positions at drag-start.
+     * Snapshot of all vertex positions at drag-start. The geometry is
+     * immutable, so holding the reference is enough.
      * Stored in the {@link edu.cnu.mdi.item.ItemModification} user-object slot.
      */
     protected static final class MultiPointStartState {
-        final Point2D.Double[] vertices;
-        MultiPointStartState(Point2D.Double[] src) { this.vertices = copyVertices(src); }
+        final PackedGeometry vertices;
+        MultiPointStartState(PackedGeometry src) { this.vertices = src; }
     }
 }
\ No newline at end of file
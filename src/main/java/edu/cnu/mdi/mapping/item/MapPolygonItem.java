@@ -9,6 +9,7 @@ import edu.cnu.mdi.item.Layer;
 import edu.cnu.mdi.mapping.container.MapContainer;
 import edu.cnu.mdi.mapping.graphics.MapGraphics;
 import edu.cnu.mdi.mapping.graphics.MapGraphics.ProjectedMapShape;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
 
 /**
  * A map-native closed spherical polygon defined by an ordered array of
@@ -25,7 +26,7 @@ import edu.cnu.mdi.mapping.graphics.MapGraphics.ProjectedMapShape;
  * <h2>Drawing model — closed polyline, not Path2D.closePath()</h2>
  * <p>
  * All N edges (including the closing edge vertex[N-1] → vertex[0]) are
- * sampled as great-circle arcs by passing a length-(N+1) vertex array
+ * sampled as great-circle arcs by passing an (N+1)-vertex geometry
  * (vertex[0] duplicated at the end) to
  * {@link MapGraphics#buildProjectedPolyline}.  This means:
  * </p>
@@ -35,7 +36,7 @@ import edu.cnu.mdi.mapping.graphics.MapGraphics.ProjectedMapShape;
  *   <li>{@code Path2D.closePath()} is never called, so seam-split sub-paths
  *       are not incorrectly filled with a straight closing line.</li>
  *   <li>The shape is drawn via
- *       {@link MapGraphics#drawMapPolyline(Graphics2D, MapContainer, Point2D.Double[], edu.cnu.mdi.graphics.style.IStyled)}
+ *       {@link MapGraphics#drawMapPolyline(Graphics2D, MapContainer, PackedGeometry, edu.cnu.mdi.graphics.style.IStyled)}
  *       with fill handled separately as a pre-pass.</li>
  * </ul>
  *
@@ -45,7 +46,7 @@ import edu.cnu.mdi.mapping.graphics.MapGraphics.ProjectedMapShape;
  * {@link java.awt.geom.Path2D#contains(double, double)} cannot reliably test
  * interior containment for the full polygon.  Instead, a spherical
  * ray-casting test is applied directly to the geographic {@link #_latLons}
- * array, which is both projection-independent and exact.  The test counts how
+ * vertices, which is both projection-independent and exact.  The test counts how
  * many great-circle edges the meridian from the test point north to the pole
  * crosses; an odd count means the point is inside.
  * </p>
@@ -156,7 +157,7 @@ public class MapPolygonItem extends AMapMultiPointItem {
      * {@inheritDoc}
      *
      * <p>Interior containment is tested using a spherical ray-casting algorithm
-     * on the geographic {@link #_latLons} array, so the result is correct
+     * on the geographic {@link #_latLons} vertices, so the result is correct
      * regardless of how the projection splits the boundary into sub-paths.
      * Outline proximity (6-pixel tolerance) is tested as a fallback so the
      * boundary is always clickable even for unfilled polygons.</p>
@@ -188,18 +189,19 @@ public class MapPolygonItem extends AMapMultiPointItem {
     // -------------------------------------------------------------------------
 
     /**
-     * Returns the vertex array with vertex[0] duplicated at the end, so that
-     * passing it to a polyline builder produces all N closed edges as great-circle
-     * arcs.
+     * Returns the vertices with vertex[0] duplicated at the end, so that
+     * passing them to a polyline builder produces all N closed edges as
+     * great-circle arcs.
      *
-     * @return an array of length {@code _latLons.length + 1}
+     * @return a geometry of {@code _latLons.vertexCount() + 1} vertices
      */
-    private Point2D.Double[] closedVertices() {
-        int n = _latLons.length;
-        Point2D.Double[] closed = new Point2D.Double[n + 1];
-        System.arraycopy(_latLons, 0, closed, 0, n);
-        closed[n] = new Point2D.Double(_latLons[0].x, _latLons[0].y);
-        return closed;
+    private PackedGeometry closedVertices() {
+        int n = _latLons.vertexCount();
+        PackedGeometry.Builder b = new PackedGeometry.Builder(n + 1);
+        b.beginRing();
+        for (int i = 0; i < n; i++) b.add(_latLons.x(i), _latLons.y(i));
+        b.add(_latLons.x(0), _latLons.y(0));
+        return b.build();
     }
 
     /**
@@ -249,15 +251,15 @@ public class MapPolygonItem extends AMapMultiPointItem {
      * @return {@code true} if the crossing count is odd (point is inside)
      */
     private static boolean sphericalRayCast(double testLon, double testLat,
-                                            Point2D.Double[] vertices) {
-        int n = vertices.length;
+                                            PackedGeometry vertices) {
+        int n = vertices.vertexCount();
         int crossings = 0;
 
         for (int i = 0; i < n; i++) {
-            double lon1 = vertices[i].x;
-            double lat1 = vertices[i].y;
-            double lon2 = vertices[(i + 1) % n].x;
-            double lat2 = vertices[(i + 1) % n].y;
+            double lon1 = vertices.x(i);
+            double lat1 = vertices.y(i);
+            double lon2 = vertices.x((i + 1) % n);
+            double lat2 = vertices.y((i + 1) % n);
 
             // Normalise dLon to (-π, π] so edges crossing the seam are handled.
             double dLon = lon2 - lon1;
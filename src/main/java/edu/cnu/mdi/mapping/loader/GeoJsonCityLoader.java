@@ -1,5 +1,6 @@
 package edu.cnu.mdi.mapping.loader;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -10,14 +11,14 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 
 import edu.cnu.mdi.mapping.projection.IMapProjection;
 import edu.cnu.mdi.mapping.render.CityPointRenderer;
-import edu.cnu.mdi.mapping.theme.MapUtils;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
 
 /**
  * Utility for loading city (populated place) point features from a GeoJSON
@@ -63,9 +64,14 @@ import edu.cnu.mdi.mapping.theme.MapUtils;
  * converted to radians and the longitude is wrapped to (-π, π] before storage.
  * All {@link CityFeature} coordinate accessors return radians.</p>
  *
+ * <h2>Streaming</h2>
+ * <p>Parsing is done with {@link GeoJsonStreamReader} over Jackson's token
+ * stream, so no {@code JsonNode} tree is built.
+ * {@link #stream(Path, Consumer, DoubleConsumer)} delivers cities
+ * incrementally with progress for background loading of large files.</p>
+ *
  * <h2>Thread safety</h2>
- * <p>This class has no mutable state. The shared {@link ObjectMapper} is
- * thread-safe for reading. Both {@link #load(Path)} and
+ * <p>This class has no mutable state. Both {@link #load(Path)} and
  * {@link #loadFromResource(String)} return unmodifiable lists.</p>
  *
  * <p>This class is not instantiable.</p>
@@ -186,16 +192,6 @@ public final class GeoJsonCityLoader implements ICityLoader {
         }
     }
 
-    // =========================================================================
-    // Internal state
-    // =========================================================================
-
-    /**
-     * Shared, thread-safe Jackson {@link ObjectMapper}. Reused across calls
-     * because construction is expensive.
-     */
-    private static final ObjectMapper MAPPER = new ObjectMapper();
-
     // =========================================================================
     // Public load methods
     // =========================================================================
@@ -246,6 +242,35 @@ public final class GeoJsonCityLoader implements ICityLoader {
         }
     }
 
+    /**
+     * Streams city features from a GeoJSON file, delivering each one to
+     * {@code sink} as soon as it has been parsed. Both callbacks run on the
+     * calling thread.
+     *
+     * @param geoJsonPath path to a GeoJSON {@code FeatureCollection} file
+     * @param sink        receives each parsed city; must not be {@code null}
+     * @param progress    receives the completed fraction in [0, 1]; may be
+     *                    {@code null}
+     * @return number of cities delivered
+     * @throws IOException if an I/O or JSON parse error occurs
+     */
+    public static int stream(Path geoJsonPath, Consumer<CityFeature> sink,
+                             DoubleConsumer progress) throws IOException {
+        Objects.requireNonNull(sink, "sink");
+        long size = Files.size(geoJsonPath);
+        int[] count = new int[1];
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(geoJsonPath))) {
+            new GeoJsonStreamReader(size, progress).read(in, (props, type, geom) -> {
+                CityFeature city = toFeature(props, type, geom);
+                if (city != null) {
+                    count[0]++;
+                    sink.accept(city);
+                }
+            });
+        }
+        return count[0];
+    }
+
     // =========================================================================
     // Private parsing
     // =========================================================================
@@ -254,63 +279,49 @@ public final class GeoJsonCityLoader implements ICityLoader {
      * Parses the GeoJSON document from a {@link BufferedReader} and returns an
      * unmodifiable list of city features.
      *
+     * <p>Package-private so {@link MapDataCache} can parse resource bytes it
+     * has already read for fingerprinting.</p>
+     *
      * @param reader source of GeoJSON text
      * @return unmodifiable list of parsed features
      * @throws IOException if the root is missing or not a
      *                     {@code FeatureCollection}
      */
-    private static List<CityFeature> load(BufferedReader reader) throws IOException {
-        JsonNode root = MAPPER.readTree(reader);
-        if (root == null || !"FeatureCollection".equals(root.path("type").asText())) {
-            throw new IOException("GeoJSON root is not a FeatureCollection");
-        }
-
-        JsonNode featuresNode = root.path("features");
-        if (!featuresNode.isArray()) {
-            throw new IOException("GeoJSON 'features' array missing or not an array");
-        }
-
+    static List<CityFeature> load(BufferedReader reader) throws IOException {
         List<CityFeature> result = new ArrayList<>();
-        for (JsonNode featureNode : featuresNode) {
-            CityFeature city = parseFeature(featureNode);
+        new GeoJsonStreamReader(-1, null).read(reader, (props, type, geom) -> {
+            CityFeature city = toFeature(props, type, geom);
             if (city != null) {
                 result.add(city);
             }
-        }
+        });
         return Collections.unmodifiableList(result);
     }
 
     /**
-     * Parses a single GeoJSON {@code Feature} node into a {@link CityFeature}.
+     * Converts one streamed GeoJSON feature into a {@link CityFeature}.
      *
-     * <p>Returns {@code null} if:
-     * <ul>
-     *   <li>The feature type is not {@code Feature}.</li>
-     *   <li>The geometry type is not {@code Point}.</li>
-     *   <li>The coordinate array has fewer than 2 elements.</li>
-     * </ul>
+     * <p>Returns {@code null} if the geometry type is not {@code Point} or
+     * the point has no valid coordinate pair. Non-{@code Feature} entries
+     * are already filtered out by {@link GeoJsonStreamReader}.</p>
      *
-     * @param featureNode a single GeoJSON feature node
+     * @param props    scalar feature properties
+     * @param geomType geometry type, or {@code null}
+     * @param geometry packed coordinates in radians
      * @return parsed {@link CityFeature}, or {@code null} to skip
      */
-    private static CityFeature parseFeature(JsonNode featureNode) {
-        if (!"Feature".equals(featureNode.path("type").asText())) return null;
+    private static CityFeature toFeature(Map<String, Object> props, String geomType,
+                                         PackedGeometry geometry) {
+        if (!"Point".equalsIgnoreCase(geomType) || geometry.isEmpty()) return null;
 
-        JsonNode geometry = featureNode.path("geometry");
-        if (!"Point".equalsIgnoreCase(geometry.path("type").asText())) return null;
+        // Coordinates were already converted to radians and wrapped.
+        double lon = geometry.x(0);
+        double lat = geometry.y(0);
 
-        JsonNode coords = geometry.path("coordinates");
-        if (!coords.isArray() || coords.size() < 2) return null;
-
-        // GeoJSON coordinates are in degrees; convert and wrap longitude.
-        double lon = MapUtils.lonDegreesToRadians(coords.get(0).asDouble());
-        double lat = Math.toRadians(coords.get(1).asDouble());
-
-        JsonNode props       = featureNode.path("properties");
-        String   name        = nullSafeText(props, "NAME", "name", "Name", "NAMEASCII", "nameascii");
-        String   countryName = nullSafeText(props, "ADM0NAME", "adm0name", "SOV0NAME", "sov0name");
-        long     population  = longFrom(props,  -1L, "POP_MAX", "pop_max", "Pop_Max");
-        int      scalerank   = intFrom(props,   -1,  "SCALERANK", "scalerank", "ScaleRank");
+        String name        = nullSafeText(props, "NAME", "name", "Name", "NAMEASCII", "nameascii");
+        String countryName = nullSafeText(props, "ADM0NAME", "adm0name", "SOV0NAME", "sov0name");
+        long   population  = longFrom(props,  -1L, "POP_MAX", "pop_max", "Pop_Max");
+        int    scalerank   = intFrom(props,   -1,  "SCALERANK", "scalerank", "ScaleRank");
 
         return new CityFeature(name, countryName, lon, lat, population, scalerank);
     }
@@ -324,58 +335,51 @@ public final class GeoJsonCityLoader implements ICityLoader {
      * names, or {@code null} if none of the names are present or all values
      * are empty strings.
      *
-     * @param node   JSON object node containing properties
+     * @param props  scalar property map
      * @param fields property names to try in order
      * @return first non-empty string value, or {@code null}
      */
-    private static String nullSafeText(JsonNode node, String... fields) {
-        if (node == null || fields == null) return null;
+    private static String nullSafeText(Map<String, Object> props, String... fields) {
         for (String field : fields) {
-            JsonNode child = node.path(field);
-            if (child.isMissingNode()) continue;
-            String value = child.asText(null);
-            if (value != null && !value.isEmpty()) return value;
+            Object value = props.get(field);
+            if (value == null) continue;
+            String text = value.toString();
+            if (!text.isEmpty()) return text;
         }
         return null;
     }
 
     /**
-     * Returns the first present numeric field parsed as {@code long}, or
+     * Returns the first present numeric field as {@code long}, or
      * {@code defaultValue} if none of the named properties exist or are
      * numeric.
      *
-     * @param node         JSON object node
+     * @param props        scalar property map
      * @param defaultValue value returned when no matching field is found
      * @param fields       property names to try in order
-     * @return parsed long value, or {@code defaultValue}
+     * @return long value, or {@code defaultValue}
      */
-    private static long longFrom(JsonNode node, long defaultValue, String... fields) {
-        if (node == null || fields == null) return defaultValue;
+    private static long longFrom(Map<String, Object> props, long defaultValue, String... fields) {
         for (String field : fields) {
-            JsonNode child = node.path(field);
-            if (!child.isMissingNode() && child.isNumber()) return child.asLong(defaultValue);
+            if (props.get(field) instanceof Number n) return n.longValue();
         }
         return defaultValue;
     }
 
     /**
-     * Returns the first present numeric field parsed as {@code int}, or
+     * Returns the first present numeric field as {@code int}, or
      * {@code defaultValue} if none of the named properties exist or are
      * numeric.
      *
-     * @param node         JSON object node
+     * @param props        scalar property map
      * @param defaultValue value returned when no matching field is found
      * @param fields       property names to try in order
-     * @return parsed int value, or {@code defaultValue}
+     * @return int value, or {@code defaultValue}
      */
-    private static int intFrom(JsonNode node, int defaultValue, String... fields) {
-        if (node == null || fields == null) return defaultValue;
+    private static int intFrom(Map<String, Object> props, int defaultValue, String... fields) {
         for (String field : fields) {
-            JsonNode child = node.path(field);
-            if (!child.isMissingNode() && child.isNumber()) return child.asInt(defaultValue);
+            if (props.get(field) instanceof Number n) return n.intValue();
         }
         return defaultValue;
     }
-
-    // wrapLongitude delegated to MapUtils.MapUtils.wrapLongitude(double)
-}
\ No newline at end of file
+}
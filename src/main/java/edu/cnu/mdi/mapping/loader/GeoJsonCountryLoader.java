@@ -1,6 +1,7 @@
 package edu.cnu.mdi.mapping.loader;
 
 import java.awt.geom.Point2D;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -11,12 +12,12 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import edu.cnu.mdi.mapping.theme.MapUtils;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
 
 /**
  * Utility for loading country boundary polygons from a GeoJSON
@@ -54,10 +55,17 @@ import edu.cnu.mdi.mapping.theme.MapUtils;
  * wrapped to (-π, π] before being stored in the returned
  * {@link CountryFeature}.</p>
  *
+ * <h2>Streaming</h2>
+ * <p>Parsing is done with {@link GeoJsonStreamReader}, which walks Jackson's
+ * token stream rather than building a {@code JsonNode} tree, so memory use
+ * does not scale with file size. {@link #stream(Path, Consumer, DoubleConsumer)}
+ * exposes the incremental form directly: features are delivered as they are
+ * parsed, with progress reported along the way, so a view can start drawing
+ * before a large file has finished loading.</p>
+ *
  * <h2>Thread safety</h2>
- * <p>This class has no mutable state. The internal {@link ObjectMapper} is
- * thread-safe for reading and may be shared freely. The returned lists are
- * unmodifiable.</p>
+ * <p>This class has no mutable state and may be used from any thread. The
+ * returned lists are unmodifiable.</p>
  *
  * <p>This class is not instantiable.</p>
  */
@@ -73,7 +81,7 @@ public final class GeoJsonCountryLoader implements ICountryLoader {
     /**
      * Immutable representation of a single country feature consisting of an
      * administrative name, an ISO-3166-1 alpha-3 code, and one or more polygon
-     * rings expressed as lists of geographic points in radians.
+     * rings expressed as geographic points in radians.
      *
      * <p>A country may have multiple polygon rings because:
      * <ul>
@@ -83,19 +91,22 @@ public final class GeoJsonCountryLoader implements ICountryLoader {
      *       more inner rings are all stored).</li>
      * </ul>
      *
-     * <p>The list returned by {@link #getPolygons()} is unmodifiable. Each
-     * inner ring list is modifiable but callers should treat them as
-     * read-only.</p>
+     * <p>Rings are held in a {@link PackedGeometry} rather than as
+     * per-vertex {@link Point2D.Double} objects. Renderers should iterate
+     * {@link #getGeometry()} directly; {@link #getPolygons()} remains as a
+     * read-only compatibility view.</p>
      */
     public static final class CountryFeature {
 
         private final String adminName;
         private final String isoA3;
-        private final List<List<Point2D.Double>> polygons;
+        private final PackedGeometry geometry;
 
         /**
-         * Constructs a new country feature. The supplied polygon list is
-         * defensively copied and wrapped in an unmodifiable view.
+         * Constructs a new country feature from ring lists. The rings are
+         * packed immediately; the supplied lists are not retained. Every
+         * ring is kept, including empty ones, so {@link #getPolygons()} has
+         * the same ring indices as {@code polygons}.
          *
          * @param adminName administrative name (e.g. "United States of America");
          *                  must not be {@code null}
@@ -106,10 +117,22 @@ public final class GeoJsonCountryLoader implements ICountryLoader {
          */
         public CountryFeature(String adminName, String isoA3,
                               List<List<Point2D.Double>> polygons) {
+            this(adminName, isoA3,
+                 PackedGeometry.fromRings(Objects.requireNonNull(polygons, "polygons"), 0));
+        }
+
+        /**
+         * Constructs a new country feature from already-packed rings.
+         *
+         * @param adminName administrative name; must not be {@code null}
+         * @param isoA3     ISO 3166-1 alpha-3 code; must not be {@code null}
+         * @param geometry  packed polygon rings in radians; must not be
+         *                  {@code null}
+         */
+        public CountryFeature(String adminName, String isoA3, PackedGeometry geometry) {
             this.adminName = Objects.requireNonNull(adminName, "adminName");
             this.isoA3     = Objects.requireNonNull(isoA3,     "isoA3");
-            this.polygons  = Collections.unmodifiableList(
-                    new ArrayList<>(Objects.requireNonNull(polygons, "polygons")));
+            this.geometry  = Objects.requireNonNull(geometry,  "geometry");
         }
 
         /**
@@ -127,35 +150,33 @@ public final class GeoJsonCountryLoader implements ICountryLoader {
         public String getIsoA3() { return isoA3; }
 
         /**
-         * Returns the unmodifiable list of polygon rings. Each ring is a list
-         * of {@link Point2D.Double} instances with {@code x = λ} (longitude,
+         * Returns the packed polygon rings with {@code x = λ} (longitude,
          * radians) and {@code y = φ} (latitude, radians).
          *
-         * <p>A ring with fewer than 3 points is degenerate and renderers may
-         * safely skip it.</p>
+         * @return packed geometry; never {@code null}
+         */
+        public PackedGeometry getGeometry() { return geometry; }
+
+        /**
+         * Returns a read-only list view of the polygon rings. Each ring is a
+         * list of {@link Point2D.Double} instances with {@code x = λ}
+         * (longitude, radians) and {@code y = φ} (latitude, radians).
+         *
+         * <p>Points are materialized on access; prefer
+         * {@link #getGeometry()} in rendering loops. A ring with fewer than 3
+         * points is degenerate and renderers may safely skip it.</p>
          *
          * @return unmodifiable list of polygon rings
          */
-        public List<List<Point2D.Double>> getPolygons() { return polygons; }
+        public List<List<Point2D.Double>> getPolygons() { return geometry.asRingList(); }
 
         @Override
         public String toString() {
             return "CountryFeature[admin=" + adminName + ", iso=" + isoA3
-                    + ", rings=" + polygons.size() + ']';
+                    + ", rings=" + geometry.ringCount() + ']';
         }
     }
 
-    // =========================================================================
-    // Internal state
-    // =========================================================================
-
-    /**
-     * Shared, thread-safe Jackson {@link ObjectMapper}. {@code ObjectMapper}
-     * is safe for concurrent reads once configured, and construction is
-     * expensive, so it is reused across calls.
-     */
-    private static final ObjectMapper MAPPER = new ObjectMapper();
-
     // =========================================================================
     // Public load methods
     // =========================================================================
@@ -206,6 +227,40 @@ public final class GeoJsonCountryLoader implements ICountryLoader {
         }
     }
 
+    /**
+     * Streams country features from a GeoJSON file, delivering each one to
+     * {@code sink} as soon as it has been parsed.
+     *
+     * <p>Intended for large files loaded on a background thread: both
+     * {@code sink} and {@code progress} are invoked on the calling thread,
+     * so callers that update Swing state must hand off to the EDT
+     * themselves.</p>
+     *
+     * @param geoJsonPath path to a GeoJSON {@code FeatureCollection} file
+     * @param sink        receives each parsed country; must not be
+     *                    {@code null}
+     * @param progress    receives the completed fraction in [0, 1], based on
+     *                    bytes read; may be {@code null}
+     * @return number of countries delivered
+     * @throws IOException if an I/O or JSON parse error occurs
+     */
+    public static int stream(Path geoJsonPath, Consumer<CountryFeature> sink,
+                             DoubleConsumer progress) throws IOException {
+        Objects.requireNonNull(sink, "sink");
+        long size = Files.size(geoJsonPath);
+        int[] count = new int[1];
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(geoJsonPath))) {
+            new GeoJsonStreamReader(size, progress).read(in, (props, type, geom) -> {
+                CountryFeature feature = toFeature(props, type, geom);
+                if (feature != null) {
+                    count[0]++;
+                    sink.accept(feature);
+                }
+            });
+        }
+        return count[0];
+    }
+
     // =========================================================================
     // Private parsing
     // =========================================================================
@@ -214,41 +269,28 @@ public final class GeoJsonCountryLoader implements ICountryLoader {
      * Parses the entire GeoJSON document from a {@link BufferedReader} and
      * returns an <em>unmodifiable</em> list of country features.
      *
-     * <p>Previously this method returned a plain {@link ArrayList}, meaning
-     * callers could mutate the shared list. It now wraps the result in
-     * {@link Collections#unmodifiableList} to match the behaviour of
-     * {@link GeoJsonCityLoader} and prevent accidental mutation.</p>
+     * <p>Package-private so {@link MapDataCache} can parse resource bytes it
+     * has already read for fingerprinting.</p>
      *
      * @param reader source of GeoJSON text
      * @return unmodifiable list of parsed features
      * @throws IOException if the root node is missing or not a
      *                     {@code FeatureCollection}
      */
-    private static List<CountryFeature> load(BufferedReader reader) throws IOException {
-        JsonNode root = MAPPER.readTree(reader);
-        if (root == null || !"FeatureCollection".equals(root.path("type").asText())) {
-            throw new IOException("GeoJSON root is not a FeatureCollection");
-        }
-
-        JsonNode featuresNode = root.path("features");
-        if (!featuresNode.isArray()) {
-            throw new IOException("GeoJSON 'features' is missing or not an array");
-        }
-
+    static List<CountryFeature> load(BufferedReader reader) throws IOException {
         List<CountryFeature> result = new ArrayList<>();
-        for (JsonNode featureNode : featuresNode) {
-            CountryFeature feature = parseFeature(featureNode);
+        new GeoJsonStreamReader(-1, null).read(reader, (props, type, geom) -> {
+            CountryFeature feature = toFeature(props, type, geom);
             if (feature != null) {
                 result.add(feature);
             }
-        }
+        });
         // Wrap to match GeoJsonCityLoader behaviour and prevent external mutation.
         return Collections.unmodifiableList(result);
     }
 
     /**
-     * Parses a single GeoJSON {@code Feature} node into a
-     * {@link CountryFeature}.
+     * Converts one streamed GeoJSON feature into a {@link CountryFeature}.
      *
      * <p>Returns {@code null} if:
      * <ul>
@@ -258,62 +300,25 @@ public final class GeoJsonCountryLoader implements ICountryLoader {
      *   <li>No valid polygon rings could be extracted.</li>
      * </ul>
      *
-     * @param featureNode a single GeoJSON feature node
+     * @param props    scalar feature properties
+     * @param geomType geometry type, or {@code null}
+     * @param geometry packed rings in radians
      * @return parsed {@link CountryFeature}, or {@code null} to skip
      */
-    private static CountryFeature parseFeature(JsonNode featureNode) {
-        JsonNode properties = featureNode.path("properties");
-        String admin = properties.path("ADMIN").asText(null);
-        String isoA3 = properties.path("ISO_A3").asText(null);
+    private static CountryFeature toFeature(Map<String, Object> props, String geomType,
+                                            PackedGeometry geometry) {
+        Object admin = props.get("ADMIN");
+        Object isoA3 = props.get("ISO_A3");
 
         if (admin == null || isoA3 == null) {
             return null; // required properties missing
         }
-
-        JsonNode geometry = featureNode.path("geometry");
-        String   geomType = geometry.path("type").asText();
-        JsonNode coords   = geometry.path("coordinates");
-
-        List<List<Point2D.Double>> polygons = new ArrayList<>();
-
-        if ("Polygon".equalsIgnoreCase(geomType)) {
-            parsePolygon(coords, polygons);
-        } else if ("MultiPolygon".equalsIgnoreCase(geomType)) {
-            for (JsonNode polygonNode : coords) {
-                parsePolygon(polygonNode, polygons);
-            }
-        } else {
+        if (!"Polygon".equalsIgnoreCase(geomType)
+                && !"MultiPolygon".equalsIgnoreCase(geomType)) {
             return null; // unsupported geometry type
         }
 
-        return polygons.isEmpty() ? null : new CountryFeature(admin, isoA3, polygons);
+        return geometry.isEmpty() ? null
+                : new CountryFeature(admin.toString(), isoA3.toString(), geometry);
     }
-
-    /**
-     * Parses a GeoJSON {@code Polygon} coordinate array (an array of linear
-     * rings) and appends each ring to {@code out}.
-     *
-     * <p>Each ring coordinate pair is converted from degrees to radians, and
-     * the longitude is wrapped to (-π, π] via {@link #MapUtils.wrapLongitude(double)}.</p>
-     *
-     * @param polygonNode JSON node for a single polygon (array of rings)
-     * @param out         destination list; rings are appended in order
-     */
-    private static void parsePolygon(JsonNode polygonNode, List<List<Point2D.Double>> out) {
-        for (JsonNode ringNode : polygonNode) {
-            List<Point2D.Double> ring = new ArrayList<>();
-            for (JsonNode coordNode : ringNode) {
-                if (coordNode.isArray() && coordNode.size() >= 2) {
-                    double lon = MapUtils.lonDegreesToRadians(coordNode.get(0).asDouble());
-                    double lat = Math.toRadians(coordNode.get(1).asDouble());
-                    ring.add(new Point2D.Double(lon, lat));
-                }
-            }
-            if (!ring.isEmpty()) {
-                out.add(ring);
-            }
-        }
-    }
-
-    // wrapLongitude delegated to MapUtils.MapUtils.wrapLongitude(double)
-}
\ No newline at end of file
+}
@@ -0,0 +1,386 @@
+package edu.cnu.mdi.mapping.loader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+
+import edu.cnu.mdi.mapping.theme.MapUtils;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
+
+/**
+ * Incremental reader for GeoJSON {@code FeatureCollection} documents built on
+ * Jackson's streaming {@link JsonParser} token API.
+ *
+ * <p>Unlike {@code ObjectMapper.readTree}, which materializes the entire
+ * document as a {@code JsonNode} tree before any feature can be converted,
+ * this reader walks the token stream once and hands each feature to a
+ * {@link FeatureHandler} as soon as its closing brace is seen. Peak memory is
+ * therefore proportional to the largest single feature rather than to the
+ * whole file, and callers can begin rendering while the remainder of the file
+ * is still being parsed.</p>
+ *
+ * <h2>What is delivered per feature</h2>
+ * <ul>
+ *   <li>The top-level scalar entries of {@code properties} (strings, numbers
+ *       as {@link Long} or {@link Double}, booleans, and {@code null}).
+ *       Nested objects and arrays inside {@code properties} are skipped.</li>
+ *   <li>The geometry {@code type} string, or {@code null} if absent.</li>
+ *   <li>The geometry {@code coordinates} packed into a
+ *       {@link PackedGeometry}: every innermost array of positions becomes
+ *       one ring, a bare position ({@code Point}) becomes a single-vertex
+ *       ring. Coordinates are converted from degrees to radians and the
+ *       longitude is wrapped to (-π, π].</li>
+ * </ul>
+ *
+ * <p>Member order inside a feature or geometry object is not significant, so
+ * files that place {@code coordinates} before {@code type} are handled.</p>
+ *
+ * <h2>Validation</h2>
+ * <p>The root must be a JSON object containing a {@code features} array and a
+ * {@code type} of {@code FeatureCollection}. Because JSON does not fix member
+ * order, the {@code type} check happens when the root object closes; an
+ * {@link IOException} is thrown at that point if it failed, after any
+ * features already delivered.</p>
+ *
+ * <h2>Progress</h2>
+ * <p>Progress is the parser's offset over the expected document length.
+ * Read from an {@link InputStream} the offset counts bytes, so the file size
+ * is the right total whatever the encoding; read from a {@link Reader} it
+ * counts characters, and a byte size overestimates the total of non-ASCII
+ * text.</p>
+ *
+ * <p>Instances are not thread-safe; create one per load.</p>
+ */
+public final class GeoJsonStreamReader {
+
+    /**
+     * Receives features as they are parsed.
+     */
+    @FunctionalInterface
+    public interface FeatureHandler {
+
+        /**
+         * Called once for each {@code Feature} in the collection.
+         *
+         * @param properties   unmodifiable map of scalar properties; never
+         *                     {@code null}
+         * @param geometryType GeoJSON geometry type (e.g. {@code "Polygon"}),
+         *                     or {@code null} if the feature has no geometry
+         * @param geometry     packed coordinates in radians; never
+         *                     {@code null} (may be empty)
+         * @throws IOException to abort the load
+         */
+        void feature(Map<String, Object> properties, String geometryType,
+                     PackedGeometry geometry) throws IOException;
+    }
+
+    /** Progress is reported after at most this many features. */
+    private static final int PROGRESS_INTERVAL = 256;
+
+    /**
+     * Shared, thread-safe parser factory. Source auto-close is disabled so
+     * the caller keeps ownership of the {@link Reader} or stream.
+     */
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    private final long           totalLength;
+    private final DoubleConsumer progress;
+
+    /** Reused across features; reset before each geometry. */
+    private final PackedGeometry.Builder builder = new PackedGeometry.Builder(1024);
+
+    private int featureCount;
+
+    /**
+     * Creates a reader.
+     *
+     * @param totalLength total document length in bytes for stream input
+     *                    or characters for reader input, or a value
+     *                    {@code <= 0} if unknown
+     * @param progress    receives a completed fraction in [0, 1]; may be
+     *                    {@code null}. Called on the parsing thread. When the
+     *                    total is unknown only the final {@code 1.0} is
+     *                    reported.
+     */
+    public GeoJsonStreamReader(long totalLength, DoubleConsumer progress) {
+        this.totalLength = totalLength;
+        this.progress    = progress;
+    }
+
+    /**
+     * Returns the number of feature objects parsed so far, including any
+     * that were not delivered because their {@code type} was not
+     * {@code Feature}.
+     *
+     * @return parsed feature count
+     */
+    public int getFeatureCount() { return featureCount; }
+
+    /**
+     * Parses the whole document, delivering each feature to {@code handler}.
+     * The reader is not closed.
+     *
+     * @param reader  source of GeoJSON text; must not be {@code null}
+     * @param handler feature sink; must not be {@code null}
+     * @throws IOException on I/O error, malformed JSON, or if the root is not
+     *                     a {@code FeatureCollection}
+     */
+    public void read(Reader reader, FeatureHandler handler) throws IOException {
+        Objects.requireNonNull(reader,  "reader");
+        Objects.requireNonNull(handler, "handler");
+        read(FACTORY.createParser(reader), handler);
+    }
+
+    /**
+     * Parses the whole document from raw bytes, delivering each feature to
+     * {@code handler}. The encoding (normally UTF-8) is detected by the
+     * parser, and progress is measured in bytes. The stream is not closed.
+     *
+     * @param in      source of GeoJSON bytes; must not be {@code null}
+     * @param handler feature sink; must not be {@code null}
+     * @throws IOException on I/O error, malformed JSON, or if the root is not
+     *                     a {@code FeatureCollection}
+     */
+    public void read(InputStream in, FeatureHandler handler) throws IOException {
+        Objects.requireNonNull(in,      "in");
+        Objects.requireNonNull(handler, "handler");
+        read(FACTORY.createParser(in), handler);
+    }
+
+    private void read(JsonParser parser, FeatureHandler handler) throws IOException {
+        try (JsonParser p = parser) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("GeoJSON root is not a FeatureCollection");
+            }
+
+            boolean sawCollectionType = false;
+            boolean sawFeatures       = false;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken t  = p.nextToken();
+
+                if ("type".equals(field) && t == JsonToken.VALUE_STRING) {
+                    sawCollectionType = "FeatureCollection".equals(p.getText());
+                } else if ("features".equals(field)) {
+                    if (t != JsonToken.START_ARRAY) {
+                        throw new IOException("GeoJSON 'features' is missing or not an array");
+                    }
+                    sawFeatures = true;
+                    readFeatures(p, handler);
+                } else {
+                    p.skipChildren();
+                }
+            }
+
+            if (!sawCollectionType) {
+                throw new IOException("GeoJSON root is not a FeatureCollection");
+            }
+            if (!sawFeatures) {
+                throw new IOException("GeoJSON 'features' is missing or not an array");
+            }
+        }
+
+        if (progress != null) {
+            progress.accept(1.0);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Features
+    // -------------------------------------------------------------------------
+
+    /** Parser is positioned on the {@code features} START_ARRAY. */
+    private void readFeatures(JsonParser p, FeatureHandler handler) throws IOException {
+        JsonToken t;
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (t == null) {
+                throw new IOException("Unexpected end of GeoJSON 'features' array");
+            }
+            if (t != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            readFeature(p, handler);
+
+            featureCount++;
+            if (progress != null && totalLength > 0
+                    && featureCount % PROGRESS_INTERVAL == 0) {
+                JsonLocation at = p.currentLocation();
+                long offset = (at.getByteOffset() >= 0) ? at.getByteOffset() : at.getCharOffset();
+                progress.accept(Math.min(1.0, (double) offset / totalLength));
+            }
+        }
+    }
+
+    /** Parser is positioned on the feature's START_OBJECT. */
+    private void readFeature(JsonParser p, FeatureHandler handler) throws IOException {
+        boolean             isFeature  = true;
+        Map<String, Object> properties = Collections.emptyMap();
+        String              geomType   = null;
+        PackedGeometry      geometry   = PackedGeometry.EMPTY;
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken t  = p.nextToken();
+
+            switch (field) {
+                case "type" -> {
+                    if (t == JsonToken.VALUE_STRING) {
+                        isFeature = "Feature".equals(p.getText());
+                    }
+                }
+                case "properties" -> {
+                    if (t == JsonToken.START_OBJECT) {
+                        properties = readProperties(p);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                case "geometry" -> {
+                    if (t == JsonToken.START_OBJECT) {
+                        builder.reset();
+                        geomType = readGeometry(p);
+                        geometry = builder.build();
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+
+        if (isFeature) {
+            handler.feature(properties, geomType, geometry);
+        }
+    }
+
+    /** Parser is positioned on the properties START_OBJECT. */
+    private static Map<String, Object> readProperties(JsonParser p) throws IOException {
+        Map<String, Object> props = new HashMap<>();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken t = p.nextToken();
+            switch (t) {
+                case VALUE_STRING       -> props.put(name, p.getText());
+                case VALUE_NUMBER_INT   -> props.put(name, p.getLongValue());
+                case VALUE_NUMBER_FLOAT -> props.put(name, p.getDoubleValue());
+                case VALUE_TRUE         -> props.put(name, Boolean.TRUE);
+                case VALUE_FALSE        -> props.put(name, Boolean.FALSE);
+                case VALUE_NULL         -> props.put(name, null);
+                default                 -> p.skipChildren();
+            }
+        }
+        return Collections.unmodifiableMap(props);
+    }
+
+    // -------------------------------------------------------------------------
+    // Geometry
+    // -------------------------------------------------------------------------
+
+    /**
+     * Parser is positioned on the geometry START_OBJECT. Coordinates are
+     * appended to {@link #builder}.
+     *
+     * @return the geometry type, or {@code null} if absent
+     */
+    private String readGeometry(JsonParser p) throws IOException {
+        String type = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken t  = p.nextToken();
+            if ("type".equals(field) && t == JsonToken.VALUE_STRING) {
+                type = p.getText();
+            } else if ("coordinates".equals(field) && t == JsonToken.START_ARRAY) {
+                readCoordinates(p);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return type;
+    }
+
+    /** Parser is positioned on the outermost coordinates START_ARRAY. */
+    private void readCoordinates(JsonParser p) throws IOException {
+        JsonToken t = p.nextToken();
+        if (t != null && t.isNumeric()) {
+            // Bare position, i.e. a Point.
+            builder.beginRing();
+            readPositionTail(p);
+            builder.endRing(1);
+            return;
+        }
+        readNested(p, t);
+    }
+
+    /**
+     * Reads the elements of an array whose elements are themselves arrays.
+     * If those child arrays turn out to be positions, this array is a ring.
+     *
+     * @param t the first token inside the array (already consumed)
+     */
+    private void readNested(JsonParser p, JsonToken t) throws IOException {
+        boolean ringOpen = false;
+        while (t != JsonToken.END_ARRAY) {
+            if (t == null) {
+                throw new IOException("Unexpected end of GeoJSON coordinates");
+            }
+            if (t == JsonToken.START_ARRAY) {
+                JsonToken first = p.nextToken();
+                if (first != null && first.isNumeric()) {
+                    if (!ringOpen) {
+                        builder.beginRing();
+                        ringOpen = true;
+                    }
+                    readPositionTail(p);
+                } else {
+                    readNested(p, first);
+                }
+            } else {
+                p.skipChildren();
+            }
+            t = p.nextToken();
+        }
+        if (ringOpen) {
+            builder.endRing(1);
+        }
+    }
+
+    /**
+     * Parser is positioned on the first (longitude) number of a position.
+     * Reads longitude and latitude, ignores any altitude, and consumes the
+     * closing END_ARRAY. Positions with fewer than two numbers are skipped,
+     * matching the tolerance of the tree-based loaders.
+     */
+    private void readPositionTail(JsonParser p) throws IOException {
+        double lonDeg = p.getDoubleValue();
+        double latDeg = Double.NaN;
+        JsonToken t;
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (t == null) {
+                throw new IOException("Unexpected end of GeoJSON position");
+            }
+            if (Double.isNaN(latDeg) && t.isNumeric()) {
+                latDeg = p.getDoubleValue();
+            } else {
+                p.skipChildren();
+            }
+        }
+        if (!Double.isNaN(latDeg)) {
+            builder.add(MapUtils.lonDegreesToRadians(lonDeg), Math.toRadians(latDeg));
+        }
+    }
+}
@@ -0,0 +1,610 @@
+package edu.cnu.mdi.mapping.loader;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import edu.cnu.mdi.log.Log;
+import edu.cnu.mdi.mapping.loader.GeoJsonCityLoader.CityFeature;
+import edu.cnu.mdi.mapping.loader.GeoJsonCountryLoader.CountryFeature;
+import edu.cnu.mdi.mapping.shapefile.DbfTable;
+import edu.cnu.mdi.mapping.shapefile.ShapeFeature;
+import edu.cnu.mdi.mapping.shapefile.ShapefileFeatureLoader;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
+import edu.cnu.mdi.util.Environment;
+
+/**
+ * Persistent binary cache of parsed map datasets.
+ *
+ * <p>Parsing the bundled GeoJSON countries and cities, or a large shapefile,
+ * dominates the cold start of a map view. This cache stores the parsed
+ * features — packed geometry with its precomputed bounding boxes, and the
+ * attributes each feature type keeps — in a compact binary file. Later loads
+ * read the file into memory in one pass and bulk-copy the coordinate arrays
+ * into {@link PackedGeometry} instances, with no text parsing at all.
+ * Shapefile attributes are stored as the raw records of their
+ * {@link DbfTable}, so cached features keep the table's columnar rows and
+ * typed accessors.</p>
+ *
+ * <h2>Invalidation</h2>
+ * <p>Each cache file records a fingerprint of its source and is used only if
+ * the fingerprint still matches:</p>
+ * <ul>
+ *   <li>files (GeoJSON, or a shapefile's {@code .shp} and {@code .dbf}):
+ *       size and last-modified time;</li>
+ *   <li>classpath resources: the implementation version of the jar that
+ *       provides this class (when it has one), the resource length, and the
+ *       resource's last-modified time as reported by its URL connection. The
+ *       resource itself is read only if the cache misses.</li>
+ * </ul>
+ * <p>Files also carry a format version; bumping {@link #FORMAT_VERSION}
+ * invalidates every existing cache file. A missing, stale, truncated, or
+ * otherwise unreadable cache file is silently replaced by parsing the source
+ * and rewriting the cache. Failure to write the cache is logged and does not
+ * affect the returned data.</p>
+ *
+ * <h2>Location</h2>
+ * <p>{@link #getDefault()} stores files in a {@code maps} subdirectory of
+ * {@link Environment#getCacheDirectory()}. Writes go to a temporary file that
+ * is then moved into place, so concurrent loaders never observe a partial
+ * file. Cache files are never memory-mapped, so no mapping can keep a file
+ * from being replaced on platforms that lock mapped files.</p>
+ *
+ * <h2>Thread safety</h2>
+ * <p>Instances are immutable and may be used from any thread. Loads are
+ * blocking; call them off the EDT for large datasets.</p>
+ */
+public final class MapDataCache {
+
+    /** Version of the binary layout; change it whenever the layout changes. */
+    public static final int FORMAT_VERSION = 2;
+
+    /** Header and trailer marker ("MDMC"). */
+    private static final int MAGIC = 0x4D444D43;
+
+    private static final int KIND_COUNTRIES = 1;
+    private static final int KIND_CITIES    = 2;
+    private static final int KIND_SHAPES    = 3;
+
+    private static MapDataCache defaultCache;
+
+    /** Cache directory, or {@code null} to disable caching. */
+    private final Path directory;
+
+    // -------------------------------------------------------------------------
+    // Construction
+    // -------------------------------------------------------------------------
+
+    /**
+     * Creates a cache rooted at the given directory. The directory is created
+     * on the first write.
+     *
+     * @param directory cache directory, or {@code null} to disable caching so
+     *                  every load parses the source
+     */
+    public MapDataCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the shared cache under the environment's cache directory.
+     *
+     * @return the default cache; never {@code null} (caching is disabled if
+     *         no cache directory can be determined)
+     */
+    public static synchronized MapDataCache getDefault() {
+        if (defaultCache == null) {
+            File root = Environment.getInstance().getCacheDirectory();
+            defaultCache = new MapDataCache((root == null) ? null : root.toPath().resolve("maps"));
+        }
+        return defaultCache;
+    }
+
+    /**
+     * Returns the cache directory.
+     *
+     * @return the directory, or {@code null} if caching is disabled
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // -------------------------------------------------------------------------
+    // Loads
+    // -------------------------------------------------------------------------
+
+    /**
+     * Loads country features from a GeoJSON file, using the cache when it is
+     * current.
+     *
+     * @param geoJsonPath GeoJSON {@code FeatureCollection} file
+     * @return unmodifiable list of countries
+     * @throws IOException if the source cannot be read or parsed
+     * @see GeoJsonCountryLoader#loadStatic(Path)
+     */
+    public List<CountryFeature> loadCountries(Path geoJsonPath) throws IOException {
+        return cached(KIND_COUNTRIES, sourceId(geoJsonPath), fileFingerprint(geoJsonPath),
+                () -> GeoJsonCountryLoader.loadStatic(geoJsonPath),
+                MapDataCache::readCountry, MapDataCache::writeCountry);
+    }
+
+    /**
+     * Loads country features from a classpath resource, using the cache when
+     * the resource content is unchanged.
+     *
+     * @param resourcePath absolute classpath resource path
+     * @return unmodifiable list of countries
+     * @throws IOException if the resource cannot be found, read, or parsed
+     * @see GeoJsonCountryLoader#loadFromResourceStatic(String)
+     */
+    public List<CountryFeature> loadCountriesFromResource(String resourcePath) throws IOException {
+        return cached(KIND_COUNTRIES, "resource:" + resourcePath, resourceFingerprint(resourcePath),
+                () -> GeoJsonCountryLoader.load(reader(readResource(resourcePath))),
+                MapDataCache::readCountry, MapDataCache::writeCountry);
+    }
+
+    /**
+     * Loads city features from a GeoJSON file, using the cache when it is
+     * current.
+     *
+     * @param geoJsonPath GeoJSON {@code FeatureCollection} file
+     * @return unmodifiable list of cities
+     * @throws IOException if the source cannot be read or parsed
+     * @see GeoJsonCityLoader#loadStatic(Path)
+     */
+    public List<CityFeature> loadCities(Path geoJsonPath) throws IOException {
+        return cached(KIND_CITIES, sourceId(geoJsonPath), fileFingerprint(geoJsonPath),
+                () -> GeoJsonCityLoader.loadStatic(geoJsonPath),
+                MapDataCache::readCity, MapDataCache::writeCity);
+    }
+
+    /**
+     * Loads city features from a classpath resource, using the cache when the
+     * resource content is unchanged.
+     *
+     * @param resourcePath absolute classpath resource path
+     * @return unmodifiable list of cities
+     * @throws IOException if the resource cannot be found, read, or parsed
+     * @see GeoJsonCityLoader#loadFromResourceStatic(String)
+     */
+    public List<CityFeature> loadCitiesFromResource(String resourcePath) throws IOException {
+        return cached(KIND_CITIES, "resource:" + resourcePath, resourceFingerprint(resourcePath),
+                () -> GeoJsonCityLoader.load(reader(readResource(resourcePath))),
+                MapDataCache::readCity, MapDataCache::writeCity);
+    }
+
+    /**
+     * Loads shapefile features, using the cache when both the {@code .shp}
+     * and the companion {@code .dbf} file are unchanged.
+     *
+     * @param shpPath path to the {@code .shp} file
+     * @return unmodifiable list of features
+     * @throws IOException if the shapefile cannot be read or parsed
+     * @see ShapefileFeatureLoader#load(Path)
+     */
+    public List<ShapeFeature> loadShapefile(Path shpPath) throws IOException {
+        Objects.requireNonNull(shpPath, "shpPath");
+        String name = shpPath.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        Path dbfPath = shpPath.resolveSibling(((dot >= 0) ? name.substring(0, dot) : name) + ".dbf");
+
+        ShapeCodec codec = new ShapeCodec();
+        return cached(KIND_SHAPES, sourceId(shpPath),
+                fileFingerprint(shpPath) + ";" + fileFingerprint(dbfPath),
+                () -> new ShapefileFeatureLoader().load(shpPath),
+                codec::read, codec::write);
+    }
+
+    /**
+     * Deletes every cache file in the cache directory.
+     *
+     * @throws IOException if the directory cannot be listed or a file cannot
+     *                     be deleted
+     */
+    public void clear() throws IOException {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.bin")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Cache core
+    // -------------------------------------------------------------------------
+
+    @FunctionalInterface
+    private interface Parser<T> {
+        List<T> parse() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RecordReader<T> {
+        T read(Input in);
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter<T> {
+        void write(DataOutputStream out, T record) throws IOException;
+    }
+
+    private <T> List<T> cached(int kind, String sourceId, String fingerprint, Parser<T> parser,
+                               RecordReader<T> reader, RecordWriter<T> writer) throws IOException {
+        if (directory == null) {
+            return parser.parse();
+        }
+
+        Path file = directory.resolve(kindName(kind) + "-" + sha256(sourceId.getBytes(StandardCharsets.UTF_8))
+                .substring(0, 16) + ".bin");
+
+        List<T> hit = tryRead(file, kind, fingerprint, reader);
+        if (hit != null) {
+            return hit;
+        }
+
+        List<T> parsed = parser.parse();
+        tryWrite(file, kind, fingerprint, parsed, writer);
+        return parsed;
+    }
+
+    /** Returns the cached records, or {@code null} on any mismatch or error. */
+    private static <T> List<T> tryRead(Path file, int kind, String fingerprint, RecordReader<T> reader) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        ByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) {
+                return null;
+            }
+            // Read into the heap rather than mapping: a mapping outlives the
+            // channel until it is garbage collected, and on Windows it keeps
+            // tryWrite() from replacing the file.
+            buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining() && ch.read(buf) >= 0) {
+                // keep reading
+            }
+            buf.flip();
+        } catch (IOException e) {
+            Log.getInstance().warning("Ignoring unreadable map cache file " + file + ": " + e);
+            return null;
+        }
+        try {
+            Input in = new Input(buf);
+
+            if (buf.getInt() != MAGIC || buf.getInt() != FORMAT_VERSION || buf.getInt() != kind
+                    || !fingerprint.equals(in.string())) {
+                return null;
+            }
+            int count = buf.getInt();
+            if (count < 0) {
+                return null;
+            }
+            List<T> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                records.add(reader.read(in));
+            }
+            // The trailer guards against a file truncated by a crash mid-write.
+            if (buf.getInt() != MAGIC) {
+                return null;
+            }
+            return Collections.unmodifiableList(records);
+        } catch (RuntimeException e) {
+            Log.getInstance().warning("Ignoring unreadable map cache file " + file + ": " + e);
+            return null;
+        }
+    }
+
+    private static <T> void tryWrite(Path file, int kind, String fingerprint, List<T> records,
+                                     RecordWriter<T> writer) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tmp = Files.createTempFile(file.getParent(), "write-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(kind);
+                writeString(out, fingerprint);
+                out.writeInt(records.size());
+                for (T record : records) {
+                    writer.write(out, record);
+                }
+                out.writeInt(MAGIC);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+        } catch (IOException e) {
+            Log.getInstance().warning("Could not write map cache file " + file + ": " + e.getMessage());
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // best effort
+                }
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Record layouts
+    // -------------------------------------------------------------------------
+
+    private static CountryFeature readCountry(Input in) {
+        String admin = in.string();
+        String iso   = in.string();
+        return new CountryFeature(admin, iso, in.geometry());
+    }
+
+    private static void writeCountry(DataOutputStream out, CountryFeature c) throws IOException {
+        writeString(out, c.getAdminName());
+        writeString(out, c.getIsoA3());
+        writeGeometry(out, c.getGeometry());
+    }
+
+    private static CityFeature readCity(Input in) {
+        String name    = in.string();
+        String country = in.string();
+        double lon     = in.buf.getDouble();
+        double lat     = in.buf.getDouble();
+        long   pop     = in.buf.getLong();
+        int    rank    = in.buf.getInt();
+        return new CityFeature(name, country, lon, lat, pop, rank);
+    }
+
+    private static void writeCity(DataOutputStream out, CityFeature c) throws IOException {
+        writeString(out, c.getName());
+        writeString(out, c.getCountryName());
+        out.writeDouble(c.getLongitude());
+        out.writeDouble(c.getLatitude());
+        out.writeLong(c.getPopulation());
+        out.writeInt(c.getScalerank());
+    }
+
+    /**
+     * Shape records. Properties that are a {@link DbfTable.Row} are written as
+     * a table number and row index, with each table written in full the first
+     * time one of its rows appears, and read back as rows of the rebuilt
+     * table. Any other property map is written as key/value pairs. One codec
+     * is used per file, as it tracks the tables seen so far.
+     */
+    private static final class ShapeCodec {
+        private static final int PROPS_MAP = 0;
+        private static final int PROPS_ROW = 1;
+
+        private final Map<DbfTable, Integer> written = new IdentityHashMap<>();
+        private final List<DbfTable> read = new ArrayList<>();
+
+        ShapeFeature read(Input in) {
+            int type = in.buf.getInt();
+            PackedGeometry rings  = in.geometry();
+            PackedGeometry points = in.geometry();
+            Map<String, String> props;
+            if (in.buf.getInt() == PROPS_ROW) {
+                int table = in.buf.getInt();
+                if (table == read.size()) {
+                    read.add(DbfTable.read(in.buf));
+                }
+                props = read.get(table).row(in.buf.getInt());
+            } else {
+                int n = in.buf.getInt();
+                Map<String, String> map = new LinkedHashMap<>();
+                for (int i = 0; i < n; i++) {
+                    String key = in.string();
+                    map.put(key, in.string());
+                }
+                props = Collections.unmodifiableMap(map);
+            }
+            return new ShapeFeature(type, rings, points, props);
+        }
+
+        void write(DataOutputStream out, ShapeFeature f) throws IOException {
+            out.writeInt(f.getShapeType());
+            writeGeometry(out, f.getRingGeometry());
+            writeGeometry(out, f.getPointGeometry());
+            Map<String, String> props = f.getProperties();
+            if (props instanceof DbfTable.Row row) {
+                out.writeInt(PROPS_ROW);
+                Integer table = written.get(row.getTable());
+                if (table == null) {
+                    table = written.size();
+                    written.put(row.getTable(), table);
+                    out.writeInt(table);
+                    row.getTable().write(out);
+                } else {
+                    out.writeInt(table);
+                }
+                out.writeInt(row.getIndex());
+            } else {
+                out.writeInt(PROPS_MAP);
+                out.writeInt(props.size());
+                for (Map.Entry<String, String> e : props.entrySet()) {
+                    writeString(out, e.getKey());
+                    writeString(out, e.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Geometry layout: ring count, vertex count, bounding box, ring offsets
+     * (ring count + 1 ints), interleaved coordinates (2 × vertex count
+     * doubles).
+     */
+    private static void writeGeometry(DataOutputStream out, PackedGeometry g) throws IOException {
+        int rings = g.ringCount();
+        int verts = g.vertexCount();
+        out.writeInt(rings);
+        out.writeInt(verts);
+        out.writeDouble(g.getMinX());
+        out.writeDouble(g.getMinY());
+        out.writeDouble(g.getMaxX());
+        out.writeDouble(g.getMaxY());
+        for (int r = 0; r < rings; r++) {
+            out.writeInt(g.ringStart(r));
+        }
+        out.writeInt(verts);
+        for (int v = 0; v < verts; v++) {
+            out.writeDouble(g.x(v));
+            out.writeDouble(g.y(v));
+        }
+    }
+
+    /** Strings are a byte length ({@code -1} for {@code null}) and UTF-8 bytes. */
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /** Sequential reader over a cache file's bytes. */
+    private static final class Input {
+        final ByteBuffer buf;
+
+        Input(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        String string() {
+            int len = buf.getInt();
+            if (len < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[len];
+            buf.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        PackedGeometry geometry() {
+            int rings = buf.getInt();
+            int verts = buf.getInt();
+            double minX = buf.getDouble();
+            double minY = buf.getDouble();
+            double maxX = buf.getDouble();
+            double maxY = buf.getDouble();
+
+            int[] ringStart = new int[rings + 1];
+            buf.asIntBuffer().get(ringStart);
+            buf.position(buf.position() + 4 * ringStart.length);
+
+            double[] coords = new double[2 * verts];
+            buf.asDoubleBuffer().get(coords);
+            buf.position(buf.position() + 8 * coords.length);
+
+            return PackedGeometry.wrap(coords, ringStart, minX, minY, maxX, maxY);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private static String kindName(int kind) {
+        return switch (kind) {
+            case KIND_COUNTRIES -> "countries";
+            case KIND_CITIES    -> "cities";
+            default             -> "shapes";
+        };
+    }
+
+    private static String sourceId(Path path) {
+        return "file:" + path.toAbsolutePath().normalize();
+    }
+
+    /** Size and modification time, or a marker if the file does not exist. */
+    private static String fileFingerprint(Path path) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return attrs.size() + ":" + attrs.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return "missing";
+        }
+    }
+
+    /**
+     * Fingerprint of a classpath resource that does not require reading it:
+     * the implementation version of the jar providing this class (if any),
+     * the resource length, and its last-modified time.
+     */
+    private static String resourceFingerprint(String resourcePath) throws IOException {
+        Objects.requireNonNull(resourcePath, "resourcePath");
+        URL url = MapDataCache.class.getResource(resourcePath);
+        if (url == null) {
+            throw new IOException("Resource not found: " + resourcePath);
+        }
+        URLConnection conn = url.openConnection();
+        conn.setUseCaches(false);
+        long length = conn.getContentLengthLong();
+        long modified = conn.getLastModified();
+        if (conn instanceof JarURLConnection jar) {
+            // Opening the connection opens the jar file; close it again.
+            jar.getJarFile().close();
+        }
+        String version = MapDataCache.class.getPackage().getImplementationVersion();
+        return "resource:" + ((version == null) ? "dev" : version) + ":" + length + ":" + modified;
+    }
+
+    private static byte[] readResource(String resourcePath) throws IOException {
+        Objects.requireNonNull(resourcePath, "resourcePath");
+        try (InputStream in = MapDataCache.class.getResourceAsStream(resourcePath)) {
+            if (in == null) {
+                throw new IOException("Resource not found: " + resourcePath);
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    private static BufferedReader reader(byte[] bytes) {
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // required by every JRE
+        }
+    }
+}
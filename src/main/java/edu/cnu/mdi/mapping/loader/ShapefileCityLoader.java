@@ -3,11 +3,12 @@ package edu.cnu.mdi.mapping.loader;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
+import edu.cnu.mdi.mapping.shapefile.DbfTable;
 import edu.cnu.mdi.mapping.shapefile.ShapefileDbfReader;
 import edu.cnu.mdi.mapping.shapefile.ShapefileGeometryReader;
 import edu.cnu.mdi.mapping.shapefile.ShapefileGeometryReader.ShapeRecord;
@@ -19,7 +20,8 @@ import edu.cnu.mdi.mapping.theme.MapUtils;
  *
  * <h2>Expected shapefile schema</h2>
  * <p>The {@code .dbf} attribute table should contain the following fields
- * (tried in priority order; the first non-empty value is used):</p>
+ * (tried in priority order; the first non-empty or, for numbers, the first
+ * numeric value is used):</p>
  * <ul>
  *   <li><b>Name</b> — {@code NAME}, {@code name}, {@code NAMEASCII},
  *       {@code NAME_EN} — city display name.</li>
@@ -148,18 +150,23 @@ public final class ShapefileCityLoader implements ICityLoader {
         try (ShapefileGeometryReader shp = new ShapefileGeometryReader(shpPath);
              ShapefileDbfReader      dbf = new ShapefileDbfReader(dbfPath)) {
 
-            // Read all attributes up-front. For populated-places data
-            // (~7,000 records) this is well within acceptable memory use.
-            List<Map<String, String>> attributes = dbf.readAllRecords();
+            // Open the attributes as a columnar table: only the name,
+            // country, population and scalerank columns are ever decoded,
+            // and the numeric ones straight into primitive columns.
+            DbfTable attributes = dbf.readTable();
+            int[] nameFields       = fieldIndices(attributes, NAME_FIELDS);
+            int[] countryFields    = fieldIndices(attributes, COUNTRY_FIELDS);
+            int[] populationFields = fieldIndices(attributes, POPULATION_FIELDS);
+            int[] scalerankFields  = fieldIndices(attributes, SCALERANK_FIELDS);
             int attrIndex = 0;
 
             ShapefileGeometryReader.ShapeRecord geomRecord;
             while ((geomRecord = shp.nextRecord()) != null) {
 
-                Map<String, String> attrs = (attrIndex < attributes.size())
-                        ? attributes.get(attrIndex)
-                        : Collections.emptyMap();
-                attrIndex++;
+                int row = attrIndex++;
+                if (row >= attributes.getRowCount()) {
+                    continue; // no attributes, hence no name
+                }
 
                 // Extract the point coordinate from the geometry record.
                 double lonDeg;
@@ -187,16 +194,18 @@ public final class ShapefileCityLoader implements ICityLoader {
                 double lat = Math.toRadians(latDeg);
 
                 // Extract string attributes.
-                String name        = firstNonEmpty(attrs, NAME_FIELDS);
-                String countryName = firstNonEmpty(attrs, COUNTRY_FIELDS);
+                String name        = firstNonEmpty(attributes, row, nameFields);
+                String countryName = firstNonEmpty(attributes, row, countryFields);
 
                 if (name == null || name.isEmpty()) {
                     continue; // a city without a name is not useful
                 }
 
                 // Extract numeric attributes with graceful fallback to -1.
-                long population = parseLong(firstNonEmpty(attrs, POPULATION_FIELDS), -1L);
-                int  scalerank  = parseInt(firstNonEmpty(attrs, SCALERANK_FIELDS),   -1);
+                long population = firstLong(attributes, row, populationFields, -1L);
+                long rank       = firstLong(attributes, row, scalerankFields,  -1L);
+                int  scalerank  = (rank >= Integer.MIN_VALUE && rank <= Integer.MAX_VALUE)
+                        ? (int) rank : -1;
 
                 result.add(new GeoJsonCityLoader.CityFeature(
                         name, countryName, lon, lat, population, scalerank));
@@ -211,57 +220,54 @@ public final class ShapefileCityLoader implements ICityLoader {
     // -------------------------------------------------------------------------
 
     /**
-     * Returns the first non-empty value found in {@code attrs} for any of the
-     * given field names, or {@code null} if none are present or all are empty.
+     * Resolves candidate field names to the column indices present in the
+     * table, keeping priority order.
      *
-     * @param attrs      attribute map for one record
+     * @param table      attribute table
      * @param fieldNames candidate field names in priority order
-     * @return first non-empty string value, or {@code null}
+     * @return column indices of the candidates that exist
      */
-    private static String firstNonEmpty(Map<String, String> attrs,
-                                        String[] fieldNames) {
-        for (String name : fieldNames) {
-            String value = attrs.get(name);
-            if (value != null && !value.isEmpty()) return value;
-        }
-        return null;
+    private static int[] fieldIndices(DbfTable table, String[] fieldNames) {
+        return Arrays.stream(fieldNames)
+                .mapToInt(table::getFieldIndex)
+                .filter(f -> f >= 0)
+                .toArray();
     }
 
     /**
-     * Parses a string as a {@code long}, returning {@code defaultValue} if the
-     * string is {@code null}, empty, or not a valid integer representation.
+     * Returns the first non-empty value in {@code row} among the given
+     * columns, or {@code null} if all are empty.
      *
-     * @param s            string to parse (may be {@code null})
-     * @param defaultValue value returned on parse failure
-     * @return parsed value or {@code defaultValue}
+     * @param table  attribute table
+     * @param row    row index
+     * @param fields candidate column indices in priority order
+     * @return first non-empty string value, or {@code null}
      */
-    private static long parseLong(String s, long defaultValue) {
-        if (s == null || s.isEmpty()) return defaultValue;
-        try {
-            // Strip any decimal part (DBF numeric fields sometimes include ".0")
-            int dot = s.indexOf('.');
-            return Long.parseLong(dot >= 0 ? s.substring(0, dot) : s);
-        } catch (NumberFormatException e) {
-            return defaultValue;
+    private static String firstNonEmpty(DbfTable table, int row, int[] fields) {
+        for (int f : fields) {
+            String value = table.getString(row, f);
+            if (!value.isEmpty()) return value;
         }
+        return null;
     }
 
     /**
-     * Parses a string as an {@code int}, returning {@code defaultValue} if the
-     * string is {@code null}, empty, or not a valid integer representation.
+     * Returns the integer part of the first numeric value in {@code row}
+     * among the given columns (DBF numeric fields sometimes include
+     * {@code ".0"}), or {@code defaultValue} if none is numeric.
      *
-     * @param s            string to parse (may be {@code null})
-     * @param defaultValue value returned on parse failure
+     * @param table        attribute table
+     * @param row          row index
+     * @param fields       candidate column indices in priority order
+     * @param defaultValue value returned when no column is numeric
      * @return parsed value or {@code defaultValue}
      */
-    private static int parseInt(String s, int defaultValue) {
-        if (s == null || s.isEmpty()) return defaultValue;
-        try {
-            int dot = s.indexOf('.');
-            return Integer.parseInt(dot >= 0 ? s.substring(0, dot) : s);
-        } catch (NumberFormatException e) {
-            return defaultValue;
+    private static long firstLong(DbfTable table, int row, int[] fields, long defaultValue) {
+        for (int f : fields) {
+            long value = table.getLong(row, f);
+            if (value != DbfTable.MISSING_LONG) return value;
         }
+        return defaultValue;
     }
 
     /**
@@ -1,6 +1,5 @@
 package edu.cnu.mdi.mapping.loader;
 
-import java.awt.geom.Point2D;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -12,8 +11,8 @@ import java.util.Objects;
 import edu.cnu.mdi.mapping.render.CountryRenderer;
 import edu.cnu.mdi.mapping.shapefile.ShapefileDbfReader;
 import edu.cnu.mdi.mapping.shapefile.ShapefileGeometryReader;
-import edu.cnu.mdi.mapping.shapefile.ShapefileGeometryReader.ShapeRecord;
 import edu.cnu.mdi.mapping.theme.MapUtils;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
 
 /**
  * Loads {@link GeoJsonCountryLoader.CountryFeature} instances from an ESRI
@@ -174,8 +173,11 @@ public final class ShapefileCountryLoader implements ICountryLoader {
             List<Map<String, String>> attributes = dbf.readAllRecords();
             int attrIndex = 0;
 
-            ShapefileGeometryReader.ShapeRecord geomRecord;
-            while ((geomRecord = shp.nextRecord()) != null) {
+            // Rings are converted to radians as they are read and packed
+            // directly; degenerate rings (fewer than 3 points) are dropped.
+            ShapefileGeometryReader.PackedRecord geomRecord;
+            while ((geomRecord = shp.nextPackedRecord(MapUtils::lonDegreesToRadians,
+                                                      Math::toRadians, 3)) != null) {
 
                 // Retrieve the corresponding attribute row.
                 // Null-shape records are skipped by the geometry reader but
@@ -200,20 +202,7 @@ public final class ShapefileCountryLoader implements ICountryLoader {
                     continue; // skip features with missing required fields
                 }
 
-                // Convert each ring from degrees to radians and build the
-                // polygon list expected by CountryFeature.
-                List<List<Point2D.Double>> polygons = new ArrayList<>();
-                for (List<Point2D.Double> ring : geomRecord.rings()) {
-                    if (ring.size() < 3) continue; // degenerate ring
-                    List<Point2D.Double> converted = new ArrayList<>(ring.size());
-                    for (Point2D.Double pt : ring) {
-                        double lon = MapUtils.lonDegreesToRadians(pt.x);
-                        double lat = Math.toRadians(pt.y);
-                        converted.add(new Point2D.Double(lon, lat));
-                    }
-                    polygons.add(converted);
-                }
-
+                PackedGeometry polygons = geomRecord.geometry();
                 if (polygons.isEmpty()) continue;
 
                 result.add(new GeoJsonCountryLoader.CountryFeature(
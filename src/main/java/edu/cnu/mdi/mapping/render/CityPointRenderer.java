@@ -1,7 +1,6 @@
 package edu.cnu.mdi.mapping.render;
 
 import java.awt.Color;
-import java.awt.Component;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
@@ -10,6 +9,7 @@ import java.awt.RenderingHints;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -40,25 +40,33 @@ import edu.cnu.mdi.ui.fonts.Fonts;
  *       {@link #setMaxLabelScalerank(int)}. Cities that pass the point filter
  *       but not the label filter still get a dot, but no text label.</li>
  * </ol>
+ * <p>Each city's coordinates, population and scalerank are copied into
+ * primitive columns. The point filter is evaluated over those
+ * columns into an index of passing cities, which is cached until a filter
+ * setting changes; rendering and picking walk only that index. Raising the
+ * population threshold on a large populated-places layer therefore costs one
+ * scan of a {@code long[]} rather than a per-frame test of every city.</p>
  *
  * <h2>Picking</h2>
- * <p>{@link #pickCity(Point, IContainer)} performs a brute-force linear scan
- * over all visible cities to find the nearest one within a small pick radius.
- * This is called on every mouse-move event via the feedback mechanism, so the
+ * <p>{@link #pickCity(Point, IContainer)} performs a linear scan over the
+ * cities that pass the point filter to find the nearest one within a small
+ * pick radius. This is called on every mouse-move event via the feedback mechanism, so the
  * city list should remain small (the default population filter achieves this
  * in practice). Unlike {@link CountryRenderer}, city picking does not depend
  * on a previous render call — it reprojects cities on demand.</p>
  *
  * <h2>Thread safety</h2>
- * <p>This class is not thread-safe. All method calls must be made on the
- * Event Dispatch Thread.</p>
+ * <p>Configuration must happen on the Event Dispatch Thread. {@link #render}
+ * may also be called from background tile renderers. The columns and the
+ * filter index are immutable snapshots published through volatile fields,
+ * so a render sees either the cities before an append or after it, never a
+ * partial batch.</p>
  *
  * <h2>City list ownership</h2>
- * <p>The city list passed to the constructor is stored by reference without
- * defensive copying. Callers must ensure that the list is effectively
- * immutable after construction (or is not modified while rendering is in
- * progress). The list returned by {@link GeoJsonCityLoader} is already
- * unmodifiable, so in normal usage this is safe.</p>
+ * <p>The constructor copies the contents of the city list it is given;
+ * later changes to that list are not seen. Cities that arrive after
+ * construction, for example while a large file is streamed in, are added
+ * with {@link #appendCities(List)}.</p>
  */
 public class CityPointRenderer {
 
@@ -67,14 +75,46 @@ public class CityPointRenderer {
     // -------------------------------------------------------------------------
 
     /**
-     * Unmodifiable list of city features to render, stored by reference.
-     * See the class-level note on list ownership.
+     * The cities and their primitive columns, used by the point filter and
+     * the render and pick loops. Only the first {@code count} entries of the
+     * arrays belong to the snapshot; an append may write beyond them in
+     * place before publishing a new snapshot with a larger count.
      */
-    private final List<GeoJsonCityLoader.CityFeature> cities;
+    private static final class Columns {
+        final GeoJsonCityLoader.CityFeature[] cities;
+        final double[] longitudes;
+        final double[] latitudes;
+        final long[]   populations;
+        final int[]    scaleranks;
+        final int      count;
+
+        Columns(GeoJsonCityLoader.CityFeature[] cities, double[] longitudes,
+                double[] latitudes, long[] populations, int[] scaleranks, int count) {
+            this.cities      = cities;
+            this.longitudes  = longitudes;
+            this.latitudes   = latitudes;
+            this.populations = populations;
+            this.scaleranks  = scaleranks;
+            this.count       = count;
+        }
+    }
+
+    /** Indices of the cities of a column snapshot that pass the point filter. */
+    private record Filtered(Columns columns, int[] indices) {}
 
     /** Projection used for coordinate transforms and visibility tests. */
     private final IMapProjection projection;
 
+    /** The current column snapshot. */
+    private volatile Columns columns;
+
+    /**
+     * The point filter index, or {@code null} when a filter setting has
+     * changed since it was last computed. It is also stale when it was
+     * computed for an older column snapshot.
+     */
+    private volatile Filtered filtered;
+
     // Rendering options
     private boolean drawLabels   = true;
     private boolean useAntialias = true;
@@ -121,17 +161,70 @@ public class CityPointRenderer {
     /**
      * Creates a renderer for the given cities and projection.
      *
-     * <p>The city list is stored by reference; see the class-level note on
-     * list ownership for thread-safety considerations.</p>
+     * <p>The contents of the list are copied; see the class-level note on
+     * list ownership.</p>
      *
-     * @param cities     the city features to render; must not be {@code null};
-     *                   should be effectively immutable after this call
+     * @param cities     the city features to render; must not be {@code null}
+     *                   and may be empty
      * @param projection the map projection; must not be {@code null}
      */
     public CityPointRenderer(List<GeoJsonCityLoader.CityFeature> cities,
                              IMapProjection projection) {
-        this.cities     = Objects.requireNonNull(cities,     "cities");
+        Objects.requireNonNull(cities, "cities");
         this.projection = Objects.requireNonNull(projection, "projection");
+
+        int n = cities.size();
+        columns = new Columns(new GeoJsonCityLoader.CityFeature[n], new double[n],
+                new double[n], new long[n], new int[n], 0);
+        appendCities(cities);
+    }
+
+    /**
+     * Adds cities after construction, e.g. a batch published by a streaming
+     * loader. Must be called on the Event Dispatch Thread (or, during
+     * construction, the constructing thread); renders already in progress
+     * keep drawing the previous snapshot.
+     *
+     * @param more the cities to add; must not be {@code null}
+     */
+    public void appendCities(List<GeoJsonCityLoader.CityFeature> more) {
+        Objects.requireNonNull(more, "more");
+        if (more.isEmpty()) return;
+
+        Columns c = columns;
+        int n = c.count + more.size();
+        GeoJsonCityLoader.CityFeature[] cityArray = c.cities;
+        double[] longitudes  = c.longitudes;
+        double[] latitudes   = c.latitudes;
+        long[]   populations = c.populations;
+        int[]    scaleranks  = c.scaleranks;
+        if (n > cityArray.length) {
+            int capacity = Math.max(n, 2 * cityArray.length);
+            cityArray   = Arrays.copyOf(cityArray,   capacity);
+            longitudes  = Arrays.copyOf(longitudes,  capacity);
+            latitudes   = Arrays.copyOf(latitudes,   capacity);
+            populations = Arrays.copyOf(populations, capacity);
+            scaleranks  = Arrays.copyOf(scaleranks,  capacity);
+        }
+        for (int i = c.count; i < n; i++) {
+            GeoJsonCityLoader.CityFeature city = more.get(i - c.count);
+            cityArray[i]   = city;
+            longitudes[i]  = city.getLongitude();
+            latitudes[i]   = city.getLatitude();
+            populations[i] = city.getPopulation();
+            scaleranks[i]  = city.getScalerank();
+        }
+        columns = new Columns(cityArray, longitudes, latitudes, populations, scaleranks, n);
+    }
+
+    /**
+     * Returns the number of cities held by this renderer, whether or not
+     * they pass the filters.
+     *
+     * @return the city count
+     */
+    public int getCityCount() {
+        return columns.count;
     }
 
     // -------------------------------------------------------------------------
@@ -163,7 +256,10 @@ public class CityPointRenderer {
      *
      * @param minPopulation minimum population (inclusive), or &le; 0 to disable
      */
-    public void setMinPopulation(long minPopulation) { this.minPopulation = minPopulation; }
+    public void setMinPopulation(long minPopulation) {
+        this.minPopulation = minPopulation;
+        filtered = null;
+    }
 
     /**
      * Sets the maximum scalerank for a city to be drawn.
@@ -175,7 +271,10 @@ public class CityPointRenderer {
      *
      * @param maxScalerank maximum scalerank (inclusive), or negative to disable
      */
-    public void setMaxScalerank(int maxScalerank) { this.maxScalerank = maxScalerank; }
+    public void setMaxScalerank(int maxScalerank) {
+        this.maxScalerank = maxScalerank;
+        filtered = null;
+    }
 
     /**
      * Sets the maximum scalerank for which a label is drawn, <em>in addition
@@ -240,8 +339,7 @@ public class CityPointRenderer {
         Objects.requireNonNull(g2,        "g2");
         Objects.requireNonNull(container, "container");
 
-        Component comp = container.getComponent();
-        if (comp.getWidth() <= 0 || comp.getHeight() <= 0) return;
+        if (container.getWidth() <= 0 || container.getHeight() <= 0) return;
 
         Object oldAA = g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
         if (useAntialias) {
@@ -272,16 +370,16 @@ public class CityPointRenderer {
         Point2D.Double latLon = new Point2D.Double();
         Point2D.Double xy     = new Point2D.Double();
 
-        for (GeoJsonCityLoader.CityFeature city : cities) {
-            if (!passesFilters(city)) continue;
-
-            latLon.setLocation(city.getLongitude(), city.getLatitude());
+        Columns c = columns;
+        for (int i : filteredIndices(c)) {
+            latLon.setLocation(c.longitudes[i], c.latitudes[i]);
             if (!projection.isPointVisible(latLon)) continue;
 
             projection.latLonToXY(latLon, xy);
             if (!projection.isPointOnMap(xy)) continue;
 
             container.worldToLocal(screen, xy);
+            GeoJsonCityLoader.CityFeature city = c.cities[i];
             double cx = screen.x;
             double cy = screen.y;
 
@@ -343,10 +441,9 @@ public class CityPointRenderer {
         GeoJsonCityLoader.CityFeature best      = null;
         double                        bestDistSq = Double.MAX_VALUE;
 
-        for (GeoJsonCityLoader.CityFeature city : cities) {
-            if (!passesFilters(city)) continue;
-
-            latLon.setLocation(city.getLongitude(), city.getLatitude());
+        Columns c = columns;
+        for (int i : filteredIndices(c)) {
+            latLon.setLocation(c.longitudes[i], c.latitudes[i]);
             if (!projection.isPointVisible(latLon)) continue;
 
             projection.latLonToXY(latLon, xy);
@@ -359,7 +456,7 @@ public class CityPointRenderer {
 
             if (distSq <= pickRadiusSq && distSq < bestDistSq) {
                 bestDistSq = distSq;
-                best       = city;
+                best       = c.cities[i];
             }
         }
         return best;
@@ -370,7 +467,28 @@ public class CityPointRenderer {
     // -------------------------------------------------------------------------
 
     /**
-     * Returns {@code true} if the city satisfies the population and scalerank
+     * Returns the indices of the cities that pass the point filter, computing
+     * and caching them if a filter setting or the cities have changed.
+     *
+     * @param c the column snapshot being drawn or picked
+     * @return ascending city indices below {@code c.count}; must not be modified
+     */
+    private int[] filteredIndices(Columns c) {
+        Filtered result = filtered;
+        if (result == null || result.columns() != c) {
+            int[] out = new int[c.count];
+            int count = 0;
+            for (int i = 0; i < c.count; i++) {
+                if (passesFilters(c, i)) out[count++] = i;
+            }
+            result = new Filtered(c, Arrays.copyOf(out, count));
+            filtered = result;
+        }
+        return result.indices();
+    }
+
+    /**
+     * Returns {@code true} if a city satisfies the population and scalerank
      * thresholds that control whether a dot is drawn.
      *
      * <p>Population filtering: skips the city only when a positive
@@ -383,18 +501,17 @@ public class CityPointRenderer {
      * (non-negative) scalerank that exceeds the threshold. Cities with an
      * unknown scalerank ({@code -1}) always pass.</p>
      *
-     * @param city city to test; must not be {@code null}
+     * @param c the column snapshot
+     * @param i index of the city in the column arrays
      * @return {@code true} if the city should be rendered
      */
-    private boolean passesFilters(GeoJsonCityLoader.CityFeature city) {
-        if (minPopulation > 0
-                && city.getPopulation() >= 0
-                && city.getPopulation() < minPopulation) {
+    private boolean passesFilters(Columns c, int i) {
+        long population = c.populations[i];
+        if (minPopulation > 0 && population >= 0 && population < minPopulation) {
             return false;
         }
-        if (maxScalerank >= 0
-                && city.getScalerank() >= 0
-                && city.getScalerank() > maxScalerank) {
+        int scalerank = c.scaleranks[i];
+        if (maxScalerank >= 0 && scalerank >= 0 && scalerank > maxScalerank) {
             return false;
         }
         return true;
@@ -2,7 +2,6 @@ package edu.cnu.mdi.mapping.render;
 
 import java.awt.BasicStroke;
 import java.awt.Color;
-import java.awt.Component;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.RenderingHints;
@@ -10,6 +9,7 @@ import java.awt.Stroke;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -20,6 +20,7 @@ import edu.cnu.mdi.mapping.loader.GeoJsonCountryLoader;
 import edu.cnu.mdi.mapping.projection.EProjection;
 import edu.cnu.mdi.mapping.projection.IMapProjection;
 import edu.cnu.mdi.mapping.theme.MapTheme;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
 
 /**
  * Renders a collection of {@link GeoJsonCountryLoader.CountryFeature} instances
@@ -56,7 +57,9 @@ import edu.cnu.mdi.mapping.theme.MapTheme;
  * called before any render. In practice this is safe because a mouse-over
  * event cannot occur before the first paint, but callers should be aware of
  * the dependency. The cache is fully rebuilt on every {@code render} call so
- * it always reflects the most recent projection state.</p>
+ * it always reflects the most recent projection state. When the map is drawn
+ * from offscreen tiles instead, {@link #updatePickCache(IContainer)} rebuilds
+ * the cache without drawing.</p>
  *
  * <h2>Border stroke</h2>
  * <p>The border color and stroke are taken from the theme via
@@ -71,8 +74,12 @@ public class CountryRenderer {
     // State
     // -------------------------------------------------------------------------
 
-    /** Country features to render, as loaded from GeoJSON. */
-    private final List<GeoJsonCountryLoader.CountryFeature> countryFeatures;
+    /**
+     * Immutable snapshot of the country features to render, replaced as a
+     * whole by {@link #appendCountries(List)} so that background tile
+     * renderers never see it change mid-iteration.
+     */
+    private volatile List<GeoJsonCountryLoader.CountryFeature> countryFeatures;
 
     /** Projection used to convert lon/lat to world XY coordinates. */
     private final IMapProjection projection;
@@ -103,16 +110,30 @@ public class CountryRenderer {
      * time, so theme changes applied to the projection are reflected
      * automatically without reconstructing the renderer.</p>
      *
-     * @param countryFeatures list of country features to render;
-     *                        must not be {@code null}
+     * @param countryFeatures list of country features to render; its
+     *                        contents are copied; must not be {@code null}
      * @param projection      the map projection; must not be {@code null}
      */
     public CountryRenderer(List<GeoJsonCountryLoader.CountryFeature> countryFeatures,
                            IMapProjection projection) {
-        this.countryFeatures = Objects.requireNonNull(countryFeatures, "countryFeatures");
+        this.countryFeatures = List.copyOf(Objects.requireNonNull(countryFeatures, "countryFeatures"));
         this.projection      = Objects.requireNonNull(projection, "projection");
     }
 
+    /**
+     * Adds country features after construction, e.g. a batch published by a
+     * streaming loader. Must be called on the Event Dispatch Thread; renders
+     * already in progress keep drawing the previous snapshot.
+     *
+     * @param more the features to add; must not be {@code null}
+     */
+    public void appendCountries(List<GeoJsonCountryLoader.CountryFeature> more) {
+        List<GeoJsonCountryLoader.CountryFeature> all = new ArrayList<>(countryFeatures.size() + more.size());
+        all.addAll(countryFeatures);
+        all.addAll(more);
+        countryFeatures = Collections.unmodifiableList(all);
+    }
+
     // -------------------------------------------------------------------------
     // Configuration
     // -------------------------------------------------------------------------
@@ -158,14 +179,37 @@ public class CountryRenderer {
      *                  must not be {@code null}
      */
     public void render(Graphics2D g2, IContainer container) {
+        render(g2, container, true);
+    }
+
+    /**
+     * Renders all country features, optionally leaving the hit-test cache
+     * untouched.
+     *
+     * <p>Passing {@code updatePickCache = false} makes the call free of side
+     * effects on this renderer, which is what the tiled map renderer needs:
+     * tiles are drawn into offscreen containers, possibly on worker threads,
+     * while picking continues to use the cache built for the on-screen
+     * container (see {@link #updatePickCache(IContainer)}). The country list
+     * and projection must not be modified while such a call is running.</p>
+     *
+     * @param g2              graphics context to draw into; must not be
+     *                        {@code null}
+     * @param container       container providing the world-to-local
+     *                        transform; must not be {@code null}
+     * @param updatePickCache {@code true} to rebuild the hit-test cache as
+     *                        {@link #render(Graphics2D, IContainer)} does
+     */
+    public void render(Graphics2D g2, IContainer container, boolean updatePickCache) {
         Objects.requireNonNull(g2,        "g2");
         Objects.requireNonNull(container, "container");
 
         // Rebuild the hit-test cache for this render pass.
-        countryCache.clear();
+        if (updatePickCache) {
+            countryCache.clear();
+        }
 
-        Component comp = container.getComponent();
-        if (comp.getWidth() <= 0 || comp.getHeight() <= 0) return;
+        if (container.getWidth() <= 0 || container.getHeight() <= 0) return;
 
         Object oldAA = g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
         if (useAntialias) {
@@ -193,8 +237,10 @@ public class CountryRenderer {
             borderStroke = new BasicStroke(0.5f);
         }
 
+        List<CountryCache> cacheOut = updatePickCache ? countryCache : null;
         for (GeoJsonCountryLoader.CountryFeature country : countryFeatures) {
-            drawCountryShape(g2, container, country, landColor, borderColor, borderStroke);
+            drawCountryShape(g2, container, country, landColor, borderColor,
+                             borderStroke, cacheOut);
         }
 
         g2.setStroke(oldStroke);
@@ -202,6 +248,31 @@ public class CountryRenderer {
         resetAntialias(g2, oldAA);
     }
 
+    /**
+     * Rebuilds the hit-test cache by projecting every country without
+     * drawing anything.
+     *
+     * <p>Used when the map is painted from cached tiles, so that no
+     * on-screen {@link #render} call refreshes the cache. Because the cache
+     * is kept in world coordinates it only needs rebuilding after the
+     * projection or the country data changes, not after a pan or zoom.</p>
+     *
+     * @param container container passed through to the projection step;
+     *                  must not be {@code null}
+     */
+    public void updatePickCache(IContainer container) {
+        Objects.requireNonNull(container, "container");
+
+        countryCache.clear();
+
+        Rectangle2D xyBounds = projection.getXYBounds();
+        if (xyBounds == null || xyBounds.isEmpty()) return;
+
+        for (GeoJsonCountryLoader.CountryFeature country : countryFeatures) {
+            drawCountryShape(null, container, country, null, null, null, countryCache);
+        }
+    }
+
     // -------------------------------------------------------------------------
     // Hit-testing
     // -------------------------------------------------------------------------
@@ -247,7 +318,7 @@ public class CountryRenderer {
      * would produce a very large distorted polygon that dominates the map and
      * degrades performance.</p>
      *
-     * @param g2           graphics context
+     * @param g2           graphics context, or {@code null} to project only
      * @param container    container providing world-to-local transform
      * @param country      the country to draw
      * @param landColor    fill color for land polygons, or {@code null} to
@@ -255,21 +326,30 @@ public class CountryRenderer {
      * @param borderColor  stroke color for borders, or {@code null} to skip
      *                     border strokes
      * @param borderStroke stroke used for borders
+     * @param cacheOut     receives the projected polygons for hit-testing,
+     *                     or {@code null} to skip caching
      */
     private void drawCountryShape(Graphics2D g2, IContainer container,
                                   GeoJsonCountryLoader.CountryFeature country,
                                   Color landColor, Color borderColor,
-                                  Stroke borderStroke) {
+                                  Stroke borderStroke,
+                                  List<CountryCache> cacheOut) {
 
         EProjection proj = projection.getProjection();
 
-        for (List<Point2D.Double> ring : country.getPolygons()) {
+        // Skip Antarctica for projections where it distorts badly.
+        if ((proj == EProjection.MERCATOR || proj == EProjection.MOLLWEIDE)
+                && country.getAdminName().toLowerCase().startsWith("antarc")) {
+            return;
+        }
 
-            // Skip Antarctica for projections where it distorts badly.
-            if ((proj == EProjection.MERCATOR || proj == EProjection.MOLLWEIDE)
-                    && country.getAdminName().toLowerCase().startsWith("antarc")) {
-                continue;
-            }
+        // Scratch points reused across every vertex of every ring; the
+        // packed geometry lets us walk coordinates without allocation.
+        PackedGeometry geom   = country.getGeometry();
+        Point2D.Double lonLat = new Point2D.Double();
+        Point2D.Double xy     = new Point2D.Double();
+
+        for (int r = 0; r < geom.ringCount(); r++) {
 
             WorldPolygon oneSide   = new WorldPolygon();
             WorldPolygon otherSide = new WorldPolygon();
@@ -277,10 +357,10 @@ public class CountryRenderer {
             boolean first          = true;
             double  prevLon        = 0.0;
 
-            for (Point2D.Double lonLat : ring) {
+            for (int v = geom.ringStart(r), end = geom.ringEnd(r); v < end; v++) {
+                geom.get(v, lonLat);
                 if (!projection.isPointVisible(lonLat)) continue;
 
-                Point2D.Double xy = new Point2D.Double();
                 projection.latLonToXY(lonLat, xy);
 
                 if (first) {
@@ -299,16 +379,20 @@ public class CountryRenderer {
             float strokeWidth = (borderStroke instanceof BasicStroke bs)
                     ? bs.getLineWidth() : 0.5f;
 
-            if (oneSide.npoints > 2) {
-                WorldGraphicsUtils.drawWorldPolygon(g2, container, oneSide,
-                                                    landColor, borderColor, strokeWidth);
-            }
-            if (otherSide.npoints > 2) {
-                WorldGraphicsUtils.drawWorldPolygon(g2, container, otherSide,
-                                                    landColor, borderColor, strokeWidth);
+            if (g2 != null) {
+                if (oneSide.npoints > 2) {
+                    WorldGraphicsUtils.drawWorldPolygon(g2, container, oneSide,
+                                                        landColor, borderColor, strokeWidth);
+                }
+                if (otherSide.npoints > 2) {
+                    WorldGraphicsUtils.drawWorldPolygon(g2, container, otherSide,
+                                                        landColor, borderColor, strokeWidth);
+                }
             }
 
-            countryCache.add(new CountryCache(country, oneSide, otherSide));
+            if (cacheOut != null) {
+                cacheOut.add(new CountryCache(country, oneSide, otherSide));
+            }
         }
     }
 
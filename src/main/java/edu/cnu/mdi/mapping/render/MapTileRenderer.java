@@ -0,0 +1,340 @@
+package edu.cnu.mdi.mapping.render;
+
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import edu.cnu.mdi.container.IContainer;
+import edu.cnu.mdi.container.TransformContainer;
+import edu.cnu.mdi.graphics.drawable.IDrawable;
+import edu.cnu.mdi.log.Log;
+
+/**
+ * Paints static map content from a cache of fixed-size raster tiles that are
+ * rendered on a background thread pool.
+ *
+ * <p>Redrawing every country polygon, shapefile layer, and city label on each
+ * repaint makes panning and hover feedback stall on large datasets. This
+ * renderer instead rasterizes the content once per tile into an image and
+ * blits the images on the Event Dispatch Thread. Interactive items
+ * ({@code AMapItem}s on the container's layers) are not part of the tiled
+ * content and stay live.</p>
+ *
+ * <h2>Tile grid</h2>
+ * <p>Tiles are {@code tileSize} pixels square and anchored to the world
+ * origin rather than to the viewport: tile {@code (i, j)} covers world x in
+ * {@code [i·T·sx, (i+1)·T·sx]} and world y in {@code [-(j+1)·T·sy, -j·T·sy]},
+ * where {@code sx}, {@code sy} are the current world units per pixel. A pan
+ * leaves the scale unchanged, so every tile still on screen is reused and
+ * only newly exposed tiles are rendered. A zoom or resize changes the scale
+ * and therefore the keys.</p>
+ *
+ * <h2>Invalidation</h2>
+ * <p>Anything that changes the content without changing the scale — a new
+ * projection or projection center, a theme change, new data, a layer toggled
+ * — must call {@link #invalidate()}. This bumps a generation counter that is
+ * part of every key, drops all cached tiles, and causes results of in-flight
+ * jobs from the old generation to be discarded.</p>
+ *
+ * <h2>Threading</h2>
+ * <p>{@link #paint}, {@link #invalidate} and {@link #shutdown} are called on
+ * the EDT. The content {@link IDrawable} is called on worker threads with a
+ * {@link TransformContainer}, which is not a Swing component, so tile jobs
+ * never interact with the EDT. The content must not mutate shared state, and
+ * the data it reads must be immutable snapshots that are only replaced on the
+ * EDT followed by {@code invalidate()}; it must size itself from the
+ * container's {@code getWidth()} and {@code getHeight()}, since
+ * {@code getComponent()} is {@code null}. A job that fails anyway is dropped
+ * and the tile is requested again by a later paint.</p>
+ */
+public class MapTileRenderer {
+
+    /** Default tile edge length in pixels. */
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    /** Default maximum number of cached tiles (about 32 MB at 256 px). */
+    public static final int DEFAULT_MAX_TILES = 128;
+
+    /**
+     * Extra pixels rendered around each tile and then clipped away. Renderers
+     * suppress labels whose baseline is too close to the top of their
+     * container; the gutter keeps that rule from cutting labels at interior
+     * tile edges.
+     */
+    private static final int GUTTER = 16;
+
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    // -------------------------------------------------------------------------
+    // State
+    // -------------------------------------------------------------------------
+
+    private final IDrawable content;
+    private final int       tileSize;
+    private final int       maxTiles;
+
+    private final ExecutorService executor;
+
+    /** Guards {@link #cache}, {@link #pending}, and {@link #generation}. */
+    private final Object lock = new Object();
+
+    /** Access-ordered LRU of rendered tiles. */
+    private final LinkedHashMap<TileKey, BufferedImage> cache;
+
+    /** Keys submitted to the pool and not yet finished. */
+    private final Set<TileKey> pending = new HashSet<>();
+
+    private long generation;
+
+    /** Tiles needed by the most recent paint; other queued jobs are skipped. */
+    private volatile Set<TileKey> wanted = Set.of();
+
+    /** Collapses completions into a single repaint request. */
+    private final AtomicBoolean repaintQueued = new AtomicBoolean();
+
+    // -------------------------------------------------------------------------
+    // Construction
+    // -------------------------------------------------------------------------
+
+    /**
+     * Creates a renderer with the default tile size and cache bound.
+     *
+     * @param content draws the static map content; must not be {@code null}
+     */
+    public MapTileRenderer(IDrawable content) {
+        this(content, DEFAULT_TILE_SIZE, DEFAULT_MAX_TILES);
+    }
+
+    /**
+     * Creates a renderer.
+     *
+     * @param content  draws the static map content into the supplied
+     *                 container; called on worker threads; must not be
+     *                 {@code null}
+     * @param tileSize tile edge length in pixels, at least 32
+     * @param maxTiles maximum number of tiles kept in the cache, at least 1
+     */
+    public MapTileRenderer(IDrawable content, int tileSize, int maxTiles) {
+        this.content  = Objects.requireNonNull(content, "content");
+        this.tileSize = Math.max(32, tileSize);
+        this.maxTiles = Math.max(1, maxTiles);
+
+        this.cache = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TileKey, BufferedImage> eldest) {
+                return size() > MapTileRenderer.this.maxTiles;
+            }
+        };
+
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        String prefix = "MapTile-" + POOL_COUNT.incrementAndGet() + "-";
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, prefix + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Public API
+    // -------------------------------------------------------------------------
+
+    /**
+     * Draws every cached tile that intersects the container and requests the
+     * missing ones. Missing tiles are left unpainted, so callers should fill
+     * the background first. When requested tiles arrive the container is
+     * refreshed.
+     *
+     * @param g         graphics context of the on-screen container
+     * @param container the on-screen container
+     */
+    public void paint(Graphics2D g, IContainer container) {
+        int w = container.getWidth();
+        int h = container.getHeight();
+        Rectangle2D.Double ws = container.getWorldSystem();
+        if (w < 1 || h < 1 || ws == null || ws.width <= 0 || ws.height <= 0) {
+            return;
+        }
+
+        double sx = ws.width / w;
+        double sy = ws.height / h;
+
+        // Pixel position of the world origin; tile (i, j) is drawn at
+        // (i·T + fx, j·T + fy).
+        long fx = (long) Math.floor(-ws.getMinX() / sx);
+        long fy = (long) Math.floor(ws.getMaxY() / sy);
+
+        long i0 = Math.floorDiv(-fx, tileSize);
+        long i1 = Math.floorDiv(w - 1 - fx, tileSize);
+        long j0 = Math.floorDiv(-fy, tileSize);
+        long j1 = Math.floorDiv(h - 1 - fy, tileSize);
+
+        Set<TileKey> needed = new HashSet<>();
+        List<TileKey> missing = new ArrayList<>();
+
+        synchronized (lock) {
+            for (long j = j0; j <= j1; j++) {
+                for (long i = i0; i <= i1; i++) {
+                    TileKey key = new TileKey(generation, sx, sy, i, j);
+                    needed.add(key);
+                    BufferedImage img = cache.get(key);
+                    if (img != null) {
+                        g.drawImage(img, (int) (i * tileSize + fx), (int) (j * tileSize + fy), null);
+                    } else if (pending.add(key)) {
+                        missing.add(key);
+                    }
+                }
+            }
+
+            // Publish before submitting, or a job could start, see the
+            // previous paint's set, and drop its tile with no repaint.
+            wanted = needed;
+            for (TileKey key : missing) {
+                submit(key, container);
+            }
+        }
+    }
+
+    /**
+     * Discards all cached tiles and marks in-flight jobs as stale. Call after
+     * any change to the content that a pan or zoom would not reveal.
+     */
+    public void invalidate() {
+        synchronized (lock) {
+            generation++;
+            cache.clear();
+            pending.clear();
+        }
+    }
+
+    /**
+     * Returns the current invalidation generation. Callers can compare it
+     * with a previously seen value to detect a content change.
+     *
+     * @return the generation counter
+     */
+    public long getGeneration() {
+        synchronized (lock) {
+            return generation;
+        }
+    }
+
+    /**
+     * Returns the number of tiles currently cached.
+     *
+     * @return cached tile count
+     */
+    public int getCachedTileCount() {
+        synchronized (lock) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Stops the worker pool and drops the cache. The renderer must not be
+     * used afterwards.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        synchronized (lock) {
+            cache.clear();
+            pending.clear();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Tile jobs
+    // -------------------------------------------------------------------------
+
+    /** Called with {@link #lock} held. */
+    private void submit(TileKey key, IContainer target) {
+        try {
+            executor.execute(() -> renderTile(key, target));
+        } catch (RejectedExecutionException e) {
+            pending.remove(key); // shut down
+        }
+    }
+
+    private void renderTile(TileKey key, IContainer target) {
+        BufferedImage img = null;
+        try {
+            if (isCurrent(key) && wanted.contains(key)) {
+                img = rasterize(key);
+            }
+        } catch (RuntimeException e) {
+            // Most likely the data changed mid-render; invalidate() has been
+            // or will be called, and a later paint will request the tile.
+            Log.getInstance().warning("Map tile render failed: " + e);
+        }
+
+        boolean stored = false;
+        synchronized (lock) {
+            pending.remove(key);
+            if (img != null && key.generation == generation) {
+                cache.put(key, img);
+                stored = true;
+            }
+        }
+
+        if (stored && repaintQueued.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                repaintQueued.set(false);
+                target.refresh();
+            });
+        }
+    }
+
+    private boolean isCurrent(TileKey key) {
+        synchronized (lock) {
+            return key.generation == generation;
+        }
+    }
+
+    /** Renders one tile, plus its gutter, through a transform-only container. */
+    private BufferedImage rasterize(TileKey key) {
+        int size = tileSize + 2 * GUTTER;
+        double left   = (key.i * tileSize - GUTTER) * key.sx;
+        double bottom = -((key.j + 1) * tileSize + GUTTER) * key.sy;
+        Rectangle2D.Double world = new Rectangle2D.Double(left, bottom, size * key.sx, size * key.sy);
+
+        TransformContainer tc = new TransformContainer(world, size, size);
+
+        BufferedImage img = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        try {
+            g.translate(-GUTTER, -GUTTER);
+            content.draw(g, tc);
+        } finally {
+            g.dispose();
+        }
+        return img;
+    }
+
+    // -------------------------------------------------------------------------
+    // Key
+    // -------------------------------------------------------------------------
+
+    /**
+     * Identifies one tile: content generation, scale, and grid position.
+     * The projection and theme are covered by the generation because every
+     * change to them is followed by {@link #invalidate()}.
+     */
+    private record TileKey(long generation, double sx, double sy, long i, long j) {
+    }
+}
@@ -0,0 +1,562 @@
+package edu.cnu.mdi.mapping.shapefile;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import edu.cnu.mdi.mapping.shapefile.ShapefileDbfReader.FieldDescriptor;
+
+/**
+ * Columnar, lazily decoded view of a {@code .dbf} attribute table.
+ *
+ * <p>{@link ShapefileDbfReader#readAllRecords()} materializes every cell as a
+ * {@code String} inside a per-row map, and numeric accessors then re-parse
+ * those strings on every call. This table instead keeps the raw record bytes
+ * (memory-mapped by {@link ShapefileDbfReader#readTable()}) and decodes one
+ * whole column the first time it is asked for:</p>
+ * <ul>
+ *   <li>a <b>double column</b> ({@code double[]}, {@code NaN} = missing) for
+ *       {@link #getDouble} and {@link #selectRows};</li>
+ *   <li>a <b>long column</b> ({@code long[]}, {@link #MISSING_LONG} =
+ *       missing) for {@link #getLong};</li>
+ *   <li>a <b>string dictionary column</b> ({@code int[]} codes into a table
+ *       of distinct values) for {@link #getString}. Attribute columns such as
+ *       country names or feature classes repeat heavily, so each distinct
+ *       value is stored once.</li>
+ * </ul>
+ * <p>Columns that are never read are never decoded. Any column may be read
+ * through any accessor; a character column holding numbers decodes into a
+ * numeric column just like an {@code N} or {@code F} column does.</p>
+ *
+ * <h2>Rows</h2>
+ * <p>Row indices are dense and skip records marked deleted, so row {@code r}
+ * corresponds to the {@code r}-th element of {@code readAllRecords()}.
+ * {@link #row(int)} returns a {@code Map<String, String>} view of one row
+ * that decodes values on access and is accepted anywhere a property map is
+ * expected (for example by {@link ShapeFeature}).</p>
+ *
+ * <h2>Thread safety</h2>
+ * <p>Instances are immutable apart from the column caches, which are
+ * published through an {@link AtomicReferenceArray}. Two threads that decode
+ * the same column concurrently produce equal results and one of them wins.
+ * All reads of the raw buffer use absolute indexing. The table may therefore
+ * be shared with background renderers.</p>
+ */
+public final class DbfTable {
+
+    /** Value stored in a long column for an empty or non-numeric cell. */
+    public static final long MISSING_LONG = Long.MIN_VALUE;
+
+    // -------------------------------------------------------------------------
+    // State
+    // -------------------------------------------------------------------------
+
+    /** Raw record bytes starting at the first record's deletion flag. */
+    private final ByteBuffer data;
+
+    private final Charset charset;
+    private final int     recordSize;
+
+    private final List<FieldDescriptor> fields;
+
+    /** Byte offset of each field within a record (after the deletion flag). */
+    private final int[] fieldOffsets;
+
+    /**
+     * Column of each field name. When a header repeats a name the last field
+     * wins, as in {@link ShapefileDbfReader#readAllRecords()}.
+     */
+    private final Map<String, Integer> fieldIndex;
+
+    /**
+     * The column behind each distinct field name, in order of the name's first
+     * appearance; these are the entries of a {@link Row}.
+     */
+    private final int[] keyFields;
+
+    /** Record number of each live (non-deleted) row. */
+    private final int[] records;
+
+    /** One cache slot per field and column kind. */
+    private final AtomicReferenceArray<double[]>     doubleColumns;
+    private final AtomicReferenceArray<long[]>       longColumns;
+    private final AtomicReferenceArray<StringColumn> stringColumns;
+
+    // -------------------------------------------------------------------------
+    // Construction
+    // -------------------------------------------------------------------------
+
+    /**
+     * Creates a table over raw record bytes. Called by
+     * {@link ShapefileDbfReader#readTable()}.
+     *
+     * @param data        record bytes; position 0 is the deletion flag of the
+     *                    first record; may be shorter than
+     *                    {@code recordCount * recordSize} for a truncated file
+     * @param charset     character encoding of text fields
+     * @param recordCount record count declared in the header
+     * @param recordSize  size of one record including the deletion flag
+     * @param fields      field descriptors in column order
+     */
+    DbfTable(ByteBuffer data, Charset charset, int recordCount, int recordSize,
+             List<FieldDescriptor> fields) {
+        this.data       = data;
+        this.charset    = charset;
+        this.recordSize = recordSize;
+        this.fields     = Collections.unmodifiableList(fields);
+
+        int n = fields.size();
+        this.fieldOffsets = new int[n];
+        Map<String, Integer> index = new LinkedHashMap<>(n * 2);
+        int offset = 1; // deletion flag
+        for (int f = 0; f < n; f++) {
+            fieldOffsets[f] = offset;
+            offset += fields.get(f).length();
+            index.put(fields.get(f).name(), f);
+        }
+        this.fieldIndex = index;
+        this.keyFields  = index.values().stream().mapToInt(Integer::intValue).toArray();
+
+        int available = Math.min(recordCount, data.capacity() / recordSize);
+        int[] live = new int[available];
+        int count = 0;
+        for (int i = 0; i < available; i++) {
+            if (data.get(i * recordSize) != ShapefileDbfReader.FLAG_DELETED) {
+                live[count++] = i;
+            }
+        }
+        this.records = (count == available) ? live : Arrays.copyOf(live, count);
+
+        this.doubleColumns = new AtomicReferenceArray<>(n);
+        this.longColumns   = new AtomicReferenceArray<>(n);
+        this.stringColumns = new AtomicReferenceArray<>(n);
+    }
+
+    // -------------------------------------------------------------------------
+    // Schema
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the number of live (non-deleted) rows.
+     *
+     * @return row count (&ge; 0)
+     */
+    public int getRowCount() { return records.length; }
+
+    /**
+     * Returns the field descriptors in column order.
+     *
+     * @return unmodifiable list of fields
+     */
+    public List<FieldDescriptor> getFields() { return fields; }
+
+    /**
+     * Returns the column index of the named field, or {@code -1} if the table
+     * has no such field. If the header repeats the name, the last such field
+     * is returned.
+     *
+     * @param fieldName field name as stored in the header (case-sensitive)
+     * @return column index, or {@code -1}
+     */
+    public int getFieldIndex(String fieldName) {
+        Integer f = fieldIndex.get(fieldName);
+        return (f != null) ? f : -1;
+    }
+
+    // -------------------------------------------------------------------------
+    // Cell access
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the trimmed text of a cell, decoded through the column's string
+     * dictionary.
+     *
+     * @param row   row index in {@code [0, getRowCount())}
+     * @param field column index
+     * @return trimmed value; empty if the cell is blank
+     */
+    public String getString(int row, int field) {
+        StringColumn col = stringColumn(field);
+        return col.dictionary[col.codes[row]];
+    }
+
+    /**
+     * Returns a cell as a {@code double}, or {@code NaN} if the cell is blank
+     * or not numeric.
+     *
+     * @param row   row index in {@code [0, getRowCount())}
+     * @param field column index
+     * @return numeric value or {@code NaN}
+     */
+    public double getDouble(int row, int field) {
+        return doubleColumn(field)[row];
+    }
+
+    /**
+     * Returns the integer part of a cell as a {@code long}, or
+     * {@link #MISSING_LONG} if the cell is blank or not numeric.
+     *
+     * @param row   row index in {@code [0, getRowCount())}
+     * @param field column index
+     * @return integer value or {@link #MISSING_LONG}
+     */
+    public long getLong(int row, int field) {
+        return longColumn(field)[row];
+    }
+
+    /**
+     * Returns the rows whose numeric value in the given field lies in
+     * {@code [min, max]}, in ascending row order. Blank and non-numeric cells
+     * never match. This scans a primitive column and allocates only the
+     * result, so thresholds such as a minimum population can be re-applied
+     * cheaply whenever they change.
+     *
+     * @param fieldName field name (case-sensitive)
+     * @param min       inclusive lower bound
+     * @param max       inclusive upper bound
+     * @return matching row indices; empty if the field does not exist
+     */
+    public int[] selectRows(String fieldName, double min, double max) {
+        int f = getFieldIndex(fieldName);
+        if (f < 0) return new int[0];
+
+        double[] col = doubleColumn(f);
+        int[] out = new int[col.length];
+        int count = 0;
+        for (int r = 0; r < col.length; r++) {
+            double v = col[r];
+            if (v >= min && v <= max) out[count++] = r; // false for NaN
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    /**
+     * Returns a read-only {@code Map} view of one row, keyed by field name in
+     * column order. Values are decoded on access.
+     *
+     * @param row row index in {@code [0, getRowCount())}
+     * @return the row view
+     * @throws IndexOutOfBoundsException if {@code row} is out of range
+     */
+    public Row row(int row) {
+        if (row < 0 || row >= records.length) {
+            throw new IndexOutOfBoundsException(
+                    "Row " + row + " out of range [0, " + records.length + ")");
+        }
+        return new Row(row);
+    }
+
+    // -------------------------------------------------------------------------
+    // Serialization
+    // -------------------------------------------------------------------------
+
+    /**
+     * Writes the table in a compact binary form that {@link #read(ByteBuffer)}
+     * turns back into an equivalent table: the charset, the field
+     * descriptors, and the raw bytes of the live records. Deleted records are
+     * left out, so row indices are preserved. Used by the map data cache.
+     *
+     * @param out destination
+     * @throws IOException if writing fails
+     */
+    public void write(DataOutput out) throws IOException {
+        writeText(out, charset.name());
+        out.writeInt(recordSize);
+        out.writeInt(fields.size());
+        for (FieldDescriptor f : fields) {
+            writeText(out, f.name());
+            out.writeChar(f.type());
+            out.writeInt(f.length());
+            out.writeInt(f.decimals());
+        }
+        out.writeInt(records.length);
+        byte[] record = new byte[recordSize];
+        for (int rec : records) {
+            data.get(rec * recordSize, record);
+            out.write(record);
+        }
+    }
+
+    /**
+     * Reads a table written by {@link #write(DataOutput)}, starting at the
+     * buffer's position and advancing it past the table. The record bytes
+     * are copied, so the buffer may be released afterwards.
+     *
+     * @param in source, with big-endian byte order
+     * @return the table
+     * @throws java.nio.BufferUnderflowException if the data is truncated
+     * @throws IllegalArgumentException          if the data is malformed
+     */
+    public static DbfTable read(ByteBuffer in) {
+        Charset charset = Charset.forName(readText(in));
+        int recordSize = in.getInt();
+        int fieldCount = in.getInt();
+        if (recordSize < 1 || fieldCount < 0) {
+            throw new IllegalArgumentException("Malformed table: record size " + recordSize
+                    + ", " + fieldCount + " fields");
+        }
+        List<FieldDescriptor> fields = new ArrayList<>(fieldCount);
+        for (int f = 0; f < fieldCount; f++) {
+            String name = readText(in);
+            fields.add(new FieldDescriptor(name, in.getChar(), in.getInt(), in.getInt()));
+        }
+        int rows = in.getInt();
+        byte[] bytes = new byte[Math.multiplyExact(rows, recordSize)];
+        in.get(bytes);
+        return new DbfTable(ByteBuffer.wrap(bytes), charset, rows, recordSize, fields);
+    }
+
+    private static void writeText(DataOutput out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // -------------------------------------------------------------------------
+    // Column decoding
+    // -------------------------------------------------------------------------
+
+    private double[] doubleColumn(int field) {
+        double[] col = doubleColumns.get(field);
+        if (col == null) {
+            col = new double[records.length];
+            byte[] buf = new byte[fields.get(field).length()];
+            for (int r = 0; r < col.length; r++) {
+                col[r] = parseDouble(buf, rawCell(r, field, buf));
+            }
+            doubleColumns.compareAndSet(field, null, col);
+        }
+        return col;
+    }
+
+    private long[] longColumn(int field) {
+        long[] col = longColumns.get(field);
+        if (col == null) {
+            col = new long[records.length];
+            byte[] buf = new byte[fields.get(field).length()];
+            for (int r = 0; r < col.length; r++) {
+                col[r] = parseLong(buf, rawCell(r, field, buf));
+            }
+            longColumns.compareAndSet(field, null, col);
+        }
+        return col;
+    }
+
+    private StringColumn stringColumn(int field) {
+        StringColumn col = stringColumns.get(field);
+        if (col == null) {
+            int[] codes = new int[records.length];
+            Map<String, Integer> lookup = new HashMap<>();
+            byte[] buf = new byte[fields.get(field).length()];
+            for (int r = 0; r < codes.length; r++) {
+                int len = rawCell(r, field, buf);
+                String s = new String(buf, 0, len, charset).trim();
+                Integer code = lookup.putIfAbsent(s, lookup.size());
+                codes[r] = (code != null) ? code : lookup.size() - 1;
+            }
+            String[] dictionary = new String[lookup.size()];
+            for (Map.Entry<String, Integer> e : lookup.entrySet()) {
+                dictionary[e.getValue()] = e.getKey();
+            }
+            col = new StringColumn(codes, dictionary);
+            stringColumns.compareAndSet(field, null, col);
+        }
+        return col;
+    }
+
+    /**
+     * Copies one raw cell into {@code buf} with trailing spaces and NULs
+     * removed.
+     *
+     * @return number of significant bytes in {@code buf}
+     */
+    private int rawCell(int row, int field, byte[] buf) {
+        data.get(records[row] * recordSize + fieldOffsets[field], buf);
+        int len = buf.length;
+        while (len > 0 && (buf[len - 1] == ' ' || buf[len - 1] == 0)) len--;
+        return len;
+    }
+
+    /** Parses an ASCII number, or returns {@code NaN}. */
+    private static double parseDouble(byte[] buf, int len) {
+        int start = 0;
+        while (start < len && buf[start] == ' ') start++;
+        if (start == len) return Double.NaN;
+        try {
+            return Double.parseDouble(new String(buf, start, len - start, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Parses the integer part of an ASCII number without allocating, or
+     * returns {@link #MISSING_LONG}. Matches the long-standing convention of
+     * truncating at the decimal point ({@code "12.0"} is 12).
+     */
+    private static long parseLong(byte[] buf, int len) {
+        int i = 0;
+        while (i < len && buf[i] == ' ') i++;
+        if (i == len) return MISSING_LONG;
+
+        boolean negative = false;
+        if (buf[i] == '-' || buf[i] == '+') {
+            negative = buf[i] == '-';
+            i++;
+        }
+
+        int digitsStart = i;
+        long value = 0;
+        while (i < len && buf[i] >= '0' && buf[i] <= '9') {
+            if (value > (Long.MAX_VALUE - 9) / 10) return MISSING_LONG; // overflow
+            value = value * 10 + (buf[i] - '0');
+            i++;
+        }
+        if (i == digitsStart) return MISSING_LONG;
+
+        if (i < len) {
+            if (buf[i] != '.') return MISSING_LONG;
+            for (int k = i + 1; k < len; k++) {
+                if (buf[k] < '0' || buf[k] > '9') return MISSING_LONG;
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    // -------------------------------------------------------------------------
+    // Nested types
+    // -------------------------------------------------------------------------
+
+    /** Dictionary-encoded text column. */
+    private record StringColumn(int[] codes, String[] dictionary) {}
+
+    /**
+     * Read-only {@code Map} view of one table row. In addition to the map
+     * interface it offers typed accessors backed by the table's primitive
+     * columns, which {@link ShapeFeature} uses to avoid re-parsing strings.
+     */
+    public final class Row extends AbstractMap<String, String> {
+
+        private final int row;
+
+        private Row(int row) {
+            this.row = row;
+        }
+
+        /**
+         * Returns the table this row belongs to.
+         *
+         * @return the table
+         */
+        public DbfTable getTable() {
+            return DbfTable.this;
+        }
+
+        /**
+         * Returns this row's index in its table.
+         *
+         * @return row index in {@code [0, getTable().getRowCount())}
+         */
+        public int getIndex() {
+            return row;
+        }
+
+        /**
+         * Returns the named field as a {@code double}.
+         *
+         * @param fieldName    field name (case-sensitive)
+         * @param defaultValue value returned for a missing field or a blank
+         *                     or non-numeric cell
+         * @return the value or {@code defaultValue}
+         */
+        public double getDouble(String fieldName, double defaultValue) {
+            int f = getFieldIndex(fieldName);
+            if (f < 0) return defaultValue;
+            double v = DbfTable.this.getDouble(row, f);
+            return Double.isNaN(v) ? defaultValue : v;
+        }
+
+        /**
+         * Returns the integer part of the named field as a {@code long}.
+         *
+         * @param fieldName    field name (case-sensitive)
+         * @param defaultValue value returned for a missing field or a blank
+         *                     or non-numeric cell
+         * @return the value or {@code defaultValue}
+         */
+        public long getLong(String fieldName, long defaultValue) {
+            int f = getFieldIndex(fieldName);
+            if (f < 0) return defaultValue;
+            long v = DbfTable.this.getLong(row, f);
+            return (v == MISSING_LONG) ? defaultValue : v;
+        }
+
+        @Override
+        public String get(Object key) {
+            if (!(key instanceof String name)) return null;
+            int f = getFieldIndex(name);
+            return (f < 0) ? null : getString(row, f);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return (key instanceof String name) && getFieldIndex(name) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return keyFields.length;
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return keyFields.length;
+                }
+
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator() {
+                    return new Iterator<>() {
+                        private int f;
+
+                        @Override
+                        public boolean hasNext() {
+                            return f < keyFields.length;
+                        }
+
+                        @Override
+                        public Map.Entry<String, String> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            int field = keyFields[f++];
+                            return new SimpleImmutableEntry<>(fields.get(field).name(),
+                                                              getString(row, field));
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -9,6 +9,7 @@ import java.util.Objects;
 import edu.cnu.mdi.mapping.loader.GeoJsonCityLoader;
 import edu.cnu.mdi.mapping.loader.GeoJsonCountryLoader;
 import edu.cnu.mdi.mapping.projection.IMapProjection;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
 
 /**
  * Immutable representation of a single feature loaded from an arbitrary ESRI
@@ -34,14 +35,19 @@ import edu.cnu.mdi.mapping.projection.IMapProjection;
  *   <li>{@link #getPoints()} is non-empty for point features
  *       ({@link ShapefileGeometryReader#TYPE_POINT},
  *       {@link ShapefileGeometryReader#TYPE_MULTIPOINT}).</li>
- *   <li>Both lists are unmodifiable.</li>
+ *   <li>Both lists are unmodifiable views over {@link PackedGeometry}
+ *       storage; rendering code should use {@link #getRingGeometry()} and
+ *       {@link #getPointGeometry()} to avoid per-vertex allocation.</li>
  * </ul>
  *
  * <h2>Property access</h2>
  * <p>Field names are stored exactly as they appear in the {@code .dbf} header
  * (typically upper-case for Natural Earth data). Values are trimmed of
  * whitespace. Missing fields return {@code null} from
- * {@link Map#get(Object)}.</p>
+ * {@link Map#get(Object)}. Features built by {@link ShapefileFeatureLoader}
+ * share one columnar {@link DbfTable}: the property map is a row view that
+ * decodes values on access, and the numeric accessors read primitive
+ * columns.</p>
  *
  * <h2>Usage example</h2>
  * <pre>{@code
@@ -66,16 +72,16 @@ public final class ShapeFeature {
     private final int shapeType;
 
     /**
-     * Ring/part coordinate lists for polygon and polyline features.
+     * Packed ring/part coordinates for polygon and polyline features.
      * Empty for point features.
      */
-    private final List<List<Point2D.Double>> rings;
+    private final PackedGeometry rings;
 
     /**
-     * Point coordinate list for point and multi-point features.
-     * Empty for polygon and polyline features.
+     * Packed point coordinates (a single ring) for point and multi-point
+     * features. Empty for polygon and polyline features.
      */
-    private final List<Point2D.Double> points;
+    private final PackedGeometry points;
 
     /**
      * All {@code .dbf} attribute fields as trimmed strings, keyed by field
@@ -88,8 +94,11 @@ public final class ShapeFeature {
     // -------------------------------------------------------------------------
 
     /**
-     * Constructs a new shapefile feature. All list and map parameters are
-     * stored directly (callers should pass unmodifiable views).
+     * Constructs a new shapefile feature from coordinate lists. The lists are
+     * packed immediately and not retained; the property map is stored
+     * directly (callers should pass an unmodifiable view). Every ring is
+     * kept, including empty ones, so {@link #getRings()} has the same ring
+     * indices as {@code rings}.
      *
      * @param shapeType  shape type constant (see {@link ShapefileGeometryReader}
      *                   {@code TYPE_*} constants)
@@ -106,6 +115,28 @@ public final class ShapeFeature {
                         List<List<Point2D.Double>> rings,
                         List<Point2D.Double> points,
                         Map<String, String> properties) {
+        this(shapeType,
+             PackedGeometry.fromRings(Objects.requireNonNull(rings, "rings"), 0),
+             PackedGeometry.fromPoints(Objects.requireNonNull(points, "points")),
+             properties);
+    }
+
+    /**
+     * Constructs a new shapefile feature from packed geometry.
+     *
+     * @param shapeType  shape type constant (see {@link ShapefileGeometryReader}
+     *                   {@code TYPE_*} constants)
+     * @param rings      packed rings/parts; {@link PackedGeometry#EMPTY} for
+     *                   point features
+     * @param points     packed points as a single ring;
+     *                   {@link PackedGeometry#EMPTY} for ring-based features
+     * @param properties attribute map from the {@code .dbf} table;
+     *                   must not be {@code null}
+     */
+    public ShapeFeature(int shapeType,
+                        PackedGeometry rings,
+                        PackedGeometry points,
+                        Map<String, String> properties) {
         this.shapeType  = shapeType;
         this.rings      = Objects.requireNonNull(rings,      "rings");
         this.points     = Objects.requireNonNull(points,     "points");
@@ -162,21 +193,38 @@ public final class ShapeFeature {
      * interior hole). For polyline features each element is one connected
      * sequence of vertices (a "part" or arc). Empty for point features.</p>
      *
-     * <p>All coordinates are in radians with longitude in (-π, π].</p>
+     * <p>All coordinates are in radians with longitude in (-π, π]. Points
+     * are materialized on access.</p>
      *
      * @return unmodifiable list of rings/parts; never {@code null}
      */
-    public List<List<Point2D.Double>> getRings() { return rings; }
+    public List<List<Point2D.Double>> getRings() { return rings.asRingList(); }
+
+    /**
+     * Returns the packed rings or parts for polygon and polyline features.
+     *
+     * @return packed ring geometry; empty for point features
+     */
+    public PackedGeometry getRingGeometry() { return rings; }
 
     /**
      * Returns the unmodifiable list of points for point and multi-point
      * features. Empty for polygon and polyline features.
      *
-     * <p>All coordinates are in radians with longitude in (-π, π].</p>
+     * <p>All coordinates are in radians with longitude in (-π, π]. Points
+     * are materialized on access.</p>
      *
      * @return unmodifiable list of points; never {@code null}
      */
-    public List<Point2D.Double> getPoints() { return points; }
+    public List<Point2D.Double> getPoints() { return points.asPointList(); }
+
+    /**
+     * Returns the packed points for point and multi-point features, stored
+     * as a single ring.
+     *
+     * @return packed point geometry; empty for ring-based features
+     */
+    public PackedGeometry getPointGeometry() { return points; }
 
     // -------------------------------------------------------------------------
     // Property accessors
@@ -222,11 +270,17 @@ public final class ShapeFeature {
      * Returns the value of the named property parsed as a {@code double}, or
      * {@code defaultValue} if the field is absent, empty, or not numeric.
      *
+     * <p>For features loaded from a shapefile the value comes from a decoded
+     * {@link DbfTable} column, so repeated calls do not re-parse text.</p>
+     *
      * @param fieldName    the {@code .dbf} field name (case-sensitive)
      * @param defaultValue value returned on parse failure
      * @return parsed double value, or {@code defaultValue}
      */
     public double getPropertyDouble(String fieldName, double defaultValue) {
+        if (properties instanceof DbfTable.Row row) {
+            return row.getDouble(fieldName, defaultValue);
+        }
         String v = properties.get(fieldName);
         if (v == null || v.isEmpty()) return defaultValue;
         try {
@@ -245,6 +299,10 @@ public final class ShapeFeature {
      * @return parsed int value, or {@code defaultValue}
      */
     public int getPropertyInt(String fieldName, int defaultValue) {
+        if (properties instanceof DbfTable.Row row) {
+            long v = row.getLong(fieldName, Long.MIN_VALUE);
+            return (v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) ? (int) v : defaultValue;
+        }
         String v = properties.get(fieldName);
         if (v == null || v.isEmpty()) return defaultValue;
         try {
@@ -269,8 +327,8 @@ public final class ShapeFeature {
             default                                      -> "Unknown(" + shapeType + ")";
         };
         return "ShapeFeature[type=" + typeName
-                + ", rings=" + rings.size()
-                + ", points=" + points.size()
+                + ", rings=" + rings.ringCount()
+                + ", points=" + points.vertexCount()
                 + ", props=" + properties.size() + ']';
     }
 }
\ No newline at end of file
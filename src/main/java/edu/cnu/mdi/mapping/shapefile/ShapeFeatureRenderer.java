@@ -1,7 +1,6 @@
 package edu.cnu.mdi.mapping.shapefile;
 
 import java.awt.Color;
-import java.awt.Component;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
@@ -13,12 +12,14 @@ import java.awt.geom.GeneralPath;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
 import edu.cnu.mdi.container.IContainer;
 import edu.cnu.mdi.mapping.projection.IMapProjection;
 import edu.cnu.mdi.mapping.render.IPickable;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
 import edu.cnu.mdi.ui.fonts.Fonts;
 
 /**
@@ -79,7 +80,11 @@ import edu.cnu.mdi.ui.fonts.Fonts;
  * and fully restored on return.</p>
  *
  * <h2>Thread safety</h2>
- * <p>Not thread-safe; all calls must be made on the Event Dispatch Thread.</p>
+ * <p>Not thread-safe; all calls must be made on the Event Dispatch Thread.
+ * The one exception is {@link #render(Graphics2D, IContainer, boolean)} with
+ * {@code updatePickCache = false}, which touches no renderer state and may be
+ * called from a worker thread provided the features, style, and projection are
+ * not modified concurrently.</p>
  */
 public class ShapeFeatureRenderer implements IPickable {
 
@@ -226,15 +231,34 @@ public class ShapeFeatureRenderer implements IPickable {
      *                  must not be {@code null}
      */
     public void render(Graphics2D g2, IContainer container) {
+        render(g2, container, true);
+    }
+
+    /**
+     * Renders all features in this layer, optionally leaving the pick cache
+     * untouched. Used by the tiled map renderer, which draws into offscreen
+     * containers whose screen coordinates must not end up in the cache.
+     *
+     * @param g2              graphics context to draw into; must not be
+     *                        {@code null}
+     * @param container       container providing the world-to-local
+     *                        transform; must not be {@code null}
+     * @param updatePickCache {@code true} to rebuild the pick cache as
+     *                        {@link #render(Graphics2D, IContainer)} does
+     */
+    public void render(Graphics2D g2, IContainer container, boolean updatePickCache) {
         Objects.requireNonNull(g2,        "g2");
         Objects.requireNonNull(container, "container");
 
         if (!visible) return; // layer is hidden
 
-        Component comp = container.getComponent();
-        if (comp.getWidth() <= 0 || comp.getHeight() <= 0) return;
+        if (container.getWidth() <= 0 || container.getHeight() <= 0) return;
 
-        pickCache.clear();
+        List<PickCache> cacheOut = null;
+        if (updatePickCache) {
+            pickCache.clear();
+            cacheOut = pickCache;
+        }
 
         Object oldAA     = g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
         Color  oldColor  = g2.getColor();
@@ -249,25 +273,56 @@ public class ShapeFeatureRenderer implements IPickable {
         g2.setFont(labelFont);
         FontMetrics fm = g2.getFontMetrics();
 
+        renderFeatures(g2, container, fm, cacheOut);
+
+        g2.setFont(oldFont);
+        g2.setColor(oldColor);
+        g2.setStroke(oldStroke);
+        if (oldAA != null) {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, oldAA);
+        }
+    }
+
+    /**
+     * Rebuilds the pick cache by projecting every feature through the given
+     * container without drawing anything. Used when the map is painted from
+     * cached tiles, so that no on-screen {@link #render} call refreshes the
+     * cache. Has no effect while the layer is hidden.
+     *
+     * @param container the on-screen container; must not be {@code null}
+     */
+    public void updatePickCache(IContainer container) {
+        Objects.requireNonNull(container, "container");
+
+        pickCache.clear();
+        if (!visible) return;
+
+        if (container.getWidth() <= 0 || container.getHeight() <= 0) return;
+
+        renderFeatures(null, container, null, pickCache);
+    }
+
+    /**
+     * Dispatches every feature to its geometry-specific renderer.
+     *
+     * @param g2       graphics context, or {@code null} to project only
+     * @param fm       label font metrics, or {@code null} when {@code g2} is
+     * @param cacheOut receives pick entries, or {@code null} to skip caching
+     */
+    private void renderFeatures(Graphics2D g2, IContainer container,
+                                FontMetrics fm, List<PickCache> cacheOut) {
         for (ShapeFeature feature : features) {
             switch (feature.getShapeType()) {
                 case ShapefileGeometryReader.TYPE_POLYGON ->
-                        renderPolygon(g2, container, feature);
+                        renderPolygon(g2, container, feature, cacheOut);
                 case ShapefileGeometryReader.TYPE_POLYLINE ->
-                        renderPolyline(g2, container, feature);
+                        renderPolyline(g2, container, feature, cacheOut);
                 case ShapefileGeometryReader.TYPE_POINT,
                      ShapefileGeometryReader.TYPE_MULTIPOINT ->
-                        renderPoints(g2, container, feature, fm);
+                        renderPoints(g2, container, feature, fm, cacheOut);
                 default -> { /* unsupported — skip */ }
             }
         }
-
-        g2.setFont(oldFont);
-        g2.setColor(oldColor);
-        g2.setStroke(oldStroke);
-        if (oldAA != null) {
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, oldAA);
-        }
     }
 
     // -------------------------------------------------------------------------
@@ -311,7 +366,10 @@ public class ShapeFeatureRenderer implements IPickable {
     }
 
     // -------------------------------------------------------------------------
-    // Per-geometry-type renderers  (also populate pickCache)
+    // Per-geometry-type renderers  (also populate the pick cache)
+    //
+    // A null g2 projects without drawing; a null cacheOut draws without
+    // caching.
     // -------------------------------------------------------------------------
 
     /**
@@ -324,7 +382,7 @@ public class ShapeFeatureRenderer implements IPickable {
      * path would throw {@link java.awt.geom.IllegalPathStateException}.</p>
      */
     private void renderPolygon(Graphics2D g2, IContainer container,
-                               ShapeFeature feature) {
+                               ShapeFeature feature, List<PickCache> cacheOut) {
         Color  fill   = style.getFillColor();
         Color  stroke = style.getStrokeColor();
         if (fill == null && stroke == null) return;
@@ -332,17 +390,22 @@ public class ShapeFeatureRenderer implements IPickable {
         Stroke strokeObj       = style.buildStroke();
         List<GeneralPath> paths = new ArrayList<>();
 
-        for (List<Point2D.Double> ring : feature.getRings()) {
+        PackedGeometry geom   = feature.getRingGeometry();
+        Point2D.Double lonLat = new Point2D.Double();
+        Point2D.Double xy     = new Point2D.Double();
+        Point          screen = new Point();
+
+        for (int r = 0; r < geom.ringCount(); r++) {
             GeneralPath near = new GeneralPath(GeneralPath.WIND_NON_ZERO);
             GeneralPath far  = new GeneralPath(GeneralPath.WIND_NON_ZERO);
             GeneralPath cur  = near;
             boolean first    = true;
             double  prevLon  = 0.0;
 
-            for (Point2D.Double lonLat : ring) {
+            for (int v = geom.ringStart(r), end = geom.ringEnd(r); v < end; v++) {
+                geom.get(v, lonLat);
                 if (!projection.isPointVisible(lonLat)) continue;
 
-                Point2D.Double xy = new Point2D.Double();
                 projection.latLonToXY(lonLat, xy);
                 if (!projection.isPointOnMap(xy)) continue;
 
@@ -352,7 +415,6 @@ public class ShapeFeatureRenderer implements IPickable {
                 first   = false;
                 prevLon = lonLat.x;
 
-                Point screen = new Point();
                 container.worldToLocal(screen, xy);
 
                 if (cur.getCurrentPoint() == null) cur.moveTo(screen.x, screen.y);
@@ -363,6 +425,7 @@ public class ShapeFeatureRenderer implements IPickable {
                 if (path.getCurrentPoint() == null) continue; // empty — skip
                 path.closePath();
                 paths.add(path);
+                if (g2 == null) continue;
                 if (fill != null) {
                     g2.setColor(fill);
                     g2.fill(path);
@@ -375,8 +438,8 @@ public class ShapeFeatureRenderer implements IPickable {
             }
         }
 
-        if (!paths.isEmpty()) {
-            pickCache.add(new PickCache(feature, paths, null));
+        if (cacheOut != null && !paths.isEmpty()) {
+            cacheOut.add(new PickCache(feature, paths, null));
         }
     }
 
@@ -387,26 +450,33 @@ public class ShapeFeatureRenderer implements IPickable {
      * to be finalized and a new one started, preventing map-wide streaks.</p>
      */
     private void renderPolyline(Graphics2D g2, IContainer container,
-                                ShapeFeature feature) {
+                                ShapeFeature feature, List<PickCache> cacheOut) {
         Color stroke = style.getStrokeColor();
         if (stroke == null) return;
 
-        g2.setColor(stroke);
-        g2.setStroke(style.buildStroke());
+        if (g2 != null) {
+            g2.setColor(stroke);
+            g2.setStroke(style.buildStroke());
+        }
 
         List<GeneralPath> paths = new ArrayList<>();
 
-        for (List<Point2D.Double> part : feature.getRings()) {
+        PackedGeometry geom   = feature.getRingGeometry();
+        Point2D.Double lonLat = new Point2D.Double();
+        Point2D.Double xy     = new Point2D.Double();
+        Point          screen = new Point();
+
+        for (int r = 0; r < geom.ringCount(); r++) {
             GeneralPath near = new GeneralPath();
             GeneralPath far  = new GeneralPath();
             GeneralPath cur  = near;
             boolean first    = true;
             double  prevLon  = 0.0;
 
-            for (Point2D.Double lonLat : part) {
+            for (int v = geom.ringStart(r), end = geom.ringEnd(r); v < end; v++) {
+                geom.get(v, lonLat);
                 if (!projection.isPointVisible(lonLat)) { first = true; continue; }
 
-                Point2D.Double xy = new Point2D.Double();
                 projection.latLonToXY(lonLat, xy);
                 if (!projection.isPointOnMap(xy)) { first = true; continue; }
 
@@ -416,7 +486,6 @@ public class ShapeFeatureRenderer implements IPickable {
                 }
                 prevLon = lonLat.x;
 
-                Point screen = new Point();
                 container.worldToLocal(screen, xy);
 
                 if (first || cur.getCurrentPoint() == null) {
@@ -429,13 +498,13 @@ public class ShapeFeatureRenderer implements IPickable {
 
             for (GeneralPath path : new GeneralPath[]{ near, far }) {
                 if (path.getCurrentPoint() == null) continue;
-                g2.draw(path);
+                if (g2 != null) g2.draw(path);
                 paths.add(path);
             }
         }
 
-        if (!paths.isEmpty()) {
-            pickCache.add(new PickCache(feature, paths, null));
+        if (cacheOut != null && !paths.isEmpty()) {
+            cacheOut.add(new PickCache(feature, paths, null));
         }
     }
 
@@ -444,7 +513,8 @@ public class ShapeFeatureRenderer implements IPickable {
      * coordinates of each visible point.
      */
     private void renderPoints(Graphics2D g2, IContainer container,
-                              ShapeFeature feature, FontMetrics fm) {
+                              ShapeFeature feature, FontMetrics fm,
+                              List<PickCache> cacheOut) {
         Color  pointColor = style.getPointColor();
         double r          = style.getPointRadius();
         String labelField = style.getLabelField();
@@ -456,21 +526,30 @@ public class ShapeFeatureRenderer implements IPickable {
             if (labelText != null && labelText.isEmpty()) labelText = null;
         }
 
-        Ellipse2D.Double     marker    = new Ellipse2D.Double();
-        List<Point2D.Double> screenPts = new ArrayList<>();
+        Ellipse2D.Double marker = new Ellipse2D.Double();
+        PackedGeometry   geom   = feature.getPointGeometry();
+        Point2D.Double   lonLat = new Point2D.Double();
+        Point2D.Double   xy     = new Point2D.Double();
+        Point            screen = new Point();
 
-        for (Point2D.Double lonLat : feature.getPoints()) {
+        // Interleaved screen (x, y) pairs for the pick cache.
+        double[] screenPts = new double[2 * geom.vertexCount()];
+        int      nScreen   = 0;
+
+        for (int v = 0, n = geom.vertexCount(); v < n; v++) {
+            geom.get(v, lonLat);
             if (!projection.isPointVisible(lonLat)) continue;
 
-            Point2D.Double xy = new Point2D.Double();
             projection.latLonToXY(lonLat, xy);
             if (!projection.isPointOnMap(xy)) continue;
 
-            Point screen = new Point();
             container.worldToLocal(screen, xy);
 
             double cx = screen.x, cy = screen.y;
-            screenPts.add(new Point2D.Double(cx, cy));
+            screenPts[nScreen++] = cx;
+            screenPts[nScreen++] = cy;
+
+            if (g2 == null) continue;
 
             marker.setFrame(cx - r, cy - r, 2 * r, 2 * r);
             g2.setColor(pointColor);
@@ -484,8 +563,9 @@ public class ShapeFeatureRenderer implements IPickable {
             }
         }
 
-        if (!screenPts.isEmpty()) {
-            pickCache.add(new PickCache(feature, null, screenPts));
+        if (cacheOut != null && nScreen > 0) {
+            cacheOut.add(new PickCache(feature, null,
+                    Arrays.copyOf(screenPts, nScreen)));
         }
     }
 
@@ -529,8 +609,9 @@ public class ShapeFeatureRenderer implements IPickable {
     /** Point hit: Euclidean distance from cursor to each cached screen point. */
     private static boolean hitTestPoints(PickCache entry, double mx, double my) {
         double tolSq = POINT_PICK_TOLERANCE_PX * POINT_PICK_TOLERANCE_PX;
-        for (Point2D.Double pt : entry.screenPoints) {
-            double dx = mx - pt.x, dy = my - pt.y;
+        double[] pts = entry.screenPoints;
+        for (int i = 0; i < pts.length; i += 2) {
+            double dx = mx - pts[i], dy = my - pts[i + 1];
             if (dx * dx + dy * dy <= tolSq) return true;
         }
         return false;
@@ -598,16 +679,17 @@ public class ShapeFeatureRenderer implements IPickable {
      * geometry from the most recent render call.
      *
      * <p>For polygon and polyline features, {@code paths} is non-null and
-     * {@code screenPoints} is null. For point features the reverse is true.</p>
+     * {@code screenPoints} is null. For point features the reverse is true;
+     * {@code screenPoints} holds interleaved {@code (x, y)} pairs.</p>
      */
     private static final class PickCache {
-        final ShapeFeature         feature;
-        final List<GeneralPath>    paths;        // polygon / polyline
-        final List<Point2D.Double> screenPoints; // point / multipoint
+        final ShapeFeature      feature;
+        final List<GeneralPath> paths;        // polygon / polyline
+        final double[]          screenPoints; // point / multipoint
 
         PickCache(ShapeFeature feature,
                   List<GeneralPath> paths,
-                  List<Point2D.Double> screenPoints) {
+                  double[] screenPoints) {
             this.feature      = feature;
             this.paths        = paths;
             this.screenPoints = screenPoints;
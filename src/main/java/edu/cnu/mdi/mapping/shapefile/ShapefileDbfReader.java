@@ -4,6 +4,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -43,6 +44,10 @@ import java.util.Map;
  * }
  * }</pre>
  *
+ * <p>For large tables, or when only a few columns are needed as numbers,
+ * {@link #readTable()} returns a columnar {@link DbfTable} that decodes
+ * fields on demand instead of building one map per record.</p>
+ *
  * <h2>Character encoding</h2>
  * <p>Natural Earth shapefiles use UTF-8 or ISO-8859-1. By default this reader
  * uses UTF-8 ({@link StandardCharsets#UTF_8}); callers can override this with
@@ -76,7 +81,7 @@ public final class ShapefileDbfReader implements Closeable {
     private static final byte FLAG_VALID   = 0x20;
 
     /** Deletion-flag value meaning the record is marked deleted (an asterisk). */
-    private static final byte FLAG_DELETED = 0x2A;
+    static final byte FLAG_DELETED = 0x2A;
 
     /** Header terminator byte that follows the last field descriptor. */
     private static final byte HEADER_TERMINATOR = 0x0D;
@@ -233,6 +238,24 @@ public final class ShapefileDbfReader implements Closeable {
         return Collections.unmodifiableList(result);
     }
 
+    /**
+     * Returns a columnar, lazily decoded view of all records.
+     *
+     * <p>The record area of the file is memory-mapped read-only; no field is
+     * decoded until it is first read through the returned table. The mapping
+     * stays valid after this reader is closed and is released when the table
+     * becomes unreachable.</p>
+     *
+     * @return the attribute table
+     * @throws IOException if the file cannot be mapped
+     */
+    public DbfTable readTable() throws IOException {
+        long length = Math.min((long) recordCount * recordSize,
+                               Math.max(0L, channel.size() - headerSize));
+        MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, headerSize, length);
+        return new DbfTable(data, charset, recordCount, recordSize, fields);
+    }
+
     /**
      * Reads a single record by its zero-based index.
      *
@@ -1,6 +1,5 @@
 package edu.cnu.mdi.mapping.shapefile;
 
-import java.awt.geom.Point2D;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -12,6 +11,7 @@ import java.util.Objects;
 import edu.cnu.mdi.mapping.loader.ShapefileCityLoader;
 import edu.cnu.mdi.mapping.loader.ShapefileCountryLoader;
 import edu.cnu.mdi.mapping.theme.MapUtils;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
 
 /**
  * Loads arbitrary ESRI Shapefile data into {@link ShapeFeature} instances
@@ -119,11 +119,11 @@ public final class ShapefileFeatureLoader {
     /**
      * Reads features from a matched {@code .shp} / {@code .dbf} pair.
      *
-     * <p>The attribute table is loaded entirely into memory before iterating
-     * the geometry file, so that geometry and attributes can be paired by
-     * record index without multiple passes. For the dataset sizes typical of
-     * Natural Earth layers (a few thousand records) this is well within
-     * acceptable memory bounds.</p>
+     * <p>The attribute table is opened as a columnar {@link DbfTable} before
+     * iterating the geometry file, so that geometry and attributes can be
+     * paired by record index without multiple passes. Each feature's property
+     * map is a row view of that table; no field is decoded until a renderer
+     * or tooltip asks for it.</p>
      *
      * @param shpPath path to the {@code .shp} file
      * @param dbfPath path to the {@code .dbf} file
@@ -138,18 +138,22 @@ public final class ShapefileFeatureLoader {
         try (ShapefileGeometryReader shp = new ShapefileGeometryReader(shpPath);
              ShapefileDbfReader      dbf = new ShapefileDbfReader(dbfPath)) {
 
-            List<Map<String, String>> attributes = dbf.readAllRecords();
+            DbfTable attributes = dbf.readTable();
             int attrIndex = 0;
 
-            ShapefileGeometryReader.ShapeRecord geomRecord;
-            while ((geomRecord = shp.nextRecord()) != null) {
+            // Vertices go straight from the file buffer into packed
+            // storage, converted to radians as they are read; degenerate
+            // rings (fewer than 3 points) are dropped.
+            ShapefileGeometryReader.PackedRecord geomRecord;
+            while ((geomRecord = shp.nextPackedRecord(MapUtils::lonDegreesToRadians,
+                                                      Math::toRadians, 3)) != null) {
 
                 // Pair this geometry record with its attribute row.
                 // The attribute cursor always advances once per geometry
                 // record (including those that produce no feature) to keep
                 // the two files in sync.
-                Map<String, String> attrs = (attrIndex < attributes.size())
-                        ? attributes.get(attrIndex)
+                Map<String, String> attrs = (attrIndex < attributes.getRowCount())
+                        ? attributes.row(attrIndex)
                         : Collections.emptyMap();
                 attrIndex++;
 
@@ -164,99 +168,39 @@ public final class ShapefileFeatureLoader {
     }
 
     /**
-     * Converts one geometry record and its attribute map into a
+     * Converts one packed geometry record and its attribute map into a
      * {@link ShapeFeature}, or returns {@code null} if the record produces no
      * usable geometry.
      *
      * <p>Polygon and polyline records with fewer than 3 points in every ring
      * are skipped as degenerate. Point records with an empty point list are
-     * skipped. The attribute map is stored as-is (it is already unmodifiable
-     * from {@link ShapefileDbfReader#readAllRecords()}).</p>
+     * skipped. The attribute map is stored as-is (a read-only
+     * {@link DbfTable.Row} view).</p>
      *
-     * @param geom  geometry record from the {@code .shp} reader
-     * @param attrs attribute map from the {@code .dbf} reader
+     * @param geom  packed geometry record from the {@code .shp} reader, in
+     *              radians
+     * @param attrs attribute row from the {@code .dbf} table
      * @return a new {@link ShapeFeature}, or {@code null} to skip
      */
-    private static ShapeFeature buildFeature(ShapefileGeometryReader.ShapeRecord geom,
+    private static ShapeFeature buildFeature(ShapefileGeometryReader.PackedRecord geom,
                                              Map<String, String> attrs) {
         int type = geom.shapeType();
+        PackedGeometry g = geom.geometry();
+        if (g.isEmpty()) return null;
 
         return switch (type) {
-
             case ShapefileGeometryReader.TYPE_POLYGON,
-                 ShapefileGeometryReader.TYPE_POLYLINE -> {
-                List<List<Point2D.Double>> rings = convertRings(geom.rings());
-                if (rings.isEmpty()) yield null;
-                yield new ShapeFeature(type, rings, Collections.emptyList(), attrs);
-            }
+                 ShapefileGeometryReader.TYPE_POLYLINE ->
+                new ShapeFeature(type, g, PackedGeometry.EMPTY, attrs);
 
             case ShapefileGeometryReader.TYPE_POINT,
-                 ShapefileGeometryReader.TYPE_MULTIPOINT -> {
-                List<Point2D.Double> pts = convertPoints(geom.points());
-                if (pts.isEmpty()) yield null;
-                yield new ShapeFeature(type, Collections.emptyList(), pts, attrs);
-            }
+                 ShapefileGeometryReader.TYPE_MULTIPOINT ->
+                new ShapeFeature(type, PackedGeometry.EMPTY, g, attrs);
 
             default -> null; // unsupported type — skip silently
         };
     }
 
-    // -------------------------------------------------------------------------
-    // Coordinate conversion helpers
-    // -------------------------------------------------------------------------
-
-    /**
-     * Converts a list of degree-coordinate rings to radian-coordinate rings,
-     * skipping any ring with fewer than 3 points.
-     *
-     * @param degreeRings rings in decimal degrees (longitude, latitude)
-     * @return converted rings in radians; may be empty if all rings were
-     *         degenerate
-     */
-    private static List<List<Point2D.Double>> convertRings(
-            List<List<Point2D.Double>> degreeRings) {
-
-        List<List<Point2D.Double>> result = new ArrayList<>(degreeRings.size());
-        for (List<Point2D.Double> ring : degreeRings) {
-            if (ring.size() < 3) continue; // degenerate ring — skip
-            List<Point2D.Double> converted = new ArrayList<>(ring.size());
-            for (Point2D.Double pt : ring) {
-                converted.add(toRadians(pt));
-            }
-            result.add(Collections.unmodifiableList(converted));
-        }
-        return result;
-    }
-
-    /**
-     * Converts a flat list of degree-coordinate points to radian coordinates.
-     *
-     * @param degreePoints points in decimal degrees
-     * @return converted points in radians
-     */
-    private static List<Point2D.Double> convertPoints(List<Point2D.Double> degreePoints) {
-        List<Point2D.Double> result = new ArrayList<>(degreePoints.size());
-        for (Point2D.Double pt : degreePoints) {
-            result.add(toRadians(pt));
-        }
-        return Collections.unmodifiableList(result);
-    }
-
-    /**
-     * Converts a single point from decimal degrees to radians, wrapping
-     * longitude to (-π, π].
-     *
-     * @param pt point with {@code x = longitude degrees}, {@code y = latitude
-     *           degrees}
-     * @return new point with {@code x = longitude radians}, {@code y =
-     *         latitude radians}
-     */
-    private static Point2D.Double toRadians(Point2D.Double pt) {
-        return new Point2D.Double(
-                MapUtils.lonDegreesToRadians(pt.x),
-                Math.toRadians(pt.y));
-    }
-
     // -------------------------------------------------------------------------
     // Utility helpers
     // -------------------------------------------------------------------------
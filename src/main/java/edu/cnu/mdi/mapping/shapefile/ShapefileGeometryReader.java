@@ -11,8 +11,11 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
 
 import edu.cnu.mdi.mapping.projection.IMapProjection;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
 
 /**
  * Zero-dependency reader for the binary geometry data in ESRI Shapefile
@@ -56,6 +59,14 @@ import edu.cnu.mdi.mapping.projection.IMapProjection;
  * Callers that need topologically correct hole handling can use
  * {@link #isClockwise(List)} to classify rings.</p>
  *
+ * <h2>Packed reading</h2>
+ * <p>{@link #nextRecord()} returns one {@link Point2D.Double} per vertex.
+ * Loaders that keep the geometry should use
+ * {@link #nextPackedRecord(DoubleUnaryOperator, DoubleUnaryOperator, int)}
+ * instead, which converts each vertex as it is read and appends it straight
+ * to a {@link PackedGeometry.Builder}, so no per-vertex objects exist at any
+ * point during the load.</p>
+ *
  * <h2>Coordinate output</h2>
  * <p>All returned coordinates are in the source file's native units. For
  * Natural Earth data this is decimal degrees (WGS84). Callers must convert
@@ -129,6 +140,10 @@ public final class ShapefileGeometryReader implements Closeable {
     /** Total file length in bytes (from the header). */
     private final long fileLength;
 
+    /** Record number and shape type of the record last found by {@link #nextContent()}. */
+    private int currentRecordNumber;
+    private int currentShapeType;
+
     // -------------------------------------------------------------------------
     // Construction
     // -------------------------------------------------------------------------
@@ -217,39 +232,82 @@ public final class ShapefileGeometryReader implements Closeable {
      *                     unrecognized shape type
      */
     public ShapeRecord nextRecord() throws IOException {
-        while (channel.position() < fileLength - 8) {
-            // Record header: 8 bytes, big-endian.
-            ByteBuffer recHeader = readBytes(8);
-            recHeader.order(ByteOrder.BIG_ENDIAN);
-            int recordNumber  = recHeader.getInt();       // 1-based
-            int contentWords  = recHeader.getInt();       // content length in 16-bit words
-            int contentBytes  = contentWords * 2;
-
-            if (contentBytes < 4) {
-                // Degenerate record — skip.
-                channel.position(channel.position() + contentBytes);
-                continue;
-            }
-
-            ByteBuffer content = readBytes(contentBytes);
-            content.order(ByteOrder.LITTLE_ENDIAN);
-
-            int shapeType = content.getInt();
-
-            // Silently skip null shapes.
-            if (shapeType == TYPE_NULL) continue;
+        ByteBuffer content = nextContent();
+        if (content == null) {
+            return null; // end of file
+        }
+        int recordNumber = currentRecordNumber;
+        return switch (currentShapeType) {
+            case TYPE_POINT      -> readPoint(recordNumber, content);
+            case TYPE_POLYLINE,
+                 TYPE_POLYGON    -> readRings(recordNumber, currentShapeType, content);
+            case TYPE_MULTIPOINT -> readMultiPoint(recordNumber, content);
+            default -> throw new IOException(
+                    "Unsupported shape type " + currentShapeType
+                    + " in record " + recordNumber);
+        };
+    }
 
-            return switch (shapeType) {
-                case TYPE_POINT      -> readPoint(recordNumber, content);
-                case TYPE_POLYLINE,
-                     TYPE_POLYGON    -> readRings(recordNumber, shapeType, content);
-                case TYPE_MULTIPOINT -> readMultiPoint(recordNumber, content);
-                default -> throw new IOException(
-                        "Unsupported shape type " + shapeType
-                        + " in record " + recordNumber);
-            };
+    /**
+     * Reads the next geometry record straight into packed storage, or
+     * returns {@code null} at the end of the file.
+     *
+     * <p>Each vertex is passed through {@code xOp} and {@code yOp} (for
+     * example degrees to radians) as it is read and appended to a
+     * {@link PackedGeometry.Builder}; no {@link Point2D.Double} is created.
+     * Null-shape records are skipped as in {@link #nextRecord()}.</p>
+     *
+     * <p>For {@link #TYPE_POLYGON} and {@link #TYPE_POLYLINE} the geometry
+     * has one ring per part. Parts with fewer than {@code minRingSize}
+     * vertices are dropped, and so are parts whose offsets are out of
+     * range; pass 0 to keep empty parts so that ring indices match the
+     * file. For {@link #TYPE_POINT} and {@link #TYPE_MULTIPOINT} the geometry
+     * is a single ring holding every point, or
+     * {@link PackedGeometry#EMPTY} if there are none.</p>
+     *
+     * @param xOp         conversion applied to every x (longitude)
+     * @param yOp         conversion applied to every y (latitude)
+     * @param minRingSize minimum vertex count of a kept part
+     * @return the next record, or {@code null} at end of file
+     * @throws IOException if a read error occurs or the record contains an
+     *                     unrecognized shape type
+     */
+    public PackedRecord nextPackedRecord(DoubleUnaryOperator xOp, DoubleUnaryOperator yOp,
+                                         int minRingSize) throws IOException {
+        Objects.requireNonNull(xOp, "xOp");
+        Objects.requireNonNull(yOp, "yOp");
+        ByteBuffer content = nextContent();
+        if (content == null) {
+            return null; // end of file
         }
-        return null; // end of file
+        int recordNumber = currentRecordNumber;
+        int shapeType    = currentShapeType;
+        PackedGeometry geometry = switch (shapeType) {
+            case TYPE_POINT -> {
+                PackedGeometry.Builder b = new PackedGeometry.Builder(1);
+                b.beginRing();
+                b.add(xOp.applyAsDouble(content.getDouble()), yOp.applyAsDouble(content.getDouble()));
+                yield b.build();
+            }
+            case TYPE_MULTIPOINT -> {
+                content.position(content.position() + 32); // skip bounding box
+                int numPoints = content.getInt();
+                checkCount("point", numPoints, 2_000_000, recordNumber);
+                PackedGeometry.Builder b = new PackedGeometry.Builder(numPoints);
+                b.beginRing();
+                for (int i = 0; i < numPoints; i++) {
+                    b.add(xOp.applyAsDouble(content.getDouble()), yOp.applyAsDouble(content.getDouble()));
+                }
+                b.endRing(1);
+                yield b.build();
+            }
+            case TYPE_POLYLINE,
+                 TYPE_POLYGON -> readPackedRings(recordNumber, content, xOp, yOp, minRingSize);
+            default -> throw new IOException(
+                    "Unsupported shape type " + shapeType
+                    + " in record " + recordNumber);
+        };
+        return new PackedRecord(recordNumber, shapeType, geometry);
     }
 
     /**
@@ -390,15 +448,8 @@ public final class ShapefileGeometryReader implements Closeable {
 
         int numParts  = content.getInt();
         int numPoints = content.getInt();
-
-        if (numParts < 0 || numParts > 65536) {
-            throw new IOException("Implausible part count " + numParts
-                                  + " in record " + recordNumber);
-        }
-        if (numPoints < 0 || numPoints > 2_000_000) {
-            throw new IOException("Implausible point count " + numPoints
-                                  + " in record " + recordNumber);
-        }
+        checkCount("part", numParts, 65536, recordNumber);
+        checkCount("point", numPoints, 2_000_000, recordNumber);
 
         // Read start indices for each part.
         int[] partStart = new int[numParts];
@@ -431,10 +482,105 @@ public final class ShapefileGeometryReader implements Closeable {
                                Collections.unmodifiableList(rings));
     }
 
+    /**
+     * Packed counterpart of {@link #readRings}: the same layout, read
+     * straight into a {@link PackedGeometry.Builder}. The points of each part
+     * are contiguous in the record, so parts are read in place by offset.
+     *
+     * @param recordNumber one-based record number
+     * @param content      content buffer positioned after the shape-type int
+     * @param xOp          conversion applied to every x
+     * @param yOp          conversion applied to every y
+     * @param minRingSize  minimum vertex count of a kept part
+     * @return packed rings, one per kept part
+     * @throws IOException if the part or point counts are out of range
+     */
+    private static PackedGeometry readPackedRings(int recordNumber, ByteBuffer content,
+                                                  DoubleUnaryOperator xOp,
+                                                  DoubleUnaryOperator yOp,
+                                                  int minRingSize) throws IOException {
+        content.position(content.position() + 32); // skip bounding box
+
+        int numParts  = content.getInt();
+        int numPoints = content.getInt();
+        checkCount("part", numParts, 65536, recordNumber);
+        checkCount("point", numPoints, 2_000_000, recordNumber);
+
+        int[] partStart = new int[numParts];
+        for (int i = 0; i < numParts; i++) {
+            partStart[i] = content.getInt();
+        }
+        int pointsAt = content.position();
+
+        PackedGeometry.Builder b = new PackedGeometry.Builder(numPoints);
+        for (int p = 0; p < numParts; p++) {
+            int start = partStart[p];
+            int end   = (p + 1 < numParts) ? partStart[p + 1] : numPoints;
+            if (start < 0 || end > numPoints || start > end) continue;
+
+            b.beginRing();
+            for (int i = start; i < end; i++) {
+                int at = pointsAt + 16 * i;
+                b.add(xOp.applyAsDouble(content.getDouble(at)),
+                      yOp.applyAsDouble(content.getDouble(at + 8)));
+            }
+            b.endRing(minRingSize);
+        }
+        return b.build();
+    }
+
+    /** Rejects a negative or implausibly large part or point count. */
+    private static void checkCount(String what, int count, int max, int recordNumber)
+            throws IOException {
+        if (count < 0 || count > max) {
+            throw new IOException("Implausible " + what + " count " + count
+                                  + " in record " + recordNumber);
+        }
+    }
+
     // -------------------------------------------------------------------------
     // Channel helper
     // -------------------------------------------------------------------------
 
+    /**
+     * Advances to the next non-null record and reads its content.
+     *
+     * <p>Sets {@link #currentRecordNumber} and {@link #currentShapeType}.</p>
+     *
+     * @return the content positioned after the shape-type int, or
+     *         {@code null} at end of file
+     * @throws IOException if a read error occurs
+     */
+    private ByteBuffer nextContent() throws IOException {
+        while (channel.position() < fileLength - 8) {
+            // Record header: 8 bytes, big-endian.
+            ByteBuffer recHeader = readBytes(8);
+            recHeader.order(ByteOrder.BIG_ENDIAN);
+            int recordNumber  = recHeader.getInt();       // 1-based
+            int contentWords  = recHeader.getInt();       // content length in 16-bit words
+            int contentBytes  = contentWords * 2;
+
+            if (contentBytes < 4) {
+                // Degenerate record — skip.
+                channel.position(channel.position() + contentBytes);
+                continue;
+            }
+
+            ByteBuffer content = readBytes(contentBytes);
+            content.order(ByteOrder.LITTLE_ENDIAN);
+
+            int shapeType = content.getInt();
+
+            // Silently skip null shapes.
+            if (shapeType == TYPE_NULL) continue;
+
+            currentRecordNumber = recordNumber;
+            currentShapeType    = shapeType;
+            return content;
+        }
+        return null;
+    }
+
     /**
      * Reads exactly {@code n} bytes from the current channel position.
      *
@@ -477,4 +623,19 @@ public final class ShapefileGeometryReader implements Closeable {
             int shapeType,
             List<Point2D.Double> points,
             List<List<Point2D.Double>> rings) {}
+
+    /**
+     * Geometry of a single shapefile record in packed form, as returned by
+     * {@link #nextPackedRecord(DoubleUnaryOperator, DoubleUnaryOperator, int)}.
+     *
+     * @param recordNumber one-based record number as stored in the file
+     * @param shapeType    shape type for this record; one of the
+     *                     {@code TYPE_*} constants
+     * @param geometry     one ring per part for ring-based types, or a
+     *                     single ring of all points for point types
+     */
+    public record PackedRecord(
+            int recordNumber,
+            int shapeType,
+            PackedGeometry geometry) {}
 }
\ No newline at end of file
@@ -0,0 +1,431 @@
+package edu.cnu.mdi.mapping.util;
+
+import java.awt.geom.Point2D;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Compact, immutable storage for the vertices of a multi-ring geographic
+ * geometry (polygon rings, polyline parts, or a set of points).
+ *
+ * <p>All vertices of all rings are stored in a single interleaved
+ * {@code double[]} of {@code (longitude, latitude)} pairs, and a companion
+ * {@code int[]} holds the vertex offset at which each ring starts. Compared
+ * with the previous {@code List<List<Point2D.Double>>} representation this
+ * removes one object header, one reference, and one list slot per vertex —
+ * roughly a five-fold reduction for large datasets such as the Natural Earth
+ * 10m countries — and lets projection loops walk memory sequentially.</p>
+ *
+ * <h2>Layout</h2>
+ * <pre>
+ * coords     = [ lon0, lat0, lon1, lat1, ... ]          (2 * vertexCount)
+ * ringStart  = [ 0, n0, n0 + n1, ..., vertexCount ]     (ringCount + 1)
+ * </pre>
+ * <p>Vertex {@code v} of the whole geometry has longitude {@code coords[2v]}
+ * and latitude {@code coords[2v + 1]}. Ring {@code r} spans vertices
+ * {@code ringStart(r)} (inclusive) to {@code ringEnd(r)} (exclusive).</p>
+ *
+ * <h2>Coordinates</h2>
+ * <p>The class itself is unit-agnostic, but every mapping loader stores
+ * radians with longitude wrapped to (-π, π], matching the convention used by
+ * all {@link edu.cnu.mdi.mapping.projection.IMapProjection}
+ * implementations.</p>
+ *
+ * <h2>Compatibility views</h2>
+ * <p>{@link #asRingList()} and {@link #asPointList()} expose the packed data
+ * through the familiar {@code List<Point2D.Double>} shape. The views are
+ * lightweight and allocate a fresh point on each {@code get}; hot paths
+ * should use the primitive accessors instead.</p>
+ *
+ * <p>Instances are created through {@link Builder} (or {@link #wrap} when
+ * deserializing) and are thread-safe once built.</p>
+ */
+public final class PackedGeometry {
+
+    /** Shared empty geometry. */
+    public static final PackedGeometry EMPTY =
+            new PackedGeometry(new double[0], new int[] { 0 });
+
+    /** Interleaved (lon, lat) pairs for every vertex of every ring. */
+    private final double[] coords;
+
+    /** Vertex offset of each ring, plus a trailing total-vertex sentinel. */
+    private final int[] ringStart;
+
+    // Bounding box, computed once at construction.
+    private final double minX, minY, maxX, maxY;
+
+    private PackedGeometry(double[] coords, int[] ringStart,
+                           double minX, double minY, double maxX, double maxY) {
+        this.coords    = coords;
+        this.ringStart = ringStart;
+        this.minX      = minX;
+        this.minY      = minY;
+        this.maxX      = maxX;
+        this.maxY      = maxY;
+    }
+
+    private PackedGeometry(double[] coords, int[] ringStart) {
+        this.coords    = coords;
+        this.ringStart = ringStart;
+
+        double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < coords.length; i += 2) {
+            double x = coords[i], y = coords[i + 1];
+            if (x < x0) x0 = x;
+            if (x > x1) x1 = x;
+            if (y < y0) y0 = y;
+            if (y > y1) y1 = y;
+        }
+        this.minX = x0;
+        this.minY = y0;
+        this.maxX = x1;
+        this.maxY = y1;
+    }
+
+    // -------------------------------------------------------------------------
+    // Factories
+    // -------------------------------------------------------------------------
+
+    /**
+     * Packs a list of rings. Rings with fewer than {@code minRingSize}
+     * vertices are dropped, which shifts the indices of the rings after
+     * them; pass 0 to keep every ring, empty ones included, so that ring
+     * {@code r} of the result is ring {@code r} of the source.
+     *
+     * @param rings       source rings; must not be {@code null}
+     * @param minRingSize minimum vertex count for a ring to be kept; 0 keeps
+     *                    all rings
+     * @return packed geometry; never {@code null}
+     */
+    public static PackedGeometry fromRings(List<? extends List<Point2D.Double>> rings,
+                                           int minRingSize) {
+        Objects.requireNonNull(rings, "rings");
+        Builder b = new Builder();
+        for (List<Point2D.Double> ring : rings) {
+            b.beginRing();
+            for (Point2D.Double p : ring) {
+                b.add(p.x, p.y);
+            }
+            b.endRing(minRingSize);
+        }
+        return b.build();
+    }
+
+    /**
+     * Packs a flat list of points as a single ring.
+     *
+     * @param points source points; must not be {@code null}
+     * @return packed geometry; {@link #EMPTY} if {@code points} is empty
+     */
+    public static PackedGeometry fromPoints(List<Point2D.Double> points) {
+        Objects.requireNonNull(points, "points");
+        Builder b = new Builder(points.size());
+        b.beginRing();
+        for (Point2D.Double p : points) {
+            b.add(p.x, p.y);
+        }
+        b.endRing(1);
+        return b.build();
+    }
+
+    /**
+     * Wraps already-packed arrays and a precomputed bounding box without
+     * copying or rescanning. Intended for deserializers such as
+     * {@link edu.cnu.mdi.mapping.loader.MapDataCache} that read the arrays
+     * in bulk; the caller must not modify them afterwards.
+     *
+     * @param coords    interleaved (x, y) pairs; length must be even
+     * @param ringStart ring offsets with a trailing vertex-count sentinel;
+     *                  must start at 0, be non-decreasing, and end at
+     *                  {@code coords.length / 2}
+     * @param minX      minimum x over all vertices
+     * @param minY      minimum y over all vertices
+     * @param maxX      maximum x over all vertices
+     * @param maxY      maximum y over all vertices
+     * @return geometry backed by the given arrays
+     * @throws IllegalArgumentException if the arrays are inconsistent
+     */
+    public static PackedGeometry wrap(double[] coords, int[] ringStart,
+                                      double minX, double minY,
+                                      double maxX, double maxY) {
+        Objects.requireNonNull(coords,    "coords");
+        Objects.requireNonNull(ringStart, "ringStart");
+        if ((coords.length & 1) != 0 || ringStart.length == 0 || ringStart[0] != 0
+                || ringStart[ringStart.length - 1] != coords.length >> 1) {
+            throw new IllegalArgumentException("Inconsistent packed geometry arrays");
+        }
+        for (int r = 1; r < ringStart.length; r++) {
+            if (ringStart[r] < ringStart[r - 1]) {
+                throw new IllegalArgumentException("Ring offsets are not monotonic");
+            }
+        }
+        if (ringStart.length == 1) return EMPTY;
+        return new PackedGeometry(coords, ringStart, minX, minY, maxX, maxY);
+    }
+
+    // -------------------------------------------------------------------------
+    // Accessors
+    // -------------------------------------------------------------------------
+
+    /** @return number of rings (or parts) */
+    public int ringCount() { return ringStart.length - 1; }
+
+    /** @return total number of vertices across all rings */
+    public int vertexCount() { return coords.length >> 1; }
+
+    /** @return {@code true} if there are no vertices */
+    public boolean isEmpty() { return coords.length == 0; }
+
+    /**
+     * @param ring ring index
+     * @return global index of the first vertex of {@code ring}
+     */
+    public int ringStart(int ring) { return ringStart[ring]; }
+
+    /**
+     * @param ring ring index
+     * @return global index one past the last vertex of {@code ring}
+     */
+    public int ringEnd(int ring) { return ringStart[ring + 1]; }
+
+    /**
+     * @param ring ring index
+     * @return number of vertices in {@code ring}
+     */
+    public int ringSize(int ring) { return ringStart[ring + 1] - ringStart[ring]; }
+
+    /**
+     * @param vertex global vertex index
+     * @return longitude (x) of the vertex
+     */
+    public double x(int vertex) { return coords[vertex << 1]; }
+
+    /**
+     * @param vertex global vertex index
+     * @return latitude (y) of the vertex
+     */
+    public double y(int vertex) { return coords[(vertex << 1) + 1]; }
+
+    /**
+     * Copies one vertex into a caller-supplied point, avoiding allocation in
+     * projection loops.
+     *
+     * @param vertex global vertex index
+     * @param out    destination point
+     * @return {@code out}, for chaining
+     */
+    public Point2D.Double get(int vertex, Point2D.Double out) {
+        int i = vertex << 1;
+        out.x = coords[i];
+        out.y = coords[i + 1];
+        return out;
+    }
+
+    /** @return minimum x over all vertices ({@code +∞} if empty) */
+    public double getMinX() { return minX; }
+
+    /** @return minimum y over all vertices ({@code +∞} if empty) */
+    public double getMinY() { return minY; }
+
+    /** @return maximum x over all vertices ({@code -∞} if empty) */
+    public double getMaxX() { return maxX; }
+
+    /** @return maximum y over all vertices ({@code -∞} if empty) */
+    public double getMaxY() { return maxY; }
+
+    /**
+     * Returns an approximate retained size in bytes of the coordinate and
+     * offset arrays, excluding the fixed per-instance overhead. Intended for
+     * diagnostics and cache accounting.
+     *
+     * @return approximate payload size in bytes
+     */
+    public long getPayloadBytes() {
+        return 8L * coords.length + 4L * ringStart.length;
+    }
+
+    // -------------------------------------------------------------------------
+    // List views
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns a read-only list-of-rings view of this geometry.
+     *
+     * @return unmodifiable view; never {@code null}
+     */
+    public List<List<Point2D.Double>> asRingList() {
+        return new RingListView();
+    }
+
+    /**
+     * Returns a read-only flat list of every vertex in ring order.
+     *
+     * @return unmodifiable view; never {@code null}
+     */
+    public List<Point2D.Double> asPointList() {
+        return new PointListView(0, vertexCount());
+    }
+
+    private final class RingListView extends AbstractList<List<Point2D.Double>>
+            implements RandomAccess {
+        @Override
+        public List<Point2D.Double> get(int index) {
+            Objects.checkIndex(index, ringCount());
+            return new PointListView(ringStart[index], ringStart[index + 1]);
+        }
+
+        @Override
+        public int size() { return ringCount(); }
+    }
+
+    private final class PointListView extends AbstractList<Point2D.Double>
+            implements RandomAccess {
+        private final int from, to;
+
+        PointListView(int from, int to) {
+            this.from = from;
+            this.to   = to;
+        }
+
+        @Override
+        public Point2D.Double get(int index) {
+            Objects.checkIndex(index, to - from);
+            return PackedGeometry.this.get(from + index, new Point2D.Double());
+        }
+
+        @Override
+        public int size() { return to - from; }
+    }
+
+    @Override
+    public String toString() {
+        return "PackedGeometry[rings=" + ringCount()
+                + ", vertices=" + vertexCount() + ']';
+    }
+
+    // =========================================================================
+    // Builder
+    // =========================================================================
+
+    /**
+     * Incremental, allocation-light builder. Vertices are appended to a
+     * growable primitive array; no per-vertex objects are created.
+     *
+     * <pre>{@code
+     * PackedGeometry.Builder b = new PackedGeometry.Builder();
+     * b.beginRing();
+     * b.add(lon0, lat0);
+     * b.add(lon1, lat1);
+     * b.add(lon2, lat2);
+     * b.endRing(3);
+     * PackedGeometry g = b.build();
+     * }</pre>
+     *
+     * <p>Not thread-safe. A builder may be reused after {@link #build()} by
+     * calling {@link #reset()}.</p>
+     */
+    public static final class Builder {
+
+        private double[] coords;
+        private int[]    ringStart = new int[8];
+        private int      nCoords;
+        private int      nRings;
+        private int      openRingStart = -1;
+
+        /** Creates a builder with a small default capacity. */
+        public Builder() {
+            this(64);
+        }
+
+        /**
+         * Creates a builder sized for an expected vertex count.
+         *
+         * @param expectedVertices capacity hint
+         */
+        public Builder(int expectedVertices) {
+            coords = new double[Math.max(8, 2 * expectedVertices)];
+        }
+
+        /** Starts a new ring. Any open ring is closed first, as by {@code endRing(1)}. */
+        public void beginRing() {
+            if (openRingStart >= 0) {
+                endRing(1);
+            }
+            openRingStart = nCoords;
+        }
+
+        /**
+         * Appends a vertex to the currently open ring.
+         *
+         * @param x longitude (or x)
+         * @param y latitude (or y)
+         * @throws IllegalStateException if no ring is open
+         */
+        public void add(double x, double y) {
+            if (openRingStart < 0) {
+                throw new IllegalStateException("add() called outside beginRing/endRing");
+            }
+            if (nCoords + 2 > coords.length) {
+                coords = Arrays.copyOf(coords, Math.max(2 * coords.length, nCoords + 2));
+            }
+            coords[nCoords++] = x;
+            coords[nCoords++] = y;
+        }
+
+        /**
+         * Closes the currently open ring. If it has fewer than
+         * {@code minSize} vertices it is discarded. With a {@code minSize}
+         * of 0 the ring is always kept, even when empty, so ring indices
+         * stay aligned with the source.
+         *
+         * @param minSize minimum number of vertices to keep the ring
+         * @return {@code true} if the ring was kept
+         */
+        public boolean endRing(int minSize) {
+            if (openRingStart < 0) return false;
+            int size = (nCoords - openRingStart) >> 1;
+            if (size < minSize) {
+                nCoords = openRingStart;
+                openRingStart = -1;
+                return false;
+            }
+            if (nRings + 1 >= ringStart.length) {
+                ringStart = Arrays.copyOf(ringStart, 2 * ringStart.length);
+            }
+            ringStart[nRings++] = openRingStart >> 1;
+            openRingStart = -1;
+            return true;
+        }
+
+        /** @return number of completed rings so far */
+        public int ringCount() { return nRings; }
+
+        /** Discards all accumulated data so the builder can be reused. */
+        public void reset() {
+            nCoords = 0;
+            nRings  = 0;
+            openRingStart = -1;
+        }
+
+        /**
+         * Builds an immutable geometry with arrays trimmed to size. An open
+         * ring is closed as by {@code endRing(1)}.
+         *
+         * @return new geometry, or {@link #EMPTY} if no rings were kept
+         */
+        public PackedGeometry build() {
+            if (openRingStart >= 0) {
+                endRing(1);
+            }
+            if (nRings == 0) return EMPTY;
+            int[] starts = Arrays.copyOf(ringStart, nRings + 1);
+            starts[nRings] = nCoords >> 1;
+            return new PackedGeometry(Arrays.copyOf(coords, nCoords), starts);
+        }
+    }
+}
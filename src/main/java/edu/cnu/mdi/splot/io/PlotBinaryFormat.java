@@ -0,0 +1,605 @@
+package edu.cnu.mdi.splot.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Compact binary plot file: the {@link PlotSpec} metadata as JSON, with every
+ * numeric array stored as a block of little-endian primitives.
+ *
+ * <h2>Layout</h2>
+ * <pre>
+ * "SPLOTBIN"  version:int
+ * column block, column block, ...      (each starts on an 8-byte boundary)
+ * header: UTF-8 JSON
+ * headerOffset:long  headerLength:int  "SPLOTEND"
+ * </pre>
+ * <p>
+ * The header is written last, so a file is produced in one sequential pass
+ * without knowing the block sizes up front; readers find it through the
+ * fixed-size trailer. It holds the spec with its arrays set to {@code null}
+ * and one {@link Column} entry per array, giving the array's place in the
+ * spec, its element type and count, and where its bytes are.
+ * </p>
+ *
+ * <h2>Compression</h2>
+ * <p>
+ * Blocks are stored raw by default, and a raw block is read by mapping its
+ * region of the file and copying straight into the destination array.
+ * {@link Compression#DEFLATE} trades that for smaller files. The codec is
+ * recorded per block.
+ * </p>
+ *
+ * <p>
+ * Files are recognized by their leading magic, not their name, so
+ * {@link PlotIO#loadSpec(File)} reads either format from any file.
+ * </p>
+ */
+public final class PlotBinaryFormat {
+
+	/** Block codecs. */
+	public enum Compression {
+		/** Raw little-endian values, read through a memory mapping. */
+		NONE,
+		/** {@link Deflater} at its fastest level. */
+		DEFLATE
+	}
+
+	/** Leading magic. */
+	static final byte[] MAGIC = "SPLOTBIN".getBytes(StandardCharsets.US_ASCII);
+
+	/** Trailing magic. */
+	static final byte[] END_MAGIC = "SPLOTEND".getBytes(StandardCharsets.US_ASCII);
+
+	/** Current layout version. */
+	static final int VERSION = 1;
+
+	/** Bytes after the header: offset, length, magic. */
+	private static final int TRAILER = 8 + 4 + 8;
+
+	/** Bytes staged per channel write or inflate step. */
+	private static final int IO_CHUNK = 1 << 20;
+
+	private static final Gson GSON = new GsonBuilder().serializeNulls().create();
+
+	private PlotBinaryFormat() {
+	}
+
+	// ---------------------------
+	// Header records
+	// ---------------------------
+
+	/** Element types of a column. */
+	enum Type {
+		DOUBLE, LONG
+	}
+
+	/** Where one array lives in the spec and in the file. */
+	static final class Column {
+		/** Place in the spec, e.g. {@code curve/0/x} or {@code histo2d/bins}. */
+		String name;
+		Type type;
+		Compression codec;
+		/** Number of elements. */
+		long count;
+		/** Whether the column is a {@code double[][]} of equal rows. */
+		boolean matrix;
+		/** Row count and length of a matrix. */
+		int rows;
+		int rowLength;
+		long offset;
+		long stored;
+	}
+
+	/** The JSON header. */
+	private static final class Header {
+		PlotSpec spec;
+		List<Column> columns = new ArrayList<>();
+	}
+
+	/** An array waiting to be written. */
+	private record Pending(Column column, Object array) {
+	}
+
+	/** Progress in units of values written. */
+	private static final class Progress {
+		private final DoubleConsumer sink;
+		private final double total;
+		private long done;
+
+		Progress(DoubleConsumer sink, long total) {
+			this.sink = sink;
+			this.total = Math.max(1, total);
+		}
+
+		void add(long n) throws InterruptedIOException {
+			done += n;
+			if (sink != null) {
+				sink.accept(Math.min(1.0, done / total));
+			}
+			checkInterrupt();
+		}
+	}
+
+	// ---------------------------
+	// Detection
+	// ---------------------------
+
+	/**
+	 * Check whether a file starts with the binary plot magic.
+	 *
+	 * @param file the file
+	 * @return {@code true} for a binary plot file
+	 */
+	public static boolean isBinary(File file) {
+		if (file == null || !file.isFile() || file.length() < MAGIC.length) {
+			return false;
+		}
+		try (InputStream in = Files.newInputStream(file.toPath())) {
+			return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	// ---------------------------
+	// Writing
+	// ---------------------------
+
+	/**
+	 * Write a spec. Its numeric arrays are moved into column blocks; the spec
+	 * itself is left unchanged. The file is written to a temporary sibling
+	 * that replaces {@code file} only once it is complete, so a failed or
+	 * interrupted write leaves any previous file intact.
+	 *
+	 * @param spec        the spec
+	 * @param file        destination, replaced if it exists
+	 * @param compression block codec
+	 * @throws IOException on write failure or interruption
+	 */
+	public static void write(PlotSpec spec, File file, Compression compression) throws IOException {
+		write(spec, file, compression, null);
+	}
+
+	/**
+	 * Write a spec, reporting progress. Progress is the fraction of array
+	 * values written and is reported each time a staging buffer of up to
+	 * {@value #IO_CHUNK} bytes reaches the file. The thread's interrupt flag
+	 * is checked at the same points, and an interrupted write stops with an
+	 * {@link InterruptedIOException}.
+	 *
+	 * @param spec        the spec
+	 * @param file        destination, replaced if it exists
+	 * @param compression block codec
+	 * @param progress    receives the fraction written, on the calling
+	 *                    thread; may be {@code null}
+	 * @throws IOException on write failure or interruption
+	 */
+	public static void write(PlotSpec spec, File file, Compression compression, DoubleConsumer progress)
+			throws IOException {
+		Objects.requireNonNull(spec, "spec");
+		Objects.requireNonNull(file, "file");
+		Compression codec = (compression == null) ? Compression.NONE : compression;
+
+		List<Pending> pending = new ArrayList<>();
+		Header header = new Header();
+		header.spec = detach(spec, pending, codec);
+
+		Path target = file.toPath().toAbsolutePath();
+		Path tmp = PlotIO.tempSibling(target);
+		long total = 0;
+		for (Pending p : pending) {
+			total += p.column().count;
+		}
+		try {
+			writeBlocks(header, pending, tmp, new Progress(progress, total));
+			PlotIO.replace(tmp, target);
+		} catch (ClosedByInterruptException e) {
+			InterruptedIOException cancelled = new InterruptedIOException("Plot save cancelled.");
+			cancelled.initCause(e);
+			throw cancelled;
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	/** Write the magic, column blocks, header and trailer to a new file. */
+	private static void writeBlocks(Header header, List<Pending> pending, Path path, Progress progress)
+			throws IOException {
+		// the channel closes itself on interrupt, so check before it opens
+		checkInterrupt();
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buf = ByteBuffer.allocateDirect(IO_CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+			buf.put(MAGIC).putInt(VERSION);
+			drain(ch, buf);
+
+			for (Pending p : pending) {
+				checkInterrupt();
+				pad(ch, buf);
+				Column c = p.column();
+				c.offset = ch.position();
+				if (c.codec == Compression.DEFLATE) {
+					Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+					try {
+						OutputStream out = new DeflaterOutputStream(Channels.newOutputStream(ch), deflater, IO_CHUNK);
+						writeValues(p.array(), out, buf, progress);
+						((DeflaterOutputStream) out).finish();
+						out.flush();
+					} finally {
+						deflater.end();
+					}
+				} else {
+					writeValues(p.array(), ch, buf, progress);
+				}
+				c.stored = ch.position() - c.offset;
+				header.columns.add(c);
+			}
+
+			byte[] json = GSON.toJson(header).getBytes(StandardCharsets.UTF_8);
+			long headerOffset = ch.position();
+			writeFully(ch, ByteBuffer.wrap(json));
+			buf.clear();
+			buf.putLong(headerOffset).putInt(json.length).put(END_MAGIC);
+			drain(ch, buf);
+		}
+	}
+
+	private static void checkInterrupt() throws InterruptedIOException {
+		if (Thread.currentThread().isInterrupted()) {
+			throw new InterruptedIOException("Plot save cancelled.");
+		}
+	}
+
+	/** Shallow copy of the spec with its arrays replaced by column entries. */
+	private static PlotSpec detach(PlotSpec spec, List<Pending> pending, Compression codec) {
+		PlotSpec copy = new PlotSpec();
+		copy.formatVersion = spec.formatVersion;
+		copy.plotDataType = spec.plotDataType;
+		copy.parameters = spec.parameters;
+		copy.histo2d = detach(spec.histo2d, "histo2d", pending, codec);
+		copy.curves = new ArrayList<>();
+		if (spec.curves != null) {
+			for (int i = 0; i < spec.curves.size(); i++) {
+				CurveSpec cs = spec.curves.get(i);
+				String base = "curve/" + i + "/";
+				CurveSpec c = new CurveSpec();
+				c.name = cs.name;
+				c.visible = cs.visible;
+				c.drawingMethod = cs.drawingMethod;
+				c.fitOrder = cs.fitOrder;
+				c.style = cs.style;
+				add(pending, base + "x", cs.x, codec);
+				add(pending, base + "y", cs.y, codec);
+				add(pending, base + "e", cs.e, codec);
+				if (cs.histo != null) {
+					HistoSpec h = new HistoSpec();
+					h.underCount = cs.histo.underCount;
+					h.overCount = cs.histo.overCount;
+					add(pending, base + "histo/grid", cs.histo.grid, codec);
+					add(pending, base + "histo/counts", cs.histo.counts, codec);
+					c.histo = h;
+				}
+				c.histo2d = detach(cs.histo2d, base + "histo2d", pending, codec);
+				copy.curves.add(c);
+			}
+		}
+		return copy;
+	}
+
+	private static Histo2DSpec detach(Histo2DSpec s, String name, List<Pending> pending, Compression codec) {
+		if (s == null) {
+			return null;
+		}
+		Histo2DSpec h = new Histo2DSpec();
+		h.name = s.name;
+		h.nx = s.nx;
+		h.ny = s.ny;
+		h.xmin = s.xmin;
+		h.xmax = s.xmax;
+		h.ymin = s.ymin;
+		h.ymax = s.ymax;
+		h.goodCount = s.goodCount;
+		h.xUnderCount = s.xUnderCount;
+		h.xOverCount = s.xOverCount;
+		h.yUnderCount = s.yUnderCount;
+		h.yOverCount = s.yOverCount;
+		h.xUnder_yUnder = s.xUnder_yUnder;
+		h.xUnder_yOver = s.xUnder_yOver;
+		h.xOver_yUnder = s.xOver_yUnder;
+		h.xOver_yOver = s.xOver_yOver;
+		add(pending, name + "/bins", s.bins, codec);
+		return h;
+	}
+
+	private static void add(List<Pending> pending, String name, Object array, Compression codec) {
+		if (array == null) {
+			return;
+		}
+		Column c = new Column();
+		c.name = name;
+		c.codec = codec;
+		if (array instanceof double[] d) {
+			c.type = Type.DOUBLE;
+			c.count = d.length;
+		} else if (array instanceof long[] l) {
+			c.type = Type.LONG;
+			c.count = l.length;
+		} else {
+			double[][] rows = (double[][]) array;
+			c.type = Type.DOUBLE;
+			c.matrix = true;
+			c.rows = rows.length;
+			c.rowLength = (rows.length == 0) ? 0 : rows[0].length;
+			for (double[] row : rows) {
+				if (row == null || row.length != c.rowLength) {
+					throw new IllegalArgumentException("Ragged array in " + name);
+				}
+			}
+			c.count = (long) rows.length * c.rowLength;
+		}
+		pending.add(new Pending(c, array));
+	}
+
+	/** Write the values of a column through a staging buffer. */
+	private static void writeValues(Object array, Object sink, ByteBuffer buf, Progress progress)
+			throws IOException {
+		buf.clear();
+		if (array instanceof double[][] rows) {
+			for (double[] row : rows) {
+				putDoubles(row, sink, buf, progress);
+			}
+		} else if (array instanceof long[] values) {
+			for (int i = 0; i < values.length;) {
+				int n = Math.min(values.length - i, buf.remaining() / Long.BYTES);
+				if (n == 0) {
+					flush(sink, buf, progress);
+					continue;
+				}
+				buf.asLongBuffer().put(values, i, n);
+				buf.position(buf.position() + n * Long.BYTES);
+				i += n;
+			}
+		} else {
+			putDoubles((double[]) array, sink, buf, progress);
+		}
+		flush(sink, buf, progress);
+	}
+
+	private static void putDoubles(double[] values, Object sink, ByteBuffer buf, Progress progress)
+			throws IOException {
+		for (int i = 0; i < values.length;) {
+			int n = Math.min(values.length - i, buf.remaining() / Double.BYTES);
+			if (n == 0) {
+				flush(sink, buf, progress);
+				continue;
+			}
+			buf.asDoubleBuffer().put(values, i, n);
+			buf.position(buf.position() + n * Double.BYTES);
+			i += n;
+		}
+	}
+
+	/** Write out the staged values, then report them and check for cancellation. */
+	private static void flush(Object sink, ByteBuffer buf, Progress progress) throws IOException {
+		// every column is 8 bytes per value
+		long values = buf.position() / 8;
+		if (sink instanceof FileChannel ch) {
+			drain(ch, buf);
+		} else {
+			buf.flip();
+			byte[] bytes = new byte[buf.remaining()];
+			buf.get(bytes);
+			((OutputStream) sink).write(bytes);
+			buf.clear();
+		}
+		progress.add(values);
+	}
+
+	private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+		buf.flip();
+		writeFully(ch, buf);
+		buf.clear();
+	}
+
+	private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+		while (buf.hasRemaining()) {
+			ch.write(buf);
+		}
+	}
+
+	/** Zero-fill to the next 8-byte boundary so mapped blocks are aligned. */
+	private static void pad(FileChannel ch, ByteBuffer buf) throws IOException {
+		int gap = (int) ((8 - (ch.position() & 7)) & 7);
+		if (gap > 0) {
+			buf.clear();
+			buf.put(new byte[gap]);
+			drain(ch, buf);
+		}
+	}
+
+	// ---------------------------
+	// Reading
+	// ---------------------------
+
+	/**
+	 * Read a spec, filling its arrays from the column blocks.
+	 *
+	 * @param file a binary plot file
+	 * @return the spec
+	 * @throws IOException if the file is not a valid binary plot file
+	 */
+	public static PlotSpec read(File file) throws IOException {
+		Objects.requireNonNull(file, "file");
+		try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = ch.size();
+			if (size < MAGIC.length + 4 + TRAILER) {
+				throw new IOException("Not a binary plot file: " + file.getName());
+			}
+			ByteBuffer head = readAt(ch, 0, MAGIC.length + 4);
+			byte[] magic = new byte[MAGIC.length];
+			head.get(magic);
+			if (!Arrays.equals(magic, MAGIC)) {
+				throw new IOException("Not a binary plot file: " + file.getName());
+			}
+			int version = head.getInt();
+			if (version > VERSION) {
+				throw new IOException("Unsupported binary plot version " + version + " in " + file.getName());
+			}
+
+			ByteBuffer trailer = readAt(ch, size - TRAILER, TRAILER);
+			long headerOffset = trailer.getLong();
+			int headerLength = trailer.getInt();
+			trailer.get(magic);
+			if (!Arrays.equals(magic, END_MAGIC) || headerOffset < 0 || headerOffset + headerLength > size - TRAILER) {
+				throw new IOException("Truncated binary plot file: " + file.getName());
+			}
+			ByteBuffer json = readAt(ch, headerOffset, headerLength);
+			Header header = GSON.fromJson(StandardCharsets.UTF_8.decode(json).toString(), Header.class);
+			if (header == null || header.spec == null) {
+				throw new IOException("Missing plot header in " + file.getName());
+			}
+
+			for (Column c : header.columns) {
+				if (c.offset < 0 || c.offset + c.stored > headerOffset) {
+					throw new IOException("Column " + c.name + " lies outside the data region.");
+				}
+				attach(header.spec, c, readValues(ch, c));
+			}
+			return header.spec;
+		}
+	}
+
+	private static ByteBuffer readAt(FileChannel ch, long offset, int length) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buf.hasRemaining()) {
+			if (ch.read(buf, offset + buf.position()) < 0) {
+				throw new IOException("Unexpected end of file.");
+			}
+		}
+		return buf.flip();
+	}
+
+	/** Read a column into a {@code double[]}, {@code long[]} or {@code double[][]}. */
+	private static Object readValues(FileChannel ch, Column c) throws IOException {
+		if (c.count > Integer.MAX_VALUE - 8 || c.count < 0
+				|| (c.matrix && (c.rows < 0 || c.rowLength < 0 || (long) c.rows * c.rowLength != c.count))) {
+			throw new IOException("Column " + c.name + " has an invalid shape.");
+		}
+		int count = (int) c.count;
+		Object out = (c.type == Type.LONG) ? new long[count]
+				: c.matrix ? new double[c.rows][c.rowLength] : new double[count];
+
+		if (c.codec == Compression.DEFLATE) {
+			ch.position(c.offset);
+			Inflater inflater = new Inflater();
+			try {
+				InputStream in = new InflaterInputStream(Channels.newInputStream(ch), inflater, IO_CHUNK);
+				byte[] chunk = new byte[IO_CHUNK];
+				ByteBuffer view = ByteBuffer.wrap(chunk).order(ByteOrder.LITTLE_ENDIAN);
+				long need = c.count * 8;
+				long done = 0;
+				while (done < need) {
+					int n = in.readNBytes(chunk, 0, (int) Math.min(IO_CHUNK, need - done));
+					if (n <= 0 || (n & 7) != 0) {
+						throw new IOException("Corrupt compressed column " + c.name);
+					}
+					view.clear().limit(n);
+					copy(view, out, (int) (done / 8), n / 8, c.rowLength);
+					done += n;
+				}
+			} finally {
+				inflater.end();
+			}
+		} else {
+			if (c.stored != c.count * 8) {
+				throw new IOException("Column " + c.name + " has the wrong size.");
+			}
+			for (long done = 0; done < c.stored;) {
+				long len = Math.min(c.stored - done, Integer.MAX_VALUE & ~7);
+				MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, c.offset + done, len);
+				map.order(ByteOrder.LITTLE_ENDIAN);
+				copy(map, out, (int) (done / 8), (int) (len / 8), c.rowLength);
+				done += len;
+			}
+		}
+		return out;
+	}
+
+	/** Copy {@code n} values from {@code src} into {@code out} starting at element {@code at}. */
+	private static void copy(ByteBuffer src, Object out, int at, int n, int rowLength) {
+		if (out instanceof long[] l) {
+			src.asLongBuffer().get(l, at, n);
+		} else if (out instanceof double[] d) {
+			src.asDoubleBuffer().get(d, at, n);
+		} else {
+			double[][] rows = (double[][]) out;
+			var values = src.asDoubleBuffer();
+			int end = at + n;
+			for (int i = at; i < end;) {
+				int row = i / rowLength;
+				int col = i % rowLength;
+				int k = Math.min(rowLength - col, end - i);
+				values.get(rows[row], col, k);
+				i += k;
+			}
+		}
+	}
+
+	/** Put a column's array back in its place in the spec. */
+	private static void attach(PlotSpec spec, Column c, Object array) throws IOException {
+		String[] parts = c.name.split("/");
+		try {
+			if (parts[0].equals("histo2d") && spec.histo2d != null) {
+				spec.histo2d.bins = (double[][]) array;
+				return;
+			}
+			if (parts[0].equals("curve")) {
+				CurveSpec cs = spec.curves.get(Integer.parseInt(parts[1]));
+				switch (parts[2]) {
+				case "x" -> cs.x = (double[]) array;
+				case "y" -> cs.y = (double[]) array;
+				case "e" -> cs.e = (double[]) array;
+				case "histo" -> {
+					if (parts[3].equals("grid")) {
+						cs.histo.grid = (double[]) array;
+					} else {
+						cs.histo.counts = (long[]) array;
+					}
+				}
+				case "histo2d" -> cs.histo2d.bins = (double[][]) array;
+				default -> throw new IOException("Unknown column " + c.name);
+				}
+				return;
+			}
+		} catch (RuntimeException e) {
+			throw new IOException("Column " + c.name + " does not fit the plot header.", e);
+		}
+		throw new IOException("Unknown column " + c.name);
+	}
+}
@@ -5,12 +5,13 @@ import java.io.File;
 import javax.swing.filechooser.FileFilter;
 
 /**
- * File filter for persisted splot plot-spec JSON files.
+ * File filter for persisted splot plot files.
  * <p>
  * Suggested extensions:
  * <ul>
  *   <li>.plot.json (preferred)</li>
  *   <li>.splot.json (accepted)</li>
+ *   <li>.plot.bin (binary, see {@link PlotBinaryFormat})</li>
  * </ul>
  */
 public final class PlotFileFilter extends FileFilter {
@@ -21,6 +22,22 @@ public final class PlotFileFilter extends FileFilter {
     /** Alternate accepted extension (including leading dot). */
     public static final String EXT_ALT = ".splot.json";
 
+    /** Binary plot extension (including leading dot). */
+    public static final String EXT_BINARY = ".plot.bin";
+
+    /** Chooser filter for binary plot files only, for "save as binary". */
+    public static final FileFilter BINARY = new FileFilter() {
+        @Override
+        public boolean accept(File f) {
+            return f != null && (f.isDirectory() || isBinaryPlotFile(f));
+        }
+
+        @Override
+        public String getDescription() {
+            return "SPlot binary plot files (*" + EXT_BINARY + ")";
+        }
+    };
+
     @Override
     public boolean accept(File f) {
         if (f == null) {
@@ -30,13 +47,12 @@ public final class PlotFileFilter extends FileFilter {
 			return true;
 		}
 
-        String name = f.getName().toLowerCase();
-        return name.endsWith(EXT_PREFERRED) || name.endsWith(EXT_ALT);
+        return isPlotFile(f);
     }
 
     @Override
     public String getDescription() {
-        return "SPlot plot files (*" + EXT_PREFERRED + ", *" + EXT_ALT + ")";
+        return "SPlot plot files (*" + EXT_PREFERRED + ", *" + EXT_ALT + ", *" + EXT_BINARY + ")";
     }
 
     /** Returns true if the file name matches a supported plot extension. */
@@ -45,7 +61,12 @@ public final class PlotFileFilter extends FileFilter {
 			return false;
 		}
         String name = f.getName().toLowerCase();
-        return name.endsWith(EXT_PREFERRED) || name.endsWith(EXT_ALT);
+        return name.endsWith(EXT_PREFERRED) || name.endsWith(EXT_ALT) || name.endsWith(EXT_BINARY);
+    }
+
+    /** Returns true if the file name has the binary plot extension. */
+    public static boolean isBinaryPlotFile(File f) {
+        return f != null && f.getName().toLowerCase().endsWith(EXT_BINARY);
     }
 
     /**
@@ -61,4 +82,15 @@ public final class PlotFileFilter extends FileFilter {
 		}
         return new File(f.getParentFile(), f.getName() + EXT_PREFERRED);
     }
+
+    /**
+     * Like {@link #ensurePlotExtension(File)}, but when {@code binary} is true
+     * a file without the binary extension gets {@link #EXT_BINARY} appended.
+     */
+    public static File ensurePlotExtension(File f, boolean binary) {
+        if (!binary || f == null || isBinaryPlotFile(f)) {
+            return ensurePlotExtension(f);
+        }
+        return new File(f.getParentFile(), f.getName() + EXT_BINARY);
+    }
 }
@@ -1,19 +1,28 @@
 package edu.cnu.mdi.splot.io;
 
 import java.awt.Color;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.DoubleConsumer;
 
 import javax.swing.SwingUtilities;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 import edu.cnu.mdi.graphics.style.IStyled;
 import edu.cnu.mdi.splot.fit.CurveDrawingMethod;
@@ -31,7 +40,26 @@ import edu.cnu.mdi.splot.plot.PlotParameters;
 import edu.cnu.mdi.ui.colors.ScientificColorMap;
 
 /**
- * Read/write PlotSpec JSON files.
+ * Read/write plot files.
+ * <p>
+ * Two formats are supported: pretty-printed PlotSpec JSON, and the compact
+ * {@link PlotBinaryFormat} for plots with large data arrays. {@link #save}
+ * picks the format from the file extension; loading recognizes the format
+ * from the file contents.
+ * </p>
+ * <p>
+ * JSON is streamed ({@link PlotJsonStream}) in both directions rather than
+ * built as one string, and the overloads taking a {@link DoubleConsumer}
+ * report progress so that views can run them on a background thread.
+ * </p>
+ * <p>
+ * Files are read into primitive arrays, but a loaded canvas keeps its curve
+ * data in {@link edu.cnu.mdi.splot.pdata.DataColumn}s, which are lists of
+ * boxed {@code Double}s. Building the canvas appends each array in one pass
+ * ({@link Curve#addAll(double[], double[])}), yet still boxes every value
+ * on the EDT, so a loaded plot takes about 20 bytes per value in memory
+ * against 8 in a binary file.
+ * </p>
  */
 public final class PlotIO {
 
@@ -40,23 +68,113 @@ public final class PlotIO {
 
 	private static final Gson GSON = new GsonBuilder().setPrettyPrinting().serializeNulls().create();
 
-	/** Save a plot canvas to JSON. Safe to call from any thread. */
+	/**
+	 * Save a plot canvas. Files named with {@link PlotFileFilter#EXT_BINARY}
+	 * are written in the uncompressed binary format, all others as JSON. Safe
+	 * to call from any thread.
+	 */
 	public static void save(PlotCanvas canvas, File file) throws IOException {
+		save(canvas, file, null);
+	}
+
+	/**
+	 * Save a plot canvas, reporting progress. JSON is streamed straight from
+	 * the curve storage ({@link PlotJsonStream}) into a temporary file that
+	 * replaces {@code file} only once it is complete, so a failed or
+	 * interrupted save leaves any previous file intact. A binary file is
+	 * written by {@link PlotBinaryFormat} in the same way, reporting progress
+	 * block by block. Meant to be run off the EDT; interrupting the calling
+	 * thread cancels the save.
+	 *
+	 * @param progress receives the fraction written, on the calling thread; may
+	 *                 be {@code null}
+	 */
+	public static void save(PlotCanvas canvas, File file, DoubleConsumer progress) throws IOException {
 		Objects.requireNonNull(canvas, "canvas");
 		Objects.requireNonNull(file, "file");
 
-		PlotSpec spec = toSpec(canvas);
+		if (PlotFileFilter.isBinaryPlotFile(file)) {
+			PlotBinaryFormat.write(toSpec(canvas), file, PlotBinaryFormat.Compression.NONE, progress);
+			return;
+		}
+
+		PlotData data = canvas.getPlotData();
+		List<ACurve> curves = (data.getType() == PlotDataType.H2D) ? List.of() : List.copyOf(data.getCurves());
+		PlotSpec spec = toSpec(canvas, curves, false);
 
-		try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))) {
-			bw.write(GSON.toJson(spec));
+		Path target = file.toPath().toAbsolutePath();
+		Path tmp = tempSibling(target);
+		try {
+			try (JsonWriter jw = new JsonWriter(Files.newBufferedWriter(tmp, StandardCharsets.UTF_8))) {
+				jw.setIndent("  ");
+				jw.setSerializeNulls(true);
+				PlotJsonStream.write(GSON, jw, spec, curves, progress);
+			}
+			replace(tmp, target);
+		} finally {
+			Files.deleteIfExists(tmp);
 		}
 	}
 
-	/** Load a PlotSpec JSON file. */
+	/** The hidden temporary file a save of {@code target} is written to. */
+	static Path tempSibling(Path target) {
+		return target.resolveSibling("." + target.getFileName() + ".tmp");
+	}
+
+	/** Move a completed temporary file over the target, atomically if possible. */
+	static void replace(Path tmp, Path target) throws IOException {
+		try {
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Save a plot canvas in the binary format, whatever the file name. Like a
+	 * JSON save, the file is replaced only once it is complete, and
+	 * interrupting the calling thread cancels the save. Safe to call from any
+	 * thread.
+	 *
+	 * @param compression block codec; {@code null} for none
+	 */
+	public static void saveBinary(PlotCanvas canvas, File file, PlotBinaryFormat.Compression compression)
+			throws IOException {
+		Objects.requireNonNull(canvas, "canvas");
+		Objects.requireNonNull(file, "file");
+		PlotBinaryFormat.write(toSpec(canvas), file, compression);
+	}
+
+	/** Load a PlotSpec from a JSON or binary plot file. */
 	public static PlotSpec loadSpec(File file) throws IOException {
+		return loadSpec(file, null);
+	}
+
+	/**
+	 * Load a PlotSpec, reporting progress. JSON is read token by token into
+	 * primitive arrays; progress is the fraction of the file consumed.
+	 * Interrupting the calling thread cancels the load.
+	 *
+	 * @param progress receives the fraction read, on the calling thread; may be
+	 *                 {@code null}
+	 */
+	public static PlotSpec loadSpec(File file, DoubleConsumer progress) throws IOException {
 		Objects.requireNonNull(file, "file");
-		try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-			return GSON.fromJson(br, PlotSpec.class);
+		if (PlotBinaryFormat.isBinary(file)) {
+			PlotSpec spec = PlotBinaryFormat.read(file);
+			if (progress != null) {
+				progress.accept(1.0);
+			}
+			return spec;
+		}
+		InputStream in = new FileInputStream(file);
+		if (progress != null) {
+			in = new ProgressInputStream(in, file.length(), progress);
+		}
+		try (JsonReader jr = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			return PlotJsonStream.read(GSON, jr);
+		} catch (IllegalStateException | NumberFormatException e) {
+			throw new IOException("Malformed plot file: " + e.getMessage(), e);
 		}
 	}
 
@@ -68,7 +186,18 @@ public final class PlotIO {
 	 * </p>
 	 */
 	public static PlotCanvas loadCanvas(File file) throws IOException, PlotDataException {
-		PlotSpec spec = loadSpec(file);
+		return loadCanvas(file, null);
+	}
+
+	/**
+	 * Load a plot file with progress and build a fresh PlotCanvas. Reading
+	 * happens on the calling thread, which should not be the EDT for large
+	 * files; only the canvas construction is moved onto the EDT.
+	 *
+	 * @param progress receives the fraction read; may be {@code null}
+	 */
+	public static PlotCanvas loadCanvas(File file, DoubleConsumer progress) throws IOException, PlotDataException {
+		PlotSpec spec = loadSpec(file, progress);
 
 		final PlotCanvas[] out = new PlotCanvas[1];
 		final Exception[] err = new Exception[1];
@@ -119,6 +248,15 @@ public final class PlotIO {
 	// ---------------------------
 
 	private static PlotSpec toSpec(PlotCanvas canvas) {
+		return toSpec(canvas, canvas.getPlotData().getCurves(), true);
+	}
+
+	/**
+	 * @param curves the curves to describe
+	 * @param xyData whether to copy the data of XY curves into the spec; the
+	 *               streaming writer reads it from the curves instead
+	 */
+	private static PlotSpec toSpec(PlotCanvas canvas, List<ACurve> curves, boolean xyData) {
 		PlotSpec spec = new PlotSpec();
 
 		PlotData data = canvas.getPlotData();
@@ -133,8 +271,8 @@ public final class PlotIO {
 				spec.histo2d = fromHisto2D(h2d);
 			}
 		} else {
-			for (ACurve c : data.getCurves()) {
-				spec.curves.add(fromCurve(c, data.getType()));
+			for (ACurve c : curves) {
+				spec.curves.add(fromCurve(c, xyData));
 			}
 		}
 
@@ -234,7 +372,7 @@ public final class PlotIO {
 		return s;
 	}
 
-	private static CurveSpec fromCurve(ACurve curve, PlotDataType type) {
+	private static CurveSpec fromCurve(ACurve curve, boolean xyData) {
 		CurveSpec cs = new CurveSpec();
 		cs.name = curve.name();
 		cs.visible = curve.isVisible();
@@ -282,6 +420,9 @@ public final class PlotIO {
 			// not a heatmap curve
 		}
 		if (curve instanceof Curve xy) {
+			if (!xyData) {
+				return cs;
+			}
 			Snapshot snap = xy.snapshot();
 			cs.x = snap.x;
 			cs.y = snap.y;
@@ -600,6 +741,50 @@ public final class PlotIO {
 		}
 	}
 
+	/** Reports the fraction of a known length read, at most once per percent. */
+	private static final class ProgressInputStream extends FilterInputStream {
+		private final double length;
+		private final DoubleConsumer progress;
+		private long read;
+		private int percent = -1;
+
+		ProgressInputStream(InputStream in, long length, DoubleConsumer progress) {
+			super(in);
+			this.length = Math.max(1, length);
+			this.progress = progress;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				advance(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				advance(n);
+			}
+			return n;
+		}
+
+		private void advance(int n) throws InterruptedIOException {
+			read += n;
+			int p = (int) Math.min(100, 100 * read / length);
+			if (p != percent) {
+				percent = p;
+				progress.accept(p / 100.0);
+			}
+			if (Thread.currentThread().isInterrupted()) {
+				throw new InterruptedIOException("Plot load cancelled.");
+			}
+		}
+	}
+
 	private static void tryInvoke(Object target, String methodName, Class<?>[] sig, Object arg) {
 		try {
 			var m = target.getClass().getMethod(methodName, sig);
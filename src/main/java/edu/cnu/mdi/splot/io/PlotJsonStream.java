@@ -0,0 +1,409 @@
+package edu.cnu.mdi.splot.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import edu.cnu.mdi.splot.fit.CurveDrawingMethod;
+import edu.cnu.mdi.splot.pdata.ACurve;
+import edu.cnu.mdi.splot.pdata.Curve;
+import edu.cnu.mdi.splot.pdata.PlotDataType;
+
+/**
+ * Streaming reader and writer for the PlotSpec JSON format.
+ * <p>
+ * The document has exactly the shape Gson gives a {@link PlotSpec}, so files
+ * stay interchangeable with older versions, but neither direction builds the
+ * whole document in memory. The writer takes XY data from the live curves one
+ * column at a time, in chunks of {@value #CHUNK} points
+ * ({@link Curve#copyRange}), and emits each value as it goes; the reader fills
+ * primitive arrays straight from the token stream. Small objects (parameters, styles, enums) still go through Gson's
+ * own adapters.
+ * </p>
+ * <p>
+ * Both directions check the thread's interrupt flag between chunks and stop
+ * with an {@link InterruptedIOException}, so a background save or load can be
+ * cancelled.
+ * </p>
+ */
+final class PlotJsonStream {
+
+	/** Points copied out of a curve at a time. */
+	static final int CHUNK = 64 * 1024;
+
+	private PlotJsonStream() {
+	}
+
+	// ---------------------------
+	// Writing
+	// ---------------------------
+
+	/** Progress in units of values written. */
+	private static final class Progress {
+		private final DoubleConsumer sink;
+		private final double total;
+		private long done;
+
+		Progress(DoubleConsumer sink, long total) {
+			this.sink = sink;
+			this.total = Math.max(1, total);
+		}
+
+		void add(long n) throws InterruptedIOException {
+			done += n;
+			if (sink != null) {
+				sink.accept(Math.min(1.0, done / total));
+			}
+			if (Thread.currentThread().isInterrupted()) {
+				throw new InterruptedIOException("Plot save cancelled.");
+			}
+		}
+	}
+
+	/**
+	 * Write a plot.
+	 *
+	 * @param gson     Gson used for the small objects
+	 * @param out      destination; left open
+	 * @param spec     the plot metadata: everything except XY curve data, which
+	 *                 is taken from {@code curves}
+	 * @param curves   live curves, parallel to {@code spec.curves}; may be
+	 *                 {@code null} for a spec that carries its own data
+	 * @param progress receives the fraction written, or {@code null}
+	 * @throws IOException on write failure or interruption
+	 */
+	static void write(Gson gson, JsonWriter out, PlotSpec spec, List<ACurve> curves,
+			DoubleConsumer progress) throws IOException {
+		long total = 0;
+		for (int i = 0; i < spec.curves.size(); i++) {
+			CurveSpec cs = spec.curves.get(i);
+			if (curves != null && curves.get(i) instanceof Curve xy) {
+				total += ((xy.eData() != null) ? 3L : 2L) * xy.length();
+			} else {
+				total += length(cs.x) + length(cs.y) + length(cs.e);
+			}
+		}
+		if (spec.histo2d != null) {
+			total += (long) spec.histo2d.nx * spec.histo2d.ny;
+		}
+		Progress p = new Progress(progress, total);
+
+		out.beginObject();
+		out.name("formatVersion").value(spec.formatVersion);
+		out.name("plotDataType");
+		gson.toJson(spec.plotDataType, PlotDataType.class, out);
+		out.name("parameters");
+		gson.toJson(spec.parameters, PlotParametersSpec.class, out);
+		out.name("histo2d");
+		writeHisto2D(gson, out, spec.histo2d, p);
+
+		out.name("curves").beginArray();
+		for (int i = 0; i < spec.curves.size(); i++) {
+			CurveSpec cs = spec.curves.get(i);
+			ACurve live = (curves == null) ? null : curves.get(i);
+			out.beginObject();
+			out.name("name");
+			gson.toJson(cs.name, String.class, out);
+			out.name("visible").value(cs.visible);
+			out.name("drawingMethod");
+			gson.toJson(cs.drawingMethod, CurveDrawingMethod.class, out);
+			out.name("fitOrder").value(cs.fitOrder);
+			out.name("style");
+			gson.toJson(cs.style, StyleSpec.class, out);
+			if (live instanceof Curve xy) {
+				writeCurveData(out, xy, p);
+			} else {
+				out.name("x");
+				writeDoubles(out, cs.x, p);
+				out.name("y");
+				writeDoubles(out, cs.y, p);
+				out.name("e");
+				writeDoubles(out, cs.e, p);
+			}
+			out.name("histo");
+			gson.toJson(cs.histo, HistoSpec.class, out);
+			out.name("histo2d");
+			writeHisto2D(gson, out, cs.histo2d, p);
+			out.endObject();
+		}
+		out.endArray();
+		out.endObject();
+		out.flush();
+	}
+
+	private static int length(double[] a) {
+		return (a == null) ? 0 : a.length;
+	}
+
+	/**
+	 * Write x, y and e of a live curve, one column and one chunk at a time.
+	 * The point count is fixed when the curve is reached, so points appended
+	 * meanwhile are left out; a curve that shrinks while its columns are being
+	 * written fails the save rather than leaving columns of unequal length.
+	 */
+	private static void writeCurveData(JsonWriter out, Curve curve, Progress p) throws IOException {
+		int n = curve.length();
+		boolean errors = curve.eData() != null;
+		double[] values = new double[Math.min(CHUNK, Math.max(1, n))];
+
+		for (int column = 0; column < 3; column++) {
+			out.name(column == 0 ? "x" : column == 1 ? "y" : "e");
+			if (column == 2 && !errors) {
+				out.nullValue();
+				continue;
+			}
+			out.beginArray();
+			for (int from = 0; from < n;) {
+				int got = curve.copyRange(from, (column == 0) ? values : null, (column == 1) ? values : null,
+						(column == 2) ? values : null);
+				if (got == 0) {
+					throw new IOException("Curve \"" + curve.name() + "\" lost points while it was being saved.");
+				}
+				got = Math.min(got, n - from);
+				for (int i = 0; i < got; i++) {
+					out.value(values[i]);
+				}
+				from += got;
+				p.add(got);
+			}
+			out.endArray();
+		}
+	}
+
+	private static void writeDoubles(JsonWriter out, double[] values, Progress p) throws IOException {
+		if (values == null) {
+			out.nullValue();
+			return;
+		}
+		out.beginArray();
+		for (int i = 0; i < values.length; i++) {
+			out.value(values[i]);
+			if ((i + 1) % CHUNK == 0) {
+				p.add(CHUNK);
+			}
+		}
+		p.add(values.length % CHUNK);
+		out.endArray();
+	}
+
+	private static void writeHisto2D(Gson gson, JsonWriter out, Histo2DSpec h, Progress p) throws IOException {
+		if (h == null) {
+			out.nullValue();
+			return;
+		}
+		out.beginObject();
+		out.name("name");
+		gson.toJson(h.name, String.class, out);
+		out.name("nx").value(h.nx);
+		out.name("ny").value(h.ny);
+		out.name("xmin").value(h.xmin);
+		out.name("xmax").value(h.xmax);
+		out.name("ymin").value(h.ymin);
+		out.name("ymax").value(h.ymax);
+		out.name("bins");
+		if (h.bins == null) {
+			out.nullValue();
+		} else {
+			out.beginArray();
+			for (double[] row : h.bins) {
+				writeDoubles(out, row, p);
+			}
+			out.endArray();
+		}
+		out.name("goodCount").value(h.goodCount);
+		out.name("xUnderCount").value(h.xUnderCount);
+		out.name("xOverCount").value(h.xOverCount);
+		out.name("yUnderCount").value(h.yUnderCount);
+		out.name("yOverCount").value(h.yOverCount);
+		out.name("xUnder_yUnder").value(h.xUnder_yUnder);
+		out.name("xUnder_yOver").value(h.xUnder_yOver);
+		out.name("xOver_yUnder").value(h.xOver_yUnder);
+		out.name("xOver_yOver").value(h.xOver_yOver);
+		out.endObject();
+	}
+
+	// ---------------------------
+	// Reading
+	// ---------------------------
+
+	/**
+	 * Read a plot spec.
+	 *
+	 * @param gson Gson used for the small objects
+	 * @param in   source; left open
+	 * @return the spec
+	 * @throws IOException on malformed input or interruption
+	 */
+	static PlotSpec read(Gson gson, JsonReader in) throws IOException {
+		PlotSpec spec = new PlotSpec();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "formatVersion" -> spec.formatVersion = in.nextInt();
+			case "plotDataType" -> spec.plotDataType = gson.fromJson(in, PlotDataType.class);
+			case "parameters" -> spec.parameters = gson.fromJson(in, PlotParametersSpec.class);
+			case "histo2d" -> spec.histo2d = readHisto2D(gson, in);
+			case "curves" -> {
+				spec.curves.clear();
+				if (in.peek() == JsonToken.NULL) {
+					in.nextNull();
+				} else {
+					in.beginArray();
+					while (in.hasNext()) {
+						spec.curves.add(readCurve(gson, in));
+					}
+					in.endArray();
+				}
+			}
+			default -> in.skipValue();
+			}
+		}
+		in.endObject();
+		return spec;
+	}
+
+	private static CurveSpec readCurve(Gson gson, JsonReader in) throws IOException {
+		CurveSpec cs = new CurveSpec();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "name" -> cs.name = gson.fromJson(in, String.class);
+			case "visible" -> cs.visible = in.nextBoolean();
+			case "drawingMethod" -> cs.drawingMethod = gson.fromJson(in, CurveDrawingMethod.class);
+			case "fitOrder" -> cs.fitOrder = in.nextInt();
+			case "style" -> cs.style = gson.fromJson(in, StyleSpec.class);
+			case "x" -> cs.x = readDoubles(in);
+			case "y" -> cs.y = readDoubles(in);
+			case "e" -> cs.e = readDoubles(in);
+			case "histo" -> cs.histo = readHisto(in);
+			case "histo2d" -> cs.histo2d = readHisto2D(gson, in);
+			default -> in.skipValue();
+			}
+		}
+		in.endObject();
+		return cs;
+	}
+
+	private static HistoSpec readHisto(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		HistoSpec h = new HistoSpec();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "grid" -> h.grid = readDoubles(in);
+			case "counts" -> h.counts = readLongs(in);
+			case "underCount" -> h.underCount = in.nextLong();
+			case "overCount" -> h.overCount = in.nextLong();
+			default -> in.skipValue();
+			}
+		}
+		in.endObject();
+		return h;
+	}
+
+	private static Histo2DSpec readHisto2D(Gson gson, JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		Histo2DSpec h = new Histo2DSpec();
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "name" -> h.name = gson.fromJson(in, String.class);
+			case "nx" -> h.nx = in.nextInt();
+			case "ny" -> h.ny = in.nextInt();
+			case "xmin" -> h.xmin = in.nextDouble();
+			case "xmax" -> h.xmax = in.nextDouble();
+			case "ymin" -> h.ymin = in.nextDouble();
+			case "ymax" -> h.ymax = in.nextDouble();
+			case "bins" -> h.bins = readMatrix(in);
+			case "goodCount" -> h.goodCount = in.nextLong();
+			case "xUnderCount" -> h.xUnderCount = in.nextLong();
+			case "xOverCount" -> h.xOverCount = in.nextLong();
+			case "yUnderCount" -> h.yUnderCount = in.nextLong();
+			case "yOverCount" -> h.yOverCount = in.nextLong();
+			case "xUnder_yUnder" -> h.xUnder_yUnder = in.nextLong();
+			case "xUnder_yOver" -> h.xUnder_yOver = in.nextLong();
+			case "xOver_yUnder" -> h.xOver_yUnder = in.nextLong();
+			case "xOver_yOver" -> h.xOver_yOver = in.nextLong();
+			default -> in.skipValue();
+			}
+		}
+		in.endObject();
+		return h;
+	}
+
+	/** Read a number array into a primitive array, or {@code null}. */
+	static double[] readDoubles(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		double[] a = new double[16];
+		int n = 0;
+		in.beginArray();
+		while (in.hasNext()) {
+			if (n == a.length) {
+				a = Arrays.copyOf(a, 2 * n);
+				checkInterrupt();
+			}
+			a[n++] = in.nextDouble();
+		}
+		in.endArray();
+		return Arrays.copyOf(a, n);
+	}
+
+	private static long[] readLongs(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		long[] a = new long[16];
+		int n = 0;
+		in.beginArray();
+		while (in.hasNext()) {
+			if (n == a.length) {
+				a = Arrays.copyOf(a, 2 * n);
+				checkInterrupt();
+			}
+			a[n++] = in.nextLong();
+		}
+		in.endArray();
+		return Arrays.copyOf(a, n);
+	}
+
+	private static double[][] readMatrix(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		double[][] rows = new double[16][];
+		int n = 0;
+		in.beginArray();
+		while (in.hasNext()) {
+			if (n == rows.length) {
+				rows = Arrays.copyOf(rows, 2 * n);
+			}
+			rows[n++] = readDoubles(in);
+		}
+		in.endArray();
+		return Arrays.copyOf(rows, n);
+	}
+
+	private static void checkInterrupt() throws InterruptedIOException {
+		if (Thread.currentThread().isInterrupted()) {
+			throw new InterruptedIOException("Plot load cancelled.");
+		}
+	}
+}
@@ -10,7 +10,10 @@ import java.util.prefs.Preferences;
 /**
  * Simple "recent files" manager backed by {@link Preferences}.
  * <p>
- * Stores absolute paths, MRU order, with a fixed maximum size.
+ * Stores absolute paths, MRU order, with a fixed maximum size. Entries are
+ * not filtered by extension, so JSON and binary plot files (see
+ * {@link PlotFileFilter}) are tracked alike; {@link PlotIO#loadSpec} tells
+ * the formats apart by content.
  */
 public final class RecentPlotFiles {
 
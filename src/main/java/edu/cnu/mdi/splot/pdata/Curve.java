@@ -2,6 +2,7 @@ package edu.cnu.mdi.splot.pdata;
 
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -287,12 +288,10 @@ public class Curve extends ACurve {
 		}
 
 		synchronized (lock) {
-			for (int i = 0; i < x.length; i++) {
-				xData.add(x[i]);
-				yData.add(y[i]);
-				if (eData != null) {
-					eData.add(0.0);
-				}
+			xData.addAll(x);
+			yData.addAll(y);
+			if (eData != null) {
+				eData.addAll(Collections.nCopies(x.length, 0.0));
 			}
 		}
 		markDataChanged(); // EDT-only
@@ -330,11 +329,9 @@ public class Curve extends ACurve {
 		}
 
 		synchronized (lock) {
-			for (int i = 0; i < x.length; i++) {
-				xData.add(x[i]);
-				yData.add(y[i]);
-				eData.add(ey[i]);
-			}
+			xData.addAll(x);
+			yData.addAll(y);
+			eData.addAll(ey);
 		}
 		markDataChanged(); // EDT-only
 	}
@@ -405,6 +402,45 @@ public class Curve extends ACurve {
 		}
 	}
 
+	/**
+	 * Copy a window of points into caller-owned arrays.
+	 * <p>
+	 * Unlike {@link #snapshot()} this never copies the whole curve, so a writer
+	 * can walk a large curve in fixed-size chunks, holding the lock only for
+	 * one chunk at a time. Any of the arrays may be {@code null} to skip that
+	 * column. Safe to call from any thread.
+	 * </p>
+	 *
+	 * @param from first point index
+	 * @param x    receives x values, or {@code null}
+	 * @param y    receives y values, or {@code null}
+	 * @param e    receives y errors, or {@code null}; left untouched if this
+	 *             curve has no error column
+	 * @return the number of points copied, less than the window size (the
+	 *         length of the first non-null array) only at the end of the data
+	 */
+	public int copyRange(int from, double[] x, double[] y, double[] e) {
+		int window = (x != null) ? x.length : (y != null) ? y.length : (e != null) ? e.length : 0;
+		synchronized (lock) {
+			int n = Math.max(0, Math.min(window, xData.size() - from));
+			for (int i = 0; i < n; i++) {
+				if (x != null) {
+					Double xv = xData.get(from + i);
+					x[i] = (xv == null) ? Double.NaN : xv;
+				}
+				if (y != null) {
+					Double yv = yData.get(from + i);
+					y[i] = (yv == null) ? Double.NaN : yv;
+				}
+				if (e != null && eData != null) {
+					Double ev = eData.get(from + i);
+					e[i] = (ev == null) ? Double.NaN : ev;
+				}
+			}
+			return n;
+		}
+	}
+
 	@Override
 	public double xMin() {
 		return xData == null ? Double.NaN : xData.getMin();
@@ -54,6 +54,7 @@ public class DataList extends ArrayList<Double> {
 
 	@Override
 	public boolean addAll(Collection<? extends Double> c) {
+		ensureCapacity(size() + c.size());
 		boolean changed = false;
 		for (Double d : c) {
 			changed |= add(d);
@@ -61,6 +62,30 @@ public class DataList extends ArrayList<Double> {
 		return changed;
 	}
 
+	/**
+	 * Append primitive values in one pass: the backing array grows once and
+	 * min/max are tracked in the same loop. Each value is still boxed, since
+	 * the list stores {@code Double}s.
+	 *
+	 * @param values the values to append
+	 */
+	public void addAll(double[] values) {
+		ensureCapacity(size() + values.length);
+		double lo = min;
+		double hi = max;
+		for (double v : values) {
+			if (v < lo) {
+				lo = v;
+			}
+			if (v > hi) {
+				hi = v;
+			}
+			super.add(v);
+		}
+		min = lo;
+		max = hi;
+	}
+
 	@Override
 	public Double remove(int index) {
 		Double removed = super.remove(index);
@@ -7,6 +7,7 @@ import java.util.Collection;
 import java.util.Vector;
 
 import edu.cnu.mdi.graphics.GraphicsUtils;
+import edu.cnu.mdi.graphics.PaintProfiler;
 import edu.cnu.mdi.splot.pdata.ACurve;
 import edu.cnu.mdi.splot.pdata.PlotData;
 
@@ -64,13 +65,20 @@ public class DataDrawer {
 		}
 
 		//heatmaps have no curves, treated separately
+		PaintProfiler profiler = _plotCanvas.getPaintProfiler();
 		if (plotData.isHisto2DData()) {
+			long t = profiler.start();
 			HeatmapDrawer.drawHeatmap(g2, _plotCanvas, plotData.getHisto2DData());
+			profiler.section("heatmap", t);
 		} else {
 			Collection<ACurve> curves = plotData.getCurves();
 			for (ACurve curve : curves) {
 				if (curve.isVisible()) {
+					long t = profiler.start();
 					CurveDrawer.drawCurve(g2, _plotCanvas, curve);
+					if (t != 0L) {
+						profiler.section("curve " + curve.name(), t);
+					}
 				}
 			}
 		}
@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.ButtonGroup;
 import javax.swing.JFileChooser;
@@ -17,7 +18,9 @@ import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JRadioButtonMenuItem;
+import javax.swing.ProgressMonitor;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
 import edu.cnu.mdi.splot.io.PlotFileFilter;
 import edu.cnu.mdi.splot.io.PlotIO;
@@ -372,7 +375,8 @@ public class MultiplotPanel extends JPanel {
      * Save the active plot (Save As... behavior).
      * <p>
      * This method shows a {@link JFileChooser} and writes the active {@link PlotCanvas}
-     * via {@link PlotIO#save(PlotCanvas, File)}.
+     * via {@link PlotIO#save(PlotCanvas, File, java.util.function.DoubleConsumer)} on a
+     * background thread, with a progress monitor.
      * </p>
      */
     private void doSaveAsActivePlot() {
@@ -387,6 +391,7 @@ public class MultiplotPanel extends JPanel {
 
         JFileChooser fc = new JFileChooser(getInitialChooserDirectory());
         fc.setFileFilter(new PlotFileFilter());
+        fc.addChoosableFileFilter(PlotFileFilter.BINARY);
         fc.setAcceptAllFileFilterUsed(true);
 
         int res = fc.showSaveDialog(this);
@@ -394,7 +399,8 @@ public class MultiplotPanel extends JPanel {
             return;
         }
 
-        File target = PlotFileFilter.ensurePlotExtension(fc.getSelectedFile());
+        File target = PlotFileFilter.ensurePlotExtension(fc.getSelectedFile(),
+                fc.getFileFilter() == PlotFileFilter.BINARY);
 
         // Confirm overwrite if needed
         if (target.exists()) {
@@ -406,12 +412,43 @@ public class MultiplotPanel extends JPanel {
             }
         }
 
-        try {
-            PlotIO.save(canvas, target);
-            updateEnvironmentDataDirectory(target); // update once, after success
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, ex.getMessage(), "Save Plot Failed", JOptionPane.ERROR_MESSAGE);
-        }
+        // Write on a background thread; the target is only replaced once the
+        // new file is complete, so cancelling is safe.
+        ProgressMonitor monitor = new ProgressMonitor(this, "Saving " + target.getName(), null, 0, 100);
+        new SwingWorker<Void, Integer>() {
+
+            @Override
+            protected Void doInBackground() throws Exception {
+                PlotIO.save(canvas, target, f -> publish((int) Math.round(100 * f)));
+                return null;
+            }
+
+            @Override
+            protected void process(List<Integer> percents) {
+                if (monitor.isCanceled()) {
+                    cancel(true);
+                } else {
+                    monitor.setProgress(percents.get(percents.size() - 1));
+                }
+            }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    get();
+                    updateEnvironmentDataDirectory(target); // update once, after success
+                } catch (Exception ex) {
+                    Throwable cause = (ex instanceof ExecutionException && ex.getCause() != null)
+                            ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(MultiplotPanel.this, cause.getMessage(), "Save Plot Failed",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
     }
 
     private void updateSaveEnabled() {
@@ -18,6 +18,7 @@ import javax.swing.JComponent;
 import javax.swing.Timer;
 import javax.swing.event.EventListenerList;
 
+import edu.cnu.mdi.graphics.PaintProfiler;
 import edu.cnu.mdi.graphics.toolbar.BaseToolBar;
 import edu.cnu.mdi.splot.edit.PlotPreferencesDialog;
 import edu.cnu.mdi.splot.pdata.ACurve;
@@ -159,6 +160,9 @@ public class PlotCanvas extends JComponent implements DataChangeListener {
 	/** Coalescing timer that drives redraws for streaming/DAQ data. */
 	private final Timer _timer;
 
+	/** Paint-time profiler; disabled until turned on from the View menu. */
+	private final PaintProfiler _paintProfiler = new PaintProfiler(this);
+
 	// -----------------------------------------------------------------------
 	// Constructor
 	// -----------------------------------------------------------------------
@@ -637,30 +641,55 @@ public class PlotCanvas extends JComponent implements DataChangeListener {
 			return;
 		}
 
+		_paintProfiler.beginFrame();
+		Graphics2D g2 = (Graphics2D) g;
+
 		Rectangle b = getBounds();
 		g.setColor(getBackground());
 		g.fillRect(0, 0, b.width, b.height);
 
 		setAffineTransforms();
 
-		_dataDrawer.draw((Graphics2D) g, _plotData);
+		long t = _paintProfiler.start();
+		_dataDrawer.draw(g2, _plotData);
+		_paintProfiler.section("data", t);
 
 		g.setColor(Color.black);
 		g.drawRect(_activeBounds.x, _activeBounds.y,
 		           _activeBounds.width, _activeBounds.height);
 
-		_plotTicks.draw((Graphics2D) g);
+		t = _paintProfiler.start();
+		_plotTicks.draw(g2);
+		_paintProfiler.section("ticks", t);
 
 		if (_parameters.isLegendDrawn()) {
-			_legend.draw((Graphics2D) g);
+			t = _paintProfiler.start();
+			_legend.draw(g2);
+			_paintProfiler.section("legend", t);
 		}
 		if (_parameters.extraDrawing()) {
-			_extra.draw((Graphics2D) g);
+			t = _paintProfiler.start();
+			_extra.draw(g2);
+			_paintProfiler.section("extra text", t);
 		}
 
+		_paintProfiler.endFrame();
+		_paintProfiler.drawOverlay(g2);
+
 		firePropertyChange(DONEDRAWINGPROP, drawCount, ++drawCount);
 	}
 
+	/**
+	 * Returns the profiler that times this canvas's painting: the data, each
+	 * curve, the ticks, the legend and the extra text. It is disabled until
+	 * enabled programmatically or from the plot view's View menu.
+	 *
+	 * @return the paint profiler, never {@code null}
+	 */
+	public PaintProfiler getPaintProfiler() {
+		return _paintProfiler;
+	}
+
 	// -----------------------------------------------------------------------
 	// Zoom and scale
 	// -----------------------------------------------------------------------
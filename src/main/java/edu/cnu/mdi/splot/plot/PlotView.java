@@ -6,6 +6,7 @@ import java.awt.Color;
 import java.io.File;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Predicate;
 import java.util.prefs.Preferences;
 
@@ -18,8 +19,11 @@ import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JRadioButtonMenuItem;
+import javax.swing.ProgressMonitor;
 import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
 
+import edu.cnu.mdi.graphics.PaintProfiler;
 import edu.cnu.mdi.pseudo3D.Histo2DPanel;
 import edu.cnu.mdi.splot.io.PlotFileFilter;
 import edu.cnu.mdi.splot.io.PlotIO;
@@ -210,6 +214,9 @@ public class PlotView extends BaseView {
 
 		_viewMenu.add(_plotMenuItem);
 		_viewMenu.add(_histoMenuItem);
+		_viewMenu.addSeparator();
+		_viewMenu.add(PaintProfiler.createMenu(this,
+				() -> (_plotCanvas != null) ? _plotCanvas.getPaintProfiler() : null));
 
 		BaseView.applyFocusFix(_viewMenu, this);
 		menuBar.add(_viewMenu);
@@ -485,57 +492,85 @@ public class PlotView extends BaseView {
 		openPlotFile(selected);
 	}
 
-	// Open the given plot file
+	// Open the given plot file. The file is read on a background thread with
+	// a progress monitor; the new canvas is installed on the EDT.
 	private void openPlotFile(File file) {
 		if (file == null) {
 			return;
 		}
 
-		try {
-			// Load a fresh canvas on EDT (PlotIO does EDT-safe construction)
-			PlotCanvas newCanvas = PlotIO.loadCanvas(file);
+		ProgressMonitor monitor = new ProgressMonitor(this, "Opening " + file.getName(), null, 0, 100);
+		new SwingWorker<PlotCanvas, Integer>() {
 
-			// Cleanly retire old canvas
-			if (_plotCanvas != null) {
-				_plotCanvas.shutDown();
+			@Override
+			protected PlotCanvas doInBackground() throws Exception {
+				return PlotIO.loadCanvas(file, f -> publish((int) Math.round(100 * f)));
 			}
 
-			// Stand up and install new plot
-			newCanvas.standUp();
-			PlotPanel newPanel = new PlotPanel(newCanvas);
-			setPlotPanel(newPanel);
-
-			// Update edit menu to point at the new canvas
-			JMenuBar menuBar = getJMenuBar();
-			if (menuBar != null) {
-				JMenu existingEdit = findMenu(menuBar, SplotEditMenu.MENU_TITLE);
-				if (existingEdit != null) {
-					menuBar.remove(existingEdit);
+			@Override
+			protected void process(List<Integer> percents) {
+				if (monitor.isCanceled()) {
+					cancel(true);
+				} else {
+					monitor.setProgress(percents.get(percents.size() - 1));
 				}
-				menuBar.add(new SplotEditMenu(newCanvas));
 			}
 
-			// Track current file + recent list
-			_currentPlotFile = file;
-			updateEnvironmentDataDirectory(file);
-
-			if (_recentFiles != null) {
-				_recentFiles.add(file);
+			@Override
+			protected void done() {
+				monitor.close();
+				if (isCancelled()) {
+					return;
+				}
+				try {
+					installCanvas(file, get());
+				} catch (Exception ex) {
+					JOptionPane.showMessageDialog(PlotView.this, failure(ex), "Open Plot Failed",
+							JOptionPane.ERROR_MESSAGE);
+
+					// If it failed, drop it from recents to avoid a "dead" entry
+					if (_recentFiles != null) {
+						_recentFiles.remove(file);
+						rebuildRecentMenu();
+					}
+				}
 			}
-			rebuildRecentMenu();
+		}.execute();
+	}
 
-			revalidate();
-			repaint();
+	// Install a freshly loaded canvas (EDT)
+	private void installCanvas(File file, PlotCanvas newCanvas) {
+		// Cleanly retire old canvas
+		if (_plotCanvas != null) {
+			_plotCanvas.shutDown();
+		}
 
-		} catch (Exception ex) {
-			JOptionPane.showMessageDialog(this, ex.getMessage(), "Open Plot Failed", JOptionPane.ERROR_MESSAGE);
+		// Stand up and install new plot
+		newCanvas.standUp();
+		PlotPanel newPanel = new PlotPanel(newCanvas);
+		setPlotPanel(newPanel);
 
-			// If it failed, drop it from recents to avoid a "dead" entry
-			if (_recentFiles != null) {
-				_recentFiles.remove(file);
-				rebuildRecentMenu();
+		// Update edit menu to point at the new canvas
+		JMenuBar menuBar = getJMenuBar();
+		if (menuBar != null) {
+			JMenu existingEdit = findMenu(menuBar, SplotEditMenu.MENU_TITLE);
+			if (existingEdit != null) {
+				menuBar.remove(existingEdit);
 			}
+			menuBar.add(new SplotEditMenu(newCanvas));
+		}
+
+		// Track current file + recent list
+		_currentPlotFile = file;
+		updateEnvironmentDataDirectory(file);
+
+		if (_recentFiles != null) {
+			_recentFiles.add(file);
 		}
+		rebuildRecentMenu();
+
+		revalidate();
+		repaint();
 	}
 
 	// Save the current plot
@@ -546,6 +581,7 @@ public class PlotView extends BaseView {
 		if (forceSaveAs || target == null) {
 			JFileChooser fc = new JFileChooser(getInitialChooserDirectory());
 			fc.setFileFilter(new PlotFileFilter());
+			fc.addChoosableFileFilter(PlotFileFilter.BINARY);
 			fc.setAcceptAllFileFilterUsed(true);
 
 			int res = fc.showSaveDialog(this);
@@ -553,7 +589,8 @@ public class PlotView extends BaseView {
 				return;
 			}
 
-			target = PlotFileFilter.ensurePlotExtension(fc.getSelectedFile());
+			target = PlotFileFilter.ensurePlotExtension(fc.getSelectedFile(),
+					fc.getFileFilter() == PlotFileFilter.BINARY);
 
 			// keep Environment in sync with where the user navigated
 			updateEnvironmentDataDirectory(target);
@@ -568,20 +605,57 @@ public class PlotView extends BaseView {
 			}
 		}
 
-		try {
-			PlotIO.save(_plotCanvas, target);
+		// Write on a background thread; PlotIO only replaces the target once
+		// the new file is complete, so cancelling is safe.
+		final File file = target;
+		final PlotCanvas canvas = _plotCanvas;
+		ProgressMonitor monitor = new ProgressMonitor(this, "Saving " + file.getName(), null, 0, 100);
+		new SwingWorker<Void, Integer>() {
+
+			@Override
+			protected Void doInBackground() throws Exception {
+				PlotIO.save(canvas, file, f -> publish((int) Math.round(100 * f)));
+				return null;
+			}
 
-			_currentPlotFile = target;
-			updateEnvironmentDataDirectory(target);
+			@Override
+			protected void process(List<Integer> percents) {
+				if (monitor.isCanceled()) {
+					cancel(true);
+				} else {
+					monitor.setProgress(percents.get(percents.size() - 1));
+				}
+			}
 
-			if (_recentFiles != null) {
-				_recentFiles.add(target);
+			@Override
+			protected void done() {
+				monitor.close();
+				if (isCancelled()) {
+					return;
+				}
+				try {
+					get();
+
+					_currentPlotFile = file;
+					updateEnvironmentDataDirectory(file);
+
+					if (_recentFiles != null) {
+						_recentFiles.add(file);
+					}
+					rebuildRecentMenu();
+
+				} catch (Exception ex) {
+					JOptionPane.showMessageDialog(PlotView.this, failure(ex), "Save Plot Failed",
+							JOptionPane.ERROR_MESSAGE);
+				}
 			}
-			rebuildRecentMenu();
+		}.execute();
+	}
 
-		} catch (Exception ex) {
-			JOptionPane.showMessageDialog(this, ex.getMessage(), "Save Plot Failed", JOptionPane.ERROR_MESSAGE);
-		}
+	// The message of a failed background load or save
+	private static String failure(Exception ex) {
+		Throwable cause = (ex instanceof ExecutionException && ex.getCause() != null) ? ex.getCause() : ex;
+		return cause.getMessage();
 	}
 
 	// rebuild the recent files menu
@@ -348,6 +348,26 @@ public final class Environment {
 	}
 
 
+	/**
+	 * Returns the directory used for derived, regenerable files such as the
+	 * binary map data cache. It sits beside the configuration file in the home
+	 * directory ({@code ~/.mdi-cache}; {@code mdi-cache} on Windows) and is shared
+	 * by all mdi applications. The system property {@code mdi.cache.dir}
+	 * overrides the location. The directory is not created by this method.
+	 *
+	 * @return cache directory, or {@code null} if no location can be determined
+	 */
+	public File getCacheDirectory() {
+		String override = getSystemProperty("mdi.cache.dir");
+		if (override != null && !override.isBlank()) {
+			return new File(override);
+		}
+		if (homeDirectory == null) {
+			return null;
+		}
+		return new File(homeDirectory, isWindows() ? "mdi-cache" : ".mdi-cache");
+	}
+
 	// ------------------------------------------------------------------------
 	// Utility methods
 	// ------------------------------------------------------------------------
@@ -422,6 +442,9 @@ public final class Environment {
 		GraphicsDevice[] devices = getGraphicsDevices();
 		int count = (devices == null) ? 0 : devices.length;
 		sb.append("Monitors detected: " + count + "\n");
+		if (!StartupProfiler.isActive()) {
+			sb.append(StartupProfiler.report());
+		}
 		
 		return sb.toString();
 	}
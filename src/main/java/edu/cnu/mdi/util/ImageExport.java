@@ -0,0 +1,475 @@
+package edu.cnu.mdi.util;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Vector;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.swing.JOptionPane;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+import org.apache.batik.dom.GenericDOMImplementation;
+import org.apache.batik.svggen.SVGGraphics2D;
+import org.w3c.dom.Document;
+
+/**
+ * Exports a Swing {@link Component} as a PNG at any scale, or as SVG.
+ *
+ * <h2>PNG</h2>
+ * <p>
+ * The image is never held in memory as a whole. It is presented to the PNG
+ * encoder as a {@link RenderedImage} made of horizontal bands of
+ * {@value #BAND_HEIGHT} rows; the encoder asks for rows in order, and each
+ * band is painted only when the first of its rows is requested. A
+ * 4&times; export of a large map therefore needs one band of memory, not the
+ * full-size raster. Painting itself stays on the EDT, one band per
+ * {@code invokeAndWait}, so the UI remains responsive between bands while
+ * filtering and compression run on the calling thread.
+ * </p>
+ * <p>
+ * Both formats paint with {@link Component#printAll}, so components that keep
+ * screen-resolution caches, such as a
+ * {@link edu.cnu.mdi.container.BaseContainer} with cached layers or
+ * asynchronous or tiled rendering, draw directly at the export scale rather
+ * than compositing an upscaled bitmap.
+ * </p>
+ *
+ * <h2>SVG</h2>
+ * <p>
+ * The component paints once, on the EDT, into a Batik {@link SVGGraphics2D};
+ * the resulting document is streamed to the file on the calling thread.
+ * </p>
+ *
+ * <h2>Threading</h2>
+ * <p>
+ * {@link #export} is meant for a background thread and reports progress on
+ * it; interrupting that thread cancels the export. The image is written to a
+ * temporary file beside the destination, which replaces the destination only
+ * once complete, so a failed or cancelled export leaves any existing file as
+ * it was. {@link #exportInBackground} wraps it in a {@link SwingWorker} with a
+ * {@link ProgressMonitor}.
+ * </p>
+ */
+public final class ImageExport {
+
+	/** Rows painted at a time. */
+	static final int BAND_HEIGHT = 256;
+
+	private ImageExport() {
+	}
+
+	/** Output formats. */
+	public enum Format {
+		PNG("png"), SVG("svg");
+
+		/** The file extension, without the dot. */
+		public final String extension;
+
+		Format(String extension) {
+			this.extension = extension;
+		}
+
+		/**
+		 * The format implied by a file name: SVG for {@code .svg}, PNG otherwise.
+		 *
+		 * @param file the file
+		 * @return its format
+		 */
+		public static Format of(File file) {
+			return file.getName().toLowerCase(Locale.ROOT).endsWith(".svg") ? SVG : PNG;
+		}
+	}
+
+	/**
+	 * Export a component, choosing the format from the file name. The file is
+	 * replaced only once the export is complete.
+	 *
+	 * @param c        the component; it must have a non-empty size
+	 * @param file     the destination
+	 * @param scale    pixels per component pixel for PNG (e.g. 4 for a
+	 *                 publication-resolution image); ignored for SVG
+	 * @param progress receives the fraction done, on the calling thread; may be
+	 *                 {@code null}
+	 * @throws IOException on write failure, or {@link InterruptedIOException} if
+	 *                     the calling thread is interrupted
+	 */
+	public static void export(Component c, File file, double scale, DoubleConsumer progress) throws IOException {
+		Objects.requireNonNull(c, "component");
+		Objects.requireNonNull(file, "file");
+		Path target = file.toPath();
+		Path tmp = tempSibling(target);
+		try {
+			if (Format.of(file) == Format.SVG) {
+				exportSvg(c, tmp);
+			} else {
+				exportPng(c, tmp, scale, progress);
+			}
+			replace(tmp, target);
+			if (progress != null) {
+				progress.accept(1.0);
+			}
+		} catch (CancellationException e) {
+			throw new InterruptedIOException("Image export cancelled.");
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	/** The hidden temporary file an export is written to before it replaces {@code target}. */
+	private static Path tempSibling(Path target) {
+		return target.resolveSibling("." + target.getFileName() + ".tmp");
+	}
+
+	/** Move a completed temporary file over the target, atomically if possible. */
+	private static void replace(Path tmp, Path target) throws IOException {
+		try {
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Export a component on a background thread, showing a progress monitor
+	 * parented to the component. Errors are reported in a dialog. Must be
+	 * called on the EDT.
+	 *
+	 * @param c     the component
+	 * @param file  the destination; SVG for {@code .svg}, PNG otherwise
+	 * @param scale pixels per component pixel for PNG
+	 * @return the running worker
+	 */
+	public static SwingWorker<Void, Integer> exportInBackground(Component c, File file, double scale) {
+		ProgressMonitor monitor = new ProgressMonitor(c, "Exporting " + file.getName(), null, 0, 100);
+		SwingWorker<Void, Integer> worker = new SwingWorker<>() {
+
+			@Override
+			protected Void doInBackground() throws Exception {
+				export(c, file, scale, f -> publish((int) Math.round(100 * f)));
+				return null;
+			}
+
+			@Override
+			protected void process(List<Integer> percents) {
+				if (monitor.isCanceled()) {
+					cancel(true);
+				} else {
+					monitor.setProgress(percents.get(percents.size() - 1));
+				}
+			}
+
+			@Override
+			protected void done() {
+				monitor.close();
+				if (isCancelled()) {
+					return;
+				}
+				try {
+					get();
+				} catch (Exception e) {
+					Throwable cause = (e instanceof ExecutionException && e.getCause() != null) ? e.getCause() : e;
+					JOptionPane.showMessageDialog(c, String.valueOf(cause.getMessage()), "Export Failed",
+							JOptionPane.ERROR_MESSAGE);
+				}
+			}
+		};
+		worker.execute();
+		return worker;
+	}
+
+	// ---------------------------
+	// PNG
+	// ---------------------------
+
+	private static void exportPng(Component c, Path file, double scale, DoubleConsumer progress) throws IOException {
+		Dimension size = onEdt(c::getSize);
+		int width = (int) Math.ceil(size.width * scale);
+		int height = (int) Math.ceil(size.height * scale);
+		if (width < 1 || height < 1) {
+			throw new IOException("Nothing to export: the component has no size.");
+		}
+
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("png");
+		if (!writers.hasNext()) {
+			throw new IOException("No PNG writer is available.");
+		}
+		// a private writer, since Environment's shared one is not thread safe
+		ImageWriter writer = writers.next();
+		// an image output stream does not truncate a stale temporary file
+		Files.deleteIfExists(file);
+		try (ImageOutputStream ios = ImageIO.createImageOutputStream(file.toFile())) {
+			if (ios == null) {
+				throw new IOException("Cannot write " + file);
+			}
+			writer.setOutput(ios);
+			writer.write(new BandedImage(c, width, height, scale, progress));
+		} finally {
+			writer.dispose();
+		}
+	}
+
+	/**
+	 * A component painted at some scale, one band of rows at a time. Bands are
+	 * painted into one reused buffer, so rasters handed out are copies.
+	 */
+	static final class BandedImage implements RenderedImage {
+
+		private final Component component;
+		private final int width;
+		private final int height;
+		private final double scale;
+		private final DoubleConsumer progress;
+
+		private final BufferedImage band;
+		private int bandIndex = -1;
+
+		BandedImage(Component component, int width, int height, double scale, DoubleConsumer progress) {
+			this.component = component;
+			this.width = width;
+			this.height = height;
+			this.scale = scale;
+			this.progress = progress;
+			band = new BufferedImage(width, Math.min(BAND_HEIGHT, height), BufferedImage.TYPE_INT_RGB);
+		}
+
+		/** Paint band {@code index} into the buffer, unless it is already there. */
+		private Raster band(int index) {
+			if (index != bandIndex) {
+				if (Thread.currentThread().isInterrupted()) {
+					throw new CancellationException();
+				}
+				int y0 = index * BAND_HEIGHT;
+				int rows = Math.min(BAND_HEIGHT, height - y0);
+				onEdt(() -> {
+					Graphics2D g = band.createGraphics();
+					try {
+						g.setColor(component.getBackground() == null ? Color.white : component.getBackground());
+						g.fillRect(0, 0, width, rows);
+						g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+						g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+								RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+						g.clipRect(0, 0, width, rows);
+						g.translate(0, -y0);
+						g.scale(scale, scale);
+						component.printAll(g);
+					} finally {
+						g.dispose();
+					}
+					return null;
+				});
+				bandIndex = index;
+				if (progress != null) {
+					progress.accept((double) (y0 + rows) / height);
+				}
+			}
+			int y0 = index * BAND_HEIGHT;
+			int rows = Math.min(BAND_HEIGHT, height - y0);
+			return band.getRaster().createChild(0, 0, width, rows, 0, y0, null);
+		}
+
+		@Override
+		public Raster getData(Rectangle rect) {
+			Rectangle r = rect.intersection(new Rectangle(width, height));
+			WritableRaster out = Raster.createWritableRaster(getSampleModel().createCompatibleSampleModel(
+					Math.max(1, rect.width), Math.max(1, rect.height)), new Point(rect.x, rect.y));
+			if (!r.isEmpty()) {
+				for (int b = r.y / BAND_HEIGHT; b <= (r.y + r.height - 1) / BAND_HEIGHT; b++) {
+					out.setRect(band(b));
+				}
+			}
+			return out;
+		}
+
+		@Override
+		public Raster getData() {
+			return getData(new Rectangle(width, height));
+		}
+
+		@Override
+		public WritableRaster copyData(WritableRaster raster) {
+			if (raster == null) {
+				return (WritableRaster) getData();
+			}
+			raster.setRect(getData(raster.getBounds()));
+			return raster;
+		}
+
+		@Override
+		public Raster getTile(int tileX, int tileY) {
+			int y0 = tileY * BAND_HEIGHT;
+			return getData(new Rectangle(0, y0, width, Math.min(BAND_HEIGHT, height - y0)));
+		}
+
+		@Override
+		public ColorModel getColorModel() {
+			return band.getColorModel();
+		}
+
+		@Override
+		public SampleModel getSampleModel() {
+			return band.getSampleModel();
+		}
+
+		@Override
+		public Vector<RenderedImage> getSources() {
+			return null;
+		}
+
+		@Override
+		public Object getProperty(String name) {
+			return Image.UndefinedProperty;
+		}
+
+		@Override
+		public String[] getPropertyNames() {
+			return null;
+		}
+
+		@Override
+		public int getWidth() {
+			return width;
+		}
+
+		@Override
+		public int getHeight() {
+			return height;
+		}
+
+		@Override
+		public int getMinX() {
+			return 0;
+		}
+
+		@Override
+		public int getMinY() {
+			return 0;
+		}
+
+		@Override
+		public int getNumXTiles() {
+			return 1;
+		}
+
+		@Override
+		public int getNumYTiles() {
+			return (height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+		}
+
+		@Override
+		public int getMinTileX() {
+			return 0;
+		}
+
+		@Override
+		public int getMinTileY() {
+			return 0;
+		}
+
+		@Override
+		public int getTileWidth() {
+			return width;
+		}
+
+		@Override
+		public int getTileHeight() {
+			return BAND_HEIGHT;
+		}
+
+		@Override
+		public int getTileGridXOffset() {
+			return 0;
+		}
+
+		@Override
+		public int getTileGridYOffset() {
+			return 0;
+		}
+	}
+
+	// ---------------------------
+	// SVG
+	// ---------------------------
+
+	private static void exportSvg(Component c, Path file) throws IOException {
+		SVGGraphics2D svg = onEdt(() -> {
+			Document doc = GenericDOMImplementation.getDOMImplementation()
+					.createDocument("http://www.w3.org/2000/svg", "svg", null);
+			SVGGraphics2D g = new SVGGraphics2D(doc);
+			g.setSVGCanvasSize(c.getSize());
+			c.printAll(g);
+			return g;
+		});
+		try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			svg.stream(out, true);
+		} finally {
+			svg.dispose();
+		}
+	}
+
+	// ---------------------------
+	// EDT
+	// ---------------------------
+
+	/**
+	 * Run a task on the EDT and wait for it. An interrupt while waiting turns
+	 * into a {@link CancellationException}.
+	 */
+	private static <T> T onEdt(Supplier<T> task) {
+		if (SwingUtilities.isEventDispatchThread()) {
+			return task.get();
+		}
+		Object[] result = new Object[1];
+		try {
+			SwingUtilities.invokeAndWait(() -> result[0] = task.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException();
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException re) {
+				throw re;
+			}
+			if (cause instanceof Error err) {
+				throw err;
+			}
+			throw new IllegalStateException(cause);
+		}
+		@SuppressWarnings("unchecked")
+		T t = (T) result[0];
+		return t;
+	}
+}
@@ -33,6 +33,7 @@ public class PropertyUtils {
 	public static final String FILLCOLOR = "FILLCOLOR";
 	public static final String FRACTION = "FRACTION";
 	public static final String HEIGHT = "HEIGHT";
+	public static final String LAZYVIEWS = "LAZYVIEWS";
 	public static final String LEFT = "LEFT";
 	public static final String LINECOLOR = "LINECOLOR";
 	public static final String LINESTYLE = "LINESTYLE";
@@ -93,6 +94,7 @@ public class PropertyUtils {
 	    KNOWN_KEYS.put(FILLCOLOR, Color.class);
 	    KNOWN_KEYS.put(FRACTION, Double.class);
 	    KNOWN_KEYS.put(HEIGHT, Integer.class);
+	    KNOWN_KEYS.put(LAZYVIEWS, Boolean.class);
 	    KNOWN_KEYS.put(LEFT, Integer.class);
 	    KNOWN_KEYS.put(LINECOLOR, Color.class);
 	    KNOWN_KEYS.put(LINESTYLE, LineStyle.class);
@@ -613,6 +615,17 @@ public class PropertyUtils {
 		return getInt(props, HEIGHT, Integer.MIN_VALUE);
 	}
 
+	/**
+	 * Get the "lazy views" flag. When set, every view registered through a
+	 * {@code ViewConfiguration} is created on first use. (Default is false)
+	 *
+	 * @param props the properties
+	 * @return the lazy views flag
+	 */
+	public static boolean getLazyViews(Properties props) {
+		return getBoolean(props, LAZYVIEWS, false);
+	}
+
 	/**
 	 * Get the locked flag. (Default is true)
 	 *
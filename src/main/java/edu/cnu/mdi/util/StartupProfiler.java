@@ -0,0 +1,211 @@
+package edu.cnu.mdi.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import edu.cnu.mdi.log.Log;
+
+/**
+ * Records where application startup time goes.
+ *
+ * <h2>Phases and totals</h2>
+ * <p>
+ * Startup code wraps its steps in {@link #phase(String, Runnable)}; each
+ * phase records its offset from JVM start, its duration and the number of
+ * classes loaded while it ran. Phases may nest. Work that happens in many
+ * small pieces, such as icon loading, is summed per category with
+ * {@link #accumulate(String, long)} instead.
+ * </p>
+ *
+ * <h2>Finishing</h2>
+ * <p>
+ * {@link #finish()} is called once the main frame is showing (see
+ * {@code BaseMDIApplication}). It stops recording, so the instrumentation
+ * costs nothing afterwards, and logs {@link #report()} at config level. With
+ * {@code -D}{@value #PROFILE_PROPERTY}{@code =true} the report is also printed
+ * to standard out; with {@code -D}{@value #EXIT_PROPERTY}{@code =true} the JVM
+ * then exits, which is how {@code scripts/appcds.sh} runs a training start to
+ * record an AppCDS archive.
+ * </p>
+ *
+ * <h2>Threading</h2>
+ * <p>
+ * All methods are thread-safe. Nesting depth is tracked for the EDT, where
+ * startup runs; phases on other threads are reported at the top level.
+ * </p>
+ */
+public final class StartupProfiler {
+
+	/** System property that prints the report to standard out. */
+	public static final String PROFILE_PROPERTY = "mdi.startup.profile";
+
+	/** System property that exits the JVM after startup (AppCDS training runs). */
+	public static final String EXIT_PROPERTY = "mdi.startup.exit";
+
+	/** A finished phase. */
+	private record Phase(String name, int depth, long startNanos, long nanos, int classes) {
+	}
+
+	/** Calls and total time of an accumulated category. */
+	private static final class Total {
+		int calls;
+		long nanos;
+	}
+
+	/** JVM start, on the {@link System#nanoTime()} scale. */
+	private static final long JVM_START = System.nanoTime()
+			- ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L;
+
+	private static final List<Phase> phases = new ArrayList<>();
+	private static final Map<String, Total> totals = new LinkedHashMap<>();
+	private static int depth;
+	private static volatile boolean active = true;
+	private static long finishedAt;
+
+	private StartupProfiler() {
+	}
+
+	/**
+	 * Check whether startup is still being recorded.
+	 *
+	 * @return {@code true} until {@link #finish()}
+	 */
+	public static boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Run a startup step as a named phase.
+	 *
+	 * @param name the phase name
+	 * @param step the work
+	 */
+	public static void phase(String name, Runnable step) {
+		phase(name, () -> {
+			step.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Run a startup step as a named phase and return its result.
+	 *
+	 * @param <T>  the result type
+	 * @param name the phase name
+	 * @param step the work
+	 * @return the step's result
+	 */
+	public static <T> T phase(String name, Supplier<T> step) {
+		if (!active) {
+			return step.get();
+		}
+		boolean edt = javax.swing.SwingUtilities.isEventDispatchThread();
+		int d;
+		synchronized (StartupProfiler.class) {
+			d = edt ? depth++ : 0;
+		}
+		int classes = loadedClasses();
+		long t0 = System.nanoTime();
+		try {
+			return step.get();
+		} finally {
+			long t1 = System.nanoTime();
+			int loaded = loadedClasses() - classes;
+			synchronized (StartupProfiler.class) {
+				if (edt) {
+					depth--;
+				}
+				if (active) {
+					phases.add(new Phase(name, d, t0, t1 - t0, loaded));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add time to an accumulated category, e.g. {@code "icon loading"}.
+	 * Ignored after {@link #finish()}.
+	 *
+	 * @param category the category
+	 * @param nanos    the time spent, from {@link System#nanoTime()} differences
+	 */
+	public static void accumulate(String category, long nanos) {
+		if (!active) {
+			return;
+		}
+		synchronized (StartupProfiler.class) {
+			Total t = totals.computeIfAbsent(category, k -> new Total());
+			t.calls++;
+			t.nanos += nanos;
+		}
+	}
+
+	/**
+	 * Stop recording and log the report. Only the first call has any effect.
+	 */
+	public static void finish() {
+		synchronized (StartupProfiler.class) {
+			if (!active) {
+				return;
+			}
+			active = false;
+			finishedAt = System.nanoTime();
+		}
+		String report = report();
+		Log.getInstance().config(report);
+		if (Boolean.getBoolean(PROFILE_PROPERTY)) {
+			System.out.println(report);
+		}
+		if (Boolean.getBoolean(EXIT_PROPERTY)) {
+			System.exit(0);
+		}
+	}
+
+	/**
+	 * Describe the recorded phases and totals.
+	 *
+	 * @return a multi-line report
+	 */
+	public static synchronized String report() {
+		StringBuilder sb = new StringBuilder(1024);
+		sb.append("==== Startup Profile ====\n");
+		sb.append(String.format("%10s %10s %8s  %s%n", "at (ms)", "took (ms)", "classes", "phase"));
+		List<Phase> sorted = new ArrayList<>(phases);
+		sorted.sort((a, b) -> Long.compare(a.startNanos, b.startNanos));
+		for (Phase p : sorted) {
+			sb.append(String.format("%10.1f %10.1f %8d  %s%s%n", ms(p.startNanos - JVM_START), ms(p.nanos), p.classes,
+					"  ".repeat(p.depth), p.name));
+		}
+		if (!totals.isEmpty()) {
+			sb.append("Accumulated:\n");
+			for (Map.Entry<String, Total> e : totals.entrySet()) {
+				sb.append(String.format("%10.1f ms in %d calls  %s%n", ms(e.getValue().nanos), e.getValue().calls,
+						e.getKey()));
+			}
+		}
+		long end = active ? System.nanoTime() : finishedAt;
+		sb.append(String.format("%s %.1f ms after JVM start, %d classes loaded%n",
+				active ? "Still starting," : "Started", ms(end - JVM_START), loadedClasses()));
+		return sb.toString();
+	}
+
+	/** Forget everything and start recording again (for tests). */
+	static synchronized void reset() {
+		phases.clear();
+		totals.clear();
+		depth = 0;
+		active = true;
+	}
+
+	private static int loadedClasses() {
+		return ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+	}
+
+	private static double ms(long nanos) {
+		return nanos / 1e6;
+	}
+}
@@ -1,47 +1,55 @@
 package edu.cnu.mdi.util;
 
+import java.awt.BorderLayout;
 import java.awt.Component;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.util.Locale;
 
-import javax.imageio.ImageIO;
-import javax.imageio.stream.ImageOutputStream;
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JComboBox;
 import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JList;
 import javax.swing.JOptionPane;
+import javax.swing.JPanel;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
-import edu.cnu.mdi.graphics.GraphicsUtils;
 import edu.cnu.mdi.splot.plot.PlotPanel;
 
 /**
- * Utility for capturing a Swing {@link Component} and saving it as a PNG image.
+ * Utility for capturing a Swing {@link Component} and saving it as a PNG or
+ * SVG image.
  *
  * <h2>Design notes</h2>
  * <ul>
- *   <li>This class writes <strong>PNG</strong> data. The chosen output filename is therefore
- *       forced to end with <code>.png</code> (case-insensitive) to avoid mismatches such as
+ *   <li>The save dialog offers PNG and SVG. The chosen output filename is forced to end with
+ *       the extension of the selected filter (case-insensitive) to avoid mismatches such as
  *       saving PNG data to <code>picture.jpg</code> or an extensionless file.</li>
- *   <li>Writing is performed via the configured PNG writer exposed by
- *       {@link Environment#getPngWriter()}. If no writer is available, the method returns
- *       without showing an error dialog (legacy behavior).</li>
+ *   <li>A scale selector in the dialog sets the PNG resolution relative to the screen
+ *       (1&times; to 4&times;); SVG is resolution independent.</li>
+ *   <li>Writing is done by {@link ImageExport} on a background thread with a progress
+ *       monitor, so large or high-resolution exports do not block the UI.</li>
  *   <li>If the target file exists, the user is prompted to confirm overwrite.</li>
  * </ul>
  */
 public class TakePicture {
 
+	/** PNG scales offered in the save dialog. */
+	private static final Double[] SCALES = { 1.0, 2.0, 3.0, 4.0 };
+
 	/**
-	 * Captures the provided component as an image and prompts the user to save it as a PNG file.
+	 * Captures the provided component as an image and prompts the user to save it as a PNG or
+	 * SVG file.
 	 *
 	 * <p>The save dialog is parented to the window containing {@code canvas} (if any). If the user
 	 * cancels the dialog, this method returns without writing a file.</p>
 	 *
 	 * <p><strong>Filename enforcement:</strong> The selected file is forced to end with
-	 * <code>.png</code> (case-insensitive). If the user selects a name without an extension
-	 * (or with a different extension), <code>.png</code> is appended.</p>
+	 * <code>.png</code> or <code>.svg</code>, according to the selected filter. If the user selects
+	 * a name without that extension, it is appended.</p>
 	 *
-	 * <p><strong>Error handling:</strong> Exceptions during capture or write are printed to
-	 * stderr via {@link Throwable#printStackTrace()} (legacy behavior).</p>
+	 * <p><strong>Error handling:</strong> Failures during the export are reported in a dialog.</p>
 	 *
 	 * @param canvas the component to capture; if {@code null}, nothing is done
 	 */
@@ -54,44 +62,50 @@ public class TakePicture {
 			canvas = ((PlotPanel) canvas).getPlotCanvas();
 		}
 
-		try {
-			// Only proceed if we have a writer configured.
-			if (Environment.getInstance().getPngWriter() == null) {
-				return;
-			}
-
-			File file = getSavePngFile(canvas);
-			if (file == null) {
-				return; // user cancelled
+		JComboBox<Double> scale = new JComboBox<>(SCALES);
+		scale.setRenderer(new DefaultListCellRenderer() {
+			@Override
+			public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+					boolean isSelected, boolean cellHasFocus) {
+				return super.getListCellRendererComponent(list, ((Double) value).intValue() + "\u00d7", index,
+						isSelected, cellHasFocus);
 			}
+		});
 
-			BufferedImage bi = GraphicsUtils.getComponentImage(canvas);
-
-			try (ImageOutputStream ios = ImageIO.createImageOutputStream(file)) {
-				Environment.getInstance().getPngWriter().setOutput(ios);
-				Environment.getInstance().getPngWriter().write(bi);
-			}
-		}
-		catch (Exception e) {
-			e.printStackTrace();
+		File file = getSaveFile(canvas, scale);
+		if (file == null) {
+			return; // user cancelled
 		}
+
+		ImageExport.exportInBackground(canvas, file, (Double) scale.getSelectedItem());
 	}
 
 	/**
-	 * Prompts the user for a PNG file destination.
+	 * Prompts the user for a PNG or SVG file destination.
 	 *
-	 * <p>This method enforces a <code>.png</code> extension on the returned file and asks for
-	 * overwrite confirmation if the final file already exists.</p>
+	 * <p>This method enforces the extension of the selected filter on the returned file and asks
+	 * for overwrite confirmation if the final file already exists.</p>
 	 *
 	 * @param canvas a component used to locate the owning window for dialog parenting
-	 * @return a file guaranteed to end with <code>.png</code>, or {@code null} if the user cancels
+	 * @param scale  the PNG scale selector, shown as an accessory
+	 * @return a file ending with <code>.png</code> or <code>.svg</code>, or {@code null} if the
+	 *         user cancels
 	 */
-	private static File getSavePngFile(Component canvas) {
-		FileNameExtensionFilter filter = new FileNameExtensionFilter("PNG File", "png");
+	private static File getSaveFile(Component canvas, JComboBox<Double> scale) {
+		FileNameExtensionFilter png = new FileNameExtensionFilter("PNG File", "png");
+		FileNameExtensionFilter svg = new FileNameExtensionFilter("SVG File", "svg");
 
 		JFileChooser chooser = new JFileChooser(Environment.getInstance().getHomeDirectory());
 		chooser.setSelectedFile(null);
-		chooser.setFileFilter(filter);
+		chooser.addChoosableFileFilter(png);
+		chooser.addChoosableFileFilter(svg);
+		chooser.setFileFilter(png);
+
+		JPanel accessory = new JPanel(new BorderLayout(0, 4));
+		accessory.setBorder(BorderFactory.createEmptyBorder(0, 8, 0, 0));
+		accessory.add(new JLabel("PNG scale"), BorderLayout.NORTH);
+		accessory.add(scale, BorderLayout.CENTER);
+		chooser.setAccessory(accessory);
 
 		java.awt.Window owner = javax.swing.SwingUtilities.getWindowAncestor(canvas);
 		int returnVal = chooser.showSaveDialog(owner);
@@ -104,8 +118,8 @@ public class TakePicture {
 			return null;
 		}
 
-		// Enforce .png extension (the chooser filter does not enforce this by itself).
-		selectedFile = enforcePngExtension(selectedFile);
+		// Enforce the extension (the chooser filter does not enforce this by itself).
+		selectedFile = enforceExtension(selectedFile, (chooser.getFileFilter() == svg) ? "svg" : "png");
 
 		// Confirm overwrite if needed.
 		if (selectedFile.exists()) {
@@ -124,21 +138,22 @@ public class TakePicture {
 	}
 
 	/**
-	 * Ensures the returned {@link File} ends with the <code>.png</code> extension.
+	 * Ensures the returned {@link File} ends with the given extension.
 	 *
-	 * <p>If the supplied file already ends with <code>.png</code> (case-insensitive), it is
-	 * returned unchanged. Otherwise, a new {@link File} is returned with <code>.png</code>
-	 * appended to the name in the same directory.</p>
+	 * <p>If the supplied file already ends with it (case-insensitive), it is returned unchanged.
+	 * Otherwise, a new {@link File} is returned with the extension appended to the name in the
+	 * same directory.</p>
 	 *
 	 * @param selectedFile the file chosen by the user (must not be {@code null})
-	 * @return a file whose name ends with <code>.png</code>
+	 * @param extension    the extension, without the dot
+	 * @return a file whose name ends with the extension
 	 */
-	private static File enforcePngExtension(File selectedFile) {
+	private static File enforceExtension(File selectedFile, String extension) {
 		String name = selectedFile.getName();
-		if (name.toLowerCase(Locale.ROOT).endsWith(".png")) {
+		if (name.toLowerCase(Locale.ROOT).endsWith("." + extension)) {
 			return selectedFile;
 		}
-		return new File(selectedFile.getParentFile(), name + ".png");
+		return new File(selectedFile.getParentFile(), name + "." + extension);
 	}
 
 }
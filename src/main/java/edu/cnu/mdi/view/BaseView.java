@@ -28,6 +28,7 @@ import java.util.function.Predicate;
 
 import javax.swing.AbstractAction;
 import javax.swing.ActionMap;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.InputMap;
 import javax.swing.JComponent;
 import javax.swing.JDesktopPane;
@@ -52,6 +53,7 @@ import edu.cnu.mdi.feedback.FeedbackControl;
 import edu.cnu.mdi.feedback.FeedbackPane;
 import edu.cnu.mdi.feedback.IFeedbackProvider;
 import edu.cnu.mdi.format.DoubleFormat;
+import edu.cnu.mdi.graphics.PaintProfiler;
 import edu.cnu.mdi.graphics.rubberband.ARubberband;
 import edu.cnu.mdi.graphics.toolbar.AToolBar;
 import edu.cnu.mdi.graphics.toolbar.BaseToolBar;
@@ -253,8 +255,16 @@ public class BaseView extends JInternalFrame
             desktop.add(this, 0);
         }
 
-        if (this.container instanceof BaseContainer) {
+        if (this.container instanceof BaseContainer bc) {
             getViewPopupMenu().add(LayerInspectorDialog.createMenuItem(this));
+            getViewPopupMenu().add(PaintProfiler.createMenu(this, bc::getPaintProfiler));
+            JCheckBoxMenuItem async = new JCheckBoxMenuItem("Background Rendering", bc.isAsyncRendering());
+            async.addActionListener(e -> bc.setAsyncRendering(async.isSelected()));
+            getViewPopupMenu().add(async);
+            JCheckBoxMenuItem tiled = new JCheckBoxMenuItem("Parallel Tile Rendering", bc.getRenderTileCount() > 1);
+            tiled.addActionListener(e -> bc.setRenderTileCount(
+                    tiled.isSelected() ? Runtime.getRuntime().availableProcessors() : 1));
+            getViewPopupMenu().add(tiled);
         }
 
         // Defer setVisible to avoid flicker / z-order issues during startup.
@@ -327,6 +337,10 @@ public class BaseView extends JInternalFrame
      * lazily-created views (see {@link ViewConfiguration}) it occurs the first
      * time the user selects the view from the Views menu.</p>
      *
+     * <p>For staged views (see {@link StagedViewFactory}) this is the last
+     * step of the EDT stage: it runs after the view has been built from its
+     * background-loaded model and placed on the desktop.</p>
+     *
      * <p>The default implementation is a no-op. Subclasses may override to
      * reconcile with shared application state or perform other one-time
      * post-construction work.</p>
@@ -0,0 +1,76 @@
+package edu.cnu.mdi.view;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+import javax.swing.JDesktopPane;
+import javax.swing.JInternalFrame;
+import javax.swing.JLabel;
+import javax.swing.JProgressBar;
+
+/**
+ * Placeholder shown on the desktop while a staged view loads its model.
+ * <p>
+ * The frame carries the view's menu title and an indeterminate progress
+ * bar. It is not a {@link BaseView}, so it is never registered with the
+ * {@link ViewManager} or saved with the desktop layout. If loading fails it
+ * shows the failure and becomes closable.
+ * </p>
+ */
+@SuppressWarnings("serial")
+final class LoadingFrame extends JInternalFrame {
+
+    private static final Dimension SIZE = new Dimension(320, 110);
+
+    private final JLabel message = new JLabel("Loading…");
+    private final JProgressBar progress = new JProgressBar();
+
+    /**
+     * Create a placeholder.
+     *
+     * @param title the title of the view being loaded
+     */
+    LoadingFrame(String title) {
+        super(title, false, false, false, false);
+        progress.setIndeterminate(true);
+        message.setBorder(BorderFactory.createEmptyBorder(0, 0, 6, 0));
+
+        getContentPane().setLayout(new BorderLayout());
+        getContentPane().add(message, BorderLayout.NORTH);
+        getContentPane().add(progress, BorderLayout.CENTER);
+        ((JComponent) getContentPane())
+                .setBorder(BorderFactory.createEmptyBorder(10, 12, 12, 12));
+        setSize(SIZE);
+    }
+
+    /**
+     * Add the placeholder to a desktop, centred in its visible area.
+     *
+     * @param desktop the desktop; ignored if {@code null}
+     */
+    void showOn(JDesktopPane desktop) {
+        if (desktop == null) {
+            return;
+        }
+        int x = Math.max(0, (desktop.getWidth() - SIZE.width) / 2);
+        int y = Math.max(0, (desktop.getHeight() - SIZE.height) / 3);
+        setLocation(x, y);
+        desktop.add(this);
+        setVisible(true);
+    }
+
+    /**
+     * Replace the progress bar with a failure message and let the user
+     * close the frame.
+     *
+     * @param text the message
+     */
+    void showFailure(String text) {
+        message.setText(text);
+        progress.setVisible(false);
+        setClosable(true);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+    }
+}
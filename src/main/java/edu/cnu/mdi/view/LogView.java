@@ -1,10 +1,19 @@
 package edu.cnu.mdi.view;
 
+import java.awt.BorderLayout;
+
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.Timer;
+
+import edu.cnu.mdi.app.EdtWatchdog;
 import edu.cnu.mdi.log.LogPane;
 import edu.cnu.mdi.util.PropertyUtils;
 
 /**
- * This is a predefined view used to display all the log messages.
+ * This is a predefined view used to display all the log messages. A status
+ * line at the bottom shows the {@link EdtWatchdog} summary; the individual
+ * stall reports appear in the log itself.
  *
  * @author heddle
  *
@@ -12,6 +21,12 @@ import edu.cnu.mdi.util.PropertyUtils;
 @SuppressWarnings("serial")
 public class LogView extends BaseView {
 
+	/** Refresh period of the watchdog status line, in milliseconds. */
+	private static final int STATUS_REFRESH_MILLIS = 1000;
+
+	private final JLabel watchdogStatus = new JLabel(" ");
+	private final Timer statusTimer;
+
 	public LogView() {
 		this(600, 600, false);
 	}
@@ -20,6 +35,27 @@ public class LogView extends BaseView {
 		super(PropertyUtils.TITLE, "Log", PropertyUtils.WIDTH, width,
 				PropertyUtils.HEIGHT, height, PropertyUtils.VISIBLE, visible);
 		add(new LogPane());
+
+		watchdogStatus.setBorder(BorderFactory.createEmptyBorder(2, 6, 2, 6));
+		add(watchdogStatus, BorderLayout.SOUTH);
+		statusTimer = new Timer(STATUS_REFRESH_MILLIS, e -> updateWatchdogStatus());
+		statusTimer.start();
+		updateWatchdogStatus();
+	}
+
+	private void updateWatchdogStatus() {
+		EdtWatchdog watchdog = EdtWatchdog.getInstance();
+		String text = (watchdog == null) ? "EDT watchdog: not running" : watchdog.getSummary();
+		if (!text.equals(watchdogStatus.getText())) {
+			watchdogStatus.setText(text);
+			watchdogStatus.setToolTipText(text);
+		}
+	}
+
+	@Override
+	public void prepareForExit() {
+		statusTimer.stop();
+		super.prepareForExit();
 	}
 
 }
@@ -0,0 +1,42 @@
+package edu.cnu.mdi.view;
+
+/**
+ * Creates a view in two stages so that heavy data loading stays off the EDT.
+ * <p>
+ * {@link #loadModel()} runs on a background pool, in parallel with the
+ * models of other staged views; it reads files, parses data and builds
+ * whatever the view will display, but must not create or touch Swing
+ * components. {@link #createView(Object)} then runs on the EDT and should be
+ * short: it builds the frame and hands it the loaded model. Any remaining
+ * one-time EDT work belongs in {@link BaseView#onFirstRealize()}, which is
+ * called after the view has been placed.
+ * </p>
+ * <p>
+ * Register staged views with
+ * {@link ViewConfiguration#staged(String, StagedViewFactory, int, int, int, int)}.
+ * While the model loads, a placeholder frame with the menu title marks the
+ * view on the desktop.
+ * </p>
+ *
+ * @param <M> the model type
+ * @param <T> the concrete {@link BaseView} subtype created by this factory
+ */
+public interface StagedViewFactory<M, T extends BaseView> {
+
+	/**
+	 * Load the view's model. Called on a background thread.
+	 *
+	 * @return the model; may be {@code null} if the view accepts that
+	 * @throws Exception if the model cannot be loaded; the view is then not
+	 *                   created
+	 */
+	M loadModel() throws Exception;
+
+	/**
+	 * Create the view from its loaded model. Called on the EDT.
+	 *
+	 * @param model the result of {@link #loadModel()}
+	 * @return the newly created view, never {@code null}
+	 */
+	T createView(M model);
+}
@@ -1,7 +1,14 @@
 package edu.cnu.mdi.view;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import javax.swing.SwingUtilities;
 
+import edu.cnu.mdi.desktop.Desktop;
+import edu.cnu.mdi.log.Log;
+import edu.cnu.mdi.util.StartupProfiler;
+
 /**
  * Describes everything needed to register a {@link BaseView} with the
  * {@link ViewManager}, including optional deferred (lazy) creation and
@@ -16,6 +23,16 @@ import javax.swing.SwingUtilities;
  * user selects that item.
  * </p>
  *
+ * <h2>Staged creation</h2>
+ * <p>
+ * A configuration built with
+ * {@link #staged(String, StagedViewFactory, int, int, int, int)} loads the
+ * view's model on a background pool and creates the view on the EDT once the
+ * model is ready (see {@link #realizeAsync()}). The models of several staged
+ * views load in parallel, and the desktop shows a placeholder frame for
+ * each until its view replaces it. Staged configurations may also be lazy.
+ * </p>
+ *
  * <h2>Virtual-desktop placement</h2>
  * <p>
  * {@link #column}, {@link #dh}, {@link #dv}, and {@link #constraint} are
@@ -60,6 +77,13 @@ public class ViewConfiguration<T extends BaseView> {
      */
     public final boolean lazily;
 
+    /**
+     * Set by {@link ViewManager} when its
+     * {@link ViewManager#setLazyRealization(boolean) lazy realization} made
+     * this configuration lazy although {@link #lazily} is {@code false}.
+     */
+    private volatile boolean deferred;
+
     // -----------------------------------------------------------------------
     // Virtual-desktop placement
     // -----------------------------------------------------------------------
@@ -86,6 +110,15 @@ public class ViewConfiguration<T extends BaseView> {
     /** The realized view, or {@code null} until {@link #getView()} is called. */
     private T view;
 
+    /** The two-stage factory of a staged configuration, or {@code null}. */
+    private final Stage<?, T> stage;
+
+    /**
+     * Completes when a staged realization started by {@link #realizeAsync()}
+     * ends; cleared if it fails. EDT only.
+     */
+    private CompletableFuture<T> pending;
+
     // -----------------------------------------------------------------------
     // Construction
     // -----------------------------------------------------------------------
@@ -105,6 +138,12 @@ public class ViewConfiguration<T extends BaseView> {
      */
     public ViewConfiguration(String menuTitle, ViewFactory<T> factory,
             boolean lazily, int column, int dh, int dv, int constraint) {
+        this(menuTitle, factory, null, lazily, column, dh, dv, constraint);
+    }
+
+    /** Constructor shared by plain and staged configurations. */
+    private ViewConfiguration(String menuTitle, ViewFactory<T> factory, Stage<?, T> stage,
+            boolean lazily, int column, int dh, int dv, int constraint) {
 
         if (menuTitle == null || menuTitle.isBlank()) {
             throw new IllegalArgumentException("menuTitle must not be null or blank.");
@@ -115,6 +154,7 @@ public class ViewConfiguration<T extends BaseView> {
 
         this.menuTitle  = menuTitle;
         this.factory    = factory;
+        this.stage      = stage;
         this.lazily     = lazily;
         this.column     = column;
         this.dh         = dh;
@@ -164,6 +204,32 @@ public class ViewConfiguration<T extends BaseView> {
         return new ViewConfiguration<>(menuTitle, factory, false, column, dh, dv, constraint);
     }
 
+    /**
+     * Convenience factory for a <em>staged</em> view configuration. When
+     * registered, the view's model starts loading on a background pool and
+     * the view is created on the EDT as soon as it is ready.
+     *
+     * @param <M>        the model type
+     * @param <T>        the concrete view type
+     * @param menuTitle  the menu label, also used for the loading placeholder
+     * @param factory    the two-stage view factory
+     * @param column     target virtual column
+     * @param dh         additional horizontal pixel offset
+     * @param dv         additional vertical pixel offset
+     * @param constraint placement constraint
+     * @return a new staged {@code ViewConfiguration}
+     */
+    public static <M, T extends BaseView> ViewConfiguration<T> staged(
+            String menuTitle, StagedViewFactory<M, T> factory,
+            int column, int dh, int dv, int constraint) {
+        if (factory == null) {
+            throw new IllegalArgumentException("factory must not be null.");
+        }
+        Stage<M, T> stage = new Stage<>(menuTitle, factory);
+        return new ViewConfiguration<>(menuTitle, stage::build, stage, false,
+                column, dh, dv, constraint);
+    }
+
     // -----------------------------------------------------------------------
     // Accessors
     // -----------------------------------------------------------------------
@@ -186,9 +252,100 @@ public class ViewConfiguration<T extends BaseView> {
         return view != null;
     }
 
+    /**
+     * Returns {@code true} if the view is created on first use rather than at
+     * registration, either because of {@link #lazily} or because it was
+     * registered while the manager's lazy realization was on.
+     *
+     * @return {@code true} if lazy
+     */
+    public boolean isLazy() {
+        return lazily || deferred;
+    }
+
+    /** Marks this configuration as lazy regardless of {@link #lazily}. */
+    void defer() {
+        deferred = true;
+    }
+
+    /**
+     * Returns {@code true} if this configuration was built with
+     * {@link #staged(String, StagedViewFactory, int, int, int, int)}.
+     *
+     * @return {@code true} if staged
+     */
+    public boolean isStaged() {
+        return stage != null;
+    }
+
+    /**
+     * Realize the view without blocking the EDT on its model.
+     * <p>
+     * For a staged configuration this shows a placeholder frame, starts
+     * loading the model on the background pool (if not already started) and
+     * returns at once; the view is created on the EDT when the model is
+     * ready. If the load or the view creation fails the placeholder shows
+     * the failure, the future completes exceptionally and the configuration
+     * forgets the attempt, so a later call tries again. For any other
+     * configuration the view is created immediately, as by
+     * {@link #getView()}.
+     * </p>
+     * <p>
+     * Call on the EDT. Repeated calls while a realization is running return
+     * the same future; the future always completes on the EDT.
+     * </p>
+     *
+     * @return a future for the realized view
+     */
+    public CompletableFuture<T> realizeAsync() {
+        if (view != null) {
+            return CompletableFuture.completedFuture(view);
+        }
+        if (stage == null) {
+            return CompletableFuture.completedFuture(getView());
+        }
+        if (pending != null) {
+            return pending;
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        pending = result;
+        LoadingFrame placeholder = new LoadingFrame(menuTitle);
+        placeholder.showOn(Desktop.getInstance());
+
+        CompletableFuture<?> load = stage.load();
+        load.whenComplete((model, error) -> SwingUtilities.invokeLater(() -> {
+            try {
+                if (error != null) {
+                    throw error;
+                }
+                // getView() is a no-op if it already ran while the model loaded
+                T realized = getView();
+                placeholder.dispose();
+                result.complete(realized);
+            } catch (Throwable t) {
+                Throwable cause = (t instanceof CompletionException && t.getCause() != null)
+                        ? t.getCause() : t;
+                Log.getInstance().exception(cause);
+                placeholder.showFailure("Could not load: " + cause.getMessage());
+                // forget the attempt so the view can be asked for again
+                stage.forget(load);
+                if (pending == result) {
+                    pending = null;
+                }
+                result.completeExceptionally(cause);
+            }
+        }));
+        return result;
+    }
+
     /**
      * Returns the view instance, creating it on first call if necessary.
      * <p>
+     * For a staged configuration this loads the model on the calling thread,
+     * or waits for a load already started by {@link #realizeAsync()}.
+     * </p>
+     * <p>
      * After creation, virtual-desktop placement and the
      * {@link BaseView#onFirstRealize()} lifecycle hook are scheduled on the
      * Swing EDT via {@code invokeLater} so that any pending
@@ -234,7 +391,7 @@ public class ViewConfiguration<T extends BaseView> {
             return;
         }
 
-        view = factory.create();
+        view = StartupProfiler.phase("view: " + menuTitle, factory::create);
 
         if (view == null) {
             throw new IllegalStateException(
@@ -261,6 +418,80 @@ public class ViewConfiguration<T extends BaseView> {
         });
     }
 
+    /**
+     * The two stages of a staged configuration.
+     * <p>
+     * {@link #load()} runs on the EDT, but {@link #build()} runs on whatever
+     * thread calls {@link ViewConfiguration#getView()}, so the model future
+     * is guarded by this stage's monitor. Waiting for it happens outside the
+     * monitor.
+     * </p>
+     *
+     * @param <M> the model type
+     * @param <T> the view type
+     */
+    private static final class Stage<M, T extends BaseView> {
+
+        private final String title;
+        private final StagedViewFactory<M, T> factory;
+
+        /** Running or finished background load; guarded by this stage. */
+        private CompletableFuture<M> model;
+
+        Stage(String title, StagedViewFactory<M, T> factory) {
+            this.title = title;
+            this.factory = factory;
+        }
+
+        /** Start loading the model on the background pool, once. */
+        synchronized CompletableFuture<M> load() {
+            if (model == null) {
+                model = CompletableFuture.supplyAsync(
+                        () -> StartupProfiler.phase("model: " + title, this::loadNow),
+                        ViewManager.modelLoader());
+            }
+            return model;
+        }
+
+        /**
+         * Drop a failed or unwanted load so the next {@link #load()} or
+         * {@link #build()} starts over.
+         *
+         * @param load the load to drop; ignored if another one has replaced it
+         */
+        synchronized void forget(CompletableFuture<?> load) {
+            if (model == load) {
+                model = null;
+            }
+        }
+
+        /** Create the view, loading the model here unless a load is running. */
+        T build() {
+            CompletableFuture<M> running;
+            synchronized (this) {
+                running = model;
+            }
+            try {
+                M m = (running != null) ? running.join() : loadNow();
+                return factory.createView(m);
+            } catch (CompletionException e) {
+                forget(running);
+                throw new IllegalStateException(
+                        "Could not load the model for " + title, e.getCause());
+            }
+        }
+
+        private M loadNow() {
+            try {
+                return factory.loadModel();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }
+    }
+
     /**
      * Apply any persisted layout state for this view from the
      * {@link edu.cnu.mdi.desktop.Desktop}'s loaded configuration.
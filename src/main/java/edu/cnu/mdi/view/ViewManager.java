@@ -10,6 +10,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.JMenu;
 import javax.swing.JMenuItem;
@@ -125,6 +128,18 @@ public class ViewManager implements Iterable<BaseView> {
     private final Map<ViewConfiguration<?>, JMenuItem> lazyMenuItems =
             new HashMap<>();
 
+    /**
+     * If {@code true}, every configuration is registered as if it were lazy.
+     * See {@link #setLazyRealization(boolean)}.
+     */
+    private volatile boolean lazyRealization;
+
+    /**
+     * Background pool that loads the models of staged views; created on
+     * first use. See {@link #modelLoader()}.
+     */
+    private static ExecutorService modelLoader;
+
     // -----------------------------------------------------------------------
     // Construction / singleton access
     // -----------------------------------------------------------------------
@@ -351,7 +366,11 @@ public class ViewManager implements Iterable<BaseView> {
      * {@code false}) the view is created immediately by calling
      * {@link ViewConfiguration#getView()}. If it is lazy, an italic
      * placeholder item is inserted into the Views menu; the view is created
-     * only when the user selects that item.
+     * only when the user selects that item. A staged configuration that is
+     * not lazy starts loading at once (see
+     * {@link ViewConfiguration#realizeAsync()}). With
+     * {@link #setLazyRealization(boolean) lazy realization} on, every
+     * configuration is treated as lazy.
      * </p>
      *
      * @param config the configuration to register; ignored if {@code null}
@@ -363,13 +382,71 @@ public class ViewManager implements Iterable<BaseView> {
 
         configs.add(config);
 
-        if (config.lazily) {
+        if (lazyRealization) {
+            config.defer();
+        }
+
+        if (config.isLazy()) {
             runOnEdt(() -> insertLazyPlaceholder(config));
+        } else if (config.isStaged()) {
+            runOnEdt(config::realizeAsync);
         } else {
             config.getView();
         }
     }
 
+    /**
+     * Set whether configurations registered from now on are all created on
+     * first use, regardless of their own {@link ViewConfiguration#lazily}
+     * flag.
+     * <p>
+     * This trades a short delay the first time each view is opened for a
+     * faster application start, since no view is built before the main
+     * frame is shown. Views created directly rather than through a
+     * {@link ViewConfiguration} are not affected. Applications normally turn
+     * this on with the {@code LAZYVIEWS} property of
+     * {@link edu.cnu.mdi.app.BaseMDIApplication}.
+     * </p>
+     *
+     * @param lazy {@code true} to defer creation of every registered view
+     */
+    public void setLazyRealization(boolean lazy) {
+        lazyRealization = lazy;
+    }
+
+    /**
+     * Check whether all configurations are created on first use.
+     *
+     * @return {@code true} if lazy realization is on
+     * @see #setLazyRealization(boolean)
+     */
+    public boolean isLazyRealization() {
+        return lazyRealization;
+    }
+
+    /**
+     * Returns the pool on which {@link StagedViewFactory#loadModel()} runs.
+     * <p>
+     * It has between two and four daemon threads, depending on the number of
+     * processors, so several heavy models load in parallel without
+     * competing too hard with the EDT.
+     * </p>
+     *
+     * @return the shared model-loading executor
+     */
+    static synchronized ExecutorService modelLoader() {
+        if (modelLoader == null) {
+            int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+            AtomicInteger count = new AtomicInteger();
+            modelLoader = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "ViewManager-Loader-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return modelLoader;
+    }
+
     // -----------------------------------------------------------------------
     // Virtual-desktop routing
     // -----------------------------------------------------------------------
@@ -535,8 +612,12 @@ public class ViewManager implements Iterable<BaseView> {
         placeholder.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                config.getView();
-                swapPlaceholderForRealItem(config, placeholder);
+                // staged views complete later; plain ones at once
+                config.realizeAsync().thenRun(() -> {
+                    if (lazyMenuItems.get(config) == placeholder) {
+                        swapPlaceholderForRealItem(config, placeholder);
+                    }
+                });
             }
         });
 
@@ -551,7 +632,9 @@ public class ViewManager implements Iterable<BaseView> {
      * <p>
      * Called when the menu reference changes via {@link #setViewMenu(JMenu)}.
      * Clears both tracking maps, re-adds items for all realized views, then
-     * re-adds placeholders for any unrealized lazy configurations.
+     * re-adds placeholders for any unrealized lazy configurations. An eager
+     * staged configuration whose model is still loading gets no placeholder;
+     * its menu item appears when the view is realized.
      * </p>
      */
     private void rebuildViewMenu() {
@@ -569,7 +652,7 @@ public class ViewManager implements Iterable<BaseView> {
         }
 
         for (ViewConfiguration<?> config : configs) {
-            if (config.lazily && !config.isRealized()) {
+            if (config.isLazy() && !config.isRealized()) {
                 insertLazyPlaceholder(config);
             }
         }
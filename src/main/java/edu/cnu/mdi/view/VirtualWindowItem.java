@@ -97,6 +97,7 @@ public class VirtualWindowItem extends RectangleItem {
 				at.transform(sf, _focus);
 			}
 
+			geometryChanged();
 			_vview.getIContainer().refresh();
 		}
 	}
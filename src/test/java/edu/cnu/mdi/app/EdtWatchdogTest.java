@@ -0,0 +1,69 @@
+package edu.cnu.mdi.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.EventQueue;
+
+import org.junit.jupiter.api.Test;
+
+class EdtWatchdogTest {
+
+	private static void blockEdt(long millis) {
+		long end = System.nanoTime() + millis * 1_000_000L;
+		while (System.nanoTime() < end) {
+			Thread.onSpinWait();
+		}
+	}
+
+	@Test
+	void reportsStallWithSampledFrames() throws Exception {
+		EdtWatchdog watchdog = new EdtWatchdog(100, 10);
+		watchdog.start();
+		try {
+			// let a first probe establish the EDT
+			Thread.sleep(100);
+			EventQueue.invokeAndWait(() -> blockEdt(400));
+
+			long deadline = System.currentTimeMillis() + 5000;
+			while (watchdog.getStallCount() == 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+		} finally {
+			watchdog.stop();
+		}
+
+		assertEquals(1, watchdog.getStallCount());
+		assertTrue(watchdog.getLongestStallMillis() >= 300, () -> "stall " + watchdog.getLongestStallMillis());
+		EdtWatchdog.StallReport report = watchdog.getReports().get(0);
+		assertTrue(report.finished());
+		assertTrue(report.samples() > 0);
+		assertTrue(report.inclusiveFrames().stream().anyMatch(f -> f.frame().contains("EdtWatchdogTest.blockEdt")),
+				report::format);
+		assertTrue(report.inclusiveFrames().stream().noneMatch(f -> f.frame().startsWith("java.")));
+		assertTrue(watchdog.getSummary().contains("1 stall,"));
+		assertFalse(watchdog.isRunning());
+	}
+
+	@Test
+	void samplesAStallBeforeTheFirstProbe() throws Exception {
+		// have the EDT running, so the block starts before the first tick
+		EventQueue.invokeAndWait(() -> {
+		});
+		EdtWatchdog watchdog = new EdtWatchdog(100, 10);
+		watchdog.start();
+		try {
+			// the first probe is queued behind this block
+			EventQueue.invokeAndWait(() -> blockEdt(400));
+
+			long deadline = System.currentTimeMillis() + 5000;
+			while (watchdog.getStallCount() == 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+		} finally {
+			watchdog.stop();
+		}
+
+		assertEquals(1, watchdog.getStallCount());
+		assertTrue(watchdog.getReports().get(0).samples() > 0);
+	}
+}
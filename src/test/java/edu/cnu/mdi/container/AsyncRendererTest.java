@@ -0,0 +1,118 @@
+package edu.cnu.mdi.container;
+
+import static edu.cnu.mdi.container.ContainerFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import edu.cnu.mdi.item.Layer;
+import edu.cnu.mdi.item.RectangleItem;
+
+class AsyncRendererTest {
+
+	private static void awaitFrames(BaseContainer c, long n) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (c.getAsyncFramesRendered() < n && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertTrue(c.getAsyncFramesRendered() >= n, "timed out waiting for frame " + n);
+	}
+
+	@Test
+	void framesAreRenderedOffThreadAndComposited() throws Exception {
+		OffscreenContainer c = settledContainer();
+		c.setBackground(Color.white);
+		RectangleItem a = new RectangleItem(c.getDefaultLayer(), new Rectangle2D.Double(1, 1, 1, 1));
+		a.getStyleSafe().setFillColor(Color.red);
+
+		c.setAsyncRendering(true);
+		assertTrue(c.isAsyncRendering());
+
+		// The first paint only submits a scene.
+		paint(c);
+		assertEquals(1, c.getFrameItemsDrawn());
+		awaitFrames(c, 1);
+
+		// Later paints composite it without rendering again.
+		BufferedImage img = paint(c);
+		assertEquals(Color.red.getRGB(), img.getRGB(30, 70));
+		paint(c);
+		Thread.sleep(50);
+		assertEquals(1, c.getAsyncFramesRendered());
+
+		// Invalidating renders a new frame with the moved item.
+		a.translateWorld(4, 0);
+		c.setDirty(true);
+		paint(c);
+		awaitFrames(c, 2);
+		img = paint(c);
+		assertEquals(Color.white.getRGB(), img.getRGB(30, 70));
+		assertEquals(Color.red.getRGB(), img.getRGB(110, 70));
+
+		// A pan is previewed by moving the old frame until the new one arrives;
+		// either way the item lands in its new place.
+		Rectangle2D.Double world = c.getWorldSystem();
+		c.setWorldSystem(new Rectangle2D.Double(world.x - 1, world.y, world.width, world.height));
+		c.setDirty(false);
+		img = paint(c);
+		assertEquals(Color.red.getRGB(), img.getRGB(130, 70));
+		awaitFrames(c, 3);
+		img = paint(c);
+		assertEquals(Color.red.getRGB(), img.getRGB(130, 70));
+
+		c.setAsyncRendering(false);
+		assertEquals(0, c.getAsyncFramesRendered());
+		img = paint(c);
+		assertEquals(Color.red.getRGB(), img.getRGB(130, 70));
+	}
+
+	/** A rectangle that notes the threads it is drawn on. */
+	private static final class ThreadNotingItem extends RectangleItem {
+		final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+		ThreadNotingItem(Layer layer, Rectangle2D.Double rect) {
+			super(layer, rect);
+		}
+
+		@Override
+		public void drawItem(Graphics2D g2, IContainer container) {
+			threads.add(Thread.currentThread());
+			super.drawItem(g2, container);
+		}
+	}
+
+	@Test
+	void itemsAndBeforeDrawAreOnlyDrawnOnThePaintingThread() throws Exception {
+		OffscreenContainer c = settledContainer();
+		c.setBackground(Color.white);
+		Set<Thread> beforeDraws = ConcurrentHashMap.newKeySet();
+		c.setBeforeDraw((g2, container) -> {
+			beforeDraws.add(Thread.currentThread());
+			g2.setColor(Color.blue);
+			g2.fillRect(0, 0, 10, 10);
+		});
+		ThreadNotingItem a = new ThreadNotingItem(c.getDefaultLayer(), new Rectangle2D.Double(1, 1, 1, 1));
+		a.getStyleSafe().setFillColor(Color.red);
+
+		c.setAsyncRendering(true);
+		paint(c);
+		assertFalse(a.isDirty());
+		awaitFrames(c, 1);
+		BufferedImage img = paint(c);
+		assertEquals(Color.red.getRGB(), img.getRGB(30, 70));
+		assertEquals(Color.blue.getRGB(), img.getRGB(5, 5));
+
+		// The render thread rasterized the recordings; only this thread ran the
+		// item and the before-draw drawable.
+		assertEquals(Set.of(Thread.currentThread()), a.threads);
+		assertEquals(Set.of(Thread.currentThread()), beforeDraws);
+		c.setAsyncRendering(false);
+	}
+}
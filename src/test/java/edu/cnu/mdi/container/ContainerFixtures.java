@@ -0,0 +1,37 @@
+package edu.cnu.mdi.container;
+
+import java.awt.EventQueue;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Shared setup for the container rendering tests.
+ */
+final class ContainerFixtures {
+
+	private ContainerFixtures() {
+	}
+
+	/**
+	 * A 200x100 px container over a 10x5 world, 20 px per world unit. It is
+	 * returned after the resize event posted by its construction has been
+	 * handled, so render counts start from a settled container.
+	 */
+	static OffscreenContainer settledContainer() throws InterruptedException, InvocationTargetException {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 10, 5), 200, 100);
+		EventQueue.invokeAndWait(() -> {
+		});
+		return c;
+	}
+
+	/** Paints a container into a new image of its size. */
+	static BufferedImage paint(BaseContainer c) {
+		BufferedImage img = new BufferedImage(c.getWidth(), c.getHeight(), BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = img.createGraphics();
+		c.paintComponent(g);
+		g.dispose();
+		return img;
+	}
+}
@@ -0,0 +1,90 @@
+package edu.cnu.mdi.container;
+
+import static edu.cnu.mdi.container.ContainerFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+import edu.cnu.mdi.item.Layer;
+import edu.cnu.mdi.item.RectangleItem;
+
+class LayerBackingStoreTest {
+
+	@Test
+	void onlyChangedRegionsAreRerendered() throws Exception {
+		OffscreenContainer c = settledContainer();
+		c.setBackground(Color.white);
+		Layer layer = c.getDefaultLayer();
+		RectangleItem a = new RectangleItem(layer, new Rectangle2D.Double(1, 1, 1, 1));
+		new RectangleItem(layer, new Rectangle2D.Double(7, 1, 1, 1));
+		a.getStyleSafe().setFillColor(Color.red);
+
+		c.setLayerCached(layer, true);
+		LayerBackingStore store = c.getLayerStore(layer);
+
+		paint(c);
+		assertEquals(1, store.getFullRenderCount());
+
+		// Nothing changed: the image is composited without rendering.
+		paint(c);
+		assertEquals(1, store.getFullRenderCount());
+		assertEquals(0, store.getPartialRenderCount());
+
+		// Moving one item re-renders its old and new footprints only.
+		a.translateWorld(2, 0);
+		BufferedImage img = paint(c);
+		assertEquals(1, store.getFullRenderCount());
+		assertEquals(1, store.getPartialRenderCount());
+		assertEquals(Color.white.getRGB(), img.getRGB(30, 70)); // old interior is cleared
+		assertEquals(Color.red.getRGB(), img.getRGB(70, 70));   // new interior is drawn
+
+		// A dirty container (zoom, pan, resize) discards the whole store.
+		c.setDirty(true);
+		paint(c);
+		assertEquals(2, store.getFullRenderCount());
+
+		c.setLayerCached(layer, false);
+		assertFalse(c.isLayerCached(layer));
+		assertNull(c.getLayerStore(layer));
+	}
+
+	@Test
+	void unchangedItemsAreNotExamined() throws Exception {
+		OffscreenContainer c = settledContainer();
+		Layer layer = c.getDefaultLayer();
+		int[] footprints = new int[1];
+		RectangleItem a = null;
+		for (int i = 0; i < 10; i++) {
+			RectangleItem item = new RectangleItem(layer, new Rectangle2D.Double(i, 1, 0.5, 0.5)) {
+				@Override
+				public Rectangle getFootprint(IContainer container) {
+					footprints[0]++;
+					return super.getFootprint(container);
+				}
+			};
+			if (i == 0) {
+				a = item;
+			}
+		}
+
+		c.setLayerCached(layer, true);
+		LayerBackingStore store = c.getLayerStore(layer);
+		paint(c);
+		footprints[0] = 0;
+
+		paint(c);
+		assertEquals(0, footprints[0]);
+		assertEquals(0, store.getPartialRenderCount());
+
+		// A selection change is picked up from the layer's dirty items.
+		a.setSelected(true);
+		paint(c);
+		assertEquals(1, store.getFullRenderCount());
+		assertEquals(1, store.getPartialRenderCount());
+	}
+}
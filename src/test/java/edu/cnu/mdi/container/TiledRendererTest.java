@@ -0,0 +1,112 @@
+package edu.cnu.mdi.container;
+
+import static edu.cnu.mdi.container.ContainerFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import edu.cnu.mdi.item.Layer;
+import edu.cnu.mdi.item.RectangleItem;
+
+class TiledRendererTest {
+
+	@Test
+	void tilesCoverTheAreaExactlyOnce() {
+		for (int n : new int[] { 1, 2, 3, 7, 16 }) {
+			List<Rectangle> tiles = TiledRenderer.split(301, 157, n);
+			assertTrue(tiles.size() >= n, () -> tiles.size() + " tiles for " + n);
+			long area = 0;
+			for (Rectangle t : tiles) {
+				assertTrue(t.width > 0 && t.height > 0);
+				area += (long) t.width * t.height;
+				for (Rectangle u : tiles) {
+					assertTrue(t == u || !t.intersects(u));
+				}
+			}
+			assertEquals(301L * 157L, area);
+		}
+	}
+
+	@Test
+	void tiledPaintMatchesSerialPaint() {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 100, 50), 400, 200);
+		c.setBackground(Color.white);
+		Random rnd = new Random(3);
+		for (int i = 0; i < 300; i++) {
+			double w = 1 + rnd.nextDouble() * 8;
+			double h = 1 + rnd.nextDouble() * 8;
+			RectangleItem item = new RectangleItem(c.getDefaultLayer(),
+					new Rectangle2D.Double(rnd.nextDouble() * 95, rnd.nextDouble() * 45, w, h));
+			item.getStyleSafe().setFillColor(new Color(rnd.nextInt(0xffffff)));
+		}
+
+		BufferedImage serial = paint(c);
+		c.setRenderTileCount(7);
+		assertEquals(7, c.getRenderTileCount());
+		BufferedImage tiled = paint(c);
+		assertEquals(300, c.getFrameItemsDrawn());
+
+		for (int y = 0; y < serial.getHeight(); y++) {
+			for (int x = 0; x < serial.getWidth(); x++) {
+				assertEquals(serial.getRGB(x, y), tiled.getRGB(x, y), "pixel " + x + "," + y);
+			}
+		}
+		c.setRenderTileCount(0);
+		assertEquals(1, c.getRenderTileCount());
+	}
+
+	/** A rectangle that notes the threads it is drawn on, once per draw. */
+	private static final class ThreadNotingItem extends RectangleItem {
+		final List<Thread> draws = new CopyOnWriteArrayList<>();
+
+		ThreadNotingItem(Layer layer, Rectangle2D.Double rect) {
+			super(layer, rect);
+		}
+
+		@Override
+		public void drawItem(Graphics2D g2, IContainer container) {
+			draws.add(Thread.currentThread());
+			super.drawItem(g2, container);
+		}
+	}
+
+	@Test
+	void seamItemsAndBeforeDrawAreDrawnOnceOnThePaintingThread() {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 100, 50), 400, 200);
+		c.setBackground(Color.white);
+		List<Thread> beforeDraws = new CopyOnWriteArrayList<>();
+		c.setBeforeDraw((g2, container) -> {
+			beforeDraws.add(Thread.currentThread());
+			g2.setColor(Color.blue);
+			g2.fillRect(0, 0, 20, 20);
+		});
+		// crosses every seam of a 4x2 grid
+		ThreadNotingItem item = new ThreadNotingItem(c.getDefaultLayer(), new Rectangle2D.Double(10, 10, 80, 30));
+		item.getStyleSafe().setFillColor(Color.red);
+
+		BufferedImage serial = paint(c);
+		item.draws.clear();
+		beforeDraws.clear();
+
+		c.setRenderTileCount(8);
+		BufferedImage tiled = paint(c);
+		assertEquals(List.of(Thread.currentThread()), item.draws);
+		assertEquals(List.of(Thread.currentThread()), beforeDraws);
+		assertFalse(item.isDirty());
+
+		for (int y = 0; y < serial.getHeight(); y++) {
+			for (int x = 0; x < serial.getWidth(); x++) {
+				assertEquals(serial.getRGB(x, y), tiled.getRGB(x, y), "pixel " + x + "," + y);
+			}
+		}
+	}
+}
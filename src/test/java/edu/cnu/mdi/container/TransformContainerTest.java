@@ -0,0 +1,54 @@
+package edu.cnu.mdi.container;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+import org.junit.jupiter.api.Test;
+
+class TransformContainerTest {
+
+	@Test
+	void transformsMatchASwingContainer() {
+		Rectangle2D.Double world = new Rectangle2D.Double(-3, 2, 12, 6);
+		TransformContainer tc = new TransformContainer(world, 240, 120);
+		OffscreenContainer oc = new OffscreenContainer(world, 240, 120);
+
+		assertNull(tc.getComponent());
+		assertEquals(240, tc.getWidth());
+		assertEquals(120, tc.getHeight());
+		assertEquals(world, tc.getWorldSystem());
+
+		Point2D.Double[] samples = { new Point2D.Double(-3, 8), new Point2D.Double(9, 2), new Point2D.Double(1.3, 4.7) };
+		for (Point2D.Double wp : samples) {
+			Point a = new Point();
+			Point b = new Point();
+			tc.worldToLocal(a, wp);
+			oc.worldToLocal(b, wp);
+			assertEquals(b, a);
+
+			Point2D.Double wa = new Point2D.Double();
+			Point2D.Double wb = new Point2D.Double();
+			tc.localToWorld(a, wa);
+			oc.localToWorld(b, wb);
+			assertEquals(wb, wa);
+		}
+
+		Rectangle r = new Rectangle();
+		tc.worldToLocal(r, new Rectangle2D.Double(0, 4, 3, 2));
+		assertEquals(new Rectangle(60, 40, 60, 40), r);
+	}
+
+	@Test
+	void isImmutable() {
+		TransformContainer tc = new TransformContainer(new Rectangle2D.Double(0, 0, 1, 1), 10, 10);
+		assertThrows(UnsupportedOperationException.class, () -> tc.pan(1, 1));
+		assertThrows(UnsupportedOperationException.class, () -> tc.setWorldSystem(new Rectangle2D.Double(0, 0, 2, 2)));
+		assertThrows(IllegalArgumentException.class, () -> new TransformContainer(new Rectangle2D.Double(0, 0, 0, 1), 10, 10));
+		tc.refresh();
+		assertTrue(tc.getItemsAtPoint(new Point()).isEmpty());
+	}
+}
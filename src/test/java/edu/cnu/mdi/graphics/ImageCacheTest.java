@@ -0,0 +1,79 @@
+package edu.cnu.mdi.graphics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class ImageCacheTest {
+
+	/** A 10x10 int image weighs 400 bytes. */
+	private static BufferedImage image() {
+		return new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+	}
+
+	@Test
+	void weighsImagesByPixelMemory() {
+		assertEquals(400, ImageCache.bytesOf(image()));
+		assertEquals(100, ImageCache.bytesOf(new BufferedImage(10, 10, BufferedImage.TYPE_BYTE_GRAY)));
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedToStayWithinBudget() {
+		ImageCache<BufferedImage> cache = new ImageCache<>("test", 1000, ImageCache::bytesOf);
+		AtomicInteger loads = new AtomicInteger();
+		cache.get("a", k -> { loads.incrementAndGet(); return image(); });
+		cache.get("b", k -> { loads.incrementAndGet(); return image(); });
+		cache.get("a", k -> { loads.incrementAndGet(); return image(); }); // a is now newest
+		cache.get("c", k -> { loads.incrementAndGet(); return image(); }); // evicts b
+
+		ImageCache.Stats s = cache.stats();
+		assertEquals(3, loads.get());
+		assertEquals(2, s.entries());
+		assertEquals(800, s.bytes());
+		assertEquals(1, s.hits());
+		assertEquals(3, s.misses());
+		assertEquals(1, s.evictions());
+		assertNotNull(cache.getIfPresent("a"));
+		assertNull(cache.getIfPresent("b"));
+	}
+
+	@Test
+	void nullAndOversizedValuesAreNotCached() {
+		ImageCache<BufferedImage> cache = new ImageCache<>("test", 300, ImageCache::bytesOf);
+		assertNull(cache.get("missing", k -> null));
+		assertNotNull(cache.get("big", k -> image()));
+		assertEquals(0, cache.stats().entries());
+		assertEquals(2, cache.stats().misses());
+	}
+
+	@Test
+	void softReferencesRecoverEvictedEntries() {
+		ImageCache<BufferedImage> cache = new ImageCache<>("test", 500, ImageCache::bytesOf);
+		cache.setSoftReferences(true);
+		BufferedImage a = cache.get("a", k -> image());
+		cache.get("b", k -> image()); // evicts a into the soft part
+
+		// a is strongly reachable here, so the collector cannot have cleared it
+		assertSame(a, cache.getIfPresent("a"));
+		assertEquals(1, cache.stats().softHits());
+		assertEquals(1, cache.stats().entries());
+
+		cache.setSoftReferences(false);
+		assertNull(cache.getIfPresent("b"));
+	}
+
+	@Test
+	void shrinkingTheBudgetEvictsAtOnce() {
+		ImageCache<BufferedImage> cache = new ImageCache<>("test", 2000, ImageCache::bytesOf);
+		for (String k : new String[] { "a", "b", "c", "d" }) {
+			cache.get(k, x -> image());
+		}
+		cache.setMaxBytes(500);
+		assertEquals(1, cache.stats().entries());
+		assertNotNull(cache.getIfPresent("d"));
+		assertThrows(IllegalArgumentException.class, () -> cache.setMaxBytes(0));
+	}
+}
@@ -0,0 +1,95 @@
+package edu.cnu.mdi.graphics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import edu.cnu.mdi.container.OffscreenContainer;
+import edu.cnu.mdi.item.RectangleItem;
+
+class PaintProfilerTest {
+
+	@Test
+	void disabledProfilerRecordsNothing() {
+		PaintProfiler p = new PaintProfiler(null);
+		assertEquals(0L, p.start());
+		p.beginFrame();
+		p.section("x", p.start());
+		p.item(() -> "item", p.start());
+		p.endFrame();
+		assertEquals(0, p.getFrameCount());
+		assertTrue(p.getSections().isEmpty());
+		assertTrue(p.getSlowestItems().isEmpty());
+	}
+
+	@Test
+	void aggregatesSectionsAndKeepsSlowestItems() throws IOException {
+		PaintProfiler p = new PaintProfiler(null);
+		p.setEnabled(true);
+		for (int f = 0; f < 3; f++) {
+			p.beginFrame();
+			p.section("layer A", p.start());
+			for (int i = 0; i < 2 * PaintProfiler.SLOWEST_COUNT; i++) {
+				p.item(() -> "item", p.start() - 1_000_000L * (1 + i));
+			}
+			p.endFrame();
+		}
+
+		assertEquals(3, p.getFrameCount());
+		assertEquals(3, p.getFramesPerSecond(), 0.0);
+		List<PaintProfiler.SectionStats> sections = p.getSections();
+		assertEquals(1, sections.size());
+		assertEquals("layer A", sections.get(0).name());
+		assertEquals(3, sections.get(0).count());
+
+		List<PaintProfiler.ItemTiming> slow = p.getSlowestItems();
+		assertEquals(PaintProfiler.SLOWEST_COUNT, slow.size());
+		assertTrue(slow.get(0).millis() >= 2 * PaintProfiler.SLOWEST_COUNT);
+		assertTrue(slow.get(0).millis() >= slow.get(slow.size() - 1).millis());
+
+		StringWriter csv = new StringWriter();
+		p.writeCsv(csv);
+		String[] rows = csv.toString().split("\n");
+		assertEquals(2 + sections.size() + slow.size(), rows.length);
+		assertTrue(rows[2].startsWith("section,layer A,3,"));
+
+		StringWriter json = new StringWriter();
+		p.writeJson(json);
+		JsonObject root = JsonParser.parseString(json.toString()).getAsJsonObject();
+		assertEquals(3, root.getAsJsonObject("frames").get("count").getAsInt());
+		assertEquals(1, root.getAsJsonArray("sections").size());
+		assertEquals(PaintProfiler.SLOWEST_COUNT, root.getAsJsonArray("slowestItems").size());
+
+		p.reset();
+		assertEquals(0, p.getFrameCount());
+		assertTrue(p.getSections().isEmpty());
+	}
+
+	@Test
+	void containerPaintIsProfiledPerLayer() {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 10, 10), 100, 100);
+		new RectangleItem(c.getDefaultLayer(), new Rectangle2D.Double(1, 1, 2, 2));
+		PaintProfiler p = c.getPaintProfiler();
+		p.setOverlayVisible(true);
+
+		BufferedImage img = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = img.createGraphics();
+		c.paintComponent(g);
+		g.dispose();
+
+		assertEquals(1, p.getFrameCount());
+		String layer = "layer " + c.getDefaultLayer().getName();
+		assertTrue(p.getSections().stream().anyMatch(s -> s.name().equals(layer)));
+		assertEquals(1, p.getSlowestItems().size());
+	}
+}
@@ -0,0 +1,67 @@
+package edu.cnu.mdi.graphics.connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import edu.cnu.mdi.container.OffscreenContainer;
+import edu.cnu.mdi.item.ConnectorItem;
+import edu.cnu.mdi.item.ItemChangeType;
+import edu.cnu.mdi.item.Layer;
+import edu.cnu.mdi.item.RectangleItem;
+
+class ConnectionManagerTest {
+
+	private static RectangleItem box(Layer layer, double x) {
+		RectangleItem item = new RectangleItem(layer, new Rectangle2D.Double(x, 10, 5, 5));
+		item.setConnectable(true);
+		return item;
+	}
+
+	@Test
+	void indexesConnectorsByEndpointAndPair() {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 100, 100), 200, 200);
+		Layer layer = c.getDefaultLayer();
+		ConnectionManager cm = ConnectionManager.getInstance();
+		RectangleItem a = box(layer, 10);
+		RectangleItem b = box(layer, 30);
+		RectangleItem d = box(layer, 50);
+
+		ConnectorItem ab = cm.connect(layer, a, b);
+		ConnectorItem bd = cm.connect(layer, b, d);
+		assertNotNull(ab);
+		assertNotNull(bd);
+
+		assertTrue(cm.hasConnection(a, b));
+		assertTrue(cm.hasConnection(b, a));
+		assertFalse(cm.hasConnection(a, d));
+		assertNull(cm.connect(layer, b, a), "duplicate in reverse direction");
+
+		assertEquals(2, cm.getConnectors(b).size());
+		assertEquals(Set.of(a, d), cm.getConnectedItems(b));
+
+		// moving an endpoint dirties only its own connectors
+		ab.setDirty(false);
+		bd.setDirty(false);
+		cm.itemChanged(layer, a, ItemChangeType.MOVED);
+		assertTrue(ab.isDirty());
+		assertFalse(bd.isDirty());
+
+		// deleting an endpoint removes its connectors from layer and indexes
+		layer.remove(a);
+		assertFalse(cm.hasConnection(a, b));
+		assertTrue(cm.getConnectors(a).isEmpty());
+		assertFalse(layer.contains(ab));
+		assertEquals(List.of(bd), cm.getConnectors(b));
+
+		// deleting a connector unlinks both endpoints
+		layer.remove(bd);
+		assertFalse(cm.hasConnection(b, d));
+		assertTrue(cm.getConnectedItems(d).isEmpty());
+		assertTrue(cm.getConnectors().stream().noneMatch(x -> x == ab || x == bd));
+	}
+}
@@ -0,0 +1,140 @@
+package edu.cnu.mdi.item;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+import edu.cnu.mdi.container.OffscreenContainer;
+
+class ItemRepaintTest {
+
+	/** Records the refresh requests items make. */
+	@SuppressWarnings("serial")
+	private static class RecordingContainer extends OffscreenContainer {
+		int fullRefreshes;
+		Rectangle region;
+
+		RecordingContainer() {
+			super(new Rectangle2D.Double(0, 0, 100, 100), 500, 500);
+		}
+
+		@Override
+		public void refresh() {
+			fullRefreshes++;
+		}
+
+		@Override
+		public void refresh(Rectangle r) {
+			region = (region == null) ? new Rectangle(r) : region.union(r);
+		}
+	}
+
+	private static void paint(OffscreenContainer c, BufferedImage img, Rectangle clip) {
+		Graphics2D g = img.createGraphics();
+		if (clip != null) {
+			g.setClip(clip);
+		}
+		c.paintComponent(g);
+		g.dispose();
+	}
+
+	@Test
+	void movingOneItemRepaintsOnlyItsOldAndNewFootprints() {
+		RecordingContainer c = new RecordingContainer();
+		c.setBackground(Color.white);
+		Layer layer = c.getDefaultLayer();
+		layer.setSpatialIndexEnabled(true);
+		for (int i = 0; i < Layer.INDEX_THRESHOLD; i++) {
+			new RectangleItem(layer, new Rectangle2D.Double(60 + (i % 16) * 2, 60 + (i / 16) * 2, 1, 1));
+		}
+		RectangleItem moved = new RectangleItem(layer, new Rectangle2D.Double(10, 10, 5, 5));
+		moved.getStyleSafe().setFillColor(Color.red);
+
+		BufferedImage img = new BufferedImage(500, 500, BufferedImage.TYPE_INT_RGB);
+		paint(c, img, null);
+		Rectangle before = moved.getFootprint(c);
+
+		moved.translateWorld(10, 0);
+		moved.repaint();
+		assertEquals(0, c.fullRefreshes);
+		Rectangle region = c.region;
+		assertTrue(region.contains(before));
+		assertTrue(region.contains(moved.getFootprint(c)));
+		assertFalse(region.intersects(new Rectangle(300, 0, 200, 500)));
+
+		// A paint clipped to the region draws only the items near it ...
+		paint(c, img, region);
+		assertTrue(c.getFrameItemsDrawn() < 10, () -> "drew " + c.getFrameItemsDrawn());
+
+		// ... and leaves the same picture as a full repaint.
+		BufferedImage full = new BufferedImage(500, 500, BufferedImage.TYPE_INT_RGB);
+		paint(c, full, null);
+		for (int y = 0; y < 500; y += 3) {
+			for (int x = 0; x < 500; x += 3) {
+				assertEquals(full.getRGB(x, y), img.getRGB(x, y), "pixel " + x + "," + y);
+			}
+		}
+	}
+
+	@Test
+	void cleaningALayerVisitsOnlyDirtyItems() {
+		RecordingContainer c = new RecordingContainer();
+		Layer layer = c.getDefaultLayer();
+		RectangleItem a = new RectangleItem(layer, new Rectangle2D.Double(10, 10, 5, 5));
+		RectangleItem b = new RectangleItem(layer, new Rectangle2D.Double(30, 10, 5, 5));
+		assertTrue(a.isDirty() && b.isDirty());
+
+		layer.setDirty(false);
+		assertFalse(a.isDirty() || b.isDirty());
+
+		a.geometryChanged();
+		assertTrue(a.isDirty());
+		layer.setDirty(false);
+		assertFalse(a.isDirty());
+
+		layer.setDirty(true);
+		assertTrue(a.isDirty() && b.isDirty());
+		layer.setDirty(false);
+		assertFalse(a.isDirty() || b.isDirty());
+	}
+
+	@Test
+	void markingALayerDirtyDoesNotVisitItems() {
+		RecordingContainer c = new RecordingContainer();
+		Layer layer = c.getDefaultLayer();
+		RectangleItem a = new RectangleItem(layer, new Rectangle2D.Double(10, 10, 5, 5));
+		RectangleItem b = new RectangleItem(layer, new Rectangle2D.Double(30, 10, 5, 5));
+		BufferedImage img = new BufferedImage(500, 500, BufferedImage.TYPE_INT_RGB);
+		paint(c, img, null);
+		assertFalse(layer.isDirty());
+		assertNotNull(a.getLastDrawnPolygon());
+
+		layer.setDirty(true);
+		assertTrue(layer.isDirty());
+		assertTrue(layer.getDirtyItems().isEmpty());
+		assertTrue(a.isDirty() && b.isDirty());
+		assertNull(a.getLastDrawnPolygon());
+
+		// Drawing an item cleans it alone.
+		Graphics2D g = img.createGraphics();
+		b.draw(g, c);
+		g.dispose();
+		assertTrue(a.isDirty());
+		assertFalse(b.isDirty());
+
+		// Cleaning the layer does not bring back a polygon drawn before.
+		layer.setDirty(false);
+		assertFalse(layer.isDirty());
+		assertFalse(a.isDirty() || b.isDirty());
+		assertNull(a.getLastDrawnPolygon());
+		assertNotNull(b.getLastDrawnPolygon());
+		paint(c, img, null);
+		assertNotNull(a.getLastDrawnPolygon());
+	}
+}
@@ -0,0 +1,77 @@
+package edu.cnu.mdi.item;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.cnu.mdi.container.OffscreenContainer;
+
+class LayerBatchTest {
+
+	/** Counts single and batched notifications. */
+	private static class CountingListener implements ItemChangeListener {
+		int single;
+		final List<ItemChangeType> batchTypes = new ArrayList<>();
+		final List<Integer> batchSizes = new ArrayList<>();
+
+		@Override
+		public void itemChanged(Layer layer, AItem item, ItemChangeType type) {
+			single++;
+		}
+
+		@Override
+		public void itemsChanged(Layer layer, List<AItem> items, ItemChangeType type) {
+			batchTypes.add(type);
+			batchSizes.add(items.size());
+		}
+	}
+
+	@Test
+	void batchedEventsAreDeliveredOnceInOrder() {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 100, 100), 100, 100);
+		Layer layer = c.getDefaultLayer();
+		CountingListener listener = new CountingListener();
+		layer.addItemChangeListener(listener);
+
+		List<AItem> created = new ArrayList<>();
+		layer.beginBatch();
+		try {
+			layer.beginBatch(); // nested batches flush only at the outermost end
+			for (int i = 0; i < 1000; i++) {
+				created.add(new RectangleItem(layer, new Rectangle2D.Double(i % 100, i / 10, 1, 1)));
+			}
+			layer.endBatch();
+			assertTrue(layer.isBatching());
+			assertTrue(listener.batchTypes.isEmpty());
+
+			layer.remove(created.get(0));
+			layer.remove(created.get(1));
+		} finally {
+			layer.endBatch();
+		}
+
+		assertFalse(layer.isBatching());
+		assertEquals(0, listener.single);
+		assertEquals(List.of(ItemChangeType.ADDED, ItemChangeType.DELETED), listener.batchTypes);
+		assertEquals(List.of(1000, 2), listener.batchSizes);
+		assertEquals(998, layer.size());
+
+		// addAll skips items that are already listed
+		layer.addAll(created.subList(2, 10));
+		assertEquals(998, layer.size());
+		assertEquals(2, listener.batchTypes.size());
+	}
+
+	@Test
+	void addAllRejectsItemsOfAnotherLayer() {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 100, 100), 100, 100);
+		Layer other = new Layer(c, "Other");
+		RectangleItem foreign = new RectangleItem(other, new Rectangle2D.Double(1, 1, 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> c.getDefaultLayer().addAll(List.of(foreign)));
+		assertFalse(c.getDefaultLayer().isBatching());
+	}
+}
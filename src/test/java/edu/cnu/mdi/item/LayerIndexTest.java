@@ -0,0 +1,274 @@
+package edu.cnu.mdi.item;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.cnu.mdi.container.IContainer;
+import edu.cnu.mdi.container.OffscreenContainer;
+
+class LayerIndexTest {
+
+	/** Populates a layer past the index threshold with small random squares. */
+	private static List<AItem> populate(Layer layer, int n) {
+		Random rnd = new Random(42);
+		List<AItem> items = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			double s = 0.2 + rnd.nextDouble();
+			items.add(new RectangleItem(layer, new Rectangle2D.Double(rnd.nextDouble() * 95, rnd.nextDouble() * 95, s, s)));
+		}
+		return items;
+	}
+
+	@Test
+	void indexedQueriesMatchFullScan() {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 100, 100), 500, 500);
+		Layer layer = c.getDefaultLayer();
+		List<AItem> items = populate(layer, 2 * Layer.INDEX_THRESHOLD);
+
+		// Reorder and move a few items so both the z keys and the tree change.
+		layer.sendToBack(items.get(10));
+		layer.sendToFront(items.get(20));
+		layer.sendForward(items.get(30));
+		layer.sendBackward(items.get(40));
+		items.get(50).translateWorld(30, -20);
+		items.get(60).translateWorld(-40, 35);
+
+		Random rnd = new Random(7);
+		for (int k = 0; k < 300; k++) {
+			Point p = new Point(rnd.nextInt(500), rnd.nextInt(500));
+			Rectangle r = new Rectangle(rnd.nextInt(450), rnd.nextInt(450), 10 + rnd.nextInt(50), 10 + rnd.nextInt(50));
+
+			layer.setSpatialIndexEnabled(true);
+			AItem top = layer.getItemAtPoint(c, p);
+			ArrayList<AItem> all = layer.getItemsAtPoint(c, p);
+			ArrayList<AItem> enclosed = new ArrayList<>();
+			layer.addEnclosedItems(c, enclosed, r);
+
+			layer.setSpatialIndexEnabled(false);
+			ArrayList<AItem> expectedEnclosed = new ArrayList<>();
+			layer.addEnclosedItems(c, expectedEnclosed, r);
+			assertSame(layer.getItemAtPoint(c, p), top);
+			assertEquals(layer.getItemsAtPoint(c, p), all);
+			assertEquals(expectedEnclosed, enclosed);
+		}
+	}
+
+	@Test
+	void topMostItemWinsAndMovesArePickedUp() {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 100, 100), 500, 500);
+		Layer layer = c.getDefaultLayer();
+		layer.setSpatialIndexEnabled(true);
+		populate(layer, Layer.INDEX_THRESHOLD);
+
+		RectangleItem lower = new RectangleItem(layer, new Rectangle2D.Double(40, 40, 10, 10));
+		RectangleItem upper = new RectangleItem(layer, new Rectangle2D.Double(45, 45, 10, 10));
+		Point overlap = new Point();
+		c.worldToLocal(overlap, 47.5, 47.5);
+
+		assertSame(upper, layer.getItemAtPoint(c, overlap));
+		layer.sendToBack(upper);
+		assertSame(lower, layer.getItemAtPoint(c, overlap));
+
+		// Dragging an item away must move it in the index.
+		lower.translateWorld(-30, 0);
+		assertSame(upper, layer.getItemAtPoint(c, overlap));
+		Point moved = new Point();
+		c.worldToLocal(moved, 12.5, 42.5);
+		assertTrue(layer.getItemsAtPoint(c, moved).contains(lower));
+
+		layer.remove(upper);
+		ArrayList<AItem> hits = layer.getItemsAtPoint(c, overlap);
+		assertTrue(hits == null || !hits.contains(upper));
+	}
+
+	@Test
+	void paintCullsItemsOutsideTheView() {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 100, 100), 500, 500);
+		c.setBackground(Color.white);
+		Layer layer = c.getDefaultLayer();
+		layer.setSpatialIndexEnabled(true);
+		populate(layer, Layer.INDEX_THRESHOLD);
+		for (int i = 0; i < Layer.INDEX_THRESHOLD; i++) {
+			new RectangleItem(layer, new Rectangle2D.Double(500 + i, 500, 1, 1));
+		}
+		RectangleItem marker = new RectangleItem(layer, new Rectangle2D.Double(10, 10, 5, 5));
+		marker.getStyleSafe().setFillColor(Color.red);
+		layer.sendToFront(marker);
+
+		BufferedImage img = new BufferedImage(500, 500, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = img.createGraphics();
+		c.paintComponent(g);
+		assertEquals(Layer.INDEX_THRESHOLD, c.getFrameItemsCulled());
+		assertEquals(Layer.INDEX_THRESHOLD + 1, c.getFrameItemsDrawn());
+		Point p = new Point();
+		c.worldToLocal(p, 12.5, 12.5);
+		assertEquals(Color.red.getRGB(), img.getRGB(p.x, p.y));
+
+		layer.setSpatialIndexEnabled(false);
+		c.paintComponent(g);
+		g.dispose();
+		assertEquals(0, c.getFrameItemsCulled());
+		assertEquals(2 * Layer.INDEX_THRESHOLD + 1, c.getFrameItemsDrawn());
+	}
+
+	/** A point whose world bounds follow its focus, which moves silently. */
+	private static class BoxedPointItem extends PointItem {
+
+		BoxedPointItem(Layer layer, Point2D.Double location) {
+			super(layer, location);
+		}
+
+		@Override
+		public Rectangle2D.Double getWorldBounds() {
+			Point2D.Double f = getFocus();
+			return new Rectangle2D.Double(f.x - 0.5, f.y - 0.5, 1, 1);
+		}
+	}
+
+	@Test
+	void itemsMovedWithoutNoticeArePickedOnDefaultLayers() {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 100, 100), 500, 500);
+		Layer layer = c.getDefaultLayer();
+		assertFalse(layer.isSpatialIndexEnabled());
+		populate(layer, 2 * Layer.INDEX_THRESHOLD);
+
+		BoxedPointItem item = new BoxedPointItem(layer, new Point2D.Double(50, 50));
+		Point p = new Point();
+		c.worldToLocal(p, 50, 50);
+		assertSame(item, layer.getItemAtPoint(c, p));
+
+		// setFocus does not report a geometry change
+		item.setFocus(new Point2D.Double(99, 99));
+		c.worldToLocal(p, 99, 99);
+		assertSame(item, layer.getItemAtPoint(c, p));
+		assertTrue(layer.getItemsAtPoint(c, p).contains(item));
+	}
+
+	/** A boxed point that counts its draws. */
+	private static final class CountingPointItem extends BoxedPointItem {
+		int draws;
+
+		CountingPointItem(Layer layer, Point2D.Double location) {
+			super(layer, location);
+		}
+
+		@Override
+		public void drawItem(Graphics2D g2, IContainer container) {
+			draws++;
+			super.drawItem(g2, container);
+		}
+	}
+
+	@Test
+	void itemsMovedWithoutNoticeAreDrawnOnDefaultLayers() {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 100, 100), 500, 500);
+		Layer layer = c.getDefaultLayer();
+		populate(layer, 2 * Layer.INDEX_THRESHOLD);
+		CountingPointItem item = new CountingPointItem(layer, new Point2D.Double(150, 150));
+
+		BufferedImage img = new BufferedImage(500, 500, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = img.createGraphics();
+		c.paintComponent(g);
+		int draws = item.draws;
+
+		// setFocus does not report a geometry change
+		item.setFocus(new Point2D.Double(50, 50));
+		c.paintComponent(g);
+		g.dispose();
+		assertEquals(0, c.getFrameItemsCulled());
+		assertEquals(draws + 1, item.draws);
+	}
+
+	@Test
+	void removedItemsLeaveTheDirtySet() {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 100, 100), 500, 500);
+		Layer layer = c.getDefaultLayer();
+		Layer other = new Layer(c, "other");
+		AItem removed = new RectangleItem(layer, new Rectangle2D.Double(1, 1, 1, 1));
+		AItem moved = new RectangleItem(layer, new Rectangle2D.Double(5, 5, 1, 1));
+		removed.setDirty(true);
+		moved.setDirty(true);
+
+		// Cleaning a layer must not reach items that have left it.
+		assertTrue(layer.remove(removed));
+		assertTrue(layer.removeRaw(moved));
+		removed.setDirty(true);
+		layer.setDirty(false);
+		assertTrue(removed.isDirty());
+		assertTrue(moved.isDirty());
+
+		// An item added raw is cleaned with its new layer.
+		other.addRaw(moved);
+		other.setDirty(false);
+		assertFalse(moved.isDirty());
+	}
+
+	/** A square with a label painted {@code LABEL_OFFSET} pixels to its right. */
+	private static final class LabeledItem extends RectangleItem {
+
+		static final int LABEL_OFFSET = 60;
+
+		LabeledItem(Layer layer, Rectangle2D.Double wr) {
+			super(layer, wr);
+		}
+
+		@Override
+		public int getScreenMargin() {
+			return LABEL_OFFSET + 10;
+		}
+
+		private Rectangle label(IContainer container) {
+			Rectangle b = getBounds(container);
+			return new Rectangle(b.x + b.width + LABEL_OFFSET, b.y, 10, 10);
+		}
+
+		@Override
+		public void drawItem(Graphics2D g2, IContainer container) {
+			super.drawItem(g2, container);
+			Rectangle r = label(container);
+			g2.setColor(Color.red);
+			g2.fillRect(r.x, r.y, r.width, r.height);
+		}
+
+		@Override
+		public boolean contains(IContainer container, Point screenPoint) {
+			return super.contains(container, screenPoint) || label(container).contains(screenPoint);
+		}
+	}
+
+	@Test
+	void itemsPaintingFarOutsideTheirBoundsAreNotCulled() {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 100, 100), 500, 500);
+		c.setBackground(Color.white);
+		Layer layer = c.getDefaultLayer();
+		layer.setSpatialIndexEnabled(true);
+		populate(layer, Layer.INDEX_THRESHOLD);
+
+		// 5 px per world unit: the square ends 20 px left of the view, its label
+		// is 40 px inside it
+		LabeledItem item = new LabeledItem(layer, new Rectangle2D.Double(-6, 50, 2, 2));
+		assertFalse(Layer.isIndexable(item));
+		Rectangle label = item.label(c);
+		Point p = new Point(label.x + 5, label.y + 5);
+
+		assertSame(item, layer.getItemAtPoint(c, p));
+		BufferedImage img = new BufferedImage(500, 500, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = img.createGraphics();
+		c.paintComponent(g);
+		g.dispose();
+		assertEquals(Color.red.getRGB(), img.getRGB(p.x, p.y));
+		assertTrue(item.getFootprint(c).contains(label));
+	}
+}
@@ -0,0 +1,230 @@
+package edu.cnu.mdi.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JsonIndexTest {
+
+	private static final String DOC = """
+			{
+			  "name": "Alice",
+			  "tags": ["a", "b", {"deep": [1, 2.5, true, null]}],
+			  "address": {"city": "Newport News", "zip": 23606},
+			  "empty": []
+			}
+			""";
+
+	@TempDir
+	Path dir;
+
+	private JsonIndex index(String json) throws IOException {
+		Path file = dir.resolve("doc.json");
+		Files.writeString(file, json, StandardCharsets.UTF_8);
+		return JsonIndex.build(file);
+	}
+
+	@Test
+	void indexesContainersOnly() throws Exception {
+		JsonIndex index = index(DOC);
+		// root, tags, {deep}, deep array, address, empty
+		assertEquals(6, index.containerCount());
+		assertEquals(0, index.rootContainer());
+		assertEquals(4, index.childCount(0));
+		assertTrue(index.isObject(0));
+		assertEquals(3, index.childCount(1));
+		assertFalse(index.isObject(1));
+		assertEquals(2, index.parent(3));
+		assertEquals(index.size() - 1, index.end(0), "root ends before the final newline");
+
+		JsonIndex.Children root = index.children(0);
+		assertEquals("tags", root.key(1));
+		assertEquals(1, index.containerAt(root.offsets()[1]));
+		assertEquals("tags  [3 items]", index.valueData(root.key(1), root.offsets()[1]).toString());
+		assertEquals("name: \"Alice\"", index.valueData(root.key(0), root.offsets()[0]).toString());
+
+		JsonIndex.Children deep = index.children(3);
+		assertEquals("[1]", deep.key(1));
+		assertEquals(JsonNodeData.Kind.NUMBER, index.valueData("[1]", deep.offsets()[1]).kind);
+		assertEquals(JsonNodeData.Kind.NULL, index.valueData("[3]", deep.offsets()[3]).kind);
+	}
+
+	@Test
+	void searchMarksInnermostContainerAndAncestors() throws Exception {
+		JsonIndex index = index(DOC);
+		BitSet hits = index.findContainers("NEWPORT");
+		assertEquals(BitSet.valueOf(new long[] { 0b10001 }), hits);
+		assertTrue(index.findContainers("nothing like this").isEmpty());
+	}
+
+	@Test
+	void lazyModelMaterializesAndFilters() throws Exception {
+		JsonIndex index = index(DOC);
+		JsonIndexTreeModel model = new JsonIndexTreeModel(index, "doc.json");
+		Object root = model.getRoot();
+		assertEquals(4, model.getChildCount(root));
+		Object tags = model.getChild(root, 1);
+		assertFalse(model.isLeaf(tags));
+		assertEquals(3, model.memberCount(tags));
+		Object b = model.getChild(tags, 1);
+		assertTrue(model.isLeaf(b));
+		assertEquals("[1]: \"b\"", b.toString());
+		assertEquals(1, model.getIndexOfChild(tags, b));
+		assertEquals(model.getChild(tags, 1), b, "nodes compare by identity in the document");
+		assertEquals(0, model.getChildCount(model.getChild(root, 3)));
+
+		JsonIndexTreeModel filtered = new JsonIndexTreeModel(index, "doc.json", "zip",
+				index.findContainers("zip"));
+		Object froot = filtered.getRoot();
+		assertEquals(1, filtered.getChildCount(froot));
+		Object address = filtered.getChild(froot, 0);
+		assertEquals("address  {2 keys}", address.toString());
+		assertEquals(1, filtered.getChildCount(address));
+		assertEquals("zip: 23606", filtered.getChild(address, 0).toString());
+		assertEquals(0, filtered.getIndexOfChild(froot, address));
+		assertEquals(-1, filtered.getIndexOfChild(froot, model.getChild(root, 0)), "filtered out");
+	}
+
+	@Test
+	void scalarRootAndErrors() throws Exception {
+		JsonIndex scalar = index("  42 ");
+		assertEquals(-1, scalar.rootContainer());
+		JsonIndexTreeModel model = new JsonIndexTreeModel(scalar, "n.json");
+		assertEquals(1, model.getChildCount(model.getRoot()));
+		assertEquals("42", model.getChild(model.getRoot(), 0).toString());
+
+		assertThrows(IOException.class, () -> index("{\"a\": [1, 2}"));
+		assertThrows(IOException.class, () -> index("{} {}"));
+		assertThrows(IOException.class, () -> index("   "));
+	}
+
+	@Test
+	void childrenJumpOverNestedContainersAndDecodeEscapes() throws Exception {
+		JsonIndex index = index("""
+				{"a\\u00e9\\"q": {"x": "}]\\"", "y": [[1], {"z": "]"}]},
+				 "café" : "line\\nend \\ud83d\\ude00 über",
+				 "n":-1.5e3,"t":true , "nil":null}
+				""");
+		JsonIndex.Children root = index.children(0);
+		assertEquals(5, root.size());
+		assertEquals("aé\"q", root.key(0));
+		assertEquals("café", root.key(1));
+		assertEquals("aé\"q  {2 keys}", index.valueData(root.key(0), root.offsets()[0]).toString());
+		assertEquals("\"line\nend \ud83d\ude00 über\"", index.valueData("", root.offsets()[1]).value);
+		assertEquals("n: -1.5e3", index.valueData(root.key(2), root.offsets()[2]).toString());
+		assertEquals(JsonNodeData.Kind.BOOLEAN, index.valueData(root.key(3), root.offsets()[3]).kind);
+		assertEquals(JsonNodeData.Kind.NULL, index.valueData(root.key(4), root.offsets()[4]).kind);
+
+		JsonIndex.Children nested = index.children(1);
+		assertEquals("\"}]\"\"", index.valueData("", nested.offsets()[0]).value);
+		assertEquals(2, index.childCount(index.containerAt(nested.offsets()[1])));
+
+		String longText = "é".repeat(JsonIndex.MAX_LABEL_CHARS + 10);
+		JsonIndex clipped = index("[\"" + longText + "\"]");
+		assertEquals("\"" + longText.substring(0, JsonIndex.MAX_LABEL_CHARS) + "…\"",
+				clipped.valueData("", clipped.children(0).offsets()[0]).value);
+	}
+
+	@Test
+	void largeContainersLoadInTheBackground() throws Exception {
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < JsonIndexTreeModel.BACKGROUND_MEMBERS; i++) {
+			json.append(i == 0 ? "" : ",").append(i);
+		}
+		JsonIndex index = index(json.append("]").toString());
+		JsonIndexTreeModel model = new JsonIndexTreeModel(index, "big.json");
+		CountDownLatch changed = new CountDownLatch(1);
+		model.addTreeModelListener(new TreeModelListener() {
+			@Override
+			public void treeStructureChanged(TreeModelEvent e) {
+				assertSame(model.getRoot(), e.getTreePath().getLastPathComponent());
+				changed.countDown();
+			}
+
+			@Override
+			public void treeNodesChanged(TreeModelEvent e) {
+			}
+
+			@Override
+			public void treeNodesInserted(TreeModelEvent e) {
+			}
+
+			@Override
+			public void treeNodesRemoved(TreeModelEvent e) {
+			}
+		});
+
+		Object root = model.getRoot();
+		assertEquals(1, model.getChildCount(root));
+		Object placeholder = model.getChild(root, 0);
+		assertEquals(JsonIndexTreeModel.LOADING, placeholder.toString());
+		assertTrue(model.isLeaf(placeholder));
+		assertEquals(0, model.getIndexOfChild(root, placeholder));
+
+		assertTrue(changed.await(10, TimeUnit.SECONDS));
+		assertEquals(JsonIndexTreeModel.BACKGROUND_MEMBERS, model.getChildCount(root));
+		assertEquals("[7]: 7", model.getChild(root, 7).toString());
+	}
+
+	@Test
+	void expandedContainersSurviveCacheEviction() throws Exception {
+		int containers = 300; // more than the model's member-list cache holds
+		StringBuilder json = new StringBuilder("[");
+		String members = ",0".repeat(JsonIndexTreeModel.BACKGROUND_MEMBERS - 1);
+		for (int i = 0; i < containers; i++) {
+			json.append(i == 0 ? "[0" : ",[0").append(members).append(']');
+		}
+		JsonIndex index = index(json.append("]").toString());
+		JsonIndexTreeModel model = new JsonIndexTreeModel(index, "big.json");
+		CountDownLatch loaded = new CountDownLatch(containers);
+		model.addTreeModelListener(new TreeModelListener() {
+			@Override
+			public void treeStructureChanged(TreeModelEvent e) {
+				loaded.countDown();
+			}
+
+			@Override
+			public void treeNodesChanged(TreeModelEvent e) {
+			}
+
+			@Override
+			public void treeNodesInserted(TreeModelEvent e) {
+			}
+
+			@Override
+			public void treeNodesRemoved(TreeModelEvent e) {
+			}
+		});
+
+		Object[] children = new Object[containers];
+		SwingUtilities.invokeAndWait(() -> {
+			Object root = model.getRoot();
+			model.expanded(root);
+			for (int i = 0; i < containers; i++) {
+				children[i] = model.getChild(root, i);
+				model.expanded(children[i]);
+				assertEquals(1, model.getChildCount(children[i]), "loading placeholder");
+			}
+		});
+		assertTrue(loaded.await(60, TimeUnit.SECONDS));
+
+		SwingUtilities.invokeAndWait(() -> {
+			assertEquals(JsonIndexTreeModel.BACKGROUND_MEMBERS, model.getChildCount(children[0]));
+			assertNotNull(model.getChild(children[0], 1));
+			assertEquals("[7]: 0", model.getChild(children[0], 7).toString());
+		});
+	}
+}
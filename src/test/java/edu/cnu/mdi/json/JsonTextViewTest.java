@@ -0,0 +1,133 @@
+package edu.cnu.mdi.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.Test;
+
+class JsonTextViewTest {
+
+	private static ByteBuffer utf8(String s) {
+		return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void rowStartsFollowLines() {
+		assertArrayEquals(new int[] { 0, 3, 4 }, ByteScan.rowStarts(utf8("ab\n\ncd"), 100));
+		// a trailing newline does not open an empty row
+		assertArrayEquals(new int[] { 0, 3 }, ByteScan.rowStarts(utf8("ab\ncd\n"), 100));
+		assertArrayEquals(new int[] { 0 }, ByteScan.rowStarts(utf8(""), 100));
+	}
+
+	@Test
+	void longLinesWrapAtCharacterBoundaries() {
+		assertArrayEquals(new int[] { 0, 4, 8, 11 }, ByteScan.rowStarts(utf8("abcdefghij\nk"), 4));
+		// "é" is two bytes; the break at offset 4 would split it
+		assertArrayEquals(new int[] { 0, 3, 7 }, ByteScan.rowStarts(utf8("abcédef"), 4));
+	}
+
+	@Test
+	void findIgnoresAsciiCase() {
+		ByteBuffer b = utf8("{\"Name\": \"name\", \"x\": \"NAME\"}");
+		assertArrayEquals(new int[] { 2, 10, 23 }, ByteScan.find(b, "name", 100));
+		assertArrayEquals(new int[] { 2, 10 }, ByteScan.find(b, "NAME", 2));
+		assertEquals(0, ByteScan.find(b, "zzz", 100).length);
+	}
+
+	@Test
+	void tokenizerClassifiesKeysAcrossRows() {
+		List<JsonTokenPainter.Kind> kinds = new ArrayList<>();
+		JsonTokenPainter.tokenize("  \"key\"\n  : 1", 7, JsonTokenPainter.BETWEEN, (s, e, k) -> kinds.add(k));
+		assertEquals(List.of(JsonTokenPainter.Kind.KEY), kinds);
+
+		kinds.clear();
+		String row = "\"a\": [1, -2.5e3, true, null], \"b\"";
+		JsonTokenPainter.tokenize(row + "}", row.length(), JsonTokenPainter.BETWEEN, (s, e, k) -> kinds.add(k));
+		assertEquals(List.of(JsonTokenPainter.Kind.KEY, JsonTokenPainter.Kind.STRUCTURAL,
+				JsonTokenPainter.Kind.STRUCTURAL, JsonTokenPainter.Kind.NUMBER,
+				JsonTokenPainter.Kind.STRUCTURAL, JsonTokenPainter.Kind.NUMBER,
+				JsonTokenPainter.Kind.STRUCTURAL, JsonTokenPainter.Kind.BOOLEAN,
+				JsonTokenPainter.Kind.STRUCTURAL, JsonTokenPainter.Kind.NULL,
+				JsonTokenPainter.Kind.STRUCTURAL, JsonTokenPainter.Kind.STRUCTURAL,
+				JsonTokenPainter.Kind.STRING), kinds);
+	}
+
+	@Test
+	void wrappedTokensKeepTheirKindOnBothRows() {
+		// 6-byte rows split a key, a number, an escape and a literal
+		String json = "{\"key\": 12345, \"a\\\"b\": true}";
+		int[] rows = ByteScan.rowStarts(utf8(json), 6);
+		assertArrayEquals(new int[] { 0, 6, 12, 18, 24 }, rows);
+		byte[] states = JsonTokenPainter.rowStates(utf8(json), rows);
+		assertArrayEquals(new byte[] { JsonTokenPainter.BETWEEN, JsonTokenPainter.BETWEEN,
+				JsonTokenPainter.IN_NUMBER, JsonTokenPainter.IN_ESCAPE, JsonTokenPainter.IN_BOOLEAN }, states);
+		ByteBuffer pretty = utf8("{\n\"a\": 1\n}");
+		assertNull(JsonTokenPainter.rowStates(pretty, ByteScan.rowStarts(pretty, 6)), "no line wraps");
+
+		List<String> tokens = new ArrayList<>();
+		for (int r = 0; r < rows.length; r++) {
+			int end = (r + 1 < rows.length) ? rows[r + 1] : json.length();
+			String text = json.substring(rows[r]);
+			JsonTokenPainter.tokenize(text, end - rows[r], states[r],
+					(s, e, k) -> tokens.add(text.substring(s, e) + "=" + k));
+		}
+		assertEquals(List.of("{=STRUCTURAL", "\"key\"=KEY", ":=STRUCTURAL", "1234=NUMBER",
+				"5=NUMBER", ",=STRUCTURAL", "\"a\\=KEY", "\"b\"=KEY", ":=STRUCTURAL",
+				"t=BOOLEAN", "rue=BOOLEAN", "}=STRUCTURAL"), tokens);
+	}
+
+	@Test
+	void viewMapsOffsetsToRowsAndColumns() {
+		JsonTextView view = new JsonTextView();
+		view.setContent(utf8("{\r\n\t\"é\": 1\r\n}"));
+		assertEquals(3, view.rowCount());
+		assertEquals("{", view.rowText(0));
+		assertEquals("    \"é\": 1", view.rowText(1));
+		assertEquals(1, view.rowOf(3));
+		// tab is four columns, "é" one column but two bytes
+		assertEquals(4, view.column(1, 4));
+		assertEquals(7, view.column(1, 8));
+	}
+
+	@Test
+	void provisionalIndexEndsAtThePrefix() throws Exception {
+		// one long unbroken line after a short first line
+		String json = "[\n" + "7".repeat(3 * JsonTextView.SYNC_INDEX_LIMIT) + "]";
+		JsonTextView view = new JsonTextView();
+		int[] provisional = new int[2];
+		SwingUtilities.invokeAndWait(() -> {
+			view.setContent(utf8(json));
+			provisional[0] = view.rowCount();
+			provisional[1] = view.rowText(view.rowCount() - 1).length();
+		});
+		assertTrue(provisional[0] < json.length() / JsonTextView.WRAP, "only the prefix is indexed");
+		assertTrue(provisional[1] <= JsonTextView.WRAP, () -> "last row has " + provisional[1] + " chars");
+	}
+
+	@Test
+	void rawPaneHighlightsSmallContentImmediately() {
+		JsonRawPane pane = new JsonRawPane();
+		pane.showJson("{\"a\": \"x\", \"b\": \"X\"}");
+		int[] count = new int[2];
+		pane.highlight("x", (c, t) -> {
+			count[0] = c;
+			count[1] = t;
+		});
+		assertArrayEquals(new int[] { 1, 2 }, count);
+		assertArrayEquals(new int[] { 7, 17 }, pane.matchOffsets());
+
+		pane.nextHighlight();
+		assertArrayEquals(new int[] { 2, 2 }, count);
+		pane.nextHighlight();
+		assertArrayEquals(new int[] { 1, 2 }, count);
+
+		pane.showJson("{}");
+		assertEquals(0, pane.matchOffsets().length);
+	}
+}
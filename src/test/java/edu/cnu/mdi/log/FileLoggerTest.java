@@ -0,0 +1,130 @@
+package edu.cnu.mdi.log;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileLoggerTest {
+
+	@TempDir
+	Path dir;
+
+	private static List<String> entries(Path file) throws IOException {
+		List<String> result = new ArrayList<>();
+		if (Files.exists(file)) {
+			for (String line : Files.readAllLines(file)) {
+				int i = line.indexOf("] ");
+				if (i > 0 && line.contains(" [INFO   ]")) {
+					result.add(line.substring(i + 2));
+				}
+			}
+		}
+		return result;
+	}
+
+	@Test
+	void ringBufferIsBoundedAndFifo() {
+		LogRingBuffer<Integer> ring = new LogRingBuffer<>(3);
+		assertEquals(4, ring.capacity());
+		for (int i = 0; i < 4; i++) {
+			assertTrue(ring.offer(i));
+		}
+		assertFalse(ring.offer(4));
+		assertEquals(0, ring.poll());
+		assertTrue(ring.offer(4));
+		for (int i = 1; i <= 4; i++) {
+			assertEquals(i, ring.poll());
+		}
+		assertNull(ring.poll());
+		assertTrue(ring.isEmpty());
+	}
+
+	@Test
+	void asyncBlockingWritesEveryEntryFromEveryThreadByClose() throws Exception {
+		Path file = dir.resolve("async.log");
+		FileLogger logger = new FileLogger(file, FileLogger.DEFAULT_MAX_BYTES, 16,
+				FileLogger.OverflowPolicy.BLOCK);
+		assertTrue(logger.isAsync());
+
+		int threads = 4;
+		int perThread = 500;
+		List<Thread> producers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			int id = t;
+			Thread p = new Thread(() -> {
+				for (int i = 0; i < perThread; i++) {
+					logger.info(id + ":" + i);
+				}
+			});
+			producers.add(p);
+			p.start();
+		}
+		for (Thread p : producers) {
+			p.join();
+		}
+		logger.close();
+		logger.info("after close");
+
+		List<String> written = entries(file);
+		assertEquals(threads * perThread, written.size());
+		assertEquals(0, logger.getDroppedCount());
+		// each producer's entries keep their order
+		for (int t = 0; t < threads; t++) {
+			String prefix = t + ":";
+			List<String> mine = written.stream().filter(s -> s.startsWith(prefix)).toList();
+			for (int i = 0; i < perThread; i++) {
+				assertEquals(prefix + i, mine.get(i));
+			}
+		}
+	}
+
+	@Test
+	void asyncModeStillRotates() throws Exception {
+		Path file = dir.resolve("rotating.log");
+		FileLogger logger = new FileLogger(file, 2000, 64, FileLogger.OverflowPolicy.BLOCK);
+		for (int i = 0; i < 40; i++) {
+			logger.info(String.format("entry %02d %s", i, "x".repeat(40)));
+		}
+		logger.close();
+
+		List<String> all = new ArrayList<>(entries(file.resolveSibling("rotating.log.1")));
+		all.addAll(entries(file));
+		assertFalse(entries(file.resolveSibling("rotating.log.1")).isEmpty());
+		assertEquals(40, all.size());
+		assertTrue(all.get(39).startsWith("entry 39"));
+		assertTrue(Files.size(file) < 2000);
+	}
+
+	@Test
+	void dropPolicyCountsAndReportsLostEntries() throws Exception {
+		Path file = dir.resolve("drop.log");
+		FileLogger logger = new FileLogger(file, FileLogger.DEFAULT_MAX_BYTES, 2,
+				FileLogger.OverflowPolicy.DROP);
+		int n = 20_000;
+		for (int i = 0; i < n; i++) {
+			logger.info("m" + i);
+		}
+		logger.close();
+
+		long dropped = logger.getDroppedCount();
+		assertEquals(n, entries(file).size() + dropped);
+		if (dropped > 0) {
+			assertTrue(Files.readString(file).contains("dropped: asynchronous buffer full"));
+		}
+	}
+
+	@Test
+	void rejectsAsyncModeWithoutPolicy() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new FileLogger(dir.resolve("x.log"), 100, 8, null));
+		assertThrows(IllegalArgumentException.class,
+				() -> new FileLogger(dir.resolve("x.log"), 100, -1, FileLogger.OverflowPolicy.DROP));
+	}
+}
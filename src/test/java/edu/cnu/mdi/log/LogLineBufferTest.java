@@ -0,0 +1,78 @@
+package edu.cnu.mdi.log;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.Test;
+
+class LogLineBufferTest {
+
+	@Test
+	void splitsMessagesIntoLinesAndEvictsOldest() {
+		LogLineBuffer buf = new LogLineBuffer(4);
+		assertEquals(3, buf.add(Log.Level.EXCEPTION, "10:00:00", "boom\r\n  at a\n  at b\n"));
+		assertEquals("10:00:00", buf.get(0).time());
+		assertNull(buf.get(1).time());
+		assertEquals("  at a", buf.get(1).text());
+
+		buf.add(Log.Level.INFO, "10:00:01", "one");
+		buf.add(Log.Level.INFO, "10:00:02", "two");
+		assertEquals(4, buf.size());
+		assertEquals(1, buf.takeEvictedCount());
+		assertEquals(0, buf.takeEvictedCount());
+		assertEquals("  at a", buf.get(0).text());
+		assertEquals("two", buf.get(3).text());
+	}
+
+	@Test
+	void filtersAndSearchesOverTheIndex() {
+		LogLineBuffer buf = new LogLineBuffer(100);
+		for (int i = 0; i < 10; i++) {
+			buf.add((i % 2 == 0) ? Log.Level.INFO : Log.Level.WARNING, "t", "message " + i);
+		}
+		assertTrue(buf.setLevelVisible(Log.Level.INFO, false));
+		assertFalse(buf.setLevelVisible(Log.Level.INFO, false));
+		assertEquals(5, buf.size());
+		assertEquals("message 1", buf.get(0).text());
+
+		// new lines of a hidden level do not enter the index
+		buf.add(Log.Level.INFO, "t", "hidden");
+		assertEquals(5, buf.size());
+		assertEquals(-1, buf.find("hidden", -1, true));
+
+		assertEquals(1, buf.find("MESSAGE 3", -1, true));
+		assertEquals(1, buf.find("message", 0, true));
+		assertEquals(4, buf.find("message", 0, false), "wraps backwards");
+
+		assertTrue(buf.setLevelVisible(Log.Level.INFO, true));
+		assertEquals(11, buf.size());
+		assertEquals("hidden", buf.get(10).text());
+	}
+
+	@Test
+	void paneCoalescesAndBoundsLines() throws Exception {
+		LogPane[] holder = new LogPane[1];
+		SwingUtilities.invokeAndWait(() -> holder[0] = new LogPane(50));
+		LogPane pane = holder[0];
+		try {
+			for (int i = 0; i < 200; i++) {
+				Log.getInstance().info("line " + i);
+			}
+			SwingUtilities.invokeAndWait(() -> {
+			});
+			SwingUtilities.invokeAndWait(() -> {
+				assertEquals(50, pane.getLineCount());
+				assertTrue(pane.getLineText(49).endsWith("line 199"));
+				pane.setLevelVisible(Log.Level.INFO, false);
+				assertEquals(0, pane.getLineCount());
+				pane.setLevelVisible(Log.Level.INFO, true);
+				assertEquals(49, pane.find("line 199", true));
+				pane.clear();
+				assertEquals(0, pane.getLineCount());
+			});
+		} finally {
+			pane.detach();
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package edu.cnu.mdi.mapping.item;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+import org.junit.jupiter.api.Test;
+
+import edu.cnu.mdi.container.OffscreenContainer;
+import edu.cnu.mdi.item.Layer;
+
+class MapPolylineItemTest {
+
+	private static Layer layer() {
+		return new OffscreenContainer(new Rectangle2D.Double(-4, -2, 8, 4), 100, 50).getDefaultLayer();
+	}
+
+	private static Point2D.Double[] path() {
+		return new Point2D.Double[] { new Point2D.Double(0.1, 0.2), new Point2D.Double(0.5, -0.3),
+				new Point2D.Double(0.9, 0.4) };
+	}
+
+	@Test
+	void verticesAreCopiedInAndOut() {
+		Point2D.Double[] src = path();
+		MapPolylineItem item = new MapPolylineItem(layer(), src);
+		src[0].x = 3.0;
+
+		Point2D.Double[] out = item.getLatLons();
+		assertEquals(3, item.getVertexCount());
+		assertEquals(0.1, out[0].x, 0.0);
+		out[1].y = 1.0;
+		assertEquals(-0.3, item.getLatLons()[1].y, 0.0);
+	}
+
+	@Test
+	void translationMovesBoundsAndFocus() {
+		MapPolylineItem item = new MapPolylineItem(layer(), path());
+		item.translateWorld(0.25, -0.1);
+
+		Rectangle2D.Double wb = item.getWorldBounds();
+		assertEquals(0.35, wb.x, 1e-12);
+		assertEquals(-0.4, wb.y, 1e-12);
+		assertEquals(0.8, wb.width, 1e-12);
+		assertEquals(0.7, wb.height, 1e-12);
+		assertEquals(0.5 + 0.25, item.getFocus().x, 1e-12);
+		assertEquals(0.1 - 0.1, item.getFocus().y, 1e-12);
+	}
+
+	@Test
+	void tooFewOrNullVerticesAreRejected() {
+		Layer layer = layer();
+		assertThrows(IllegalArgumentException.class,
+				() -> new MapPolylineItem(layer, new Point2D.Double[] { new Point2D.Double() }));
+		assertThrows(IllegalArgumentException.class,
+				() -> new MapPolylineItem(layer, new Point2D.Double[] { new Point2D.Double(), null }));
+	}
+}
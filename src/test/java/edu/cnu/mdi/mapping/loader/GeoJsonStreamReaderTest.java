@@ -0,0 +1,96 @@
+package edu.cnu.mdi.mapping.loader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.cnu.mdi.mapping.util.PackedGeometry;
+
+class GeoJsonStreamReaderTest {
+
+    private static final String DOC = """
+            {
+              "features": [
+                { "type": "Feature",
+                  "geometry": { "coordinates": [[[[0,0],[90,0],[90,45],[0,0]]],
+                                                [[[10,10],[20,10],[20,20]]]],
+                                "type": "MultiPolygon" },
+                  "properties": { "ADMIN": "Testland", "ISO_A3": "TST",
+                                  "POP": 12, "nested": { "x": [1, 2] } } },
+                { "type": "Feature",
+                  "properties": { "NAME": "Capital" },
+                  "geometry": { "type": "Point", "coordinates": [180, -90, 5] } },
+                { "type": "NotAFeature", "properties": {} }
+              ],
+              "type": "FeatureCollection"
+            }
+            """;
+
+    private record Seen(Map<String, Object> props, String type, PackedGeometry geom) {}
+
+    @Test
+    void deliversFeaturesWithPackedRadianCoordinates() throws IOException {
+        List<Seen> seen = new ArrayList<>();
+        double[] lastProgress = { -1 };
+
+        GeoJsonStreamReader reader = new GeoJsonStreamReader(DOC.length(),
+                f -> lastProgress[0] = f);
+        reader.read(new StringReader(DOC), (p, t, g) -> seen.add(new Seen(p, t, g)));
+
+        assertEquals(2, seen.size());
+        assertEquals(3, reader.getFeatureCount()); // includes the skipped non-Feature
+        assertEquals(1.0, lastProgress[0]);
+
+        Seen country = seen.get(0);
+        assertEquals("MultiPolygon", country.type());
+        assertEquals("Testland", country.props().get("ADMIN"));
+        assertEquals(12L, country.props().get("POP"));
+        assertFalse(country.props().containsKey("nested"));
+        assertEquals(2, country.geom().ringCount());
+        assertEquals(4, country.geom().ringSize(0));
+        assertEquals(Math.PI / 2, country.geom().x(1), 1e-12);
+        assertEquals(Math.PI / 4, country.geom().y(2), 1e-12);
+
+        Seen city = seen.get(1);
+        assertEquals("Point", city.type());
+        assertEquals(1, city.geom().vertexCount());
+        assertEquals(Math.PI, city.geom().x(0), 1e-12);
+        assertEquals(-Math.PI / 2, city.geom().y(0), 1e-12);
+    }
+
+    @Test
+    void rejectsNonFeatureCollection() {
+        String bad = "{ \"type\": \"Feature\", \"features\": [] }";
+        assertThrows(IOException.class, () -> new GeoJsonStreamReader(-1, null)
+                .read(new StringReader(bad), (p, t, g) -> { }));
+    }
+
+    @Test
+    void streamProgressCountsBytesOfNonAsciiText() throws IOException {
+        StringBuilder sb = new StringBuilder("{ \"type\": \"FeatureCollection\", \"features\": [");
+        for (int i = 0; i < 1024; i++) {
+            sb.append(i == 0 ? "" : ",")
+              .append("{ \"type\": \"Feature\", \"properties\": { \"NAME\": \"東京都市圏東京都市圏東京都市圏東京都市圏東京都市圏東京都市圏 ")
+              .append(i).append("\" }, \"geometry\": { \"type\": \"Point\", \"coordinates\": [139.7, 35.7] } }");
+        }
+        byte[] bytes = sb.append("] }").toString().getBytes(StandardCharsets.UTF_8);
+        assertTrue(bytes.length > 1.3 * sb.length());
+
+        List<Double> progress = new ArrayList<>();
+        GeoJsonStreamReader reader = new GeoJsonStreamReader(bytes.length, progress::add);
+        reader.read(new ByteArrayInputStream(bytes), (p, t, g) -> { });
+
+        assertEquals(1024, reader.getFeatureCount());
+        assertEquals(5, progress.size()); // every 256 features, then the final 1.0
+        assertTrue(progress.get(3) > 0.99, "last feature is at the end of the bytes: " + progress.get(3));
+        assertEquals(0.25, progress.get(0), 0.01);
+        assertEquals(1.0, progress.get(4));
+    }
+}
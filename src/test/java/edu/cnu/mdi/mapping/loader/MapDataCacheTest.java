@@ -0,0 +1,162 @@
+package edu.cnu.mdi.mapping.loader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.cnu.mdi.mapping.loader.GeoJsonCityLoader.CityFeature;
+import edu.cnu.mdi.mapping.loader.GeoJsonCountryLoader.CountryFeature;
+import edu.cnu.mdi.mapping.shapefile.DbfTable;
+import edu.cnu.mdi.mapping.shapefile.ShapeFeature;
+import edu.cnu.mdi.mapping.shapefile.ShapefileGeometryReader;
+import edu.cnu.mdi.mapping.util.PackedGeometry;
+
+class MapDataCacheTest {
+
+	private static final String COUNTRY_JSON = """
+			{"type":"FeatureCollection","features":[
+			 {"type":"Feature","properties":{"ADMIN":"%s","ISO_A3":"SQR"},
+			  "geometry":{"type":"Polygon","coordinates":[[[0,0],[10,0],[10,10],[0,10],[0,0]]]}}
+			]}
+			""";
+
+	private static long cacheFileCount(Path dir) throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(p -> p.toString().endsWith(".bin")).count();
+		}
+	}
+
+	/** Writes a one-triangle polygon shapefile with a NAME C(8), POP N(10,1) table. */
+	private static Path writeShapefile(Path dir) throws IOException {
+		double[][] pts = { { 0, 0 }, { 10, 0 }, { 10, 10 }, { 0, 0 } };
+		int contentBytes = 4 + 32 + 4 + 4 + 4 + 16 * pts.length;
+		int fileBytes = 100 + 8 + contentBytes;
+		ByteBuffer shp = ByteBuffer.allocate(fileBytes);
+		shp.order(ByteOrder.BIG_ENDIAN).putInt(0, 9994).putInt(24, fileBytes / 2);
+		shp.order(ByteOrder.LITTLE_ENDIAN).putInt(28, 1000).putInt(32, ShapefileGeometryReader.TYPE_POLYGON);
+		shp.position(100);
+		shp.order(ByteOrder.BIG_ENDIAN).putInt(1).putInt(contentBytes / 2);
+		shp.order(ByteOrder.LITTLE_ENDIAN).putInt(ShapefileGeometryReader.TYPE_POLYGON);
+		shp.putDouble(0).putDouble(0).putDouble(10).putDouble(10).putInt(1).putInt(pts.length).putInt(0);
+		for (double[] pt : pts) {
+			shp.putDouble(pt[0]).putDouble(pt[1]);
+		}
+		Path shpPath = dir.resolve("t.shp");
+		Files.write(shpPath, shp.array());
+
+		int recordSize = 1 + 8 + 10;
+		int headerSize = 32 + 2 * 32 + 1;
+		ByteBuffer dbf = ByteBuffer.allocate(headerSize + recordSize).order(ByteOrder.LITTLE_ENDIAN);
+		dbf.put((byte) 3).put(new byte[3]).putInt(1).putShort((short) headerSize).putShort((short) recordSize)
+				.put(new byte[20]);
+		for (Object[] f : new Object[][] { { "NAME", 'C', 8, 0 }, { "POP", 'N', 10, 1 } }) {
+			byte[] name = Arrays.copyOf(((String) f[0]).getBytes(StandardCharsets.US_ASCII), 11);
+			dbf.put(name).put((byte) (char) f[1]).putInt(0).put((byte) (int) f[2]).put((byte) (int) f[3])
+					.put(new byte[14]);
+		}
+		dbf.put((byte) 0x0D).put((byte) ' ').put("Tri     ".getBytes(StandardCharsets.US_ASCII))
+				.put("    1234.5".getBytes(StandardCharsets.US_ASCII));
+		Files.write(dir.resolve("t.dbf"), dbf.array());
+		return shpPath;
+	}
+
+	@Test
+	void cachedShapefileKeepsColumnarAttributes(@TempDir Path dir) throws IOException {
+		Path shp = writeShapefile(dir);
+		MapDataCache cache = new MapDataCache(dir.resolve("cache"));
+		List<ShapeFeature> parsed = cache.loadShapefile(shp);
+		List<ShapeFeature> cached = cache.loadShapefile(shp);
+
+		assertEquals(1, cached.size());
+		ShapeFeature f = cached.get(0);
+		assertInstanceOf(DbfTable.Row.class, f.getProperties());
+		assertEquals(parsed.get(0).getProperties(), f.getProperties());
+		assertEquals("Tri", f.getProperty("NAME"));
+		assertEquals(1234.5, f.getPropertyDouble("POP", -1));
+		assertEquals(1234, ((DbfTable.Row) f.getProperties()).getLong("POP", -1));
+		assertEquals(parsed.get(0).getRingGeometry().vertexCount(), f.getRingGeometry().vertexCount());
+
+		// A read must not hold the file open or mapped: it can be replaced at once.
+		Path bin;
+		try (Stream<Path> files = Files.list(dir.resolve("cache"))) {
+			bin = files.filter(p -> p.toString().endsWith(".bin")).findFirst().orElseThrow();
+		}
+		Path copy = dir.resolve("copy.bin");
+		Files.copy(bin, copy);
+		Files.move(copy, bin, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+		assertEquals("Tri", cache.loadShapefile(shp).get(0).getProperty("NAME"));
+	}
+
+	@Test
+	void fileCacheRoundTripsAndInvalidatesOnChange(@TempDir Path dir) throws IOException {
+		Path src = dir.resolve("countries.geojson");
+		Path cacheDir = dir.resolve("cache");
+		Files.writeString(src, COUNTRY_JSON.formatted("Square"), StandardCharsets.UTF_8);
+		MapDataCache cache = new MapDataCache(cacheDir);
+
+		List<CountryFeature> parsed = cache.loadCountries(src);
+		assertEquals(1, cacheFileCount(cacheDir));
+
+		List<CountryFeature> cached = cache.loadCountries(src);
+		assertEquals(1, cached.size());
+		assertEquals("Square", cached.get(0).getAdminName());
+		PackedGeometry a = parsed.get(0).getGeometry();
+		PackedGeometry b = cached.get(0).getGeometry();
+		assertEquals(a.vertexCount(), b.vertexCount());
+		assertEquals(a.ringCount(), b.ringCount());
+		assertEquals(a.getMaxX(), b.getMaxX());
+		assertEquals(a.y(2), b.y(2));
+
+		// Different content and timestamp: the cache must not be used.
+		Files.writeString(src, COUNTRY_JSON.formatted("Renamed"), StandardCharsets.UTF_8);
+		Files.setLastModifiedTime(src, FileTime.fromMillis(Files.getLastModifiedTime(src).toMillis() + 5000));
+		assertEquals("Renamed", cache.loadCountries(src).get(0).getAdminName());
+
+		cache.clear();
+		assertEquals(0, cacheFileCount(cacheDir));
+	}
+
+	@Test
+	void bundledCitiesMatchParsedResource(@TempDir Path dir) throws IOException {
+		String res = "/edu/cnu/mdi/geo/cities.geojson";
+		List<CityFeature> expected = GeoJsonCityLoader.loadFromResourceStatic(res);
+
+		MapDataCache cache = new MapDataCache(dir);
+		cache.loadCitiesFromResource(res);
+		List<CityFeature> cached = cache.loadCitiesFromResource(res);
+
+		assertEquals(expected.size(), cached.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).toString(), cached.get(i).toString());
+		}
+	}
+
+	@Test
+	void corruptCacheFileIsReplaced(@TempDir Path dir) throws IOException {
+		Path src = dir.resolve("c.geojson");
+		Files.writeString(src, COUNTRY_JSON.formatted("Square"), StandardCharsets.UTF_8);
+		Path cacheDir = dir.resolve("cache");
+		MapDataCache cache = new MapDataCache(cacheDir);
+		cache.loadCountries(src);
+
+		try (Stream<Path> files = Files.list(cacheDir)) {
+			Path bin = files.filter(p -> p.toString().endsWith(".bin")).findFirst().orElseThrow();
+			byte[] bytes = Files.readAllBytes(bin);
+			Files.write(bin, Arrays.copyOf(bytes, bytes.length / 2));
+		}
+
+		assertEquals("Square", cache.loadCountries(src).get(0).getAdminName());
+	}
+}
@@ -0,0 +1,75 @@
+package edu.cnu.mdi.mapping.render;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.cnu.mdi.container.OffscreenContainer;
+import edu.cnu.mdi.mapping.loader.GeoJsonCityLoader.CityFeature;
+import edu.cnu.mdi.mapping.projection.MercatorProjection;
+import edu.cnu.mdi.mapping.theme.MapTheme;
+
+class CityPointRendererTest {
+
+	private static Point screenOf(CityFeature city, MercatorProjection projection, OffscreenContainer container) {
+		Point2D.Double xy = new Point2D.Double();
+		projection.latLonToXY(new Point2D.Double(city.getLongitude(), city.getLatitude()), xy);
+		Point p = new Point();
+		container.worldToLocal(p, xy);
+		return p;
+	}
+
+	@Test
+	void streamedCitiesAreDrawnAndPicked() {
+		MercatorProjection projection = new MercatorProjection(MapTheme.light());
+		OffscreenContainer container = new OffscreenContainer(projection.getXYBounds(), 400, 400);
+
+		List<CityFeature> source = new ArrayList<>();
+		CityPointRenderer renderer = new CityPointRenderer(source, projection);
+		renderer.setDrawLabels(false);
+
+		CityFeature paris = new CityFeature("Paris", "France", Math.toRadians(2.35), Math.toRadians(48.86), 2_000_000, 0);
+		Point at = screenOf(paris, projection, container);
+		assertNull(renderer.pickCity(at, container));
+
+		// Later changes to the constructor's list are not seen; batches arrive by append.
+		source.add(paris);
+		assertEquals(0, renderer.getCityCount());
+		renderer.appendCities(List.of(paris));
+		assertEquals(1, renderer.getCityCount());
+		assertSame(paris, renderer.pickCity(at, container));
+
+		// Grow past the initial capacity in several batches.
+		for (int batch = 0; batch < 5; batch++) {
+			List<CityFeature> chunk = new ArrayList<>();
+			for (int k = 0; k < 10; k++) {
+				chunk.add(new CityFeature("c" + batch + "_" + k, "X", Math.toRadians(-100 + k), Math.toRadians(-40 + 5 * batch), 10, 3));
+			}
+			renderer.appendCities(chunk);
+		}
+		assertEquals(51, renderer.getCityCount());
+		assertSame(paris, renderer.pickCity(at, container));
+		CityFeature last = new CityFeature("last", "X", Math.toRadians(120), Math.toRadians(-20), 10, 3);
+		renderer.appendCities(List.of(last));
+		assertSame(last, renderer.pickCity(screenOf(last, projection, container), container));
+
+		// The streamed city is drawn.
+		BufferedImage img = new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = img.createGraphics();
+		renderer.render(g, container);
+		g.dispose();
+		assertNotEquals(0, img.getRGB(at.x, at.y) >>> 24);
+
+		// The filter still applies to appended cities.
+		renderer.setMinPopulation(100);
+		assertNull(renderer.pickCity(screenOf(last, projection, container), container));
+		assertSame(paris, renderer.pickCity(at, container));
+	}
+}
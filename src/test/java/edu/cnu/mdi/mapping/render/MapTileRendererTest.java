@@ -0,0 +1,141 @@
+package edu.cnu.mdi.mapping.render;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import edu.cnu.mdi.container.IContainer;
+import edu.cnu.mdi.container.OffscreenContainer;
+import edu.cnu.mdi.container.TransformContainer;
+import edu.cnu.mdi.mapping.loader.GeoJsonCityLoader.CityFeature;
+import edu.cnu.mdi.mapping.projection.MercatorProjection;
+import edu.cnu.mdi.mapping.theme.MapTheme;
+
+class MapTileRendererTest {
+
+	/** Paints until every visible tile is cached or the timeout expires. */
+	private static void paintUntilComplete(MapTileRenderer tiles, OffscreenContainer screen, int expected)
+			throws InterruptedException {
+		BufferedImage img = new BufferedImage(screen.getWidth(), screen.getHeight(), BufferedImage.TYPE_INT_RGB);
+		for (int k = 0; k < 200 && tiles.getCachedTileCount() < expected; k++) {
+			Graphics2D g = img.createGraphics();
+			tiles.paint(g, screen);
+			g.dispose();
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	void tilesAreReusedAcrossPansAndDroppedOnInvalidate() throws InterruptedException {
+		AtomicInteger renders = new AtomicInteger();
+		MapTileRenderer tiles = new MapTileRenderer((g, c) -> {
+			renders.incrementAndGet();
+			g.setColor(Color.blue);
+			g.fillRect(0, 0, c.getWidth(), c.getHeight());
+		}, 64, 100);
+
+		try {
+			// 200x100 px over a 2x1 world: one world unit per 100 px, origin at a tile corner.
+			OffscreenContainer screen = new OffscreenContainer(new Rectangle2D.Double(0, -1, 2, 1), 200, 100);
+			paintUntilComplete(tiles, screen, 8); // 4 columns x 2 rows
+			assertEquals(8, tiles.getCachedTileCount());
+			int afterFirst = renders.get();
+			assertEquals(8, afterFirst);
+
+			// Pan right by exactly one tile: only the newly exposed column is rendered.
+			screen.getWorldSystem().x += 0.64;
+			paintUntilComplete(tiles, screen, 10);
+			assertEquals(afterFirst + 2, renders.get());
+
+			long gen = tiles.getGeneration();
+			tiles.invalidate();
+			assertEquals(gen + 1, tiles.getGeneration());
+			assertEquals(0, tiles.getCachedTileCount());
+		} finally {
+			tiles.shutdown();
+		}
+	}
+
+	@Test
+	void onePaintRendersEveryRequestedTile() throws InterruptedException {
+		AtomicInteger renders = new AtomicInteger();
+		MapTileRenderer tiles = new MapTileRenderer((g, c) -> renders.incrementAndGet(), 32, 5000);
+		try {
+			// Enough tiles that jobs start while the paint is still submitting;
+			// no later paint re-requests a tile a job skipped.
+			OffscreenContainer screen = new OffscreenContainer(new Rectangle2D.Double(0, -1, 1, 1), 2048, 2048);
+			BufferedImage img = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+			Graphics2D g = img.createGraphics();
+			tiles.paint(g, screen);
+			g.dispose();
+			for (int k = 0; k < 500 && tiles.getCachedTileCount() < 4096; k++) {
+				Thread.sleep(10);
+			}
+			assertEquals(4096, tiles.getCachedTileCount());
+			assertEquals(4096, renders.get());
+		} finally {
+			tiles.shutdown();
+		}
+	}
+
+	@Test
+	void tileJobsDrawThroughTransformContainers() throws InterruptedException {
+		List<IContainer> seen = new CopyOnWriteArrayList<>();
+		MapTileRenderer tiles = new MapTileRenderer((g, c) -> seen.add(c), 64, 100);
+		try {
+			OffscreenContainer screen = new OffscreenContainer(new Rectangle2D.Double(0, -1, 2, 1), 200, 100);
+			paintUntilComplete(tiles, screen, 8);
+			assertEquals(8, seen.size());
+			for (IContainer c : seen) {
+				assertInstanceOf(TransformContainer.class, c);
+				assertNull(c.getComponent());
+				assertEquals(c.getWidth(), c.getHeight());
+				assertTrue(c.getWidth() > 64); // tile plus gutter
+			}
+		} finally {
+			tiles.shutdown();
+		}
+	}
+
+	@Test
+	void streamedCitiesAppearInTiles() throws InterruptedException {
+		MercatorProjection projection = new MercatorProjection(MapTheme.dark());
+		CityPointRenderer cities = new CityPointRenderer(List.of(), projection);
+		cities.setDrawLabels(false);
+		cities.setPointRadius(3);
+		MapTileRenderer tiles = new MapTileRenderer(cities::render, 64, 100);
+		try {
+			OffscreenContainer screen = new OffscreenContainer(projection.getXYBounds(), 256, 256);
+			paintUntilComplete(tiles, screen, 16);
+
+			CityFeature city = new CityFeature("Lima", "Peru", Math.toRadians(-77.0), Math.toRadians(-12.0), 10_000_000, 0);
+			cities.appendCities(List.of(city));
+			tiles.invalidate();
+			paintUntilComplete(tiles, screen, 16);
+
+			Point2D.Double xy = new Point2D.Double();
+			projection.latLonToXY(new Point2D.Double(city.getLongitude(), city.getLatitude()), xy);
+			Point at = new Point();
+			screen.worldToLocal(at, xy);
+
+			BufferedImage img = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+			Graphics2D g = img.createGraphics();
+			tiles.paint(g, screen);
+			g.dispose();
+			assertNotEquals(0, img.getRGB(at.x, at.y) & 0xFFFFFF);
+			assertEquals(0, img.getRGB(at.x + 20, at.y + 20) & 0xFFFFFF);
+		} finally {
+			tiles.shutdown();
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package edu.cnu.mdi.mapping.shapefile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DbfTableTest {
+
+	/** Writes a two-column table (NAME C(8), POP N(10,1)); record 1 is deleted. */
+	private static Path writeDbf(Path dir) throws IOException {
+		return writeDbf(dir, "POP");
+	}
+
+	/** Writes the two-column table with the second column given another name. */
+	private static Path writeDbf(Path dir, String secondName) throws IOException {
+		String[][] rows = { { "Paris", "2148000.0" }, { "Gone", "1" }, { "Lyon", "" }, { "Paris", "abc" } };
+		int recordSize = 1 + 8 + 10;
+		int headerSize = 32 + 2 * 32 + 1;
+		ByteBuffer buf = ByteBuffer.allocate(headerSize + rows.length * recordSize).order(ByteOrder.LITTLE_ENDIAN);
+		buf.put((byte) 3).put(new byte[3]).putInt(rows.length).putShort((short) headerSize)
+				.putShort((short) recordSize).put(new byte[20]);
+		field(buf, "NAME", 'C', 8, 0);
+		field(buf, secondName, 'N', 10, 1);
+		buf.put((byte) 0x0D);
+		for (int r = 0; r < rows.length; r++) {
+			buf.put((byte) (r == 1 ? '*' : ' '));
+			buf.put(pad(rows[r][0], 8, false));
+			buf.put(pad(rows[r][1], 10, true));
+		}
+		Path path = dir.resolve("t.dbf");
+		Files.write(path, buf.array());
+		return path;
+	}
+
+	private static void field(ByteBuffer buf, String name, char type, int length, int decimals) {
+		byte[] n = new byte[11];
+		byte[] src = name.getBytes(StandardCharsets.US_ASCII);
+		System.arraycopy(src, 0, n, 0, src.length);
+		buf.put(n).put((byte) type).putInt(0).put((byte) length).put((byte) decimals).put(new byte[14]);
+	}
+
+	private static byte[] pad(String s, int width, boolean right) {
+		String f = right ? String.format("%" + width + "s", s) : String.format("%-" + width + "s", s);
+		return f.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	@Test
+	void decodesTypedColumnsAndSkipsDeletedRows(@TempDir Path dir) throws IOException {
+		DbfTable table;
+		try (ShapefileDbfReader dbf = new ShapefileDbfReader(writeDbf(dir))) {
+			table = dbf.readTable();
+		}
+
+		assertEquals(3, table.getRowCount());
+		int name = table.getFieldIndex("NAME");
+		int pop = table.getFieldIndex("POP");
+		assertEquals(-1, table.getFieldIndex("MISSING"));
+
+		assertEquals("Paris", table.getString(0, name));
+		assertEquals("Lyon", table.getString(1, name));
+		assertSame(table.getString(0, name), table.getString(2, name)); // dictionary-encoded
+
+		assertEquals(2148000L, table.getLong(0, pop));
+		assertEquals(DbfTable.MISSING_LONG, table.getLong(1, pop));
+		assertEquals(DbfTable.MISSING_LONG, table.getLong(2, pop));
+		assertEquals(2148000.0, table.getDouble(0, pop));
+		assertTrue(Double.isNaN(table.getDouble(2, pop)));
+
+		assertArrayEquals(new int[] { 0 }, table.selectRows("POP", 1_000_000, Double.MAX_VALUE));
+		assertEquals(0, table.selectRows("MISSING", 0, 1).length);
+	}
+
+	@Test
+	void rowViewsMatchEagerRecords(@TempDir Path dir) throws IOException {
+		Path path = writeDbf(dir);
+		try (ShapefileDbfReader dbf = new ShapefileDbfReader(path)) {
+			List<Map<String, String>> eager = dbf.readAllRecords();
+			DbfTable table = dbf.readTable();
+			assertEquals(eager.size(), table.getRowCount());
+			for (int r = 0; r < eager.size(); r++) {
+				assertEquals(eager.get(r), table.row(r));
+				assertEquals(List.copyOf(eager.get(r).keySet()), List.copyOf(table.row(r).keySet()));
+			}
+		}
+
+		try (ShapefileDbfReader dbf = new ShapefileDbfReader(path)) {
+			ShapeFeature feature = new ShapeFeature(ShapefileGeometryReader.TYPE_POINT, List.of(), List.of(),
+					dbf.readTable().row(0));
+			assertEquals(2148000.0, feature.getPropertyDouble("POP", -1));
+			assertEquals(2148000, feature.getPropertyInt("POP", -1));
+			assertEquals(-1, feature.getPropertyInt("NAME", -1));
+			assertEquals("Paris", feature.getProperty("NAME"));
+		}
+	}
+
+	@Test
+	void repeatedFieldNameKeepsLastField(@TempDir Path dir) throws IOException {
+		Path path = writeDbf(dir, "NAME");
+		try (ShapefileDbfReader dbf = new ShapefileDbfReader(path)) {
+			List<Map<String, String>> eager = dbf.readAllRecords();
+			DbfTable table = dbf.readTable();
+			assertEquals(1, table.getFieldIndex("NAME"));
+			assertEquals(2, table.getFields().size());
+
+			Map<String, String> row = table.row(0);
+			assertEquals(1, row.size());
+			assertEquals(1, row.entrySet().size());
+			assertEquals("2148000.0", row.get("NAME"));
+			assertEquals(Map.of("NAME", "2148000.0"), Map.copyOf(row));
+			for (int r = 0; r < eager.size(); r++) {
+				assertEquals(eager.get(r), table.row(r));
+				assertEquals(eager.get(r).hashCode(), table.row(r).hashCode());
+			}
+		}
+	}
+}
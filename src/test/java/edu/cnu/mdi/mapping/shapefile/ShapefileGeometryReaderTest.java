@@ -0,0 +1,85 @@
+package edu.cnu.mdi.mapping.shapefile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.cnu.mdi.mapping.util.PackedGeometry;
+
+class ShapefileGeometryReaderTest {
+
+	/**
+	 * Writes one polygon record with three parts: a triangle, an empty part,
+	 * and a two-point part.
+	 */
+	private static Path writePolygon(Path dir) throws IOException {
+		int[] parts = { 0, 3, 3 };
+		double[][] pts = { { 0, 0 }, { 10, 0 }, { 10, 10 }, { 20, 20 }, { 30, 30 } };
+		int contentBytes = 4 + 32 + 4 + 4 + 4 * parts.length + 16 * pts.length;
+		int fileBytes = 100 + 8 + contentBytes;
+
+		ByteBuffer buf = ByteBuffer.allocate(fileBytes);
+		buf.order(ByteOrder.BIG_ENDIAN).putInt(0, 9994).putInt(24, fileBytes / 2);
+		buf.order(ByteOrder.LITTLE_ENDIAN).putInt(28, 1000).putInt(32, ShapefileGeometryReader.TYPE_POLYGON);
+		buf.position(100);
+		buf.order(ByteOrder.BIG_ENDIAN).putInt(1).putInt(contentBytes / 2);
+		buf.order(ByteOrder.LITTLE_ENDIAN).putInt(ShapefileGeometryReader.TYPE_POLYGON);
+		buf.putDouble(0).putDouble(0).putDouble(30).putDouble(30);
+		buf.putInt(parts.length).putInt(pts.length);
+		for (int p : parts) {
+			buf.putInt(p);
+		}
+		for (double[] pt : pts) {
+			buf.putDouble(pt[0]).putDouble(pt[1]);
+		}
+		Path path = dir.resolve("t.shp");
+		Files.write(path, buf.array());
+		return path;
+	}
+
+	@Test
+	void packedRecordsMatchPointRecords(@TempDir Path dir) throws IOException {
+		Path path = writePolygon(dir);
+		List<List<Point2D.Double>> rings;
+		try (ShapefileGeometryReader shp = new ShapefileGeometryReader(path)) {
+			rings = shp.nextRecord().rings();
+		}
+
+		try (ShapefileGeometryReader shp = new ShapefileGeometryReader(path)) {
+			ShapefileGeometryReader.PackedRecord rec = shp.nextPackedRecord(DoubleUnaryOperator.identity(),
+					DoubleUnaryOperator.identity(), 1);
+			assertEquals(1, rec.recordNumber());
+			assertEquals(ShapefileGeometryReader.TYPE_POLYGON, rec.shapeType());
+			assertEquals(rings, rec.geometry().asRingList());
+			assertNull(shp.nextPackedRecord(DoubleUnaryOperator.identity(), DoubleUnaryOperator.identity(), 1));
+		}
+	}
+
+	@Test
+	void packedRecordsConvertAndFilterRings(@TempDir Path dir) throws IOException {
+		Path path = writePolygon(dir);
+		try (ShapefileGeometryReader shp = new ShapefileGeometryReader(path)) {
+			PackedGeometry g = shp.nextPackedRecord(x -> 2 * x, y -> -y, 3).geometry();
+			assertEquals(1, g.ringCount()); // empty and two-point parts dropped
+			assertEquals(20, g.x(1));
+			assertEquals(-10, g.y(2));
+		}
+		try (ShapefileGeometryReader shp = new ShapefileGeometryReader(path)) {
+			PackedGeometry g = shp.nextPackedRecord(DoubleUnaryOperator.identity(),
+					DoubleUnaryOperator.identity(), 0).geometry();
+			assertEquals(3, g.ringCount()); // part indices match the file
+			assertEquals(0, g.ringSize(1));
+			assertEquals(2, g.ringSize(2));
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package edu.cnu.mdi.mapping.util;
+
+import java.awt.geom.Point2D;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedGeometryTest {
+
+    @Test
+    void builderPacksRingsAndDropsDegenerateOnes() {
+        PackedGeometry.Builder b = new PackedGeometry.Builder(2);
+        b.beginRing();
+        b.add(0, 0);
+        b.add(1, 0);
+        b.add(1, 1);
+        assertTrue(b.endRing(3));
+
+        b.beginRing();
+        b.add(5, 5);
+        assertFalse(b.endRing(3));
+
+        b.beginRing();
+        b.add(-2, 3);
+        b.add(-1, 4);
+        b.add(-3, 2);
+        b.add(-2, 3);
+        assertTrue(b.endRing(3));
+
+        PackedGeometry g = b.build();
+        assertEquals(2, g.ringCount());
+        assertEquals(7, g.vertexCount());
+        assertEquals(3, g.ringSize(0));
+        assertEquals(4, g.ringSize(1));
+        assertEquals(3, g.ringStart(1));
+        assertEquals(-2, g.x(3));
+        assertEquals(3, g.y(3));
+        assertEquals(-3, g.getMinX());
+        assertEquals(4, g.getMaxY());
+    }
+
+    @Test
+    void listViewsMatchSourceData() {
+        List<List<Point2D.Double>> rings = List.of(
+                List.of(new Point2D.Double(1, 2), new Point2D.Double(3, 4)),
+                List.of(new Point2D.Double(5, 6)));
+
+        PackedGeometry g = PackedGeometry.fromRings(rings, 1);
+        assertEquals(rings, g.asRingList());
+        assertEquals(3, g.asPointList().size());
+        assertEquals(new Point2D.Double(5, 6), g.asPointList().get(2));
+        assertThrows(UnsupportedOperationException.class,
+                () -> g.asRingList().get(0).add(new Point2D.Double()));
+    }
+
+    @Test
+    void minimumSizeZeroKeepsEmptyRingsInPlace() {
+        List<List<Point2D.Double>> rings = List.of(
+                List.of(new Point2D.Double(1, 2)),
+                List.of(),
+                List.of(new Point2D.Double(3, 4)));
+
+        PackedGeometry kept = PackedGeometry.fromRings(rings, 0);
+        assertEquals(rings, kept.asRingList());
+        assertEquals(1, kept.ringStart(2));
+
+        assertEquals(2, PackedGeometry.fromRings(rings, 1).ringCount());
+    }
+
+    @Test
+    void emptyInputYieldsSharedEmpty() {
+        assertSame(PackedGeometry.EMPTY, PackedGeometry.fromPoints(List.of()));
+        assertSame(PackedGeometry.EMPTY, new PackedGeometry.Builder().build());
+        assertTrue(PackedGeometry.EMPTY.asRingList().isEmpty());
+    }
+}
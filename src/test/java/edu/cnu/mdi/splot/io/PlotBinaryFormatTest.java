@@ -0,0 +1,195 @@
+package edu.cnu.mdi.splot.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.cnu.mdi.splot.pdata.PlotDataType;
+
+class PlotBinaryFormatTest {
+
+	@TempDir
+	Path dir;
+
+	private static PlotSpec xySpec(int n) {
+		PlotSpec spec = new PlotSpec();
+		spec.plotDataType = PlotDataType.XYEXYE;
+		spec.parameters.plotTitle = "Title";
+		CurveSpec cs = new CurveSpec();
+		cs.name = "c0";
+		cs.fitOrder = 3;
+		cs.x = new double[n];
+		cs.y = new double[n];
+		cs.e = new double[n];
+		for (int i = 0; i < n; i++) {
+			cs.x[i] = i;
+			cs.y[i] = Math.sin(i);
+			cs.e[i] = 0.1 * i;
+		}
+		spec.curves.add(cs);
+		return spec;
+	}
+
+	@Test
+	void roundTripsCurvesInEachCodec() throws IOException {
+		PlotSpec spec = xySpec(300_000);
+		for (PlotBinaryFormat.Compression codec : PlotBinaryFormat.Compression.values()) {
+			File file = dir.resolve("xy-" + codec + ".plot.bin").toFile();
+			PlotBinaryFormat.write(spec, file, codec);
+			assertTrue(PlotBinaryFormat.isBinary(file));
+
+			PlotSpec back = PlotBinaryFormat.read(file);
+			assertEquals(PlotDataType.XYEXYE, back.plotDataType);
+			assertEquals("Title", back.parameters.plotTitle);
+			CurveSpec cs = back.curves.get(0);
+			assertEquals("c0", cs.name);
+			assertEquals(3, cs.fitOrder);
+			assertArrayEquals(spec.curves.get(0).x, cs.x);
+			assertArrayEquals(spec.curves.get(0).y, cs.y);
+			assertArrayEquals(spec.curves.get(0).e, cs.e);
+		}
+		// the source spec keeps its arrays
+		assertNotNull(spec.curves.get(0).x);
+	}
+
+	@Test
+	void rawColumnsAreEightBytesPerValue() throws IOException {
+		File file = dir.resolve("size.plot.bin").toFile();
+		PlotBinaryFormat.write(xySpec(100_000), file, PlotBinaryFormat.Compression.NONE);
+		long data = 3 * 100_000 * 8L;
+		assertTrue(file.length() > data && file.length() < data + 4096, "size " + file.length());
+	}
+
+	@Test
+	void roundTripsHistograms() throws IOException {
+		PlotSpec spec = new PlotSpec();
+		spec.plotDataType = PlotDataType.H2D;
+		spec.histo2d = new Histo2DSpec();
+		spec.histo2d.name = "heat";
+		spec.histo2d.nx = 3;
+		spec.histo2d.ny = 2;
+		spec.histo2d.bins = new double[][] { { 1, 2 }, { 3, 4 }, { 5, 6 } };
+		spec.histo2d.xOver_yOver = 7;
+
+		CurveSpec cs = new CurveSpec();
+		cs.histo = new HistoSpec();
+		cs.histo.grid = new double[] { 0, 1, 2 };
+		cs.histo.counts = new long[] { 5, Long.MAX_VALUE };
+		cs.histo.overCount = 9;
+		spec.curves.add(cs);
+
+		File file = dir.resolve("h.plot.bin").toFile();
+		PlotBinaryFormat.write(spec, file, PlotBinaryFormat.Compression.DEFLATE);
+		PlotSpec back = PlotBinaryFormat.read(file);
+
+		assertEquals("heat", back.histo2d.name);
+		assertEquals(7, back.histo2d.xOver_yOver);
+		assertEquals(3, back.histo2d.bins.length);
+		for (int i = 0; i < 3; i++) {
+			assertArrayEquals(spec.histo2d.bins[i], back.histo2d.bins[i]);
+		}
+		assertArrayEquals(cs.histo.grid, back.curves.get(0).histo.grid);
+		assertArrayEquals(cs.histo.counts, back.curves.get(0).histo.counts);
+		assertEquals(9, back.curves.get(0).histo.overCount);
+		assertNull(back.curves.get(0).x);
+	}
+
+	@Test
+	void loadSpecDetectsFormatByContent() throws IOException {
+		File bin = dir.resolve("misnamed.plot.json").toFile();
+		PlotBinaryFormat.write(xySpec(10), bin, PlotBinaryFormat.Compression.NONE);
+		assertEquals(10, PlotIO.loadSpec(bin).curves.get(0).x.length);
+
+		File json = dir.resolve("plain.plot.json").toFile();
+		Files.writeString(json.toPath(), "{\"plotDataType\":\"XYXY\",\"curves\":[]}");
+		assertFalse(PlotBinaryFormat.isBinary(json));
+		assertEquals(PlotDataType.XYXY, PlotIO.loadSpec(json).plotDataType);
+	}
+
+	@Test
+	void rejectsTruncatedFiles() throws IOException {
+		File file = dir.resolve("cut.plot.bin").toFile();
+		PlotBinaryFormat.write(xySpec(1000), file, PlotBinaryFormat.Compression.NONE);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(raf.length() - 5);
+		}
+		assertThrows(IOException.class, () -> PlotBinaryFormat.read(file));
+	}
+
+	@Test
+	void interruptedWriteKeepsThePreviousFile() throws IOException {
+		File file = dir.resolve("kept.plot.bin").toFile();
+		PlotBinaryFormat.write(xySpec(10), file, PlotBinaryFormat.Compression.NONE);
+		byte[] before = Files.readAllBytes(file.toPath());
+
+		Thread.currentThread().interrupt();
+		try {
+			assertThrows(InterruptedIOException.class,
+					() -> PlotBinaryFormat.write(xySpec(1000), file, PlotBinaryFormat.Compression.NONE));
+		} finally {
+			Thread.interrupted();
+		}
+		assertArrayEquals(before, Files.readAllBytes(file.toPath()));
+		try (var files = Files.list(dir)) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	@Test
+	void progressIsReportedBlockByBlock() throws IOException {
+		File file = dir.resolve("progress.plot.bin").toFile();
+		List<Double> reports = new ArrayList<>();
+		PlotBinaryFormat.write(xySpec(300_000), file, PlotBinaryFormat.Compression.DEFLATE, reports::add);
+
+		assertTrue(reports.size() > 3, "reports: " + reports.size());
+		for (int i = 1; i < reports.size(); i++) {
+			assertTrue(reports.get(i) >= reports.get(i - 1));
+		}
+		assertTrue(reports.get(0) < 0.5);
+		assertEquals(1.0, reports.get(reports.size() - 1), 1e-12);
+	}
+
+	@Test
+	void interruptingMidWriteCancelsTheSave() throws IOException {
+		File file = dir.resolve("cancel.plot.bin").toFile();
+		PlotBinaryFormat.write(xySpec(10), file, PlotBinaryFormat.Compression.NONE);
+		byte[] before = Files.readAllBytes(file.toPath());
+
+		List<Double> reports = new ArrayList<>();
+		try {
+			assertThrows(InterruptedIOException.class,
+					() -> PlotBinaryFormat.write(xySpec(300_000), file, PlotBinaryFormat.Compression.NONE, f -> {
+						reports.add(f);
+						Thread.currentThread().interrupt();
+					}));
+		} finally {
+			Thread.interrupted();
+		}
+		assertEquals(1, reports.size());
+		assertTrue(reports.get(0) < 1.0);
+		assertArrayEquals(before, Files.readAllBytes(file.toPath()));
+		try (var files = Files.list(dir)) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	@Test
+	void extensionHelpers() {
+		File f = new File("a");
+		assertEquals("a.plot.bin", PlotFileFilter.ensurePlotExtension(f, true).getName());
+		assertEquals("a.plot.json", PlotFileFilter.ensurePlotExtension(f, false).getName());
+		assertTrue(PlotFileFilter.isPlotFile(new File("x.PLOT.BIN")));
+		assertTrue(PlotFileFilter.isBinaryPlotFile(new File("x.plot.bin")));
+		assertFalse(PlotFileFilter.isBinaryPlotFile(new File("x.plot.json")));
+	}
+}
@@ -0,0 +1,189 @@
+package edu.cnu.mdi.splot.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import edu.cnu.mdi.splot.pdata.ACurve;
+import edu.cnu.mdi.splot.pdata.Curve;
+import edu.cnu.mdi.splot.pdata.DataColumn;
+import edu.cnu.mdi.splot.pdata.PlotDataException;
+import edu.cnu.mdi.splot.pdata.PlotDataType;
+
+class PlotJsonStreamTest {
+
+	private static final Gson GSON = new GsonBuilder().setPrettyPrinting().serializeNulls().create();
+
+	private static String write(PlotSpec spec, List<ACurve> curves, List<Double> progress) throws IOException {
+		StringWriter sw = new StringWriter();
+		JsonWriter jw = new JsonWriter(sw);
+		jw.setIndent("  ");
+		jw.setSerializeNulls(true);
+		PlotJsonStream.write(GSON, jw, spec, curves, progress == null ? null : progress::add);
+		return sw.toString();
+	}
+
+	private static PlotSpec read(String json) throws IOException {
+		return PlotJsonStream.read(GSON, new JsonReader(new StringReader(json)));
+	}
+
+	private static PlotSpec h1dSpec() {
+		PlotSpec spec = new PlotSpec();
+		spec.plotDataType = PlotDataType.H1D;
+		spec.parameters.plotTitle = "Histo";
+		spec.parameters.manualXmin = 2.5;
+		CurveSpec cs = new CurveSpec();
+		cs.name = "h";
+		cs.style = new StyleSpec();
+		cs.style.lineWidth = 2f;
+		cs.histo = new HistoSpec();
+		cs.histo.grid = new double[] { 0, 0.5, 1 };
+		cs.histo.counts = new long[] { 3, 4 };
+		cs.histo.underCount = 1;
+		spec.curves.add(cs);
+		return spec;
+	}
+
+	@Test
+	void outputMatchesGsonDocument() throws IOException {
+		PlotSpec spec = h1dSpec();
+		spec.histo2d = new Histo2DSpec();
+		spec.histo2d.nx = 2;
+		spec.histo2d.ny = 1;
+		spec.histo2d.bins = new double[][] { { 1 }, { 2 } };
+
+		String streamed = write(spec, null, null);
+		assertEquals(JsonParser.parseString(GSON.toJson(spec)), JsonParser.parseString(streamed));
+	}
+
+	@Test
+	void readsGsonWrittenFiles() throws IOException {
+		PlotSpec back = read(GSON.toJson(h1dSpec()));
+		assertEquals(PlotDataType.H1D, back.plotDataType);
+		assertEquals("Histo", back.parameters.plotTitle);
+		assertEquals(2.5, back.parameters.manualXmin.doubleValue());
+		CurveSpec cs = back.curves.get(0);
+		assertEquals(2f, cs.style.lineWidth.floatValue());
+		assertArrayEquals(new double[] { 0, 0.5, 1 }, cs.histo.grid);
+		assertArrayEquals(new long[] { 3, 4 }, cs.histo.counts);
+		assertEquals(1, cs.histo.underCount);
+		assertNull(cs.x);
+		assertNull(back.histo2d);
+	}
+
+	@Test
+	void ignoresUnknownFields() throws IOException {
+		PlotSpec back = read("{\"future\": {\"a\": [1, 2]}, \"plotDataType\": \"XYXY\","
+				+ " \"curves\": [{\"name\": \"c\", \"extra\": null, \"x\": [1], \"y\": [2]}]}");
+		assertEquals("c", back.curves.get(0).name);
+		assertArrayEquals(new double[] { 1 }, back.curves.get(0).x);
+	}
+
+	@Test
+	void streamsLiveCurvesInChunks() throws IOException, PlotDataException {
+		int n = 2 * PlotJsonStream.CHUNK + 17;
+		DataColumn x = new DataColumn();
+		DataColumn y = new DataColumn();
+		DataColumn e = new DataColumn();
+		for (int i = 0; i < n; i++) {
+			x.add((double) i);
+			y.add(0.5 * i);
+			e.add(0.25);
+		}
+		List<ACurve> curves = List.of(new Curve("live", x, y, e));
+
+		PlotSpec spec = new PlotSpec();
+		spec.plotDataType = PlotDataType.XYEXYE;
+		CurveSpec cs = new CurveSpec();
+		cs.name = "live";
+		spec.curves.add(cs);
+
+		List<Double> progress = new ArrayList<>();
+		PlotSpec back = read(write(spec, curves, progress));
+		CurveSpec got = back.curves.get(0);
+		assertEquals(n, got.x.length);
+		assertEquals(n - 1.0, got.x[n - 1]);
+		assertEquals(0.5 * (n - 1), got.y[n - 1]);
+		assertEquals(0.25, got.e[n - 1]);
+		assertEquals(9, progress.size());
+		assertEquals(1.0, progress.get(progress.size() - 1));
+	}
+
+	private static PlotSpec xySpec(String name) {
+		PlotSpec spec = new PlotSpec();
+		spec.plotDataType = PlotDataType.XYXY;
+		CurveSpec cs = new CurveSpec();
+		cs.name = name;
+		spec.curves.add(cs);
+		return spec;
+	}
+
+	@Test
+	void curvesWithoutErrorsReachFullProgress() throws IOException, PlotDataException {
+		int n = PlotJsonStream.CHUNK + 5;
+		DataColumn x = new DataColumn();
+		DataColumn y = new DataColumn();
+		for (int i = 0; i < n; i++) {
+			x.add((double) i);
+			y.add(2.0 * i);
+		}
+		List<ACurve> curves = List.of(new Curve("xy", x, y, null));
+
+		List<Double> progress = new ArrayList<>();
+		CurveSpec got = read(write(xySpec("xy"), curves, progress)).curves.get(0);
+		assertEquals(n, got.x.length);
+		assertEquals(n, got.y.length);
+		assertEquals(2.0 * (n - 1), got.y[n - 1]);
+		assertNull(got.e);
+		assertEquals(1.0, progress.get(progress.size() - 1));
+	}
+
+	@Test
+	void curveShrinkingDuringSaveFailsTheSave() throws PlotDataException {
+		int n = PlotJsonStream.CHUNK + 5;
+		DataColumn x = new DataColumn();
+		DataColumn y = new DataColumn();
+		for (int i = 0; i < n; i++) {
+			x.add((double) i);
+			y.add((double) i);
+		}
+		List<ACurve> curves = List.of(new Curve("xy", x, y, null));
+
+		// clear the data after the first chunk of x has been written
+		StringWriter sw = new StringWriter();
+		JsonWriter jw = new JsonWriter(sw);
+		IOException e = assertThrows(IOException.class, () -> PlotJsonStream.write(GSON, jw, xySpec("xy"), curves,
+				fraction -> {
+					x.clear();
+					y.clear();
+				}));
+		assertTrue(e.getMessage().contains("xy"), e.getMessage());
+	}
+
+	@Test
+	void interruptionStopsWriting() {
+		PlotSpec spec = new PlotSpec();
+		CurveSpec cs = new CurveSpec();
+		cs.x = new double[PlotJsonStream.CHUNK + 1];
+		spec.curves.add(cs);
+		Thread.currentThread().interrupt();
+		try {
+			assertThrows(InterruptedIOException.class, () -> write(spec, null, null));
+		} finally {
+			Thread.interrupted();
+		}
+	}
+}
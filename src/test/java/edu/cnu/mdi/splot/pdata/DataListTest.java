@@ -0,0 +1,23 @@
+package edu.cnu.mdi.splot.pdata;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class DataListTest {
+
+	@Test
+	void bulkAppendTracksMinAndMax() {
+		DataList list = new DataList();
+		list.add(5.0);
+		list.addAll(new double[] { 3, Double.NaN, 9, 4 });
+
+		assertEquals(5, list.size());
+		assertArrayEquals(new double[] { 5, 3, Double.NaN, 9, 4 }, list.values());
+		assertEquals(3, list.getMin());
+		assertEquals(9, list.getMax());
+
+		list.remove(3);
+		assertEquals(5, list.getMax());
+	}
+}
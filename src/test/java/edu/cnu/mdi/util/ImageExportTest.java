@@ -0,0 +1,157 @@
+package edu.cnu.mdi.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.EventQueue;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+import javax.swing.JComponent;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.cnu.mdi.container.OffscreenContainer;
+import edu.cnu.mdi.item.Layer;
+import edu.cnu.mdi.item.RectangleItem;
+
+class ImageExportTest {
+
+	@TempDir
+	Path dir;
+
+	/** Red top half, blue bottom half, with a green stripe at y 100..110. */
+	private static JComponent halves(int w, int h) {
+		JComponent c = new JComponent() {
+			@Override
+			protected void paintComponent(Graphics g) {
+				g.setColor(Color.red);
+				g.fillRect(0, 0, w, h / 2);
+				g.setColor(Color.blue);
+				g.fillRect(0, h / 2, w, h - h / 2);
+				g.setColor(Color.green);
+				g.fillRect(0, 100, w, 10);
+			}
+		};
+		c.setSize(w, h);
+		return c;
+	}
+
+	@Test
+	void pngIsPaintedInBandsAtScale() throws IOException {
+		File file = dir.resolve("big.png").toFile();
+		List<Double> progress = new ArrayList<>();
+		ImageExport.export(halves(100, 300), file, 2, progress::add);
+
+		BufferedImage img = ImageIO.read(file);
+		assertEquals(200, img.getWidth());
+		assertEquals(600, img.getHeight());
+		assertEquals(Color.red.getRGB(), img.getRGB(10, 10));
+		assertEquals(Color.green.getRGB(), img.getRGB(150, 210));
+		// rows on either side of the first band boundary
+		assertEquals(Color.red.getRGB(), img.getRGB(50, ImageExport.BAND_HEIGHT - 1));
+		assertEquals(Color.red.getRGB(), img.getRGB(50, ImageExport.BAND_HEIGHT));
+		assertEquals(Color.blue.getRGB(), img.getRGB(199, 599));
+
+		// one report per band, then completion
+		assertEquals(4, progress.size());
+		assertEquals(1.0, progress.get(progress.size() - 1));
+	}
+
+	@Test
+	void svgIsWrittenForSvgNames() throws IOException {
+		File file = dir.resolve("vector.SVG").toFile();
+		assertEquals(ImageExport.Format.SVG, ImageExport.Format.of(file));
+		ImageExport.export(halves(40, 30), file, 4, null);
+
+		String text = Files.readString(file.toPath());
+		assertTrue(text.contains("<svg"));
+		assertTrue(text.contains("width=\"40\""));
+	}
+
+	@Test
+	void interruptionCancelsAndRemovesTheFile() {
+		File file = dir.resolve("cancelled.png").toFile();
+		try {
+			// cancel once the first band is done
+			assertThrows(InterruptedIOException.class, () -> ImageExport.export(halves(100, 300), file, 2,
+					f -> Thread.currentThread().interrupt()));
+		} finally {
+			Thread.interrupted();
+		}
+		assertFalse(file.exists());
+	}
+
+	@Test
+	void cancelledExportKeepsThePreviousFile() throws IOException {
+		File file = dir.resolve("kept.png").toFile();
+		ImageExport.export(halves(40, 30), file, 1, null);
+		byte[] before = Files.readAllBytes(file.toPath());
+		try {
+			assertThrows(InterruptedIOException.class, () -> ImageExport.export(halves(100, 300), file, 2,
+					f -> Thread.currentThread().interrupt()));
+		} finally {
+			Thread.interrupted();
+		}
+		assertArrayEquals(before, Files.readAllBytes(file.toPath()));
+		try (var files = Files.list(dir)) {
+			assertEquals(List.of(file.toPath()), files.toList());
+		}
+	}
+
+	@Test
+	void cachedAndAsyncContainersExportAtFullResolution() throws Exception {
+		OffscreenContainer c = new OffscreenContainer(new Rectangle2D.Double(0, 0, 10, 5), 200, 100);
+		EventQueue.invokeAndWait(() -> {
+		});
+		c.setBackground(Color.white);
+		Layer layer = c.getDefaultLayer();
+		RectangleItem item = new RectangleItem(layer, new Rectangle2D.Double(1, 1, 3, 2));
+		item.getStyleSafe().setFillColor(Color.red);
+
+		BufferedImage direct = exportPng(c, "direct.png");
+
+		// a screen paint fills the layer store at 1x
+		c.setLayerCached(layer, true);
+		BufferedImage screen = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = screen.createGraphics();
+		c.paintComponent(g);
+		g.dispose();
+		assertSameImage(direct, exportPng(c, "cached.png"));
+
+		// no frame has been rendered yet
+		c.setAsyncRendering(true);
+		try {
+			assertSameImage(direct, exportPng(c, "async.png"));
+		} finally {
+			c.setAsyncRendering(false);
+		}
+	}
+
+	private BufferedImage exportPng(OffscreenContainer c, String name) throws IOException {
+		File file = dir.resolve(name).toFile();
+		ImageExport.export(c, file, 4, null);
+		return ImageIO.read(file);
+	}
+
+	private static void assertSameImage(BufferedImage expected, BufferedImage actual) {
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+		for (int y = 0; y < expected.getHeight(); y++) {
+			for (int x = 0; x < expected.getWidth(); x++) {
+				assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "pixel " + x + "," + y);
+			}
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package edu.cnu.mdi.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StartupProfilerTest {
+
+	@BeforeEach
+	void setUp() {
+		StartupProfiler.reset();
+	}
+
+	@AfterEach
+	void tearDown() {
+		StartupProfiler.reset();
+	}
+
+	@Test
+	void phasesAndTotalsAppearInTheReport() {
+		int answer = StartupProfiler.phase("compute", () -> 42);
+		StartupProfiler.phase("look and feel", () -> {
+		});
+		StartupProfiler.accumulate("icon loading", 2_000_000);
+		StartupProfiler.accumulate("icon loading", 1_000_000);
+
+		assertEquals(42, answer);
+		String report = StartupProfiler.report();
+		assertTrue(report.contains("compute"));
+		assertTrue(report.contains("look and feel"));
+		assertTrue(report.contains("3.0 ms in 2 calls  icon loading"));
+		assertTrue(report.contains("Still starting"));
+		// phases are listed in the order they started
+		assertTrue(report.indexOf("compute") < report.indexOf("look and feel"));
+	}
+
+	@Test
+	void failingPhasesAreStillRecorded() {
+		assertThrows(IllegalStateException.class, () -> StartupProfiler.phase("broken", () -> {
+			throw new IllegalStateException();
+		}));
+		assertTrue(StartupProfiler.report().contains("broken"));
+	}
+
+	@Test
+	void nothingIsRecordedAfterFinish() {
+		StartupProfiler.phase("early phase", () -> {
+		});
+		StartupProfiler.finish();
+		assertFalse(StartupProfiler.isActive());
+
+		StartupProfiler.phase("late phase", () -> {
+		});
+		StartupProfiler.accumulate("late category", 1);
+		StartupProfiler.finish(); // no effect
+
+		String report = StartupProfiler.report();
+		assertTrue(report.contains("early phase"));
+		assertFalse(report.contains("late phase"));
+		assertFalse(report.contains("late category"));
+		assertTrue(report.contains("Started"));
+	}
+}
@@ -0,0 +1,134 @@
+package edu.cnu.mdi.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.Test;
+
+class ViewConfigurationTest {
+
+	/** A staged factory whose model load fails and records its thread. */
+	private static StagedViewFactory<String, BaseView> failing(AtomicReference<String> thread) {
+		return new StagedViewFactory<>() {
+			@Override
+			public String loadModel() throws IOException {
+				thread.set(Thread.currentThread().getName());
+				throw new IOException("no data");
+			}
+
+			@Override
+			public BaseView createView(String model) {
+				fail("createView must not run after a failed load");
+				return null;
+			}
+		};
+	}
+
+	@Test
+	void stagedConfigurationsLoadNothingUntilAsked() {
+		AtomicReference<String> thread = new AtomicReference<>();
+		ViewConfiguration<BaseView> config = ViewConfiguration.staged("Test", failing(thread), 0, 0, 0,
+				VirtualView.CENTER);
+
+		assertTrue(config.isStaged());
+		assertFalse(config.isRealized());
+		assertNull(thread.get());
+		assertFalse(ViewConfiguration.eager("Plain", () -> null, 0, 0, 0, VirtualView.CENTER).isStaged());
+	}
+
+	@Test
+	void synchronousRealizationReportsTheLoadFailure() {
+		AtomicReference<String> thread = new AtomicReference<>();
+		ViewConfiguration<BaseView> config = ViewConfiguration.staged("Test", failing(thread), 0, 0, 0,
+				VirtualView.CENTER);
+
+		IllegalStateException e = assertThrows(IllegalStateException.class, config::getView);
+		assertInstanceOf(IOException.class, e.getCause());
+		assertEquals(Thread.currentThread().getName(), thread.get());
+	}
+
+	@Test
+	void asynchronousRealizationLoadsOnTheBackgroundPool() throws Exception {
+		AtomicReference<String> thread = new AtomicReference<>();
+		ViewConfiguration<BaseView> config = ViewConfiguration.staged("Test", failing(thread), 0, 0, 0,
+				VirtualView.CENTER);
+
+		AtomicReference<CompletableFuture<BaseView>> first = new AtomicReference<>();
+		AtomicReference<CompletableFuture<BaseView>> second = new AtomicReference<>();
+		SwingUtilities.invokeAndWait(() -> {
+			first.set(config.realizeAsync());
+			second.set(config.realizeAsync());
+		});
+		assertSame(first.get(), second.get());
+
+		ExecutionException e = assertThrows(ExecutionException.class, () -> first.get().get(10, TimeUnit.SECONDS));
+		assertInstanceOf(IOException.class, e.getCause());
+		assertTrue(thread.get().startsWith("ViewManager-Loader-"));
+		assertFalse(config.isRealized());
+	}
+
+	@Test
+	void failedRealizationsCanBeRetried() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		ViewConfiguration<BaseView> config = ViewConfiguration.staged("Test",
+				new StagedViewFactory<String, BaseView>() {
+					@Override
+					public String loadModel() throws IOException {
+						loads.incrementAndGet();
+						throw new IOException("no data");
+					}
+
+					@Override
+					public BaseView createView(String model) {
+						fail("createView must not run after a failed load");
+						return null;
+					}
+				}, 0, 0, 0, VirtualView.CENTER);
+
+		AtomicReference<CompletableFuture<BaseView>> first = new AtomicReference<>();
+		SwingUtilities.invokeAndWait(() -> first.set(config.realizeAsync()));
+		assertThrows(ExecutionException.class, () -> first.get().get(10, TimeUnit.SECONDS));
+		assertEquals(1, loads.get());
+
+		// a new attempt loads the model again instead of replaying the failure
+		AtomicReference<CompletableFuture<BaseView>> second = new AtomicReference<>();
+		SwingUtilities.invokeAndWait(() -> second.set(config.realizeAsync()));
+		assertNotSame(first.get(), second.get());
+		assertThrows(ExecutionException.class, () -> second.get().get(10, TimeUnit.SECONDS));
+		assertEquals(2, loads.get());
+
+		// so does a synchronous realization after a failed one
+		assertThrows(IllegalStateException.class, config::getView);
+		assertEquals(3, loads.get());
+		assertFalse(config.isRealized());
+	}
+
+	@Test
+	void nullViewsFailTheFuture() throws Exception {
+		ViewConfiguration<BaseView> config = ViewConfiguration.staged("Test",
+				new StagedViewFactory<String, BaseView>() {
+					@Override
+					public String loadModel() {
+						return "model";
+					}
+
+					@Override
+					public BaseView createView(String model) {
+						return null;
+					}
+				}, 0, 0, 0, VirtualView.CENTER);
+
+		AtomicReference<CompletableFuture<BaseView>> future = new AtomicReference<>();
+		SwingUtilities.invokeAndWait(() -> future.set(config.realizeAsync()));
+		ExecutionException e = assertThrows(ExecutionException.class, () -> future.get().get(10, TimeUnit.SECONDS));
+		assertInstanceOf(IllegalStateException.class, e.getCause());
+	}
+}
@@ -0,0 +1,89 @@
+package edu.cnu.mdi.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import javax.swing.JMenu;
+import javax.swing.JMenuItem;
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.Test;
+
+class ViewManagerTest {
+
+	/** A staged factory whose model load waits for {@code release}, then fails. */
+	private static StagedViewFactory<String, BaseView> blocking(CountDownLatch release) {
+		return new StagedViewFactory<>() {
+			@Override
+			public String loadModel() throws IOException {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				throw new IOException("released");
+			}
+
+			@Override
+			public BaseView createView(String model) {
+				return null;
+			}
+		};
+	}
+
+	private static List<String> titles(JMenu menu) {
+		List<String> titles = new ArrayList<>();
+		for (int i = 0; i < menu.getMenuComponentCount(); i++) {
+			if (menu.getMenuComponent(i) instanceof JMenuItem mi) {
+				titles.add(mi.getText());
+			}
+		}
+		return titles;
+	}
+
+	@Test
+	void rebuiltMenuHasPlaceholdersOnlyForLazyConfigurations() throws Exception {
+		ViewManager vm = ViewManager.getInstance();
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			ViewConfiguration<BaseView> loading = ViewConfiguration.staged("Eager Loading View", blocking(release),
+					0, 0, 0, VirtualView.CENTER);
+			ViewConfiguration<BaseView> lazy = ViewConfiguration.lazy("Lazy Plain View", () -> null, 0, 0, 0,
+					VirtualView.CENTER);
+			vm.addConfiguration(loading);
+			vm.addConfiguration(lazy);
+			assertFalse(loading.isLazy());
+			assertTrue(lazy.isLazy());
+
+			JMenu menu = new JMenu("Views");
+			vm.setViewMenu(menu);
+			List<String> titles = new ArrayList<>();
+			SwingUtilities.invokeAndWait(() -> titles.addAll(titles(menu)));
+
+			assertTrue(titles.contains("Lazy Plain View"));
+			assertFalse(titles.contains("Eager Loading View"));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void lazyRealizationMakesLaterConfigurationsLazy() {
+		ViewManager vm = ViewManager.getInstance();
+		ViewConfiguration<BaseView> config = ViewConfiguration.eager("Deferred Plain View", () -> null, 0, 0, 0,
+				VirtualView.CENTER);
+		vm.setLazyRealization(true);
+		try {
+			vm.addConfiguration(config);
+		} finally {
+			vm.setLazyRealization(false);
+		}
+		assertFalse(config.lazily);
+		assertTrue(config.isLazy());
+		assertFalse(config.isRealized());
+	}
+}